@@ -30,6 +30,7 @@ import org.neo4j.consistency.checking.index.IndexAccessors;
 import org.neo4j.consistency.report.ConsistencyReport;
 import org.neo4j.consistency.store.DiffRecordAccess;
 import org.neo4j.consistency.store.RecordAccess;
+import org.neo4j.kernel.api.index.CompositeValue;
 import org.neo4j.kernel.api.index.IndexReader;
 import org.neo4j.kernel.impl.api.LookupFilter;
 import org.neo4j.kernel.impl.nioneo.store.IndexRule;
@@ -62,6 +63,11 @@ public class NodeCorrectlyIndexedCheck implements RecordCheck<NodeRecord, Consis
             }
 
             List<PropertyBlock> properties = propertyReader.propertyBlocks( record );
+            if ( indexRule.isComposite() )
+            {
+                checkCompositeIndex( record.getId(), properties, engine, indexRule );
+                continue;
+            }
             PropertyBlock property = propertyWithKey( properties, indexRule.getPropertyKey() );
 
             if ( property == null )
@@ -87,6 +93,28 @@ public class NodeCorrectlyIndexedCheck implements RecordCheck<NodeRecord, Consis
         }
     }
 
+    private void checkCompositeIndex( long nodeId, List<PropertyBlock> properties,
+            CheckerEngine<NodeRecord, ConsistencyReport.NodeConsistencyReport> engine, IndexRule indexRule )
+    {
+        int[] propertyKeys = indexRule.getPropertyKeys();
+        Object[] values = new Object[propertyKeys.length];
+        for ( int i = 0; i < propertyKeys.length; i++ )
+        {
+            PropertyBlock property = propertyWithKey( properties, propertyKeys[i] );
+            if ( property == null )
+            {
+                // Only nodes having all the properties of a composite index are indexed
+                return;
+            }
+            values[i] = propertyReader.propertyValue( property ).value();
+        }
+
+        try ( IndexReader reader = indexes.accessorFor( indexRule ).newReader() )
+        {
+            verifyNodeCorrectlyIndexed( nodeId, new CompositeValue( values ), engine, indexRule, reader );
+        }
+    }
+
     private void verifyNodeCorrectlyIndexedUniquely( long nodeId, int propertyKeyId, Object propertyValue,
             CheckerEngine<NodeRecord,ConsistencyReport.NodeConsistencyReport> engine, IndexRule indexRule,
             IndexReader reader )
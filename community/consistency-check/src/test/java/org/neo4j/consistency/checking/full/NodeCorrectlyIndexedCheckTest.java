@@ -218,6 +218,32 @@ public class NodeCorrectlyIndexedCheckTest
                     return emptyIterator();
                 }
 
+                @Override
+                public PrimitiveLongIterator rangeSeekByNumber( Number lower, boolean includeLower, Number upper,
+                        boolean includeUpper )
+                {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public PrimitiveLongIterator rangeSeekByString( String lower, boolean includeLower, String upper,
+                        boolean includeUpper )
+                {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public PrimitiveLongIterator rangeSeekByPrefix( String prefix )
+                {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public PrimitiveLongIterator compositePrefixSeek( Object... leadingValues )
+                {
+                    throw new UnsupportedOperationException();
+                }
+
                 @Override
                 public int getIndexedCount( long nodeId, Object propertyValue )
                 {
@@ -52,4 +52,10 @@ class HardcodedGraphStatisticsValues extends GraphStatistics {
 
   def nodesCardinality: Cardinality =
     NODES_CARDINALITY
+
+  def indexSelectivity(labelId: LabelId, propertyKeyId: PropertyKeyId): Option[Multiplier] =
+    None
+
+  def indexSize(labelId: LabelId, propertyKeyId: PropertyKeyId): Option[Cardinality] =
+    None
 }
@@ -108,6 +108,14 @@ case class ManyQueryExpression[T](expression: T) extends QueryExpression[T] {
   def map[R](f: (T) => R) = ManyQueryExpression(f(expression))
 }
 
+case class RangeBound[T](expression: T, inclusive: Boolean) {
+  def map[R](f: T => R) = RangeBound(f(expression), inclusive)
+}
+
+case class RangeQueryExpression[T](lower: Option[RangeBound[T]], upper: Option[RangeBound[T]]) {
+  def map[R](f: T => R) = RangeQueryExpression(lower.map(_.map(f)), upper.map(_.map(f)))
+}
+
 
 case class SchemaIndex(identifier: String, label: String, property: String, kind: SchemaIndexKind, query: Option[QueryExpression[Expression]])
   extends StartItem(identifier, query.map(q => Arguments.LegacyExpression(q.expression)).toSeq :+ Arguments.Index(label, property))
@@ -25,9 +25,10 @@ import org.neo4j.cypher.internal.compiler.v2_1.executionplan.Effects
 import pipes.QueryState
 import symbols._
 import org.neo4j.cypher.SyntaxException
-import org.neo4j.graphalgo.GraphAlgoFactory
+import org.neo4j.graphalgo.{PathFinder, GraphAlgoFactory}
 import org.neo4j.graphdb.{Path, DynamicRelationshipType, Node, Expander}
-import org.neo4j.kernel.Traversal
+import org.neo4j.kernel.{GraphDatabaseAPI, StandardExpander, Traversal}
+import org.neo4j.kernel.impl.traversal.ParallelTraversalPool
 import collection.Map
 import scala.collection.JavaConverters._
 
@@ -42,7 +43,7 @@ case class ShortestPathExpression(ast: ShortestPath) extends Expression with Pat
     }
   }
 
-  private def getMatches(m: Map[String, Any]): Any = {
+  private def getMatches(m: Map[String, Any])(implicit state: QueryState): Any = {
     val start = getEndPoint(m, ast.left)
     val end = getEndPoint(m, ast.right)
     shortestPathStrategy.findResult(start, end)
@@ -80,16 +81,31 @@ case class ShortestPathExpression(ast: ShortestPath) extends Expression with Pat
   override def localEffects = Effects.READS_ENTITIES
 }
 
+object ShortestPathExpression {
+  /**
+   * Expands large frontiers in parallel in the traversal pool of the database, or every level on the calling thread
+   * if the database has no such pool.
+   */
+  def pathFinder(expander: Expander, depth: Int)(implicit state: QueryState): PathFinder[Path] = {
+    val pool = state.db match {
+      case db: GraphDatabaseAPI => db.getDependencyResolver.resolveDependency(classOf[ParallelTraversalPool]).pool()
+      case _                    => null
+    }
+    if (pool == null)
+      GraphAlgoFactory.shortestPath(expander, depth)
+    else
+      GraphAlgoFactory.shortestPath(StandardExpander.toPathExpander(expander), depth, pool)
+  }
+}
+
 trait ShortestPathStrategy {
-  def findResult(start: Node, end: Node): Any
+  def findResult(start: Node, end: Node)(implicit state: QueryState): Any
   def typ: CypherType
 }
 
 class SingleShortestPathStrategy(expander: Expander, allowZeroLength: Boolean, depth: Int) extends ShortestPathStrategy {
-  private val finder = GraphAlgoFactory.shortestPath(expander, depth)
-
-  def findResult(start: Node, end: Node): Path = {
-    val result = finder.findSinglePath(start, end)
+  def findResult(start: Node, end: Node)(implicit state: QueryState): Path = {
+    val result = ShortestPathExpression.pathFinder(expander, depth).findSinglePath(start, end)
     if (!allowZeroLength && result != null && result.length() == 0)
       null
     else
@@ -100,10 +116,8 @@ class SingleShortestPathStrategy(expander: Expander, allowZeroLength: Boolean, d
 }
 
 class AllShortestPathsStrategy(expander: Expander, allowZeroLength: Boolean, depth: Int) extends ShortestPathStrategy {
-  private val finder = GraphAlgoFactory.shortestPath(expander, depth)
-
-  def findResult(start: Node, end: Node): Stream[Path] = {
-    finder.findAllPaths(start, end).asScala.toStream
+  def findResult(start: Node, end: Node)(implicit state: QueryState): Stream[Path] = {
+    ShortestPathExpression.pathFinder(expander, depth).findAllPaths(start, end).asScala.toStream
   }.filter { p => allowZeroLength || p.length() > 0 }
 
   def typ = CTCollection(CTPath)
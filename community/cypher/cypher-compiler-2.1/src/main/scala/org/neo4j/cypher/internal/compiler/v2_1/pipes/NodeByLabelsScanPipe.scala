@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_1.pipes
+
+import org.neo4j.cypher.internal.compiler.v2_1.executionplan.Effects
+import org.neo4j.cypher.internal.compiler.v2_1.{LabelId, _}
+import org.neo4j.cypher.internal.compiler.v2_1.planDescription.PlanDescription.Arguments.{IntroducedIdentifier, LabelName}
+import org.neo4j.cypher.internal.compiler.v2_1.planDescription.{NoChildren, PlanDescriptionImpl}
+import org.neo4j.cypher.internal.compiler.v2_1.symbols.{SymbolTable, _}
+
+case class NodeByLabelsScanPipe(ident: String, labels: Seq[Either[String, LabelId]], matchAll: Boolean)
+                               (implicit pipeMonitor: PipeMonitor) extends Pipe {
+
+  protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = {
+    val optLabelIds = labels.map {
+      case Left(str)      => state.query.getOptLabelId(str)
+      case Right(labelId) => Some(labelId.id)
+    }
+
+    val nodes =
+      if (matchAll) {
+        if (optLabelIds.contains(None)) Iterator.empty
+        else state.query.getNodesByAllLabels(optLabelIds.flatten)
+      } else {
+        val labelIds = optLabelIds.flatten
+        if (labelIds.isEmpty) Iterator.empty
+        else state.query.getNodesByAnyLabel(labelIds)
+      }
+
+    nodes.map(n => ExecutionContext.from(ident -> n))
+  }
+
+  def exists(predicate: Pipe => Boolean): Boolean = predicate(this)
+
+  private def labelNames = labels.map {
+    case Left(name) => LabelName(name)
+    case Right(id)  => LabelName(id.id.toString)
+  }
+
+  private def name = if (matchAll) "NodeByLabelsIntersectionScan" else "NodeByLabelsUnionScan"
+
+  def planDescription = new PlanDescriptionImpl(this, name, NoChildren, IntroducedIdentifier(ident) +: labelNames)
+
+  def symbols: SymbolTable = new SymbolTable(Map(ident -> CTNode))
+
+  override def monitor = pipeMonitor
+
+  def dup(sources: List[Pipe]): Pipe = {
+    require(sources.isEmpty)
+    this
+  }
+
+  def sources: Seq[Pipe] = Seq.empty
+
+  override def localEffects = Effects.READS_NODES
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_1.pipes
+
+import org.neo4j.cypher.internal.compiler.v2_1._
+import org.neo4j.cypher.internal.compiler.v2_1.ast.{LabelToken, PropertyKeyToken}
+import org.neo4j.cypher.internal.compiler.v2_1.commands.expressions.Expression
+import org.neo4j.cypher.internal.compiler.v2_1.executionplan.Effects
+import org.neo4j.cypher.internal.compiler.v2_1.mutation.GraphElementPropertyFunctions
+import org.neo4j.cypher.internal.compiler.v2_1.planDescription.PlanDescription.Arguments.{Index, IntroducedIdentifier}
+import org.neo4j.cypher.internal.compiler.v2_1.planDescription.{NoChildren, PlanDescriptionImpl}
+import org.neo4j.cypher.internal.compiler.v2_1.symbols.{CTNode, SymbolTable}
+import org.neo4j.kernel.api.index.IndexDescriptor
+
+case class NodeCompositeIndexSeekPipe(ident: String,
+                                      label: LabelToken,
+                                      propertyKeys: Seq[PropertyKeyToken],
+                                      values: Seq[Expression])
+                                     (implicit pipeMonitor: PipeMonitor) extends Pipe with GraphElementPropertyFunctions {
+
+  val descriptor = new IndexDescriptor(label.nameId.id, propertyKeys.map(_.nameId.id).toArray)
+
+  protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = {
+    val keyValues = values.map(_.apply(ExecutionContext.empty)(state))
+
+    // A null never equals anything, and nodes lacking one of the keys aren't in the index anyway
+    if (keyValues.contains(null))
+      Iterator.empty
+    else
+      state.query.compositeIndexSearch(descriptor, keyValues.map(makeValueNeoSafe))
+        .map(node => ExecutionContext.from(ident -> node))
+  }
+
+  def exists(predicate: Pipe => Boolean): Boolean = predicate(this)
+
+  def planDescription =
+    new PlanDescriptionImpl(this, "NodeCompositeIndexSeek", NoChildren, Seq(
+      IntroducedIdentifier(ident), Index(label.name, propertyKeys.map(_.name).mkString(", ")))
+    )
+
+  def symbols: SymbolTable = new SymbolTable(Map(ident -> CTNode))
+
+  override def monitor = pipeMonitor
+
+  def dup(sources: List[Pipe]): Pipe = {
+    require(sources.isEmpty)
+    this
+  }
+
+  def sources: Seq[Pipe] = Seq.empty
+
+  override def localEffects = Effects.READS_NODES
+}
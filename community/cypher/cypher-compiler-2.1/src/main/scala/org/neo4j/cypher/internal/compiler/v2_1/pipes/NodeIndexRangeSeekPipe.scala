@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_1.pipes
+
+import org.neo4j.cypher.internal.compiler.v2_1._
+import org.neo4j.cypher.internal.compiler.v2_1.ast.{LabelToken, PropertyKeyToken}
+import org.neo4j.cypher.internal.compiler.v2_1.commands.expressions.Expression
+import org.neo4j.cypher.internal.compiler.v2_1.commands.{RangeBound, RangeQueryExpression}
+import org.neo4j.cypher.internal.compiler.v2_1.executionplan.Effects
+import org.neo4j.cypher.internal.compiler.v2_1.planDescription.PlanDescription.Arguments.{Index, IntroducedIdentifier}
+import org.neo4j.cypher.internal.compiler.v2_1.planDescription.{NoChildren, PlanDescriptionImpl}
+import org.neo4j.cypher.internal.compiler.v2_1.symbols.{CTNode, SymbolTable}
+import org.neo4j.graphdb.Node
+import org.neo4j.kernel.api.index.IndexDescriptor
+
+case class NodeIndexRangeSeekPipe(ident: String,
+                                  label: LabelToken,
+                                  propertyKey: PropertyKeyToken,
+                                  range: RangeQueryExpression[Expression])
+                                 (implicit pipeMonitor: PipeMonitor) extends Pipe with Comparer {
+
+  val descriptor = new IndexDescriptor(label.nameId.id, propertyKey.nameId.id)
+
+  protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = {
+    val lower = range.lower.map(bound => RangeBound(bound.expression(ExecutionContext.empty)(state), bound.inclusive))
+    val upper = range.upper.map(bound => RangeBound(bound.expression(ExecutionContext.empty)(state), bound.inclusive))
+    val bounds = lower.toSeq ++ upper.toSeq
+
+    val resultNodes: Iterator[Node] =
+      if (bounds.exists(_.expression == null))
+        Iterator.empty
+      else if (bounds.forall(_.expression.isInstanceOf[Number]))
+        state.query.numberRangeIndexSearch(descriptor,
+          lower.map(_.expression.asInstanceOf[Number]).orNull, lower.exists(_.inclusive),
+          upper.map(_.expression.asInstanceOf[Number]).orNull, upper.exists(_.inclusive))
+      else if (bounds.forall(bound => isString(bound.expression)))
+        state.query.stringRangeIndexSearch(descriptor,
+          lower.map(_.expression.toString).orNull, lower.exists(_.inclusive),
+          upper.map(_.expression.toString).orNull, upper.exists(_.inclusive))
+      else
+        // The bounds are of types the index does not order together, so compare the way a filter would
+        labelScan(state, lower, upper)
+
+    resultNodes.map(node => ExecutionContext.from(ident -> node))
+  }
+
+  private def isString(value: Any) = value.isInstanceOf[String] || value.isInstanceOf[Character]
+
+  private def labelScan(state: QueryState, lower: Option[RangeBound[Any]], upper: Option[RangeBound[Any]]): Iterator[Node] = {
+    implicit val qtx = state
+    state.query.getNodesByLabel(label.nameId.id).filter { node =>
+      val value = state.query.nodeOps.getProperty(node.getId, propertyKey.nameId.id)
+      value != null &&
+        lower.forall(bound => if (bound.inclusive) compare(value, bound.expression) >= 0 else compare(value, bound.expression) > 0) &&
+        upper.forall(bound => if (bound.inclusive) compare(value, bound.expression) <= 0 else compare(value, bound.expression) < 0)
+    }
+  }
+
+  def exists(predicate: Pipe => Boolean): Boolean = predicate(this)
+
+  def planDescription =
+    new PlanDescriptionImpl(this, "NodeIndexRangeSeek", NoChildren, Seq(
+      IntroducedIdentifier(ident), Index(label.name, propertyKey.name))
+    )
+
+  def symbols: SymbolTable = new SymbolTable(Map(ident -> CTNode))
+
+  override def monitor = pipeMonitor
+
+  def dup(sources: List[Pipe]): Pipe = {
+    require(sources.isEmpty)
+    this
+  }
+
+  def sources: Seq[Pipe] = Seq.empty
+
+  override def localEffects = Effects.READS_NODES
+}
@@ -78,6 +78,9 @@ class PipeExecutionPlanBuilder(monitors: Monitors) {
         case NodeByLabelScan(IdName(id), label) =>
           NodeByLabelScanPipe(id, label)
 
+        case NodeByLabelsScan(IdName(id), labels, matchAll) =>
+          NodeByLabelsScanPipe(id, labels, matchAll)
+
         case NodeByIdSeek(IdName(id), nodeIdExpr) =>
           NodeByIdSeekPipe(id, nodeIdExpr.map(buildExpression))
 
@@ -93,6 +96,12 @@ class PipeExecutionPlanBuilder(monitors: Monitors) {
         case NodeIndexUniqueSeek(IdName(id), label, propertyKey, valueExpr) =>
           NodeIndexSeekPipe(id, label, propertyKey, valueExpr.map(buildExpression), unique = true)
 
+        case NodeIndexRangeSeek(IdName(id), label, propertyKey, range) =>
+          NodeIndexRangeSeekPipe(id, label, propertyKey, range.map(buildExpression))
+
+        case NodeCompositeIndexSeek(IdName(id), label, propertyKeys, values) =>
+          NodeCompositeIndexSeekPipe(id, label, propertyKeys, values.map(buildExpression))
+
         case Selection(predicates, left) =>
           FilterPipe(buildPipe(left), predicates.map(buildPredicate).reduce(_ ++ _))
 
@@ -30,6 +30,7 @@ object GuessingEstimation {
   val LABEL_NOT_FOUND_SELECTIVITY = Multiplier(0.0)
   val PREDICATE_SELECTIVITY = Multiplier(0.2)
   val INDEX_SEEK_SELECTIVITY = Multiplier(0.02)
+  val INDEX_RANGE_SEEK_SELECTIVITY = Multiplier(0.3)
   val DEFAULT_EXPAND_RELATIONSHIP_DEGREE = Multiplier(2.0)
   val DEFAULT_CONNECTIVITY_CHANCE = Multiplier(1.0)
 }
@@ -49,15 +50,45 @@ class StatisticsBackedCardinalityModel(statistics: GraphStatistics,
     case NodeByLabelScan(_, Right(labelId)) =>
       statistics.nodesWithLabelCardinality(labelId)
 
+    case NodeByLabelsScan(_, labels, true) if labels.exists(_.isLeft) =>
+      statistics.nodesCardinality * LABEL_NOT_FOUND_SELECTIVITY
+
+    case NodeByLabelsScan(_, labels, true) =>
+      val labelIds = labels.collect { case Right(labelId) => labelId }
+      val smallest = labelIds.minBy(statistics.nodesWithLabelCardinality)
+      labelIds.filterNot(_ == smallest).foldLeft(statistics.nodesWithLabelCardinality(smallest)) {
+        (acc, labelId) => acc * statistics.nodesWithLabelSelectivity(labelId)
+      }
+
+    case NodeByLabelsScan(_, labels, false) =>
+      val sum = labels.collect { case Right(labelId) => statistics.nodesWithLabelCardinality(labelId) }
+        .foldLeft(Cardinality(0))(_ + _)
+      Cardinality(math.min(sum.amount, statistics.nodesCardinality.amount))
+
     case NodeByIdSeek(_, nodeIds) =>
       Cardinality(nodeIds.size)
 
-    case NodeIndexSeek(_, _, _, _) =>
-      statistics.nodesCardinality * INDEX_SEEK_SELECTIVITY
+    case NodeIndexSeek(_, label, propertyKey, _) =>
+      // A sampled index knows how many entries it has, the other statistics may not be known as well
+      (statistics.indexSize(label.nameId, propertyKey.nameId),
+        statistics.indexSelectivity(label.nameId, propertyKey.nameId)) match {
+        case (Some(indexSize), Some(selectivity)) => indexSize * selectivity
+        case _                                    => statistics.nodesCardinality * INDEX_SEEK_SELECTIVITY
+      }
 
     case NodeIndexUniqueSeek(_, _, _, _) =>
       Cardinality(1)
 
+    case NodeCompositeIndexSeek(_, label, propertyKeys, _) =>
+      // Every covered key narrows the nodes with the label down by the sampled selectivity of that key, where known
+      propertyKeys.foldLeft(statistics.nodesWithLabelCardinality(label.nameId)) {
+        (acc, propertyKey) =>
+          acc * statistics.indexSelectivity(label.nameId, propertyKey.nameId).getOrElse(INDEX_SEEK_SELECTIVITY)
+      }
+
+    case NodeIndexRangeSeek(_, label, _, _) =>
+      statistics.nodesWithLabelCardinality(label.nameId) * INDEX_RANGE_SEEK_SELECTIVITY
+
     case NodeHashJoin(_, left, right) =>
       Cardinality(math.min(cardinality(left).amount, cardinality(right).amount))
 
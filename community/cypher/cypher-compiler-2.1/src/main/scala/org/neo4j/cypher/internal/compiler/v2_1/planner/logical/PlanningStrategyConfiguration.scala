@@ -45,9 +45,19 @@ object PlanningStrategyConfiguration {
       // MATCH n WHERE n.prop = {val} RETURN n
       indexSeekLeafPlanner,
 
+      // MATCH n WHERE n.prop > {val} RETURN n
+      indexRangeSeekLeafPlanner,
+
+      // MATCH n WHERE n.prop1 = {val1} AND n.prop2 = {val2} RETURN n
+      compositeIndexSeekLeafPlanner,
+
       // MATCH (n:Person) RETURN n
       labelScanLeafPlanner,
 
+      // MATCH (n:Person:Employee) RETURN n
+      // MATCH n WHERE n:Person OR n:Employee RETURN n
+      labelsScanLeafPlanner,
+
       // MATCH n RETURN n
       allNodesLeafPlanner
     )
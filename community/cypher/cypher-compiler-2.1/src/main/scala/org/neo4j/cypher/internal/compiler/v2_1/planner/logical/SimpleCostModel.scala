@@ -64,9 +64,18 @@ class SimpleCostModel(cardinality: CardinalityModel) extends CostModel {
     case NodeIndexUniqueSeek(_, _, _, ManyQueryExpression(_)) =>
       cardinality(plan) * INDEX_OVERHEAD_COST_PER_ROW * 10 // This is a wild guess.
 
+    case _: NodeIndexRangeSeek =>
+      cardinality(plan) * INDEX_OVERHEAD_COST_PER_ROW
+
+    case _: NodeCompositeIndexSeek =>
+      cardinality(plan) * INDEX_OVERHEAD_COST_PER_ROW
+
     case _: NodeByLabelScan =>
       cardinality(plan) * LABEL_INDEX_OVERHEAD_COST_PER_ROW
 
+    case _: NodeByLabelsScan =>
+      cardinality(plan) * LABEL_INDEX_OVERHEAD_COST_PER_ROW
+
     case _: NodeByIdSeek =>
       cardinality(plan) * STORE_ACCESS_COST_PER_ROW
 
@@ -25,7 +25,7 @@ import org.neo4j.cypher.internal.compiler.v2_1.planner.logical.plans._
 import org.neo4j.cypher.internal.compiler.v2_1.planner.QueryGraph
 import org.neo4j.cypher.internal.compiler.v2_1.planner.logical._
 import org.neo4j.cypher.internal.compiler.v2_1.planner.logical.steps.QueryPlanProducer._
-import org.neo4j.cypher.internal.compiler.v2_1.commands.{SingleQueryExpression, ManyQueryExpression, QueryExpression}
+import org.neo4j.cypher.internal.compiler.v2_1.commands.{RangeBound, RangeQueryExpression, SingleQueryExpression, ManyQueryExpression, QueryExpression}
 
 
 abstract class IndexLeafPlanner extends LeafPlanner {
@@ -103,3 +103,82 @@ object indexSeekLeafPlanner extends IndexLeafPlanner {
     context.planContext.getIndexRule(label, property)
 
 }
+
+object indexRangeSeekLeafPlanner extends LeafPlanner {
+  def apply(qg: QueryGraph)(implicit context: LogicalPlanningContext, subQueriesLookupTable: Map[PatternExpression, QueryGraph]) = {
+    implicit val semanticTable = context.semanticTable
+    val labelPredicateMap: Map[IdName, Set[HasLabels]] = qg.selections.labelPredicates
+
+    val boundsByProperty = qg.selections.flatPredicates.collect {
+      case predicate@InequalityOnProperty(name, propertyKeyName, isLower, bound) =>
+        (name, propertyKeyName) -> (predicate, isLower, bound)
+    }.groupBy(_._1).mapValues(_.map(_._2))
+
+    val plans = for (((name, propertyKeyName), bounds) <- boundsByProperty.toSeq;
+                     propertyKeyId <- propertyKeyName.id.toSeq;
+                     labelPredicate <- labelPredicateMap.getOrElse(IdName(name), Set.empty).toSeq;
+                     labelName <- labelPredicate.labels;
+                     labelId <- labelName.id.toSeq;
+                     indexDescriptor <- findIndexFor(labelName.name, propertyKeyName.name).toSeq)
+    yield {
+      // A single index seek can honour one lower and one upper bound, any others are left to a selection
+      val lower = bounds.collectFirst { case (predicate, true, bound) => (predicate, bound) }
+      val upper = bounds.collectFirst { case (predicate, false, bound) => (predicate, bound) }
+      val propertyName = propertyKeyName.name
+      val hint = qg.hints.collectFirst {
+        case hint @ UsingIndexHint(Identifier(`name`), `labelName`, Identifier(`propertyName`)) => hint
+      }
+      val solvedPredicates = lower.map(_._1).toSeq ++ upper.map(_._1).toSeq :+ labelPredicate
+      planNodeIndexRangeSeek(IdName(name), LabelToken(labelName, labelId), PropertyKeyToken(propertyKeyName, propertyKeyId),
+        RangeQueryExpression(lower.map(_._2), upper.map(_._2)), solvedPredicates, hint)
+    }
+
+    CandidateList(plans)
+  }
+
+  private def findIndexFor(label: String, property: String)(implicit context: LogicalPlanningContext): Option[IndexDescriptor] =
+    context.planContext.getIndexRule(label, property) orElse context.planContext.getUniqueIndexRule(label, property)
+
+  private object InequalityOnProperty {
+    def unapply(predicate: Expression): Option[(String, PropertyKeyName, Boolean, RangeBound[Expression])] = predicate match {
+      case GreaterThan(Property(Identifier(name), key), ConstantExpression(value)) => Some((name, key, true, RangeBound(value, inclusive = false)))
+      case GreaterThanOrEqual(Property(Identifier(name), key), ConstantExpression(value)) => Some((name, key, true, RangeBound(value, inclusive = true)))
+      case LessThan(Property(Identifier(name), key), ConstantExpression(value)) => Some((name, key, false, RangeBound(value, inclusive = false)))
+      case LessThanOrEqual(Property(Identifier(name), key), ConstantExpression(value)) => Some((name, key, false, RangeBound(value, inclusive = true)))
+      case GreaterThan(ConstantExpression(value), Property(Identifier(name), key)) => Some((name, key, false, RangeBound(value, inclusive = false)))
+      case GreaterThanOrEqual(ConstantExpression(value), Property(Identifier(name), key)) => Some((name, key, false, RangeBound(value, inclusive = true)))
+      case LessThan(ConstantExpression(value), Property(Identifier(name), key)) => Some((name, key, true, RangeBound(value, inclusive = false)))
+      case LessThanOrEqual(ConstantExpression(value), Property(Identifier(name), key)) => Some((name, key, true, RangeBound(value, inclusive = true)))
+      case _ => None
+    }
+  }
+}
+
+object compositeIndexSeekLeafPlanner extends LeafPlanner {
+  def apply(qg: QueryGraph)(implicit context: LogicalPlanningContext, subQueriesLookupTable: Map[PatternExpression, QueryGraph]) = {
+    implicit val semanticTable = context.semanticTable
+    val labelPredicateMap: Map[IdName, Set[HasLabels]] = qg.selections.labelPredicates
+
+    // Equality arrives here rewritten to IN on a single element collection
+    val equalitiesByIdentifier = qg.selections.flatPredicates.collect {
+      case predicate@In(Property(Identifier(name), propertyKeyName), ConstantExpression(Collection(Seq(value)))) if propertyKeyName.id.isDefined =>
+        name -> (propertyKeyName.id.get.id -> (predicate, propertyKeyName, value))
+    }.groupBy(_._1).mapValues(_.map(_._2).toMap)
+
+    // Composite indexes are only looked for when there are several equalities to cover
+    val plans = for ((name, equalities) <- equalitiesByIdentifier.toSeq if equalities.size > 1;
+                     labelPredicate <- labelPredicateMap.getOrElse(IdName(name), Set.empty).toSeq;
+                     labelName <- labelPredicate.labels;
+                     labelId <- labelName.id.toSeq;
+                     indexDescriptor <- context.planContext.getCompositeIndexRules(labelName.name)
+                     if indexDescriptor.getPropertyKeyIds.forall(equalities.contains))
+    yield {
+      val covered = indexDescriptor.getPropertyKeyIds.toSeq.map(equalities)
+      val propertyKeys = covered.map { case (_, propertyKeyName, _) => PropertyKeyToken(propertyKeyName, propertyKeyName.id.get) }
+      val solvedPredicates = covered.map(_._1) :+ labelPredicate
+      planNodeCompositeIndexSeek(IdName(name), LabelToken(labelName, labelId), propertyKeys, covered.map(_._3), solvedPredicates)
+    }
+
+    CandidateList(plans)
+  }
+}
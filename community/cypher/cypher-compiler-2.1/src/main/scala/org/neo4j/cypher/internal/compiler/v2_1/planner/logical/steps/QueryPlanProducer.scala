@@ -26,7 +26,7 @@ import org.neo4j.cypher.internal.compiler.v2_1.planner.logical.plans._
 import org.neo4j.cypher.internal.compiler.v2_1.planner.logical.plans.{Limit => LimitPlan, Skip => SkipPlan}
 import org.neo4j.cypher.internal.compiler.v2_1.planner._
 import org.neo4j.cypher.internal.compiler.v2_1.pipes.SortDescription
-import org.neo4j.cypher.internal.compiler.v2_1.commands.QueryExpression
+import org.neo4j.cypher.internal.compiler.v2_1.commands.{RangeQueryExpression, QueryExpression}
 import org.neo4j.cypher.internal.compiler.v2_1.ast
 import org.neo4j.cypher.internal.compiler.v2_1.LabelId
 
@@ -115,6 +115,16 @@ object QueryPlanProducer {
       )
     )
 
+  def planNodeByLabelsScan(idName: IdName, labels: Seq[Either[String, LabelId]], matchAll: Boolean, solvedPredicates: Seq[Expression], solvedHint: Option[UsingScanHint] = None) =
+    QueryPlan(
+      NodeByLabelsScan(idName, labels, matchAll),
+      PlannerQuery(graph = QueryGraph.empty
+        .addPatternNodes(idName)
+        .addPredicates(solvedPredicates: _*)
+        .addHints(solvedHint)
+      )
+    )
+
   def planNodeIndexSeek(idName: IdName,
                         label: ast.LabelToken,
                         propertyKey: ast.PropertyKeyToken,
@@ -129,6 +139,34 @@ object QueryPlanProducer {
       )
     )
 
+  def planNodeIndexRangeSeek(idName: IdName,
+                             label: ast.LabelToken,
+                             propertyKey: ast.PropertyKeyToken,
+                             range: RangeQueryExpression[Expression],
+                             solvedPredicates: Seq[Expression] = Seq.empty,
+                             solvedHint: Option[UsingIndexHint] = None) =
+    QueryPlan(
+      NodeIndexRangeSeek(idName, label, propertyKey, range),
+      PlannerQuery(graph = QueryGraph.empty
+        .addPatternNodes(idName)
+        .addPredicates(solvedPredicates: _*)
+        .addHints(solvedHint)
+      )
+    )
+
+  def planNodeCompositeIndexSeek(idName: IdName,
+                                 label: ast.LabelToken,
+                                 propertyKeys: Seq[ast.PropertyKeyToken],
+                                 values: Seq[Expression],
+                                 solvedPredicates: Seq[Expression] = Seq.empty) =
+    QueryPlan(
+      NodeCompositeIndexSeek(idName, label, propertyKeys, values),
+      PlannerQuery(graph = QueryGraph.empty
+        .addPatternNodes(idName)
+        .addPredicates(solvedPredicates: _*)
+      )
+    )
+
   def planNodeHashJoin(node: IdName, left: QueryPlan, right: QueryPlan) =
     QueryPlan(
       NodeHashJoin(node, left.plan, right.plan),
@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_1.planner.logical.steps
+
+import org.neo4j.cypher.internal.compiler.v2_1.planner.logical.{LogicalPlanningContext, CandidateList, LeafPlanner}
+import org.neo4j.cypher.internal.compiler.v2_1.planner.QueryGraph
+import org.neo4j.cypher.internal.compiler.v2_1.planner.logical.plans.IdName
+import org.neo4j.cypher.internal.compiler.v2_1.planner.logical.steps.QueryPlanProducer._
+import org.neo4j.cypher.internal.compiler.v2_1.ast._
+
+/*
+Plans scans combining several labels in the label scan store:
+  MATCH (n:A:B)             => the nodes having all of the labels
+  MATCH n WHERE n:A OR n:B  => the nodes having any of the labels
+ */
+object labelsScanLeafPlanner extends LeafPlanner {
+  def apply(qg: QueryGraph)(implicit context: LogicalPlanningContext, subQueriesLookupTable: Map[PatternExpression, QueryGraph]) = {
+    implicit val semanticTable = context.semanticTable
+    val labelPredicateMap = qg.selections.labelPredicates
+
+    val intersections = for (idName <- qg.patternNodes.toSeq;
+                             labelPredicates = labelPredicateMap.getOrElse(idName, Set.empty).toSeq
+                             if labelPredicates.size > 1) yield {
+      val labelNames = labelPredicates.flatMap(_.labels)
+      val identName = idName.name
+      val hint = qg.hints.collectFirst {
+        case hint@UsingScanHint(Identifier(`identName`), labelName) if labelNames.contains(labelName) => hint
+      }
+
+      planNodeByLabelsScan(idName, labelNames.map(_.either), matchAll = true, solvedPredicates = labelPredicates, solvedHint = hint)
+    }
+
+    val unions = qg.selections.flatPredicates.collect {
+      case ors@Ors(exprs) if exprs.size > 1 && exprs.forall(isSingleLabelPredicate) =>
+        (ors, exprs.toSeq.map(_.asInstanceOf[HasLabels]))
+    }.collect {
+      case (ors, hasLabels@Seq(HasLabels(Identifier(name), _), _*))
+        if hasLabels.forall(_.expression == hasLabels.head.expression) && qg.patternNodes(IdName(name)) =>
+        planNodeByLabelsScan(IdName(name), hasLabels.flatMap(_.labels).map(_.either), matchAll = false, solvedPredicates = Seq(ors))
+    }
+
+    CandidateList(intersections ++ unions)
+  }
+
+  private def isSingleLabelPredicate(expression: Expression) = expression match {
+    case HasLabels(Identifier(_), Seq(_)) => true
+    case _                                => false
+  }
+}
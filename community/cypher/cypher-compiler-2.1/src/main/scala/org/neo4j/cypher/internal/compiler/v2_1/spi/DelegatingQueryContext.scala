@@ -75,8 +75,24 @@ class DelegatingQueryContext(inner: QueryContext) extends QueryContext {
 
   def exactIndexSearch(index: IndexDescriptor, value: Any): Iterator[Node] = manyDbHits(inner.exactIndexSearch(index, value))
 
+  def numberRangeIndexSearch(index: IndexDescriptor, lower: Number, includeLower: Boolean, upper: Number, includeUpper: Boolean): Iterator[Node] =
+    manyDbHits(inner.numberRangeIndexSearch(index, lower, includeLower, upper, includeUpper))
+
+  def stringRangeIndexSearch(index: IndexDescriptor, lower: String, includeLower: Boolean, upper: String, includeUpper: Boolean): Iterator[Node] =
+    manyDbHits(inner.stringRangeIndexSearch(index, lower, includeLower, upper, includeUpper))
+
+  def prefixIndexSearch(index: IndexDescriptor, prefix: String): Iterator[Node] =
+    manyDbHits(inner.prefixIndexSearch(index, prefix))
+
+  def compositeIndexSearch(index: IndexDescriptor, values: Seq[Any]): Iterator[Node] =
+    manyDbHits(inner.compositeIndexSearch(index, values))
+
   def getNodesByLabel(id: Int): Iterator[Node] = manyDbHits(inner.getNodesByLabel(id))
 
+  def getNodesByAllLabels(ids: Seq[Int]): Iterator[Node] = manyDbHits(inner.getNodesByAllLabels(ids))
+
+  def getNodesByAnyLabel(ids: Seq[Int]): Iterator[Node] = manyDbHits(inner.getNodesByAnyLabel(ids))
+
   def upgrade(context: QueryContext): LockingQueryContext = inner.upgrade(context)
 
   def getOrCreateFromSchemaState[K, V](key: K, creator: => V): V = singleDbHit(inner.getOrCreateFromSchemaState(key, creator))
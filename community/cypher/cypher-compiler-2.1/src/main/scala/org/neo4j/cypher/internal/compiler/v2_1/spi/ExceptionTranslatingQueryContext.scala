@@ -88,9 +88,27 @@ class ExceptionTranslatingQueryContext(inner: QueryContext) extends DelegatingQu
   override def exactIndexSearch(index: IndexDescriptor, value: Any): Iterator[Node] =
     translateException(super.exactIndexSearch(index, value))
 
+  override def numberRangeIndexSearch(index: IndexDescriptor, lower: Number, includeLower: Boolean, upper: Number, includeUpper: Boolean): Iterator[Node] =
+    translateException(super.numberRangeIndexSearch(index, lower, includeLower, upper, includeUpper))
+
+  override def stringRangeIndexSearch(index: IndexDescriptor, lower: String, includeLower: Boolean, upper: String, includeUpper: Boolean): Iterator[Node] =
+    translateException(super.stringRangeIndexSearch(index, lower, includeLower, upper, includeUpper))
+
+  override def prefixIndexSearch(index: IndexDescriptor, prefix: String): Iterator[Node] =
+    translateException(super.prefixIndexSearch(index, prefix))
+
+  override def compositeIndexSearch(index: IndexDescriptor, values: Seq[Any]): Iterator[Node] =
+    translateException(super.compositeIndexSearch(index, values))
+
   override def getNodesByLabel(id: Int): Iterator[Node] =
     translateException(super.getNodesByLabel(id))
 
+  override def getNodesByAllLabels(ids: Seq[Int]): Iterator[Node] =
+    translateException(super.getNodesByAllLabels(ids))
+
+  override def getNodesByAnyLabel(ids: Seq[Int]): Iterator[Node] =
+    translateException(super.getNodesByAnyLabel(ids))
+
   override def getOrCreateFromSchemaState[K, V](key: K, creator: => V): V =
     translateException(super.getOrCreateFromSchemaState(key, creator))
 
@@ -19,7 +19,7 @@
  */
 package org.neo4j.cypher.internal.compiler.v2_1.spi
 
-import org.neo4j.cypher.internal.compiler.v2_1.{RelTypeId, LabelId}
+import org.neo4j.cypher.internal.compiler.v2_1.{PropertyKeyId, RelTypeId, LabelId}
 import org.neo4j.graphdb.Direction
 import org.neo4j.cypher.internal.compiler.v2_1.planner.logical.{Multiplier, Cardinality}
 
@@ -30,4 +30,8 @@ trait GraphStatistics {
   def relationshipsWithTypeSelectivity(relTypeId: RelTypeId): Multiplier
   def degreeByRelationshipTypeAndDirection(relTypeId: RelTypeId, direction: Direction): Multiplier
   def degreeByLabelRelationshipTypeAndDirection(labelId: LabelId, relTypeId: RelTypeId, direction: Direction): Multiplier
+  // None until the index on the label and property key has been sampled
+  def indexSelectivity(labelId: LabelId, propertyKeyId: PropertyKeyId): Option[Multiplier]
+  // Number of entries in the index as of when it was sampled, None until then
+  def indexSize(labelId: LabelId, propertyKeyId: PropertyKeyId): Option[Cardinality]
 }
@@ -36,6 +36,11 @@ trait PlanContext extends TokenContext {
 
   def getUniqueIndexRule(labelName: String, propertyKey: String): Option[IndexDescriptor]
 
+  /**
+   * The online composite indexes of the label, whichever property keys they cover.
+   */
+  def getCompositeIndexRules(labelName: String): Seq[IndexDescriptor]
+
   def getUniquenessConstraint(labelName: String, propertyKey: String): Option[UniquenessConstraint]
 
   def checkNodeIndex(idxName: String)
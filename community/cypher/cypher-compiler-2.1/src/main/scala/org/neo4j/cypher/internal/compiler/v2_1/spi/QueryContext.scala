@@ -73,8 +73,20 @@ trait QueryContext extends TokenContext {
 
   def exactUniqueIndexSearch(index: IndexDescriptor, value: Any): Option[Node]
 
+  def numberRangeIndexSearch(index: IndexDescriptor, lower: Number, includeLower: Boolean, upper: Number, includeUpper: Boolean): Iterator[Node]
+
+  def stringRangeIndexSearch(index: IndexDescriptor, lower: String, includeLower: Boolean, upper: String, includeUpper: Boolean): Iterator[Node]
+
+  def prefixIndexSearch(index: IndexDescriptor, prefix: String): Iterator[Node]
+
+  def compositeIndexSearch(index: IndexDescriptor, values: Seq[Any]): Iterator[Node]
+
   def getNodesByLabel(id: Int): Iterator[Node]
 
+  def getNodesByAllLabels(ids: Seq[Int]): Iterator[Node]
+
+  def getNodesByAnyLabel(ids: Seq[Int]): Iterator[Node]
+
   def upgradeToLockingQueryContext: LockingQueryContext = upgrade(this)
 
   def upgrade(context: QueryContext): LockingQueryContext
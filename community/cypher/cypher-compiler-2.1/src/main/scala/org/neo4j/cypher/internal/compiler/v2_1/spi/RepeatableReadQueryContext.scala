@@ -49,8 +49,24 @@ final class RepeatableReadQueryContext(inner: QueryContext, locker: Locker) exte
   override def exactIndexSearch(index: IndexDescriptor, value: Any): Iterator[Node] =
     lockAll(inner.exactIndexSearch(index, value))
 
+  override def numberRangeIndexSearch(index: IndexDescriptor, lower: Number, includeLower: Boolean, upper: Number, includeUpper: Boolean): Iterator[Node] =
+    lockAll(inner.numberRangeIndexSearch(index, lower, includeLower, upper, includeUpper))
+
+  override def stringRangeIndexSearch(index: IndexDescriptor, lower: String, includeLower: Boolean, upper: String, includeUpper: Boolean): Iterator[Node] =
+    lockAll(inner.stringRangeIndexSearch(index, lower, includeLower, upper, includeUpper))
+
+  override def prefixIndexSearch(index: IndexDescriptor, prefix: String): Iterator[Node] =
+    lockAll(inner.prefixIndexSearch(index, prefix))
+
+  override def compositeIndexSearch(index: IndexDescriptor, values: Seq[Any]): Iterator[Node] =
+    lockAll(inner.compositeIndexSearch(index, values))
+
   override def getNodesByLabel(id: Int): Iterator[Node] = lockAll(inner.getNodesByLabel(id))
 
+  override def getNodesByAllLabels(ids: Seq[Int]): Iterator[Node] = lockAll(inner.getNodesByAllLabels(ids))
+
+  override def getNodesByAnyLabel(ids: Seq[Int]): Iterator[Node] = lockAll(inner.getNodesByAnyLabel(ids))
+
   val nodeOpsValue = new RepeatableReadOperations[Node](inner.nodeOps)
   val relationshipOpsValue = new RepeatableReadOperations[Relationship](inner.relationshipOps)
 
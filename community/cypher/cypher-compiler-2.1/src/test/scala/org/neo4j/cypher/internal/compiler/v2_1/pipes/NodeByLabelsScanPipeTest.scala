@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_1.pipes
+
+import org.neo4j.cypher.internal.commons.CypherFunSuite
+import org.neo4j.cypher.internal.compiler.v2_1.LabelId
+import org.neo4j.cypher.internal.compiler.v2_1.spi.QueryContext
+import org.neo4j.graphdb.Node
+import org.mockito.Mockito
+
+class NodeByLabelsScanPipeTest extends CypherFunSuite {
+
+  implicit val monitor = mock[PipeMonitor]
+  import Mockito.{when, verify, never}
+  import org.mockito.Matchers.any
+
+  test("should scan nodes having all of the labels") {
+    // given
+    val nodes = List(mock[Node], mock[Node])
+    val queryState = QueryStateHelper.emptyWith(
+      query = when(mock[QueryContext].getNodesByAllLabels(Seq(12, 13))).thenReturn(nodes.iterator).getMock[QueryContext]
+    )
+
+    // when
+    val result = NodeByLabelsScanPipe("a", Seq(Right(LabelId(12)), Right(LabelId(13))), matchAll = true).createResults(queryState)
+
+    // then
+    result.map(_("a")).toList should equal(nodes)
+  }
+
+  test("should scan nothing when one of all the labels does not exist") {
+    // given
+    val query = mock[QueryContext]
+    when(query.getOptLabelId("Missing")).thenReturn(None)
+    val queryState = QueryStateHelper.emptyWith(query = query)
+
+    // when
+    val result = NodeByLabelsScanPipe("a", Seq(Right(LabelId(12)), Left("Missing")), matchAll = true).createResults(queryState)
+
+    // then
+    result should be(empty)
+    verify(query, never()).getNodesByAllLabels(any())
+  }
+
+  test("should scan nodes having any of the existing labels") {
+    // given
+    val nodes = List(mock[Node], mock[Node])
+    val query = mock[QueryContext]
+    when(query.getOptLabelId("Missing")).thenReturn(None)
+    when(query.getOptLabelId("Existing")).thenReturn(Some(13))
+    when(query.getNodesByAnyLabel(Seq(12, 13))).thenReturn(nodes.iterator)
+    val queryState = QueryStateHelper.emptyWith(query = query)
+
+    // when
+    val result = NodeByLabelsScanPipe("a", Seq(Right(LabelId(12)), Left("Missing"), Left("Existing")), matchAll = false).createResults(queryState)
+
+    // then
+    result.map(_("a")).toList should equal(nodes)
+  }
+}
@@ -27,6 +27,7 @@ import org.neo4j.cypher.internal.compiler.v2_1.planner.logical.Metrics._
 import org.neo4j.cypher.internal.compiler.v2_1.planner.logical._
 import org.neo4j.cypher.internal.compiler.v2_1.planner.logical.plans._
 import org.neo4j.cypher.internal.compiler.v2_1.spi.{GraphStatistics, PlanContext}
+import org.neo4j.graphdb.Direction
 import org.neo4j.kernel.api.constraints.UniquenessConstraint
 import org.neo4j.kernel.api.index.IndexDescriptor
 import org.scalatest.matchers._
@@ -76,7 +77,9 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
     def graphStatistics: GraphStatistics
     def indexes: Set[(String, String)]
     def uniqueIndexes: Set[(String, String)]
+    def compositeIndexes: Set[(String, Seq[String])]
     def labelCardinality: Map[String, Cardinality]
+    def indexSamples: Map[(String, String), (Cardinality, Multiplier)]
     def knownLabels: Set[String]
     def qg: QueryGraph
 
@@ -118,7 +121,9 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
       HardcodedGraphStatistics
     def indexes = Set.empty
     def uniqueIndexes = Set.empty
+    def compositeIndexes = Set.empty
     def labelCardinality = Map.empty
+    def indexSamples = Map.empty
     def knownLabels = Set.empty
     def qg: QueryGraph = ???
   }
@@ -129,17 +134,25 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
     var cost: PartialFunction[LogicalPlan, Cost] = PartialFunction.empty
     var selectivity: PartialFunction[Expression, Multiplier] = PartialFunction.empty
     var labelCardinality: Map[String, Cardinality] = Map.empty
-    var statistics = null
+    var indexSamples: Map[(String, String), (Cardinality, Multiplier)] = Map.empty
+    var statistics: GraphStatistics = null
     var qg: QueryGraph = null
 
     var indexes: Set[(String, String)] = Set.empty
     var uniqueIndexes: Set[(String, String)] = Set.empty
+    var compositeIndexes: Set[(String, Seq[String])] = Set.empty
     def indexOn(label: String, property: String) {
       indexes = indexes + (label -> property)
     }
     def uniqueIndexOn(label: String, property: String) {
       uniqueIndexes = uniqueIndexes + (label -> property)
     }
+    def compositeIndexOn(label: String, properties: String*) {
+      compositeIndexes = compositeIndexes + (label -> properties)
+    }
+    def indexSample(label: String, property: String, size: Cardinality, selectivity: Multiplier) {
+      indexSamples = indexSamples + ((label -> property) -> (size -> selectivity))
+    }
 
     def costModel(cardinality: Metrics.CardinalityModel) =
       cost.orElse(parent.costModel(cardinality))
@@ -191,6 +204,12 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
         addLabelIfUnknown(label)
         table.resolvedPropertyKeyNames.put(property, PropertyKeyId(table.resolvedPropertyKeyNames.size))
       }
+      config.compositeIndexes.foreach { case (label, properties) =>
+        addLabelIfUnknown(label)
+        properties.filterNot(table.resolvedPropertyKeyNames.contains).foreach { property =>
+          table.resolvedPropertyKeyNames.put(property, PropertyKeyId(table.resolvedPropertyKeyNames.size))
+        }
+      }
       config.labelCardinality.keys.foreach(addLabelIfUnknown)
       config.knownLabels.foreach(addLabelIfUnknown)
       table
@@ -208,8 +227,27 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
     def table = Map.empty[PatternExpression, QueryGraph]
 
     def planContext = new PlanContext {
-      def statistics: GraphStatistics =
-        config.graphStatistics
+      def statistics: GraphStatistics = {
+        val samples: Map[(LabelId, PropertyKeyId), (Cardinality, Multiplier)] = config.indexSamples.map {
+          case ((label, property), sample) =>
+            (semanticTable.resolvedLabelIds(label) -> semanticTable.resolvedPropertyKeyNames(property)) -> sample
+        }
+        val stats = config.graphStatistics
+        new GraphStatistics {
+          def nodesCardinality = stats.nodesCardinality
+          def nodesWithLabelCardinality(labelId: LabelId) = stats.nodesWithLabelCardinality(labelId)
+          def nodesWithLabelSelectivity(labelId: LabelId) = stats.nodesWithLabelSelectivity(labelId)
+          def relationshipsWithTypeSelectivity(relTypeId: RelTypeId) = stats.relationshipsWithTypeSelectivity(relTypeId)
+          def degreeByRelationshipTypeAndDirection(relTypeId: RelTypeId, direction: Direction) =
+            stats.degreeByRelationshipTypeAndDirection(relTypeId, direction)
+          def degreeByLabelRelationshipTypeAndDirection(labelId: LabelId, relTypeId: RelTypeId, direction: Direction) =
+            stats.degreeByLabelRelationshipTypeAndDirection(labelId, relTypeId, direction)
+          def indexSelectivity(labelId: LabelId, propertyKeyId: PropertyKeyId) =
+            samples.get(labelId -> propertyKeyId).map(_._2).orElse(stats.indexSelectivity(labelId, propertyKeyId))
+          def indexSize(labelId: LabelId, propertyKeyId: PropertyKeyId) =
+            samples.get(labelId -> propertyKeyId).map(_._1).orElse(stats.indexSize(labelId, propertyKeyId))
+        }
+      }
 
       def getUniqueIndexRule(labelName: String, propertyKey: String): Option[IndexDescriptor] =
         if (config.uniqueIndexes((labelName, propertyKey)))
@@ -229,6 +267,15 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
         else
           None
 
+      def getCompositeIndexRules(labelName: String): Seq[IndexDescriptor] =
+        config.compositeIndexes.toSeq.collect {
+          case (`labelName`, properties) =>
+            new IndexDescriptor(
+              semanticTable.resolvedLabelIds(labelName).id,
+              properties.map(semanticTable.resolvedPropertyKeyNames(_).id).toArray
+            )
+        }
+
       def getOptPropertyKeyId(propertyKeyName: String) =
         semanticTable.resolvedPropertyKeyNames.get(propertyKeyName).map(_.id)
       def getOptLabelId(labelName: String): Option[Int] =
@@ -285,7 +332,7 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
     def withLogicalPlanningContext[T](f: (LogicalPlanningContext, Map[PatternExpression, QueryGraph]) => T): T = {
       val ctx = LogicalPlanningContext(
         planContext = planContext,
-        metrics = metricsFactory.newMetrics(config.graphStatistics, semanticTable),
+        metrics = metricsFactory.newMetrics(planContext.statistics, semanticTable),
         semanticTable = semanticTable,
         strategy = queryGraphSolver
       )
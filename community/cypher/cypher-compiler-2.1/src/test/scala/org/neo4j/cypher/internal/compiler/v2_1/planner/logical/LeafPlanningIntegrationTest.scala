@@ -206,6 +206,17 @@ class LeafPlanningIntegrationTest extends CypherFunSuite with LogicalPlanningTes
     )
   }
 
+  test("should pick the index with the best sampled selectivity when there are multiple indices on properties") {
+    (new given {
+      indexOn("Awesome", "prop1")
+      indexOn("Awesome", "prop2")
+      indexSample("Awesome", "prop1", Cardinality(1000), Multiplier(0.5))
+      indexSample("Awesome", "prop2", Cardinality(1000), Multiplier(0.001))
+    } planFor "MATCH (n:Awesome) WHERE n.prop1 = 42 AND n.prop2 = 3 RETURN n").plan.plan should beLike {
+      case Selection(_, NodeIndexSeek(IdName("n"), LabelToken("Awesome", _), PropertyKeyToken("prop2", _), _)) => ()
+    }
+  }
+
   test("should build plans for unique index seek when there is an unique index on the property and a hint is given") {
     implicit val plan = new given {
       uniqueIndexOn("Awesome", "prop")
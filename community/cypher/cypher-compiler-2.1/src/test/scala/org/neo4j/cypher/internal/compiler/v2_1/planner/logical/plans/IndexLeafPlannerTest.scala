@@ -22,10 +22,10 @@ package org.neo4j.cypher.internal.compiler.v2_1.planner.logical.plans
 import org.neo4j.cypher.internal.commons.CypherFunSuite
 import org.neo4j.cypher.internal.compiler.v2_1.planner._
 import org.neo4j.cypher.internal.compiler.v2_1.ast._
-import org.neo4j.cypher.internal.compiler.v2_1.planner.logical.steps.{uniqueIndexSeekLeafPlanner, indexSeekLeafPlanner}
-import org.neo4j.cypher.internal.compiler.v2_1.planner.logical.LogicalPlanningContext
+import org.neo4j.cypher.internal.compiler.v2_1.planner.logical.steps.{compositeIndexSeekLeafPlanner, indexRangeSeekLeafPlanner, uniqueIndexSeekLeafPlanner, indexSeekLeafPlanner}
+import org.neo4j.cypher.internal.compiler.v2_1.planner.logical.{Cardinality, Multiplier, LogicalPlanningContext}
 import org.neo4j.cypher.internal.compiler.v2_1.planner.BeLikeMatcher._
-import org.neo4j.cypher.internal.compiler.v2_1.commands.ManyQueryExpression
+import org.neo4j.cypher.internal.compiler.v2_1.commands.{RangeBound, RangeQueryExpression, ManyQueryExpression}
 
 class IndexLeafPlannerTest extends CypherFunSuite with LogicalPlanningTestSupport2 {
 
@@ -166,6 +166,147 @@ class IndexLeafPlannerTest extends CypherFunSuite with LogicalPlanningTestSuppor
     }
   }
 
+  test("does not plan index range seek when no index exist") {
+    new given {
+      qg = queryGraph(GreaterThan(property, lit6)_, hasLabels)
+
+      withLogicalPlanningContext { (ctx, table) =>
+        // when
+        val resultPlans = indexRangeSeekLeafPlanner(qg)(ctx, table)
+
+        // then
+        resultPlans.plans shouldBe empty
+      }
+    }
+  }
+
+  test("index range seek when there is an index on the property") {
+    val greaterThan: Expression = GreaterThan(property, lit6)_
+    val lessThanOrEqual: Expression = LessThanOrEqual(property, lit42)_
+
+    new given {
+      qg = queryGraph(greaterThan, lessThanOrEqual, hasLabels)
+
+      indexOn("Awesome", "prop")
+
+      withLogicalPlanningContext { (ctx, table) =>
+        // when
+        val resultPlans = indexRangeSeekLeafPlanner(qg)(ctx, table)
+
+        // then
+        resultPlans.plans.map(_.plan) should beLike {
+          case Seq(NodeIndexRangeSeek(`idName`, _, _,
+            RangeQueryExpression(Some(RangeBound(SignedDecimalIntegerLiteral("6"), false)), Some(RangeBound(SignedDecimalIntegerLiteral("42"), true))))) => ()
+        }
+
+        resultPlans.plans.map(_.solved.graph.selections.flatPredicates.toSet) should equal(
+          Seq(Set(greaterThan, lessThanOrEqual, hasLabels: Expression)))
+      }
+    }
+  }
+
+  test("index range seek with the property on the right hand side of the comparison") {
+    new given {
+      qg = queryGraph(GreaterThanOrEqual(lit42, property)_, hasLabels)
+
+      uniqueIndexOn("Awesome", "prop")
+
+      withLogicalPlanningContext { (ctx, table) =>
+        // when
+        val resultPlans = indexRangeSeekLeafPlanner(qg)(ctx, table)
+
+        // then
+        resultPlans.plans.map(_.plan) should beLike {
+          case Seq(NodeIndexRangeSeek(`idName`, _, _, RangeQueryExpression(None, Some(RangeBound(SignedDecimalIntegerLiteral("42"), true))))) => ()
+        }
+      }
+    }
+  }
+
+  test("index range seek only solves one bound in each direction") {
+    val greaterThan6 = GreaterThan(property, lit6)_
+    val greaterThan42 = GreaterThan(property, lit42)_
+
+    new given {
+      qg = queryGraph(greaterThan6, greaterThan42, hasLabels)
+
+      indexOn("Awesome", "prop")
+
+      withLogicalPlanningContext { (ctx, table) =>
+        // when
+        val resultPlans = indexRangeSeekLeafPlanner(qg)(ctx, table)
+
+        // then
+        resultPlans.plans.map(_.plan) should beLike {
+          case Seq(NodeIndexRangeSeek(`idName`, _, _, RangeQueryExpression(Some(_), None))) => ()
+        }
+        resultPlans.plans.head.solved.graph.selections.flatPredicates should have size 2
+      }
+    }
+  }
+
+  test("plans composite index seek when equalities cover all keys of the index") {
+    val otherProperty: Expression = Property(ident("n"), PropertyKeyName("other") _)_
+    val inCollectionOther: Expression = In(otherProperty, Collection(Seq(lit6))_)_
+
+    new given {
+      qg = queryGraph(inCollectionValue, inCollectionOther, hasLabels)
+
+      compositeIndexOn("Awesome", "other", "prop")
+
+      withLogicalPlanningContext { (ctx, table) =>
+        // when
+        val resultPlans = compositeIndexSeekLeafPlanner(qg)(ctx, table)
+
+        // then
+        resultPlans.plans.map(_.plan) should beLike {
+          case Seq(NodeCompositeIndexSeek(`idName`, _, Seq(PropertyKeyToken("other", _), PropertyKeyToken("prop", _)), Seq(SignedDecimalIntegerLiteral("6"), SignedDecimalIntegerLiteral("42")))) => ()
+        }
+        resultPlans.plans.head.solved.graph.selections.flatPredicates should have size 3
+      }
+    }
+  }
+
+  test("estimates composite index seek from the sampled selectivity of every key") {
+    val otherProperty: Expression = Property(ident("n"), PropertyKeyName("other") _)_
+    val inCollectionOther: Expression = In(otherProperty, Collection(Seq(lit6))_)_
+
+    new given {
+      qg = queryGraph(inCollectionValue, inCollectionOther, hasLabels)
+
+      compositeIndexOn("Awesome", "other", "prop")
+      indexSample("Awesome", "prop", Cardinality(1000), Multiplier(0.5))
+      indexSample("Awesome", "other", Cardinality(1000), Multiplier(0.25))
+
+      withLogicalPlanningContext { (ctx, table) =>
+        // when
+        val resultPlans = compositeIndexSeekLeafPlanner(qg)(ctx, table)
+
+        // then
+        val nodesWithLabel = ctx.statistics.nodesWithLabelCardinality(ctx.semanticTable.resolvedLabelIds("Awesome"))
+        ctx.cardinality(resultPlans.plans.head.plan) should equal(nodesWithLabel * Multiplier(0.5) * Multiplier(0.25))
+      }
+    }
+  }
+
+  test("does not plan composite index seek when a key of the index is not covered") {
+    val otherProperty: Expression = Property(ident("n"), PropertyKeyName("other") _)_
+
+    new given {
+      qg = queryGraph(inCollectionValue, GreaterThan(otherProperty, lit6)_, hasLabels)
+
+      compositeIndexOn("Awesome", "prop", "other")
+
+      withLogicalPlanningContext { (ctx, table) =>
+        // when
+        val resultPlans = compositeIndexSeekLeafPlanner(qg)(ctx, table)
+
+        // then
+        resultPlans.plans shouldBe empty
+      }
+    }
+  }
+
   private def queryGraph(predicates: Expression*) =
     QueryGraph(
       selections = Selections(predicates.map(Predicate(Set(idName), _)).toSet),
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_1.planner.logical.plans
+
+import org.neo4j.cypher.internal.commons.CypherFunSuite
+import org.neo4j.cypher.internal.compiler.v2_1.LabelId
+import org.neo4j.cypher.internal.compiler.v2_1.ast._
+import org.neo4j.cypher.internal.compiler.v2_1.planner._
+import org.neo4j.cypher.internal.compiler.v2_1.planner.logical.steps.labelsScanLeafPlanner
+import org.mockito.Mockito._
+import collection.mutable
+
+class LabelsScanLeafPlannerTest extends CypherFunSuite with LogicalPlanningTestSupport {
+
+  private implicit val subQueryLookupTable = Map.empty[PatternExpression, QueryGraph]
+
+  test("plans an intersection scan for a node with several labels") {
+    // given
+    val idName = IdName("n")
+    val hasA: Expression = HasLabels(Identifier("n")_, Seq(LabelName("A")_))_
+    val hasB: Expression = HasLabels(Identifier("n")_, Seq(LabelName("B")_))_
+    val qg = QueryGraph(
+      selections = Selections(Set(Predicate(Set(idName), hasA), Predicate(Set(idName), hasB))),
+      patternNodes = Set(idName))
+
+    val semanticTable = newMockedSemanticTable
+    when(semanticTable.resolvedLabelIds).thenReturn(mutable.Map("A" -> LabelId(1), "B" -> LabelId(2)))
+
+    implicit val context = newMockedLogicalPlanningContext(
+      semanticTable = semanticTable,
+      planContext = newMockedPlanContext
+    )
+
+    // when
+    val resultPlans = labelsScanLeafPlanner(qg).plans
+
+    // then
+    resultPlans should have size 1
+    val NodeByLabelsScan(`idName`, labels, true) = resultPlans.head.plan
+    labels.toSet should equal(Set(Right(LabelId(1)), Right(LabelId(2))))
+    resultPlans.head.solved.graph.selections.flatPredicates.toSet should equal(Set(hasA, hasB))
+  }
+
+  test("does not plan an intersection scan for a node with a single label") {
+    // given
+    val idName = IdName("n")
+    val hasA: Expression = HasLabels(Identifier("n")_, Seq(LabelName("A")_))_
+    val qg = QueryGraph(
+      selections = Selections(Set(Predicate(Set(idName), hasA))),
+      patternNodes = Set(idName))
+
+    implicit val context = newMockedLogicalPlanningContext(
+      planContext = newMockedPlanContext
+    )
+
+    // when
+    val resultPlans = labelsScanLeafPlanner(qg).plans
+
+    // then
+    resultPlans should be(empty)
+  }
+
+  test("plans a union scan for a disjunction of labels on the same node") {
+    // given
+    val idName = IdName("n")
+    val ors: Expression = Ors(Set(
+      HasLabels(Identifier("n")_, Seq(LabelName("A")_))_,
+      HasLabels(Identifier("n")_, Seq(LabelName("B")_))_
+    ))_
+    val qg = QueryGraph(
+      selections = Selections(Set(Predicate(Set(idName), ors))),
+      patternNodes = Set(idName))
+
+    val semanticTable = newMockedSemanticTable
+    when(semanticTable.resolvedLabelIds).thenReturn(mutable.Map("A" -> LabelId(1)))
+
+    implicit val context = newMockedLogicalPlanningContext(
+      semanticTable = semanticTable,
+      planContext = newMockedPlanContext
+    )
+
+    // when
+    val resultPlans = labelsScanLeafPlanner(qg).plans
+
+    // then
+    resultPlans should have size 1
+    val NodeByLabelsScan(`idName`, labels, false) = resultPlans.head.plan
+    labels.toSet should equal(Set(Right(LabelId(1)), Left("B")))
+    resultPlans.head.solved.graph.selections.flatPredicates should equal(Seq(ors))
+  }
+
+  test("does not plan a union scan for a disjunction mixing labels and other predicates") {
+    // given
+    val idName = IdName("n")
+    val ors: Expression = Ors(Set(
+      HasLabels(Identifier("n")_, Seq(LabelName("A")_))_,
+      Equals(Property(Identifier("n")_, PropertyKeyName("prop")_)_, SignedDecimalIntegerLiteral("42")_)_
+    ))_
+    val qg = QueryGraph(
+      selections = Selections(Set(Predicate(Set(idName), ors))),
+      patternNodes = Set(idName))
+
+    implicit val context = newMockedLogicalPlanningContext(
+      planContext = newMockedPlanContext
+    )
+
+    // when
+    val resultPlans = labelsScanLeafPlanner(qg).plans
+
+    // then
+    resultPlans should be(empty)
+  }
+}
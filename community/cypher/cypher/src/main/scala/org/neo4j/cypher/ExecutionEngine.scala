@@ -30,6 +30,7 @@ import org.neo4j.graphdb.config.Setting
 import org.neo4j.graphdb.factory.GraphDatabaseSettings
 import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge
 import org.neo4j.kernel.impl.util.StringLogger
+import org.neo4j.kernel.monitoring.QueryExecutionMonitor
 import org.neo4j.kernel.{GraphDatabaseAPI, InternalAbstractGraphDatabase, api}
 
 import scala.collection.JavaConverters._
@@ -48,6 +49,7 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
   protected val compiler = createCompiler()
 
   private val cacheMonitor = kernelMonitors.newMonitor(classOf[StringCacheMonitor])
+  private val queryMonitor = kernelMonitors.newMonitor(classOf[QueryExecutionMonitor])
   private val cacheAccessor = new MonitoringCacheAccessor[String, (ExecutionPlan, Map[String, Any])](cacheMonitor)
 
   private val parsedQueries = new LRUCache[String, ParsedQuery](getPlanCacheSize)
@@ -59,10 +61,10 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
   def profile(query: String, params: JavaMap[String, Any]): ExecutionResult = profile(query, params.asScala.toMap)
 
   @throws(classOf[SyntaxException])
-  def profile(query: String, params: Map[String, Any]): ExecutionResult = {
-    val (plan, extractedParams, txInfo) = planQuery(query)
-    plan.profile(graphAPI, txInfo, params ++ extractedParams)
-  }
+  def profile(query: String, params: Map[String, Any]): ExecutionResult =
+    monitored(query) {
+      (plan, extractedParams, txInfo) => plan.profile(graphAPI, txInfo, params ++ extractedParams)
+    }
 
   @throws(classOf[SyntaxException])
   def execute(query: String): ExecutionResult = execute(query, Map[String, Any]())
@@ -71,9 +73,20 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
   def execute(query: String, params: JavaMap[String, Any]): ExecutionResult = execute(query, params.asScala.toMap)
 
   @throws(classOf[SyntaxException])
-  def execute(query: String, params: Map[String, Any]): ExecutionResult = {
+  def execute(query: String, params: Map[String, Any]): ExecutionResult =
+    monitored(query) {
+      (plan, extractedParams, txInfo) => plan.execute(graphAPI, txInfo, params ++ extractedParams)
+    }
+
+  // Results are lazy, so the start time only covers handing back the result, not consuming it
+  private def monitored(query: String)(run: (ExecutionPlan, Map[String, Any], TransactionInfo) => ExecutionResult): ExecutionResult = {
+    val start = System.nanoTime()
     val (plan, extractedParams, txInfo) = planQuery(query)
-    plan.execute(graphAPI, txInfo, params ++ extractedParams)
+    val planned = System.nanoTime()
+    queryMonitor.queryPlanned(query, planned - start)
+    val result = run(plan, extractedParams, txInfo)
+    queryMonitor.queryStarted(query, System.nanoTime() - planned)
+    result
   }
 
   @throws(classOf[SyntaxException])
@@ -19,8 +19,24 @@
  */
 package org.neo4j.cypher.internal.spi.v2_1
 
+import org.neo4j.cypher.internal.compiler.v2_1.{LabelId, PropertyKeyId}
+import org.neo4j.kernel.api.heuristics.StatisticsData
+
 
 //This class should live here, but until we have to touch
 //disk, let's have it in the compiler. Convenient.
 case object HardcodedGraphStatistics
   extends org.neo4j.cypher.internal.compiler.v2_1.HardcodedGraphStatisticsValues
+
+// Index samples are real statistics, and good enough to use with the hardcoded values for everything else
+class IndexSampledGraphStatistics(statistics: StatisticsData)
+  extends org.neo4j.cypher.internal.compiler.v2_1.HardcodedGraphStatisticsValues {
+
+  private val sampled = new TransactionBoundGraphStatistics(statistics)
+
+  override def indexSelectivity(labelId: LabelId, propertyKeyId: PropertyKeyId) =
+    sampled.indexSelectivity(labelId, propertyKeyId)
+
+  override def indexSize(labelId: LabelId, propertyKeyId: PropertyKeyId) =
+    sampled.indexSize(labelId, propertyKeyId)
+}
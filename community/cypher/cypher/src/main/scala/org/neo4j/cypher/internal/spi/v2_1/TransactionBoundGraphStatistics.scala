@@ -20,7 +20,7 @@
 package org.neo4j.cypher.internal.spi.v2_1
 
 import org.neo4j.cypher.internal.compiler.v2_1.spi.GraphStatistics
-import org.neo4j.cypher.internal.compiler.v2_1.{RelTypeId, LabelId}
+import org.neo4j.cypher.internal.compiler.v2_1.{PropertyKeyId, RelTypeId, LabelId}
 import org.neo4j.graphdb.Direction
 import org.neo4j.kernel.api.heuristics.StatisticsData
 import org.neo4j.cypher.internal.compiler.v2_1.planner.logical.{Multiplier, Cardinality}
@@ -43,4 +43,16 @@ class TransactionBoundGraphStatistics(statistics: StatisticsData) extends GraphS
 
   def degreeByLabelRelationshipTypeAndDirection(labelId: LabelId, relTypeId: RelTypeId, direction: Direction) =
     Multiplier(statistics.degree( labelId.id, relTypeId.id, direction ))
+
+  def indexSelectivity(labelId: LabelId, propertyKeyId: PropertyKeyId) =
+    statistics.indexSelectivity(labelId.id, propertyKeyId.id) match {
+      case StatisticsData.NO_INDEX_SELECTIVITY => None
+      case selectivity                         => Some(Multiplier(selectivity))
+    }
+
+  def indexSize(labelId: LabelId, propertyKeyId: PropertyKeyId) =
+    statistics.indexSize(labelId.id, propertyKeyId.id) match {
+      case StatisticsData.NO_INDEX_SIZE => None
+      case indexSize                    => Some(Cardinality(indexSize))
+    }
 }
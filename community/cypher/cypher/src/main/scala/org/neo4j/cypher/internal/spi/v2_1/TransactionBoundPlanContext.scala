@@ -27,6 +27,8 @@ import org.neo4j.kernel.api.exceptions.KernelException
 import org.neo4j.kernel.api.{KernelAPI, Statement}
 import org.neo4j.kernel.api.exceptions.schema.SchemaRuleNotFoundException
 import org.neo4j.cypher.internal.compiler.v2_1.spi.{GraphStatistics, PlanContext}
+import org.neo4j.kernel.impl.api.operations.KeyReadOperations
+import scala.collection.JavaConverters._
 
 final class TransactionBoundPlanContext(statement: Statement, kernelAPI: KernelAPI, gdb: GraphDatabaseService)
   extends TransactionBoundTokenContext(statement) with PlanContext {
@@ -46,6 +48,15 @@ final class TransactionBoundPlanContext(statement: Statement, kernelAPI: KernelA
     Some(statement.readOperations().uniqueIndexGetForLabelAndPropertyKey(labelId, propertyKeyId))
   }
 
+  def getCompositeIndexRules(labelName: String): Seq[IndexDescriptor] = {
+    val labelId = statement.readOperations().labelGetForName(labelName)
+    if (labelId == KeyReadOperations.NO_SUCH_LABEL)
+      Seq.empty
+    else
+      statement.readOperations().indexesGetForLabel(labelId).asScala
+        .filter(_.isComposite).flatMap(getOnlineIndex).toSeq
+  }
+
   private def evalOrNone[T](f: => Option[T]): Option[T] =
     try { f } catch { case _: SchemaRuleNotFoundException => None }
 
@@ -84,5 +95,5 @@ final class TransactionBoundPlanContext(statement: Statement, kernelAPI: KernelA
     statement.readOperations().schemaStateGetOrCreate(key, javaCreator)
   }
 
-  def statistics: GraphStatistics = HardcodedGraphStatistics
+  def statistics: GraphStatistics = new IndexSampledGraphStatistics(kernelAPI.heuristics())
 }
@@ -117,6 +117,18 @@ final class TransactionBoundQueryContext(graph: GraphDatabaseAPI,
   def exactIndexSearch(index: IndexDescriptor, value: Any) =
     mapToScala(statement.readOperations().nodesGetFromIndexLookup(index, value))(nodeOps.getById)
 
+  def numberRangeIndexSearch(index: IndexDescriptor, lower: Number, includeLower: Boolean, upper: Number, includeUpper: Boolean) =
+    mapToScala(statement.readOperations().nodesGetFromIndexRangeSeekByNumber(index, lower, includeLower, upper, includeUpper))(nodeOps.getById)
+
+  def stringRangeIndexSearch(index: IndexDescriptor, lower: String, includeLower: Boolean, upper: String, includeUpper: Boolean) =
+    mapToScala(statement.readOperations().nodesGetFromIndexRangeSeekByString(index, lower, includeLower, upper, includeUpper))(nodeOps.getById)
+
+  def prefixIndexSearch(index: IndexDescriptor, prefix: String) =
+    mapToScala(statement.readOperations().nodesGetFromIndexRangeSeekByPrefix(index, prefix))(nodeOps.getById)
+
+  def compositeIndexSearch(index: IndexDescriptor, values: Seq[Any]) =
+    mapToScala(statement.readOperations().nodesGetFromIndexCompositeSeek(index, values.map(_.asInstanceOf[AnyRef]): _*))(nodeOps.getById)
+
   def exactUniqueIndexSearch(index: IndexDescriptor, value: Any): Option[Node] = {
     val nodeId: Long = statement.readOperations().nodeGetUniqueFromIndexLookup(index, value)
     if (StatementConstants.NO_SUCH_NODE == nodeId) None else Some(nodeOps.getById(nodeId))
@@ -134,6 +146,12 @@ final class TransactionBoundQueryContext(graph: GraphDatabaseAPI,
   def getNodesByLabel(id: Int): Iterator[Node] =
     mapToScala(statement.readOperations().nodesGetForLabel(id))(nodeOps.getById)
 
+  def getNodesByAllLabels(ids: Seq[Int]): Iterator[Node] =
+    mapToScala(statement.readOperations().nodesGetForAllLabels(ids: _*))(nodeOps.getById)
+
+  def getNodesByAnyLabel(ids: Seq[Int]): Iterator[Node] =
+    mapToScala(statement.readOperations().nodesGetForAnyLabel(ids: _*))(nodeOps.getById)
+
   class NodeOperations extends BaseOperations[Node] {
     def delete(obj: Node) {
       statement.dataWriteOperations().nodeDelete(obj.getId)
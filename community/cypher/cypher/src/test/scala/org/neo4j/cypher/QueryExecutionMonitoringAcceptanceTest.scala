@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher
+
+import org.neo4j.kernel.monitoring.QueryExecutionMonitor
+
+class QueryExecutionMonitoringAcceptanceTest extends ExecutionEngineFunSuite {
+
+  class QueryCounter(var planned: List[String] = List.empty, var started: List[String] = List.empty) extends QueryExecutionMonitor {
+    def queryPlanned(query: String, planningTimeNanos: Long) {
+      planned = planned :+ query
+    }
+
+    def queryStarted(query: String, startTimeNanos: Long) {
+      started = started :+ query
+    }
+  }
+
+  test("should monitor executed queries") {
+    // given
+    val counter = new QueryCounter()
+    kernelMonitors.addMonitorListener(counter)
+
+    // when
+    execute("return 42").toList
+
+    // then
+    counter.planned should equal(List("return 42"))
+    counter.started should equal(List("return 42"))
+  }
+
+  test("should monitor profiled queries") {
+    // given
+    val counter = new QueryCounter()
+    kernelMonitors.addMonitorListener(counter)
+
+    // when
+    profile("return 42").toList
+
+    // then
+    counter.planned should equal(List("return 42"))
+    counter.started should equal(List("return 42"))
+  }
+}
@@ -37,6 +37,26 @@ class StartPointFindingAcceptanceTest extends ExecutionEngineFunSuite with NewPl
     executeWithNewPlanner("match (n:Animal) return n").columnAs[Node]("n").toSet should equal(animals)
   }
 
+  test("Scan nodes having all of several labels") {
+    createLabeledNode("Person")
+    createLabeledNode("Animal")
+    val both = Set(createLabeledNode("Person", "Animal"), createLabeledNode("Animal", "Person", "Robot"))
+
+    val result = executeWithNewPlanner("match (n:Person:Animal) return n")
+    result.columnAs[Node]("n").toSet should equal(both)
+    result.executionPlanDescription().toString should include("NodeByLabelsIntersectionScan")
+  }
+
+  test("Scan nodes having any of several labels") {
+    createNode("a")
+    createLabeledNode("Robot")
+    val either = Set(createLabeledNode("Person"), createLabeledNode("Animal"), createLabeledNode("Person", "Animal"))
+
+    val result = executeWithNewPlanner("match n where n:Person or n:Animal or n:Unicorn return n")
+    result.columnAs[Node]("n").toSet should equal(either)
+    result.executionPlanDescription().toString should include("NodeByLabelsUnionScan")
+  }
+
   test("Seek node by id given on the left") {
     createNode("a")
     val node = createNode("b")
@@ -150,5 +170,39 @@ class StartPointFindingAcceptanceTest extends ExecutionEngineFunSuite with NewPl
     val node = createLabeledNode(Map("prop" -> 42), "Person")
     executeScalarWithNewPlanner[Node](s"match (n:Person {prop: 42}) return n") should equal(node)
   }
-}
 
+  test("Range seek index with numeric bounds given in where") {
+    graph.createIndex("Person", "prop")
+    createLabeledNode(Map("prop" -> 1), "Person")
+    val n1 = createLabeledNode(Map("prop" -> 5), "Person")
+    val n2 = createLabeledNode(Map("prop" -> 9.5), "Person")
+    createLabeledNode(Map("prop" -> 10), "Person")
+    createLabeledNode(Map("prop" -> "7"), "Person")
+
+    val result = executeWithNewPlanner(s"match (n:Person) where n.prop > 1 and n.prop < 10 return n")
+
+    result.columnAs[Node]("n").toSet should equal(Set(n1, n2))
+    result.executionPlanDescription().toString should include("NodeIndexRangeSeek")
+  }
+
+  test("Composite index seek with equalities on all keys given in where") {
+    graph.createIndex("Person", "firstName", "lastName")
+    createLabeledNode(Map("firstName" -> "Stefan", "lastName" -> "Plantikow"), "Person")
+    createLabeledNode(Map("firstName" -> "Tobias"), "Person")
+    val node = createLabeledNode(Map("firstName" -> "Tobias", "lastName" -> "Lindaaker"), "Person")
+
+    val result = executeWithNewPlanner(s"match (n:Person) where n.firstName = 'Tobias' and n.lastName = 'Lindaaker' return n")
+
+    result.columnAs[Node]("n").toList should equal(List(node))
+    result.executionPlanDescription().toString should include("NodeCompositeIndexSeek")
+  }
+
+  test("Range seek unique index with string bound given on the left") {
+    graph.createConstraint("Person", "name")
+    createLabeledNode(Map("name" -> "Andres"), "Person")
+    val n1 = createLabeledNode(Map("name" -> "Stefan"), "Person")
+    val n2 = createLabeledNode(Map("name" -> "Tobias"), "Person")
+
+    executeWithNewPlanner(s"match (n:Person) where 'Stefan' <= n.name return n").columnAs[Node]("n").toSet should equal(Set(n1, n2))
+  }
+}
@@ -19,17 +19,24 @@
  */
 package org.neo4j.graphalgo;
 
+import java.util.concurrent.ForkJoinPool;
+
 import org.neo4j.graphalgo.impl.path.AStar;
 import org.neo4j.graphalgo.impl.path.AllPaths;
 import org.neo4j.graphalgo.impl.path.AllSimplePaths;
 import org.neo4j.graphalgo.impl.path.Dijkstra;
+import org.neo4j.graphalgo.impl.path.ParallelShortestPath;
+import org.neo4j.graphalgo.impl.path.PrimitiveAStar;
+import org.neo4j.graphalgo.impl.path.PrimitiveDijkstra;
 import org.neo4j.graphalgo.impl.path.ShortestPath;
 import org.neo4j.graphalgo.impl.util.DoubleEvaluator;
+import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Path;
 import org.neo4j.graphdb.PathExpander;
 import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.RelationshipExpander;
+import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.traversal.InitialBranchState;
 import org.neo4j.graphdb.traversal.InitialStateFactory;
 
@@ -180,6 +187,54 @@ public abstract class GraphAlgoFactory
         return new ShortestPath( maxDepth, expander, maxHitCount );
     }
     
+    /**
+     * Returns an algorithm which can find all shortest paths (that is paths
+     * with as short {@link Path#length()} as possible) between two nodes. These
+     * returned paths cannot contain loops (i.e. a node cannot occur more than
+     * once in any returned path).
+     *
+     * It expands one level at a time from the side with the smaller frontier,
+     * splitting large frontiers into chunks which are expanded in parallel
+     * in {@code pool}. This pays off for paths between highly connected nodes.
+     *
+     * @param expander the {@link PathExpander} to use for expanding
+     *            {@link Relationship}s for each {@link Path}. It must be
+     *            safe to use from several threads at once.
+     * @param maxDepth the max {@link Path#length()} returned paths are allowed
+     *            to have.
+     * @param pool the {@link ForkJoinPool} to expand large frontiers in.
+     * @return an algorithm which finds shortest paths between two nodes.
+     */
+    public static PathFinder<Path> shortestPath( PathExpander expander, int maxDepth, ForkJoinPool pool )
+    {
+        return new ParallelShortestPath( maxDepth, expander, Integer.MAX_VALUE, pool );
+    }
+
+    /**
+     * Returns an algorithm which can find all shortest paths (that is paths
+     * with as short {@link Path#length()} as possible) between two nodes. These
+     * returned paths cannot contain loops (i.e. a node cannot occur more than
+     * once in any returned path).
+     *
+     * It expands one level at a time from the side with the smaller frontier,
+     * splitting large frontiers into chunks which are expanded in parallel
+     * in {@code pool}. This pays off for paths between highly connected nodes.
+     *
+     * @param expander the {@link PathExpander} to use for expanding
+     *            {@link Relationship}s for each {@link Path}. It must be
+     *            safe to use from several threads at once.
+     * @param maxDepth the max {@link Path#length()} returned paths are allowed
+     *            to have.
+     * @param maxHitCount the maximum number of {@link Path}s to return.
+     * @param pool the {@link ForkJoinPool} to expand large frontiers in.
+     * @return an algorithm which finds shortest paths between two nodes.
+     */
+    public static PathFinder<Path> shortestPath( PathExpander expander, int maxDepth, int maxHitCount,
+            ForkJoinPool pool )
+    {
+        return new ParallelShortestPath( maxDepth, expander, maxHitCount, pool );
+    }
+
     /**
      * Returns an algorithm which can find simple all paths of a certain length
      * between two nodes. These returned paths cannot contain loops (i.e. a node
@@ -265,6 +320,29 @@ public abstract class GraphAlgoFactory
     {
         return new AStar( expander, lengthEvaluator, estimateEvaluator );
     }
+
+    /**
+     * Returns a {@link PathFinder} which uses the A* algorithm to find the
+     * cheapest path between two nodes, like {@link #aStar(PathExpander, CostEvaluator, EstimateEvaluator)},
+     * but keeps all its state on primitive node ids and reads relationships and their costs without
+     * creating {@link Relationship} objects. Prefer this one for searches over large parts of big graphs.
+     * Returned paths cannot contain loops.
+     *
+     * @param direction the {@link Direction} to expand relationships in.
+     * @param relationshipPropertyRepresentingCost the property to represent cost
+     * on each relationship the algorithm traverses, values must be numbers.
+     * @param estimateEvaluator evaluator that returns an (optimistic)
+     * estimation of the cost to get from the current node (in the traversal)
+     * to the end node.
+     * @param types the {@link RelationshipType}s to expand, none means all types.
+     * @return an algorithm which finds the cheapest path between two nodes
+     * using the A* algorithm.
+     */
+    public static PathFinder<WeightedPath> aStar( Direction direction, String relationshipPropertyRepresentingCost,
+            EstimateEvaluator<Double> estimateEvaluator, RelationshipType... types )
+    {
+        return new PrimitiveAStar( direction, relationshipPropertyRepresentingCost, estimateEvaluator, types );
+    }
     
     /**
      * Returns a {@link PathFinder} which uses the Dijkstra algorithm to find
@@ -429,4 +507,24 @@ public abstract class GraphAlgoFactory
     {
         return dijkstra( expander, stateFactory, new DoubleEvaluator( relationshipPropertyRepresentingCost ) );
     }
+
+    /**
+     * Returns a {@link PathFinder} which uses the Dijkstra algorithm to find
+     * the cheapest path between two nodes, like {@link #dijkstra(PathExpander, String)},
+     * but keeps all its state on primitive node ids and reads relationships and their costs without
+     * creating {@link Relationship} objects. Prefer this one for searches over large parts of big graphs.
+     * Only one cheapest path is returned, also from {@link PathFinder#findAllPaths(Node, Node)}.
+     *
+     * @param direction the {@link Direction} to expand relationships in.
+     * @param relationshipPropertyRepresentingCost the property to represent cost
+     * on each relationship the algorithm traverses, values must be numbers.
+     * @param types the {@link RelationshipType}s to expand, none means all types.
+     * @return an algorithm which finds the cheapest path between two nodes
+     * using the Dijkstra algorithm.
+     */
+    public static PathFinder<WeightedPath> dijkstra( Direction direction, String relationshipPropertyRepresentingCost,
+            RelationshipType... types )
+    {
+        return new PrimitiveDijkstra( direction, relationshipPropertyRepresentingCost, types );
+    }
 }
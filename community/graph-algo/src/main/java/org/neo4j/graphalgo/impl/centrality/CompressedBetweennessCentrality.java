@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.centrality;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.neo4j.graphalgo.impl.projection.CompressedGraph;
+import org.neo4j.graphalgo.impl.shortestpath.CompressedSingleSourceShortestPath;
+import org.neo4j.graphalgo.impl.util.ParallelRange;
+import org.neo4j.graphdb.Direction;
+
+/**
+ * Betweenness centrality, like {@link BetweennessCentrality}, but for all nodes of a {@link CompressedGraph}.
+ * Runs the algorithm by Ulrik Brandes (2001) from every node, with the source nodes divided between the threads
+ * of a {@link ForkJoinPool}. Each thread accumulates its own centralities, which are added together at the end.
+ *
+ * Shortest paths are found by {@link CompressedSingleSourceShortestPath}, so they follow the
+ * {@link CompressedGraph#direction() direction} the graph was loaded with, and are weighted if it was loaded
+ * with weights. For graphs loaded with {@link Direction#BOTH} every path is found from both its ends, so the
+ * centralities are halved.
+ * @complexity O(n * m) for unweighted graphs and O(n * m * log(n)) for weighted, divided by the number of threads.
+ */
+public class CompressedBetweennessCentrality
+{
+    private final CompressedGraph graph;
+    private final ForkJoinPool pool;
+    private double[] centralities;
+
+    public CompressedBetweennessCentrality( CompressedGraph graph, ForkJoinPool pool )
+    {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    public void calculate()
+    {
+        if ( centralities != null )
+        {
+            return;
+        }
+        final int nodeCount = graph.nodeCount();
+        final double factor = graph.direction() == Direction.BOTH ? 0.5 : 1.0;
+        final double[] result = new double[nodeCount];
+        new ParallelRange()
+        {
+            @Override
+            protected void process( int from, int to )
+            {
+                CompressedSingleSourceShortestPath paths = new CompressedSingleSourceShortestPath( graph );
+                double[] dependencies = new double[nodeCount];
+                double[] local = new double[nodeCount];
+                for ( int source = from; source < to; source++ )
+                {
+                    paths.calculate( source );
+                    // Visit nodes farthest first, so that the dependencies of the successors of a node are final
+                    for ( int i = paths.reachedCount() - 1; i >= 0; i-- )
+                    {
+                        int node = paths.reached( i );
+                        double dependency = 0;
+                        for ( long entry = graph.adjacencyStart( node ), end = graph.adjacencyEnd( node );
+                              entry < end; entry++ )
+                        {
+                            int successor = graph.target( entry );
+                            if ( paths.distance( successor ) == paths.distance( node ) + graph.weight( entry ) )
+                            {
+                                dependency += paths.pathCount( node ) / paths.pathCount( successor ) *
+                                        (1 + dependencies[successor]);
+                            }
+                        }
+                        dependencies[node] = dependency;
+                        if ( node != source )
+                        {
+                            local[node] += dependency;
+                        }
+                    }
+                    for ( int i = 0; i < paths.reachedCount(); i++ )
+                    {
+                        dependencies[paths.reached( i )] = 0;
+                    }
+                }
+                synchronized ( result )
+                {
+                    for ( int node = 0; node < nodeCount; node++ )
+                    {
+                        result[node] += local[node] * factor;
+                    }
+                }
+            }
+        }.run( pool, nodeCount );
+        centralities = result;
+    }
+
+    /**
+     * @param node a node in the {@link CompressedGraph}, see {@link CompressedGraph#node(long)}.
+     */
+    public double getCentrality( int node )
+    {
+        calculate();
+        return centralities[node];
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.centrality;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.neo4j.graphalgo.impl.projection.CompressedGraph;
+import org.neo4j.graphalgo.impl.shortestpath.CompressedSingleSourceShortestPath;
+import org.neo4j.graphalgo.impl.util.ParallelRange;
+
+/**
+ * Closeness centrality, like {@link ClosenessCentrality}, but for all nodes of a {@link CompressedGraph}. The
+ * centrality of a node is one divided by the sum of the distances from it to all nodes it can reach, or zero if it
+ * can't reach any. The source nodes are divided between the threads of a {@link ForkJoinPool}.
+ *
+ * Shortest paths are found by {@link CompressedSingleSourceShortestPath}, so they follow the
+ * {@link CompressedGraph#direction() direction} the graph was loaded with, and are weighted if it was loaded
+ * with weights.
+ */
+public class CompressedClosenessCentrality
+{
+    private final CompressedGraph graph;
+    private final ForkJoinPool pool;
+    private double[] centralities;
+
+    public CompressedClosenessCentrality( CompressedGraph graph, ForkJoinPool pool )
+    {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    public void calculate()
+    {
+        if ( centralities != null )
+        {
+            return;
+        }
+        final double[] result = new double[graph.nodeCount()];
+        new ParallelRange()
+        {
+            @Override
+            protected void process( int from, int to )
+            {
+                CompressedSingleSourceShortestPath paths = new CompressedSingleSourceShortestPath( graph );
+                for ( int source = from; source < to; source++ )
+                {
+                    paths.calculate( source );
+                    double sum = 0;
+                    for ( int i = 0; i < paths.reachedCount(); i++ )
+                    {
+                        sum += paths.distance( paths.reached( i ) );
+                    }
+                    result[source] = sum > 0 ? 1 / sum : 0;
+                }
+            }
+        }.run( pool, graph.nodeCount() );
+        centralities = result;
+    }
+
+    /**
+     * @param node a node in the {@link CompressedGraph}, see {@link CompressedGraph#node(long)}.
+     */
+    public double getCentrality( int node )
+    {
+        calculate();
+        return centralities[node];
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.centrality;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.neo4j.graphalgo.impl.projection.CompressedGraph;
+import org.neo4j.graphalgo.impl.util.ParallelRange;
+import org.neo4j.graphdb.Direction;
+
+/**
+ * Eigenvector centrality computed with the power method, like {@link EigenvectorCentralityPower}, but for all nodes
+ * of a {@link CompressedGraph}. Each iteration is divided by node between the threads of a {@link ForkJoinPool}.
+ *
+ * In each iteration a node gets the sum of the values of the nodes in its adjacency list, multiplied by the
+ * {@link CompressedGraph#weight(long) weights}. So to have values flow along relationships, the way
+ * {@link EigenvectorCentralityPower} does for {@link Direction#OUTGOING}, load the graph with
+ * {@link Direction#INCOMING}, and vice versa. {@link Direction#BOTH} is the same for both.
+ * @complexity O(i * (n + m)) for i iterations, divided by the number of threads.
+ */
+public class CompressedEigenvectorCentrality
+{
+    private final CompressedGraph graph;
+    private final ForkJoinPool pool;
+    private final double precision;
+    private double[] values;
+    private int totalIterations;
+
+    /**
+     * @param precision stop iterating when no value changes by more than this factor between two iterations.
+     */
+    public CompressedEigenvectorCentrality( CompressedGraph graph, double precision, ForkJoinPool pool )
+    {
+        this.graph = graph;
+        this.precision = precision;
+        this.pool = pool;
+    }
+
+    /**
+     * Iterates until the desired precision is reached, or {@code maxIterations} iterations have been run.
+     * @return the number of iterations run, which is less than {@code maxIterations} if the desired precision was
+     * reached.
+     */
+    public int calculate( int maxIterations )
+    {
+        final int nodeCount = graph.nodeCount();
+        double[] current = new double[nodeCount];
+        Arrays.fill( current, 1 / Math.sqrt( nodeCount ) );
+        totalIterations = 0;
+        while ( totalIterations < maxIterations )
+        {
+            totalIterations++;
+            Iteration iteration = new Iteration( current );
+            iteration.multiply.run( pool, nodeCount );
+            iteration.normalize.run( pool, nodeCount );
+            current = iteration.next;
+            if ( iteration.converged )
+            {
+                break;
+            }
+        }
+
+        // If the first value is negative (possibly the whole vector), negate the whole vector
+        if ( nodeCount > 0 && current[0] < 0 )
+        {
+            for ( int node = 0; node < nodeCount; node++ )
+            {
+                current[node] = -current[node];
+            }
+        }
+        values = current;
+        return totalIterations;
+    }
+
+    /**
+     * @param node a node in the {@link CompressedGraph}, see {@link CompressedGraph#node(long)}.
+     */
+    public double getCentrality( int node )
+    {
+        return values[node];
+    }
+
+    public int getTotalIterations()
+    {
+        return totalIterations;
+    }
+
+    private class Iteration
+    {
+        private final double[] previous;
+        private final double[] next;
+        private double squareSum;
+        private volatile boolean converged = true;
+
+        Iteration( double[] previous )
+        {
+            this.previous = previous;
+            this.next = new double[previous.length];
+        }
+
+        private final ParallelRange multiply = new ParallelRange()
+        {
+            @Override
+            protected void process( int from, int to )
+            {
+                double localSquareSum = 0;
+                for ( int node = from; node < to; node++ )
+                {
+                    double value = 0;
+                    for ( long entry = graph.adjacencyStart( node ), end = graph.adjacencyEnd( node );
+                          entry < end; entry++ )
+                    {
+                        value += previous[graph.target( entry )] * graph.weight( entry );
+                    }
+                    next[node] = value;
+                    localSquareSum += value * value;
+                }
+                addToSquareSum( localSquareSum );
+            }
+        };
+
+        private final ParallelRange normalize = new ParallelRange()
+        {
+            @Override
+            protected void process( int from, int to )
+            {
+                double length = Math.sqrt( squareSum );
+                boolean localConverged = true;
+                for ( int node = from; node < to; node++ )
+                {
+                    if ( length > 0 )
+                    {
+                        next[node] /= length;
+                    }
+                    localConverged &= closeEnough( previous[node], next[node] );
+                }
+                if ( !localConverged )
+                {
+                    converged = false;
+                }
+            }
+        };
+
+        private synchronized void addToSquareSum( double value )
+        {
+            squareSum += value;
+        }
+
+        private boolean closeEnough( double previousValue, double nextValue )
+        {
+            if ( previousValue == 0.0 )
+            {
+                return Math.abs( nextValue ) <= precision;
+            }
+            double factor = Math.abs( nextValue / previousValue );
+            return factor - precision <= 1.0 && factor + precision >= 1.0;
+        }
+    }
+}
@@ -0,0 +1,459 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongObjectMap;
+import org.neo4j.graphalgo.PathFinder;
+import org.neo4j.graphalgo.impl.util.PathImpl;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Path;
+import org.neo4j.graphdb.PathExpander;
+import org.neo4j.graphdb.PropertyContainer;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.traversal.BranchState;
+import org.neo4j.graphdb.traversal.TraversalMetadata;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.api.TxState;
+import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
+
+/**
+ * Finds (all or one) shortest paths between two nodes, like {@link ShortestPath}, but expands a whole level at a
+ * time, always on the side with the smaller frontier. Frontiers larger than {@link #CHUNK_SIZE} nodes are split
+ * into chunks which are expanded in parallel by a {@link ForkJoinPool}, each chunk in a read transaction of its
+ * own. The expanded relationships are then merged into the primitive visited maps of the two sides on the calling
+ * thread, which is also where collisions between the two sides are found. While expanding, the workers only read
+ * the visited maps, which are not changed until all chunks of a level are done.
+ *
+ * Worker transactions cannot see changes made by the calling transaction, so if the calling transaction has
+ * changes of its own every level is expanded on the calling thread instead.
+ *
+ * Relationships are traversed in the specified directions from the start node,
+ * but in the reverse direction ( {@link org.neo4j.graphdb.Direction#reverse()} ) from the
+ * end node. This doesn't affect {@link org.neo4j.graphdb.Direction#BOTH}.
+ */
+public class ParallelShortestPath implements PathFinder<Path>
+{
+    static final int CHUNK_SIZE = 64;
+
+    private final int maxDepth;
+    private final int maxResultCount;
+    private final PathExpander expander;
+    private final ForkJoinPool pool;
+    private Metadata lastMetadata;
+
+    /**
+     * @param maxDepth the maximum depth for the traversal. Returned paths
+     * will never have a greater {@link Path#length()} than {@code maxDepth}.
+     * @param expander the {@link PathExpander} to use for deciding
+     * which relationships to expand for each {@link Node}. It will be used from several threads at once.
+     * @param maxResultCount the maximum number of paths to return.
+     * @param pool the pool to expand large frontiers in.
+     */
+    public ParallelShortestPath( int maxDepth, PathExpander expander, int maxResultCount, ForkJoinPool pool )
+    {
+        this.maxDepth = maxDepth;
+        this.expander = expander;
+        this.maxResultCount = maxResultCount;
+        this.pool = pool;
+    }
+
+    @Override
+    public Iterable<Path> findAllPaths( Node start, Node end )
+    {
+        return internalPaths( start, end, false );
+    }
+
+    @Override
+    public Path findSinglePath( Node start, Node end )
+    {
+        Iterator<Path> paths = internalPaths( start, end, true ).iterator();
+        return paths.hasNext() ? paths.next() : null;
+    }
+
+    @Override
+    public TraversalMetadata metadata()
+    {
+        return lastMetadata;
+    }
+
+    private Iterable<Path> internalPaths( Node start, Node end, boolean stopAsap )
+    {
+        lastMetadata = new Metadata();
+        if ( start.equals( end ) )
+        {
+            return Arrays.asList( PathImpl.singular( start ) );
+        }
+
+        GraphDatabaseService graphDb = start.getGraphDatabase();
+        boolean parallel = pool.getParallelism() > 1 && !hasTransactionStateChanges( graphDb );
+        Side startSide = new Side( start.getId(), expander );
+        Side endSide = new Side( end.getId(), expander.reverse() );
+        long[] hits = new long[0];
+        while ( hits.length == 0 && startSide.depth + endSide.depth < maxDepth &&
+                startSide.frontierSize > 0 && endSide.frontierSize > 0 )
+        {
+            Side side = startSide.frontierSize <= endSide.frontierSize ? startSide : endSide;
+            Side otherSide = side == startSide ? endSide : startSide;
+            hits = side.merge( expand( graphDb, side, parallel ), otherSide, stopAsap );
+        }
+        return hitsToPaths( graphDb, hits, start, startSide, end, endSide, stopAsap );
+    }
+
+    private Expansion[] expand( GraphDatabaseService graphDb, Side side, boolean parallel )
+    {
+        Expansion[] expansions;
+        if ( parallel && side.frontierSize > CHUNK_SIZE )
+        {
+            expansions = new Expansion[(side.frontierSize + CHUNK_SIZE - 1) / CHUNK_SIZE];
+            pool.invoke( new ExpandTask( graphDb, side, expansions, 0, expansions.length ) );
+        }
+        else
+        {
+            expansions = new Expansion[] {side.expand( graphDb, 0, side.frontierSize )};
+        }
+        for ( Expansion expansion : expansions )
+        {
+            lastMetadata.rels += expansion.traversed;
+        }
+        return expansions;
+    }
+
+    private static boolean hasTransactionStateChanges( GraphDatabaseService graphDb )
+    {
+        ThreadToStatementContextBridge statementProvider = ((GraphDatabaseAPI) graphDb).getDependencyResolver()
+                .resolveDependency( ThreadToStatementContextBridge.class );
+        try ( Statement statement = statementProvider.instance() )
+        {
+            return !(statement instanceof TxState.Holder) || ((TxState.Holder) statement).hasTxStateWithChanges();
+        }
+    }
+
+    private Iterable<Path> hitsToPaths( GraphDatabaseService graphDb, long[] hits, Node start, Side startSide,
+            Node end, Side endSide, boolean stopAsap )
+    {
+        if ( hits.length == 0 )
+        {
+            return Collections.emptyList();
+        }
+
+        List<Path> paths = new ArrayList<>();
+        for ( long hit : hits )
+        {
+            List<PathImpl.Builder> endBuilders = toBuilders( graphDb, end, endSide, hit, stopAsap );
+            for ( PathImpl.Builder startBuilder : toBuilders( graphDb, start, startSide, hit, stopAsap ) )
+            {
+                for ( PathImpl.Builder endBuilder : endBuilders )
+                {
+                    paths.add( startBuilder.build( endBuilder ) );
+                    if ( paths.size() >= maxResultCount )
+                    {
+                        lastMetadata.paths = paths.size();
+                        return paths;
+                    }
+                }
+            }
+        }
+        lastMetadata.paths = paths.size();
+        return paths;
+    }
+
+    /**
+     * Builders for all paths from the root of {@code side} to {@code nodeId}, or just one if {@code stopAsap}.
+     * Builders are immutable, so paths sharing a prefix also share the builders of that prefix.
+     */
+    private static List<PathImpl.Builder> toBuilders( GraphDatabaseService graphDb, Node root, Side side,
+            long nodeId, boolean stopAsap )
+    {
+        if ( nodeId == side.root )
+        {
+            return Collections.singletonList( new PathImpl.Builder( root ) );
+        }
+
+        List<PathImpl.Builder> builders = new ArrayList<>();
+        long[] reachedBy = side.visited.get( nodeId );
+        for ( int i = 0; i < reachedBy.length; i += 2 )
+        {
+            Relationship relationship = graphDb.getRelationshipById( reachedBy[i] );
+            for ( PathImpl.Builder builder : toBuilders( graphDb, root, side, reachedBy[i + 1], stopAsap ) )
+            {
+                builders.add( builder.push( relationship ) );
+            }
+            if ( stopAsap )
+            {
+                break;
+            }
+        }
+        return builders;
+    }
+
+    // Two per search
+    private static class Side
+    {
+        private final long root;
+        private final PathExpander expander;
+        // node id -> relationship and previous node pairs, [rel, node, rel, node, ...], of all relationships
+        // reaching that node from the level before it
+        private final PrimitiveLongObjectMap<long[]> visited = Primitive.longObjectMap();
+        private long[] frontier;
+        private int frontierSize;
+        private int depth;
+
+        Side( long root, PathExpander expander )
+        {
+            this.root = root;
+            this.expander = expander;
+            this.visited.put( root, new long[0] );
+            this.frontier = new long[] {root};
+            this.frontierSize = 1;
+        }
+
+        /**
+         * Expands frontier nodes {@code from} (inclusive) to {@code to} (exclusive). Only reads the state of this
+         * side, so can be called for several ranges in parallel.
+         */
+        Expansion expand( GraphDatabaseService graphDb, int from, int to )
+        {
+            Expansion expansion = new Expansion();
+            FrontierPath path = new FrontierPath( graphDb.getNodeById( root ), depth );
+            for ( int i = from; i < to; i++ )
+            {
+                Node node = graphDb.getNodeById( frontier[i] );
+                path.endNode = node;
+                Iterable<Relationship> relationships = expander.expand( path, BranchState.NO_STATE );
+                for ( Relationship relationship : relationships )
+                {
+                    expansion.traversed++;
+                    long otherNode = relationship.getOtherNode( node ).getId();
+                    if ( !visited.containsKey( otherNode ) )
+                    {
+                        expansion.add( node.getId(), relationship.getId(), otherNode );
+                    }
+                }
+            }
+            return expansion;
+        }
+
+        /**
+         * Makes the nodes reached by {@code expansions} the new frontier of this side.
+         * @return the newly reached nodes which {@code otherSide} has already visited.
+         */
+        long[] merge( Expansion[] expansions, Side otherSide, boolean stopAsap )
+        {
+            depth++;
+            long[] next = new long[Math.max( 16, frontierSize )];
+            int nextSize = 0;
+            long[] hits = new long[0];
+            for ( Expansion expansion : expansions )
+            {
+                for ( int i = 0; i < expansion.size; i += 3 )
+                {
+                    long fromNode = expansion.entries[i];
+                    long relationship = expansion.entries[i + 1];
+                    long toNode = expansion.entries[i + 2];
+                    long[] reachedBy = visited.get( toNode );
+                    if ( reachedBy == null )
+                    {
+                        visited.put( toNode, new long[] {relationship, fromNode} );
+                        if ( nextSize == next.length )
+                        {
+                            next = Arrays.copyOf( next, nextSize * 2 );
+                        }
+                        next[nextSize++] = toNode;
+                        if ( otherSide.visited.containsKey( toNode ) )
+                        {
+                            hits = Arrays.copyOf( hits, hits.length + 1 );
+                            hits[hits.length - 1] = toNode;
+                            if ( stopAsap )
+                            {
+                                return hits;
+                            }
+                        }
+                    }
+                    else if ( !stopAsap )
+                    {   // Reached earlier on this same level, the expansion only contains nodes unvisited before it
+                        reachedBy = Arrays.copyOf( reachedBy, reachedBy.length + 2 );
+                        reachedBy[reachedBy.length - 2] = relationship;
+                        reachedBy[reachedBy.length - 1] = fromNode;
+                        visited.put( toNode, reachedBy );
+                    }
+                }
+            }
+            frontier = next;
+            frontierSize = nextSize;
+            return hits;
+        }
+    }
+
+    // One per expanded chunk of a frontier, [from node, relationship, to node] triplets
+    private static class Expansion
+    {
+        private long[] entries = new long[3 * CHUNK_SIZE];
+        private int size;
+        private int traversed;
+
+        void add( long fromNode, long relationship, long toNode )
+        {
+            if ( size == entries.length )
+            {
+                entries = Arrays.copyOf( entries, size * 2 );
+            }
+            entries[size++] = fromNode;
+            entries[size++] = relationship;
+            entries[size++] = toNode;
+        }
+    }
+
+    private static class ExpandTask extends RecursiveAction
+    {
+        private final GraphDatabaseService graphDb;
+        private final Side side;
+        private final Expansion[] expansions;
+        private final int fromChunk;
+        private final int toChunk;
+
+        ExpandTask( GraphDatabaseService graphDb, Side side, Expansion[] expansions, int fromChunk, int toChunk )
+        {
+            this.graphDb = graphDb;
+            this.side = side;
+            this.expansions = expansions;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if ( toChunk - fromChunk > 1 )
+            {
+                int middle = (fromChunk + toChunk) >>> 1;
+                invokeAll( new ExpandTask( graphDb, side, expansions, fromChunk, middle ),
+                        new ExpandTask( graphDb, side, expansions, middle, toChunk ) );
+                return;
+            }
+
+            // No other tasks are joined while this transaction is open, so it is never nested in another one
+            try ( Transaction tx = graphDb.beginTx() )
+            {
+                expansions[fromChunk] = side.expand( graphDb, fromChunk * CHUNK_SIZE,
+                        Math.min( side.frontierSize, (fromChunk + 1) * CHUNK_SIZE ) );
+                tx.success();
+            }
+        }
+    }
+
+    // What the expander gets to see, only start node, end node and length are known
+    private static class FrontierPath implements Path
+    {
+        private final Node startNode;
+        private final int length;
+        private Node endNode;
+
+        FrontierPath( Node startNode, int length )
+        {
+            this.startNode = startNode;
+            this.length = length;
+            this.endNode = startNode;
+        }
+
+        @Override
+        public Node startNode()
+        {
+            return startNode;
+        }
+
+        @Override
+        public Node endNode()
+        {
+            return endNode;
+        }
+
+        @Override
+        public Relationship lastRelationship()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Iterable<Relationship> relationships()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Iterable<Relationship> reverseRelationships()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Iterable<Node> nodes()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Iterable<Node> reverseNodes()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int length()
+        {
+            return length;
+        }
+
+        @Override
+        public Iterator<PropertyContainer> iterator()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class Metadata implements TraversalMetadata
+    {
+        private int rels;
+        private int paths;
+
+        @Override
+        public int getNumberOfPathsReturned()
+        {
+            return paths;
+        }
+
+        @Override
+        public int getNumberOfRelationshipsTraversed()
+        {
+            return rels;
+        }
+    }
+}
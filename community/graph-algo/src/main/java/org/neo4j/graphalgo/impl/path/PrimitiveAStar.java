@@ -0,0 +1,310 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.path;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedList;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongIntMap;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.EstimateEvaluator;
+import org.neo4j.graphalgo.PathFinder;
+import org.neo4j.graphalgo.WeightedPath;
+import org.neo4j.graphalgo.impl.util.IndexedDoubleHeap;
+import org.neo4j.graphalgo.impl.util.PathImpl;
+import org.neo4j.graphalgo.impl.util.WeightedPathImpl;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.traversal.TraversalMetadata;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.api.ReadOperations;
+import org.neo4j.kernel.api.RelationshipVisitor;
+import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
+import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
+
+import static java.lang.String.format;
+
+import static org.neo4j.helpers.collection.Iterables.option;
+import static org.neo4j.kernel.api.StatementConstants.NO_SUCH_PROPERTY_KEY;
+import static org.neo4j.kernel.api.StatementConstants.NO_SUCH_RELATIONSHIP_TYPE;
+
+/**
+ * A* (and, without an estimate evaluator, Dijkstra) which keeps all its state keyed on primitive node ids
+ * instead of on {@link Node} and {@link Relationship} objects. Relationships are expanded and their costs read
+ * straight through the kernel {@link ReadOperations}, so nothing is allocated per traversed relationship.
+ * Visited nodes are given dense indexes into primitive arrays, which an {@link IndexedDoubleHeap} then
+ * prioritizes. Only the relationships of the returned path are turned into {@link Relationship} objects.
+ *
+ * Costs are read from a relationship property, which must be a number, or a string which parses as one.
+ * The {@link EstimateEvaluator}, if any, is handed {@link Node} objects and so costs one node object for each
+ * reached node.
+ */
+public class PrimitiveAStar implements PathFinder<WeightedPath>
+{
+    private static final int NOT_SEEN = -1;
+    private static final long NO_RELATIONSHIP = -1;
+
+    private final Direction direction;
+    private final String costPropertyKey;
+    private final EstimateEvaluator<Double> estimateEvaluator;
+    private final String[] relationshipTypes;
+    private Metadata lastMetadata;
+
+    /**
+     * @param direction direction to expand relationships in, as seen from the node being expanded.
+     * @param costPropertyKey relationship property holding the cost of traversing a relationship.
+     * @param estimateEvaluator optimistic estimate of the cost from a node to the end node,
+     * {@code null} for no estimate, which makes this Dijkstra.
+     * @param types relationship types to expand, no types means all types.
+     */
+    public PrimitiveAStar( Direction direction, String costPropertyKey, EstimateEvaluator<Double> estimateEvaluator,
+            RelationshipType... types )
+    {
+        this.direction = direction;
+        this.costPropertyKey = costPropertyKey;
+        this.estimateEvaluator = estimateEvaluator;
+        this.relationshipTypes = new String[types.length];
+        for ( int i = 0; i < types.length; i++ )
+        {
+            relationshipTypes[i] = types[i].name();
+        }
+    }
+
+    @Override
+    public WeightedPath findSinglePath( Node start, Node end )
+    {
+        lastMetadata = new Metadata();
+        GraphDatabaseService graphDb = start.getGraphDatabase();
+        ThreadToStatementContextBridge statementProvider = ((GraphDatabaseAPI) graphDb).getDependencyResolver()
+                .resolveDependency( ThreadToStatementContextBridge.class );
+        try ( Statement statement = statementProvider.instance() )
+        {
+            return new Search( graphDb, statement.readOperations(), start, end ).find();
+        }
+        catch ( EntityNotFoundException e )
+        {
+            throw new NotFoundException( e );
+        }
+    }
+
+    @Override
+    public Iterable<WeightedPath> findAllPaths( Node start, Node end )
+    {
+        return option( findSinglePath( start, end ) );
+    }
+
+    @Override
+    public TraversalMetadata metadata()
+    {
+        return lastMetadata;
+    }
+
+    private class Search implements RelationshipVisitor
+    {
+        private final GraphDatabaseService graphDb;
+        private final ReadOperations read;
+        private final Node start;
+        private final Node end;
+        private final int costKey;
+        private final int[] types;
+
+        // node id -> dense index into the arrays below
+        private final PrimitiveLongIntMap indexes = Primitive.longIntMap();
+        private long[] nodes = new long[64];
+        private double[] costs = new double[64];
+        private double[] estimates = new double[64];
+        private long[] cameFrom = new long[64];
+        private int seen;
+        private final BitSet visited = new BitSet();
+        private final IndexedDoubleHeap queue = new IndexedDoubleHeap( 64 );
+
+        // set by visit(), the node on the other side of the relationship currently being expanded
+        private long expandedNode;
+        private long otherNode;
+
+        Search( GraphDatabaseService graphDb, ReadOperations read, Node start, Node end )
+        {
+            this.graphDb = graphDb;
+            this.read = read;
+            this.start = start;
+            this.end = end;
+            this.costKey = read.propertyKeyGetForName( costPropertyKey );
+            this.types = relationshipTypeIds( read );
+        }
+
+        private int[] relationshipTypeIds( ReadOperations read )
+        {
+            int[] ids = new int[relationshipTypes.length];
+            int count = 0;
+            for ( String type : relationshipTypes )
+            {
+                int id = read.relationshipTypeGetForName( type );
+                if ( id != NO_SUCH_RELATIONSHIP_TYPE )
+                {
+                    ids[count++] = id;
+                }
+            }
+            return Arrays.copyOf( ids, count );
+        }
+
+        WeightedPath find() throws EntityNotFoundException
+        {
+            if ( relationshipTypes.length > 0 && types.length == 0 )
+            {   // None of the requested types exist, so nothing can be expanded
+                return start.equals( end ) ? path( see( start.getId(), 0d, NO_RELATIONSHIP ) ) : null;
+            }
+
+            long endId = end.getId();
+            see( start.getId(), 0d, NO_RELATIONSHIP );
+            while ( !queue.isEmpty() )
+            {
+                int current = queue.pop();
+                visited.set( current );
+                if ( nodes[current] == endId )
+                {
+                    return path( current );
+                }
+                expand( current );
+            }
+            return null;
+        }
+
+        private void expand( int current ) throws EntityNotFoundException
+        {
+            expandedNode = nodes[current];
+            PrimitiveLongIterator relationships = relationshipTypes.length == 0 ?
+                    read.nodeGetRelationships( expandedNode, direction ) :
+                    read.nodeGetRelationships( expandedNode, direction, types );
+            while ( relationships.hasNext() )
+            {
+                long relationship = relationships.next();
+                lastMetadata.rels++;
+                read.relationshipVisit( relationship, this );
+
+                int other = indexes.get( otherNode );
+                if ( other != NOT_SEEN && visited.get( other ) )
+                {
+                    continue;
+                }
+
+                double cost = costs[current] + cost( relationship );
+                if ( other == NOT_SEEN )
+                {
+                    see( otherNode, cost, relationship );
+                }
+                else if ( cost < costs[other] )
+                {
+                    costs[other] = cost;
+                    cameFrom[other] = relationship;
+                    queue.offer( other, cost + estimates[other] );
+                }
+            }
+        }
+
+        @Override
+        public void visit( long relId, long startNode, long endNode, int type )
+        {
+            otherNode = startNode == expandedNode ? endNode : startNode;
+        }
+
+        private int see( long node, double cost, long relationship )
+        {
+            int index = seen++;
+            if ( index == nodes.length )
+            {
+                int newLength = nodes.length << 1;
+                nodes = Arrays.copyOf( nodes, newLength );
+                costs = Arrays.copyOf( costs, newLength );
+                estimates = Arrays.copyOf( estimates, newLength );
+                cameFrom = Arrays.copyOf( cameFrom, newLength );
+            }
+            indexes.put( node, index );
+            nodes[index] = node;
+            costs[index] = cost;
+            estimates[index] = estimate( node );
+            cameFrom[index] = relationship;
+            queue.offer( index, cost + estimates[index] );
+            return index;
+        }
+
+        private double estimate( long node )
+        {
+            return estimateEvaluator == null ? 0d : estimateEvaluator.getCost( graphDb.getNodeById( node ), end );
+        }
+
+        private double cost( long relationship ) throws EntityNotFoundException
+        {
+            Object value = costKey == NO_SUCH_PROPERTY_KEY ? null :
+                    read.relationshipGetProperty( relationship, costKey ).value( null );
+            if ( value == null )
+            {
+                throw new NotFoundException( format( "Relationship %d has no property '%s'",
+                        relationship, costPropertyKey ) );
+            }
+            return value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble( value.toString() );
+        }
+
+        private WeightedPath path( int endIndex )
+        {
+            LinkedList<Relationship> relationships = new LinkedList<>();
+            Node node = graphDb.getNodeById( nodes[endIndex] );
+            for ( long relationship = cameFrom[endIndex]; relationship != NO_RELATIONSHIP;
+                  relationship = cameFrom[indexes.get( node.getId() )] )
+            {
+                Relationship rel = graphDb.getRelationshipById( relationship );
+                relationships.addFirst( rel );
+                node = rel.getOtherNode( node );
+            }
+
+            PathImpl.Builder builder = new PathImpl.Builder( start );
+            for ( Relationship rel : relationships )
+            {
+                builder = builder.push( rel );
+            }
+            lastMetadata.paths++;
+            return new WeightedPathImpl( costs[endIndex], builder.build() );
+        }
+    }
+
+    private static class Metadata implements TraversalMetadata
+    {
+        private int rels;
+        private int paths;
+
+        @Override
+        public int getNumberOfPathsReturned()
+        {
+            return paths;
+        }
+
+        @Override
+        public int getNumberOfRelationshipsTraversed()
+        {
+            return rels;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.path;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.RelationshipType;
+
+/**
+ * Dijkstra on primitive node ids, i.e. a {@link PrimitiveAStar} without any estimate. Finds one cheapest path,
+ * so {@link #findAllPaths(org.neo4j.graphdb.Node, org.neo4j.graphdb.Node)} returns at most one path.
+ */
+public class PrimitiveDijkstra extends PrimitiveAStar
+{
+    public PrimitiveDijkstra( Direction direction, String costPropertyKey, RelationshipType... types )
+    {
+        super( direction, costPropertyKey, null, types );
+    }
+}
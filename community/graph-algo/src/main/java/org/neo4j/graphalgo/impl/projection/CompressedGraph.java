@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.projection;
+
+import java.util.Arrays;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Resource;
+
+/**
+ * An immutable projection of (a part of) a graph in compressed sparse row form, for analytics over whole graphs.
+ * Nodes are numbered densely from {@code 0} to {@link #nodeCount()}, in the order of their node ids. The adjacency
+ * lists of all nodes are stored one after the other in an off-heap array, where the list of a node is found
+ * between {@link #adjacencyStart(int)} and {@link #adjacencyEnd(int)}. Each entry in it holds the
+ * {@link #target(long) target node} and, optionally, the {@link #weight(long) weight} of a relationship.
+ *
+ * Which relationships end up in the adjacency list of a node is decided by the {@link #direction()} the graph was
+ * loaded with. With {@link Direction#BOTH} every relationship is in the lists of both its nodes.
+ *
+ * Create one using {@link CompressedGraphLoader} and {@link #close()} it when done, to free its off-heap memory.
+ */
+public class CompressedGraph implements Resource
+{
+    public static final int NO_SUCH_NODE = -1;
+
+    private final long[] nodeIds;
+    private final Direction direction;
+    // node -> index of its first entry in targets/weights, with an extra last element holding the total size
+    private final OffHeapArray offsets;
+    private final OffHeapArray targets;
+    private final OffHeapArray weights;
+
+    CompressedGraph( long[] nodeIds, Direction direction, OffHeapArray offsets, OffHeapArray targets,
+            OffHeapArray weights )
+    {
+        this.nodeIds = nodeIds;
+        this.direction = direction;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    public int nodeCount()
+    {
+        return nodeIds.length;
+    }
+
+    /**
+     * @return number of entries in all adjacency lists together.
+     */
+    public long adjacencySize()
+    {
+        return targets.length();
+    }
+
+    public Direction direction()
+    {
+        return direction;
+    }
+
+    /**
+     * @return the id of the {@link org.neo4j.graphdb.Node} that {@code node} was projected from.
+     */
+    public long nodeId( int node )
+    {
+        return nodeIds[node];
+    }
+
+    /**
+     * @return the dense node for the {@link org.neo4j.graphdb.Node} with the given id, or {@link #NO_SUCH_NODE}
+     * if that node isn't part of this projection.
+     */
+    public int node( long nodeId )
+    {
+        int node = Arrays.binarySearch( nodeIds, nodeId );
+        return node >= 0 ? node : NO_SUCH_NODE;
+    }
+
+    public int degree( int node )
+    {
+        return (int) (adjacencyEnd( node ) - adjacencyStart( node ));
+    }
+
+    public long adjacencyStart( int node )
+    {
+        return offsets.getLong( node );
+    }
+
+    public long adjacencyEnd( int node )
+    {
+        return offsets.getLong( node + 1 );
+    }
+
+    public int target( long entry )
+    {
+        return targets.getInt( entry );
+    }
+
+    public boolean hasWeights()
+    {
+        return weights != null;
+    }
+
+    /**
+     * @return the weight of the relationship at {@code entry}, or {@code 1} if this graph was loaded without weights.
+     */
+    public double weight( long entry )
+    {
+        return weights != null ? weights.getDouble( entry ) : 1d;
+    }
+
+    @Override
+    public void close()
+    {
+        offsets.free();
+        targets.free();
+        if ( weights != null )
+        {
+            weights.free();
+        }
+    }
+}
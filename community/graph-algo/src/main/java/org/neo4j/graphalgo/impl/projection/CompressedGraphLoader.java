@@ -0,0 +1,464 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.projection;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.impl.util.ParallelRange;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.api.ReadOperations;
+import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
+import org.neo4j.kernel.impl.nioneo.store.NeoStore;
+import org.neo4j.kernel.impl.nioneo.store.NodeStore;
+import org.neo4j.kernel.impl.nioneo.store.PropertyBlock;
+import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.PropertyStore;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipStore;
+import org.neo4j.kernel.impl.nioneo.xa.NeoStoreProvider;
+
+import static java.lang.String.format;
+
+import static org.neo4j.kernel.api.StatementConstants.NO_SUCH_LABEL;
+import static org.neo4j.kernel.api.StatementConstants.NO_SUCH_PROPERTY_KEY;
+import static org.neo4j.kernel.api.StatementConstants.NO_SUCH_RELATIONSHIP_TYPE;
+
+/**
+ * Loads a {@link CompressedGraph} by scanning the node and relationship stores directly, in chunks of
+ * {@link #ID_CHUNK_SIZE} records which are scanned in parallel in a {@link ForkJoinPool}. Neither node and
+ * relationship objects nor the object cache are involved.
+ *
+ * The relationship store is scanned twice, first to count the relationships of each node and then to fill in
+ * the adjacency lists. Within each adjacency list the entries are then sorted by target node.
+ *
+ * Only committed data is seen, and the graph must not change while being loaded, which is detected in most cases
+ * and then fails the load with an {@link IllegalStateException}.
+ */
+public class CompressedGraphLoader
+{
+    static final int ID_CHUNK_SIZE = 10000;
+
+    private final GraphDatabaseAPI graphDb;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param pool the {@link ForkJoinPool} to scan the stores in.
+     */
+    public CompressedGraphLoader( GraphDatabaseService graphDb, ForkJoinPool pool )
+    {
+        this.graphDb = (GraphDatabaseAPI) graphDb;
+        this.pool = pool;
+    }
+
+    /**
+     * @param label only load nodes with this label, or {@code null} to load all nodes.
+     * @param type only load relationships of this type, or {@code null} to load relationships of all types.
+     * Relationships are only loaded if both their nodes are.
+     * @param direction which relationships of a node that go into its adjacency list, as seen from that node.
+     * @param weightProperty relationship property to load as {@link CompressedGraph#weight(long) weight},
+     * or {@code null} to load no weights. Weights must be numbers.
+     * @param defaultWeight weight of relationships which don't have the {@code weightProperty}.
+     * @return the loaded projection, which must be {@link CompressedGraph#close() closed}.
+     */
+    public CompressedGraph load( final Label label, final RelationshipType type, Direction direction,
+            final String weightProperty, double defaultWeight )
+    {
+        NeoStore neoStore = graphDb.getDependencyResolver().resolveDependency( NeoStoreProvider.class ).evaluate();
+
+        // Tokens and label scans are read in a transaction of a pool thread, so that they don't see any changes
+        // from a transaction of the calling thread, which the store scans won't see either
+        final int[] tokens = new int[3];
+        long[] nodeIds = pool.invoke( ForkJoinTask.adapt( new Callable<long[]>()
+        {
+            @Override
+            public long[] call()
+            {
+                ThreadToStatementContextBridge statementProvider = graphDb.getDependencyResolver()
+                        .resolveDependency( ThreadToStatementContextBridge.class );
+                try ( Transaction tx = graphDb.beginTx();
+                      Statement statement = statementProvider.instance() )
+                {
+                    ReadOperations read = statement.readOperations();
+                    tokens[0] = label != null ? read.labelGetForName( label.name() ) : NO_SUCH_LABEL;
+                    tokens[1] = type != null ? read.relationshipTypeGetForName( type.name() )
+                                             : NO_SUCH_RELATIONSHIP_TYPE;
+                    tokens[2] = weightProperty != null ? read.propertyKeyGetForName( weightProperty )
+                                                       : NO_SUCH_PROPERTY_KEY;
+                    long[] nodeIds = label == null || tokens[0] == NO_SUCH_LABEL ? null :
+                            toSortedArray( read.nodesGetForLabel( tokens[0] ) );
+                    tx.success();
+                    return nodeIds;
+                }
+            }
+        } ) );
+        if ( label == null )
+        {
+            nodeIds = scanNodes( neoStore.getNodeStore() );
+        }
+        else if ( nodeIds == null )
+        {   // No such label, so no nodes either
+            nodeIds = new long[0];
+        }
+
+        OffHeapArray offsets = OffHeapArray.longs( nodeIds.length + 1L );
+        OffHeapArray targets = null;
+        OffHeapArray weights = null;
+        try
+        {
+            boolean noSuchType = type != null && tokens[1] == NO_SUCH_RELATIONSHIP_TYPE;
+            Adjacency adjacency = new Adjacency( nodeIds, direction, offsets );
+            if ( !noSuchType )
+            {
+                new RelationshipScan( neoStore, nodeIds, tokens[1], adjacency, true ).run();
+            }
+            long size = adjacency.countsToOffsets();
+
+            targets = OffHeapArray.ints( size );
+            weights = weightProperty != null ? OffHeapArray.doubles( size ) : null;
+            adjacency.startFilling( targets, weights, tokens[2], defaultWeight );
+            if ( !noSuchType )
+            {
+                new RelationshipScan( neoStore, nodeIds, tokens[1], adjacency, false ).run();
+            }
+            adjacency.verifyFilledAndSort();
+            return new CompressedGraph( nodeIds, direction, offsets, targets, weights );
+        }
+        catch ( RuntimeException e )
+        {
+            offsets.free();
+            if ( targets != null )
+            {
+                targets.free();
+            }
+            if ( weights != null )
+            {
+                weights.free();
+            }
+            throw e;
+        }
+    }
+
+    private long[] scanNodes( final NodeStore nodeStore )
+    {
+        final long highId = nodeStore.getHighestPossibleIdInUse() + 1;
+        final long[][] chunks = new long[chunkCount( highId )][];
+        new ParallelRange()
+        {
+            @Override
+            protected void process( int from, int to )
+            {
+                for ( int chunk = from; chunk < to; chunk++ )
+                {
+                    long[] nodeIds = new long[ID_CHUNK_SIZE];
+                    int count = 0;
+                    long end = Math.min( highId, chunkStart( chunk + 1 ) );
+                    for ( long id = chunkStart( chunk ); id < end; id++ )
+                    {
+                        if ( nodeStore.forceGetRecord( id ).inUse() )
+                        {
+                            nodeIds[count++] = id;
+                        }
+                    }
+                    chunks[chunk] = Arrays.copyOf( nodeIds, count );
+                }
+            }
+        }.run( pool, chunks.length, 1 );
+
+        int count = 0;
+        for ( long[] chunk : chunks )
+        {
+            count += chunk.length;
+        }
+        long[] nodeIds = new long[count];
+        int position = 0;
+        for ( long[] chunk : chunks )
+        {
+            System.arraycopy( chunk, 0, nodeIds, position, chunk.length );
+            position += chunk.length;
+        }
+        return nodeIds;
+    }
+
+    private static long[] toSortedArray( PrimitiveLongIterator iterator )
+    {
+        long[] array = new long[1024];
+        int size = 0;
+        while ( iterator.hasNext() )
+        {
+            if ( size == array.length )
+            {
+                array = Arrays.copyOf( array, size * 2 );
+            }
+            array[size++] = iterator.next();
+        }
+        array = Arrays.copyOf( array, size );
+        Arrays.sort( array );
+        return array;
+    }
+
+    private static int chunkCount( long highId )
+    {
+        return (int) ((highId + ID_CHUNK_SIZE - 1) / ID_CHUNK_SIZE);
+    }
+
+    private static long chunkStart( int chunk )
+    {
+        return (long) chunk * ID_CHUNK_SIZE;
+    }
+
+    private static int node( long[] nodeIds, long nodeId )
+    {
+        int node = Arrays.binarySearch( nodeIds, nodeId );
+        return node >= 0 ? node : CompressedGraph.NO_SUCH_NODE;
+    }
+
+    private class RelationshipScan extends ParallelRange
+    {
+        private final RelationshipStore relationshipStore;
+        private final PropertyStore propertyStore;
+        private final long[] nodeIds;
+        private final int type;
+        private final Adjacency adjacency;
+        private final boolean count;
+        private final long highId;
+
+        RelationshipScan( NeoStore neoStore, long[] nodeIds, int type, Adjacency adjacency, boolean count )
+        {
+            this.relationshipStore = neoStore.getRelationshipStore();
+            this.propertyStore = neoStore.getPropertyStore();
+            this.nodeIds = nodeIds;
+            this.type = type;
+            this.adjacency = adjacency;
+            this.count = count;
+            this.highId = relationshipStore.getHighestPossibleIdInUse() + 1;
+        }
+
+        void run()
+        {
+            run( pool, chunkCount( highId ), 1 );
+        }
+
+        @Override
+        protected void process( int from, int to )
+        {
+            for ( int chunk = from; chunk < to; chunk++ )
+            {
+                long end = Math.min( highId, chunkStart( chunk + 1 ) );
+                for ( long id = chunkStart( chunk ); id < end; id++ )
+                {
+                    RelationshipRecord record = relationshipStore.forceGetRecord( id );
+                    if ( !record.inUse() || (type != NO_SUCH_RELATIONSHIP_TYPE && record.getType() != type) )
+                    {
+                        continue;
+                    }
+                    int startNode = node( nodeIds, record.getFirstNode() );
+                    int endNode = node( nodeIds, record.getSecondNode() );
+                    if ( startNode == CompressedGraph.NO_SUCH_NODE || endNode == CompressedGraph.NO_SUCH_NODE )
+                    {
+                        continue;
+                    }
+
+                    if ( count )
+                    {
+                        adjacency.count( startNode, endNode );
+                    }
+                    else
+                    {
+                        adjacency.add( startNode, endNode, adjacency.weight( propertyStore, record ) );
+                    }
+                }
+            }
+        }
+    }
+
+    private class Adjacency
+    {
+        private final long[] nodeIds;
+        private final Direction direction;
+        private final OffHeapArray offsets;
+        // node -> number of entries counted, and later added, for it
+        private AtomicIntegerArray counts;
+        private OffHeapArray targets;
+        private OffHeapArray weights;
+        private int weightKey;
+        private double defaultWeight;
+
+        Adjacency( long[] nodeIds, Direction direction, OffHeapArray offsets )
+        {
+            this.nodeIds = nodeIds;
+            this.direction = direction;
+            this.offsets = offsets;
+            this.counts = new AtomicIntegerArray( nodeIds.length );
+        }
+
+        void count( int startNode, int endNode )
+        {
+            if ( direction != Direction.INCOMING )
+            {
+                counts.incrementAndGet( startNode );
+            }
+            if ( direction == Direction.INCOMING || (direction == Direction.BOTH && startNode != endNode) )
+            {
+                counts.incrementAndGet( endNode );
+            }
+        }
+
+        long countsToOffsets()
+        {
+            long offset = 0;
+            for ( int node = 0; node < nodeIds.length; node++ )
+            {
+                offsets.setLong( node, offset );
+                offset += counts.get( node );
+            }
+            offsets.setLong( nodeIds.length, offset );
+            return offset;
+        }
+
+        void startFilling( OffHeapArray targets, OffHeapArray weights, int weightKey, double defaultWeight )
+        {
+            this.targets = targets;
+            this.weights = weights;
+            this.weightKey = weightKey;
+            this.defaultWeight = defaultWeight;
+            this.counts = new AtomicIntegerArray( nodeIds.length );
+        }
+
+        void add( int startNode, int endNode, double weight )
+        {
+            if ( direction != Direction.INCOMING )
+            {
+                addEntry( startNode, endNode, weight );
+            }
+            if ( direction == Direction.INCOMING || (direction == Direction.BOTH && startNode != endNode) )
+            {
+                addEntry( endNode, startNode, weight );
+            }
+        }
+
+        private void addEntry( int node, int target, double weight )
+        {
+            long entry = offsets.getLong( node ) + counts.getAndIncrement( node );
+            if ( entry >= offsets.getLong( node + 1 ) )
+            {
+                throw new IllegalStateException( format( "Node %d got more relationships while being loaded",
+                        nodeIds[node] ) );
+            }
+            targets.setInt( entry, target );
+            if ( weights != null )
+            {
+                weights.setDouble( entry, weight );
+            }
+        }
+
+        double weight( PropertyStore propertyStore, RelationshipRecord record )
+        {
+            if ( weights == null || weightKey == NO_SUCH_PROPERTY_KEY )
+            {
+                return defaultWeight;
+            }
+            for ( PropertyRecord propertyRecord : propertyStore.getPropertyRecordChain( record.getNextProp() ) )
+            {
+                for ( PropertyBlock block : propertyRecord.getPropertyBlocks() )
+                {
+                    if ( block.getKeyIndexId() == weightKey )
+                    {
+                        Object value = block.getType().getValue( block, propertyStore );
+                        if ( !(value instanceof Number) )
+                        {
+                            throw new IllegalArgumentException( format(
+                                    "Weight of relationship %d must be a number, but was %s", record.getId(), value ) );
+                        }
+                        return ((Number) value).doubleValue();
+                    }
+                }
+            }
+            return defaultWeight;
+        }
+
+        void verifyFilledAndSort()
+        {
+            new ParallelRange()
+            {
+                @Override
+                protected void process( int from, int to )
+                {
+                    long[] entries = new long[16];
+                    for ( int node = from; node < to; node++ )
+                    {
+                        long start = offsets.getLong( node );
+                        int degree = (int) (offsets.getLong( node + 1 ) - start);
+                        if ( counts.get( node ) != degree )
+                        {
+                            throw new IllegalStateException( format(
+                                    "Node %d lost relationships while being loaded", nodeIds[node] ) );
+                        }
+                        if ( degree > entries.length )
+                        {
+                            entries = new long[Math.max( degree, entries.length * 2 )];
+                        }
+                        sort( start, degree, entries );
+                    }
+                }
+            }.run( pool, nodeIds.length );
+        }
+
+        /**
+         * Sorts {@code degree} entries, starting at {@code start}, by target, keeping weights with their targets.
+         */
+        private void sort( long start, int degree, long[] entries )
+        {
+            // target in the high half, original position in the low half
+            for ( int i = 0; i < degree; i++ )
+            {
+                entries[i] = ((long) targets.getInt( start + i ) << 32) | i;
+            }
+            Arrays.sort( entries, 0, degree );
+            double[] sortedWeights = null;
+            if ( weights != null )
+            {
+                sortedWeights = new double[degree];
+                for ( int i = 0; i < degree; i++ )
+                {
+                    sortedWeights[i] = weights.getDouble( start + (int) entries[i] );
+                }
+            }
+            for ( int i = 0; i < degree; i++ )
+            {
+                targets.setInt( start + i, (int) (entries[i] >>> 32) );
+                if ( sortedWeights != null )
+                {
+                    weights.setDouble( start + i, sortedWeights[i] );
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.projection;
+
+import org.neo4j.kernel.impl.util.UnsafeUtil;
+
+/**
+ * Fixed size array of ints, longs or doubles outside of the java heap, so that it can be bigger than
+ * {@link Integer#MAX_VALUE} and doesn't burden the garbage collector. Each instance holds elements of one
+ * size only, accessed through the methods for that type. Its memory must be {@link #free() freed} explicitly.
+ *
+ * Different elements can be written concurrently, without synchronization.
+ */
+class OffHeapArray
+{
+    private final long length;
+    private final int shift;
+    private long address;
+
+    private OffHeapArray( long length, int shift )
+    {
+        this.length = length;
+        this.shift = shift;
+        this.address = UnsafeUtil.allocateMemory( Math.max( 1, length << shift ) );
+    }
+
+    static OffHeapArray ints( long length )
+    {
+        return new OffHeapArray( length, 2 );
+    }
+
+    static OffHeapArray longs( long length )
+    {
+        return new OffHeapArray( length, 3 );
+    }
+
+    static OffHeapArray doubles( long length )
+    {
+        return new OffHeapArray( length, 3 );
+    }
+
+    long length()
+    {
+        return length;
+    }
+
+    int getInt( long index )
+    {
+        return UnsafeUtil.getInt( addressOf( index ) );
+    }
+
+    void setInt( long index, int value )
+    {
+        UnsafeUtil.putInt( addressOf( index ), value );
+    }
+
+    long getLong( long index )
+    {
+        return UnsafeUtil.getLong( addressOf( index ) );
+    }
+
+    void setLong( long index, long value )
+    {
+        UnsafeUtil.putLong( addressOf( index ), value );
+    }
+
+    double getDouble( long index )
+    {
+        return UnsafeUtil.getDouble( addressOf( index ) );
+    }
+
+    void setDouble( long index, double value )
+    {
+        UnsafeUtil.putDouble( addressOf( index ), value );
+    }
+
+    void free()
+    {
+        if ( address != 0 )
+        {
+            UnsafeUtil.free( address );
+            address = 0;
+        }
+    }
+
+    private long addressOf( long index )
+    {
+        if ( index < 0 || index >= length )
+        {
+            throw new ArrayIndexOutOfBoundsException( "Requested index " + index + ", but length is " + length );
+        }
+        if ( address == 0 )
+        {
+            throw new IllegalStateException( "Memory has been freed" );
+        }
+        return address + (index << shift);
+    }
+}
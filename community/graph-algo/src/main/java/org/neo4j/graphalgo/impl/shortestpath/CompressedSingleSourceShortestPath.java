@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.shortestpath;
+
+import java.util.Arrays;
+
+import org.neo4j.graphalgo.impl.projection.CompressedGraph;
+import org.neo4j.graphalgo.impl.util.IndexedDoubleHeap;
+
+/**
+ * Solves the single source shortest path problem on a {@link CompressedGraph}, finding the distance and number of
+ * shortest paths from a source node to all other nodes. Uses breadth first search, or Dijkstra if the graph has
+ * {@link CompressedGraph#hasWeights() weights}, in which case all weights must be positive.
+ *
+ * An instance keeps arrays the size of the graph and is meant to be {@link #calculate(int) calculated} for one
+ * source after another. It only resets what the previous calculation reached. Instances are not thread safe, so
+ * parallel algorithms use one per thread.
+ */
+public class CompressedSingleSourceShortestPath
+{
+    private final CompressedGraph graph;
+    private final double[] distances;
+    private final double[] pathCounts;
+    // reached nodes, in order of non-decreasing distance
+    private final int[] reached;
+    private int reachedCount;
+    private final IndexedDoubleHeap queue;
+    private final boolean[] settled;
+
+    public CompressedSingleSourceShortestPath( CompressedGraph graph )
+    {
+        this.graph = graph;
+        int nodeCount = graph.nodeCount();
+        this.distances = new double[nodeCount];
+        this.pathCounts = new double[nodeCount];
+        this.reached = new int[nodeCount];
+        Arrays.fill( distances, Double.POSITIVE_INFINITY );
+        this.queue = graph.hasWeights() ? new IndexedDoubleHeap( nodeCount ) : null;
+        this.settled = graph.hasWeights() ? new boolean[nodeCount] : null;
+    }
+
+    public void calculate( int source )
+    {
+        for ( int i = 0; i < reachedCount; i++ )
+        {
+            int node = reached[i];
+            distances[node] = Double.POSITIVE_INFINITY;
+            pathCounts[node] = 0;
+            if ( settled != null )
+            {
+                settled[node] = false;
+            }
+        }
+        reachedCount = 0;
+
+        distances[source] = 0;
+        pathCounts[source] = 1;
+        if ( queue == null )
+        {
+            breadthFirst( source );
+        }
+        else
+        {
+            dijkstra( source );
+        }
+    }
+
+    private void breadthFirst( int source )
+    {
+        reached[reachedCount++] = source;
+        for ( int head = 0; head < reachedCount; head++ )
+        {
+            int node = reached[head];
+            double distance = distances[node] + 1;
+            for ( long entry = graph.adjacencyStart( node ), end = graph.adjacencyEnd( node ); entry < end; entry++ )
+            {
+                int target = graph.target( entry );
+                if ( distances[target] == Double.POSITIVE_INFINITY )
+                {
+                    distances[target] = distance;
+                    reached[reachedCount++] = target;
+                }
+                if ( distances[target] == distance )
+                {
+                    pathCounts[target] += pathCounts[node];
+                }
+            }
+        }
+    }
+
+    private void dijkstra( int source )
+    {
+        queue.offer( source, 0 );
+        while ( !queue.isEmpty() )
+        {
+            int node = queue.pop();
+            settled[node] = true;
+            reached[reachedCount++] = node;
+            for ( long entry = graph.adjacencyStart( node ), end = graph.adjacencyEnd( node ); entry < end; entry++ )
+            {
+                int target = graph.target( entry );
+                if ( settled[target] )
+                {
+                    continue;
+                }
+                double distance = distances[node] + graph.weight( entry );
+                if ( distance < distances[target] )
+                {
+                    distances[target] = distance;
+                    pathCounts[target] = pathCounts[node];
+                    queue.offer( target, distance );
+                }
+                else if ( distance == distances[target] )
+                {
+                    pathCounts[target] += pathCounts[node];
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the distance from the source to {@code node}, {@link Double#POSITIVE_INFINITY} if it wasn't reached.
+     */
+    public double distance( int node )
+    {
+        return distances[node];
+    }
+
+    /**
+     * @return the number of shortest paths from the source to {@code node}.
+     */
+    public double pathCount( int node )
+    {
+        return pathCounts[node];
+    }
+
+    /**
+     * @return the number of nodes reached from the source, including the source itself.
+     */
+    public int reachedCount()
+    {
+        return reachedCount;
+    }
+
+    /**
+     * @return the {@code i}:th reached node, where the nodes are ordered by non-decreasing distance from the source.
+     */
+    public int reached( int i )
+    {
+        return reached[i];
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary min-heap of non-negative int elements, typically dense indexes into some other arrays, prioritized by
+ * primitive doubles. The heap keeps track of the position of each element, so that the priority of an element
+ * already in the heap can be lowered in place instead of adding a duplicate entry for it.
+ *
+ * Nothing is allocated per element, only the backing arrays grow when needed.
+ */
+public class IndexedDoubleHeap
+{
+    private static final int NOT_IN_HEAP = -1;
+
+    // heap position -> element, and heap position -> priority of that element
+    private int[] elements;
+    private double[] priorities;
+    // element -> heap position, NOT_IN_HEAP if the element isn't in the heap
+    private int[] positions;
+    private int size;
+
+    public IndexedDoubleHeap( int initialCapacity )
+    {
+        initialCapacity = Math.max( 1, initialCapacity );
+        this.elements = new int[initialCapacity];
+        this.priorities = new double[initialCapacity];
+        this.positions = new int[initialCapacity];
+        Arrays.fill( positions, NOT_IN_HEAP );
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean contains( int element )
+    {
+        return element < positions.length && positions[element] != NOT_IN_HEAP;
+    }
+
+    /**
+     * Adds {@code element} with the given {@code priority}, or lowers the priority of {@code element}
+     * if it's already in the heap with a higher priority.
+     *
+     * @return {@code true} if the element was added or had its priority lowered, otherwise {@code false}.
+     */
+    public boolean offer( int element, double priority )
+    {
+        if ( contains( element ) )
+        {
+            int position = positions[element];
+            if ( priority >= priorities[position] )
+            {
+                return false;
+            }
+            priorities[position] = priority;
+            siftUp( position );
+            return true;
+        }
+
+        ensureCapacity( element );
+        elements[size] = element;
+        priorities[size] = priority;
+        positions[element] = size;
+        siftUp( size++ );
+        return true;
+    }
+
+    /**
+     * @return the priority of the element that {@link #pop()} would return.
+     */
+    public double peekPriority()
+    {
+        assertNotEmpty();
+        return priorities[0];
+    }
+
+    /**
+     * Removes and returns the element with the lowest priority.
+     */
+    public int pop()
+    {
+        assertNotEmpty();
+        int top = elements[0];
+        positions[top] = NOT_IN_HEAP;
+        if ( --size > 0 )
+        {
+            move( size, 0 );
+            siftDown( 0 );
+        }
+        return top;
+    }
+
+    private void assertNotEmpty()
+    {
+        if ( size == 0 )
+        {
+            throw new NoSuchElementException( "Heap is empty" );
+        }
+    }
+
+    private void siftUp( int position )
+    {
+        int element = elements[position];
+        double priority = priorities[position];
+        while ( position > 0 )
+        {
+            int parent = (position - 1) >>> 1;
+            if ( priorities[parent] <= priority )
+            {
+                break;
+            }
+            move( parent, position );
+            position = parent;
+        }
+        place( element, priority, position );
+    }
+
+    private void siftDown( int position )
+    {
+        int element = elements[position];
+        double priority = priorities[position];
+        int half = size >>> 1;
+        while ( position < half )
+        {
+            int child = (position << 1) + 1;
+            int right = child + 1;
+            if ( right < size && priorities[right] < priorities[child] )
+            {
+                child = right;
+            }
+            if ( priority <= priorities[child] )
+            {
+                break;
+            }
+            move( child, position );
+            position = child;
+        }
+        place( element, priority, position );
+    }
+
+    private void move( int from, int to )
+    {
+        place( elements[from], priorities[from], to );
+    }
+
+    private void place( int element, double priority, int position )
+    {
+        elements[position] = element;
+        priorities[position] = priority;
+        positions[element] = position;
+    }
+
+    private void ensureCapacity( int element )
+    {
+        if ( size == elements.length )
+        {
+            int newCapacity = elements.length << 1;
+            elements = Arrays.copyOf( elements, newCapacity );
+            priorities = Arrays.copyOf( priorities, newCapacity );
+        }
+        if ( element >= positions.length )
+        {
+            int oldLength = positions.length;
+            positions = Arrays.copyOf( positions, Math.max( oldLength << 1, element + 1 ) );
+            Arrays.fill( positions, oldLength, positions.length, NOT_IN_HEAP );
+        }
+    }
+}
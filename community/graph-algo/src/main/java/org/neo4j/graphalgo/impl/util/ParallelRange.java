@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Processes the indexes {@code [0, count)} in a {@link ForkJoinPool}, split into ranges which are
+ * {@link #process(int, int) processed} in parallel. Any exception thrown from processing a range is
+ * rethrown from {@link #run(ForkJoinPool, int, int)}.
+ */
+public abstract class ParallelRange
+{
+    /**
+     * Splits {@code [0, count)} into a few ranges for each thread in {@code pool}.
+     */
+    public void run( ForkJoinPool pool, int count )
+    {
+        run( pool, count, count / (pool.getParallelism() * 4) );
+    }
+
+    /**
+     * Splits {@code [0, count)} into ranges of at most {@code grain} indexes.
+     */
+    public void run( ForkJoinPool pool, int count, int grain )
+    {
+        if ( count > 0 )
+        {
+            pool.invoke( new RangeTask( 0, count, Math.max( 1, grain ) ) );
+        }
+    }
+
+    /**
+     * Processes indexes {@code from} (inclusive) to {@code to} (exclusive). Called from several threads at once.
+     */
+    protected abstract void process( int from, int to );
+
+    private class RangeTask extends RecursiveAction
+    {
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        RangeTask( int from, int to, int grain )
+        {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if ( to - from <= grain )
+            {
+                process( from, to );
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll( new RangeTask( from, middle, grain ), new RangeTask( middle, to, grain ) );
+        }
+    }
+}
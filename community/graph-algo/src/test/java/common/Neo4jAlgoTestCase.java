@@ -25,6 +25,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -52,6 +53,7 @@ public abstract class Neo4jAlgoTestCase
 {
     protected static GraphDatabaseService graphDb;
     protected static SimpleGraphBuilder graph = null;
+    protected static ForkJoinPool pool;
     protected Transaction tx;
 
     public static enum MyRelTypes implements RelationshipType
@@ -64,6 +66,7 @@ public abstract class Neo4jAlgoTestCase
     {
         graphDb = new TestGraphDatabaseFactory().newImpermanentDatabase();
         graph = new SimpleGraphBuilder( graphDb, MyRelTypes.R1 );
+        pool = new ForkJoinPool( 4 );
     }
 
     @Before
@@ -75,6 +78,7 @@ public abstract class Neo4jAlgoTestCase
     @AfterClass
     public static void tearDownGraphDb() throws Exception
     {
+        pool.shutdown();
         graphDb.shutdown();
     }
 
@@ -86,6 +90,17 @@ public abstract class Neo4jAlgoTestCase
         tx.finish();
     }
 
+    /**
+     * Commits what the test has done so far and begins a new transaction, so that parts of the test running in
+     * other threads can see it.
+     */
+    protected void commit()
+    {
+        tx.success();
+        tx.finish();
+        tx = graphDb.beginTx();
+    }
+
     public static void deleteFileOrDirectory( File file )
     {
         if ( !file.exists() )
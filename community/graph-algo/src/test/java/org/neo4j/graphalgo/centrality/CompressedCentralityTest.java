@@ -0,0 +1,214 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.centrality;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.neo4j.graphalgo.CommonEvaluators;
+import org.neo4j.graphalgo.impl.centrality.BetweennessCentrality;
+import org.neo4j.graphalgo.impl.centrality.ClosenessCentrality;
+import org.neo4j.graphalgo.impl.centrality.CompressedBetweennessCentrality;
+import org.neo4j.graphalgo.impl.centrality.CompressedClosenessCentrality;
+import org.neo4j.graphalgo.impl.centrality.CompressedEigenvectorCentrality;
+import org.neo4j.graphalgo.impl.centrality.CostDivider;
+import org.neo4j.graphalgo.impl.projection.CompressedGraph;
+import org.neo4j.graphalgo.impl.projection.CompressedGraphLoader;
+import org.neo4j.graphalgo.impl.shortestpath.CompressedSingleSourceShortestPath;
+import org.neo4j.graphalgo.impl.shortestpath.SingleSourceShortestPath;
+import org.neo4j.graphalgo.impl.shortestpath.SingleSourceShortestPathDijkstra;
+import org.neo4j.graphalgo.impl.util.DoubleAdder;
+import org.neo4j.graphalgo.impl.util.DoubleComparator;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+
+import common.Neo4jAlgoTestCase;
+
+import static org.junit.Assert.assertEquals;
+
+public class CompressedCentralityTest extends Neo4jAlgoTestCase
+{
+    @Test
+    public void shouldCalculateBetweennessOfChain() throws Exception
+    {
+        // GIVEN
+        graph.makeEdgeChain( "a,b,c,d,e" );
+        try ( CompressedGraph compressed = load( Direction.BOTH, null ) )
+        {
+            // WHEN
+            CompressedBetweennessCentrality betweenness = new CompressedBetweennessCentrality( compressed, pool );
+            betweenness.calculate();
+
+            // THEN
+            assertEquals( 0d, betweenness.getCentrality( node( compressed, "a" ) ), 0d );
+            assertEquals( 3d, betweenness.getCentrality( node( compressed, "b" ) ), 0d );
+            assertEquals( 4d, betweenness.getCentrality( node( compressed, "c" ) ), 0d );
+            assertEquals( 3d, betweenness.getCentrality( node( compressed, "d" ) ), 0d );
+            assertEquals( 0d, betweenness.getCentrality( node( compressed, "e" ) ), 0d );
+        }
+    }
+
+    @Test
+    public void shouldCalculateBetweennessAndClosenessOfBox() throws Exception
+    {
+        // GIVEN
+        graph.makeEdgeChain( "a,b,c,d,a" );
+        try ( CompressedGraph compressed = load( Direction.BOTH, null ) )
+        {
+            // WHEN
+            CompressedBetweennessCentrality betweenness = new CompressedBetweennessCentrality( compressed, pool );
+            CompressedClosenessCentrality closeness = new CompressedClosenessCentrality( compressed, pool );
+
+            // THEN
+            for ( String name : new String[] {"a", "b", "c", "d"} )
+            {
+                assertEquals( 0.5d, betweenness.getCentrality( node( compressed, name ) ), 0d );
+                assertEquals( 1d / 4, closeness.getCentrality( node( compressed, name ) ), 0d );
+            }
+        }
+    }
+
+    @Test
+    public void shouldFindDistancesAndPathCountsAlongLoadedDirection() throws Exception
+    {
+        // GIVEN a -> b -> d, a -> c -> d, d -> e
+        graph.makeEdges( "a,b,b,d,a,c,c,d,d,e" );
+        try ( CompressedGraph compressed = load( Direction.OUTGOING, null ) )
+        {
+            CompressedSingleSourceShortestPath paths = new CompressedSingleSourceShortestPath( compressed );
+
+            // WHEN
+            paths.calculate( node( compressed, "a" ) );
+
+            // THEN
+            assertEquals( 5, paths.reachedCount() );
+            assertEquals( 2d, paths.distance( node( compressed, "d" ) ), 0d );
+            assertEquals( 2d, paths.pathCount( node( compressed, "d" ) ), 0d );
+            assertEquals( 3d, paths.distance( node( compressed, "e" ) ), 0d );
+            assertEquals( 2d, paths.pathCount( node( compressed, "e" ) ), 0d );
+
+            // WHEN
+            paths.calculate( node( compressed, "d" ) );
+
+            // THEN
+            assertEquals( 2, paths.reachedCount() );
+            assertEquals( Double.POSITIVE_INFINITY, paths.distance( node( compressed, "a" ) ), 0d );
+            assertEquals( 1d, paths.distance( node( compressed, "e" ) ), 0d );
+        }
+    }
+
+    @Test
+    public void shouldCalculateSameBetweennessAndClosenessAsNodeBasedAlgorithms() throws Exception
+    {
+        // GIVEN
+        Random random = new Random( 12345 );
+        int nodeCount = 60;
+        for ( int i = 0; i < nodeCount; i++ )
+        {
+            graph.makeNode( String.valueOf( i ) );
+        }
+        for ( int i = 0; i < nodeCount * 3; i++ )
+        {
+            graph.makeEdge( String.valueOf( random.nextInt( nodeCount ) ), String.valueOf( random.nextInt( nodeCount ) ),
+                    "length", (double) (1 + random.nextInt( 3 )) );
+        }
+
+        for ( String weight : new String[] {null, "length"} )
+        {
+            try ( CompressedGraph compressed = load( Direction.BOTH, weight ) )
+            {
+                // WHEN
+                CompressedBetweennessCentrality betweenness = new CompressedBetweennessCentrality( compressed, pool );
+                CompressedClosenessCentrality closeness = new CompressedClosenessCentrality( compressed, pool );
+                BetweennessCentrality<Double> expectedBetweenness =
+                        new BetweennessCentrality<>( singleSourceShortestPath( weight ), graph.getAllNodes() );
+                ClosenessCentrality<Double> expectedCloseness = new ClosenessCentrality<>(
+                        singleSourceShortestPath( weight ), new DoubleAdder(), 0.0, graph.getAllNodes(),
+                        new CostDivider<Double>()
+                        {
+                            @Override
+                            public Double divideByCost( Double d, Double c )
+                            {
+                                return d / c;
+                            }
+
+                            @Override
+                            public Double divideCost( Double c, Double d )
+                            {
+                                return c / d;
+                            }
+                        } );
+
+                // THEN
+                for ( Node node : graph.getAllNodes() )
+                {
+                    int compressedNode = compressed.node( node.getId() );
+                    assertEquals( expectedBetweenness.getCentrality( node ),
+                            betweenness.getCentrality( compressedNode ), 0.00001d );
+                    Double expected = expectedCloseness.getCentrality( node );
+                    if ( expected != null && !Double.isInfinite( expected ) && compressed.degree( compressedNode ) > 0 )
+                    {
+                        assertEquals( expected, closeness.getCentrality( compressedNode ), 0.00001d );
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldCalculateEigenvectorCentralityFlowingAgainstLoadedDirection() throws Exception
+    {
+        // GIVEN the graph from EigenvectorCentralityTest#testRun
+        graph.makeEdgeChain( "a,b,c,d" );
+        graph.makeEdges( "b,a,c,a" );
+        try ( CompressedGraph compressed = load( Direction.INCOMING, null ) )
+        {
+            // WHEN
+            CompressedEigenvectorCentrality eigenvector = new CompressedEigenvectorCentrality( compressed, 0.0001, pool );
+            eigenvector.calculate( 1000 );
+
+            // THEN
+            assertEquals( 0.693, eigenvector.getCentrality( node( compressed, "a" ) ), 0.01 );
+            assertEquals( 0.523, eigenvector.getCentrality( node( compressed, "b" ) ), 0.01 );
+            assertEquals( 0.395, eigenvector.getCentrality( node( compressed, "c" ) ), 0.01 );
+            assertEquals( 0.298, eigenvector.getCentrality( node( compressed, "d" ) ), 0.01 );
+        }
+    }
+
+    private CompressedGraph load( Direction direction, String weightProperty )
+    {
+        commit();
+        return new CompressedGraphLoader( graphDb, pool ).load( null, null, direction, weightProperty, 1d );
+    }
+
+    private int node( CompressedGraph compressed, String name )
+    {
+        return compressed.node( graph.getNode( name ).getId() );
+    }
+
+    private SingleSourceShortestPath<Double> singleSourceShortestPath( String weightProperty )
+    {
+        return new SingleSourceShortestPathDijkstra<>( 0.0, null, weightProperty == null ?
+                CommonEvaluators.doubleCostEvaluator( "none", 1d ) :
+                CommonEvaluators.doubleCostEvaluator( weightProperty ),
+                new DoubleAdder(), new DoubleComparator(), Direction.BOTH, MyRelTypes.R1 );
+    }
+}
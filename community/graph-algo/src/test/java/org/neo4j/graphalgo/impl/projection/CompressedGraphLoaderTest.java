@@ -0,0 +1,256 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.projection;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.DynamicLabel;
+import org.neo4j.graphdb.DynamicRelationshipType;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+
+import common.Neo4jAlgoTestCase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CompressedGraphLoaderTest extends Neo4jAlgoTestCase
+{
+    @Test
+    public void shouldLoadSortedAdjacencyInRequestedDirection() throws Exception
+    {
+        // GIVEN
+        graph.makeEdges( "a,c,a,b,b,c,c,c" );
+        commit();
+
+        // WHEN
+        try ( CompressedGraph outgoing = load( null, null, Direction.OUTGOING, null );
+              CompressedGraph incoming = load( null, null, Direction.INCOMING, null );
+              CompressedGraph both = load( null, null, Direction.BOTH, null ) )
+        {
+            // THEN
+            assertEquals( 3, outgoing.nodeCount() );
+            assertEquals( 4, outgoing.adjacencySize() );
+            assertAdjacency( outgoing, "a", "b", "c" );
+            assertAdjacency( outgoing, "b", "c" );
+            assertAdjacency( outgoing, "c", "c" );
+
+            assertEquals( 4, incoming.adjacencySize() );
+            assertAdjacency( incoming, "a" );
+            assertAdjacency( incoming, "b", "a" );
+            assertAdjacency( incoming, "c", "a", "b", "c" );
+
+            assertEquals( 7, both.adjacencySize() );
+            assertAdjacency( both, "a", "b", "c" );
+            assertAdjacency( both, "b", "a", "c" );
+            assertAdjacency( both, "c", "a", "b", "c" );
+            assertFalse( both.hasWeights() );
+            assertEquals( 1d, both.weight( both.adjacencyStart( node( both, "a" ) ) ), 0d );
+        }
+    }
+
+    @Test
+    public void shouldOnlyLoadNodesWithLabelAndRelationshipsOfType() throws Exception
+    {
+        // GIVEN
+        Label person = DynamicLabel.label( "Person" );
+        graph.makeEdgeChain( "a,b,c,d" );
+        graph.makeEdge( "a", "c" );
+        graph.setCurrentRelType( DynamicRelationshipType.withName( "OTHER" ) );
+        graph.makeEdge( "b", "a" );
+        graph.setCurrentRelType( MyRelTypes.R1 );
+        for ( String name : new String[] {"a", "b", "c"} )
+        {
+            graph.getNode( name ).addLabel( person );
+        }
+        commit();
+
+        // WHEN
+        try ( CompressedGraph compressed = load( person, MyRelTypes.R1, Direction.OUTGOING, null ) )
+        {
+            // THEN
+            assertEquals( 3, compressed.nodeCount() );
+            assertEquals( CompressedGraph.NO_SUCH_NODE, compressed.node( graph.getNode( "d" ).getId() ) );
+            assertAdjacency( compressed, "a", "b", "c" );
+            assertAdjacency( compressed, "b", "c" );
+            assertAdjacency( compressed, "c" );
+        }
+    }
+
+    @Test
+    public void shouldLoadEmptyGraphForUnknownLabel() throws Exception
+    {
+        // GIVEN
+        graph.makeEdgeChain( "a,b" );
+        commit();
+
+        // WHEN
+        try ( CompressedGraph compressed = load( DynamicLabel.label( "Unknown" ), null, Direction.BOTH, null ) )
+        {
+            // THEN
+            assertEquals( 0, compressed.nodeCount() );
+            assertEquals( 0, compressed.adjacencySize() );
+        }
+    }
+
+    @Test
+    public void shouldLoadWeightsAndUseDefaultWhenPropertyIsMissing() throws Exception
+    {
+        // GIVEN
+        graph.makeEdge( "a", "b", "cost", 2.5d );
+        graph.makeEdge( "a", "c", "cost", 3 );
+        graph.makeEdge( "b", "c" );
+        commit();
+
+        // WHEN
+        try ( CompressedGraph compressed = load( null, null, Direction.OUTGOING, "cost" ) )
+        {
+            // THEN
+            assertTrue( compressed.hasWeights() );
+            assertEquals( 2.5d, weight( compressed, "a", "b" ), 0d );
+            assertEquals( 3d, weight( compressed, "a", "c" ), 0d );
+            assertEquals( 7d, weight( compressed, "b", "c" ), 0d );
+        }
+    }
+
+    @Test
+    public void shouldFailOnNonNumericWeight() throws Exception
+    {
+        // GIVEN
+        graph.makeEdge( "a", "b", "cost", "expensive" );
+        commit();
+
+        // WHEN
+        try
+        {
+            load( null, null, Direction.OUTGOING, "cost" ).close();
+            fail( "Should have failed on non-numeric weight" );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            // THEN good
+        }
+    }
+
+    @Test
+    public void shouldSkipDeletedAndUncommittedEntities() throws Exception
+    {
+        // GIVEN
+        graph.makeEdgeChain( "a,b,c" );
+        Node deleted = graphDb.createNode();
+        Relationship deletedRelationship = graph.getNode( "c" ).createRelationshipTo( deleted, MyRelTypes.R1 );
+        commit();
+        deletedRelationship.delete();
+        deleted.delete();
+        commit();
+        graph.makeEdge( "a", "c" );
+
+        // WHEN
+        try ( CompressedGraph compressed = load( null, null, Direction.OUTGOING, null ) )
+        {
+            // THEN
+            assertEquals( 3, compressed.nodeCount() );
+            assertAdjacency( compressed, "a", "b" );
+            assertAdjacency( compressed, "b", "c" );
+            assertAdjacency( compressed, "c" );
+        }
+    }
+
+    @Test
+    public void shouldLoadGraphSpanningSeveralScanChunks() throws Exception
+    {
+        // GIVEN
+        int nodeCount = CompressedGraphLoader.ID_CHUNK_SIZE * 2 + 17;
+        for ( int i = 0; i < nodeCount; i++ )
+        {
+            graph.makeNode( String.valueOf( i ) );
+            if ( i > 0 )
+            {
+                graph.makeEdge( String.valueOf( i - 1 ), String.valueOf( i ) );
+            }
+            if ( i % 1000 == 0 )
+            {
+                commit();
+            }
+        }
+        commit();
+
+        // WHEN
+        try ( CompressedGraph compressed = load( null, null, Direction.BOTH, null ) )
+        {
+            // THEN
+            assertEquals( nodeCount, compressed.nodeCount() );
+            assertEquals( (nodeCount - 1) * 2L, compressed.adjacencySize() );
+            assertAdjacency( compressed, "0", "1" );
+            assertAdjacency( compressed, "12345", "12344", "12346" );
+            assertAdjacency( compressed, String.valueOf( nodeCount - 1 ), String.valueOf( nodeCount - 2 ) );
+        }
+    }
+
+    private CompressedGraph load( Label label, RelationshipType type, Direction direction, String weightProperty )
+    {
+        return new CompressedGraphLoader( graphDb, pool ).load( label, type, direction, weightProperty, 7d );
+    }
+
+    private int node( CompressedGraph compressed, String name )
+    {
+        return compressed.node( graph.getNode( name ).getId() );
+    }
+
+    private double weight( CompressedGraph compressed, String from, String to )
+    {
+        int target = node( compressed, to );
+        int source = node( compressed, from );
+        for ( long entry = compressed.adjacencyStart( source ); entry < compressed.adjacencyEnd( source ); entry++ )
+        {
+            if ( compressed.target( entry ) == target )
+            {
+                return compressed.weight( entry );
+            }
+        }
+        throw new AssertionError( from + " has no relationship to " + to );
+    }
+
+    private void assertAdjacency( CompressedGraph compressed, String name, String... expectedTargets )
+    {
+        int node = node( compressed, name );
+        assertEquals( graph.getNode( name ).getId(), compressed.nodeId( node ) );
+        assertEquals( expectedTargets.length, compressed.degree( node ) );
+        int[] expected = new int[expectedTargets.length];
+        for ( int i = 0; i < expected.length; i++ )
+        {
+            expected[i] = node( compressed, expectedTargets[i] );
+        }
+        Arrays.sort( expected );
+        long entry = compressed.adjacencyStart( node );
+        for ( int target : expected )
+        {
+            assertEquals( target, compressed.target( entry++ ) );
+        }
+        assertEquals( compressed.adjacencyEnd( node ), entry );
+    }
+}
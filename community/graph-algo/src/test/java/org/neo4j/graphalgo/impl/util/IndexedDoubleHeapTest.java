@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.util;
+
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class IndexedDoubleHeapTest
+{
+    @Test
+    public void shouldPopElementsInPriorityOrder() throws Exception
+    {
+        // GIVEN
+        IndexedDoubleHeap heap = new IndexedDoubleHeap( 2 );
+        heap.offer( 0, 3d );
+        heap.offer( 1, 1d );
+        heap.offer( 2, 2d );
+        heap.offer( 10, 0.5d );
+
+        // WHEN/THEN
+        assertEquals( 4, heap.size() );
+        assertEquals( 0.5d, heap.peekPriority(), 0d );
+        assertEquals( 10, heap.pop() );
+        assertEquals( 1, heap.pop() );
+        assertEquals( 2, heap.pop() );
+        assertEquals( 0, heap.pop() );
+        assertTrue( heap.isEmpty() );
+    }
+
+    @Test
+    public void shouldOnlyLowerPriorityOfElementAlreadyInHeap() throws Exception
+    {
+        // GIVEN
+        IndexedDoubleHeap heap = new IndexedDoubleHeap( 4 );
+        heap.offer( 0, 1d );
+        heap.offer( 1, 5d );
+
+        // WHEN/THEN
+        assertFalse( heap.offer( 1, 6d ) );
+        assertTrue( heap.offer( 1, 0.5d ) );
+        assertEquals( 2, heap.size() );
+        assertEquals( 1, heap.pop() );
+        assertFalse( heap.contains( 1 ) );
+        assertTrue( heap.contains( 0 ) );
+        assertEquals( 0, heap.pop() );
+    }
+
+    @Test
+    public void shouldThrowWhenPoppingEmptyHeap() throws Exception
+    {
+        // GIVEN
+        IndexedDoubleHeap heap = new IndexedDoubleHeap( 4 );
+
+        // WHEN
+        try
+        {
+            heap.pop();
+            fail( "Should have failed" );
+        }
+        catch ( NoSuchElementException e )
+        {   // THEN good
+        }
+    }
+
+    @Test
+    public void shouldAgreeWithPriorityQueueOnRandomOffersAndPops() throws Exception
+    {
+        // GIVEN
+        Random random = new Random( 42 );
+        int elements = 1000;
+        double[] priorities = new double[elements];
+        IndexedDoubleHeap heap = new IndexedDoubleHeap( 1 );
+        for ( int i = 0; i < elements * 3; i++ )
+        {
+            int element = random.nextInt( elements );
+            double priority = random.nextDouble();
+            if ( !heap.contains( element ) )
+            {
+                priorities[element] = priority;
+            }
+            else
+            {
+                priorities[element] = Math.min( priorities[element], priority );
+            }
+            heap.offer( element, priority );
+        }
+
+        PriorityQueue<Double> expected = new PriorityQueue<>();
+        for ( int element = 0; element < elements; element++ )
+        {
+            if ( heap.contains( element ) )
+            {
+                expected.add( priorities[element] );
+            }
+        }
+
+        // WHEN/THEN
+        assertEquals( expected.size(), heap.size() );
+        while ( !expected.isEmpty() )
+        {
+            double priority = heap.peekPriority();
+            int element = heap.pop();
+            assertEquals( expected.poll(), priority, 0d );
+            assertEquals( priorities[element], priority, 0d );
+        }
+        assertTrue( heap.isEmpty() );
+    }
+}
@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.path;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+
+import org.neo4j.graphalgo.PathFinder;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Path;
+import org.neo4j.graphdb.PathExpander;
+import org.neo4j.graphdb.PathExpanders;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.traversal.BranchState;
+
+import common.Neo4jAlgoTestCase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import static org.neo4j.graphalgo.GraphAlgoFactory.shortestPath;
+
+public class ParallelShortestPathTest extends Neo4jAlgoTestCase
+{
+    @Test
+    public void shouldFindAllShortestPathsBetweenHighlyConnectedNodesInParallel() throws Exception
+    {
+        // GIVEN
+        createTwoConnectedHubs( 300 );
+        commit();
+        ThreadRecordingExpander expander = new ThreadRecordingExpander();
+
+        // WHEN
+        Iterable<Path> paths = shortestPath( expander, 5, pool ).findAllPaths( graph.getNode( "a" ),
+                graph.getNode( "b" ) );
+
+        // THEN
+        assertSamePaths( shortestPath( PathExpanders.allTypesAndDirections(), 5 ).findAllPaths(
+                graph.getNode( "a" ), graph.getNode( "b" ) ), paths );
+        assertEquals( 30, count( paths ) );
+        assertFalse( "expected expansion in other threads than " + Thread.currentThread(),
+                Collections.singleton( Thread.currentThread() ).containsAll( expander.threads ) );
+    }
+
+    @Test
+    public void shouldSeeChangesOfCallingTransaction() throws Exception
+    {
+        // GIVEN
+        createTwoConnectedHubs( 300 );
+        ThreadRecordingExpander expander = new ThreadRecordingExpander();
+
+        // WHEN
+        Iterable<Path> paths = shortestPath( expander, 5, pool ).findAllPaths( graph.getNode( "a" ),
+                graph.getNode( "b" ) );
+
+        // THEN
+        assertEquals( 30, count( paths ) );
+        assertEquals( Collections.singleton( Thread.currentThread() ), expander.threads );
+    }
+
+    @Test
+    public void shouldFindSingleShortestPath() throws Exception
+    {
+        // GIVEN
+        createTwoConnectedHubs( 300 );
+        commit();
+
+        // WHEN
+        Path path = shortestPath( PathExpanders.allTypesAndDirections(), 5, pool ).findSinglePath(
+                graph.getNode( "a" ), graph.getNode( "b" ) );
+
+        // THEN
+        assertEquals( 3, path.length() );
+        assertEquals( graph.getNode( "a" ), path.startNode() );
+        assertEquals( graph.getNode( "b" ), path.endNode() );
+    }
+
+    @Test
+    public void shouldNotFindPathsLongerThanMaxDepth() throws Exception
+    {
+        // GIVEN
+        createTwoConnectedHubs( 300 );
+        commit();
+        PathFinder<Path> finder = shortestPath( PathExpanders.allTypesAndDirections(), 2, pool );
+
+        // WHEN
+        Path path = finder.findSinglePath( graph.getNode( "a" ), graph.getNode( "b" ) );
+
+        // THEN
+        assertNull( path );
+        assertEquals( 0, count( finder.findAllPaths( graph.getNode( "a" ), graph.getNode( "b" ) ) ) );
+    }
+
+    @Test
+    public void shouldReturnAtMostMaxHitCountPaths() throws Exception
+    {
+        // GIVEN
+        createTwoConnectedHubs( 300 );
+        commit();
+
+        // WHEN
+        Iterable<Path> paths = shortestPath( PathExpanders.allTypesAndDirections(), 5, 7, pool ).findAllPaths(
+                graph.getNode( "a" ), graph.getNode( "b" ) );
+
+        // THEN
+        assertEquals( 7, count( paths ) );
+    }
+
+    @Test
+    public void shouldFindSamePathsAsShortestPathInRandomDirectedGraph() throws Exception
+    {
+        // GIVEN
+        Random random = new Random( 4321 );
+        int nodeCount = 500;
+        for ( int i = 0; i < nodeCount; i++ )
+        {
+            graph.makeNode( String.valueOf( i ) );
+        }
+        for ( int i = 0; i < nodeCount * 5; i++ )
+        {
+            graph.makeEdge( String.valueOf( random.nextInt( nodeCount ) ),
+                    String.valueOf( random.nextInt( nodeCount ) ) );
+        }
+        commit();
+        PathExpander expander = PathExpanders.forDirection( Direction.OUTGOING );
+
+        for ( int i = 0; i < 30; i++ )
+        {
+            Node start = graph.getNode( String.valueOf( random.nextInt( nodeCount ) ) );
+            Node end = graph.getNode( String.valueOf( random.nextInt( nodeCount ) ) );
+
+            // WHEN
+            Iterable<Path> paths = shortestPath( expander, 10, pool ).findAllPaths( start, end );
+
+            // THEN
+            assertSamePaths( shortestPath( expander, 10 ).findAllPaths( start, end ), paths );
+        }
+    }
+
+    private void createTwoConnectedHubs( int degree )
+    {
+        // a -- mN -- nN -- b, where every tenth mN and nN are connected
+        for ( int i = 0; i < degree; i++ )
+        {
+            graph.makeEdge( "a", "m" + i );
+            graph.makeEdge( "n" + i, "b" );
+            if ( i % 10 == 0 )
+            {
+                graph.makeEdge( "m" + i, "n" + i );
+            }
+        }
+    }
+
+    private void assertSamePaths( Iterable<Path> expected, Iterable<Path> actual )
+    {
+        List<String> expectedDefs = new ArrayList<>();
+        for ( Path path : expected )
+        {
+            expectedDefs.add( getPathDef( path ) );
+        }
+        assertPaths( actual, expectedDefs.toArray( new String[expectedDefs.size()] ) );
+    }
+
+    private static int count( Iterable<Path> paths )
+    {
+        int count = 0;
+        for ( Path ignored : paths )
+        {
+            count++;
+        }
+        return count;
+    }
+
+    private static class ThreadRecordingExpander implements PathExpander
+    {
+        private final PathExpander actual = PathExpanders.allTypesAndDirections();
+        private final Set<Thread> threads = Collections.newSetFromMap( new ConcurrentHashMap<Thread, Boolean>() );
+
+        @Override
+        public Iterable<Relationship> expand( Path path, BranchState state )
+        {
+            threads.add( Thread.currentThread() );
+            return actual.expand( path, state );
+        }
+
+        @Override
+        public PathExpander reverse()
+        {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.path;
+
+import java.io.File;
+import java.util.Random;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import org.neo4j.graphalgo.PathFinder;
+import org.neo4j.graphalgo.WeightedPath;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import static org.neo4j.graphalgo.CommonEvaluators.doubleCostEvaluator;
+import static org.neo4j.graphalgo.GraphAlgoFactory.aStar;
+import static org.neo4j.graphalgo.GraphAlgoFactory.dijkstra;
+import static org.neo4j.graphdb.Direction.BOTH;
+import static org.neo4j.graphdb.PathExpanders.allTypesAndDirections;
+import static org.neo4j.test.TargetDirectory.forTest;
+
+/**
+ * Compares the traversal based Dijkstra and A* with the ones keeping their state on primitive node ids,
+ * on the same generated geographical graph and the same start/end nodes.
+ */
+@Ignore( "Not a test, just nice to have" )
+public class PrimitiveDijkstraPerformanceIT
+{
+    private static final int NUMBER_OF_NODES = 200000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int QUERIES_PER_ROUND = 20;
+
+    private final File directory = forTest( getClass() ).cleanDirectory( "graph-db" );
+
+    @Test
+    public void compareWithTraversalBasedImplementations() throws Exception
+    {
+        // GIVEN
+        new GeoDataGenerator( NUMBER_OF_NODES, 5d, 1000, 1000 ).generate( directory );
+        GraphDatabaseService db = new GraphDatabaseFactory().newEmbeddedDatabase( directory.getAbsolutePath() );
+        try
+        {
+            Random random = new Random( 12345 );
+            long[][] points = new long[QUERIES_PER_ROUND][];
+            for ( int i = 0; i < points.length; i++ )
+            {
+                points[i] = new long[] {random.nextInt( NUMBER_OF_NODES ), random.nextInt( NUMBER_OF_NODES )};
+            }
+
+            // WHEN/THEN
+            measure( db, points, "Dijkstra", dijkstra( allTypesAndDirections(), doubleCostEvaluator( "weight" ) ) );
+            measure( db, points, "Primitive Dijkstra", dijkstra( BOTH, "weight" ) );
+            measure( db, points, "A*", aStar( allTypesAndDirections(),
+                    doubleCostEvaluator( "weight" ), GeoDataGenerator.estimateEvaluator() ) );
+            measure( db, points, "Primitive A*", aStar( BOTH, "weight", GeoDataGenerator.estimateEvaluator() ) );
+        }
+        finally
+        {
+            db.shutdown();
+        }
+    }
+
+    private void measure( GraphDatabaseService db, long[][] points, String name, PathFinder<WeightedPath> algo )
+    {
+        for ( int round = 0; round < WARMUP_ROUNDS; round++ )
+        {
+            run( db, points, algo );
+        }
+
+        long totalTime = 0;
+        for ( int round = 0; round < MEASURED_ROUNDS; round++ )
+        {
+            totalTime += run( db, points, algo );
+        }
+        long queries = (long) MEASURED_ROUNDS * points.length;
+        System.out.println( name + ": avg " + NANOSECONDS.toMicros( totalTime / queries ) + "us/query" );
+    }
+
+    private long run( GraphDatabaseService db, long[][] points, PathFinder<WeightedPath> algo )
+    {
+        long time = 0;
+        for ( long[] p : points )
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                Node start = db.getNodeById( p[0] );
+                Node end = db.getNodeById( p[1] );
+                long startTime = nanoTime();
+                algo.findSinglePath( start, end );
+                time += nanoTime() - startTime;
+                tx.success();
+            }
+        }
+        return time;
+    }
+}
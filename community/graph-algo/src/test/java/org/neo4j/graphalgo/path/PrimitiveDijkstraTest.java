@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.path;
+
+import java.util.Iterator;
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.neo4j.graphalgo.CommonEvaluators;
+import org.neo4j.graphalgo.GraphAlgoFactory;
+import org.neo4j.graphalgo.PathFinder;
+import org.neo4j.graphalgo.WeightedPath;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.graphdb.PathExpanders;
+
+import common.Neo4jAlgoTestCase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import static org.neo4j.graphalgo.GraphAlgoFactory.dijkstra;
+
+public class PrimitiveDijkstraTest extends Neo4jAlgoTestCase
+{
+    @Test
+    public void shouldFindCheapestPathInTriangleGraph() throws Exception
+    {
+        // GIVEN
+        Node nodeA = graph.makeNode( "A" );
+        Node nodeB = graph.makeNode( "B" );
+        Node nodeC = graph.makeNode( "C" );
+        graph.makeEdge( "A", "B", "length", 2d );
+        graph.makeEdge( "B", "C", "length", 3L );
+        graph.makeEdge( "A", "C", "length", (byte)10 );
+        PathFinder<WeightedPath> finder = dijkstra( Direction.BOTH, "length" );
+
+        // WHEN
+        Iterator<WeightedPath> paths = finder.findAllPaths( nodeA, nodeC ).iterator();
+
+        // THEN
+        assertTrue( "expected at least one path", paths.hasNext() );
+        WeightedPath path = paths.next();
+        assertPath( path, nodeA, nodeB, nodeC );
+        assertEquals( 5d, path.weight(), 0d );
+        assertFalse( "expected at most one path", paths.hasNext() );
+        assertEquals( 1, finder.metadata().getNumberOfPathsReturned() );
+    }
+
+    @Test
+    public void shouldOnlyExpandGivenTypesAndDirection() throws Exception
+    {
+        // GIVEN
+        Node nodeA = graph.makeNode( "A" );
+        Node nodeB = graph.makeNode( "B" );
+        Node nodeC = graph.makeNode( "C" );
+        graph.makeEdge( "A", "B", "cost", 1d );
+        graph.setCurrentRelType( MyRelTypes.R2 );
+        graph.makeEdge( "B", "C", "cost", 1d );
+        graph.setCurrentRelType( MyRelTypes.R1 );
+        graph.makeEdge( "A", "C", "cost", 10d );
+
+        // WHEN/THEN
+        assertPath( dijkstra( Direction.OUTGOING, "cost", MyRelTypes.R1 ).findSinglePath( nodeA, nodeC ),
+                nodeA, nodeC );
+        assertPath( dijkstra( Direction.OUTGOING, "cost" ).findSinglePath( nodeA, nodeC ),
+                nodeA, nodeB, nodeC );
+        assertNull( dijkstra( Direction.OUTGOING, "cost" ).findSinglePath( nodeC, nodeA ) );
+        assertPath( dijkstra( Direction.INCOMING, "cost" ).findSinglePath( nodeC, nodeA ),
+                nodeC, nodeB, nodeA );
+        assertNull( dijkstra( Direction.BOTH, "cost", MyRelTypes.R3 ).findSinglePath( nodeA, nodeC ) );
+    }
+
+    @Test
+    public void shouldThrowWhenTraversedRelationshipHasNoCost() throws Exception
+    {
+        // GIVEN
+        Node nodeA = graph.makeNode( "A" );
+        Node nodeB = graph.makeNode( "B" );
+        graph.makeEdge( "A", "B" );
+
+        // WHEN
+        try
+        {
+            dijkstra( Direction.BOTH, "cost" ).findSinglePath( nodeA, nodeB );
+            fail( "Should have failed on the missing cost" );
+        }
+        catch ( NotFoundException e )
+        {   // THEN good
+        }
+    }
+
+    @Test
+    public void shouldFindPathsAsCheapAsTraversalBasedDijkstraAndAStar() throws Exception
+    {
+        // GIVEN a random, committed graph
+        Random random = new Random( 1234 );
+        int nodeCount = 200;
+        for ( int i = 0; i < nodeCount; i++ )
+        {
+            graph.makeNode( String.valueOf( i ), "x", random.nextDouble() * 100, "y", random.nextDouble() * 100 );
+        }
+        for ( int i = 0; i < nodeCount * 4; i++ )
+        {
+            String from = String.valueOf( random.nextInt( nodeCount ) );
+            String to = String.valueOf( random.nextInt( nodeCount ) );
+            graph.makeEdge( from, to, "length", distance( graph.getNode( from ), graph.getNode( to ) ) + 1 );
+        }
+        tx.success();
+        tx.finish();
+        tx = graphDb.beginTx();
+
+        PathFinder<WeightedPath> primitiveDijkstra = dijkstra( Direction.BOTH, "length" );
+        PathFinder<WeightedPath> primitiveAStar =
+                GraphAlgoFactory.aStar( Direction.BOTH, "length", TestAStar.ESTIMATE_EVALUATOR );
+        PathFinder<WeightedPath> traversalDijkstra = dijkstra( PathExpanders.allTypesAndDirections(),
+                CommonEvaluators.doubleCostEvaluator( "length" ) );
+
+        for ( int i = 0; i < 20; i++ )
+        {
+            Node start = graph.getNode( String.valueOf( random.nextInt( nodeCount ) ) );
+            Node end = graph.getNode( String.valueOf( random.nextInt( nodeCount ) ) );
+
+            // WHEN
+            WeightedPath expected = traversalDijkstra.findSinglePath( start, end );
+            WeightedPath dijkstraPath = primitiveDijkstra.findSinglePath( start, end );
+            WeightedPath aStarPath = primitiveAStar.findSinglePath( start, end );
+
+            // THEN
+            if ( expected == null )
+            {
+                assertNull( dijkstraPath );
+                assertNull( aStarPath );
+            }
+            else
+            {
+                assertEquals( expected.weight(), dijkstraPath.weight(), 0.00001d );
+                assertEquals( expected.weight(), aStarPath.weight(), 0.00001d );
+                assertEquals( start, dijkstraPath.startNode() );
+                assertEquals( end, dijkstraPath.endNode() );
+            }
+        }
+    }
+
+    private double distance( Node node, Node other )
+    {
+        return TestAStar.ESTIMATE_EVALUATOR.getCost( node, other );
+    }
+}
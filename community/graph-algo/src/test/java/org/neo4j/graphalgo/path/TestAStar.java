@@ -38,6 +38,7 @@ import org.neo4j.graphalgo.GraphAlgoFactory;
 import org.neo4j.graphalgo.PathFinder;
 import org.neo4j.graphalgo.WeightedPath;
 import org.neo4j.graphalgo.impl.path.TraversalAStar;
+import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Path;
 import org.neo4j.graphdb.PathExpander;
@@ -343,6 +344,9 @@ public class TestAStar extends Neo4jAlgoTestCase
             },
             {
                 new TraversalAStar( PathExpanders.allTypesAndDirections(), doubleCostEvaluator( "length" ), ESTIMATE_EVALUATOR )
+            },
+            {
+                GraphAlgoFactory.aStar( Direction.BOTH, "length", ESTIMATE_EVALUATOR )
             }
         } );
     }
@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.jmx;
+
+@ManagementInterface( name = Metrics.NAME )
+@Description( "Transaction, locking and query metrics recorded by this Neo4j instance" )
+public interface Metrics
+{
+    final String NAME = "Metrics";
+
+    @Description( "The names of all metrics recorded by this Neo4j instance" )
+    String[] getMetricNames();
+
+    @Description( "The number of events recorded by the counter or histogram with the specified name" )
+    long count( String name );
+
+    @Description( "The current value of the gauge with the specified name" )
+    long value( String name );
+
+    @Description( "The value below which the specified percentage of the values recorded by the histogram " +
+                  "with the specified name fall, timings are in nanoseconds" )
+    long percentile( String name, double percentile );
+}
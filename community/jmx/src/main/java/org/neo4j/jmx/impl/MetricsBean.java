@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.jmx.impl;
+
+import java.util.List;
+import javax.management.NotCompliantMBeanException;
+
+import org.neo4j.helpers.Service;
+import org.neo4j.jmx.Metrics;
+import org.neo4j.kernel.monitoring.metrics.Histogram;
+import org.neo4j.kernel.monitoring.metrics.MetricsRegistry;
+
+@Service.Implementation( ManagementBeanProvider.class )
+public final class MetricsBean extends ManagementBeanProvider
+{
+    public MetricsBean()
+    {
+        super( Metrics.class );
+    }
+
+    @Override
+    protected Neo4jMBean createMBean( ManagementData management ) throws NotCompliantMBeanException
+    {
+        return new MetricsImpl( management );
+    }
+
+    private static class MetricsImpl extends Neo4jMBean implements Metrics
+    {
+        private final MetricsRegistry registry;
+
+        MetricsImpl( ManagementData management ) throws NotCompliantMBeanException
+        {
+            super( management );
+            this.registry = management.getKernelData().graphDatabase().getDependencyResolver()
+                    .resolveDependency( MetricsRegistry.class );
+        }
+
+        @Override
+        public String[] getMetricNames()
+        {
+            List<String> names = registry.names();
+            return names.toArray( new String[names.size()] );
+        }
+
+        @Override
+        public long count( String name )
+        {
+            return registry.count( name );
+        }
+
+        @Override
+        public long value( String name )
+        {
+            return registry.value( name );
+        }
+
+        @Override
+        public long percentile( String name, double percentile )
+        {
+            Histogram.Snapshot snapshot = registry.snapshot( name );
+            return snapshot == null ? 0 : snapshot.percentile( percentile );
+        }
+    }
+}
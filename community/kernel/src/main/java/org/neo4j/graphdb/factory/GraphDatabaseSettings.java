@@ -36,6 +36,7 @@ import org.neo4j.kernel.impl.cache.MonitorGc;
 import static org.neo4j.helpers.Settings.ANY;
 import static org.neo4j.helpers.Settings.BOOLEAN;
 import static org.neo4j.helpers.Settings.BYTES;
+import static org.neo4j.helpers.Settings.DURATION;
 import static org.neo4j.helpers.Settings.FALSE;
 import static org.neo4j.helpers.Settings.INTEGER;
 import static org.neo4j.helpers.Settings.NO_DEFAULT;
@@ -101,6 +102,16 @@ public abstract class GraphDatabaseSettings
             "value to false will cause Neo4j to fail LOAD CSV queries that import data from the file system")
     public static Setting<Boolean> allow_file_urls = setting( "allow_file_urls", BOOLEAN, TRUE );
 
+    // Traversal settings
+    @Description("Enable this to let traversals, like shortest path searches in Cypher, expand large parts of the " +
+            "graph in parallel on a pool of threads owned by the database.")
+    public static final Setting<Boolean> parallel_traversal_enabled = setting( "parallel_traversal_enabled", BOOLEAN,
+            TRUE );
+
+    @Description("The number of threads in the pool that traversals expand large parts of the graph in.")
+    public static final Setting<Integer> parallel_traversal_threads = setting( "parallel_traversal_threads", INTEGER,
+            "" + Runtime.getRuntime().availableProcessors(), min( 1 ) );
+
     // Store files
     @Description("The directory where the database files are located.")
     public static final Setting<File> store_dir = setting("store_dir", PATH, NO_DEFAULT );
@@ -150,6 +161,25 @@ public abstract class GraphDatabaseSettings
     @Description("Integer value that sets the maximum number of open lucene index searchers.")
     public static Setting<Integer> lucene_searcher_cache_size = setting("lucene_searcher_cache_size",INTEGER, Integer.toString( Integer.MAX_VALUE ), min( 1 ));
 
+    @Description( "The number of entities a transaction may change in a single legacy index before the uncommitted " +
+                  "changes to that index are moved from memory to a temporary index on disk." )
+    public static final Setting<Integer> lucene_tx_state_spill_threshold = setting( "lucene_tx_state_spill_threshold", INTEGER, "100000", min( 1 ) );
+
+    @Description( "Keep the label scan store in a native file of compressed per label bitmaps instead of in a " +
+                  "lucene index. Switching between the two makes the one switched to rebuild itself on startup." )
+    public static final Setting<Boolean> native_label_scan_store = setting( "native_label_scan_store", BOOLEAN, FALSE );
+
+    @Description( "How long updates to schema indexes may be visible only through the in-memory view of recently " +
+                  "applied updates, before the index searchers are reopened in the background. A value of 0 " +
+                  "reopens the searchers as part of every transaction that updates the index." )
+    public static final Setting<Long> schema_index_refresh_interval = setting( "schema_index_refresh_interval",
+            DURATION, "100ms" );
+
+    @Description( "The number of recently applied updates a schema index may hold in memory before its searcher is " +
+                  "reopened without waiting for the refresh interval to pass." )
+    public static final Setting<Integer> schema_index_refresh_max_pending_updates = setting(
+            "schema_index_refresh_max_pending_updates", INTEGER, "1000", min( 1 ) );
+
     // NeoStore settings
     @Description("Determines whether any TransactionInterceptors loaded will intercept prepared transactions before " +
             "they reach the logical log.")
@@ -168,6 +198,11 @@ public abstract class GraphDatabaseSettings
                   "Default is 25M" )
     public static final Setting<Long> logical_log_rotation_threshold = setting( "logical_log_rotation_threshold", BYTES, "25M" );
 
+    @Description( "Keep track of which pages of the store files have changed since the last backup, so that a " +
+                  "backup which has fallen further behind than the kept logical logs can still be brought up to " +
+                  "date by copying only the changed pages, instead of doing a new full backup." )
+    public static final Setting<Boolean> track_changed_store_pages = setting( "track_changed_store_pages", BOOLEAN, FALSE );
+
     @Description("Use a quick approach for rebuilding the ID generators. This give quicker recovery time, " +
             "but will limit the ability to reuse the space of deleted entities.")
     public static final Setting<Boolean> rebuild_idgenerators_fast = setting("rebuild_idgenerators_fast", BOOLEAN, TRUE );
@@ -191,6 +226,15 @@ public abstract class GraphDatabaseSettings
     @Description("The number of records to be loaded between regular logging of memory mapping statistics.")
     public static final Setting<Integer> log_mapped_memory_stats_interval = setting("log_mapped_memory_stats_interval", INTEGER, "1000000");
 
+    @Description("Tell Neo4j to regularly write the transaction, locking and query metrics it records to a CSV file.")
+    public static final Setting<Boolean> metrics_csv_enabled = setting("metrics_csv_enabled", BOOLEAN, FALSE );
+
+    @Description("The file where Neo4j will write metrics when CSV reporting is enabled.")
+    public static final Setting<File> metrics_csv_filename = setting("metrics_csv_filename", PATH, "metrics.csv", basePath(store_dir) );
+
+    @Description("How often metrics are written to the CSV file.")
+    public static final Setting<Long> metrics_csv_interval = setting("metrics_csv_interval", DURATION, "10s" );
+
     @Description("The size to allocate for memory mapping the node store.")
     public static final Setting<Long> nodestore_mapped_memory_size = setting("neostore.nodestore.db.mapped_memory", BYTES, "20M" );
 
@@ -39,7 +39,9 @@ public interface IndexCreator
      * Includes the given {@code propertyKey} in this index, such that {@link Node nodes} with
      * the assigned {@link Label label} and this property key will have its values indexed.
      * 
-     * NOTE: currently only a single property key per index is supported.
+     * Calling this method more than once creates a composite index over the property keys, in
+     * the order they were given. Only nodes having all the property keys are indexed, and a
+     * composite index can answer lookups on all of its keys, or on its leading keys.
      * 
      * @param propertyKey the property key to include in this index to be created.
      * @return an {@link IndexCreator} instance to be used for further interaction.
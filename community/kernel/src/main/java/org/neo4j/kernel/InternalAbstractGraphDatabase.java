@@ -127,7 +127,11 @@ import org.neo4j.kernel.impl.nioneo.store.DefaultWindowPoolFactory;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 import org.neo4j.kernel.impl.nioneo.store.NeoStore;
 import org.neo4j.kernel.impl.nioneo.store.StoreFactory;
+import org.neo4j.kernel.impl.nioneo.store.WindowPoolStats;
 import org.neo4j.kernel.impl.nioneo.store.StoreId;
+import org.neo4j.kernel.impl.nioneo.store.windowpool.ChangeTrackingWindowPoolFactory;
+import org.neo4j.kernel.impl.nioneo.store.windowpool.ChangedStorePages;
+import org.neo4j.kernel.impl.nioneo.store.windowpool.WindowPoolFactory;
 import org.neo4j.kernel.impl.nioneo.xa.NeoStoreProvider;
 import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
 import org.neo4j.kernel.impl.nioneo.xa.NioNeoDbPersistenceSource;
@@ -143,6 +147,7 @@ import org.neo4j.kernel.impl.transaction.AbstractTransactionManager;
 import org.neo4j.kernel.impl.transaction.KernelHealth;
 import org.neo4j.kernel.impl.transaction.ReadOnlyTxManager;
 import org.neo4j.kernel.impl.transaction.RemoteTxHook;
+import org.neo4j.kernel.impl.transaction.TransactionAwaiter;
 import org.neo4j.kernel.impl.transaction.TransactionManagerProvider;
 import org.neo4j.kernel.impl.transaction.TransactionStateFactory;
 import org.neo4j.kernel.impl.transaction.TxManager;
@@ -156,6 +161,7 @@ import org.neo4j.kernel.impl.transaction.xaframework.TxIdGenerator;
 import org.neo4j.kernel.impl.transaction.xaframework.XaFactory;
 import org.neo4j.kernel.impl.traversal.BidirectionalTraversalDescriptionImpl;
 import org.neo4j.kernel.impl.traversal.MonoDirectionalTraversalDescription;
+import org.neo4j.kernel.impl.traversal.ParallelTraversalPool;
 import org.neo4j.kernel.impl.util.JobScheduler;
 import org.neo4j.kernel.impl.util.Neo4jJobScheduler;
 import org.neo4j.kernel.impl.util.StringLogger;
@@ -171,6 +177,10 @@ import org.neo4j.kernel.lifecycle.LifecycleStatus;
 import org.neo4j.kernel.logging.DefaultLogging;
 import org.neo4j.kernel.logging.Logging;
 import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.kernel.monitoring.metrics.CsvMetricsReporter;
+import org.neo4j.kernel.monitoring.metrics.Gauge;
+import org.neo4j.kernel.monitoring.metrics.KernelMetrics;
+import org.neo4j.kernel.monitoring.metrics.MetricsRegistry;
 import org.neo4j.tooling.GlobalGraphOperations;
 
 import static java.lang.String.format;
@@ -234,6 +244,12 @@ public abstract class InternalAbstractGraphDatabase
         public static final Setting<String> lock_manager = setting( "lock_manager", STRING, "" );
         public static final Setting<Boolean> statistics_enabled =
                 setting("statistics_enabled", Settings.BOOLEAN, Settings.FALSE);
+        // Whether to sample schema indexes for the planner, regardless of whether statistics are enabled.
+        public static final Setting<Boolean> index_sampling_enabled =
+                setting( "index_sampling_enabled", Settings.BOOLEAN, Settings.TRUE );
+        // How much a sampled schema index may change, in percent of its size, before it is sampled again.
+        public static final Setting<Integer> index_sampling_update_percentage =
+                setting( "index_sampling_update_percentage", Settings.INTEGER, "5", Settings.min( 0 ) );
 
         public static final Setting<String> log_configuration_file = setting( "log.configuration", STRING,
                 "neo4j-logback.xml" );
@@ -276,9 +292,11 @@ public abstract class InternalAbstractGraphDatabase
     protected IndexStore indexStore;
     protected AbstractTransactionManager txManager;
     protected TxIdGenerator txIdGenerator;
+    protected TransactionAwaiter transactionAwaiter;
     protected StoreFactory storeFactory;
     protected XaFactory xaFactory;
     protected DiagnosticsManager diagnosticsManager;
+    protected ChangedStorePages changedStorePages;
     protected NeoStoreXaDataSource neoDataSource;
     protected RecoveryVerifier recoveryVerifier;
     protected Guard guard;
@@ -291,9 +309,11 @@ public abstract class InternalAbstractGraphDatabase
     protected ThreadToStatementContextBridge statementContextProvider;
     protected BridgingCacheAccess cacheBridge;
     protected JobScheduler jobScheduler;
+    protected ParallelTraversalPool parallelTraversalPool;
     protected UpdateableSchemaState updateableSchemaState;
 
     protected Monitors monitors;
+    protected MetricsRegistry metricsRegistry;
 
     protected final LifeSupport life = new LifeSupport();
     private final Map<String, CacheProvider> cacheProviders;
@@ -450,6 +470,8 @@ public abstract class InternalAbstractGraphDatabase
         {
             this.monitors = createMonitors();
         }
+        metricsRegistry = new MetricsRegistry();
+        new KernelMetrics( metricsRegistry ).listenTo( monitors );
 
         storeMigrationProcess = new StoreUpgrader( createUpgradeConfiguration(), fileSystem,
                 monitors.newMonitor( StoreUpgrader.Monitor.class ), logging );
@@ -503,6 +525,8 @@ public abstract class InternalAbstractGraphDatabase
         jobScheduler =
             life.add( new Neo4jJobScheduler( this.toString(), logging.getMessagesLog( Neo4jJobScheduler.class ) ));
 
+        parallelTraversalPool = life.add( new ParallelTraversalPool( config ) );
+
         kernelEventHandlers = new KernelEventHandlers(logging.getMessagesLog( KernelEventHandlers.class ));
 
         caches = createCaches();
@@ -512,8 +536,16 @@ public abstract class InternalAbstractGraphDatabase
 
         kernelHealth = new KernelHealth( kernelPanicEventGenerator, logging );
 
+        if ( config.get( GraphDatabaseSettings.track_changed_store_pages ) && !readOnly )
+        {
+            changedStorePages = life.add( new ChangedStorePages( storeDir, fileSystem,
+                    logging.getMessagesLog( ChangedStorePages.class ) ) );
+        }
+
         xaDataSourceManager = life.add( createXaDataSourceManager() );
 
+        transactionAwaiter = new TransactionAwaiter( xaDataSourceManager );
+
         txHook = createTxHook();
 
         guard = config.get( Configuration.execution_guard_enabled ) ? new Guard( msgLog ) : null;
@@ -614,6 +646,8 @@ public abstract class InternalAbstractGraphDatabase
 
         createNeoDataSource( locks );
 
+        registerStoreMetrics();
+
         life.add( new MonitorGc( config, msgLog ) );
 
         life.add( nodeManager );
@@ -627,6 +661,34 @@ public abstract class InternalAbstractGraphDatabase
         life.add( new ConfigurationChangedRestarter() );
     }
 
+    private void registerStoreMetrics()
+    {
+        metricsRegistry.register( KernelMetrics.WINDOW_POOL_MISSES, new Gauge()
+        {
+            @Override
+            public long value()
+            {
+                long misses = 0;
+                if ( neoDataSource.getNeoStore() != null )
+                {
+                    for ( WindowPoolStats stats : neoDataSource.getWindowPoolStats() )
+                    {
+                        misses += stats.getMissCount();
+                    }
+                }
+                return misses;
+            }
+        } );
+
+        if ( config.get( GraphDatabaseSettings.metrics_csv_enabled ) )
+        {
+            life.add( new CsvMetricsReporter( metricsRegistry, fileSystem,
+                    config.get( GraphDatabaseSettings.metrics_csv_filename ), Clock.SYSTEM_CLOCK,
+                    logging.getMessagesLog( CsvMetricsReporter.class ), jobScheduler,
+                    config.get( GraphDatabaseSettings.metrics_csv_interval ) ) );
+        }
+    }
+
     protected UpgradeConfiguration createUpgradeConfiguration()
     {
         return new ConfigMapUpgradeConfiguration( config );
@@ -840,9 +902,14 @@ public abstract class InternalAbstractGraphDatabase
                 logging.getMessagesLog( StoreFactory.class ), txHook );
     }
 
-    protected DefaultWindowPoolFactory createWindowPoolFactory()
+    protected WindowPoolFactory createWindowPoolFactory()
     {
-        return new DefaultWindowPoolFactory();
+        WindowPoolFactory windowPoolFactory = new DefaultWindowPoolFactory();
+        if ( changedStorePages != null )
+        {
+            windowPoolFactory = new ChangeTrackingWindowPoolFactory( windowPoolFactory, changedStorePages );
+        }
+        return windowPoolFactory;
     }
 
     protected RecoveryVerifier createRecoveryVerifier()
@@ -956,25 +1023,25 @@ public abstract class InternalAbstractGraphDatabase
             String candidateId = candidate.getKeys().iterator().next();
             if( candidateId.equals( key ))
             {
-                return candidate.newInstance( ResourceTypes.values() );
+                return candidate.newInstance( ResourceTypes.values(), monitors.newMonitor( Locks.Monitor.class ) );
             }
             else if(key.equals( "" ))
             {
                 logging.getMessagesLog( InternalAbstractGraphDatabase.class )
                         .info( "No locking implementation specified, defaulting to '" + candidateId + "'" );
-                return candidate.newInstance( ResourceTypes.values() );
+                return candidate.newInstance( ResourceTypes.values(), monitors.newMonitor( Locks.Monitor.class ) );
             }
         }
 
         if( key.equals( "community" ) )
         {
-            return new CommunityLockManger();
+            return new CommunityLockManger( monitors.newMonitor( Locks.Monitor.class ) );
         }
         else if(key.equals( "" ))
         {
             logging.getMessagesLog( InternalAbstractGraphDatabase.class )
                     .info( "No locking implementation specified, defaulting to 'community'" );
-            return new CommunityLockManger();
+            return new CommunityLockManger( monitors.newMonitor( Locks.Monitor.class ) );
         }
 
         throw new IllegalArgumentException( "No lock manager found with the name '" + key + "'." );
@@ -1341,6 +1408,14 @@ public abstract class InternalAbstractGraphDatabase
                 // Locks used to control concurrent access to the store files
                 return type.cast( locks );
             }
+            else if ( ChangedStorePages.class.isAssignableFrom( type ) && type.isInstance( changedStorePages ) )
+            {
+                return type.cast( changedStorePages );
+            }
+            else if ( TransactionAwaiter.class.isAssignableFrom( type ) && type.isInstance( transactionAwaiter ) )
+            {
+                return type.cast( transactionAwaiter );
+            }
             else if( StoreFactory.class.isAssignableFrom( type ) && type.isInstance( storeFactory ) )
             {
                 return type.cast( storeFactory );
@@ -1434,6 +1509,10 @@ public abstract class InternalAbstractGraphDatabase
             {
                 return type.cast( monitors );
             }
+            else if ( MetricsRegistry.class.isAssignableFrom( type ) )
+            {
+                return type.cast( metricsRegistry );
+            }
             else if ( PersistenceManager.class.isAssignableFrom( type ) && type.isInstance( persistenceManager ) )
             {
                 return type.cast( persistenceManager );
@@ -1464,6 +1543,10 @@ public abstract class InternalAbstractGraphDatabase
             {
                 return type.cast( jobScheduler );
             }
+            else if ( ParallelTraversalPool.class.isAssignableFrom( type ) && type.isInstance( parallelTraversalPool ) )
+            {
+                return type.cast( parallelTraversalPool );
+            }
             else if( KernelAPI.class.equals( type ))
             {
                 return type.cast( neoDataSource.getKernel() );
@@ -39,6 +39,18 @@ interface DataRead
      */
     PrimitiveLongIterator nodesGetForLabel( int labelId );
 
+    /**
+     * @param labelIds the label ids of the labels that returned nodes are guaranteed to all have
+     * @return ids of all nodes that have all of the given labels, found without looking at nodes lacking any of them
+     */
+    PrimitiveLongIterator nodesGetForAllLabels( int... labelIds );
+
+    /**
+     * @param labelIds the label ids of the labels that returned nodes are guaranteed to have at least one of
+     * @return ids of all nodes that have any of the given labels, each returned once
+     */
+    PrimitiveLongIterator nodesGetForAnyLabel( int... labelIds );
+
     /**
      * Returns an iterable with the matched nodes.
      *
@@ -48,6 +60,45 @@ interface DataRead
     PrimitiveLongIterator nodesGetFromIndexLookup( IndexDescriptor index, Object value )
             throws IndexNotFoundKernelException;
 
+    /**
+     * Returns the nodes in the given index whose numeric value lies within the given range. A {@code null} bound
+     * leaves that end of the range open.
+     *
+     * @throws org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException
+     *          if no such index found.
+     */
+    PrimitiveLongIterator nodesGetFromIndexRangeSeekByNumber( IndexDescriptor index, Number lower,
+            boolean includeLower, Number upper, boolean includeUpper ) throws IndexNotFoundKernelException;
+
+    /**
+     * Returns the nodes in the given index whose string value lies within the given range. A {@code null} bound
+     * leaves that end of the range open.
+     *
+     * @throws org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException
+     *          if no such index found.
+     */
+    PrimitiveLongIterator nodesGetFromIndexRangeSeekByString( IndexDescriptor index, String lower,
+            boolean includeLower, String upper, boolean includeUpper ) throws IndexNotFoundKernelException;
+
+    /**
+     * Returns the nodes in the given index whose string value starts with the given prefix.
+     *
+     * @throws org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException
+     *          if no such index found.
+     */
+    PrimitiveLongIterator nodesGetFromIndexRangeSeekByPrefix( IndexDescriptor index, String prefix )
+            throws IndexNotFoundKernelException;
+
+    /**
+     * Returns the nodes in the given composite index whose values of the leading property keys of the index
+     * are equal to the given values.
+     *
+     * @throws org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException
+     *          if no such index found.
+     */
+    PrimitiveLongIterator nodesGetFromIndexCompositeSeek( IndexDescriptor index, Object... leadingValues )
+            throws IndexNotFoundKernelException;
+
     PrimitiveLongIterator nodeGetRelationships( long nodeId, Direction direction, int... relTypes ) throws EntityNotFoundException;
 
     PrimitiveLongIterator nodeGetRelationships( long nodeId, Direction direction ) throws EntityNotFoundException;
@@ -96,6 +147,12 @@ interface DataRead
     /** Get a property for a relationship, bypassing any transactional state. */
     Property relationshipGetCommittedProperty( long relationshipId, int propertyKeyId ) throws EntityNotFoundException;
 
+    /**
+     * Hands the start node, end node and type of a relationship to {@code visitor}, taking transaction
+     * state into account, without creating any object representing the relationship.
+     */
+    void relationshipVisit( long relationshipId, RelationshipVisitor visitor ) throws EntityNotFoundException;
+
     Property graphGetProperty( int propertyKeyId );
 
     Iterator<DefinedProperty> nodeGetAllProperties( long nodeId ) throws EntityNotFoundException;
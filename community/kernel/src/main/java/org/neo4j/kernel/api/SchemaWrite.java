@@ -37,6 +37,13 @@ interface SchemaWrite
     IndexDescriptor indexCreate( int labelId, int propertyKeyId )
             throws AddIndexFailureException, AlreadyIndexedException, AlreadyConstrainedException;
 
+    /**
+     * Creates a composite index, indexing the values of all of the given {@code propertyKeyIds}, in order, for
+     * nodes with the given {@code labelId} that have all of them.
+     */
+    IndexDescriptor indexCreate( int labelId, int[] propertyKeyIds )
+            throws AddIndexFailureException, AlreadyIndexedException, AlreadyConstrainedException;
+
     /** Drops a {@link IndexDescriptor} from the database */
     void indexDrop( IndexDescriptor descriptor ) throws DropIndexFailureException;
 
@@ -195,6 +195,9 @@ public interface TxState
 
     void relationshipDoDeleteAddedInThisTx( long relationshipId );
 
+    /** Visits the start node, end node and type of a relationship created in this transaction. */
+    void relationshipVisit( long relationshipId, RelationshipVisitor visitor );
+
     void nodeDoDelete( long nodeId );
 
     void nodeDoReplaceProperty( long nodeId, Property replacedProperty, DefinedProperty newProperty );
@@ -264,5 +267,24 @@ public interface TxState
 
     DiffSets<Long> indexUpdates( IndexDescriptor index, Object value );
 
+    /**
+     * @return the nodes added to the index in this transaction with a number value within the given bounds,
+     * where a {@code null} bound means unbounded in that direction.
+     */
+    Set<Long> indexUpdatesAddedForRangeSeekByNumber( IndexDescriptor index, Number lower, boolean includeLower,
+            Number upper, boolean includeUpper );
+
+    /**
+     * @return the nodes added to the index in this transaction with a string value within the given bounds,
+     * where a {@code null} bound means unbounded in that direction.
+     */
+    Set<Long> indexUpdatesAddedForRangeSeekByString( IndexDescriptor index, String lower, boolean includeLower,
+            String upper, boolean includeUpper );
+
+    /**
+     * @return the nodes added to the index in this transaction with a string value starting with the prefix.
+     */
+    Set<Long> indexUpdatesAddedForRangeSeekByPrefix( IndexDescriptor index, String prefix );
+
     void indexUpdateProperty( IndexDescriptor descriptor, long nodeId, DefinedProperty before, DefinedProperty after );
 }
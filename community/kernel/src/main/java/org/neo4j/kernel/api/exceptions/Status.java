@@ -113,6 +113,14 @@ public interface Status
         EventHandlerThrewException( ClientError, "A transaction event handler threw an exception. The transaction " +
         "will be rolled back." ),
 
+        TooManyOpenTransactions( ClientError, "The client already has as many open transactions as it is allowed to " +
+        "have. Commit or roll back some of them before beginning new ones." ),
+        StateSizeLimitExceeded( ClientError, "The transaction has changed more entities than an open transaction is " +
+        "allowed to hold on to, and has been rolled back. Commit in smaller batches." ),
+        NotYetApplied( TransientError, "The request depends on a transaction that this instance has not applied " +
+        "yet, and did not apply in the time it was allowed to wait. Retrying, or sending the request to an instance " +
+        "that is further ahead, may resolve the issue." ),
+
         ;
 
 
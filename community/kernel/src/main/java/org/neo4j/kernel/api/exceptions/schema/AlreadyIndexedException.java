@@ -28,6 +28,7 @@ public class AlreadyIndexedException extends SchemaKernelException
     private static final String NO_CONTEXT_FORMAT = "Already indexed %s.";
 
     private static final String INDEX_CONTEXT_FORMAT = "There already exists an index for label '%s' on property '%s'.";
+    private static final String COMPOSITE_INDEX_CONTEXT_FORMAT = "There already exists an index %s.";
     private static final String CONSTRAINT_CONTEXT_FORMAT = "There already exists an index for label '%s' on property '%s'. " +
                                                             "A constraint cannot be created until the index has been dropped.";
 
@@ -44,6 +45,11 @@ public class AlreadyIndexedException extends SchemaKernelException
 
     private static String constructUserMessage( OperationContext context, TokenNameLookup tokenNameLookup, IndexDescriptor descriptor )
     {
+        if ( descriptor.isComposite() )
+        {
+            return String.format( COMPOSITE_INDEX_CONTEXT_FORMAT, tokenNameLookup == null ? descriptor :
+                    descriptor.userDescription( tokenNameLookup ) );
+        }
         switch ( context )
         {
             case INDEX_CREATION:
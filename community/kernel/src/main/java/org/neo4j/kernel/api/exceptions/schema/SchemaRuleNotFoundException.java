@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.api.exceptions.schema;
 
+import java.util.Arrays;
+
 import org.neo4j.kernel.api.exceptions.Status;
 
 import static java.lang.String.format;
@@ -40,6 +42,12 @@ public class SchemaRuleNotFoundException extends SchemaKernelException
         this( message( labelId, propertyKeyId, message ) );
     }
 
+    public SchemaRuleNotFoundException( long labelId, int[] propertyKeyIds, String message )
+    {
+        this( format( "Index rule(s) for label: %s and properties: %s: %s",
+                labelId, Arrays.toString( propertyKeyIds ), message ) );
+    }
+
     private static String message( long labelId, long propertyKeyId, String message )
     {
         return format( "Index rule(s) for label: %s and property: %s: %s", labelId, propertyKeyId, message );
@@ -24,6 +24,8 @@ import org.neo4j.graphdb.Direction;
 public interface StatisticsData
 {
     public static final int RELATIONSHIP_DEGREE_FOR_NODE_WITHOUT_LABEL = -1;
+    public static final double NO_INDEX_SELECTIVITY = -1;
+    public static final long NO_INDEX_SIZE = -1;
 
     /** Label id -> relative occurrence, value between 0 and 1. The total may be > 1, since labels may co-occur. */
     double labelDistribution(int labelId);
@@ -34,6 +36,18 @@ public interface StatisticsData
     /** Relationship degree distribution for a label/rel type/direction triplet. */
     double degree( int labelId, int relType, Direction direction );
 
+    /**
+     * Fraction of the entries in the schema index on a label/property key pair that a lookup of a single value is
+     * expected to find, value between 0 and 1. {@link #NO_INDEX_SELECTIVITY} if the index has not been sampled.
+     */
+    double indexSelectivity( int labelId, int propertyKeyId );
+
+    /**
+     * Number of entries in the schema index on a label/property key pair as of when it was last sampled.
+     * {@link #NO_INDEX_SIZE} if the index has not been sampled.
+     */
+    long indexSize( int labelId, int propertyKeyId );
+
     /** Ratio of live nodes (i.e. nodes that are not deleted or corrupted) of all addressable nodes */
     double liveNodesRatio();
 
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.index;
+
+import java.util.Arrays;
+
+import static org.neo4j.kernel.api.index.NodePropertyUpdate.propertyValuesEqual;
+
+/**
+ * The value a composite index holds for a node: the values of the indexed property keys, in the order of the
+ * keys of the {@link IndexDescriptor}. Numbers are compared by their value, regardless of type, the same way
+ * indexes compare them.
+ */
+public class CompositeValue
+{
+    private final Object[] values;
+
+    public CompositeValue( Object... values )
+    {
+        this.values = values.clone();
+    }
+
+    public int size()
+    {
+        return values.length;
+    }
+
+    public Object value( int i )
+    {
+        return values[i];
+    }
+
+    /**
+     * @return true if the leading values of this composite value are equal to the given values.
+     */
+    public boolean startsWith( Object... leadingValues )
+    {
+        if ( leadingValues.length > values.length )
+        {
+            return false;
+        }
+        for ( int i = 0; i < leadingValues.length; i++ )
+        {
+            if ( !valuesEqual( values[i], leadingValues[i] ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals( Object obj )
+    {
+        if ( this == obj )
+        {
+            return true;
+        }
+        if ( obj == null || getClass() != obj.getClass() )
+        {
+            return false;
+        }
+        CompositeValue that = (CompositeValue) obj;
+        return values.length == that.values.length && startsWith( that.values );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int result = 1;
+        for ( Object value : values )
+        {
+            result = 31 * result + valueHash( value );
+        }
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return Arrays.deepToString( values );
+    }
+
+    private static boolean valuesEqual( Object a, Object b )
+    {
+        if ( a instanceof Number && b instanceof Number )
+        {
+            return ((Number) a).doubleValue() == ((Number) b).doubleValue();
+        }
+        return propertyValuesEqual( a, b );
+    }
+
+    private static int valueHash( Object value )
+    {
+        if ( value instanceof Number )
+        {
+            // 0.0 and -0.0 are equal numbers, but have different Double hash codes
+            double number = ((Number) value).doubleValue() + 0.0;
+            return Double.valueOf( number ).hashCode();
+        }
+        return Arrays.deepHashCode( new Object[]{value} );
+    }
+}
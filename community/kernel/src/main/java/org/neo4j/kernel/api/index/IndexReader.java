@@ -32,6 +32,30 @@ public interface IndexReader extends Resource
 {
     PrimitiveLongIterator lookup( Object value );
 
+    /**
+     * Finds the nodes whose numeric value lies within the given range. A {@code null} bound leaves that end of
+     * the range open.
+     */
+    PrimitiveLongIterator rangeSeekByNumber( Number lower, boolean includeLower, Number upper, boolean includeUpper );
+
+    /**
+     * Finds the nodes whose string value lies within the given range, ordered lexicographically. A {@code null}
+     * bound leaves that end of the range open.
+     */
+    PrimitiveLongIterator rangeSeekByString( String lower, boolean includeLower, String upper, boolean includeUpper );
+
+    /**
+     * Finds the nodes whose string value starts with the given prefix.
+     */
+    PrimitiveLongIterator rangeSeekByPrefix( String prefix );
+
+    /**
+     * Finds the nodes of a composite index whose leading values equal the given values, in index key order.
+     * Giving a value for every key of the index is equivalent to {@link #lookup(Object) looking up} the
+     * corresponding {@link CompositeValue}.
+     */
+    PrimitiveLongIterator compositePrefixSeek( Object... leadingValues );
+
     IndexReader EMPTY = new IndexReader()
     {
         @Override
@@ -40,6 +64,32 @@ public interface IndexReader extends Resource
             return PrimitiveLongCollections.emptyIterator();
         }
 
+        @Override
+        public PrimitiveLongIterator rangeSeekByNumber( Number lower, boolean includeLower, Number upper,
+                boolean includeUpper )
+        {
+            return PrimitiveLongCollections.emptyIterator();
+        }
+
+        @Override
+        public PrimitiveLongIterator rangeSeekByString( String lower, boolean includeLower, String upper,
+                boolean includeUpper )
+        {
+            return PrimitiveLongCollections.emptyIterator();
+        }
+
+        @Override
+        public PrimitiveLongIterator rangeSeekByPrefix( String prefix )
+        {
+            return PrimitiveLongCollections.emptyIterator();
+        }
+
+        @Override
+        public PrimitiveLongIterator compositePrefixSeek( Object... leadingValues )
+        {
+            return PrimitiveLongCollections.emptyIterator();
+        }
+
         @Override
         public int getIndexedCount( long nodeId, Object propertyValue )
         {
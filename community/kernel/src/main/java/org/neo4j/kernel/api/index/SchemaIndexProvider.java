@@ -96,6 +96,19 @@ import static org.neo4j.kernel.extension.KernelExtensionUtil.servicesClassPathEn
 public abstract class SchemaIndexProvider extends LifecycleAdapter
         implements Comparable<SchemaIndexProvider>
 {
+    /**
+     * Published through {@link org.neo4j.kernel.monitoring.Monitors} by providers whose online indexes make applied
+     * updates visible to readers in batches, rather than as part of every committing transaction.
+     */
+    public interface Monitor
+    {
+        /**
+         * An online index made {@code updates} applied updates visible to its readers, the oldest of which had been
+         * waiting for {@code lagNanos}.
+         */
+        void indexRefreshed( int updates, long lagNanos );
+    }
+
     public static final SchemaIndexProvider NO_INDEX_PROVIDER =
             new SchemaIndexProvider( new Descriptor("no-index-provider", "1.0"), -1 )
     {
@@ -30,6 +30,18 @@ public interface LabelScanReader
 {
     PrimitiveLongIterator nodesWithLabel( int labelId );
 
+    /**
+     * @param labelIds the labels that returned nodes are guaranteed to all have.
+     * @return the nodes having all of the given labels, or none if no labels are given.
+     */
+    PrimitiveLongIterator nodesWithAllLabels( int... labelIds );
+
+    /**
+     * @param labelIds the labels that returned nodes are guaranteed to have at least one of.
+     * @return the nodes having any of the given labels, each returned once.
+     */
+    PrimitiveLongIterator nodesWithAnyLabel( int... labelIds );
+
     Iterator<Long> labelsForNode( long nodeId );
 
     void close();
@@ -42,6 +54,18 @@ public interface LabelScanReader
             return PrimitiveLongCollections.emptyIterator();
         }
 
+        @Override
+        public PrimitiveLongIterator nodesWithAllLabels( int... labelIds )
+        {
+            return PrimitiveLongCollections.emptyIterator();
+        }
+
+        @Override
+        public PrimitiveLongIterator nodesWithAnyLabel( int... labelIds )
+        {
+            return PrimitiveLongCollections.emptyIterator();
+        }
+
         @Override
         public Iterator<Long> labelsForNode( long nodeId )
         {
@@ -24,6 +24,7 @@ import java.util.Iterator;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.api.RelationshipVisitor;
 import org.neo4j.kernel.api.constraints.UniquenessConstraint;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException;
@@ -199,6 +200,18 @@ public class ConstraintEnforcingEntityOperations implements EntityOperations
         return entityReadOperations.nodesGetForLabel( state, labelId );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetForAllLabels( KernelStatement state, int... labelIds )
+    {
+        return entityReadOperations.nodesGetForAllLabels( state, labelIds );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetForAnyLabel( KernelStatement state, int... labelIds )
+    {
+        return entityReadOperations.nodesGetForAnyLabel( state, labelIds );
+    }
+
     @Override
     public PrimitiveLongIterator nodesGetFromIndexLookup( KernelStatement state, IndexDescriptor index, Object value )
             throws IndexNotFoundKernelException
@@ -206,6 +219,38 @@ public class ConstraintEnforcingEntityOperations implements EntityOperations
         return entityReadOperations.nodesGetFromIndexLookup( state, index, value );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByNumber( KernelStatement state, IndexDescriptor index,
+            Number lower, boolean includeLower, Number upper, boolean includeUpper )
+            throws IndexNotFoundKernelException
+    {
+        return entityReadOperations.nodesGetFromIndexRangeSeekByNumber( state, index,
+                lower, includeLower, upper, includeUpper );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByString( KernelStatement state, IndexDescriptor index,
+            String lower, boolean includeLower, String upper, boolean includeUpper )
+            throws IndexNotFoundKernelException
+    {
+        return entityReadOperations.nodesGetFromIndexRangeSeekByString( state, index,
+                lower, includeLower, upper, includeUpper );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByPrefix( KernelStatement state, IndexDescriptor index,
+            String prefix ) throws IndexNotFoundKernelException
+    {
+        return entityReadOperations.nodesGetFromIndexRangeSeekByPrefix( state, index, prefix );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexCompositeSeek( KernelStatement state, IndexDescriptor index,
+            Object... leadingValues ) throws IndexNotFoundKernelException
+    {
+        return entityReadOperations.nodesGetFromIndexCompositeSeek( state, index, leadingValues );
+    }
+
     @Override
     public long nodeGetUniqueFromIndexLookup(
             KernelStatement state,
@@ -284,6 +329,13 @@ public class ConstraintEnforcingEntityOperations implements EntityOperations
         return entityReadOperations.relationshipGetProperty( state, relationshipId, propertyKeyId );
     }
 
+    @Override
+    public void relationshipVisit( KernelStatement state, long relationshipId, RelationshipVisitor visitor )
+            throws EntityNotFoundException
+    {
+        entityReadOperations.relationshipVisit( state, relationshipId, visitor );
+    }
+
     @Override
     public Property relationshipGetCommittedProperty( KernelStatement statement, long relationshipId, int propertyKeyId ) throws EntityNotFoundException
     {
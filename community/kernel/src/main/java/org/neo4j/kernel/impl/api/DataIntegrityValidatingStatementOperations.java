@@ -91,6 +91,21 @@ public class DataIntegrityValidatingStatementOperations implements
         return schemaWriteDelegate.indexCreate( state, labelId, propertyKey );
     }
 
+    @Override
+    public IndexDescriptor indexCreate( KernelStatement state, int labelId, int[] propertyKeyIds )
+            throws AddIndexFailureException, AlreadyIndexedException, AlreadyConstrainedException
+    {
+        IndexDescriptor composite = new IndexDescriptor( labelId, propertyKeyIds );
+        for ( IndexDescriptor descriptor : loop( schemaReadDelegate.indexesGetForLabel( state, labelId ) ) )
+        {
+            if ( descriptor.equals( composite ) )
+            {
+                throw new AlreadyIndexedException( descriptor, OperationContext.INDEX_CREATION );
+            }
+        }
+        return schemaWriteDelegate.indexCreate( state, labelId, propertyKeyIds );
+    }
+
     @Override
     public void indexDrop( KernelStatement state, IndexDescriptor descriptor ) throws DropIndexFailureException
     {
@@ -150,7 +165,7 @@ public class DataIntegrityValidatingStatementOperations implements
     {
         for ( IndexDescriptor descriptor : loop( schemaReadDelegate.indexesGetForLabel( state, labelId ) ) )
         {
-            if ( descriptor.getPropertyKeyId() == propertyKey )
+            if ( !descriptor.isComposite() && descriptor.getPropertyKeyId() == propertyKey )
             {
                 throw new AlreadyIndexedException( descriptor, context );
             }
@@ -181,7 +196,7 @@ public class DataIntegrityValidatingStatementOperations implements
         while ( uniqueIndexes.hasNext() )
         {
             IndexDescriptor uniqueIndex = uniqueIndexes.next();
-            if ( uniqueIndex.getPropertyKeyId() == descriptor.getPropertyKeyId() )
+            if ( uniqueIndex.equals( descriptor ) )
             {
                 throw new IndexBelongsToConstraintException( descriptor );
             }
@@ -193,7 +208,7 @@ public class DataIntegrityValidatingStatementOperations implements
     {
         for ( IndexDescriptor existing : loop( indexes ) )
         {
-            if ( existing.getPropertyKeyId() == descriptor.getPropertyKeyId() )
+            if ( existing.equals( descriptor ) )
             {
                 return;
             }
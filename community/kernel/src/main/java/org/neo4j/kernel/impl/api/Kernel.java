@@ -175,7 +175,7 @@ public class Kernel extends LifecycleAdapter implements KernelAPI
                 nodeManager );
         this.storeLayer = storeLayer;
         this.statementOperations = buildStatementOperations();
-        this.statisticsService = new StatisticsServiceRepository( fs, config, storeLayer, scheduler ).loadStatistics();
+        this.statisticsService = statisticsServiceRepository().loadStatistics();
     }
 
     @Override
@@ -198,8 +198,16 @@ public class Kernel extends LifecycleAdapter implements KernelAPI
     public void stop() throws Throwable
     {
         isShutdown = true;
-        new StatisticsServiceRepository( fs, config, storeLayer, scheduler );
         statisticsService.stop();
+        if ( !readOnly )
+        {
+            statisticsServiceRepository().storeStatistics( statisticsService );
+        }
+    }
+
+    private StatisticsServiceRepository statisticsServiceRepository()
+    {
+        return new StatisticsServiceRepository( fs, config, storeLayer, labelScanStore, indexService, scheduler );
     }
 
     @Override
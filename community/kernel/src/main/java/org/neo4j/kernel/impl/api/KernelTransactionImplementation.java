@@ -418,7 +418,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
                     else
                     {
                         rule = IndexRule.indexRule( schemaStorage.newRuleId(), element.getLabelId(),
-                                element.getPropertyKeyId(), providerDescriptor );
+                                element.getPropertyKeyIds(), providerDescriptor );
                     }
                     persistenceManager.createSchemaRule( rule );
                 }
@@ -430,7 +430,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
                     {
                         SchemaStorage.IndexRuleKind kind = isConstraintIndex?
                                 SchemaStorage.IndexRuleKind.CONSTRAINT : SchemaStorage.IndexRuleKind.INDEX;
-                        IndexRule rule = schemaStorage.indexRule( element.getLabelId(), element.getPropertyKeyId(), kind );
+                        IndexRule rule = schemaStorage.indexRule( element.getLabelId(), element.getPropertyKeyIds(), kind );
                         persistenceManager.dropSchemaRule( rule );
                     }
                     catch ( SchemaRuleNotFoundException e )
@@ -109,6 +109,14 @@ public class LockingStatementOperations implements
         return schemaWriteDelegate.indexCreate( state, labelId, propertyKey );
     }
 
+    @Override
+    public IndexDescriptor indexCreate( KernelStatement state, int labelId, int[] propertyKeyIds )
+            throws AddIndexFailureException, AlreadyIndexedException, AlreadyConstrainedException
+    {
+        state.locks().acquireExclusive( ResourceTypes.SCHEMA, schemaResource() );
+        return schemaWriteDelegate.indexCreate( state, labelId, propertyKeyIds );
+    }
+
     @Override
     public void indexDrop( KernelStatement state, IndexDescriptor descriptor ) throws DropIndexFailureException
     {
@@ -210,15 +218,18 @@ public class LockingStatementOperations implements
     @Override
     public long relationshipCreate( KernelStatement state, int relationshipTypeId, long startNodeId, long endNodeId )
     {
-        // Order the locks to lower the risk of deadlocks with other threads adding rels concurrently
+        // Order the locks to lower the risk of deadlocks with other threads adding rels concurrently, and ask for
+        // both in one go so that lock managers that have to go over the network can do it in a single request
         if(startNodeId < endNodeId)
         {
-            state.locks().acquireExclusive( ResourceTypes.NODE, startNodeId );
-            state.locks().acquireExclusive( ResourceTypes.NODE, endNodeId );
+            state.locks().acquireExclusive( ResourceTypes.NODE, startNodeId, endNodeId );
+        }
+        else if(startNodeId > endNodeId)
+        {
+            state.locks().acquireExclusive( ResourceTypes.NODE, endNodeId, startNodeId );
         }
         else
         {
-            state.locks().acquireExclusive( ResourceTypes.NODE, endNodeId );
             state.locks().acquireExclusive( ResourceTypes.NODE, startNodeId );
         }
         return entityWriteDelegate.relationshipCreate( state, relationshipTypeId, startNodeId, endNodeId );
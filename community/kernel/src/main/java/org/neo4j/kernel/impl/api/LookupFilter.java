@@ -62,6 +62,189 @@ public class LookupFilter
         return indexedNodeIds;
     }
 
+    /** used in "normal" operation */
+    public static PrimitiveLongIterator numberRangeMatches( EntityOperations operations, KernelStatement state,
+            PrimitiveLongIterator indexedNodeIds, int propertyKeyId,
+            final Number lower, final boolean includeLower, final Number upper, final boolean includeUpper )
+    {
+        return PrimitiveLongCollections.filter( indexedNodeIds,
+                new OperationsBasedValueMatchPredicate( operations, state, propertyKeyId )
+                {
+                    @Override
+                    boolean matches( Object value )
+                    {
+                        return numberInRange( value, lower, includeLower, upper, includeUpper );
+                    }
+                } );
+    }
+
+    /** used in "normal" operation */
+    public static PrimitiveLongIterator stringRangeMatches( EntityOperations operations, KernelStatement state,
+            PrimitiveLongIterator indexedNodeIds, int propertyKeyId,
+            final String lower, final boolean includeLower, final String upper, final boolean includeUpper )
+    {
+        return PrimitiveLongCollections.filter( indexedNodeIds,
+                new OperationsBasedValueMatchPredicate( operations, state, propertyKeyId )
+                {
+                    @Override
+                    boolean matches( Object value )
+                    {
+                        return stringInRange( value, lower, includeLower, upper, includeUpper );
+                    }
+                } );
+    }
+
+    /** used in "normal" operation */
+    public static PrimitiveLongIterator stringPrefixMatches( EntityOperations operations, KernelStatement state,
+            PrimitiveLongIterator indexedNodeIds, int propertyKeyId, final String prefix )
+    {
+        return PrimitiveLongCollections.filter( indexedNodeIds,
+                new OperationsBasedValueMatchPredicate( operations, state, propertyKeyId )
+                {
+                    @Override
+                    boolean matches( Object value )
+                    {
+                        return stringHasPrefix( value, prefix );
+                    }
+                } );
+    }
+
+    /** used by composite index seeks in "normal" operation */
+    public static PrimitiveLongIterator compositeMatches( EntityOperations operations, KernelStatement state,
+            PrimitiveLongIterator indexedNodeIds, int labelId, int[] propertyKeyIds, Object[] leadingValues )
+    {
+        return PrimitiveLongCollections.filter( indexedNodeIds,
+                compositeMatch( operations, state, labelId, propertyKeyIds, leadingValues ) );
+    }
+
+    /**
+     * A predicate accepting the nodes that have the label and all the property keys of a composite index, and
+     * whose values of the leading keys are equal to {@code leadingValues}.
+     */
+    public static PrimitiveLongPredicate compositeMatch( final EntityReadOperations readOperations,
+            final KernelStatement state, final int labelId, final int[] propertyKeyIds, final Object[] leadingValues )
+    {
+        return new PrimitiveLongPredicate()
+        {
+            @Override
+            public boolean accept( long nodeId )
+            {
+                try
+                {
+                    if ( !readOperations.nodeHasLabel( state, nodeId, labelId ) )
+                    {
+                        return false;
+                    }
+                    for ( int i = 0; i < propertyKeyIds.length; i++ )
+                    {
+                        Property property = readOperations.nodeGetProperty( state, nodeId, propertyKeyIds[i] );
+                        if ( !property.isDefined() ||
+                             (i < leadingValues.length && !property.valueEquals( leadingValues[i] )) )
+                        {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+                catch ( EntityNotFoundException e )
+                {
+                    throw new ThisShouldNotHappenError( "Chris", "An index claims a node by id " + nodeId
+                            + " has the values. However, it looks like that node does not exist.", e );
+                }
+            }
+        };
+    }
+
+    /**
+     * @return whether or not {@code value} is a number within the given bounds, where a {@code null} bound
+     * means unbounded in that direction. Integral numbers are compared exactly, others as doubles.
+     */
+    public static boolean numberInRange( Object value, Number lower, boolean includeLower,
+            Number upper, boolean includeUpper )
+    {
+        if ( !(value instanceof Number) )
+        {
+            return false;
+        }
+        Number number = (Number) value;
+        if ( lower != null )
+        {
+            int comparison = compareNumbers( number, lower );
+            if ( comparison < 0 || (comparison == 0 && !includeLower) )
+            {
+                return false;
+            }
+        }
+        if ( upper != null )
+        {
+            int comparison = compareNumbers( number, upper );
+            if ( comparison > 0 || (comparison == 0 && !includeUpper) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return whether or not {@code value} is a string, or a char, within the given bounds, where a {@code null}
+     * bound means unbounded in that direction.
+     */
+    public static boolean stringInRange( Object value, String lower, boolean includeLower,
+            String upper, boolean includeUpper )
+    {
+        if ( !isStringOrChar( value ) )
+        {
+            return false;
+        }
+        String string = value.toString();
+        if ( lower != null )
+        {
+            int comparison = string.compareTo( lower );
+            if ( comparison < 0 || (comparison == 0 && !includeLower) )
+            {
+                return false;
+            }
+        }
+        if ( upper != null )
+        {
+            int comparison = string.compareTo( upper );
+            if ( comparison > 0 || (comparison == 0 && !includeUpper) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return whether or not {@code value} is a string, or a char, starting with {@code prefix}.
+     */
+    public static boolean stringHasPrefix( Object value, String prefix )
+    {
+        return isStringOrChar( value ) && value.toString().startsWith( prefix );
+    }
+
+    private static boolean isStringOrChar( Object value )
+    {
+        return value instanceof String || value instanceof Character;
+    }
+
+    private static int compareNumbers( Number left, Number right )
+    {
+        if ( isIntegral( left ) && isIntegral( right ) )
+        {
+            return Long.compare( left.longValue(), right.longValue() );
+        }
+        return Double.compare( left.doubleValue(), right.doubleValue() );
+    }
+
+    private static boolean isIntegral( Number number )
+    {
+        return number instanceof Long || number instanceof Integer || number instanceof Short ||
+                number instanceof Byte;
+    }
+
     private static boolean isNumberOrArray( Object value )
     {
         return value instanceof Number || value.getClass().isArray();
@@ -116,6 +299,38 @@ public class LookupFilter
         }
     }
 
+    /** used by range and prefix seeks in "normal" operation */
+    private static abstract class OperationsBasedValueMatchPredicate implements PrimitiveLongPredicate
+    {
+        final EntityReadOperations readOperations;
+        final KernelStatement state;
+        final int propertyKeyId;
+
+        OperationsBasedValueMatchPredicate( EntityReadOperations readOperations, KernelStatement state,
+                int propertyKeyId )
+        {
+            this.readOperations = readOperations;
+            this.state = state;
+            this.propertyKeyId = propertyKeyId;
+        }
+
+        @Override
+        public boolean accept( long nodeId )
+        {
+            try
+            {
+                return matches( readOperations.nodeGetProperty( state, nodeId, propertyKeyId ).value( null ) );
+            }
+            catch ( EntityNotFoundException e )
+            {
+                throw new ThisShouldNotHappenError( "Chris", "An index claims a node by id " + nodeId
+                        + " has a value in the range. However, it looks like that node does not exist.", e );
+            }
+        }
+
+        abstract boolean matches( Object value );
+    }
+
     /** used by CC */
     private static class LookupBasedExactMatchPredicate extends BaseExactMatchPredicate
     {
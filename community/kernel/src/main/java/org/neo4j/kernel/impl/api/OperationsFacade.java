@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.impl.api;
 
+import java.util.Arrays;
 import java.util.Iterator;
 
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
@@ -28,6 +29,7 @@ import org.neo4j.graphdb.Direction;
 import org.neo4j.helpers.Function;
 import org.neo4j.kernel.api.DataWriteOperations;
 import org.neo4j.kernel.api.ReadOperations;
+import org.neo4j.kernel.api.RelationshipVisitor;
 import org.neo4j.kernel.api.SchemaWriteOperations;
 import org.neo4j.kernel.api.StatementConstants;
 import org.neo4j.kernel.api.constraints.UniquenessConstraint;
@@ -125,6 +127,36 @@ public class OperationsFacade implements ReadOperations, DataWriteOperations, Sc
         return dataRead().nodesGetForLabel( statement, labelId );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetForAllLabels( int... labelIds )
+    {
+        statement.assertOpen();
+        for ( int labelId : labelIds )
+        {
+            if ( labelId == StatementConstants.NO_SUCH_LABEL )
+            {
+                return PrimitiveLongCollections.emptyIterator();
+            }
+        }
+        return dataRead().nodesGetForAllLabels( statement, labelIds );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetForAnyLabel( int... labelIds )
+    {
+        statement.assertOpen();
+        int[] existingLabelIds = new int[labelIds.length];
+        int count = 0;
+        for ( int labelId : labelIds )
+        {
+            if ( labelId != StatementConstants.NO_SUCH_LABEL )
+            {
+                existingLabelIds[count++] = labelId;
+            }
+        }
+        return dataRead().nodesGetForAnyLabel( statement, Arrays.copyOf( existingLabelIds, count ) );
+    }
+
     @Override
     public PrimitiveLongIterator nodesGetFromIndexLookup( IndexDescriptor index, Object value )
             throws IndexNotFoundKernelException
@@ -133,6 +165,40 @@ public class OperationsFacade implements ReadOperations, DataWriteOperations, Sc
         return dataRead().nodesGetFromIndexLookup( statement, index, value );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByNumber( IndexDescriptor index, Number lower,
+            boolean includeLower, Number upper, boolean includeUpper ) throws IndexNotFoundKernelException
+    {
+        statement.assertOpen();
+        return dataRead().nodesGetFromIndexRangeSeekByNumber( statement, index,
+                lower, includeLower, upper, includeUpper );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByString( IndexDescriptor index, String lower,
+            boolean includeLower, String upper, boolean includeUpper ) throws IndexNotFoundKernelException
+    {
+        statement.assertOpen();
+        return dataRead().nodesGetFromIndexRangeSeekByString( statement, index,
+                lower, includeLower, upper, includeUpper );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByPrefix( IndexDescriptor index, String prefix )
+            throws IndexNotFoundKernelException
+    {
+        statement.assertOpen();
+        return dataRead().nodesGetFromIndexRangeSeekByPrefix( statement, index, prefix );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexCompositeSeek( IndexDescriptor index, Object... leadingValues )
+            throws IndexNotFoundKernelException
+    {
+        statement.assertOpen();
+        return dataRead().nodesGetFromIndexCompositeSeek( statement, index, leadingValues );
+    }
+
     @Override
     public long nodeGetUniqueFromIndexLookup( IndexDescriptor index, Object value )
             throws IndexNotFoundKernelException, IndexBrokenKernelException
@@ -214,6 +280,13 @@ public class OperationsFacade implements ReadOperations, DataWriteOperations, Sc
         return dataRead().relationshipGetProperty( statement, relationshipId, propertyKeyId );
     }
 
+    @Override
+    public void relationshipVisit( long relationshipId, RelationshipVisitor visitor ) throws EntityNotFoundException
+    {
+        statement.assertOpen();
+        dataRead().relationshipVisit( statement, relationshipId, visitor );
+    }
+
     @Override
     public Property nodeGetCommittedProperty( long nodeId, int propertyKeyId ) throws EntityNotFoundException
     {
@@ -597,6 +670,14 @@ public class OperationsFacade implements ReadOperations, DataWriteOperations, Sc
         return schemaWrite().indexCreate( statement, labelId, propertyKeyId );
     }
 
+    @Override
+    public IndexDescriptor indexCreate( int labelId, int[] propertyKeyIds )
+            throws AddIndexFailureException, AlreadyIndexedException, AlreadyConstrainedException
+    {
+        statement.assertOpen();
+        return schemaWrite().indexCreate( statement, labelId, propertyKeyIds );
+    }
+
     @Override
     public void indexDrop( IndexDescriptor descriptor ) throws DropIndexFailureException
     {
@@ -29,9 +29,12 @@ import org.neo4j.collection.primitive.PrimitiveIntCollections;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.collection.primitive.PrimitiveLongCollections;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.function.primitive.PrimitiveLongPredicate;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.helpers.Predicate;
+import org.neo4j.helpers.ThisShouldNotHappenError;
 import org.neo4j.kernel.api.EntityType;
+import org.neo4j.kernel.api.RelationshipVisitor;
 import org.neo4j.kernel.api.Statement;
 import org.neo4j.kernel.api.TxState;
 import org.neo4j.kernel.api.constraints.UniquenessConstraint;
@@ -59,9 +62,11 @@ import org.neo4j.kernel.impl.api.operations.KeyWriteOperations;
 import org.neo4j.kernel.impl.api.operations.SchemaReadOperations;
 import org.neo4j.kernel.impl.api.operations.SchemaWriteOperations;
 import org.neo4j.kernel.impl.api.state.ConstraintIndexCreator;
+import org.neo4j.kernel.impl.api.state.NodeState;
 import org.neo4j.kernel.impl.api.store.StoreReadLayer;
 import org.neo4j.kernel.impl.core.Token;
 import org.neo4j.kernel.impl.nioneo.store.SchemaStorage;
+import org.neo4j.kernel.impl.util.DiffApplyingPrimitiveLongIterator;
 import org.neo4j.kernel.impl.util.DiffSets;
 import org.neo4j.kernel.impl.util.PrimitiveLongResourceIterator;
 
@@ -158,7 +163,7 @@ public class StateHandlingStatementOperations implements
         {
             try
             {
-                storeLayer.visit( relationshipId, new StoreReadLayer.RelationshipVisitor()
+                storeLayer.visit( relationshipId, new RelationshipVisitor()
                 {
                     @Override
                     public void visit( long relId, long startNode, long endNode, int type )
@@ -310,6 +315,129 @@ public class StateHandlingStatementOperations implements
         return storeLayer.nodesGetForLabel( state, labelId );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetForAllLabels( final KernelStatement state, final int... labelIds )
+    {
+        PrimitiveLongIterator committed = storeLayer.nodesGetForAllLabels( state, labelIds );
+        if ( !state.hasTxStateWithChanges() || labelIds.length == 0 )
+        {
+            return committed;
+        }
+
+        // A committed node still has all the labels unless this transaction removed one of them or the node itself
+        PrimitiveLongIterator stillMatching = PrimitiveLongCollections.filter(
+                state.txState().addedAndRemovedNodes().augmentWithRemovals( committed ),
+                new PrimitiveLongPredicate()
+                {
+                    @Override
+                    public boolean accept( long nodeId )
+                    {
+                        for ( int labelId : labelIds )
+                        {
+                            if ( state.txState().nodesWithLabelChanged( labelId ).isRemoved( nodeId ) )
+                            {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                } );
+
+        // Nodes given one of the labels in this transaction didn't have all of them before, so there are no
+        // duplicates between these and the committed ones
+        Set<Long> added = new HashSet<>();
+        for ( int labelId : labelIds )
+        {
+            for ( Long nodeId : state.txState().nodesWithLabelChanged( labelId ).getAdded() )
+            {
+                if ( nodeHasLabels( state, nodeId, labelIds, true ) )
+                {
+                    added.add( nodeId );
+                }
+            }
+        }
+        return new DiffApplyingPrimitiveLongIterator( stillMatching, added, Collections.<Long>emptySet() );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetForAnyLabel( final KernelStatement state, final int... labelIds )
+    {
+        PrimitiveLongIterator committed = storeLayer.nodesGetForAnyLabel( state, labelIds );
+        if ( !state.hasTxStateWithChanges() || labelIds.length == 0 )
+        {
+            return committed;
+        }
+
+        // Only committed nodes that this transaction removed one of the labels from need looking at more closely
+        PrimitiveLongIterator stillMatching = PrimitiveLongCollections.filter(
+                state.txState().addedAndRemovedNodes().augmentWithRemovals( committed ),
+                new PrimitiveLongPredicate()
+                {
+                    @Override
+                    public boolean accept( long nodeId )
+                    {
+                        for ( int labelId : labelIds )
+                        {
+                            if ( state.txState().nodesWithLabelChanged( labelId ).isRemoved( nodeId ) )
+                            {
+                                return nodeHasLabels( state, nodeId, labelIds, false );
+                            }
+                        }
+                        return true;
+                    }
+                } );
+
+        // Nodes given one of the labels in this transaction, which didn't have any of the labels before and
+        // therefore aren't among the committed ones
+        Set<Long> added = new HashSet<>();
+        for ( int labelId : labelIds )
+        {
+            for ( Long nodeId : state.txState().nodesWithLabelChanged( labelId ).getAdded() )
+            {
+                if ( !state.txState().nodeIsDeletedInThisTx( nodeId ) &&
+                     !hadAnyOfLabelsBeforeThisTx( state, nodeId, labelIds ) )
+                {
+                    added.add( nodeId );
+                }
+            }
+        }
+        return new DiffApplyingPrimitiveLongIterator( stillMatching, added, Collections.<Long>emptySet() );
+    }
+
+    private boolean nodeHasLabels( KernelStatement state, long nodeId, int[] labelIds, boolean all )
+    {
+        try
+        {
+            for ( int labelId : labelIds )
+            {
+                if ( nodeHasLabel( state, nodeId, labelId ) != all )
+                {
+                    return !all;
+                }
+            }
+            return all;
+        }
+        catch ( EntityNotFoundException e )
+        {
+            throw new ThisShouldNotHappenError( "Chris", "Labels were changed on node " + nodeId +
+                    " in this transaction. However, it looks like that node does not exist.", e );
+        }
+    }
+
+    private boolean hadAnyOfLabelsBeforeThisTx( KernelStatement state, long nodeId, int[] labelIds )
+    {
+        for ( int labelId : labelIds )
+        {
+            DiffSets<Long> changes = state.txState().nodesWithLabelChanged( labelId );
+            if ( changes.isRemoved( nodeId ) ||
+                 (!changes.isAdded( nodeId ) && nodeHasLabels( state, nodeId, new int[]{labelId}, true )) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public IndexDescriptor indexCreate( KernelStatement state, int labelId, int propertyKey )
     {
@@ -318,6 +446,14 @@ public class StateHandlingStatementOperations implements
         return rule;
     }
 
+    @Override
+    public IndexDescriptor indexCreate( KernelStatement state, int labelId, int[] propertyKeyIds )
+    {
+        IndexDescriptor rule = new IndexDescriptor( labelId, propertyKeyIds );
+        state.txState().indexRuleDoAdd( rule );
+        return rule;
+    }
+
     @Override
     public void indexDrop( KernelStatement state, IndexDescriptor descriptor ) throws DropIndexFailureException
     {
@@ -470,7 +606,7 @@ public class StateHandlingStatementOperations implements
             @Override
             public boolean accept( IndexDescriptor item )
             {
-                return item.getPropertyKeyId() == propertyKey;
+                return !item.isComposite() && item.getPropertyKeyId() == propertyKey;
             }
         };
         return filter( predicate, descriptorIterator );
@@ -581,6 +717,99 @@ public class StateHandlingStatementOperations implements
         return resourceIterator( changeFilteredMatches, committed );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByNumber( KernelStatement state, IndexDescriptor index,
+            Number lower, boolean includeLower, Number upper, boolean includeUpper )
+            throws IndexNotFoundKernelException
+    {
+        PrimitiveLongResourceIterator committed = storeLayer.nodesGetFromIndexRangeSeekByNumber( state, index,
+                lower, includeLower, upper, includeUpper );
+        PrimitiveLongIterator matches = LookupFilter.numberRangeMatches( this, state,
+                withoutRemovedNodes( state, committed ), index.getPropertyKeyId(),
+                lower, includeLower, upper, includeUpper );
+        Set<Long> added = state.hasTxStateWithChanges() ? state.txState().indexUpdatesAddedForRangeSeekByNumber(
+                index, lower, includeLower, upper, includeUpper ) : Collections.<Long>emptySet();
+        return resourceIterator( withAddedNodes( matches, added ), committed );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByString( KernelStatement state, IndexDescriptor index,
+            String lower, boolean includeLower, String upper, boolean includeUpper )
+            throws IndexNotFoundKernelException
+    {
+        PrimitiveLongResourceIterator committed = storeLayer.nodesGetFromIndexRangeSeekByString( state, index,
+                lower, includeLower, upper, includeUpper );
+        PrimitiveLongIterator matches = LookupFilter.stringRangeMatches( this, state,
+                withoutRemovedNodes( state, committed ), index.getPropertyKeyId(),
+                lower, includeLower, upper, includeUpper );
+        Set<Long> added = state.hasTxStateWithChanges() ? state.txState().indexUpdatesAddedForRangeSeekByString(
+                index, lower, includeLower, upper, includeUpper ) : Collections.<Long>emptySet();
+        return resourceIterator( withAddedNodes( matches, added ), committed );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByPrefix( KernelStatement state, IndexDescriptor index,
+            String prefix ) throws IndexNotFoundKernelException
+    {
+        PrimitiveLongResourceIterator committed = storeLayer.nodesGetFromIndexRangeSeekByPrefix( state, index,
+                prefix );
+        PrimitiveLongIterator matches = LookupFilter.stringPrefixMatches( this, state,
+                withoutRemovedNodes( state, committed ), index.getPropertyKeyId(), prefix );
+        Set<Long> added = state.hasTxStateWithChanges() ?
+                state.txState().indexUpdatesAddedForRangeSeekByPrefix( index, prefix ) :
+                Collections.<Long>emptySet();
+        return resourceIterator( withAddedNodes( matches, added ), committed );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexCompositeSeek( KernelStatement state, IndexDescriptor index,
+            Object... leadingValues ) throws IndexNotFoundKernelException
+    {
+        PrimitiveLongResourceIterator committed = storeLayer.nodesGetFromIndexCompositeSeek( state, index,
+                leadingValues );
+        PrimitiveLongIterator matches = LookupFilter.compositeMatches( this, state,
+                withoutRemovedNodes( state, committed ), index.getLabelId(), index.getPropertyKeyIds(),
+                leadingValues );
+        Set<Long> added = state.hasTxStateWithChanges() ?
+                compositeMatchesInTxState( state, index, leadingValues ) : Collections.<Long>emptySet();
+        return resourceIterator( withAddedNodes( matches, added ), committed );
+    }
+
+    /**
+     * The transaction state does not keep updates for composite indexes, so the nodes changed in this transaction
+     * are matched against the composite index instead.
+     */
+    private Set<Long> compositeMatchesInTxState( KernelStatement state, IndexDescriptor index,
+            Object[] leadingValues )
+    {
+        PrimitiveLongPredicate matches = LookupFilter.compositeMatch( this, state, index.getLabelId(),
+                index.getPropertyKeyIds(), leadingValues );
+        Set<Long> result = new HashSet<>();
+        for ( NodeState node : state.txState().modifiedNodes() )
+        {
+            long nodeId = node.getId();
+            if ( !state.txState().nodeIsDeletedInThisTx( nodeId ) && matches.accept( nodeId ) )
+            {
+                result.add( nodeId );
+            }
+        }
+        return result;
+    }
+
+    private PrimitiveLongIterator withoutRemovedNodes( KernelStatement state, PrimitiveLongIterator nodeIds )
+    {
+        // Nodes whose value moved out of the range are taken care of by the value filter that follows,
+        // since it reads the transaction state aware property value.
+        return state.hasTxStateWithChanges() ?
+                state.txState().addedAndRemovedNodes().augmentWithRemovals( nodeIds ) : nodeIds;
+    }
+
+    private PrimitiveLongIterator withAddedNodes( PrimitiveLongIterator nodeIds, Set<Long> added )
+    {
+        return added.isEmpty() ? nodeIds :
+                new DiffApplyingPrimitiveLongIterator( nodeIds, added, Collections.<Long>emptySet() );
+    }
+
     private PrimitiveLongIterator filterExactIndexMatches( final KernelStatement state, IndexDescriptor index,
             Object value, PrimitiveLongResourceIterator committed )
     {
@@ -803,6 +1032,26 @@ public class StateHandlingStatementOperations implements
         return storeLayer.relationshipGetProperty( relationshipId, propertyKeyId );
     }
 
+    @Override
+    public void relationshipVisit( KernelStatement state, long relationshipId, RelationshipVisitor visitor )
+            throws EntityNotFoundException
+    {
+        if ( state.hasTxStateWithChanges() )
+        {
+            TxState txState = state.txState();
+            if ( txState.relationshipIsDeletedInThisTx( relationshipId ) )
+            {
+                throw new EntityNotFoundException( EntityType.RELATIONSHIP, relationshipId );
+            }
+            if ( txState.relationshipIsAddedInThisTx( relationshipId ) )
+            {
+                txState.relationshipVisit( relationshipId, visitor );
+                return;
+            }
+        }
+        storeLayer.visit( relationshipId, visitor );
+    }
+
     @Override
     public Property nodeGetCommittedProperty( KernelStatement statement, long nodeId, int propertyKeyId )
             throws EntityNotFoundException
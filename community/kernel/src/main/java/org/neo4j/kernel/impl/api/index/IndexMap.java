@@ -19,8 +19,11 @@
  */
 package org.neo4j.kernel.impl.api.index;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.neo4j.helpers.BiConsumer;
@@ -36,16 +39,21 @@ public final class IndexMap implements Cloneable
 {
     private final Map<Long, IndexProxy> indexesById;
     private final Map<IndexDescriptor, IndexProxy> indexesByDescriptor;
+    // The lists are never modified, only replaced, so that a shallow clone of this map is enough
+    private final Map<Integer, List<IndexDescriptor>> compositeDescriptorsByLabel;
 
     public IndexMap()
     {
-        this( new HashMap<Long, IndexProxy>(), new HashMap<IndexDescriptor, IndexProxy>() );
+        this( new HashMap<Long, IndexProxy>(), new HashMap<IndexDescriptor, IndexProxy>(),
+              new HashMap<Integer, List<IndexDescriptor>>() );
     }
 
-    private IndexMap( Map<Long, IndexProxy> indexesById, Map<IndexDescriptor, IndexProxy> indexesByDescriptor )
+    private IndexMap( Map<Long, IndexProxy> indexesById, Map<IndexDescriptor, IndexProxy> indexesByDescriptor,
+                      Map<Integer, List<IndexDescriptor>> compositeDescriptorsByLabel )
     {
         this.indexesById = indexesById;
         this.indexesByDescriptor = indexesByDescriptor;
+        this.compositeDescriptorsByLabel = compositeDescriptorsByLabel;
     }
 
     public IndexProxy getIndexProxy( long indexId )
@@ -61,7 +69,14 @@ public final class IndexMap implements Cloneable
     public void putIndexProxy( long indexId, IndexProxy indexProxy )
     {
         indexesById.put( indexId, indexProxy );
-        indexesByDescriptor.put( indexProxy.getDescriptor(), indexProxy );
+        IndexProxy previous = indexesByDescriptor.put( indexProxy.getDescriptor(), indexProxy );
+        if ( previous == null && indexProxy.getDescriptor().isComposite() )
+        {
+            IndexDescriptor descriptor = indexProxy.getDescriptor();
+            List<IndexDescriptor> composites = new ArrayList<>( getCompositeDescriptors( descriptor.getLabelId() ) );
+            composites.add( descriptor );
+            compositeDescriptorsByLabel.put( descriptor.getLabelId(), composites );
+        }
     }
 
     public IndexProxy removeIndexProxy( long indexId )
@@ -69,7 +84,21 @@ public final class IndexMap implements Cloneable
         IndexProxy removedProxy = indexesById.remove( indexId );
         if ( null != removedProxy )
         {
-            indexesByDescriptor.remove( removedProxy.getDescriptor() );
+            IndexDescriptor descriptor = removedProxy.getDescriptor();
+            indexesByDescriptor.remove( descriptor );
+            if ( descriptor.isComposite() )
+            {
+                List<IndexDescriptor> composites = new ArrayList<>( getCompositeDescriptors( descriptor.getLabelId() ) );
+                composites.remove( descriptor );
+                if ( composites.isEmpty() )
+                {
+                    compositeDescriptorsByLabel.remove( descriptor.getLabelId() );
+                }
+                else
+                {
+                    compositeDescriptorsByLabel.put( descriptor.getLabelId(), composites );
+                }
+            }
         }
         return removedProxy;
     }
@@ -90,7 +119,8 @@ public final class IndexMap implements Cloneable
     @Override
     public IndexMap clone()
     {
-        return new IndexMap( cloneMap( indexesById ), cloneMap( indexesByDescriptor ) );
+        return new IndexMap( cloneMap( indexesById ), cloneMap( indexesByDescriptor ),
+                             cloneMap( compositeDescriptorsByLabel ) );
     }
 
     private <K, V> Map<K, V> cloneMap( Map<K, V> map )
@@ -105,6 +135,15 @@ public final class IndexMap implements Cloneable
         return indexesByDescriptor.keySet().iterator();
     }
 
+    /**
+     * @return the composite indexes on the given label, which need to hear about changes to any of their keys.
+     */
+    public List<IndexDescriptor> getCompositeDescriptors( int labelId )
+    {
+        List<IndexDescriptor> composites = compositeDescriptorsByLabel.get( labelId );
+        return composites == null ? Collections.<IndexDescriptor>emptyList() : composites;
+    }
+
     public int size()
     {
         return indexesById.size();
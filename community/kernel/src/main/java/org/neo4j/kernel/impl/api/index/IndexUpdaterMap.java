@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -72,6 +73,11 @@ public class IndexUpdaterMap implements AutoCloseable, Iterable<IndexUpdater>
         return updater;
     }
 
+    public List<IndexDescriptor> getCompositeDescriptors( int labelId )
+    {
+        return indexMap.getCompositeDescriptors( labelId );
+    }
+
     @Override
     public void close() throws UnderlyingStorageException
     {
@@ -22,26 +22,34 @@ package org.neo4j.kernel.impl.api.index;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.helpers.BiConsumer;
 import org.neo4j.helpers.Pair;
 import org.neo4j.helpers.collection.Iterables;
 import org.neo4j.kernel.api.TokenNameLookup;
+import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
+import org.neo4j.kernel.api.exceptions.PropertyNotFoundException;
 import org.neo4j.kernel.api.exceptions.index.IndexActivationFailedKernelException;
 import org.neo4j.kernel.api.exceptions.index.IndexCapacityExceededException;
 import org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException;
 import org.neo4j.kernel.api.exceptions.index.IndexPopulationFailedKernelException;
 import org.neo4j.kernel.api.exceptions.schema.ConstraintVerificationFailedKernelException;
+import org.neo4j.kernel.api.index.CompositeValue;
 import org.neo4j.kernel.api.index.IndexAccessor;
 import org.neo4j.kernel.api.index.IndexConfiguration;
 import org.neo4j.kernel.api.index.IndexDescriptor;
@@ -50,6 +58,7 @@ import org.neo4j.kernel.api.index.IndexPopulator;
 import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
+import org.neo4j.kernel.api.index.PropertyAccessor;
 import org.neo4j.kernel.api.index.Reservation;
 import org.neo4j.kernel.api.index.SchemaIndexProvider;
 import org.neo4j.kernel.api.index.SchemaIndexProvider.Descriptor;
@@ -96,6 +105,7 @@ public class IndexingService extends LifecycleAdapter
     private final StringLogger logger;
     private final UpdateableSchemaState updateableSchemaState;
     private final Set<Long> recoveredNodeIds = new HashSet<>();
+    private final ConcurrentMap<IndexDescriptor, AtomicLong> updateCounts = new ConcurrentHashMap<>();
     private final Monitor monitor;
 
     enum State
@@ -375,7 +385,7 @@ public class IndexingService extends LifecycleAdapter
             try
             {
                 Map<IndexDescriptor,List<NodePropertyUpdate>> updatesByIndex = groupUpdatesByIndexDescriptor(
-                        updates, updaterMap );
+                        updates, updaterMap, storeView );
 
                 if ( updatesByIndex.isEmpty() )
                 {
@@ -459,7 +469,7 @@ public class IndexingService extends LifecycleAdapter
         };
     }
 
-    private static ValidatedIndexUpdates newValidatedIndexUpdates( final IndexUpdates indexUpdates,
+    private ValidatedIndexUpdates newValidatedIndexUpdates( final IndexUpdates indexUpdates,
             final IndexUpdaterMap indexUpdaters, final Map<IndexDescriptor,List<NodePropertyUpdate>> updatesByIndex,
             final Reservation reservation )
     {
@@ -478,6 +488,7 @@ public class IndexingService extends LifecycleAdapter
                     {
                         updater.process( update );
                     }
+                    countUpdates( indexDescriptor, updates.size() );
                 }
             }
 
@@ -526,6 +537,28 @@ public class IndexingService extends LifecycleAdapter
         }
     }
 
+    /**
+     * @return the number of updates applied to the given index since the previous call to this method, which
+     * is what index sampling uses for telling when an index has changed enough to be sampled again.
+     */
+    public long takeUpdateCount( IndexDescriptor descriptor )
+    {
+        AtomicLong count = updateCounts.get( descriptor );
+        return count == null ? 0 : count.getAndSet( 0 );
+    }
+
+    private void countUpdates( IndexDescriptor descriptor, int updates )
+    {
+        AtomicLong count = updateCounts.get( descriptor );
+        if ( count == null )
+        {
+            AtomicLong newCount = new AtomicLong();
+            count = updateCounts.putIfAbsent( descriptor, newCount );
+            count = count == null ? newCount : count;
+        }
+        count.addAndGet( updates );
+    }
+
     protected void applyRecoveredUpdates() throws IOException
     {
         logger.debug( "Applying recovered updates: " + recoveredNodeIds );
@@ -578,7 +611,7 @@ public class IndexingService extends LifecycleAdapter
     }
 
     private static Map<IndexDescriptor,List<NodePropertyUpdate>> groupUpdatesByIndexDescriptor(
-            Iterable<NodePropertyUpdate> updates, IndexUpdaterMap updaterMap )
+            Iterable<NodePropertyUpdate> updates, IndexUpdaterMap updaterMap, PropertyAccessor propertyAccessor )
     {
         int numberOfIndexes = updaterMap.numberOfIndexes();
         Map<IndexDescriptor,List<NodePropertyUpdate>> updatesByIndex = new HashMap<>( numberOfIndexes, 1 );
@@ -635,9 +668,127 @@ public class IndexingService extends LifecycleAdapter
             }
         }
 
+        for ( Map.Entry<IndexDescriptor,List<NodePropertyUpdate>> entry : updatesByIndex.entrySet() )
+        {
+            if ( entry.getKey().isComposite() )
+            {
+                entry.setValue( compositeUpdates( entry.getKey(), entry.getValue(), propertyAccessor ) );
+            }
+        }
+
         return updatesByIndex;
     }
 
+    /**
+     * Turns the updates to the individual property keys of a composite index into updates of the
+     * {@link CompositeValue composite values} of the nodes. Keys that are not changed by the updates have the
+     * same value before and after them, so they are read from the store.
+     */
+    private static List<NodePropertyUpdate> compositeUpdates( IndexDescriptor descriptor,
+            List<NodePropertyUpdate> propertyUpdates, PropertyAccessor propertyAccessor )
+    {
+        int[] propertyKeyIds = descriptor.getPropertyKeyIds();
+        long[] labels = new long[]{descriptor.getLabelId()};
+        Map<Long,List<NodePropertyUpdate>> updatesByNode = new LinkedHashMap<>();
+        for ( NodePropertyUpdate update : propertyUpdates )
+        {
+            List<NodePropertyUpdate> nodeUpdates = updatesByNode.get( update.getNodeId() );
+            if ( nodeUpdates == null )
+            {
+                updatesByNode.put( update.getNodeId(), nodeUpdates = new ArrayList<>() );
+            }
+            nodeUpdates.add( update );
+        }
+
+        List<NodePropertyUpdate> result = new ArrayList<>( updatesByNode.size() );
+        for ( Map.Entry<Long,List<NodePropertyUpdate>> entry : updatesByNode.entrySet() )
+        {
+            long nodeId = entry.getKey();
+            Object[] before = new Object[propertyKeyIds.length];
+            Object[] after = new Object[propertyKeyIds.length];
+            boolean[] updated = new boolean[propertyKeyIds.length];
+            for ( NodePropertyUpdate update : entry.getValue() )
+            {
+                int i = indexOf( propertyKeyIds, update.getPropertyKeyId() );
+                updated[i] = true;
+                switch ( update.getUpdateMode() )
+                {
+                case ADDED:
+                    after[i] = update.getValueAfter();
+                    break;
+                case REMOVED:
+                    before[i] = update.getValueBefore();
+                    break;
+                case CHANGED:
+                    before[i] = update.getValueBefore();
+                    after[i] = update.getValueAfter();
+                    break;
+                }
+            }
+            for ( int i = 0; i < propertyKeyIds.length; i++ )
+            {
+                if ( !updated[i] )
+                {
+                    before[i] = after[i] = propertyValueOrNull( propertyAccessor, nodeId, propertyKeyIds[i] );
+                }
+            }
+
+            CompositeValue valueBefore = compositeValueOrNull( before );
+            CompositeValue valueAfter = compositeValueOrNull( after );
+            if ( valueBefore == null && valueAfter != null )
+            {
+                result.add( NodePropertyUpdate.add( nodeId, propertyKeyIds[0], valueAfter, labels ) );
+            }
+            else if ( valueBefore != null && valueAfter == null )
+            {
+                result.add( NodePropertyUpdate.remove( nodeId, propertyKeyIds[0], valueBefore, labels ) );
+            }
+            else if ( valueBefore != null && !valueBefore.equals( valueAfter ) )
+            {
+                result.add( NodePropertyUpdate.change( nodeId, propertyKeyIds[0], valueBefore, labels,
+                        valueAfter, labels ) );
+            }
+        }
+        return result;
+    }
+
+    private static int indexOf( int[] propertyKeyIds, int propertyKeyId )
+    {
+        for ( int i = 0; i < propertyKeyIds.length; i++ )
+        {
+            if ( propertyKeyIds[i] == propertyKeyId )
+            {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException( "Property key " + propertyKeyId + " is not one of " +
+                                            Arrays.toString( propertyKeyIds ) );
+    }
+
+    private static Object propertyValueOrNull( PropertyAccessor propertyAccessor, long nodeId, int propertyKeyId )
+    {
+        try
+        {
+            return propertyAccessor.getProperty( nodeId, propertyKeyId ).value();
+        }
+        catch ( EntityNotFoundException | PropertyNotFoundException e )
+        {
+            return null;
+        }
+    }
+
+    private static CompositeValue compositeValueOrNull( Object[] values )
+    {
+        for ( Object value : values )
+        {
+            if ( value == null )
+            {
+                return null;
+            }
+        }
+        return new CompositeValue( values );
+    }
+
     private static void storeUpdateIfIndexExists( IndexUpdaterMap updaterMap, NodePropertyUpdate update,
             int propertyKeyId, int labelId, Map<IndexDescriptor,List<NodePropertyUpdate>> updatesByIndex )
     {
@@ -645,19 +796,37 @@ public class IndexingService extends LifecycleAdapter
         IndexUpdater updater = updaterMap.getUpdater( descriptor );
         if ( updater != null )
         {
-            List<NodePropertyUpdate> indexUpdates = updatesByIndex.get( descriptor );
-            if ( indexUpdates == null )
+            storeUpdate( update, descriptor, updatesByIndex );
+        }
+        for ( IndexDescriptor composite : updaterMap.getCompositeDescriptors( labelId ) )
+        {
+            for ( int compositePropertyKeyId : composite.getPropertyKeyIds() )
             {
-                updatesByIndex.put( descriptor, indexUpdates = new ArrayList<>() );
+                if ( compositePropertyKeyId == propertyKeyId )
+                {
+                    storeUpdate( update, composite, updatesByIndex );
+                    break;
+                }
             }
-            indexUpdates.add( update );
         }
     }
 
+    private static void storeUpdate( NodePropertyUpdate update, IndexDescriptor descriptor,
+            Map<IndexDescriptor,List<NodePropertyUpdate>> updatesByIndex )
+    {
+        List<NodePropertyUpdate> indexUpdates = updatesByIndex.get( descriptor );
+        if ( indexUpdates == null )
+        {
+            updatesByIndex.put( descriptor, indexUpdates = new ArrayList<>() );
+        }
+        indexUpdates.add( update );
+    }
+
     public void dropIndex( IndexRule rule )
     {
         long indexId = rule.getId();
         IndexProxy index = indexMapReference.removeIndexProxy( indexId );
+        updateCounts.remove( createDescriptor( rule ) );
         if ( state == State.RUNNING )
         {
             assert index != null : "Index " + rule + " doesn't exists";
@@ -792,7 +961,7 @@ public class IndexingService extends LifecycleAdapter
 
     private IndexDescriptor createDescriptor( IndexRule rule )
     {
-        return new IndexDescriptor( rule.getLabel(), rule.getPropertyKey() );
+        return new IndexDescriptor( rule.getLabel(), rule.getPropertyKeys() );
     }
 
     private void awaitIndexFuture( Future<Void> future ) throws Exception
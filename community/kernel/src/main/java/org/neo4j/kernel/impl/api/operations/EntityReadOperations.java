@@ -24,6 +24,7 @@ import java.util.Iterator;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.api.RelationshipVisitor;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException;
 import org.neo4j.kernel.api.exceptions.schema.IndexBrokenKernelException;
@@ -42,6 +43,18 @@ public interface EntityReadOperations
      */
     PrimitiveLongIterator nodesGetForLabel( KernelStatement state, int labelId );
 
+    /**
+     * @param labelIds the label ids of the labels that returned nodes are guaranteed to all have
+     * @return ids of all nodes that have all of the given labels
+     */
+    PrimitiveLongIterator nodesGetForAllLabels( KernelStatement state, int... labelIds );
+
+    /**
+     * @param labelIds the label ids of the labels that returned nodes are guaranteed to have at least one of
+     * @return ids of all nodes that have any of the given labels
+     */
+    PrimitiveLongIterator nodesGetForAnyLabel( KernelStatement state, int... labelIds );
+
     /**
      * Returns an iterable with the matched nodes.
      *
@@ -50,6 +63,40 @@ public interface EntityReadOperations
     PrimitiveLongIterator nodesGetFromIndexLookup( KernelStatement state, IndexDescriptor index, Object value )
             throws IndexNotFoundKernelException;
 
+    /**
+     * Returns an iterable with the nodes whose numeric value lies within the given range.
+     *
+     * @throws IndexNotFoundKernelException if no such index found.
+     */
+    PrimitiveLongIterator nodesGetFromIndexRangeSeekByNumber( KernelStatement state, IndexDescriptor index,
+            Number lower, boolean includeLower, Number upper, boolean includeUpper )
+            throws IndexNotFoundKernelException;
+
+    /**
+     * Returns an iterable with the nodes whose string value lies within the given range.
+     *
+     * @throws IndexNotFoundKernelException if no such index found.
+     */
+    PrimitiveLongIterator nodesGetFromIndexRangeSeekByString( KernelStatement state, IndexDescriptor index,
+            String lower, boolean includeLower, String upper, boolean includeUpper )
+            throws IndexNotFoundKernelException;
+
+    /**
+     * Returns an iterable with the nodes whose string value starts with the given prefix.
+     *
+     * @throws IndexNotFoundKernelException if no such index found.
+     */
+    PrimitiveLongIterator nodesGetFromIndexRangeSeekByPrefix( KernelStatement state, IndexDescriptor index,
+            String prefix ) throws IndexNotFoundKernelException;
+
+    /**
+     * Returns an iterable with the nodes of a composite index whose leading values are equal to the given values.
+     *
+     * @throws IndexNotFoundKernelException if no such index found.
+     */
+    PrimitiveLongIterator nodesGetFromIndexCompositeSeek( KernelStatement state, IndexDescriptor index,
+            Object... leadingValues ) throws IndexNotFoundKernelException;
+
     /**
      * Returns an iterable with the matched node.
      *
@@ -79,6 +126,9 @@ public interface EntityReadOperations
     Property relationshipGetProperty( KernelStatement state, long relationshipId, int propertyKeyId )
             throws EntityNotFoundException;
 
+    void relationshipVisit( KernelStatement state, long relationshipId, RelationshipVisitor visitor )
+            throws EntityNotFoundException;
+
     Property graphGetProperty( KernelStatement state, int propertyKeyId );
 
     // TODO: decide if this should be replaced by nodeGetAllProperties()
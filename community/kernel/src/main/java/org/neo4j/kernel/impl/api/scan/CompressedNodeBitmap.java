@@ -0,0 +1,725 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.neo4j.collection.primitive.PrimitiveLongCollections.PrimitiveLongBaseIterator;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+
+/**
+ * A compressed set of node ids, split into chunks of 2^16 ids the same way roaring bitmaps are. A chunk is kept
+ * as a sorted array of the low 16 bits of its ids while it's sparse and as a plain bitmap once it gets dense, so
+ * both sparse and dense labels stay small, and intersecting two sets only ever touches chunks they both have.
+ *
+ * Copies share chunks with the set they were copied from. Each set and chunk carries the generation it was
+ * created in and a chunk from an older generation is copied before it's changed, which makes
+ * {@link #copy(long)} cheap enough to do for each batch of updates while readers keep using the older copy.
+ */
+class CompressedNodeBitmap
+{
+    static final int CHUNK_BITS = 16;
+    private static final int LOW_MASK = (1 << CHUNK_BITS) - 1;
+    private static final int BITMAP_WORDS = (1 << CHUNK_BITS) / 64;
+    // Above this many ids an array chunk takes more space than a bitmap chunk
+    static final int MAX_ARRAY_CARDINALITY = 4096;
+    private static final byte ARRAY_CHUNK = 0, BITMAP_CHUNK = 1;
+
+    private final long generation;
+    private long[] keys;
+    private Chunk[] chunks;
+    private int chunkCount;
+    private long cardinality;
+
+    CompressedNodeBitmap( long generation )
+    {
+        this( generation, new long[4], new Chunk[4], 0, 0 );
+    }
+
+    private CompressedNodeBitmap( long generation, long[] keys, Chunk[] chunks, int chunkCount, long cardinality )
+    {
+        this.generation = generation;
+        this.keys = keys;
+        this.chunks = chunks;
+        this.chunkCount = chunkCount;
+        this.cardinality = cardinality;
+    }
+
+    long generation()
+    {
+        return generation;
+    }
+
+    /**
+     * @return a copy sharing all chunks with this set, to be changed in the given generation.
+     */
+    CompressedNodeBitmap copy( long generation )
+    {
+        return new CompressedNodeBitmap( generation, Arrays.copyOf( keys, Math.max( chunkCount, 4 ) ),
+                Arrays.copyOf( chunks, Math.max( chunkCount, 4 ) ), chunkCount, cardinality );
+    }
+
+    long cardinality()
+    {
+        return cardinality;
+    }
+
+    boolean isEmpty()
+    {
+        return cardinality == 0;
+    }
+
+    boolean contains( long nodeId )
+    {
+        int index = Arrays.binarySearch( keys, 0, chunkCount, key( nodeId ) );
+        return index >= 0 && chunks[index].contains( low( nodeId ) );
+    }
+
+    void add( long nodeId )
+    {
+        long key = key( nodeId );
+        int index = Arrays.binarySearch( keys, 0, chunkCount, key );
+        if ( index < 0 )
+        {
+            index = -index - 1;
+            insertChunk( index, key, new ArrayChunk( generation ) );
+        }
+        Chunk chunk = writable( index );
+        int before = chunk.cardinality();
+        chunks[index] = chunk = chunk.add( low( nodeId ) );
+        cardinality += chunk.cardinality() - before;
+    }
+
+    void remove( long nodeId )
+    {
+        int index = Arrays.binarySearch( keys, 0, chunkCount, key( nodeId ) );
+        if ( index < 0 || !chunks[index].contains( low( nodeId ) ) )
+        {
+            return;
+        }
+        Chunk chunk = writable( index );
+        chunks[index] = chunk = chunk.remove( low( nodeId ) );
+        cardinality--;
+        if ( chunk.cardinality() == 0 )
+        {
+            removeChunk( index );
+        }
+    }
+
+    /**
+     * @return the ids found in both this set and {@code other}, as a new set that doesn't share chunks with either.
+     */
+    CompressedNodeBitmap and( CompressedNodeBitmap other )
+    {
+        CompressedNodeBitmap result = new CompressedNodeBitmap( -1 );
+        for ( int i = 0, j = 0; i < chunkCount && j < other.chunkCount; )
+        {
+            if ( keys[i] < other.keys[j] )
+            {
+                i++;
+            }
+            else if ( keys[i] > other.keys[j] )
+            {
+                j++;
+            }
+            else
+            {
+                Chunk chunk = chunks[i].and( other.chunks[j] );
+                if ( chunk.cardinality() > 0 )
+                {
+                    result.insertChunk( result.chunkCount, keys[i], chunk );
+                    result.cardinality += chunk.cardinality();
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the ids found in this set, {@code other} or both, as a new set which may share chunks with either
+     * but must never be changed.
+     */
+    CompressedNodeBitmap or( CompressedNodeBitmap other )
+    {
+        CompressedNodeBitmap result = new CompressedNodeBitmap( -1 );
+        int i = 0, j = 0;
+        while ( i < chunkCount || j < other.chunkCount )
+        {
+            Chunk chunk;
+            long key;
+            if ( j == other.chunkCount || (i < chunkCount && keys[i] < other.keys[j]) )
+            {
+                key = keys[i];
+                chunk = chunks[i++];
+            }
+            else if ( i == chunkCount || keys[i] > other.keys[j] )
+            {
+                key = other.keys[j];
+                chunk = other.chunks[j++];
+            }
+            else
+            {
+                key = keys[i];
+                chunk = chunks[i++].or( other.chunks[j++] );
+            }
+            result.insertChunk( result.chunkCount, key, chunk );
+            result.cardinality += chunk.cardinality();
+        }
+        return result;
+    }
+
+    /**
+     * @return the ids of this set in ascending order.
+     */
+    PrimitiveLongIterator iterator()
+    {
+        return new PrimitiveLongBaseIterator()
+        {
+            private int chunkIndex;
+            private int low = -1;
+
+            @Override
+            protected boolean fetchNext()
+            {
+                while ( chunkIndex < chunkCount )
+                {
+                    low = chunks[chunkIndex].nextSetAfter( low );
+                    if ( low != -1 )
+                    {
+                        return next( (keys[chunkIndex] << CHUNK_BITS) | low );
+                    }
+                    chunkIndex++;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return the ids of this set within the chunk starting at {@code key << CHUNK_BITS}, in ascending order.
+     */
+    long[] chunkIds( long key )
+    {
+        int index = Arrays.binarySearch( keys, 0, chunkCount, key );
+        if ( index < 0 )
+        {
+            return new long[0];
+        }
+        Chunk chunk = chunks[index];
+        long[] ids = new long[chunk.cardinality()];
+        for ( int i = 0, low = chunk.nextSetAfter( -1 ); low != -1; low = chunk.nextSetAfter( low ) )
+        {
+            ids[i++] = (key << CHUNK_BITS) | low;
+        }
+        return ids;
+    }
+
+    int chunkCount()
+    {
+        return chunkCount;
+    }
+
+    long chunkKey( int index )
+    {
+        return keys[index];
+    }
+
+    int serializedSize()
+    {
+        int size = 8 + 4;
+        for ( int i = 0; i < chunkCount; i++ )
+        {
+            size += 8 + 1 + 4 + chunks[i].serializedSize();
+        }
+        return size;
+    }
+
+    void writeTo( ByteBuffer buffer )
+    {
+        buffer.putLong( cardinality );
+        buffer.putInt( chunkCount );
+        for ( int i = 0; i < chunkCount; i++ )
+        {
+            buffer.putLong( keys[i] );
+            chunks[i].writeTo( buffer );
+        }
+    }
+
+    /**
+     * Reads a set written by {@link #writeTo(ByteBuffer)}.
+     *
+     * @throws IllegalStateException if what's read doesn't make up a valid set.
+     */
+    static CompressedNodeBitmap readFrom( ByteBuffer buffer, long generation )
+    {
+        long cardinality = buffer.getLong();
+        int chunkCount = buffer.getInt();
+        if ( chunkCount < 0 || chunkCount > buffer.remaining() )
+        {
+            throw new IllegalStateException( "Invalid chunk count " + chunkCount );
+        }
+        long[] keys = new long[Math.max( chunkCount, 4 )];
+        Chunk[] chunks = new Chunk[keys.length];
+        long actualCardinality = 0;
+        for ( int i = 0; i < chunkCount; i++ )
+        {
+            keys[i] = buffer.getLong();
+            if ( i > 0 && keys[i] <= keys[i - 1] )
+            {
+                throw new IllegalStateException( "Chunk keys out of order" );
+            }
+            byte type = buffer.get();
+            int chunkCardinality = buffer.getInt();
+            switch ( type )
+            {
+            case ARRAY_CHUNK:
+                if ( chunkCardinality < 1 || chunkCardinality > MAX_ARRAY_CARDINALITY )
+                {
+                    throw new IllegalStateException( "Invalid array chunk cardinality " + chunkCardinality );
+                }
+                char[] values = new char[chunkCardinality];
+                buffer.asCharBuffer().get( values );
+                buffer.position( buffer.position() + chunkCardinality * 2 );
+                chunks[i] = new ArrayChunk( generation, values, chunkCardinality );
+                break;
+            case BITMAP_CHUNK:
+                long[] words = new long[BITMAP_WORDS];
+                buffer.asLongBuffer().get( words );
+                buffer.position( buffer.position() + BITMAP_WORDS * 8 );
+                chunks[i] = new BitmapChunk( generation, words, chunkCardinality );
+                if ( chunks[i].cardinality() != BitmapChunk.count( words ) )
+                {
+                    throw new IllegalStateException( "Bitmap chunk cardinality mismatch" );
+                }
+                break;
+            default:
+                throw new IllegalStateException( "Unknown chunk type " + type );
+            }
+            actualCardinality += chunkCardinality;
+        }
+        if ( actualCardinality != cardinality )
+        {
+            throw new IllegalStateException( "Expected cardinality " + cardinality + ", but was " +
+                    actualCardinality );
+        }
+        return new CompressedNodeBitmap( generation, keys, chunks, chunkCount, cardinality );
+    }
+
+    private Chunk writable( int index )
+    {
+        Chunk chunk = chunks[index];
+        return chunk.generation == generation ? chunk : chunk.copy( generation );
+    }
+
+    private void insertChunk( int index, long key, Chunk chunk )
+    {
+        if ( chunkCount == keys.length )
+        {
+            keys = Arrays.copyOf( keys, chunkCount * 2 );
+            chunks = Arrays.copyOf( chunks, chunkCount * 2 );
+        }
+        System.arraycopy( keys, index, keys, index + 1, chunkCount - index );
+        System.arraycopy( chunks, index, chunks, index + 1, chunkCount - index );
+        keys[index] = key;
+        chunks[index] = chunk;
+        chunkCount++;
+    }
+
+    private void removeChunk( int index )
+    {
+        System.arraycopy( keys, index + 1, keys, index, chunkCount - index - 1 );
+        System.arraycopy( chunks, index + 1, chunks, index, chunkCount - index - 1 );
+        chunks[--chunkCount] = null;
+    }
+
+    private static long key( long nodeId )
+    {
+        return nodeId >>> CHUNK_BITS;
+    }
+
+    private static int low( long nodeId )
+    {
+        return (int) (nodeId & LOW_MASK);
+    }
+
+    private abstract static class Chunk
+    {
+        final long generation;
+
+        Chunk( long generation )
+        {
+            this.generation = generation;
+        }
+
+        abstract int cardinality();
+
+        abstract boolean contains( int low );
+
+        /**
+         * @return the chunk to keep in place of this one, which may be of another kind.
+         */
+        abstract Chunk add( int low );
+
+        /**
+         * @return the chunk to keep in place of this one, which may be of another kind.
+         */
+        abstract Chunk remove( int low );
+
+        abstract Chunk copy( long generation );
+
+        abstract Chunk and( Chunk other );
+
+        abstract Chunk or( Chunk other );
+
+        /**
+         * @return the lowest id in this chunk above {@code low}, or {@code -1} if there is none.
+         */
+        abstract int nextSetAfter( int low );
+
+        abstract int serializedSize();
+
+        abstract void writeTo( ByteBuffer buffer );
+    }
+
+    private static class ArrayChunk extends Chunk
+    {
+        private char[] values;
+        private int size;
+
+        ArrayChunk( long generation )
+        {
+            this( generation, new char[4], 0 );
+        }
+
+        ArrayChunk( long generation, char[] values, int size )
+        {
+            super( generation );
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        int cardinality()
+        {
+            return size;
+        }
+
+        @Override
+        boolean contains( int low )
+        {
+            return Arrays.binarySearch( values, 0, size, (char) low ) >= 0;
+        }
+
+        @Override
+        Chunk add( int low )
+        {
+            int index = Arrays.binarySearch( values, 0, size, (char) low );
+            if ( index >= 0 )
+            {
+                return this;
+            }
+            if ( size == MAX_ARRAY_CARDINALITY )
+            {
+                return toBitmap().add( low );
+            }
+            index = -index - 1;
+            if ( size == values.length )
+            {
+                values = Arrays.copyOf( values, Math.min( size * 2, MAX_ARRAY_CARDINALITY ) );
+            }
+            System.arraycopy( values, index, values, index + 1, size - index );
+            values[index] = (char) low;
+            size++;
+            return this;
+        }
+
+        @Override
+        Chunk remove( int low )
+        {
+            int index = Arrays.binarySearch( values, 0, size, (char) low );
+            if ( index >= 0 )
+            {
+                System.arraycopy( values, index + 1, values, index, size - index - 1 );
+                size--;
+            }
+            return this;
+        }
+
+        @Override
+        Chunk copy( long generation )
+        {
+            return new ArrayChunk( generation, Arrays.copyOf( values, Math.max( size, 4 ) ), size );
+        }
+
+        @Override
+        Chunk and( Chunk other )
+        {
+            char[] result = new char[Math.min( size, other.cardinality() )];
+            int count = 0;
+            if ( other instanceof ArrayChunk )
+            {
+                ArrayChunk that = (ArrayChunk) other;
+                for ( int i = 0, j = 0; i < size && j < that.size; )
+                {
+                    if ( values[i] < that.values[j] )
+                    {
+                        i++;
+                    }
+                    else if ( values[i] > that.values[j] )
+                    {
+                        j++;
+                    }
+                    else
+                    {
+                        result[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            }
+            else
+            {
+                for ( int i = 0; i < size; i++ )
+                {
+                    if ( other.contains( values[i] ) )
+                    {
+                        result[count++] = values[i];
+                    }
+                }
+            }
+            return new ArrayChunk( -1, result, count );
+        }
+
+        @Override
+        Chunk or( Chunk other )
+        {
+            if ( other instanceof BitmapChunk )
+            {
+                return other.or( this );
+            }
+            ArrayChunk that = (ArrayChunk) other;
+            char[] result = new char[size + that.size];
+            int count = 0;
+            for ( int i = 0, j = 0; i < size || j < that.size; )
+            {
+                if ( j == that.size || (i < size && values[i] < that.values[j]) )
+                {
+                    result[count++] = values[i++];
+                }
+                else if ( i == size || values[i] > that.values[j] )
+                {
+                    result[count++] = that.values[j++];
+                }
+                else
+                {
+                    result[count++] = values[i++];
+                    j++;
+                }
+            }
+            ArrayChunk chunk = new ArrayChunk( -1, result, count );
+            return count > MAX_ARRAY_CARDINALITY ? chunk.toBitmap() : chunk;
+        }
+
+        @Override
+        int nextSetAfter( int low )
+        {
+            int index = Arrays.binarySearch( values, 0, size, (char) (low + 1) );
+            index = index >= 0 ? index : -index - 1;
+            return low + 1 <= LOW_MASK && index < size ? values[index] : -1;
+        }
+
+        @Override
+        int serializedSize()
+        {
+            return size * 2;
+        }
+
+        @Override
+        void writeTo( ByteBuffer buffer )
+        {
+            buffer.put( ARRAY_CHUNK );
+            buffer.putInt( size );
+            for ( int i = 0; i < size; i++ )
+            {
+                buffer.putChar( values[i] );
+            }
+        }
+
+        private BitmapChunk toBitmap()
+        {
+            long[] words = new long[BITMAP_WORDS];
+            for ( int i = 0; i < size; i++ )
+            {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return new BitmapChunk( generation, words, size );
+        }
+    }
+
+    private static class BitmapChunk extends Chunk
+    {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapChunk( long generation, long[] words, int cardinality )
+        {
+            super( generation );
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality()
+        {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains( int low )
+        {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        Chunk add( int low )
+        {
+            long word = words[low >>> 6];
+            long bit = 1L << low;
+            if ( (word & bit) == 0 )
+            {
+                words[low >>> 6] = word | bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Chunk remove( int low )
+        {
+            long word = words[low >>> 6];
+            long bit = 1L << low;
+            if ( (word & bit) != 0 )
+            {
+                words[low >>> 6] = word & ~bit;
+                cardinality--;
+            }
+            return cardinality <= MAX_ARRAY_CARDINALITY / 2 ? toArray( generation ) : this;
+        }
+
+        @Override
+        Chunk copy( long generation )
+        {
+            return new BitmapChunk( generation, words.clone(), cardinality );
+        }
+
+        @Override
+        Chunk and( Chunk other )
+        {
+            if ( other instanceof BitmapChunk )
+            {
+                long[] result = new long[BITMAP_WORDS];
+                long[] otherWords = ((BitmapChunk) other).words;
+                for ( int i = 0; i < BITMAP_WORDS; i++ )
+                {
+                    result[i] = words[i] & otherWords[i];
+                }
+                BitmapChunk chunk = new BitmapChunk( -1, result, count( result ) );
+                return chunk.cardinality <= MAX_ARRAY_CARDINALITY ? chunk.toArray( -1 ) : chunk;
+            }
+            return other.and( this );
+        }
+
+        @Override
+        Chunk or( Chunk other )
+        {
+            long[] result = words.clone();
+            for ( int low = other.nextSetAfter( -1 ); low != -1; low = other.nextSetAfter( low ) )
+            {
+                result[low >>> 6] |= 1L << low;
+            }
+            return new BitmapChunk( -1, result, count( result ) );
+        }
+
+        @Override
+        int nextSetAfter( int low )
+        {
+            int from = low + 1;
+            if ( from > LOW_MASK )
+            {
+                return -1;
+            }
+            int index = from >>> 6;
+            long word = words[index] & (-1L << from);
+            while ( true )
+            {
+                if ( word != 0 )
+                {
+                    return (index << 6) + Long.numberOfTrailingZeros( word );
+                }
+                if ( ++index == BITMAP_WORDS )
+                {
+                    return -1;
+                }
+                word = words[index];
+            }
+        }
+
+        @Override
+        int serializedSize()
+        {
+            return BITMAP_WORDS * 8;
+        }
+
+        @Override
+        void writeTo( ByteBuffer buffer )
+        {
+            buffer.put( BITMAP_CHUNK );
+            buffer.putInt( cardinality );
+            for ( long word : words )
+            {
+                buffer.putLong( word );
+            }
+        }
+
+        private ArrayChunk toArray( long generation )
+        {
+            char[] values = new char[Math.max( cardinality, 4 )];
+            int size = 0;
+            for ( int low = nextSetAfter( -1 ); low != -1; low = nextSetAfter( low ) )
+            {
+                values[size++] = (char) low;
+            }
+            return new ArrayChunk( generation, values, size );
+        }
+
+        static int count( long[] words )
+        {
+            int count = 0;
+            for ( long word : words )
+            {
+                count += Long.bitCount( word );
+            }
+            return count;
+        }
+    }
+}
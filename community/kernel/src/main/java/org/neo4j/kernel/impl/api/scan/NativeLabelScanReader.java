@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.collection.primitive.PrimitiveLongCollections;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.kernel.api.labelscan.LabelScanReader;
+
+/**
+ * Reads the label bitmaps of a {@link NativeLabelScanStore} as they were when the reader was created. Apart from
+ * what every {@link LabelScanReader} offers, it can count the nodes having a label without visiting them and
+ * find the nodes having all of a number of labels by intersecting their bitmaps.
+ */
+public class NativeLabelScanReader implements LabelScanReader
+{
+    private final Map<Integer, CompressedNodeBitmap> labels;
+
+    NativeLabelScanReader( Map<Integer, CompressedNodeBitmap> labels )
+    {
+        this.labels = labels;
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesWithLabel( int labelId )
+    {
+        CompressedNodeBitmap bitmap = labels.get( labelId );
+        return bitmap == null ? PrimitiveLongCollections.emptyIterator() : bitmap.iterator();
+    }
+
+    @Override
+    public Iterator<Long> labelsForNode( long nodeId )
+    {
+        List<Long> result = new ArrayList<>();
+        for ( Map.Entry<Integer, CompressedNodeBitmap> entry : labels.entrySet() )
+        {
+            if ( entry.getValue().contains( nodeId ) )
+            {
+                result.add( (long) entry.getKey() );
+            }
+        }
+        return result.iterator();
+    }
+
+    /**
+     * @return the number of nodes having the given label.
+     */
+    public long nodeCount( int labelId )
+    {
+        CompressedNodeBitmap bitmap = labels.get( labelId );
+        return bitmap == null ? 0 : bitmap.cardinality();
+    }
+
+    /**
+     * @return the nodes having all of the given labels, in ascending id order.
+     */
+    @Override
+    public PrimitiveLongIterator nodesWithAllLabels( int... labelIds )
+    {
+        if ( labelIds.length == 0 )
+        {
+            return PrimitiveLongCollections.emptyIterator();
+        }
+        CompressedNodeBitmap[] bitmaps = new CompressedNodeBitmap[labelIds.length];
+        for ( int i = 0; i < labelIds.length; i++ )
+        {
+            bitmaps[i] = labels.get( labelIds[i] );
+            if ( bitmaps[i] == null )
+            {
+                return PrimitiveLongCollections.emptyIterator();
+            }
+        }
+        // Start from the smallest bitmap to keep the intermediate results small
+        CompressedNodeBitmap smallest = smallest( bitmaps );
+        CompressedNodeBitmap result = smallest;
+        for ( CompressedNodeBitmap bitmap : bitmaps )
+        {
+            if ( bitmap != smallest )
+            {
+                result = result.and( bitmap );
+            }
+        }
+        return result.iterator();
+    }
+
+    /**
+     * @return the nodes having any of the given labels, in ascending id order.
+     */
+    @Override
+    public PrimitiveLongIterator nodesWithAnyLabel( int... labelIds )
+    {
+        CompressedNodeBitmap result = null;
+        for ( int labelId : labelIds )
+        {
+            CompressedNodeBitmap bitmap = labels.get( labelId );
+            if ( bitmap != null )
+            {
+                result = result == null ? bitmap : result.or( bitmap );
+            }
+        }
+        return result == null ? PrimitiveLongCollections.emptyIterator() : result.iterator();
+    }
+
+    @Override
+    public void close()
+    {   // Nothing to close, the bitmaps read are never changed
+    }
+
+    private static CompressedNodeBitmap smallest( CompressedNodeBitmap[] bitmaps )
+    {
+        CompressedNodeBitmap smallest = bitmaps[0];
+        for ( CompressedNodeBitmap bitmap : bitmaps )
+        {
+            if ( bitmap.cardinality() < smallest.cardinality() )
+            {
+                smallest = bitmap;
+            }
+        }
+        return smallest;
+    }
+}
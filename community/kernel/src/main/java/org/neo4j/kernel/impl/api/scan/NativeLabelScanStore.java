@@ -0,0 +1,649 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.helpers.collection.PrefetchingIterator;
+import org.neo4j.kernel.api.direct.AllEntriesLabelScanReader;
+import org.neo4j.kernel.api.direct.NodeLabelRange;
+import org.neo4j.kernel.api.labelscan.LabelScanReader;
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
+import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
+import org.neo4j.kernel.impl.api.scan.LabelScanStoreProvider.FullStoreChangeStream;
+import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.nioneo.store.StoreChannel;
+import org.neo4j.kernel.impl.nioneo.store.UnderlyingStorageException;
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.kernel.logging.Logging;
+import org.neo4j.unsafe.batchinsert.LabelScanWriter;
+
+import static org.neo4j.helpers.collection.IteratorUtil.asResourceIterator;
+import static org.neo4j.helpers.collection.IteratorUtil.iterator;
+
+/**
+ * A {@link LabelScanStore} keeping one {@link CompressedNodeBitmap} per label in memory, backed by a snapshot file
+ * and an append-only log of the updates made since that snapshot was written.
+ *
+ * Each {@link #newWriter() writer} works on a copy of the current label to bitmap map, sharing the bitmap chunks it
+ * doesn't change, publishes it when closed and appends its updates to the log. Readers keep using the map that
+ * was current when they were created, which makes reads repeatable without any locking. The snapshot is rewritten
+ * and the log truncated when the store is {@link #force() forced}, i.e. at checkpoints, and recovery is loading
+ * the snapshot, which is memory mapped when the file system supports it, and replaying the log on top of it.
+ */
+public class NativeLabelScanStore implements LabelScanStore
+{
+    public static final String SNAPSHOT_FILE_NAME = "labelscan.db";
+    public static final String LOG_FILE_NAME = "labelscan.log";
+    private static final long MAGIC = 0x4e4c5353_00000001L;
+    private static final int LOG_BUFFER_SIZE = 64 * 1024;
+
+    private final File directory;
+    private final FileSystemAbstraction fs;
+    // We get in a full store stream here in case we need to fully rebuild the store if it's missing.
+    private final FullStoreChangeStream fullStoreStream;
+    private final Monitor monitor;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile TreeMap<Integer, CompressedNodeBitmap> labels = new TreeMap<>();
+    private long generation;
+    private long snapshotGeneration;
+    private StoreChannel log;
+    private boolean needsRebuild;
+
+    public interface Monitor
+    {
+        void init();
+
+        void noIndex();
+
+        void corruptIndex( IOException e );
+
+        void recovered( int updates );
+
+        void rebuilding();
+
+        void rebuilt( long roughNodeCount );
+    }
+
+    public static Monitor loggerMonitor( Logging logging )
+    {
+        final StringLogger logger = logging.getMessagesLog( NativeLabelScanStore.class );
+        return new Monitor()
+        {
+            @Override
+            public void init()
+            {   // Don't log anything here
+            }
+
+            @Override
+            public void noIndex()
+            {
+                logger.info( "No native scan store found, this might just be first use. Preparing to rebuild." );
+            }
+
+            @Override
+            public void corruptIndex( IOException corruptionException )
+            {
+                logger.warn( "Corrupt native scan store found.", corruptionException );
+            }
+
+            @Override
+            public void recovered( int updates )
+            {
+                if ( updates > 0 )
+                {
+                    logger.info( "Native scan store recovered " + updates + " updates from its log" );
+                }
+            }
+
+            @Override
+            public void rebuilding()
+            {
+                logger.info( "Rebuilding native scan store, this may take a while" );
+            }
+
+            @Override
+            public void rebuilt( long highNodeId )
+            {
+                logger.info( "Native scan store rebuilt (roughly " + highNodeId + " nodes)" );
+            }
+        };
+    }
+
+    public NativeLabelScanStore( File directory, FileSystemAbstraction fs, FullStoreChangeStream fullStoreStream,
+            Monitor monitor )
+    {
+        this.directory = directory;
+        this.fs = fs;
+        this.fullStoreStream = fullStoreStream;
+        this.monitor = monitor;
+    }
+
+    @Override
+    public void init() throws IOException
+    {
+        monitor.init();
+        fs.mkdirs( directory );
+        File snapshotFile = snapshotFile();
+        TreeMap<Integer, CompressedNodeBitmap> loaded = new TreeMap<>();
+        if ( !fs.fileExists( snapshotFile ) )
+        {   // This is the first time we start up this scan store, prepare to rebuild from scratch later.
+            monitor.noIndex();
+            fs.deleteFile( logFile() );
+            needsRebuild = true;
+        }
+        else
+        {
+            try
+            {
+                loadSnapshot( snapshotFile, loaded );
+            }
+            catch ( IOException | RuntimeException e )
+            {
+                IOException corruption = e instanceof IOException ? (IOException) e : new IOException( e );
+                monitor.corruptIndex( corruption );
+                throw new IOException( "Label scan store is corrupted, and needs to be rebuilt. " +
+                        "To trigger a rebuild, ensure the database is stopped, delete the files in '" +
+                        directory.getAbsolutePath() + "', and then start the database again.", corruption );
+            }
+        }
+        labels = loaded;
+        log = fs.open( logFile(), "rw" );
+        monitor.recovered( replayLog( log, loaded ) );
+        // Anything recovered from the log is only in memory until the next force, so don't overwrite it
+        generation = 1;
+        snapshotGeneration = 0;
+    }
+
+    @Override
+    public void recover( Iterator<NodeLabelUpdate> updates ) throws IOException
+    {
+        // Applying an update sets the full label set of its node, so updates already in the store are harmless.
+        write( updates );
+    }
+
+    @Override
+    public void start() throws IOException
+    {
+        if ( needsRebuild )
+        {   // we saw in init() that we need to rebuild the store, so do it here after the
+            // neostore has been properly started.
+            monitor.rebuilding();
+            // Skip the log, the snapshot written by the force below has every update in it
+            try ( NativeLabelScanWriter writer = newNativeWriter( false ) )
+            {
+                Iterator<NodeLabelUpdate> updates = fullStoreStream.iterator();
+                while ( updates.hasNext() )
+                {
+                    writer.write( updates.next() );
+                }
+            }
+            force();
+            monitor.rebuilt( fullStoreStream.highestNodeId() );
+            needsRebuild = false;
+        }
+    }
+
+    @Override
+    public LabelScanWriter newWriter()
+    {
+        return newNativeWriter( true );
+    }
+
+    @Override
+    public NativeLabelScanReader newReader()
+    {
+        return new NativeLabelScanReader( labels );
+    }
+
+    @Override
+    public AllEntriesLabelScanReader newAllEntriesReader()
+    {
+        final TreeMap<Integer, CompressedNodeBitmap> snapshot = labels;
+        final TreeSet<Long> chunkKeys = new TreeSet<>();
+        for ( CompressedNodeBitmap bitmap : snapshot.values() )
+        {
+            for ( int i = 0; i < bitmap.chunkCount(); i++ )
+            {
+                chunkKeys.add( bitmap.chunkKey( i ) );
+            }
+        }
+        return new AllEntriesLabelScanReader()
+        {
+            @Override
+            public long maxCount()
+            {
+                return chunkKeys.size();
+            }
+
+            @Override
+            public Iterator<NodeLabelRange> iterator()
+            {
+                final Iterator<Long> keys = chunkKeys.iterator();
+                return new PrefetchingIterator<NodeLabelRange>()
+                {
+                    private int id;
+
+                    @Override
+                    protected NodeLabelRange fetchNextOrNull()
+                    {
+                        return keys.hasNext() ? new ChunkRange( id++, keys.next(), snapshot ) : null;
+                    }
+                };
+            }
+
+            @Override
+            public void close()
+            {   // Nothing to close
+            }
+        };
+    }
+
+    @Override
+    public void force() throws UnderlyingStorageException
+    {
+        writeLock.lock();
+        try
+        {
+            if ( generation != snapshotGeneration )
+            {
+                writeSnapshot( labels );
+                log.truncate( 0 );
+                log.position( 0 );
+                log.force( false );
+                snapshotGeneration = generation;
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( e );
+        }
+        finally
+        {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public ResourceIterator<File> snapshotStoreFiles() throws IOException
+    {
+        // After a force the log is empty and everything there is to copy is in the snapshot file
+        force();
+        return asResourceIterator( iterator( snapshotFile() ) );
+    }
+
+    @Override
+    public void stop()
+    {   // Not needed
+    }
+
+    @Override
+    public void shutdown() throws IOException
+    {
+        if ( log != null )
+        {
+            log.close();
+            log = null;
+        }
+    }
+
+    private File snapshotFile()
+    {
+        return new File( directory, SNAPSHOT_FILE_NAME );
+    }
+
+    private File logFile()
+    {
+        return new File( directory, LOG_FILE_NAME );
+    }
+
+    private void write( Iterator<NodeLabelUpdate> updates ) throws IOException
+    {
+        try ( NativeLabelScanWriter writer = newNativeWriter( true ) )
+        {
+            while ( updates.hasNext() )
+            {
+                writer.write( updates.next() );
+            }
+        }
+    }
+
+    private NativeLabelScanWriter newNativeWriter( boolean logged )
+    {
+        // Writers are applied one at a time, each one building on what the previous one published
+        writeLock.lock();
+        return new NativeLabelScanWriter( logged );
+    }
+
+    private void loadSnapshot( File file, Map<Integer, CompressedNodeBitmap> into ) throws IOException
+    {
+        try ( StoreChannel channel = fs.open( file, "r" ) )
+        {
+            long size = channel.size();
+            ByteBuffer buffer;
+            try
+            {
+                buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, size );
+            }
+            catch ( IOException | UnsupportedOperationException e )
+            {   // Not all file systems can map files, read it onto the heap instead
+                buffer = ByteBuffer.allocate( (int) size );
+                while ( buffer.hasRemaining() && channel.read( buffer ) != -1 )
+                {
+                    // keep reading
+                }
+                buffer.flip();
+            }
+            if ( buffer.remaining() < 12 || buffer.getLong() != MAGIC )
+            {
+                throw new IOException( "Not a label scan store snapshot" );
+            }
+            int labelCount = buffer.getInt();
+            for ( int i = 0; i < labelCount; i++ )
+            {
+                into.put( buffer.getInt(), CompressedNodeBitmap.readFrom( buffer, 0 ) );
+            }
+            if ( buffer.remaining() != 8 || buffer.getLong() != MAGIC )
+            {
+                throw new IOException( "Label scan store snapshot is incomplete" );
+            }
+        }
+    }
+
+    private void writeSnapshot( Map<Integer, CompressedNodeBitmap> labels ) throws IOException
+    {
+        int size = 8 + 4 + 8;
+        for ( CompressedNodeBitmap bitmap : labels.values() )
+        {
+            size += 4 + bitmap.serializedSize();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate( size );
+        buffer.putLong( MAGIC );
+        buffer.putInt( labels.size() );
+        for ( Map.Entry<Integer, CompressedNodeBitmap> entry : labels.entrySet() )
+        {
+            buffer.putInt( entry.getKey() );
+            entry.getValue().writeTo( buffer );
+        }
+        buffer.putLong( MAGIC );
+        buffer.flip();
+
+        // Write it next to the current snapshot and swap them, so that there's always a complete one on disk
+        File tempFile = new File( directory, SNAPSHOT_FILE_NAME + ".tmp" );
+        try ( StoreChannel channel = fs.create( tempFile ) )
+        {
+            while ( buffer.hasRemaining() )
+            {
+                channel.write( buffer );
+            }
+            channel.force( false );
+        }
+        fs.deleteFile( snapshotFile() );
+        if ( !fs.renameFile( tempFile, snapshotFile() ) )
+        {
+            throw new IOException( "Unable to move " + tempFile + " to " + snapshotFile() );
+        }
+    }
+
+    /**
+     * Applies the updates logged since the snapshot was written, stopping at the first incomplete record since
+     * that's where a crash interrupted the last append, and cuts the log off there.
+     */
+    private int replayLog( StoreChannel channel, Map<Integer, CompressedNodeBitmap> into ) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate( (int) channel.size() );
+        while ( buffer.hasRemaining() && channel.read( buffer ) != -1 )
+        {
+            // keep reading
+        }
+        buffer.flip();
+        int updates = 0;
+        while ( true )
+        {
+            int recordStart = buffer.position();
+            if ( buffer.remaining() < 12 )
+            {
+                buffer.position( recordStart );
+                break;
+            }
+            long nodeId = buffer.getLong();
+            int labelCount = buffer.getInt();
+            if ( nodeId < 0 || labelCount < 0 || labelCount > buffer.remaining() / 8 )
+            {
+                buffer.position( recordStart );
+                break;
+            }
+            long[] labelsAfter = new long[labelCount];
+            buffer.asLongBuffer().get( labelsAfter );
+            buffer.position( buffer.position() + labelCount * 8 );
+            setLabels( into, 0, nodeId, labelsAfter );
+            updates++;
+        }
+        channel.truncate( buffer.position() );
+        channel.position( buffer.position() );
+        return updates;
+    }
+
+    /**
+     * Makes the given node have exactly the given labels, copying bitmaps from older generations before changing
+     * them.
+     */
+    private static void setLabels( Map<Integer, CompressedNodeBitmap> labels, long generation, long nodeId,
+            long[] labelsAfter )
+    {
+        for ( Map.Entry<Integer, CompressedNodeBitmap> entry : labels.entrySet() )
+        {
+            CompressedNodeBitmap bitmap = entry.getValue();
+            if ( bitmap.contains( nodeId ) && !contains( labelsAfter, entry.getKey() ) )
+            {
+                writable( entry, generation ).remove( nodeId );
+            }
+        }
+        for ( long labelId : labelsAfter )
+        {
+            CompressedNodeBitmap bitmap = labels.get( (int) labelId );
+            if ( bitmap == null )
+            {
+                labels.put( (int) labelId, new CompressedNodeBitmap( generation ) );
+            }
+            else if ( bitmap.generation() != generation )
+            {
+                labels.put( (int) labelId, bitmap.copy( generation ) );
+            }
+            labels.get( (int) labelId ).add( nodeId );
+        }
+    }
+
+    private static CompressedNodeBitmap writable( Map.Entry<Integer, CompressedNodeBitmap> entry, long generation )
+    {
+        CompressedNodeBitmap bitmap = entry.getValue();
+        if ( bitmap.generation() != generation )
+        {
+            entry.setValue( bitmap = bitmap.copy( generation ) );
+        }
+        return bitmap;
+    }
+
+    private static boolean contains( long[] labels, long labelId )
+    {
+        for ( long label : labels )
+        {
+            if ( label == labelId )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Updates a copy of the label bitmaps and, if logged, appends the updates to the log through a buffer of a
+     * fixed size that is written out whenever it fills up. Replaying a record twice is harmless, so records
+     * written before the writer is closed need no special care.
+     */
+    private class NativeLabelScanWriter implements LabelScanWriter
+    {
+        private final long writerGeneration = ++generation;
+        private final TreeMap<Integer, CompressedNodeBitmap> changed = new TreeMap<>( labels );
+        private final boolean logged;
+        private ByteBuffer logBuffer;
+
+        NativeLabelScanWriter( boolean logged )
+        {
+            this.logged = logged;
+            this.logBuffer = logged ? ByteBuffer.allocate( LOG_BUFFER_SIZE ) : null;
+        }
+
+        @Override
+        public void write( NodeLabelUpdate update ) throws IOException
+        {
+            long[] labelsAfter = update.getLabelsAfter();
+            setLabels( changed, writerGeneration, update.getNodeId(), labelsAfter );
+            if ( !logged )
+            {
+                return;
+            }
+
+            int recordSize = 8 + 4 + labelsAfter.length * 8;
+            if ( logBuffer.remaining() < recordSize )
+            {
+                flushLog();
+                if ( logBuffer.capacity() < recordSize )
+                {   // A node with more labels than fit in the buffer
+                    logBuffer = ByteBuffer.allocate( recordSize );
+                }
+            }
+            logBuffer.putLong( update.getNodeId() );
+            logBuffer.putInt( labelsAfter.length );
+            for ( long labelId : labelsAfter )
+            {
+                logBuffer.putLong( labelId );
+            }
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            try
+            {
+                Iterator<CompressedNodeBitmap> bitmaps = changed.values().iterator();
+                while ( bitmaps.hasNext() )
+                {
+                    if ( bitmaps.next().isEmpty() )
+                    {
+                        bitmaps.remove();
+                    }
+                }
+                if ( logged )
+                {
+                    flushLog();
+                }
+                labels = changed;
+            }
+            finally
+            {
+                writeLock.unlock();
+            }
+        }
+
+        private void flushLog() throws IOException
+        {
+            logBuffer.flip();
+            while ( logBuffer.hasRemaining() )
+            {
+                log.write( logBuffer );
+            }
+            logBuffer.clear();
+        }
+    }
+
+    private static class ChunkRange implements NodeLabelRange
+    {
+        private final int id;
+        private final long[] nodeIds;
+        private final long[][] labelIds;
+
+        ChunkRange( int id, long chunkKey, Map<Integer, CompressedNodeBitmap> labels )
+        {
+            this.id = id;
+            TreeMap<Long, List<Long>> labelsForEachNode = new TreeMap<>();
+            for ( Map.Entry<Integer, CompressedNodeBitmap> entry : labels.entrySet() )
+            {
+                for ( long nodeId : entry.getValue().chunkIds( chunkKey ) )
+                {
+                    List<Long> labelIdList = labelsForEachNode.get( nodeId );
+                    if ( labelIdList == null )
+                    {
+                        labelsForEachNode.put( nodeId, labelIdList = new ArrayList<>() );
+                    }
+                    labelIdList.add( (long) entry.getKey() );
+                }
+            }
+            nodeIds = new long[labelsForEachNode.size()];
+            labelIds = new long[labelsForEachNode.size()][];
+            int nodeIndex = 0;
+            for ( Map.Entry<Long, List<Long>> entry : labelsForEachNode.entrySet() )
+            {
+                nodeIds[nodeIndex] = entry.getKey();
+                long[] nodeLabelIds = new long[entry.getValue().size()];
+                for ( int i = 0; i < nodeLabelIds.length; i++ )
+                {
+                    nodeLabelIds[i] = entry.getValue().get( i );
+                }
+                labelIds[nodeIndex++] = nodeLabelIds;
+            }
+        }
+
+        @Override
+        public int id()
+        {
+            return id;
+        }
+
+        @Override
+        public long[] nodes()
+        {
+            return nodeIds;
+        }
+
+        @Override
+        public long[] labels( long nodeId )
+        {
+            int index = Arrays.binarySearch( nodeIds, nodeId );
+            if ( index < 0 )
+            {
+                throw new IllegalArgumentException( "Unknown nodeId: " + nodeId );
+            }
+            return labelIds[index];
+        }
+    }
+}
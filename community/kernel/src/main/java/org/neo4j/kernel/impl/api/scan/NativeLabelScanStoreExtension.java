@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+import java.io.File;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.helpers.Service;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.extension.KernelExtensionFactory;
+import org.neo4j.kernel.impl.api.scan.NativeLabelScanStore.Monitor;
+import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.nioneo.xa.NeoStoreProvider;
+import org.neo4j.kernel.logging.Logging;
+
+import static org.neo4j.kernel.impl.api.scan.LabelScanStoreProvider.fullStoreLabelUpdateStream;
+import static org.neo4j.kernel.impl.api.scan.NativeLabelScanStore.loggerMonitor;
+
+/**
+ * Provides a {@link NativeLabelScanStore}, which is preferred over the lucene one when
+ * {@link GraphDatabaseSettings#native_label_scan_store} is enabled and never selected otherwise.
+ */
+@Service.Implementation(KernelExtensionFactory.class)
+public class NativeLabelScanStoreExtension extends KernelExtensionFactory<NativeLabelScanStoreExtension.Dependencies>
+{
+    private final Monitor monitor;
+
+    public interface Dependencies
+    {
+        Config getConfig();
+
+        FileSystemAbstraction getFileSystem();
+
+        NeoStoreProvider getNeoStoreProvider();
+
+        Logging getLogging();
+    }
+
+    public NativeLabelScanStoreExtension()
+    {
+        this( null );
+    }
+
+    NativeLabelScanStoreExtension( Monitor monitor )
+    {
+        super( "native" );
+        this.monitor = monitor;
+    }
+
+    @Override
+    public LabelScanStoreProvider newKernelExtension( Dependencies dependencies ) throws Throwable
+    {
+        Config config = dependencies.getConfig();
+        FileSystemAbstraction fs = dependencies.getFileSystem();
+        File labelScanDir = new File( new File( config.get( GraphDatabaseSettings.store_dir ), "schema" ), "label" );
+        boolean enabled = config.get( GraphDatabaseSettings.native_label_scan_store );
+
+        // Only one label scan store is kept up to date, so get rid of the files of the other one. That way
+        // whichever one is used after switching back and forth will rebuild itself instead of using stale data.
+        File staleDir = new File( labelScanDir, enabled ? "lucene" : "native" );
+        if ( fs.fileExists( staleDir ) )
+        {
+            fs.deleteRecursively( staleDir );
+        }
+
+        NativeLabelScanStore scanStore = new NativeLabelScanStore(
+                // <db>/schema/label/native
+                new File( labelScanDir, "native" ), fs,
+                fullStoreLabelUpdateStream( dependencies.getNeoStoreProvider() ),
+                monitor != null ? monitor : loggerMonitor( dependencies.getLogging() ) );
+
+        return new LabelScanStoreProvider( scanStore, enabled ? 100 : 0 );
+    }
+}
@@ -36,11 +36,13 @@ import org.neo4j.helpers.Function;
 import org.neo4j.helpers.Predicate;
 import org.neo4j.helpers.collection.Iterables;
 import org.neo4j.helpers.collection.IteratorUtil;
+import org.neo4j.kernel.api.RelationshipVisitor;
 import org.neo4j.kernel.api.TxState;
 import org.neo4j.kernel.api.constraints.UniquenessConstraint;
 import org.neo4j.kernel.api.index.IndexDescriptor;
 import org.neo4j.kernel.api.properties.DefinedProperty;
 import org.neo4j.kernel.api.properties.Property;
+import org.neo4j.kernel.impl.api.LookupFilter;
 import org.neo4j.kernel.impl.persistence.PersistenceManager;
 import org.neo4j.kernel.impl.util.DiffSets;
 
@@ -471,6 +473,13 @@ public final class TxStateImpl implements TxState
         relationshipDoDelete( relationshipId, state.startNode(), state.endNode(), state.type() );
     }
 
+    @Override
+    public void relationshipVisit( long relationshipId, RelationshipVisitor visitor )
+    {
+        RelationshipState state = getOrCreateRelationshipState( relationshipId );
+        visitor.visit( relationshipId, state.startNode(), state.endNode(), state.type() );
+    }
+
     @Override
     public boolean relationshipIsDeletedInThisTx( long relationshipId )
     {
@@ -983,6 +992,70 @@ public final class TxStateImpl implements TxState
         return diffs == null ? DiffSets.<Long>emptyDiffSets() : diffs;
     }
 
+    @Override
+    public Set<Long> indexUpdatesAddedForRangeSeekByNumber( IndexDescriptor descriptor, final Number lower,
+            final boolean includeLower, final Number upper, final boolean includeUpper )
+    {
+        return indexUpdatesAddedForValues( descriptor, new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object value )
+            {
+                return LookupFilter.numberInRange( value, lower, includeLower, upper, includeUpper );
+            }
+        } );
+    }
+
+    @Override
+    public Set<Long> indexUpdatesAddedForRangeSeekByString( IndexDescriptor descriptor, final String lower,
+            final boolean includeLower, final String upper, final boolean includeUpper )
+    {
+        return indexUpdatesAddedForValues( descriptor, new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object value )
+            {
+                return LookupFilter.stringInRange( value, lower, includeLower, upper, includeUpper );
+            }
+        } );
+    }
+
+    @Override
+    public Set<Long> indexUpdatesAddedForRangeSeekByPrefix( IndexDescriptor descriptor, final String prefix )
+    {
+        return indexUpdatesAddedForValues( descriptor, new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object value )
+            {
+                return LookupFilter.stringHasPrefix( value, prefix );
+            }
+        } );
+    }
+
+    private Set<Long> indexUpdatesAddedForValues( IndexDescriptor descriptor, Predicate<Object> valueFilter )
+    {
+        if ( indexUpdates == null )
+        {
+            return Collections.emptySet();
+        }
+        Map<DefinedProperty, DiffSets<Long>> updates = indexUpdates.get( descriptor.getLabelId() );
+        if ( updates == null )
+        {
+            return Collections.emptySet();
+        }
+        Set<Long> added = new HashSet<>();
+        for ( Map.Entry<DefinedProperty, DiffSets<Long>> entry : updates.entrySet() )
+        {
+            DefinedProperty property = entry.getKey();
+            if ( property.propertyKeyId() == descriptor.getPropertyKeyId() && valueFilter.accept( property.value() ) )
+            {
+                added.addAll( entry.getValue().getAdded() );
+            }
+        }
+        return added;
+    }
+
     @Override
     public void indexUpdateProperty( IndexDescriptor descriptor, long nodeId, DefinedProperty propertyBefore, DefinedProperty propertyAfter )
     {
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.statistics;
+
+import java.io.Serializable;
+
+/**
+ * The outcome of sampling a schema index: how many entries it has and roughly how many distinct values there
+ * are among them, along with how many updates the index has seen since it was sampled.
+ */
+public final class IndexSample implements Serializable
+{
+    private static final long serialVersionUID = -4281764016371046187L;
+
+    private final long indexSize;
+    private final long distinctValues;
+    private final long updatesSinceSample;
+
+    public IndexSample( long indexSize, long distinctValues )
+    {
+        this( indexSize, distinctValues, 0 );
+    }
+
+    private IndexSample( long indexSize, long distinctValues, long updatesSinceSample )
+    {
+        this.indexSize = indexSize;
+        this.distinctValues = distinctValues;
+        this.updatesSinceSample = updatesSinceSample;
+    }
+
+    public long indexSize()
+    {
+        return indexSize;
+    }
+
+    public long distinctValues()
+    {
+        return distinctValues;
+    }
+
+    public long updatesSinceSample()
+    {
+        return updatesSinceSample;
+    }
+
+    /**
+     * @return the fraction of the indexed entries that a lookup of a single value is expected to find, between 0 and 1.
+     */
+    public double selectivity()
+    {
+        return distinctValues == 0 ? 1.0 : 1.0 / distinctValues;
+    }
+
+    public IndexSample withUpdates( long updates )
+    {
+        return new IndexSample( indexSize, distinctValues, updatesSinceSample + updates );
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+
+        IndexSample that = (IndexSample) o;
+        return indexSize == that.indexSize
+                && distinctValues == that.distinctValues
+                && updatesSinceSample == that.updatesSinceSample;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int result = (int) (indexSize ^ (indexSize >>> 32));
+        result = 31 * result + (int) (distinctValues ^ (distinctValues >>> 32));
+        result = 31 * result + (int) (updatesSinceSample ^ (updatesSinceSample >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "IndexSample[size=" + indexSize + ", distinctValues=" + distinctValues +
+                ", updatesSinceSample=" + updatesSinceSample + "]";
+    }
+}
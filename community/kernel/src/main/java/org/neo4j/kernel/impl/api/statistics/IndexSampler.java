@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.statistics;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
+import org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException;
+import org.neo4j.kernel.api.index.IndexDescriptor;
+import org.neo4j.kernel.api.index.InternalIndexState;
+import org.neo4j.kernel.api.labelscan.LabelScanReader;
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
+import org.neo4j.kernel.api.properties.Property;
+import org.neo4j.kernel.impl.api.index.IndexingService;
+import org.neo4j.kernel.impl.api.store.StoreReadLayer;
+import org.neo4j.kernel.impl.util.statistics.HyperLogLog;
+
+/**
+ * Samples the online schema indexes, recording their size and an estimate of the number of distinct values
+ * in them. An index that has been sampled before is only sampled again once it has seen more updates than the
+ * given percentage of its size.
+ *
+ * The values are read from the nodes having the label of the index, which are exactly the ones the index
+ * holds, so that sampling works the same for every index provider. Composite indexes are not sampled.
+ */
+public class IndexSampler
+{
+    private final StoreReadLayer store;
+    private final LabelScanStore labelScanStore;
+    private final IndexingService indexingService;
+    private final int updatePercentage;
+
+    public IndexSampler( StoreReadLayer store, LabelScanStore labelScanStore, IndexingService indexingService,
+                         int updatePercentage )
+    {
+        this.store = store;
+        this.labelScanStore = labelScanStore;
+        this.indexingService = indexingService;
+        this.updatePercentage = updatePercentage;
+    }
+
+    /**
+     * Perform one sampling run.
+     */
+    public void sample( StatisticsCollectedData collectedData )
+    {
+        Set<Long> sampledIndexes = new HashSet<>();
+        Iterator<IndexDescriptor> indexes = store.indexesGetAll();
+        while ( indexes.hasNext() )
+        {
+            IndexDescriptor index = indexes.next();
+            if ( index.isComposite() || !isOnline( index ) )
+            {
+                continue;
+            }
+
+            int labelId = index.getLabelId();
+            int propertyKeyId = index.getPropertyKeyId();
+            sampledIndexes.add( StatisticsCollectedData.indexKey( labelId, propertyKeyId ) );
+
+            IndexSample previous = collectedData.indexSample( labelId, propertyKeyId );
+            long updates = indexingService.takeUpdateCount( index );
+            if ( previous == null || needsResampling( previous, updates ) )
+            {
+                collectedData.recordIndexSample( labelId, propertyKeyId, sampleIndex( labelId, propertyKeyId ) );
+            }
+            else if ( updates > 0 )
+            {
+                collectedData.recordIndexSample( labelId, propertyKeyId, previous.withUpdates( updates ) );
+            }
+        }
+        collectedData.retainIndexSamples( sampledIndexes );
+    }
+
+    private boolean needsResampling( IndexSample previous, long updates )
+    {
+        return (previous.updatesSinceSample() + updates) * 100 > previous.indexSize() * updatePercentage;
+    }
+
+    private boolean isOnline( IndexDescriptor index )
+    {
+        try
+        {
+            return store.indexGetState( index ) == InternalIndexState.ONLINE;
+        }
+        catch ( IndexNotFoundKernelException e )
+        {
+            // The index was dropped while we were looking at it
+            return false;
+        }
+    }
+
+    private IndexSample sampleIndex( int labelId, int propertyKeyId )
+    {
+        long indexSize = 0;
+        HyperLogLog distinctValues = new HyperLogLog();
+        LabelScanReader reader = labelScanStore.newReader();
+        try
+        {
+            PrimitiveLongIterator nodes = reader.nodesWithLabel( labelId );
+            while ( nodes.hasNext() )
+            {
+                Property property;
+                try
+                {
+                    property = store.nodeGetProperty( nodes.next(), propertyKeyId );
+                }
+                catch ( EntityNotFoundException e )
+                {
+                    // Node was deleted while we read it, just exclude it from the sample
+                    continue;
+                }
+
+                Object value = property.value( null );
+                if ( value != null )
+                {
+                    indexSize++;
+                    distinctValues.offer( indexedValue( value ) );
+                }
+            }
+        }
+        finally
+        {
+            reader.close();
+        }
+        return new IndexSample( indexSize, Math.min( indexSize, distinctValues.estimate() ) );
+    }
+
+    /**
+     * Schema indexes consider numbers of different types equal if they have the same value, and compare arrays
+     * by their contents, so the values are made to hash that way as well.
+     */
+    private static Object indexedValue( Object value )
+    {
+        if ( value instanceof Number )
+        {
+            return ((Number) value).doubleValue();
+        }
+        if ( value.getClass().isArray() )
+        {
+            return Arrays.deepHashCode( new Object[]{value} );
+        }
+        return value;
+    }
+}
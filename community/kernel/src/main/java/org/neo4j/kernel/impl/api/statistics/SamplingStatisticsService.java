@@ -37,16 +37,35 @@ public class SamplingStatisticsService extends LifecycleAdapter implements Stati
 {
     private final JobScheduler scheduler;
     private final StatisticsCollector collector;
+    private final boolean collectStatistics;
+    private final Runnable indexSampling;
 
     public static SamplingStatisticsService load( FileSystemAbstraction fs, File path, StoreReadLayer store,
                                                  JobScheduler scheduler )
+    {
+        return load( fs, path, store, null, scheduler );
+    }
+
+    public static SamplingStatisticsService load( FileSystemAbstraction fs, File path, StoreReadLayer store,
+                                                 IndexSampler indexSampler, JobScheduler scheduler )
+    {
+        return load( fs, path, store, indexSampler, scheduler, true );
+    }
+
+    /**
+     * @param collectStatistics whether to collect the statistics of the store, as opposed to only sampling the
+     * schema indexes, if there is an {@code indexSampler}.
+     */
+    public static SamplingStatisticsService load( FileSystemAbstraction fs, File path, StoreReadLayer store,
+                                                 IndexSampler indexSampler, JobScheduler scheduler,
+                                                 boolean collectStatistics )
     {
         if ( fs.fileExists( path ) )
         {
-            try
+            try ( ObjectInputStream in = new ObjectInputStream( fs.openAsInputStream( path ) ) )
             {
-                ObjectInputStream in = new ObjectInputStream( fs.openAsInputStream( path ) );
-                return new SamplingStatisticsService( (StatisticsCollectedData) in.readObject(), store, scheduler );
+                return new SamplingStatisticsService( (StatisticsCollectedData) in.readObject(), store,
+                        indexSampler, scheduler, collectStatistics );
             }
             catch ( Exception e )
             {
@@ -54,7 +73,8 @@ public class SamplingStatisticsService extends LifecycleAdapter implements Stati
             }
         }
 
-        return new SamplingStatisticsService( store, scheduler );
+        return new SamplingStatisticsService( new StatisticsCollectedData(), store, indexSampler, scheduler,
+                collectStatistics );
     }
 
     public SamplingStatisticsService( StoreReadLayer store, JobScheduler scheduler )
@@ -64,21 +84,60 @@ public class SamplingStatisticsService extends LifecycleAdapter implements Stati
 
     public SamplingStatisticsService( StatisticsCollectedData collectedData, StoreReadLayer store,
                                       JobScheduler scheduler )
+    {
+        this( collectedData, store, null, scheduler );
+    }
+
+    /**
+     * @param indexSampler samples the schema indexes into the collected data as well, if not {@code null}.
+     */
+    public SamplingStatisticsService( StatisticsCollectedData collectedData, StoreReadLayer store,
+                                      IndexSampler indexSampler, JobScheduler scheduler )
+    {
+        this( collectedData, store, indexSampler, scheduler, true );
+    }
+
+    public SamplingStatisticsService( final StatisticsCollectedData collectedData, StoreReadLayer store,
+                                      final IndexSampler indexSampler, JobScheduler scheduler,
+                                      boolean collectStatistics )
     {
         this.scheduler = scheduler;
         this.collector = new StatisticsCollector( store, collectedData );
+        this.collectStatistics = collectStatistics;
+        this.indexSampling = indexSampler == null ? null : new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                indexSampler.sample( collectedData );
+            }
+        };
     }
 
     @Override
     public void start() throws Throwable
     {
-        scheduler.scheduleRecurring( JobScheduler.Group.heuristics, collector, 30, TimeUnit.SECONDS );
+        if ( collectStatistics )
+        {
+            scheduler.scheduleRecurring( JobScheduler.Group.heuristics, collector, 30, TimeUnit.SECONDS );
+        }
+        if ( indexSampling != null )
+        {
+            scheduler.scheduleRecurring( JobScheduler.Group.heuristics, indexSampling, 30, TimeUnit.SECONDS );
+        }
     }
 
     @Override
     public void stop() throws Throwable
     {
-        scheduler.cancelRecurring( JobScheduler.Group.heuristics, collector );
+        if ( collectStatistics )
+        {
+            scheduler.cancelRecurring( JobScheduler.Group.heuristics, collector );
+        }
+        if ( indexSampling != null )
+        {
+            scheduler.cancelRecurring( JobScheduler.Group.heuristics, indexSampling );
+        }
     }
 
     @Override
@@ -89,7 +148,6 @@ public class SamplingStatisticsService extends LifecycleAdapter implements Stati
 
     public void save( FileSystemAbstraction fs, File path ) throws IOException
     {
-        fs.create( path );
         try ( OutputStream out = fs.openAsOutputStream( path, false ) )
         {
             ObjectOutputStream objStream = new ObjectOutputStream( out );
@@ -19,10 +19,15 @@
  */
 package org.neo4j.kernel.impl.api.statistics;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.neo4j.graphdb.Direction;
 import org.neo4j.kernel.api.heuristics.StatisticsData;
@@ -41,6 +46,9 @@ public class StatisticsCollectedData implements StatisticsData, Serializable
     private final Map</*label*/Integer, Map</*rel*/Integer, RollingAverage>> outgoingDegrees = new HashMap<>();
     private final Map</*label*/Integer, Map</*rel*/Integer, RollingAverage>> incomingDegrees = new HashMap<>();
     private final Map</*label*/Integer, Map</*rel*/Integer, RollingAverage>> bothDegrees = new HashMap<>();
+    // Sampled in a job of its own, and read by the planner while that job runs. Not in statistics saved by
+    // versions that did not sample indexes, see readObject.
+    private ConcurrentMap</*label and property key*/Long, IndexSample> indexSamples = new ConcurrentHashMap<>();
     private final RollingAverage.Parameters parameters;
 
     public StatisticsCollectedData()
@@ -100,6 +108,20 @@ public class StatisticsCollectedData implements StatisticsData, Serializable
         return 0.0;
     }
 
+    @Override
+    public double indexSelectivity( int labelId, int propertyKeyId )
+    {
+        IndexSample sample = indexSamples.get( indexKey( labelId, propertyKeyId ) );
+        return sample == null ? NO_INDEX_SELECTIVITY : sample.selectivity();
+    }
+
+    @Override
+    public long indexSize( int labelId, int propertyKeyId )
+    {
+        IndexSample sample = indexSamples.get( indexKey( labelId, propertyKeyId ) );
+        return sample == null ? NO_INDEX_SIZE : sample.indexSize();
+    }
+
     @Override
     public double liveNodesRatio()
     {
@@ -137,6 +159,29 @@ public class StatisticsCollectedData implements StatisticsData, Serializable
         nodeLivenessData.recordHighestId( nodeId );
     }
 
+    public IndexSample indexSample( int labelId, int propertyKeyId )
+    {
+        return indexSamples.get( indexKey( labelId, propertyKeyId ) );
+    }
+
+    public void recordIndexSample( int labelId, int propertyKeyId, IndexSample sample )
+    {
+        indexSamples.put( indexKey( labelId, propertyKeyId ), sample );
+    }
+
+    /**
+     * Forgets the samples of all indexes but the given ones, see {@link #indexKey(int, int)}.
+     */
+    public void retainIndexSamples( Set<Long> indexKeys )
+    {
+        indexSamples.keySet().retainAll( indexKeys );
+    }
+
+    static long indexKey( int labelId, int propertyKeyId )
+    {
+        return ((long) labelId << 32) | (propertyKeyId & 0xFFFFFFFFL);
+    }
+
     public Map<Integer, Map<Integer, RollingAverage>> getBothDegree()
     {
         return bothDegrees;
@@ -164,6 +209,16 @@ public class StatisticsCollectedData implements StatisticsData, Serializable
         return parameters;
     }
 
+    private void readObject( ObjectInputStream in ) throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+        if ( indexSamples == null )
+        {
+            // Saved before indexes were sampled, the samples will be taken again
+            indexSamples = new ConcurrentHashMap<>();
+        }
+    }
+
     @Override
     public boolean equals( Object o )
     {
@@ -182,6 +237,7 @@ public class StatisticsCollectedData implements StatisticsData, Serializable
                 && incomingDegrees.equals( that.incomingDegrees )
                 && outgoingDegrees.equals( that.outgoingDegrees )
                 && nodeLivenessData.equals( that.nodeLivenessData )
+                && indexSamples.equals( that.indexSamples )
                 && labels.equals( that.labels )
                 && relationships.equals( that.relationships );
     }
@@ -195,6 +251,7 @@ public class StatisticsCollectedData implements StatisticsData, Serializable
         result = 31 * result + incomingDegrees.hashCode();
         result = 31 * result + bothDegrees.hashCode();
         result = 31 * result + nodeLivenessData.hashCode();
+        result = 31 * result + indexSamples.hashCode();
         return result;
     }
 }
@@ -22,12 +22,16 @@ package org.neo4j.kernel.impl.api.statistics;
 import java.io.File;
 import java.io.IOException;
 
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
 import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.api.store.StoreReadLayer;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 import org.neo4j.kernel.impl.util.JobScheduler;
 
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.store_dir;
+import static org.neo4j.kernel.InternalAbstractGraphDatabase.Configuration.index_sampling_enabled;
+import static org.neo4j.kernel.InternalAbstractGraphDatabase.Configuration.index_sampling_update_percentage;
 import static org.neo4j.kernel.InternalAbstractGraphDatabase.Configuration.statistics_enabled;
 
 public class StatisticsServiceRepository
@@ -35,22 +39,32 @@ public class StatisticsServiceRepository
     private final FileSystemAbstraction fs;
     private final Config config;
     private final StoreReadLayer store;
+    private final LabelScanStore labelScanStore;
+    private final IndexingService indexingService;
     private final JobScheduler scheduler;
 
     public StatisticsServiceRepository( FileSystemAbstraction fs, Config config, StoreReadLayer store,
+                                        LabelScanStore labelScanStore, IndexingService indexingService,
                                         JobScheduler scheduler )
     {
         this.fs = fs;
         this.config = config;
         this.store = store;
+        this.labelScanStore = labelScanStore;
+        this.indexingService = indexingService;
         this.scheduler = scheduler;
     }
 
     public StatisticsService loadStatistics()
     {
+        // Index sampling is cheap compared to collecting the statistics, and the planner depends on it for
+        // choosing between indexes, so it runs on its own unless turned off
+        IndexSampler indexSampler = config.get( index_sampling_enabled ) ? new IndexSampler( store,
+                labelScanStore, indexingService, config.get( index_sampling_update_percentage ) ) : null;
+        boolean statisticsEnabled = config.get( statistics_enabled );
         SamplingStatisticsService runtime = SamplingStatisticsService.load( this.fs, statisticsFile(), store,
-                scheduler );
-        if(config.get( statistics_enabled ))
+                indexSampler, scheduler, statisticsEnabled );
+        if( statisticsEnabled || indexSampler != null )
         {
             return runtime;
         }
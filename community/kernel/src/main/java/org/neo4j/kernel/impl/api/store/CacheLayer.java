@@ -38,6 +38,7 @@
  */
 package org.neo4j.kernel.impl.api.store;
 
+import java.util.Arrays;
 import java.util.Iterator;
 
 import org.neo4j.collection.primitive.PrimitiveIntCollections;
@@ -46,6 +47,7 @@ import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.helpers.Function;
 import org.neo4j.helpers.Predicate;
+import org.neo4j.kernel.api.RelationshipVisitor;
 import org.neo4j.kernel.api.constraints.UniquenessConstraint;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.api.exceptions.LabelNotFoundKernelException;
@@ -92,7 +94,7 @@ public class CacheLayer implements StoreReadLayer
         {
             IndexRule rule = (IndexRule) from;
             // We know that we only have int range of property key ids.
-            return new IndexDescriptor( rule.getLabel(), rule.getPropertyKey() );
+            return new IndexDescriptor( rule.getLabel(), rule.getPropertyKeys() );
         }
     };
     private final CacheLoader<Iterator<DefinedProperty>> nodePropertyLoader = new CacheLoader<Iterator<DefinedProperty>>()
@@ -236,7 +238,8 @@ public class CacheLayer implements StoreReadLayer
             if ( rule instanceof IndexRule )
             {
                 IndexRule indexRule = (IndexRule) rule;
-                if ( kind.isOfKind( indexRule ) && indexRule.getPropertyKey() == index.getPropertyKeyId() )
+                if ( kind.isOfKind( indexRule ) &&
+                     Arrays.equals( indexRule.getPropertyKeys(), index.getPropertyKeyIds() ) )
                 {
                     return indexRule;
                 }
@@ -343,6 +346,18 @@ public class CacheLayer implements StoreReadLayer
         return diskLayer.nodesGetForLabel( state, labelId );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetForAllLabels( KernelStatement state, int... labelIds )
+    {
+        return diskLayer.nodesGetForAllLabels( state, labelIds );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetForAnyLabel( KernelStatement state, int... labelIds )
+    {
+        return diskLayer.nodesGetForAnyLabel( state, labelIds );
+    }
+
     @Override
     public PrimitiveLongResourceIterator nodesGetFromIndexLookup( KernelStatement state, IndexDescriptor index, Object value )
             throws IndexNotFoundKernelException
@@ -350,6 +365,39 @@ public class CacheLayer implements StoreReadLayer
         return diskLayer.nodesGetFromIndexLookup( state, schemaCache.indexId( index ), value );
     }
 
+    @Override
+    public PrimitiveLongResourceIterator nodesGetFromIndexRangeSeekByNumber( KernelStatement state,
+            IndexDescriptor index, Number lower, boolean includeLower, Number upper, boolean includeUpper )
+            throws IndexNotFoundKernelException
+    {
+        return diskLayer.nodesGetFromIndexRangeSeekByNumber( state, schemaCache.indexId( index ),
+                lower, includeLower, upper, includeUpper );
+    }
+
+    @Override
+    public PrimitiveLongResourceIterator nodesGetFromIndexRangeSeekByString( KernelStatement state,
+            IndexDescriptor index, String lower, boolean includeLower, String upper, boolean includeUpper )
+            throws IndexNotFoundKernelException
+    {
+        return diskLayer.nodesGetFromIndexRangeSeekByString( state, schemaCache.indexId( index ),
+                lower, includeLower, upper, includeUpper );
+    }
+
+    @Override
+    public PrimitiveLongResourceIterator nodesGetFromIndexRangeSeekByPrefix( KernelStatement state,
+            IndexDescriptor index, String prefix ) throws IndexNotFoundKernelException
+    {
+        return diskLayer.nodesGetFromIndexRangeSeekByPrefix( state, schemaCache.indexId( index ), prefix );
+    }
+
+    @Override
+    public PrimitiveLongResourceIterator nodesGetFromIndexCompositeSeek( KernelStatement state,
+            IndexDescriptor index, Object... leadingValues ) throws IndexNotFoundKernelException
+    {
+        return diskLayer.nodesGetFromIndexCompositeSeek( state, schemaCache.indexId( index ),
+                index.getPropertyKeyIds().length, leadingValues );
+    }
+
     @Override
     public IndexDescriptor indexesGetForLabelAndPropertyKey( int labelId, int propertyKey )
     {
@@ -43,6 +43,7 @@ import org.neo4j.kernel.api.exceptions.RelationshipTypeIdNotFoundKernelException
 import org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException;
 import org.neo4j.kernel.api.exceptions.schema.SchemaRuleNotFoundException;
 import org.neo4j.kernel.api.exceptions.schema.TooManyLabelsException;
+import org.neo4j.kernel.api.index.CompositeValue;
 import org.neo4j.kernel.api.index.IndexDescriptor;
 import org.neo4j.kernel.api.index.IndexReader;
 import org.neo4j.kernel.api.index.InternalIndexState;
@@ -238,6 +239,16 @@ public class DiskLayer
         return state.getLabelScanReader().nodesWithLabel( labelId );
     }
 
+    public PrimitiveLongIterator nodesGetForAllLabels( KernelStatement state, int... labelIds )
+    {
+        return state.getLabelScanReader().nodesWithAllLabels( labelIds );
+    }
+
+    public PrimitiveLongIterator nodesGetForAnyLabel( KernelStatement state, int... labelIds )
+    {
+        return state.getLabelScanReader().nodesWithAnyLabel( labelIds );
+    }
+
     public IndexDescriptor indexesGetForLabelAndPropertyKey( int labelId, int propertyKey )
             throws SchemaRuleNotFoundException
     {
@@ -246,7 +257,7 @@ public class DiskLayer
 
     private static IndexDescriptor descriptor( IndexRule ruleRecord )
     {
-        return new IndexDescriptor( ruleRecord.getLabel(), ruleRecord.getPropertyKey() );
+        return new IndexDescriptor( ruleRecord.getLabel(), ruleRecord.getPropertyKeys() );
     }
 
     public Iterator<IndexDescriptor> indexesGetForLabel( int labelId )
@@ -331,12 +342,12 @@ public class DiskLayer
     public Long indexGetOwningUniquenessConstraintId( IndexDescriptor index )
             throws SchemaRuleNotFoundException
     {
-        return schemaStorage.indexRule( index.getLabelId(), index.getPropertyKeyId() ).getOwningConstraint();
+        return indexRule( index ).getOwningConstraint();
     }
 
     public long indexGetCommittedId( IndexDescriptor index ) throws SchemaRuleNotFoundException
     {
-        return schemaStorage.indexRule( index.getLabelId(), index.getPropertyKeyId() ).getId();
+        return indexRule( index ).getId();
     }
 
     public InternalIndexState indexGetState( IndexDescriptor descriptor )
@@ -350,11 +361,16 @@ public class DiskLayer
         return indexService.getProxyForRule( indexId( descriptor ) ).getPopulationFailure().asString();
     }
 
+    private IndexRule indexRule( IndexDescriptor index ) throws SchemaRuleNotFoundException
+    {
+        return schemaStorage.indexRule( index.getLabelId(), index.getPropertyKeyIds(), SchemaStorage.IndexRuleKind.ALL );
+    }
+
     private long indexId( IndexDescriptor descriptor ) throws IndexNotFoundKernelException
     {
         try
         {
-            return schemaStorage.indexRule( descriptor.getLabelId(), descriptor.getPropertyKeyId() ).getId();
+            return indexRule( descriptor ).getId();
         }
         catch ( SchemaRuleNotFoundException e )
         {
@@ -461,6 +477,39 @@ public class DiskLayer
         return resourceIterator( reader.lookup( value ), reader );
     }
 
+    public PrimitiveLongResourceIterator nodesGetFromIndexRangeSeekByNumber( KernelStatement state, long index,
+            Number lower, boolean includeLower, Number upper, boolean includeUpper )
+            throws IndexNotFoundKernelException
+    {
+        IndexReader reader = state.getIndexReader( index );
+        return resourceIterator( reader.rangeSeekByNumber( lower, includeLower, upper, includeUpper ), reader );
+    }
+
+    public PrimitiveLongResourceIterator nodesGetFromIndexRangeSeekByString( KernelStatement state, long index,
+            String lower, boolean includeLower, String upper, boolean includeUpper )
+            throws IndexNotFoundKernelException
+    {
+        IndexReader reader = state.getIndexReader( index );
+        return resourceIterator( reader.rangeSeekByString( lower, includeLower, upper, includeUpper ), reader );
+    }
+
+    public PrimitiveLongResourceIterator nodesGetFromIndexRangeSeekByPrefix( KernelStatement state, long index,
+            String prefix ) throws IndexNotFoundKernelException
+    {
+        IndexReader reader = state.getIndexReader( index );
+        return resourceIterator( reader.rangeSeekByPrefix( prefix ), reader );
+    }
+
+    public PrimitiveLongResourceIterator nodesGetFromIndexCompositeSeek( KernelStatement state, long index,
+            int numberOfKeys, Object... leadingValues ) throws IndexNotFoundKernelException
+    {
+        IndexReader reader = state.getIndexReader( index );
+        PrimitiveLongIterator nodes = leadingValues.length == numberOfKeys ?
+                reader.lookup( new CompositeValue( leadingValues ) ) :
+                reader.compositePrefixSeek( leadingValues );
+        return resourceIterator( nodes, reader );
+    }
+
     private Iterator<DefinedProperty> loadAllPropertiesOf( PrimitiveRecord primitiveRecord )
     {
         Collection<PropertyRecord> records = propertyStore.getPropertyRecordChain( primitiveRecord.getNextProp() );
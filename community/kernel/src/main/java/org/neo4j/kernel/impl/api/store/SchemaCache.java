@@ -53,7 +53,7 @@ public class SchemaCache
     private final Map<Long, SchemaRule> rulesByIdMap = new HashMap<>();
 
     private final Collection<UniquenessConstraint> constraints = new HashSet<>();
-    private final Map<Integer, Map<Integer, CommittedIndexDescriptor>> indexDescriptors = new HashMap<>();
+    private final Map<Integer, Map<IndexDescriptor, CommittedIndexDescriptor>> indexDescriptors = new HashMap<>();
 
     public SchemaCache( Iterable<SchemaRule> initialRules )
     {
@@ -141,13 +141,14 @@ public class SchemaCache
         else if( rule instanceof IndexRule )
         {
             IndexRule indexRule = (IndexRule) rule;
-            Map<Integer, CommittedIndexDescriptor> byLabel = indexDescriptors.get( indexRule.getLabel() );
+            Map<IndexDescriptor, CommittedIndexDescriptor> byLabel = indexDescriptors.get( indexRule.getLabel() );
             if ( byLabel == null )
             {
                 indexDescriptors.put( indexRule.getLabel(), byLabel = new HashMap<>() );
             }
-            byLabel.put( indexRule.getPropertyKey(), new CommittedIndexDescriptor( indexRule.getLabel(),
-                    indexRule.getPropertyKey(), indexRule.getId() ) );
+            CommittedIndexDescriptor committed = new CommittedIndexDescriptor( indexRule.getLabel(),
+                    indexRule.getPropertyKeys(), indexRule.getId() );
+            byLabel.put( committed.getDescriptor(), committed );
         }
     }
 
@@ -169,9 +170,9 @@ public class SchemaCache
         private final IndexDescriptor descriptor;
         private final long id;
 
-        public CommittedIndexDescriptor( int labelId, int propertyKey, long id )
+        public CommittedIndexDescriptor( int labelId, int[] propertyKeys, long id )
         {
-            this.descriptor = new IndexDescriptor( labelId, propertyKey );
+            this.descriptor = new IndexDescriptor( labelId, propertyKeys );
             this.id = id;
         }
 
@@ -208,8 +209,8 @@ public class SchemaCache
         else if( rule instanceof IndexRule )
         {
             IndexRule indexRule = (IndexRule) rule;
-            Map<Integer, CommittedIndexDescriptor> byLabel = indexDescriptors.get( indexRule.getLabel() );
-            byLabel.remove( indexRule.getPropertyKey() );
+            Map<IndexDescriptor, CommittedIndexDescriptor> byLabel = indexDescriptors.get( indexRule.getLabel() );
+            byLabel.remove( new IndexDescriptor( indexRule.getLabel(), indexRule.getPropertyKeys() ) );
             if ( byLabel.isEmpty() )
             {
                 indexDescriptors.remove( indexRule.getLabel() );
@@ -219,10 +220,10 @@ public class SchemaCache
 
     public long indexId( IndexDescriptor index )
     {
-        Map<Integer, CommittedIndexDescriptor> byLabel = indexDescriptors.get( index.getLabelId() );
+        Map<IndexDescriptor, CommittedIndexDescriptor> byLabel = indexDescriptors.get( index.getLabelId() );
         if ( byLabel != null )
         {
-            CommittedIndexDescriptor committed = byLabel.get( index.getPropertyKeyId() );
+            CommittedIndexDescriptor committed = byLabel.get( index );
             if ( committed != null )
             {
                 return committed.getId();
@@ -239,10 +240,15 @@ public class SchemaCache
 
     public IndexDescriptor indexDescriptor( int labelId, int propertyKey )
     {
-        Map<Integer, CommittedIndexDescriptor> byLabel = indexDescriptors.get( labelId );
+        return indexDescriptor( labelId, new int[]{propertyKey} );
+    }
+
+    public IndexDescriptor indexDescriptor( int labelId, int[] propertyKeys )
+    {
+        Map<IndexDescriptor, CommittedIndexDescriptor> byLabel = indexDescriptors.get( labelId );
         if ( byLabel != null )
         {
-            CommittedIndexDescriptor committed = byLabel.get( propertyKey );
+            CommittedIndexDescriptor committed = byLabel.get( new IndexDescriptor( labelId, propertyKeys ) );
             if ( committed != null )
             {
                 return committed.getDescriptor();
@@ -256,7 +262,7 @@ public class SchemaCache
         SchemaRule rule = rulesByIdMap.get( indexId );
         if ( rule instanceof IndexRule )
         {
-            return indexDescriptor( rule.getLabel(), ((IndexRule) rule).getPropertyKey() );
+            return indexDescriptor( rule.getLabel(), ((IndexRule) rule).getPropertyKeys() );
         }
         return null;
     }
@@ -24,6 +24,7 @@ import java.util.Iterator;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.api.RelationshipVisitor;
 import org.neo4j.kernel.api.constraints.UniquenessConstraint;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.api.exceptions.LabelNotFoundKernelException;
@@ -114,9 +115,27 @@ public interface StoreReadLayer
 
     PrimitiveLongIterator nodesGetForLabel( KernelStatement state, int labelId );
 
+    PrimitiveLongIterator nodesGetForAllLabels( KernelStatement state, int... labelIds );
+
+    PrimitiveLongIterator nodesGetForAnyLabel( KernelStatement state, int... labelIds );
+
     PrimitiveLongResourceIterator nodesGetFromIndexLookup( KernelStatement state, IndexDescriptor index, Object value )
             throws IndexNotFoundKernelException;
 
+    PrimitiveLongResourceIterator nodesGetFromIndexRangeSeekByNumber( KernelStatement state, IndexDescriptor index,
+            Number lower, boolean includeLower, Number upper, boolean includeUpper )
+            throws IndexNotFoundKernelException;
+
+    PrimitiveLongResourceIterator nodesGetFromIndexRangeSeekByString( KernelStatement state, IndexDescriptor index,
+            String lower, boolean includeLower, String upper, boolean includeUpper )
+            throws IndexNotFoundKernelException;
+
+    PrimitiveLongResourceIterator nodesGetFromIndexRangeSeekByPrefix( KernelStatement state, IndexDescriptor index,
+            String prefix ) throws IndexNotFoundKernelException;
+
+    PrimitiveLongResourceIterator nodesGetFromIndexCompositeSeek( KernelStatement state, IndexDescriptor index,
+            Object... leadingValues ) throws IndexNotFoundKernelException;
+
     IndexDescriptor indexesGetForLabelAndPropertyKey( int labelId, int propertyKey );
 
     InternalIndexState indexGetState( IndexDescriptor descriptor ) throws IndexNotFoundKernelException;
@@ -148,9 +167,4 @@ public interface StoreReadLayer
     void visit( long relationshipId, RelationshipVisitor relationshipVisitor ) throws EntityNotFoundException;
 
     long highestNodeIdInUse();
-
-    public interface RelationshipVisitor
-    {
-        void visit( long relId, long startNode, long endNode, int type );
-    }
 }
@@ -171,6 +171,12 @@ public class NoTransactionState implements TransactionState
         return false;
     }
 
+    @Override
+    public int changedEntityCount()
+    {
+        return 0;
+    }
+
     @Override
     public RemoteTxHook getTxHook()
     {
@@ -101,6 +101,12 @@ public interface TransactionState
 
     // Tech debt, this is here waiting for transaction state to move to the TxState class
     Iterable<WritableTransactionState.CowNodeElement> getChangedNodes();
+
+    /**
+     * @return the number of nodes and relationships that have been created or changed in this transaction, as a
+     * measure of how much memory the transaction state is holding on to.
+     */
+    int changedEntityCount();
     
     /**
      * Below are two methods for getting and setting a {@link ResourceHolder}, i.e. a carrier of a
@@ -750,6 +750,17 @@ public class WritableTransactionState implements TransactionState
         return primitiveElement.nodes.values();
     }
 
+    @Override
+    public int changedEntityCount()
+    {
+        if ( primitiveElement == null )
+        {
+            return 0;
+        }
+        return primitiveElement.nodes.size() + primitiveElement.relationships.size() +
+                primitiveElement.createdNodes.size() + primitiveElement.createdRelationships.size();
+    }
+
     @Override
     public boolean nodeIsDeleted( long nodeId )
     {
@@ -35,9 +35,12 @@ import org.neo4j.kernel.api.exceptions.schema.TooManyLabelsException;
  */
 public interface InternalSchemaActions
 {
-    IndexDefinition createIndexDefinition( Label label, String propertyKey );
+    /**
+     * Creates an index on the given property keys, in index key order. More than one key creates a composite index.
+     */
+    IndexDefinition createIndexDefinition( Label label, String... propertyKeys );
 
-    void dropIndexDefinitions( Label label, String propertyKey );
+    void dropIndexDefinitions( Label label, String... propertyKeys );
 
     ConstraintDefinition createPropertyUniquenessConstraint( Label label, String propertyKey )
             throws IllegalTokenNameException, TooManyLabelsException, CreateConstraintFailureException,
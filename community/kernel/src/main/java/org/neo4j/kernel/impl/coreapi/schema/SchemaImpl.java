@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.coreapi.schema;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -71,7 +72,6 @@ import static org.neo4j.graphdb.schema.Schema.IndexState.POPULATING;
 import static org.neo4j.helpers.collection.Iterables.map;
 import static org.neo4j.helpers.collection.IteratorUtil.addToCollection;
 import static org.neo4j.helpers.collection.IteratorUtil.asCollection;
-import static org.neo4j.helpers.collection.IteratorUtil.single;
 
 public class SchemaImpl implements Schema
 {
@@ -136,8 +136,13 @@ public class SchemaImpl implements Schema
                 try
                 {
                     Label label = label( statement.labelGetName( rule.getLabelId() ) );
-                    String propertyKey = statement.propertyKeyGetName( rule.getPropertyKeyId() );
-                    return new IndexDefinitionImpl( actions, label, propertyKey, constraintIndex );
+                    int[] propertyKeyIds = rule.getPropertyKeyIds();
+                    String[] propertyKeys = new String[propertyKeyIds.length];
+                    for ( int i = 0; i < propertyKeyIds.length; i++ )
+                    {
+                        propertyKeys[i] = statement.propertyKeyGetName( propertyKeyIds[i] );
+                    }
+                    return new IndexDefinitionImpl( actions, label, propertyKeys, constraintIndex );
                 }
                 catch ( LabelNotFoundKernelException | PropertyKeyIdNotFoundKernelException e )
                 {
@@ -207,23 +212,10 @@ public class SchemaImpl implements Schema
     {
         assertInTransaction();
 
-        String propertyKey = single( index.getPropertyKeys() );
+        String propertyKey = propertyKeysDescription( index.getPropertyKeys() );
         try ( Statement statement = statementContextProvider.instance() )
         {
-            int labelId = statement.readOperations().labelGetForName( index.getLabel().name() );
-            int propertyKeyId = statement.readOperations().propertyKeyGetForName( propertyKey );
-
-            if ( labelId == KeyReadOperations.NO_SUCH_LABEL )
-            {
-                throw new NotFoundException( format( "Label %s not found", index.getLabel().name() ) );
-            }
-
-            if ( propertyKeyId == KeyReadOperations.NO_SUCH_PROPERTY_KEY )
-            {
-                throw new NotFoundException( format( "Property key %s not found", propertyKey ) );
-            }
-
-            IndexDescriptor descriptor = statement.readOperations().indexesGetForLabelAndPropertyKey( labelId, propertyKeyId );
+            IndexDescriptor descriptor = indexDescriptor( statement.readOperations(), index );
             InternalIndexState indexState = statement.readOperations().indexGetState( descriptor );
             switch ( indexState )
             {
@@ -249,30 +241,81 @@ public class SchemaImpl implements Schema
     {
         assertInTransaction();
 
-        String propertyKey = single( index.getPropertyKeys() );
+        String propertyKey = propertyKeysDescription( index.getPropertyKeys() );
         try ( Statement statement = statementContextProvider.instance() )
         {
-            int labelId = statement.readOperations().labelGetForName( index.getLabel().name() );
-            int propertyKeyId = statement.readOperations().propertyKeyGetForName( propertyKey );
+            IndexDescriptor indexId = indexDescriptor( statement.readOperations(), index );
+            return statement.readOperations().indexGetFailure( indexId );
+        }
+        catch ( SchemaRuleNotFoundException | IndexNotFoundKernelException e )
+        {
+            throw new NotFoundException( format( "No index for label %s on property %s",
+                    index.getLabel().name(), propertyKey ) );
+        }
+    }
 
-            if ( labelId == KeyReadOperations.NO_SUCH_LABEL )
-            {
-                throw new NotFoundException( format( "Label %s not found", index.getLabel().name() ) );
-            }
+    private static IndexDescriptor indexDescriptor( ReadOperations readOperations, IndexDefinition index )
+            throws SchemaRuleNotFoundException
+    {
+        int labelId = readOperations.labelGetForName( index.getLabel().name() );
+        if ( labelId == KeyReadOperations.NO_SUCH_LABEL )
+        {
+            throw new NotFoundException( format( "Label %s not found", index.getLabel().name() ) );
+        }
 
+        List<Integer> propertyKeyIds = new ArrayList<>();
+        for ( String propertyKey : index.getPropertyKeys() )
+        {
+            int propertyKeyId = readOperations.propertyKeyGetForName( propertyKey );
             if ( propertyKeyId == KeyReadOperations.NO_SUCH_PROPERTY_KEY )
             {
                 throw new NotFoundException( format( "Property key %s not found", propertyKey ) );
             }
+            propertyKeyIds.add( propertyKeyId );
+        }
+        return indexDescriptor( readOperations, labelId, toIntArray( propertyKeyIds ) );
+    }
+
+    /**
+     * Single key indexes are looked up directly, composite indexes are found among the indexes of the label.
+     */
+    private static IndexDescriptor indexDescriptor( ReadOperations readOperations, int labelId, int[] propertyKeyIds )
+            throws SchemaRuleNotFoundException
+    {
+        if ( propertyKeyIds.length == 1 )
+        {
+            return readOperations.indexesGetForLabelAndPropertyKey( labelId, propertyKeyIds[0] );
+        }
+        Iterator<IndexDescriptor> indexes = readOperations.indexesGetForLabel( labelId );
+        while ( indexes.hasNext() )
+        {
+            IndexDescriptor descriptor = indexes.next();
+            if ( Arrays.equals( descriptor.getPropertyKeyIds(), propertyKeyIds ) )
+            {
+                return descriptor;
+            }
+        }
+        throw new SchemaRuleNotFoundException( labelId, propertyKeyIds, "not found" );
+    }
 
-            IndexDescriptor indexId = statement.readOperations().indexesGetForLabelAndPropertyKey( labelId, propertyKeyId );
-            return statement.readOperations().indexGetFailure( indexId );
+    private static int[] toIntArray( List<Integer> values )
+    {
+        int[] result = new int[values.size()];
+        for ( int i = 0; i < result.length; i++ )
+        {
+            result[i] = values.get( i );
         }
-        catch ( SchemaRuleNotFoundException | IndexNotFoundKernelException e )
+        return result;
+    }
+
+    private static String propertyKeysDescription( Iterable<String> propertyKeys )
+    {
+        StringBuilder result = new StringBuilder();
+        for ( String propertyKey : propertyKeys )
         {
-            throw new NotFoundException( format( "No index for label %s on property %s",
-                    index.getLabel().name(), propertyKey ) );
+            result.append( result.length() > 0 ? ", " : "" ).append( propertyKey );
         }
+        return result.toString();
     }
 
     @Override
@@ -356,16 +399,28 @@ public class SchemaImpl implements Schema
         }
 
         @Override
-        public IndexDefinition createIndexDefinition( Label label, String propertyKey )
+        public IndexDefinition createIndexDefinition( Label label, String... propertyKeys )
         {
             try ( Statement statement = ctxProvider.instance() )
             {
                 try
                 {
                     int labelId = statement.schemaWriteOperations().labelGetOrCreateForName( label.name() );
-                    int propertyKeyId = statement.schemaWriteOperations().propertyKeyGetOrCreateForName( propertyKey );
-                    statement.schemaWriteOperations().indexCreate( labelId, propertyKeyId );
-                    return new IndexDefinitionImpl( this, label, propertyKey, false );
+                    int[] propertyKeyIds = new int[propertyKeys.length];
+                    for ( int i = 0; i < propertyKeys.length; i++ )
+                    {
+                        propertyKeyIds[i] =
+                                statement.schemaWriteOperations().propertyKeyGetOrCreateForName( propertyKeys[i] );
+                    }
+                    if ( propertyKeyIds.length == 1 )
+                    {
+                        statement.schemaWriteOperations().indexCreate( labelId, propertyKeyIds[0] );
+                    }
+                    else
+                    {
+                        statement.schemaWriteOperations().indexCreate( labelId, propertyKeyIds );
+                    }
+                    return new IndexDefinitionImpl( this, label, propertyKeys, false );
                 }
                 catch ( AlreadyIndexedException e )
                 {
@@ -402,23 +457,30 @@ public class SchemaImpl implements Schema
         }
 
         @Override
-        public void dropIndexDefinitions( Label label, String propertyKey )
+        public void dropIndexDefinitions( Label label, String... propertyKeys )
         {
             try ( Statement statement = ctxProvider.instance() )
             {
                 int labelId = statement.readOperations().labelGetForName( label.name() );
-                int propertyKeyId = statement.readOperations().propertyKeyGetForName( propertyKey );
+                int[] propertyKeyIds = new int[propertyKeys.length];
+                boolean allPropertyKeysExist = true;
+                for ( int i = 0; i < propertyKeys.length; i++ )
+                {
+                    propertyKeyIds[i] = statement.readOperations().propertyKeyGetForName( propertyKeys[i] );
+                    allPropertyKeysExist &= propertyKeyIds[i] != KeyReadOperations.NO_SUCH_PROPERTY_KEY;
+                }
 
-                if ( labelId != KeyReadOperations.NO_SUCH_LABEL && propertyKeyId != KeyReadOperations
-                        .NO_SUCH_PROPERTY_KEY )
+                if ( labelId != KeyReadOperations.NO_SUCH_LABEL && allPropertyKeysExist )
                 {
-                    statement.schemaWriteOperations().indexDrop( statement.readOperations().indexesGetForLabelAndPropertyKey( labelId, propertyKeyId ) );
+                    statement.schemaWriteOperations().indexDrop(
+                            indexDescriptor( statement.readOperations(), labelId, propertyKeyIds ) );
                 }
             }
             catch ( SchemaRuleNotFoundException | DropIndexFailureException e )
             {
                 throw new ConstraintViolationException( String.format(
-                        "Unable to drop index on label `%s` for property %s.", label.name(), propertyKey ), e );
+                        "Unable to drop index on label `%s` for property %s.", label.name(),
+                        propertyKeysDescription( Arrays.asList( propertyKeys ) ) ), e );
             }
             catch ( InvalidTransactionTypeKernelException e )
             {
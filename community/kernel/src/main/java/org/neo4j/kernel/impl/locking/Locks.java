@@ -54,6 +54,12 @@ public interface Locks extends Lifecycle
         }
 
         public abstract Locks newInstance( ResourceType[] resourceTypes );
+
+        /** Lock managers that can report on contention override this, the default ignores the monitor. */
+        public Locks newInstance( ResourceType[] resourceTypes, Monitor monitor )
+        {
+            return newInstance( resourceTypes );
+        }
     }
 
     /** For introspection and debugging. */
@@ -63,6 +69,34 @@ public interface Locks extends Lifecycle
         void visit( ResourceType resourceType, long resourceId, String description, long estimatedWaitTime );
     }
 
+    /** Notified about lock contention, typically through {@link org.neo4j.kernel.monitoring.Monitors}. */
+    public interface Monitor
+    {
+        /** Called when a client had to wait for another client to release a lock before acquiring it. */
+        void lockWaited( ResourceType resourceType, long waitTimeNanos );
+
+        /**
+         * Called when a client waiting for a lock has checked for deadlocks, with the number of other clients it
+         * was found to be waiting for, directly or through other waiting clients.
+         */
+        void waitForEdgesSampled( ResourceType resourceType, int waitForEdges );
+
+        Monitor NONE = new Adapter();
+
+        public class Adapter implements Monitor
+        {
+            @Override
+            public void lockWaited( ResourceType resourceType, long waitTimeNanos )
+            {
+            }
+
+            @Override
+            public void waitForEdgesSampled( ResourceType resourceType, int waitForEdges )
+            {
+            }
+        }
+    }
+
     /** Locks are split by resource types. It is up to the implementation to define the contract for these. */
     public interface ResourceType
     {
@@ -112,6 +146,9 @@ public interface Locks extends Lifecycle
         /** Associate with transaction (for debug). */
         void setTx( Transaction tx );
 
+        /** The number of distinct shared and exclusive locks currently held by this client. */
+        int activeLockCount();
+
         /** Releases all locks, using the client after calling this is undefined. */
         @Override
         void close();
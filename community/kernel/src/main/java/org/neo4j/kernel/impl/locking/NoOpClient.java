@@ -75,6 +75,12 @@ public class NoOpClient implements Locks.Client
     {
     }
 
+    @Override
+    public int activeLockCount()
+    {
+        return 0;
+    }
+
     @Override
     public void close()
     {
@@ -202,6 +202,22 @@ public class CommunityLockClient implements Locks.Client
         this.tx = tx;
     }
 
+    @Override
+    public int activeLockCount()
+    {
+        return countLocks( sharedLocks ) + countLocks( exclusiveLocks );
+    }
+
+    private static int countLocks( Map<Locks.ResourceType, Map<Long, LockResource>> locks )
+    {
+        int count = 0;
+        for ( Map<Long, LockResource> map : locks.values() )
+        {
+            count += map.size();
+        }
+        return count;
+    }
+
     @Override
     public void close()
     {
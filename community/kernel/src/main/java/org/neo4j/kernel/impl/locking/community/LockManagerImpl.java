@@ -26,6 +26,7 @@ import javax.transaction.Transaction;
 
 import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.transaction.IllegalResourceException;
 import org.neo4j.kernel.impl.transaction.LockManager;
 import org.neo4j.kernel.impl.util.StringLogger;
@@ -35,10 +36,17 @@ public class LockManagerImpl implements LockManager
 {
     private final Map<Object,RWLock> resourceLockMap = new HashMap<>();
     private final RagManager ragManager;
+    private final Locks.Monitor monitor;
 
     public LockManagerImpl( RagManager ragManager )
+    {
+        this( ragManager, Locks.Monitor.NONE );
+    }
+
+    public LockManagerImpl( RagManager ragManager, Locks.Monitor monitor )
     {
         this.ragManager = ragManager;
+        this.monitor = monitor;
     }
 
     @Override
@@ -143,7 +151,7 @@ public class LockManagerImpl implements LockManager
             RWLock lock = resourceLockMap.get( resource );
             if ( lock == null )
             {
-                lock = new RWLock( resource, ragManager );
+                lock = new RWLock( resource, ragManager, monitor );
                 resourceLockMap.put( resource, lock );
             }
             lock.mark();
@@ -27,6 +27,7 @@ import javax.transaction.Transaction;
 
 import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.transaction.LockType;
 import org.neo4j.kernel.impl.util.ArrayMap;
 import org.neo4j.kernel.impl.util.StringLogger.LineLogger;
@@ -69,16 +70,23 @@ class RWLock implements Visitor<LineLogger, RuntimeException>
     private final LinkedList<WaitElement> waitingThreadList = new LinkedList<>();
     private final ArrayMap<Transaction,TxLockElement> txLockElementMap = new ArrayMap<>( (byte)5, false, true );
     private final RagManager ragManager;
-    
+    private final Locks.Monitor monitor;
+
     // access to these is guarded by synchronized blocks
     private int totalReadCount;
     private int totalWriteCount;
     private int marked; // synch helper in LockManager
 
     RWLock( Object resource, RagManager ragManager )
+    {
+        this( resource, ragManager, Locks.Monitor.NONE );
+    }
+
+    RWLock( Object resource, RagManager ragManager, Locks.Monitor monitor )
     {
         this.resource = resource;
         this.ragManager = ragManager;
+        this.monitor = monitor;
     }
 
     // keeps track of a transactions read and write lock count on this RWLock
@@ -123,6 +131,12 @@ class RWLock implements Visitor<LineLogger, RuntimeException>
         return resource;
     }
 
+    private void lockWaited( long waitTimeNanos )
+    {
+        Locks.ResourceType resourceType = resource instanceof LockResource ? ((LockResource) resource).type() : null;
+        monitor.lockWaited( resourceType, waitTimeNanos );
+    }
+
     synchronized void mark()
     {
         this.marked++;
@@ -155,11 +169,17 @@ class RWLock implements Visitor<LineLogger, RuntimeException>
 
             boolean shouldAddWait = true;
             Thread currentThread = currentThread();
+            long waitStartTime = 0;
 
             while ( totalWriteCount > tle.writeCount )
             {
                 ragManager.checkWaitOn( this, tx );
 
+                if ( waitStartTime == 0 )
+                {
+                    waitStartTime = System.nanoTime();
+                }
+
                 if (shouldAddWait)
                 {
                     waitingThreadList.addFirst( new WaitElement( tle, READ, currentThread) );
@@ -179,6 +199,10 @@ class RWLock implements Visitor<LineLogger, RuntimeException>
                 ragManager.stopWaitOn( this, tx );
             }
 
+            if ( waitStartTime != 0 )
+            {
+                lockWaited( System.nanoTime() - waitStartTime );
+            }
             registerReadLockAcquired( tx, tle );
         }
         finally
@@ -340,11 +364,17 @@ class RWLock implements Visitor<LineLogger, RuntimeException>
 
             boolean shouldAddWait = true;
             Thread currentThread = currentThread();
+            long waitStartTime = 0;
 
             while ( totalWriteCount > tle.writeCount || totalReadCount > tle.readCount )
             {
                 ragManager.checkWaitOn( this, tx );
 
+                if ( waitStartTime == 0 )
+                {
+                    waitStartTime = System.nanoTime();
+                }
+
                 if (shouldAddWait)
                 {
                     waitingThreadList.addFirst( new WaitElement( tle, WRITE, currentThread) );
@@ -364,6 +394,10 @@ class RWLock implements Visitor<LineLogger, RuntimeException>
                 ragManager.stopWaitOn( this, tx );
             }
 
+            if ( waitStartTime != 0 )
+            {
+                lockWaited( System.nanoTime() - waitStartTime );
+            }
             registerWriteLockAcquired( tx, tle );
         }
         finally
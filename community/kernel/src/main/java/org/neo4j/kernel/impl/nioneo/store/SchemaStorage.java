@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.impl.nioneo.store;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 
@@ -95,7 +96,7 @@ public class SchemaStorage implements SchemaRuleAccess
                     @Override
                     public boolean accept( IndexRule item )
                     {
-                        return item.getPropertyKey() == propertyKeyId;
+                        return !item.isComposite() && item.getPropertyKey() == propertyKeyId;
                     }
                 } );
 
@@ -123,6 +124,40 @@ public class SchemaStorage implements SchemaRuleAccess
         return foundRule;
     }
 
+    /**
+     * Find the IndexRule of the given kind, for the given label and exactly the given property keys, in order.
+     * This is how composite index rules are found.
+     *
+     * Otherwise throw if there is no matching rule.
+     */
+    public IndexRule indexRule( int labelId, final int[] propertyKeyIds, IndexRuleKind kind )
+            throws SchemaRuleNotFoundException
+    {
+        if ( propertyKeyIds.length == 1 )
+        {
+            return indexRule( labelId, propertyKeyIds[0], kind );
+        }
+        Iterator<IndexRule> rules = schemaRules(
+                IndexRule.class, labelId,
+                new Predicate<IndexRule>()
+                {
+                    @Override
+                    public boolean accept( IndexRule item )
+                    {
+                        return Arrays.equals( item.getPropertyKeys(), propertyKeyIds );
+                    }
+                } );
+        while ( rules.hasNext() )
+        {
+            IndexRule candidate = rules.next();
+            if ( kind.isOfKind( candidate ) )
+            {
+                return candidate;
+            }
+        }
+        throw new SchemaRuleNotFoundException( labelId, propertyKeyIds, "not found" );
+    }
+
     public Iterator<IndexRule> allIndexRules()
     {
         return schemaRules( IndexRule.class );
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store.windowpool;
+
+import java.io.File;
+
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.nioneo.store.OperationType;
+import org.neo4j.kernel.impl.nioneo.store.PersistenceWindow;
+import org.neo4j.kernel.impl.nioneo.store.StoreChannel;
+import org.neo4j.kernel.impl.nioneo.store.WindowPoolStats;
+import org.neo4j.kernel.impl.util.StringLogger;
+
+/**
+ * Creates window pools which mark the pages of each record acquired for writing in {@link ChangedStorePages}.
+ */
+public class ChangeTrackingWindowPoolFactory implements WindowPoolFactory
+{
+    private final WindowPoolFactory delegate;
+    private final ChangedStorePages changedStorePages;
+
+    public ChangeTrackingWindowPoolFactory( WindowPoolFactory delegate, ChangedStorePages changedStorePages )
+    {
+        this.delegate = delegate;
+        this.changedStorePages = changedStorePages;
+    }
+
+    @Override
+    public WindowPool create( File storageFileName, int recordSize, StoreChannel fileChannel, Config configuration,
+                              StringLogger log, int numberOfReservedLowIds )
+    {
+        return new ChangeTrackingWindowPool( delegate.create( storageFileName, recordSize, fileChannel, configuration,
+                log, numberOfReservedLowIds ), changedStorePages.track( storageFileName ), recordSize );
+    }
+
+    private static class ChangeTrackingWindowPool implements WindowPool
+    {
+        private final WindowPool delegate;
+        private final ChangedPages changes;
+        private final int recordSize;
+
+        ChangeTrackingWindowPool( WindowPool delegate, ChangedPages changes, int recordSize )
+        {
+            this.delegate = delegate;
+            this.changes = changes;
+            this.recordSize = recordSize;
+        }
+
+        @Override
+        public PersistenceWindow acquire( long position, OperationType operationType )
+        {
+            if ( operationType == OperationType.WRITE )
+            {
+                changes.mark( position * recordSize, recordSize );
+            }
+            return delegate.acquire( position, operationType );
+        }
+
+        @Override
+        public void release( PersistenceWindow window )
+        {
+            delegate.release( window );
+        }
+
+        @Override
+        public void flushAll()
+        {
+            delegate.flushAll();
+        }
+
+        @Override
+        public void close()
+        {
+            delegate.close();
+        }
+
+        @Override
+        public WindowPoolStats getStats()
+        {
+            return delegate.getStats();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store.windowpool;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps a bit per page of a store file, set when a record on that page is written. The pages are counted
+ * from a baseline, the last committed transaction at the time the baseline was started, see
+ * {@link ChangedStorePages#startNewBaseline(long)}. A store which at least contains all transactions up to
+ * the baseline can be brought up to date by copying the pages marked here, along with all pages at or beyond
+ * the length the store file had when the baseline was started.
+ *
+ * The pages changed between earlier baselines are kept too, so that stores based on different baselines, such
+ * as backups taken to different places, can all be brought up to date. Only the last {@link #MAX_BASELINES} are
+ * kept apart, older ones are merged with the baseline following them, which only makes stores based on them
+ * copy some more pages.
+ */
+public class ChangedPages
+{
+    public static final int PAGE_SIZE = 8 * 1024;
+    public static final long NO_BASELINE = -1;
+
+    static final int MAX_BASELINES = 8;
+
+    private static final int PAGE_SHIFT = 13;
+    private static final int WORDS_PER_CHUNK = 1024;
+
+    private final File storeFile;
+    private final LinkedList<Snapshot> previousBaselines = new LinkedList<>();
+    private volatile AtomicLongArray[] chunks = new AtomicLongArray[0];
+    private volatile long baselineTx;
+    private volatile long baselineLength;
+
+    ChangedPages( File storeFile, long baselineTx, long baselineLength, long[] words )
+    {
+        this.storeFile = storeFile;
+        this.baselineTx = baselineTx;
+        this.baselineLength = baselineLength;
+        for ( int i = 0; i < words.length; i++ )
+        {
+            if ( words[i] != 0 )
+            {
+                chunk( i / WORDS_PER_CHUNK ).set( i % WORDS_PER_CHUNK, words[i] );
+            }
+        }
+    }
+
+    public File storeFile()
+    {
+        return storeFile;
+    }
+
+    public long baselineTx()
+    {
+        return baselineTx;
+    }
+
+    /**
+     * Marks the pages covering {@code length} bytes starting at {@code offset} as changed.
+     */
+    public void mark( long offset, int length )
+    {
+        long lastPage = (offset + length - 1) >>> PAGE_SHIFT;
+        for ( long page = offset >>> PAGE_SHIFT; page <= lastPage; page++ )
+        {
+            long word = page >>> 6;
+            AtomicLongArray chunk = chunk( (int) (word / WORDS_PER_CHUNK) );
+            int index = (int) (word % WORDS_PER_CHUNK);
+            long bit = 1L << (page & 63);
+            long current;
+            do
+            {
+                current = chunk.get( index );
+                if ( (current & bit) != 0 )
+                {
+                    break;
+                }
+            }
+            while ( !chunk.compareAndSet( index, current, current | bit ) );
+        }
+    }
+
+    /**
+     * Ends the current baseline, keeping the changes counted from it, and starts a new, empty one at
+     * {@code newBaselineTx}, with the store file being {@code currentLength} bytes long.
+     */
+    synchronized void startNewBaseline( long newBaselineTx, long currentLength )
+    {
+        if ( baselineTx != NO_BASELINE )
+        {
+            previousBaselines.addLast( new Snapshot( storeFile, baselineTx, baselineLength, words( true ) ) );
+            if ( previousBaselines.size() > MAX_BASELINES )
+            {
+                Snapshot oldest = previousBaselines.removeFirst();
+                previousBaselines.addFirst( oldest.merge( previousBaselines.removeFirst() ) );
+            }
+        }
+        else
+        {
+            words( true );
+        }
+        baselineTx = newBaselineTx;
+        baselineLength = currentLength;
+    }
+
+    /**
+     * @return the changes up to the current baseline, counted from the latest earlier baseline which a store
+     * containing all transactions up to {@code lastAppliedTx} is based on, or a snapshot without a baseline if
+     * there is no such baseline.
+     */
+    synchronized Snapshot changesBefore( long lastAppliedTx )
+    {
+        Snapshot changes = null;
+        for ( Iterator<Snapshot> baselines = previousBaselines.descendingIterator(); baselines.hasNext(); )
+        {
+            Snapshot baseline = baselines.next();
+            changes = changes == null ? baseline : baseline.merge( changes );
+            if ( baseline.baselineTx() <= lastAppliedTx )
+            {
+                return changes;
+            }
+        }
+        return new Snapshot( storeFile, NO_BASELINE, 0, new long[0] );
+    }
+
+    /**
+     * @return the earlier baselines, oldest first, followed by the current one.
+     */
+    synchronized List<Snapshot> baselines()
+    {
+        List<Snapshot> baselines = new ArrayList<>( previousBaselines );
+        baselines.add( new Snapshot( storeFile, baselineTx, baselineLength, words( false ) ) );
+        return baselines;
+    }
+
+    /**
+     * Restores earlier baselines, oldest first, as read back by {@link #baselines()}.
+     */
+    synchronized void restorePreviousBaselines( List<Snapshot> baselines )
+    {
+        previousBaselines.addAll( baselines );
+    }
+
+    private long[] words( boolean clear )
+    {
+        AtomicLongArray[] chunks = this.chunks;
+        long[] words = new long[chunks.length * WORDS_PER_CHUNK];
+        for ( int i = 0; i < chunks.length; i++ )
+        {
+            if ( chunks[i] == null )
+            {
+                continue;
+            }
+            for ( int j = 0; j < WORDS_PER_CHUNK; j++ )
+            {
+                words[i * WORDS_PER_CHUNK + j] = clear ? chunks[i].getAndSet( j, 0 ) : chunks[i].get( j );
+            }
+        }
+        return words;
+    }
+
+    private AtomicLongArray chunk( int index )
+    {
+        AtomicLongArray[] chunks = this.chunks;
+        if ( index < chunks.length && chunks[index] != null )
+        {
+            return chunks[index];
+        }
+        synchronized ( this )
+        {
+            chunks = this.chunks;
+            if ( index >= chunks.length )
+            {
+                AtomicLongArray[] grown = new AtomicLongArray[index + 1];
+                System.arraycopy( chunks, 0, grown, 0, chunks.length );
+                chunks = grown;
+            }
+            if ( chunks[index] == null )
+            {
+                chunks[index] = new AtomicLongArray( WORDS_PER_CHUNK );
+            }
+            this.chunks = chunks;
+            return chunks[index];
+        }
+    }
+
+    /**
+     * The pages of a store file changed between a baseline and the point where the next baseline was started.
+     */
+    public static class Snapshot
+    {
+        private final File storeFile;
+        private final long baselineTx;
+        private final long baselineLength;
+        private final long[] words;
+
+        Snapshot( File storeFile, long baselineTx, long baselineLength, long[] words )
+        {
+            this.storeFile = storeFile;
+            this.baselineTx = baselineTx;
+            this.baselineLength = baselineLength;
+            this.words = words;
+        }
+
+        public File storeFile()
+        {
+            return storeFile;
+        }
+
+        /**
+         * @return the transaction the changes are counted from, or {@link #NO_BASELINE} if they are not known,
+         * for example because the database was not shut down cleanly since tracking started.
+         */
+        public long baselineTx()
+        {
+            return baselineTx;
+        }
+
+        long baselineLength()
+        {
+            return baselineLength;
+        }
+
+        long[] words()
+        {
+            return words;
+        }
+
+        /**
+         * @return the changes from this baseline up to the end of {@code next}, which follows this one.
+         */
+        Snapshot merge( Snapshot next )
+        {
+            long[] merged = new long[Math.max( words.length, next.words.length )];
+            for ( int i = 0; i < merged.length; i++ )
+            {
+                merged[i] = (i < words.length ? words[i] : 0) | (i < next.words.length ? next.words[i] : 0);
+            }
+            return new Snapshot( storeFile, baselineTx, baselineLength, merged );
+        }
+
+        /**
+         * @return whether the page may differ from what it was at the baseline.
+         */
+        public boolean isChanged( long page )
+        {
+            if ( page >= baselineLength >>> PAGE_SHIFT )
+            {
+                return true;
+            }
+            long word = page >>> 6;
+            return word < words.length && (words[(int) word] & (1L << (page & 63))) != 0;
+        }
+    }
+}
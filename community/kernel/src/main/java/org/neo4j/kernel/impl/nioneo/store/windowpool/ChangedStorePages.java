@@ -0,0 +1,236 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store.windowpool;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.nioneo.store.NeoStore;
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+
+import static org.neo4j.kernel.impl.nioneo.store.windowpool.ChangedPages.NO_BASELINE;
+
+/**
+ * Tracks the {@link ChangedPages changed pages} of all store files opened through a
+ * {@link ChangeTrackingWindowPoolFactory}.
+ *
+ * The changed pages are only written to disk on a clean shutdown, together with the length of each store file
+ * and the last committed transaction of the store at that point. A marker is kept in the directory of the
+ * changed pages from start to clean shutdown. On start, if the marker is still there or the store files do not
+ * match what was written, for example because the database crashed or the store was modified by other tools or
+ * without tracking in between, tracking starts over without a baseline. The same goes for a store file which is
+ * opened again while running, since that only happens when the store files are replaced.
+ */
+public class ChangedStorePages extends LifecycleAdapter
+{
+    public static final String DIRECTORY_NAME = "changed_pages";
+
+    static final String RUNNING_MARKER = "running";
+
+    private static final int FORMAT_VERSION = 2;
+
+    private final File directory;
+    private final File neoStore;
+    private final FileSystemAbstraction fileSystem;
+    private final StringLogger logger;
+    private final Map<String, ChangedPages> persisted = new HashMap<>();
+    private final Map<String, ChangedPages> tracked = new HashMap<>();
+
+    public ChangedStorePages( File storeDir, FileSystemAbstraction fileSystem, StringLogger logger )
+    {
+        this.directory = new File( storeDir, DIRECTORY_NAME );
+        this.neoStore = new File( storeDir, NeoStore.DEFAULT_NAME );
+        this.fileSystem = fileSystem;
+        this.logger = logger;
+    }
+
+    @Override
+    public synchronized void start() throws IOException
+    {
+        fileSystem.mkdirs( directory );
+        File marker = new File( directory, RUNNING_MARKER );
+        boolean stoppedCleanly = !fileSystem.fileExists( marker );
+        if ( !stoppedCleanly )
+        {
+            logger.info( "Database was not shut down cleanly while changed pages were tracked, " +
+                    "will start tracking from scratch" );
+        }
+        long lastCommittedTx = lastCommittedTx();
+        for ( File file : fileSystem.listFiles( directory ) )
+        {
+            if ( stoppedCleanly && !file.equals( marker ) )
+            {
+                ChangedPages changes = read( file, lastCommittedTx );
+                if ( changes != null )
+                {
+                    persisted.put( file.getName(), changes );
+                }
+            }
+            // Anything left on disk from here on would be out of date as soon as the store is written to
+            fileSystem.deleteFile( file );
+        }
+        fileSystem.create( marker ).close();
+    }
+
+    @Override
+    public synchronized void stop() throws IOException
+    {
+        long lastCommittedTx = lastCommittedTx();
+        for ( ChangedPages changes : tracked.values() )
+        {
+            write( changes, lastCommittedTx );
+        }
+        tracked.clear();
+        persisted.clear();
+        fileSystem.deleteFile( new File( directory, RUNNING_MARKER ) );
+    }
+
+    /**
+     * Called as a store file is opened.
+     */
+    public synchronized ChangedPages track( File storeFile )
+    {
+        String name = storeFile.getName();
+        ChangedPages changes = persisted.remove( name );
+        if ( changes == null )
+        {
+            changes = new ChangedPages( storeFile, NO_BASELINE, 0, new long[0] );
+        }
+        tracked.put( name, changes );
+        return changes;
+    }
+
+    /**
+     * Starts a new baseline for all tracked store files. Must be called when no transaction is being applied to
+     * the store, with the last committed transaction at that point.
+     */
+    public synchronized void startNewBaseline( long lastCommittedTx )
+    {
+        for ( ChangedPages changes : tracked.values() )
+        {
+            changes.startNewBaseline( lastCommittedTx, fileSystem.getFileSize( changes.storeFile() ) );
+        }
+    }
+
+    /**
+     * Starts a new baseline for all tracked store files, like {@link #startNewBaseline(long)}, for bringing a
+     * store up to date which contains all transactions up to {@code lastAppliedTx}.
+     *
+     * @return the changes up to the new baseline, counted from the latest baseline that store is based on.
+     */
+    public synchronized Collection<ChangedPages.Snapshot> startNewBaseline( long lastCommittedTx, long lastAppliedTx )
+    {
+        startNewBaseline( lastCommittedTx );
+        Collection<ChangedPages.Snapshot> snapshots = new ArrayList<>( tracked.size() );
+        for ( ChangedPages changes : tracked.values() )
+        {
+            snapshots.add( changes.changesBefore( lastAppliedTx ) );
+        }
+        return snapshots;
+    }
+
+    private long lastCommittedTx()
+    {
+        return fileSystem.fileExists( neoStore ) ? NeoStore.getTxId( fileSystem, neoStore ) : NO_BASELINE;
+    }
+
+    private ChangedPages read( File file, long lastCommittedTx )
+    {
+        File storeFile = new File( directory.getParentFile(), file.getName() );
+        try ( DataInputStream in = new DataInputStream(
+                new BufferedInputStream( fileSystem.openAsInputStream( file ) ) ) )
+        {
+            if ( in.readInt() != FORMAT_VERSION )
+            {
+                return null;
+            }
+            long length = in.readLong();
+            long storeLastCommittedTx = in.readLong();
+            if ( length != fileSystem.getFileSize( storeFile ) || storeLastCommittedTx != lastCommittedTx )
+            {
+                logger.info( "Store file " + storeFile + " has been modified since changed pages were last " +
+                        "tracked, will start tracking from scratch" );
+                return null;
+            }
+            List<ChangedPages.Snapshot> baselines = new ArrayList<>();
+            for ( int count = in.readInt(); count > 0; count-- )
+            {
+                long baselineTx = in.readLong();
+                long baselineLength = in.readLong();
+                long[] words = new long[in.readInt()];
+                for ( int i = 0; i < words.length; i++ )
+                {
+                    words[i] = in.readLong();
+                }
+                baselines.add( new ChangedPages.Snapshot( storeFile, baselineTx, baselineLength, words ) );
+            }
+            ChangedPages.Snapshot current = baselines.remove( baselines.size() - 1 );
+            ChangedPages changes = new ChangedPages( storeFile, current.baselineTx(), current.baselineLength(),
+                    current.words() );
+            changes.restorePreviousBaselines( baselines );
+            return changes;
+        }
+        catch ( IOException e )
+        {
+            logger.warn( "Unable to read changed pages of " + storeFile + ", will start tracking from scratch", e );
+            return null;
+        }
+    }
+
+    private void write( ChangedPages changes, long lastCommittedTx ) throws IOException
+    {
+        File storeFile = changes.storeFile();
+        if ( changes.baselineTx() == NO_BASELINE || !fileSystem.fileExists( storeFile ) )
+        {
+            return;
+        }
+        List<ChangedPages.Snapshot> baselines = changes.baselines();
+        try ( DataOutputStream out = new DataOutputStream( new BufferedOutputStream(
+                fileSystem.openAsOutputStream( new File( directory, storeFile.getName() ), false ) ) ) )
+        {
+            out.writeInt( FORMAT_VERSION );
+            out.writeLong( fileSystem.getFileSize( storeFile ) );
+            out.writeLong( lastCommittedTx );
+            out.writeInt( baselines.size() );
+            for ( ChangedPages.Snapshot baseline : baselines )
+            {
+                long[] words = baseline.words();
+                out.writeLong( baseline.baselineTx() );
+                out.writeLong( baseline.baselineLength() );
+                out.writeInt( words.length );
+                for ( long word : words )
+                {
+                    out.writeLong( word );
+                }
+            }
+        }
+    }
+}
@@ -35,6 +35,7 @@ import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.kernel.api.EntityType;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.api.exceptions.PropertyNotFoundException;
+import org.neo4j.kernel.api.index.CompositeValue;
 import org.neo4j.kernel.api.index.IndexDescriptor;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
 import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
@@ -76,6 +77,7 @@ public class NeoStoreIndexStoreView implements IndexStoreView
     {
         final int soughtLabelId = descriptor.getLabelId();
         final int soughtPropertyKeyId = descriptor.getPropertyKeyId();
+        final int[] soughtPropertyKeyIds = descriptor.getPropertyKeyIds();
         return new NodeStoreScan<NodePropertyUpdate, FAILURE>()
         {
             @Override
@@ -86,6 +88,10 @@ public class NeoStoreIndexStoreView implements IndexStoreView
                 {
                     return null;
                 }
+                if ( soughtPropertyKeyIds.length > 1 )
+                {
+                    return readComposite( node, labels );
+                }
                 for ( PropertyBlock property : properties( node ) )
                 {
                     int propertyKeyId = property.getKeyIndexId();
@@ -97,6 +103,34 @@ public class NeoStoreIndexStoreView implements IndexStoreView
                 return null;
             }
 
+            /**
+             * Nodes are only in a composite index if they have all of its property keys.
+             */
+            private NodePropertyUpdate readComposite( NodeRecord node, long[] labels )
+            {
+                Object[] values = new Object[soughtPropertyKeyIds.length];
+                int found = 0;
+                for ( PropertyBlock property : properties( node ) )
+                {
+                    int propertyKeyId = property.getKeyIndexId();
+                    for ( int i = 0; i < soughtPropertyKeyIds.length; i++ )
+                    {
+                        if ( soughtPropertyKeyIds[i] == propertyKeyId )
+                        {
+                            values[i] = valueOf( property );
+                            found++;
+                            break;
+                        }
+                    }
+                }
+                if ( found < values.length )
+                {
+                    return null;
+                }
+                return NodePropertyUpdate.add( node.getId(), soughtPropertyKeyId, new CompositeValue( values ),
+                        labels );
+            }
+
             @Override
             protected void process( NodePropertyUpdate update ) throws FAILURE
             {
@@ -21,6 +21,7 @@ package org.neo4j.kernel.impl.nioneo.xa;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -82,6 +83,8 @@ import org.neo4j.kernel.impl.nioneo.store.Store;
 import org.neo4j.kernel.impl.nioneo.store.StoreFactory;
 import org.neo4j.kernel.impl.nioneo.store.StoreId;
 import org.neo4j.kernel.impl.nioneo.store.WindowPoolStats;
+import org.neo4j.kernel.impl.nioneo.store.windowpool.ChangedPages;
+import org.neo4j.kernel.impl.nioneo.store.windowpool.ChangedStorePages;
 import org.neo4j.kernel.impl.nioneo.xa.command.PhysicalLogNeoXaCommandWriter;
 import org.neo4j.kernel.impl.persistence.IdGenerationFailedException;
 import org.neo4j.kernel.impl.persistence.PersistenceManager;
@@ -712,6 +715,34 @@ public class NeoStoreXaDataSource extends LogBackedXaDataSource implements NeoSt
         return xaContainer;
     }
 
+    /**
+     * Starts a new baseline for the changed store pages at the last committed transaction. This is done under the
+     * lock that transactions are applied under, so that no transaction has been partly applied as the baseline
+     * moves.
+     */
+    public void startNewChangedPagesBaseline( ChangedStorePages changedStorePages )
+    {
+        synchronized ( xaContainer.getResourceManager() )
+        {
+            changedStorePages.startNewBaseline( getLastCommittedTxId() );
+        }
+    }
+
+    /**
+     * Starts a new baseline for the changed store pages, like {@link #startNewChangedPagesBaseline(ChangedStorePages)}.
+     *
+     * @return the changes since the latest baseline a store containing all transactions up to
+     * {@code lastAppliedTx} is based on.
+     */
+    public Collection<ChangedPages.Snapshot> startNewChangedPagesBaseline( ChangedStorePages changedStorePages,
+            long lastAppliedTx )
+    {
+        synchronized ( xaContainer.getResourceManager() )
+        {
+            return changedStorePages.startNewBaseline( getLastCommittedTxId(), lastAppliedTx );
+        }
+    }
+
     public KernelAPI getKernel()
     {
         return kernel;
@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.xa.command;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.kernel.impl.transaction.xaframework.LogBuffer;
+import org.neo4j.kernel.impl.transaction.xaframework.LogEntry;
+import org.neo4j.kernel.impl.transaction.xaframework.LogEntryWriter;
+
+/**
+ * A {@link SlaveLogWriter} for a batch of received transactions. Entries are written to the log as they come in,
+ * but commit and done entries are held back until {@link #flush()}, which writes the log out once for the whole
+ * batch and only then commits the held back transactions, in the order they were received. As for a single
+ * transaction, nothing reaches the store before its commit entry has been written out, and the done entry of a
+ * transaction is not written before it has been committed.
+ */
+public class BatchingSlaveLogWriter extends LogHandler.Filter
+{
+    private LogBuffer writeBuffer;
+
+    private final LogWriter.SPI spi;
+    private final LogEntryWriter logEntryWriter;
+    private final List<LogEntry> heldBack = new ArrayList<>();
+
+    public BatchingSlaveLogWriter( LogHandler applier, LogWriter.SPI spi, LogEntryWriter logEntryWriter )
+    {
+        super( applier );
+        this.logEntryWriter = logEntryWriter;
+        this.spi = spi;
+    }
+
+    @Override
+    public void startLog()
+    {
+        writeBuffer = spi.getWriteBuffer();
+        super.startLog();
+    }
+
+    @Override
+    public void startEntry( LogEntry.Start startEntry ) throws IOException
+    {
+        // Applied before written, for the same reason as in SlaveLogWriter
+        startEntry.setStartPosition( writeBuffer.getFileChannelPosition() );
+        super.startEntry( startEntry );
+        logEntryWriter.writeLogEntry( startEntry, writeBuffer );
+    }
+
+    @Override
+    public void prepareEntry( LogEntry.Prepare prepareEntry ) throws IOException
+    {
+        logEntryWriter.writeLogEntry( prepareEntry, writeBuffer );
+        super.prepareEntry( prepareEntry );
+    }
+
+    @Override
+    public void onePhaseCommitEntry( LogEntry.OnePhaseCommit onePhaseCommitEntry ) throws IOException
+    {
+        logEntryWriter.writeLogEntry( onePhaseCommitEntry, writeBuffer );
+        heldBack.add( onePhaseCommitEntry );
+    }
+
+    @Override
+    public void twoPhaseCommitEntry( LogEntry.TwoPhaseCommit twoPhaseCommitEntry ) throws IOException
+    {
+        logEntryWriter.writeLogEntry( twoPhaseCommitEntry, writeBuffer );
+        heldBack.add( twoPhaseCommitEntry );
+    }
+
+    @Override
+    public void doneEntry( LogEntry.Done doneEntry ) throws IOException
+    {
+        heldBack.add( doneEntry );
+    }
+
+    @Override
+    public void commandEntry( LogEntry.Command commandEntry ) throws IOException
+    {
+        logEntryWriter.writeLogEntry( commandEntry, writeBuffer );
+        super.commandEntry( commandEntry );
+    }
+
+    /**
+     * Drops the held back entries without committing their transactions, for when applying the batch failed.
+     */
+    public void discard()
+    {
+        heldBack.clear();
+    }
+
+    /**
+     * Writes the log out and commits all transactions received since the last flush.
+     */
+    public void flush() throws IOException
+    {
+        if ( heldBack.isEmpty() )
+        {
+            return;
+        }
+
+        try
+        {
+            writeBuffer.writeOut();
+            for ( LogEntry entry : heldBack )
+            {
+                if ( entry.getType() == LogEntry.DONE )
+                {
+                    logEntryWriter.writeLogEntry( entry, writeBuffer );
+                }
+                entry.accept( delegate );
+            }
+        }
+        finally
+        {
+            heldBack.clear();
+        }
+    }
+}
@@ -33,6 +33,7 @@ import org.neo4j.kernel.impl.storemigration.monitoring.VisibleMigrationProgressM
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.kernel.logging.Logging;
 import org.neo4j.kernel.logging.SystemOutLogging;
+import org.neo4j.kernel.monitoring.Monitors;
 
 import static java.lang.String.format;
 import static org.neo4j.kernel.extension.UnsatisfiedDependencyStrategies.ignore;
@@ -112,6 +113,10 @@ public class StoreMigrationTool
                 {
                     return type.cast( config );
                 }
+                if ( Monitors.class.isAssignableFrom( type ) )
+                {
+                    return type.cast( new Monitors() );
+                }
                 throw new IllegalArgumentException( type.toString() );
             }
         };
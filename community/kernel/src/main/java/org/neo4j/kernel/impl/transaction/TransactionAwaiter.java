@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction;
+
+import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
+
+/**
+ * Lets a request wait until this database has applied a transaction that its client has seen committed, possibly
+ * on another instance. On a single instance every committed transaction is already applied, so a wait only ever
+ * runs out for transaction ids that have not been committed yet. Subclasses that can fetch missing transactions
+ * from elsewhere do so in {@link #catchUp(long)}.
+ */
+public class TransactionAwaiter
+{
+    static final long POLL_INTERVAL_MILLIS = 5;
+
+    private final XaDataSourceManager xaDataSourceManager;
+
+    public TransactionAwaiter( XaDataSourceManager xaDataSourceManager )
+    {
+        this.xaDataSourceManager = xaDataSourceManager;
+    }
+
+    /**
+     * @return the id of the last transaction applied to the graph store, which clients can hand back to
+     * {@link #await(long, long)}, on this or any other instance, to read their own writes.
+     */
+    public long lastCommittedTxId()
+    {
+        return xaDataSourceManager.getXaDataSource( NeoStoreXaDataSource.DEFAULT_DATA_SOURCE_NAME )
+                .getLastCommittedTxId();
+    }
+
+    /**
+     * Waits at most {@code timeoutMillis} for the graph store to have applied transaction {@code txId}.
+     *
+     * @return {@code true} if the transaction has been applied, {@code false} if the wait ran out.
+     */
+    public boolean await( long txId, long timeoutMillis ) throws InterruptedException
+    {
+        if ( lastCommittedTxId() >= txId )
+        {
+            return true;
+        }
+
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        catchUp( txId );
+        while ( lastCommittedTxId() < txId )
+        {
+            long remaining = deadline - System.currentTimeMillis();
+            if ( remaining <= 0 )
+            {
+                return false;
+            }
+            Thread.sleep( Math.min( POLL_INTERVAL_MILLIS, remaining ) );
+        }
+        return true;
+    }
+
+    /**
+     * Called once per wait, when transaction {@code txId} has not yet been applied, to fetch whatever this instance
+     * is missing up to it. Transactions already on their way will still be waited for after this returns.
+     */
+    protected void catchUp( long txId )
+    {
+    }
+}
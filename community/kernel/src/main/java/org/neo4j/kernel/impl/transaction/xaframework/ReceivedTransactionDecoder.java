@@ -0,0 +1,230 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.xaframework;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+import org.neo4j.helpers.Pair;
+import org.neo4j.kernel.impl.nioneo.xa.command.LogReader;
+import org.neo4j.kernel.impl.util.Consumer;
+import org.neo4j.kernel.impl.util.Cursor;
+
+import static org.neo4j.helpers.Exceptions.launderedException;
+
+/**
+ * Reads and decodes committed transactions received from another instance, ahead of them being applied.
+ * The first transaction is decoded by the caller of {@link #next()}. If there are more, the rest are decoded
+ * into a bounded queue by a job on the given executor, so that decoding of the next transactions overlaps with
+ * applying the previous ones. The received transactions are consumed strictly in order, one at a time, since
+ * they generally are views of a single, sequentially read, network buffer.
+ */
+class ReceivedTransactionDecoder implements Runnable
+{
+    static class DecodedTransaction
+    {
+        final long txId;
+        final List<LogEntry> entries;
+
+        DecodedTransaction( long txId, List<LogEntry> entries )
+        {
+            this.txId = txId;
+            this.entries = entries;
+        }
+    }
+
+    private static final DecodedTransaction END = new DecodedTransaction( -1, null );
+
+    private final Iterator<Pair<Long, ReadableByteChannel>> transactions;
+    private final LogReader<ReadableByteChannel> reader;
+    private final BlockingQueue<DecodedTransaction> decoded;
+    private final Executor executor;
+    private final CountDownLatch finished = new CountDownLatch( 1 );
+    private boolean started;
+    private boolean ended;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+    // The thread decoding, while it is, guarded by this
+    private Thread decoder;
+
+    ReceivedTransactionDecoder( Iterator<Pair<Long, ReadableByteChannel>> transactions,
+                                LogReader<ReadableByteChannel> reader, int decodeAhead, Executor executor )
+    {
+        this.transactions = transactions;
+        this.reader = reader;
+        this.decoded = new ArrayBlockingQueue<>( decodeAhead );
+        this.executor = executor;
+    }
+
+    /**
+     * @return the next received transaction, or {@code null} if there are no more.
+     * @throws IOException if the transaction couldn't be read.
+     */
+    DecodedTransaction next() throws IOException
+    {
+        if ( !started )
+        {
+            if ( ended || !transactions.hasNext() )
+            {
+                ended = true;
+                return null;
+            }
+            DecodedTransaction first = decode( transactions.next() );
+            if ( transactions.hasNext() )
+            {
+                executor.execute( this );
+                started = true;
+            }
+            else
+            {
+                ended = true;
+            }
+            return first;
+        }
+
+        if ( ended )
+        {
+            return null;
+        }
+        DecodedTransaction transaction;
+        try
+        {
+            transaction = decoded.take();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException( "Interrupted while waiting for received transactions to be decoded", e );
+        }
+        if ( transaction == END )
+        {
+            ended = true;
+            if ( failure != null )
+            {
+                throw launderedException( IOException.class, "Unable to read received transaction", failure );
+            }
+            return null;
+        }
+        return transaction;
+    }
+
+    /**
+     * Stops the decoding job, if started, and waits for it to finish. Transactions not yet decoded
+     * are left as they are.
+     */
+    void close()
+    {
+        if ( !started )
+        {
+            return;
+        }
+        synchronized ( this )
+        {
+            closed = true;
+            if ( decoder != null )
+            {
+                decoder.interrupt();
+            }
+        }
+        decoded.clear();
+        try
+        {
+            finished.await();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        synchronized ( this )
+        {
+            if ( closed )
+            {
+                finished.countDown();
+                return;
+            }
+            decoder = Thread.currentThread();
+        }
+        try
+        {
+            while ( !closed && transactions.hasNext() )
+            {
+                decoded.put( decode( transactions.next() ) );
+            }
+            decoded.put( END );
+        }
+        catch ( InterruptedException e )
+        {
+            // Closed by the applier, which isn't interested in more transactions
+        }
+        catch ( Throwable e )
+        {
+            failure = e;
+            try
+            {
+                decoded.put( END );
+            }
+            catch ( InterruptedException closedMeanwhile )
+            {
+                // Nobody left to tell about the failure
+            }
+        }
+        finally
+        {
+            synchronized ( this )
+            {
+                decoder = null;
+                // Don't leave an interrupt from close behind on the pooled thread
+                Thread.interrupted();
+            }
+            finished.countDown();
+        }
+    }
+
+    private DecodedTransaction decode( Pair<Long, ReadableByteChannel> transaction ) throws IOException
+    {
+        final List<LogEntry> entries = new ArrayList<>();
+        try ( Cursor<LogEntry, IOException> cursor = reader.cursor( transaction.other() ) )
+        {
+            Consumer<LogEntry, IOException> collector = new Consumer<LogEntry, IOException>()
+            {
+                @Override
+                public boolean accept( LogEntry entry )
+                {
+                    entries.add( entry );
+                    return true;
+                }
+            };
+            while ( cursor.next( collector ) );
+        }
+        return new DecodedTransaction( transaction.first(), entries );
+    }
+}
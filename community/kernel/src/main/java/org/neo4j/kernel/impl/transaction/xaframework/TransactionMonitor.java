@@ -25,6 +25,12 @@ public interface TransactionMonitor
 {
     void transactionCommitted( Xid xid, boolean recovered );
 
+    /**
+     * Called after a transaction that was not recovered has committed, with the time it took from
+     * starting to write the commit to the logical log until the changes were applied to the store.
+     */
+    void transactionCommitTime( Xid xid, long commitTimeNanos );
+
     void injectOnePhaseCommit( Xid xid );
 
     void injectTwoPhaseCommit( Xid xid );
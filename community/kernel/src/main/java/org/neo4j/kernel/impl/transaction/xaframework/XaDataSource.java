@@ -22,6 +22,7 @@ package org.neo4j.kernel.impl.transaction.xaframework;
 import java.io.File;
 import java.io.IOException;
 import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
 
 import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
@@ -246,6 +247,16 @@ public abstract class XaDataSource implements Lifecycle
         getXaContainer().getResourceManager().applyCommittedTransaction( transaction, txId );
     }
 
+    /**
+     * Applies committed transactions received from another instance, pairs of tx id and transaction data,
+     * as a batch. See {@link XaLogicalLog#applyTransactions(Iterator, long)}.
+     */
+    public void applyCommittedTransactions( Iterator<Pair<Long, ReadableByteChannel>> transactions )
+            throws IOException
+    {
+        getXaContainer().getResourceManager().applyCommittedTransactions( transactions );
+    }
+
     public long applyPreparedTransaction( ReadableByteChannel transaction ) throws IOException
     {
         return getXaContainer().getResourceManager().applyPreparedTransaction( transaction );
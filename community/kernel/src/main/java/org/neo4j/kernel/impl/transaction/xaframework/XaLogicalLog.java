@@ -24,14 +24,18 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Pattern;
 import javax.transaction.xa.XAException;
 import javax.transaction.xa.Xid;
 
 import org.neo4j.helpers.Exceptions;
 import org.neo4j.helpers.Function;
+import org.neo4j.helpers.NamedThreadFactory;
 import org.neo4j.helpers.Pair;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
@@ -41,6 +45,7 @@ import org.neo4j.kernel.impl.nioneo.xa.RecoveryLogDeserializer;
 import org.neo4j.kernel.impl.nioneo.xa.SlaveLogDeserializer;
 import org.neo4j.kernel.impl.nioneo.xa.XaCommandReaderFactory;
 import org.neo4j.kernel.impl.nioneo.xa.XaCommandWriterFactory;
+import org.neo4j.kernel.impl.nioneo.xa.command.BatchingSlaveLogWriter;
 import org.neo4j.kernel.impl.nioneo.xa.command.LogFilter;
 import org.neo4j.kernel.impl.nioneo.xa.command.LogHandler;
 import org.neo4j.kernel.impl.nioneo.xa.command.LogReader;
@@ -54,6 +59,7 @@ import org.neo4j.kernel.impl.transaction.xaframework.LogEntry.Start;
 import org.neo4j.kernel.impl.transaction.xaframework.LogExtractor.LogLoader;
 import org.neo4j.kernel.impl.transaction.xaframework.LogExtractor.LogPositionCache;
 import org.neo4j.kernel.impl.transaction.xaframework.LogExtractor.TxPosition;
+import org.neo4j.kernel.impl.transaction.xaframework.ReceivedTransactionDecoder.DecodedTransaction;
 import org.neo4j.kernel.impl.util.ArrayMap;
 import org.neo4j.kernel.impl.util.BufferedFileChannel;
 import org.neo4j.kernel.impl.util.Consumer;
@@ -93,8 +99,20 @@ import static org.neo4j.kernel.impl.transaction.xaframework.XaLogicalLogTokens.L
  */
 public class XaLogicalLog implements LogLoader
 {
+    /**
+     * Max number of received transactions written to the log before they are committed, when applying a batch.
+     */
+    static final int APPLY_BATCH_SIZE = 1000;
+
+    /**
+     * Max number of received transactions decoded ahead of the one being applied, when applying a batch.
+     */
+    static final int DECODE_AHEAD = 64;
+
     private final LogFilter masterHandler;
     private final LogFilter slaveHandler;
+    private final LogFilter batchSlaveHandler;
+    private final BatchingSlaveLogWriter batchSlaveLogWriter;
     private StoreChannel fileChannel = null;
     private final ByteBuffer sharedBuffer;
     private LogBuffer writeBuffer = null;
@@ -150,6 +168,10 @@ public class XaLogicalLog implements LogLoader
     private final KernelHealth kernelHealth;
     private final LogRotationMonitor logRotationMonitor;
 
+    // Decodes received transactions ahead of them being applied, see applyTransactions. Started when first
+    // needed, since only slaves receive transactions, and stopped when the log is closed.
+    private ExecutorService receivedTransactionDecoding;
+
     public XaLogicalLog( File fileName, XaResourceManager xaRm, XaCommandReaderFactory commandReaderFactory,
                          XaCommandWriterFactory commandWriterFactory,
                          XaTransactionFactory xaTf, FileSystemAbstraction fileSystem, Monitors monitors,
@@ -208,6 +230,10 @@ public class XaLogicalLog implements LogLoader
                     new PositionCacheLogHandler( applier, positionCache, positionCacheSPI ),
                     logWriterSPI, logEntryWriter ) ) );
 
+        // The applier caches start positions itself when it sees commit entries, which a batch hands it late
+        batchSlaveLogWriter = new BatchingSlaveLogWriter( applier, logWriterSPI, logEntryWriter );
+        batchSlaveHandler = new LogFilter( interceptor, new ForgetUnsuccessfulReceivedTransaction( batchSlaveLogWriter ) );
+
         translatingEntryConsumer = new TranslatingEntryConsumer( transactionTranslator );
         logRotationMonitor = monitors.newMonitor( LogRotationMonitor.class, "logicallog" );
     }
@@ -620,6 +646,11 @@ public class XaLogicalLog implements LogLoader
 
     public synchronized void close() throws IOException
     {
+        if ( receivedTransactionDecoding != null )
+        {
+            receivedTransactionDecoding.shutdownNow();
+            receivedTransactionDecoding = null;
+        }
         if ( fileChannel == null || !fileChannel.isOpen() )
         {
             msgLog.debug( "Logical log: " + fileName + " already closed" );
@@ -1132,6 +1163,152 @@ public class XaLogicalLog implements LogLoader
         checkLogRotation();
     }
 
+    /**
+     * Applies a batch of committed transactions received from another instance, in order, skipping those that
+     * are already applied. Each transaction is verified to be the next one expected, and to be committed with
+     * the tx id it was received as, before anything of it is written. Received transactions are decoded ahead
+     * of being applied, and the log is written out once per {@link #APPLY_BATCH_SIZE} transactions rather
+     * than once per transaction, see {@link BatchingSlaveLogWriter}.
+     */
+    public synchronized void applyTransactions( Iterator<Pair<Long, ReadableByteChannel>> transactions,
+                                                long lastCommittedTxId ) throws IOException
+    {
+        kernelHealth.assertHealthy( IOException.class );
+        scanIsComplete = false;
+
+        if ( receivedTransactionDecoding == null )
+        {
+            receivedTransactionDecoding = Executors.newSingleThreadExecutor(
+                    new NamedThreadFactory( "Received transaction decoder" ) );
+        }
+        ReceivedTransactionDecoder decoder = new ReceivedTransactionDecoder( transactions,
+                new SlaveLogDeserializer( ByteBuffer.allocate( sharedBuffer.capacity() ), commandReaderFactory ),
+                DECODE_AHEAD, receivedTransactionDecoding );
+        long nextTxId = lastCommittedTxId + 1;
+        int heldBack = 0;
+        boolean applyFailed = false;
+        try
+        {
+            DecodedTransaction transaction;
+            while ( (transaction = decoder.next()) != null )
+            {
+                if ( transaction.txId < nextTxId )
+                {   // Already applied
+                    continue;
+                }
+                verifyReceivedTransaction( transaction, nextTxId );
+
+                applyFailed = true;
+                applyReceivedTransaction( transaction );
+                applyFailed = false;
+                nextTxId++;
+
+                if ( ++heldBack == APPLY_BATCH_SIZE )
+                {
+                    commitReceivedTransactions();
+                    heldBack = 0;
+                }
+            }
+        }
+        finally
+        {
+            decoder.close();
+            try
+            {
+                if ( applyFailed )
+                {   // The kernel has panicked, so leave these to recovery
+                    batchSlaveLogWriter.discard();
+                }
+                else
+                {   // The transactions before a rejected one are fine, so commit those
+                    commitReceivedTransactions();
+                }
+            }
+            finally
+            {
+                scanIsComplete = true;
+            }
+        }
+    }
+
+    private void verifyReceivedTransaction( DecodedTransaction transaction, long expectedTxId ) throws IOException
+    {
+        if ( transaction.txId != expectedTxId )
+        {
+            throw new IOException( "Tried to apply transaction with txId=" + transaction.txId +
+                    " but last committed txId=" + (expectedTxId - 1) );
+        }
+        List<LogEntry> entries = transaction.entries;
+        if ( entries.isEmpty() || entries.get( 0 ).getType() != LogEntry.TX_START )
+        {
+            throw new IOException( "Received transaction txId=" + transaction.txId + " has no start entry" );
+        }
+        Long committedAs = null;
+        for ( LogEntry entry : entries )
+        {
+            if ( entry instanceof LogEntry.Commit )
+            {
+                if ( committedAs != null )
+                {
+                    throw new IOException( "Received transaction txId=" + transaction.txId + " is committed twice" );
+                }
+                committedAs = ((LogEntry.Commit) entry).getTxId();
+            }
+        }
+        if ( committedAs == null || committedAs != transaction.txId )
+        {
+            throw new IOException( "Received transaction txId=" + transaction.txId + " is committed as txId=" +
+                    committedAs );
+        }
+    }
+
+    private void applyReceivedTransaction( DecodedTransaction transaction ) throws IOException
+    {
+        translatingEntryConsumer.bind( getNextIdentifier(), batchSlaveHandler );
+        boolean success = false;
+
+        batchSlaveHandler.startLog();
+        try
+        {
+            for ( LogEntry entry : transaction.entries )
+            {
+                translatingEntryConsumer.accept( entry );
+            }
+            success = true;
+        }
+        catch( Exception e )
+        {
+            kernelHealth.panic( e );
+            throw launderedException( IOException.class, "Failure applying transaction", e );
+        }
+        finally
+        {
+            try
+            {
+                batchSlaveHandler.endLog( success );
+            }
+            catch( Exception e )
+            {
+                kernelHealth.panic( e );
+                throw launderedException( IOException.class, "Failure applying transaction", e );
+            }
+        }
+    }
+
+    private void commitReceivedTransactions() throws IOException
+    {
+        try
+        {
+            batchSlaveLogWriter.flush();
+        }
+        catch( Exception e )
+        {
+            kernelHealth.panic( e );
+            throw launderedException( IOException.class, "Failure applying transaction", e );
+        }
+        checkLogRotation();
+    }
+
     /**
      * Rotates this logical log. The pending transactions are moved over to a
      * new log buffer and the internal structures updated to reflect the new
@@ -38,6 +38,7 @@ import javax.transaction.xa.XAException;
 import javax.transaction.xa.XAResource;
 import javax.transaction.xa.Xid;
 
+import org.neo4j.helpers.Pair;
 import org.neo4j.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.kernel.impl.nioneo.xa.NeoStoreTransaction;
 import org.neo4j.kernel.impl.transaction.AbstractTransactionManager;
@@ -578,6 +579,7 @@ public class XaResourceManager
     private void commitWriteTx( Xid xid, boolean onePhase, XaTransaction xaTransaction,
                                 TransactionStatus txStatus, TxIdGenerator txIdGenerator ) throws XAException
     {
+        long startTime = System.nanoTime();
         checkStartWritten( txStatus, xaTransaction );
 
         if ( onePhase )
@@ -650,6 +652,10 @@ public class XaResourceManager
             oneMoreTransactionRecovered();
         }
         transactionMonitor.transactionCommitted( xid, xaTransaction.isRecovered() );
+        if ( !xaTransaction.isRecovered() )
+        {
+            transactionMonitor.transactionCommitTime( xid, System.nanoTime() - startTime );
+        }
     }
 
     private ForceMode getForceMode()
@@ -872,6 +878,12 @@ public class XaResourceManager
         }
     }
 
+    public synchronized void applyCommittedTransactions(
+            Iterator<Pair<Long, ReadableByteChannel>> transactions ) throws IOException
+    {
+        log.applyTransactions( transactions, dataSource.getLastCommittedTxId() );
+    }
+
     public synchronized long applyPreparedTransaction(
             ReadableByteChannel transaction ) throws IOException
     {
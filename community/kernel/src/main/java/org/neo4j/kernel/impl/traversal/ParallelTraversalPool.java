@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.traversal;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+
+/**
+ * Threads of a database that traversals, like shortest path searches, may expand large parts of the graph in.
+ * The pool is created when the database starts and shut down with it. There is no pool at all if
+ * {@link GraphDatabaseSettings#parallel_traversal_enabled parallel traversal} is disabled, in which case
+ * traversals expand everything on the calling thread.
+ */
+public class ParallelTraversalPool extends LifecycleAdapter
+{
+    private final Config config;
+    private volatile ForkJoinPool pool;
+
+    public ParallelTraversalPool( Config config )
+    {
+        this.config = config;
+    }
+
+    @Override
+    public void start()
+    {
+        if ( config.get( GraphDatabaseSettings.parallel_traversal_enabled ) )
+        {
+            pool = new ForkJoinPool( config.get( GraphDatabaseSettings.parallel_traversal_threads ) );
+        }
+    }
+
+    @Override
+    public void stop() throws InterruptedException
+    {
+        ForkJoinPool pool = this.pool;
+        this.pool = null;
+        if ( pool != null )
+        {
+            pool.shutdownNow();
+            pool.awaitTermination( 5, TimeUnit.SECONDS );
+        }
+    }
+
+    /**
+     * @return the pool to expand in, or {@code null} if parallel traversal is disabled or the database is not
+     * running.
+     */
+    public ForkJoinPool pool()
+    {
+        return pool;
+    }
+}
@@ -46,6 +46,16 @@ public interface JobScheduler extends Lifecycle
          * Gathers approximated data about the underlying data store.
          */
         heuristics,
+
+        /**
+         * Writes the contents of the metrics registry to a reporting target.
+         */
+        metricsReporting,
+
+        /**
+         * Requests the next range of ids from the master before a slave runs out of the current one.
+         */
+        idRangePrefetching,
     }
 
     void schedule( Group group, Runnable job );
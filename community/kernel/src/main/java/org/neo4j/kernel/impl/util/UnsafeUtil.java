@@ -43,4 +43,54 @@ public class UnsafeUtil
     {
         return unsafe;
     }
+
+    /*
+     * Access to memory outside of the java heap, for modules that should not have to depend on sun.misc.Unsafe
+     * themselves.
+     */
+
+    public static long allocateMemory( long sizeInBytes )
+    {
+        return unsafe.allocateMemory( sizeInBytes );
+    }
+
+    public static void free( long address )
+    {
+        unsafe.freeMemory( address );
+    }
+
+    public static void setMemory( long address, long sizeInBytes, byte value )
+    {
+        unsafe.setMemory( address, sizeInBytes, value );
+    }
+
+    public static int getInt( long address )
+    {
+        return unsafe.getInt( address );
+    }
+
+    public static void putInt( long address, int value )
+    {
+        unsafe.putInt( address, value );
+    }
+
+    public static long getLong( long address )
+    {
+        return unsafe.getLong( address );
+    }
+
+    public static void putLong( long address, long value )
+    {
+        unsafe.putLong( address, value );
+    }
+
+    public static double getDouble( long address )
+    {
+        return unsafe.getDouble( address );
+    }
+
+    public static void putDouble( long address, double value )
+    {
+        unsafe.putDouble( address, value );
+    }
 }
@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.impl.util.concurrent;
 
+import java.util.concurrent.locks.LockSupport;
+
 import org.neo4j.kernel.impl.locking.AcquireLockTimeoutException;
 
 public enum LockWaitStrategies implements WaitStrategy<AcquireLockTimeoutException>
@@ -44,36 +46,39 @@ public enum LockWaitStrategies implements WaitStrategy<AcquireLockTimeoutExcepti
             Thread.yield();
         }
     },
+    /**
+     * Spins for {@link #SPIN_ITERATIONS}, then yields for {@link #YIELD_ITERATIONS}, and after that parks, doubling
+     * the park time from {@link #MIN_PARK_NANOS} on every iteration up to {@link #MAX_PARK_NANOS}.
+     */
     INCREMENTAL_BACKOFF
     {
-        private final int spinIterations = 1000;
-        private final long multiplyUntilIteration = spinIterations + 2;
-
         @Override
         public void apply( long iteration ) throws AcquireLockTimeoutException
         {
-            if(iteration < spinIterations)
+            if ( iteration < SPIN_ITERATIONS )
             {
                 SPIN.apply( iteration );
                 return;
             }
-
-            try
+            if ( iteration < PARK_AFTER_ITERATIONS )
             {
-                if(iteration < multiplyUntilIteration )
-                {
-                    Thread.sleep( 0, 1 << (iteration - spinIterations) );
-                }
-                else
-                {
-                    Thread.sleep( 0, 500 );
-                }
+                YIELD.apply( iteration );
+                return;
             }
-            catch(InterruptedException e)
+
+            long doublings = Math.min( iteration - PARK_AFTER_ITERATIONS, MAX_DOUBLINGS );
+            LockSupport.parkNanos( Math.min( MIN_PARK_NANOS << doublings, MAX_PARK_NANOS ) );
+            if ( Thread.interrupted() )
             {
-                Thread.interrupted();
-                throw new AcquireLockTimeoutException( e , "Interrupted while waiting.");
+                throw new AcquireLockTimeoutException( new InterruptedException(), "Interrupted while waiting." );
             }
         }
     };
+
+    public static final int SPIN_ITERATIONS = 1000;
+    public static final int YIELD_ITERATIONS = 100;
+    public static final int PARK_AFTER_ITERATIONS = SPIN_ITERATIONS + YIELD_ITERATIONS;
+    public static final long MIN_PARK_NANOS = 1000;
+    public static final long MAX_PARK_NANOS = 1000000;
+    private static final int MAX_DOUBLINGS = 10;
 }
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.statistics;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Estimates the number of distinct values in a stream of values, using a fixed amount of memory regardless of
+ * how many values there are. This is the HyperLogLog algorithm, with the small range correction, which gives
+ * estimates within a couple of percent of the actual number with the default precision.
+ */
+public class HyperLogLog implements Serializable
+{
+    private static final long serialVersionUID = 2437520541276893184L;
+
+    public static final int DEFAULT_PRECISION = 12;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog()
+    {
+        this( DEFAULT_PRECISION );
+    }
+
+    /**
+     * @param precision number of bits of each hash used for picking a register, there will be 2^precision of them.
+     */
+    public HyperLogLog( int precision )
+    {
+        if ( precision < 4 || precision > 16 )
+        {
+            throw new IllegalArgumentException( "Precision must be between 4 and 16, was " + precision );
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public void offer( Object value )
+    {
+        offerHash( mix( value.hashCode() ) );
+    }
+
+    public void offerHash( long hash )
+    {
+        int register = (int) (hash >>> (Long.SIZE - precision));
+        // The rank is the position of the first one bit in what is left of the hash, bounded by its length
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros( remaining ) + 1);
+        if ( rank > registers[register] )
+        {
+            registers[register] = rank;
+        }
+    }
+
+    public long estimate()
+    {
+        int numberOfRegisters = registers.length;
+        double sum = 0;
+        int emptyRegisters = 0;
+        for ( byte rank : registers )
+        {
+            sum += 1.0 / (1L << rank);
+            if ( rank == 0 )
+            {
+                emptyRegisters++;
+            }
+        }
+
+        double alpha = 0.7213 / (1 + 1.079 / numberOfRegisters);
+        double estimate = alpha * numberOfRegisters * numberOfRegisters / sum;
+        if ( estimate <= 2.5 * numberOfRegisters && emptyRegisters > 0 )
+        {
+            // Linear counting does better than the raw estimate for small cardinalities
+            estimate = numberOfRegisters * Math.log( (double) numberOfRegisters / emptyRegisters );
+        }
+        return Math.round( estimate );
+    }
+
+    /** Spreads the bits of a 32 bit hash code over 64 bits, the finalizer of the 64 bit MurmurHash3. */
+    private static long mix( long hash )
+    {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+
+        HyperLogLog that = (HyperLogLog) o;
+        return precision == that.precision && Arrays.equals( registers, that.registers );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * precision + Arrays.hashCode( registers );
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.monitoring;
+
+/**
+ * Published by query languages, like Cypher, for each query that is planned and executed.
+ */
+public interface QueryExecutionMonitor
+{
+    void queryPlanned( String query, long planningTimeNanos );
+
+    /**
+     * @param startTimeNanos the time from the end of planning until the result was handed back. Results are
+     * produced lazily, so this does not include the time it takes to produce the rows of the result.
+     */
+    void queryStarted( String query, long startTimeNanos );
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.monitoring.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import org.neo4j.helpers.Clock;
+import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.util.JobScheduler;
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import static org.neo4j.kernel.impl.util.JobScheduler.Group.metricsReporting;
+
+/**
+ * Periodically appends the contents of a {@link MetricsRegistry} to a CSV file, one row per metric, so that it
+ * can be loaded into a spreadsheet or shipped to Graphite-like systems by a log forwarder. Histogram values are
+ * reported as they were recorded, i.e. in nanoseconds for all the timings in {@link KernelMetrics}.
+ */
+public class CsvMetricsReporter extends LifecycleAdapter implements Runnable
+{
+    static final String HEADER = "timestamp,name,count,value,min,mean,max,p50,p95,p99,p999";
+
+    private final MetricsRegistry registry;
+    private final FileSystemAbstraction fs;
+    private final File file;
+    private final Clock clock;
+    private final StringLogger logger;
+    private final JobScheduler scheduler;
+    private final long intervalMillis;
+
+    public CsvMetricsReporter( MetricsRegistry registry, FileSystemAbstraction fs, File file, Clock clock,
+                               StringLogger logger, JobScheduler scheduler, long intervalMillis )
+    {
+        this.registry = registry;
+        this.fs = fs;
+        this.file = file;
+        this.clock = clock;
+        this.logger = logger;
+        this.scheduler = scheduler;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @Override
+    public void start()
+    {
+        scheduler.scheduleRecurring( metricsReporting, this, intervalMillis, intervalMillis, MILLISECONDS );
+    }
+
+    @Override
+    public void stop()
+    {
+        scheduler.cancelRecurring( metricsReporting, this );
+        run();
+    }
+
+    @Override
+    public void run()
+    {
+        try
+        {
+            report();
+        }
+        catch ( IOException e )
+        {
+            logger.warn( "Unable to write metrics to " + file, e );
+        }
+    }
+
+    public void report() throws IOException
+    {
+        boolean newFile = !fs.fileExists( file );
+        try ( PrintWriter out = new PrintWriter( fs.openAsWriter( file, "UTF-8", true ) ) )
+        {
+            if ( newFile )
+            {
+                out.println( HEADER );
+            }
+            registry.accept( new RowWriter( out, clock.currentTimeMillis() ) );
+        }
+    }
+
+    private static class RowWriter implements MetricsRegistry.Visitor<RuntimeException>
+    {
+        private final PrintWriter out;
+        private final long timestamp;
+
+        RowWriter( PrintWriter out, long timestamp )
+        {
+            this.out = out;
+            this.timestamp = timestamp;
+        }
+
+        @Override
+        public void visitCounter( String name, long count )
+        {
+            out.println( format( "%d,%s,%d,,,,,,,,", timestamp, name, count ) );
+        }
+
+        @Override
+        public void visitGauge( String name, long value )
+        {
+            out.println( format( "%d,%s,,%d,,,,,,,", timestamp, name, value ) );
+        }
+
+        @Override
+        public void visitHistogram( String name, Histogram.Snapshot snapshot )
+        {
+            out.println( format( "%d,%s,%d,,%d,%d,%d,%d,%d,%d,%d", timestamp, name, snapshot.count(),
+                    snapshot.min(), Math.round( snapshot.mean() ), snapshot.max(), snapshot.percentile( 50 ),
+                    snapshot.percentile( 95 ), snapshot.percentile( 99 ), snapshot.percentile( 99.9 ) ) );
+        }
+    }
+}
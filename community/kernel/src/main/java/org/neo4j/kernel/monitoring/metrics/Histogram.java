@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.monitoring.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records the distribution of non-negative long values, typically durations in nanoseconds, without locking.
+ *
+ * Values are counted in log-linear buckets: every power of two is split into {@link #SUB_BUCKETS} equally wide
+ * sub buckets, which bounds the relative error of any reported percentile to 1/{@link #SUB_BUCKETS}, regardless
+ * of the magnitude of the recorded values. The whole range of positive longs fits in a fixed number of buckets,
+ * so recording a value never allocates.
+ */
+public class Histogram
+{
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray( BUCKETS );
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong min = new AtomicLong( Long.MAX_VALUE );
+    private final AtomicLong max = new AtomicLong( Long.MIN_VALUE );
+
+    public void record( long value )
+    {
+        if ( value < 0 )
+        {
+            value = 0;
+        }
+        buckets.incrementAndGet( bucketIndex( value ) );
+        sum.addAndGet( value );
+        updateMin( value );
+        updateMax( value );
+    }
+
+    public Snapshot snapshot()
+    {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            counts[i] = buckets.get( i );
+            total += counts[i];
+        }
+        return new Snapshot( counts, total, sum.get(), min.get(), max.get() );
+    }
+
+    static int bucketIndex( long value )
+    {
+        if ( value < SUB_BUCKETS )
+        {
+            return (int) value;
+        }
+        int highestBit = (Long.SIZE - 1) - Long.numberOfLeadingZeros( value );
+        int shift = highestBit - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return the highest value that would be counted in the bucket with the given index.
+     */
+    static long highestValueInBucket( int index )
+    {
+        if ( index < SUB_BUCKETS )
+        {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        long lowest = (SUB_BUCKETS + subBucket) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    private void updateMin( long value )
+    {
+        long current;
+        while ( value < (current = min.get()) )
+        {
+            if ( min.compareAndSet( current, value ) )
+            {
+                return;
+            }
+        }
+    }
+
+    private void updateMax( long value )
+    {
+        long current;
+        while ( value > (current = max.get()) )
+        {
+            if ( max.compareAndSet( current, value ) )
+            {
+                return;
+            }
+        }
+    }
+
+    /**
+     * A point in time copy of a {@link Histogram}, which percentiles can be computed from.
+     */
+    public static class Snapshot
+    {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long min;
+        private final long max;
+
+        Snapshot( long[] counts, long count, long sum, long min, long max )
+        {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.min = count == 0 ? 0 : min;
+            this.max = count == 0 ? 0 : max;
+        }
+
+        public long count()
+        {
+            return count;
+        }
+
+        public long min()
+        {
+            return min;
+        }
+
+        public long max()
+        {
+            return max;
+        }
+
+        public double mean()
+        {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * @param percentile in the range [0, 100].
+         * @return the value that the given percentage of the recorded values are less than or equal to.
+         */
+        public long percentile( double percentile )
+        {
+            if ( count == 0 )
+            {
+                return 0;
+            }
+            long rank = (long) Math.ceil( count * Math.min( 100d, Math.max( 0d, percentile ) ) / 100d );
+            rank = Math.max( rank, 1 );
+            long seen = 0;
+            for ( int i = 0; i < counts.length; i++ )
+            {
+                seen += counts[i];
+                if ( seen >= rank )
+                {
+                    return Math.max( min, Math.min( max, highestValueInBucket( i ) ) );
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.monitoring.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.transaction.xa.Xid;
+
+import org.neo4j.kernel.api.index.SchemaIndexProvider;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.locking.ResourceTypes;
+import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
+import org.neo4j.kernel.impl.transaction.xaframework.TransactionMonitor;
+import org.neo4j.kernel.impl.transaction.xaframework.XaResourceManager;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.kernel.monitoring.QueryExecutionMonitor;
+
+import static java.util.Collections.newSetFromMap;
+
+/**
+ * Listens to kernel {@link Monitors monitors} and records what they publish in a {@link MetricsRegistry}.
+ */
+public class KernelMetrics
+{
+    public static final String TRANSACTIONS_COMMITTED = "transaction.committed";
+    public static final String TRANSACTIONS_RECOVERED = "transaction.recovered";
+    public static final String TRANSACTION_COMMIT_TIME = "transaction.commit_time";
+    public static final String LOCK_WAIT_TIME = "lock.wait_time";
+    public static final String LOCK_WAIT_FOR_EDGES = "lock.wait_for_edges";
+    public static final String QUERY_PLANNING_TIME = "cypher.planning_time";
+    public static final String QUERY_START_TIME = "cypher.start_time";
+    public static final String WINDOW_POOL_MISSES = "window_pool.misses";
+    public static final String INDEX_REFRESH_LAG = "index.refresh_lag";
+    public static final String INDEX_REFRESH_UPDATES = "index.refresh_updates";
+
+    /**
+     * Queries are tracked per hash of their text, but only up to this many distinct queries so that
+     * applications not using parameters can't make the registry grow without bounds. Queries beyond that
+     * are recorded together under {@link #OTHER_QUERIES}.
+     */
+    static final int MAX_TRACKED_QUERIES = 256;
+    static final String OTHER_QUERIES = "other";
+    static final String OTHER_RESOURCES = "other";
+
+    private final MetricsRegistry registry;
+
+    public KernelMetrics( MetricsRegistry registry )
+    {
+        this.registry = registry;
+    }
+
+    public void listenTo( Monitors monitors )
+    {
+        // Only the transactions of the graph store are counted, they are a superset of the index transactions
+        monitors.addMonitorListener( new TransactionMetrics(), XaResourceManager.class.getName(),
+                NeoStoreXaDataSource.DEFAULT_DATA_SOURCE_NAME );
+        monitors.addMonitorListener( new LockMetrics() );
+        monitors.addMonitorListener( new QueryMetrics() );
+        monitors.addMonitorListener( new IndexMetrics() );
+    }
+
+    private class TransactionMetrics implements TransactionMonitor
+    {
+        private final Counter committed = registry.counter( TRANSACTIONS_COMMITTED );
+        private final Counter recovered = registry.counter( TRANSACTIONS_RECOVERED );
+        private final Histogram commitTime = registry.histogram( TRANSACTION_COMMIT_TIME );
+
+        @Override
+        public void transactionCommitted( Xid xid, boolean recovered )
+        {
+            (recovered ? this.recovered : committed).increment();
+        }
+
+        @Override
+        public void transactionCommitTime( Xid xid, long commitTimeNanos )
+        {
+            commitTime.record( commitTimeNanos );
+        }
+
+        @Override
+        public void injectOnePhaseCommit( Xid xid )
+        {
+        }
+
+        @Override
+        public void injectTwoPhaseCommit( Xid xid )
+        {
+        }
+    }
+
+    /**
+     * Looks up the histograms of every resource type up front, since this is called on every lock wait.
+     */
+    private class LockMetrics implements Locks.Monitor
+    {
+        private final Map<ResourceTypes, Histogram> waitTimeHistograms = new EnumMap<>( ResourceTypes.class );
+        private final Map<ResourceTypes, Histogram> waitForEdgesHistograms = new EnumMap<>( ResourceTypes.class );
+        private final Histogram otherWaitTime = registry.histogram( LOCK_WAIT_TIME + "." + OTHER_RESOURCES );
+        private final Histogram otherWaitForEdges = registry.histogram( LOCK_WAIT_FOR_EDGES + "." + OTHER_RESOURCES );
+
+        LockMetrics()
+        {
+            for ( ResourceTypes type : ResourceTypes.values() )
+            {
+                String typeName = type.toString().toLowerCase();
+                waitTimeHistograms.put( type, registry.histogram( LOCK_WAIT_TIME + "." + typeName ) );
+                waitForEdgesHistograms.put( type, registry.histogram( LOCK_WAIT_FOR_EDGES + "." + typeName ) );
+            }
+        }
+
+        @Override
+        public void lockWaited( Locks.ResourceType resourceType, long waitTimeNanos )
+        {
+            histogram( waitTimeHistograms, resourceType, otherWaitTime ).record( waitTimeNanos );
+        }
+
+        @Override
+        public void waitForEdgesSampled( Locks.ResourceType resourceType, int waitForEdges )
+        {
+            histogram( waitForEdgesHistograms, resourceType, otherWaitForEdges ).record( waitForEdges );
+        }
+
+        private Histogram histogram( Map<ResourceTypes, Histogram> histograms, Locks.ResourceType resourceType,
+                Histogram other )
+        {
+            Histogram histogram = resourceType instanceof ResourceTypes ? histograms.get( resourceType ) : null;
+            return histogram == null ? other : histogram;
+        }
+    }
+
+    private class IndexMetrics implements SchemaIndexProvider.Monitor
+    {
+        private final Histogram refreshLag = registry.histogram( INDEX_REFRESH_LAG );
+        private final Histogram refreshUpdates = registry.histogram( INDEX_REFRESH_UPDATES );
+
+        @Override
+        public void indexRefreshed( int updates, long lagNanos )
+        {
+            refreshLag.record( lagNanos );
+            refreshUpdates.record( updates );
+        }
+    }
+
+    private class QueryMetrics implements QueryExecutionMonitor
+    {
+        private final Set<String> trackedQueries = newSetFromMap( new ConcurrentHashMap<String, Boolean>() );
+
+        @Override
+        public void queryPlanned( String query, long planningTimeNanos )
+        {
+            registry.histogram( QUERY_PLANNING_TIME + "." + queryKey( query ) ).record( planningTimeNanos );
+        }
+
+        @Override
+        public void queryStarted( String query, long startTimeNanos )
+        {
+            registry.histogram( QUERY_START_TIME + "." + queryKey( query ) ).record( startTimeNanos );
+        }
+
+        private String queryKey( String query )
+        {
+            String hash = Integer.toHexString( query.hashCode() );
+            if ( trackedQueries.contains( hash ) )
+            {
+                return hash;
+            }
+            if ( trackedQueries.size() < MAX_TRACKED_QUERIES )
+            {
+                trackedQueries.add( hash );
+                return hash;
+            }
+            return OTHER_QUERIES;
+        }
+    }
+}
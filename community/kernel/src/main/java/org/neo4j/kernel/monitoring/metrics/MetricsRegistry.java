@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.monitoring.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-process registry of named {@link Counter counters}, {@link Histogram histograms} and {@link Gauge gauges}.
+ *
+ * Kernel components don't use the registry directly, but publish events through {@link
+ * org.neo4j.kernel.monitoring.Monitors} which {@link KernelMetrics} listens to. Reporters, like the JMX bean, the
+ * server metrics endpoint and the {@link CsvMetricsReporter}, read the registry through {@link #accept(Visitor)}.
+ */
+public class MetricsRegistry
+{
+    public interface Visitor<E extends Exception>
+    {
+        void visitCounter( String name, long count ) throws E;
+
+        void visitGauge( String name, long value ) throws E;
+
+        void visitHistogram( String name, Histogram.Snapshot snapshot ) throws E;
+    }
+
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, Gauge> gauges = new ConcurrentSkipListMap<>();
+
+    public Counter counter( String name )
+    {
+        Counter counter = counters.get( name );
+        if ( counter == null )
+        {
+            Counter candidate = new Counter();
+            counter = counters.putIfAbsent( name, candidate );
+            if ( counter == null )
+            {
+                counter = candidate;
+            }
+        }
+        return counter;
+    }
+
+    public Histogram histogram( String name )
+    {
+        Histogram histogram = histograms.get( name );
+        if ( histogram == null )
+        {
+            Histogram candidate = new Histogram();
+            histogram = histograms.putIfAbsent( name, candidate );
+            if ( histogram == null )
+            {
+                histogram = candidate;
+            }
+        }
+        return histogram;
+    }
+
+    public void register( String name, Gauge gauge )
+    {
+        gauges.put( name, gauge );
+    }
+
+    public void remove( String name )
+    {
+        counters.remove( name );
+        histograms.remove( name );
+        gauges.remove( name );
+    }
+
+    public boolean contains( String name )
+    {
+        return counters.containsKey( name ) || histograms.containsKey( name ) || gauges.containsKey( name );
+    }
+
+    public List<String> names()
+    {
+        List<String> names = new ArrayList<>( counters.keySet() );
+        names.addAll( gauges.keySet() );
+        names.addAll( histograms.keySet() );
+        Collections.sort( names );
+        return names;
+    }
+
+    /**
+     * @return the count of the counter or histogram with the given name, or 0 if there is no such metric.
+     */
+    public long count( String name )
+    {
+        Counter counter = counters.get( name );
+        if ( counter != null )
+        {
+            return counter.count();
+        }
+        Histogram histogram = histograms.get( name );
+        return histogram == null ? 0 : histogram.snapshot().count();
+    }
+
+    /**
+     * @return the current value of the gauge with the given name, or 0 if there is no such gauge.
+     */
+    public long value( String name )
+    {
+        Gauge gauge = gauges.get( name );
+        return gauge == null ? 0 : gauge.value();
+    }
+
+    /**
+     * @return a snapshot of the histogram with the given name, or {@code null} if there is no such histogram.
+     */
+    public Histogram.Snapshot snapshot( String name )
+    {
+        Histogram histogram = histograms.get( name );
+        return histogram == null ? null : histogram.snapshot();
+    }
+
+    /**
+     * Visits counters, gauges and histograms, in that order, each group sorted by name.
+     */
+    public <E extends Exception> void accept( Visitor<E> visitor ) throws E
+    {
+        for ( Map.Entry<String, Counter> entry : counters.entrySet() )
+        {
+            visitor.visitCounter( entry.getKey(), entry.getValue().count() );
+        }
+        for ( Map.Entry<String, Gauge> entry : gauges.entrySet() )
+        {
+            visitor.visitGauge( entry.getKey(), entry.getValue().value() );
+        }
+        for ( Map.Entry<String, Histogram> entry : histograms.entrySet() )
+        {
+            visitor.visitHistogram( entry.getKey(), entry.getValue().snapshot() );
+        }
+    }
+}
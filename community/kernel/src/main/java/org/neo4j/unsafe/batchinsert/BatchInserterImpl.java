@@ -128,6 +128,7 @@ import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.kernel.logging.Logging;
 import org.neo4j.kernel.logging.SingleLoggingService;
+import org.neo4j.kernel.monitoring.Monitors;
 
 import static java.lang.Boolean.parseBoolean;
 
@@ -178,6 +179,7 @@ public class BatchInserterImpl implements BatchInserter
     private final StringLogger msgLog;
     private final Logging logging;
     private final FileSystemAbstraction fileSystem;
+    private final Monitors monitors = new Monitors();
     private final SchemaCache schemaCache;
     private final Config config;
     private final BatchInserterImpl.BatchSchemaActions actions;
@@ -357,6 +359,10 @@ public class BatchInserterImpl implements BatchInserter
             {
                 case INDEX_RULE:
                 case CONSTRAINT_INDEX_RULE:
+                    if ( ((IndexRule) rule).isComposite() )
+                    {
+                        continue;
+                    }
                     otherPropertyKeyId = ((IndexRule) rule).getPropertyKey();
                     break;
                 case UNIQUENESS_CONSTRAINT:
@@ -374,10 +380,22 @@ public class BatchInserterImpl implements BatchInserter
         }
     }
 
-    private void createIndexRule( int labelId, int propertyKeyId )
+    private void checkCompositeIndexCreationConstraints( int labelId, int[] propertyKeyIds )
+    {
+        for ( SchemaRule rule : schemaCache.schemaRulesForLabel( labelId ) )
+        {
+            if ( rule instanceof IndexRule && Arrays.equals( ((IndexRule) rule).getPropertyKeys(), propertyKeyIds ) )
+            {
+                throw new ConstraintViolationException(
+                        "It is not allowed to create two indexes on the same {label;properties}." );
+            }
+        }
+    }
+
+    private void createIndexRule( int labelId, int... propertyKeyIds )
     {
         SchemaStore schemaStore = getSchemaStore();
-        IndexRule schemaRule = IndexRule.indexRule( schemaStore.nextId(), labelId, propertyKeyId,
+        IndexRule schemaRule = IndexRule.indexRule( schemaStore.nextId(), labelId, propertyKeyIds,
                                                     this.schemaIndexProviders.getDefaultProvider()
                                                                              .getProviderDescriptor() );
         for ( DynamicRecord record : schemaStore.allocateFrom( schemaRule ) )
@@ -404,6 +422,7 @@ public class BatchInserterImpl implements BatchInserter
 
         final int[] labelIds = new int[rules.length];
         final int[] propertyKeyIds = new int[rules.length];
+        final boolean[] composite = new boolean[rules.length];
 
         for ( int i = 0; i < labelIds.length; i++ )
         {
@@ -412,11 +431,17 @@ public class BatchInserterImpl implements BatchInserter
             int propertyKeyId = rule.getPropertyKey();
             labelIds[i] = labelId;
             propertyKeyIds[i] = propertyKeyId;
+            composite[i] = rule.isComposite();
 
-            IndexDescriptor descriptor = new IndexDescriptor( labelId, propertyKeyId );
+            IndexDescriptor descriptor = new IndexDescriptor( labelId, rule.getPropertyKeys() );
             populators[i] = schemaIndexProviders.apply( rule.getProviderDescriptor() ).getPopulator(
                     rule.getId(), descriptor, new IndexConfiguration( rule.isConstraintIndex() ) );
             populators[i].create();
+            if ( composite[i] )
+            {
+                // Composite indexes are left unpopulated, which makes the database populate them when started
+                populators[i].close( false );
+            }
         }
 
         Visitor<NodePropertyUpdate, IOException> propertyUpdateVisitor = new Visitor<NodePropertyUpdate, IOException>()
@@ -428,7 +453,7 @@ public class BatchInserterImpl implements BatchInserter
                 int propertyKeyInQuestion = update.getPropertyKeyId();
                 for ( int i = 0; i < propertyKeyIds.length; i++ )
                 {
-                    if ( propertyKeyIds[i] == propertyKeyInQuestion )
+                    if ( propertyKeyIds[i] == propertyKeyInQuestion && !composite[i] )
                     {
                         if ( update.forLabel( labelIds[i] ) )
                         {
@@ -456,9 +481,12 @@ public class BatchInserterImpl implements BatchInserter
                 propertyUpdateVisitor, labelUpdateVisitor );
         storeScan.run();
 
-        for ( IndexPopulator populator : populators )
+        for ( int i = 0; i < populators.length; i++ )
         {
-            populator.close( true );
+            if ( !composite[i] )
+            {
+                populators[i].close( true );
+            }
         }
         labelUpdateVisitor.close();
     }
@@ -1061,19 +1089,30 @@ public class BatchInserterImpl implements BatchInserter
     private class BatchSchemaActions implements InternalSchemaActions
     {
         @Override
-        public IndexDefinition createIndexDefinition( Label label, String propertyKey )
+        public IndexDefinition createIndexDefinition( Label label, String... propertyKeys )
         {
             int labelId = getOrCreateLabelId( label.name() );
-            int propertyKeyId = getOrCreatePropertyKeyId( propertyKey );
+            int[] propertyKeyIds = new int[propertyKeys.length];
+            for ( int i = 0; i < propertyKeys.length; i++ )
+            {
+                propertyKeyIds[i] = getOrCreatePropertyKeyId( propertyKeys[i] );
+            }
 
-            checkSchemaCreationConstraints( labelId, propertyKeyId );
+            if ( propertyKeyIds.length == 1 )
+            {
+                checkSchemaCreationConstraints( labelId, propertyKeyIds[0] );
+            }
+            else
+            {
+                checkCompositeIndexCreationConstraints( labelId, propertyKeyIds );
+            }
 
-            createIndexRule( labelId, propertyKeyId );
-            return new IndexDefinitionImpl( this, label, propertyKey, false );
+            createIndexRule( labelId, propertyKeyIds );
+            return new IndexDefinitionImpl( this, label, propertyKeys, false );
         }
 
         @Override
-        public void dropIndexDefinitions( Label label, String propertyKey )
+        public void dropIndexDefinitions( Label label, String... propertyKeys )
         {
             throw unsupportedException();
         }
@@ -1131,6 +1170,10 @@ public class BatchInserterImpl implements BatchInserter
             {
                 return type.cast( logging );
             }
+            if ( type.isInstance( monitors ) )
+            {
+                return type.cast( monitors );
+            }
             if ( NeoStoreProvider.class.isAssignableFrom( type ) )
             {
                 return type.cast( new NeoStoreProvider()
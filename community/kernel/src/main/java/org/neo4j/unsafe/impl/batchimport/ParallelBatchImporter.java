@@ -47,8 +47,11 @@ import org.neo4j.unsafe.impl.batchimport.store.BatchingWindowPoolFactory;
 import org.neo4j.unsafe.impl.batchimport.store.BatchingWindowPoolFactory.WriterFactory;
 import org.neo4j.unsafe.impl.batchimport.store.io.IoMonitor;
 
+import static java.lang.String.format;
 import static java.lang.System.currentTimeMillis;
 
+import static org.neo4j.helpers.Format.duration;
+
 /**
  * Overall goals: split up processing cost by parallelizing. Keep CPUs busy, keep I/O busy and writing sequentially.
  * Goes through multiple stages where each stage has one or more steps executing in parallel, passing
@@ -181,6 +184,13 @@ public class ParallelBatchImporter implements BatchImporter
         }
 
         executionMonitor.monitor( executions );
+
+        for ( StageExecution execution : executions )
+        {
+            logger.info( format( "Stage '%s' completed %d batches in %s, ~%d items/s",
+                    execution.getStageName(), execution.doneBatches(), duration( execution.getExecutionTime() ),
+                    execution.itemsPerSecond() ) );
+        }
     }
 
     @Override
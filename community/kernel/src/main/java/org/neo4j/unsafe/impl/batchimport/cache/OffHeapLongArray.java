@@ -19,9 +19,7 @@
  */
 package org.neo4j.unsafe.impl.batchimport.cache;
 
-import java.lang.reflect.Field;
-
-import sun.misc.Unsafe;
+import org.neo4j.kernel.impl.util.UnsafeUtil;
 
 /**
  * Off-heap version of {@link LongArray} using {@code sun.misc.Unsafe}. Supports arrays with length beyond
@@ -35,7 +33,7 @@ public class OffHeapLongArray implements LongArray
     public OffHeapLongArray( long length )
     {
         this.length = length;
-        this.address = unsafe.allocateMemory( length << 3 );
+        this.address = UnsafeUtil.allocateMemory( length << 3 );
     }
 
     @Override
@@ -47,7 +45,7 @@ public class OffHeapLongArray implements LongArray
     @Override
     public long get( long index )
     {
-        return unsafe.getLong( addressOf( index ) );
+        return UnsafeUtil.getLong( addressOf( index ) );
     }
 
     private long addressOf( long index )
@@ -62,7 +60,7 @@ public class OffHeapLongArray implements LongArray
     @Override
     public void set( long index, long value )
     {
-        unsafe.putLong( addressOf( index ), value );
+        UnsafeUtil.putLong( addressOf( index ), value );
     }
 
     @Override
@@ -70,13 +68,13 @@ public class OffHeapLongArray implements LongArray
     {
         if ( isByteUniform( value ) )
         {
-            unsafe.setMemory( address, length << 3, (byte)value );
+            UnsafeUtil.setMemory( address, length << 3, (byte)value );
         }
         else
         {
             for ( long i = 0, adr = address; i < length; i++, adr += 8 )
             {
-                unsafe.putLong( adr, value );
+                UnsafeUtil.putLong( adr, value );
             }
         }
     }
@@ -107,26 +105,10 @@ public class OffHeapLongArray implements LongArray
 
         for ( int i = 0; i < numberOfEntries; i++, fromAddress += 8, toAddress += 8 )
         {
-            long fromValue = unsafe.getLong( fromAddress );
-            long toValue = unsafe.getLong( toAddress );
-            unsafe.putLong( fromAddress, toValue );
-            unsafe.putLong( toAddress, fromValue );
-        }
-    }
-
-    private static final Unsafe unsafe = getUnsafe();
-
-    private static Unsafe getUnsafe()
-    {
-        try
-        {
-            Field singleoneInstanceField = Unsafe.class.getDeclaredField( "theUnsafe" );
-            singleoneInstanceField.setAccessible( true );
-            return (Unsafe) singleoneInstanceField.get( null );
-        }
-        catch ( Exception e )
-        {
-            throw new Error( e );
+            long fromValue = UnsafeUtil.getLong( fromAddress );
+            long toValue = UnsafeUtil.getLong( toAddress );
+            UnsafeUtil.putLong( fromAddress, toValue );
+            UnsafeUtil.putLong( toAddress, fromValue );
         }
     }
 }
@@ -19,14 +19,10 @@
  */
 package org.neo4j.unsafe.impl.batchimport.staging;
 
-import org.neo4j.unsafe.impl.batchimport.stats.Keys;
-
 import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
-import static org.neo4j.helpers.collection.IteratorUtil.last;
-
 /**
  * An {@link ExecutionMonitor} that prints progress in percent, knowing the max number of nodes and relationships
  * in advance.
@@ -62,7 +58,7 @@ public class CoarseBoundedProgressExecutionMonitor extends PollingExecutionMonit
                     (highNodeId/execution.getConfig().batchSize()) * 2 + // node records encountered twice
                     (highRelationshipId/execution.getConfig().batchSize()) * 3; // rel records encountered three times;
 
-            long doneBatches = totalDoneBatches + doneBatches( execution );
+            long doneBatches = totalDoneBatches + execution.doneBatches();
             int percentThere = (int) ((doneBatches*100D)/maxNumberOfBatches);
             percentThere = min( percentThere, 100 );
             highestPercentThere = max( percentThere, highestPercentThere );
@@ -88,17 +84,12 @@ public class CoarseBoundedProgressExecutionMonitor extends PollingExecutionMonit
         }
     }
 
-    private long doneBatches( StageExecution execution )
-    {
-        return last( execution.stats() ).stat( Keys.done_batches ).asLong();
-    }
-
     @Override
     protected void end( StageExecution[] executions, long totalTimeMillis )
     {
         for ( StageExecution execution : executions )
         {
-            this.totalDoneBatches += doneBatches( execution );
+            this.totalDoneBatches += execution.doneBatches();
         }
     }
 
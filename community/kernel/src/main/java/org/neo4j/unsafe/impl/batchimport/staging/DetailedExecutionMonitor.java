@@ -61,6 +61,11 @@ public class DetailedExecutionMonitor extends PollingExecutionMonitor
     @Override
     protected void end( StageExecution[] executions, long totalTimeMillis )
     {
+        for ( StageExecution execution : executions )
+        {
+            out.println( format( "%s: %d batches in %s, ~%d items/s", execution.getStageName(),
+                    execution.doneBatches(), duration( execution.getExecutionTime() ), execution.itemsPerSecond() ) );
+        }
         out.println( "Stage total time " + duration( totalTimeMillis ) );
     }
 
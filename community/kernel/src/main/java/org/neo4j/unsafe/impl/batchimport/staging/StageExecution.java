@@ -23,10 +23,13 @@ import org.neo4j.helpers.collection.IterableWrapper;
 import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.kernel.logging.Logging;
 import org.neo4j.unsafe.impl.batchimport.Configuration;
+import org.neo4j.unsafe.impl.batchimport.stats.Keys;
 import org.neo4j.unsafe.impl.batchimport.stats.StepStats;
 
 import static java.lang.System.currentTimeMillis;
 
+import static org.neo4j.helpers.collection.IteratorUtil.last;
+
 /**
  * Default implementation of {@link StageControl}
  */
@@ -38,6 +41,7 @@ public class StageExecution implements StageControl
     private final StringLogger logger;
     private volatile Throwable panicCause;
     private long startTime;
+    private volatile long endTime;
 
     public StageExecution( Logging logging, String stageName, Configuration config, Iterable<Step<?>> pipeline )
     {
@@ -61,6 +65,10 @@ public class StageExecution implements StageControl
                 return true;
             }
         }
+        if ( endTime == 0 )
+        {
+            endTime = currentTimeMillis();
+        }
         return false;
     }
 
@@ -69,9 +77,31 @@ public class StageExecution implements StageControl
         this.startTime = currentTimeMillis();
     }
 
+    /**
+     * @return time this stage has been executing, or took to execute if it has completed.
+     */
     public long getExecutionTime()
     {
-        return currentTimeMillis()-startTime;
+        long end = endTime;
+        return (end == 0 ? currentTimeMillis() : end)-startTime;
+    }
+
+    /**
+     * @return number of batches that have made it through all steps of this stage.
+     */
+    public long doneBatches()
+    {
+        return last( stats() ).stat( Keys.done_batches ).asLong();
+    }
+
+    /**
+     * @return approximate number of items, i.e. batches times {@link Configuration#batchSize() batch size},
+     * that this stage has processed per second so far.
+     */
+    public long itemsPerSecond()
+    {
+        long time = getExecutionTime();
+        return time == 0 ? 0 : doneBatches() * config.batchSize() * 1000 / time;
     }
 
     public String getStageName()
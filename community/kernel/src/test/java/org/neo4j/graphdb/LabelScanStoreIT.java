@@ -223,7 +223,12 @@ public class LabelScanStoreIT
         }
     }
 
-    public final @Rule DatabaseRule dbRule = new ImpermanentDatabaseRule();
+    public final @Rule DatabaseRule dbRule = newDatabaseRule();
+
+    protected DatabaseRule newDatabaseRule()
+    {
+        return new ImpermanentDatabaseRule();
+    }
     
     private static enum Labels implements Label
     {
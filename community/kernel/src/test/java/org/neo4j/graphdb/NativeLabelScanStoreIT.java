@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphdb;
+
+import org.junit.Test;
+
+import org.neo4j.graphdb.factory.GraphDatabaseBuilder;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.impl.api.scan.NativeLabelScanStore;
+import org.neo4j.test.DatabaseRule;
+import org.neo4j.test.ImpermanentDatabaseRule;
+
+import static org.junit.Assert.assertNotNull;
+
+public class NativeLabelScanStoreIT extends LabelScanStoreIT
+{
+    // Runs the same tests as LabelScanStoreIT, but with the native label scan store enabled,
+    // which makes it preferred over any other label scan store on the class path.
+
+    @Override
+    protected DatabaseRule newDatabaseRule()
+    {
+        return new ImpermanentDatabaseRule()
+        {
+            @Override
+            protected void configure( GraphDatabaseBuilder builder )
+            {
+                builder.setConfig( GraphDatabaseSettings.native_label_scan_store, "true" );
+            }
+        };
+    }
+
+    @Test
+    public void shouldUseNativeLabelScanStore() throws Exception
+    {
+        assertNotNull( dbRule.getGraphDatabaseAPI().getDependencyResolver()
+                .resolveDependency( NativeLabelScanStore.class ) );
+    }
+}
@@ -19,6 +19,7 @@
  */
 package org.neo4j.graphdb;
 
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
@@ -50,7 +51,9 @@ import static org.neo4j.graphdb.Neo4jMatchers.getIndexes;
 import static org.neo4j.graphdb.Neo4jMatchers.isEmpty;
 import static org.neo4j.graphdb.Neo4jMatchers.waitForIndex;
 import static org.neo4j.helpers.collection.Iterables.count;
+import static org.neo4j.helpers.collection.IteratorUtil.asList;
 import static org.neo4j.helpers.collection.IteratorUtil.asSet;
+import static org.neo4j.helpers.collection.IteratorUtil.single;
 
 public class SchemaAcceptanceTest
 {
@@ -169,7 +172,30 @@ public class SchemaAcceptanceTest
     }
 
     @Test
-    public void shouldThrowConstraintViolationIfAskedToCreateCompoundIndex() throws Exception
+    public void shouldCreateCompositeIndexOnSeveralPropertyKeys() throws Exception
+    {
+        // WHEN
+        IndexDefinition index;
+        try ( Transaction tx = db.beginTx() )
+        {
+            index = db.schema().indexFor( label ).on( propertyKey ).on( "other_property" ).create();
+            tx.success();
+        }
+        waitForIndex( db, index );
+
+        // THEN
+        assertThat( getIndexes( db, label ), containsOnly( index ) );
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( Arrays.asList( propertyKey, "other_property" ),
+                          asList( single( db.schema().getIndexes( label ) ).getPropertyKeys() ) );
+            assertEquals( Schema.IndexState.ONLINE, db.schema().getIndexState( index ) );
+            tx.success();
+        }
+    }
+
+    @Test
+    public void shouldThrowConstraintViolationIfAskedToCreateCompoundIndexOnTheSameKeyTwice() throws Exception
     {
         // WHEN
         Transaction tx = db.beginTx();
@@ -178,13 +204,13 @@ public class SchemaAcceptanceTest
             Schema schema = db.schema();
             schema.indexFor( label )
                     .on( "my_property_key" )
-                    .on( "other_property" ).create();
+                    .on( "my_property_key" ).create();
             tx.success();
-            fail( "Should not be able to create index on multiple propertyKey keys" );
+            fail( "Should not be able to create index on the same propertyKey twice" );
         }
-        catch ( UnsupportedOperationException e )
+        catch ( ConstraintViolationException e )
         {
-            assertThat( e.getMessage(), containsString( "Compound indexes" ) );
+            assertThat( e.getMessage(), containsString( "my_property_key" ) );
         }
         finally
         {
@@ -192,6 +218,26 @@ public class SchemaAcceptanceTest
         }
     }
 
+    @Test
+    public void droppingCompositeIndexShouldLeaveSingleKeyIndexOnLeadingKey() throws Exception
+    {
+        // GIVEN
+        IndexDefinition single = createIndex( db, label, propertyKey );
+        IndexDefinition composite;
+        try ( Transaction tx = db.beginTx() )
+        {
+            composite = db.schema().indexFor( label ).on( propertyKey ).on( "other_property" ).create();
+            tx.success();
+        }
+        waitForIndex( db, composite );
+
+        // WHEN
+        dropIndex( composite );
+
+        // THEN
+        assertThat( getIndexes( db, label ), containsOnly( single ) );
+    }
+
     @Test
     public void shouldThrowConstraintViolationIfAskedToCreateCompoundConstraint() throws Exception
     {
@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.index;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompositeValueTest
+{
+    @Test
+    public void shouldHashEqualNumbersOfDifferentTypesTheSame() throws Exception
+    {
+        CompositeValue integral = new CompositeValue( 1, "a", 0.0 );
+        CompositeValue floatingPoint = new CompositeValue( 1.0d, "a", -0.0f );
+
+        assertEquals( integral, floatingPoint );
+        assertEquals( integral.hashCode(), floatingPoint.hashCode() );
+        assertTrue( integral.startsWith( 1L ) );
+    }
+
+    @Test
+    public void shouldHashEqualArraysTheSame() throws Exception
+    {
+        CompositeValue first = new CompositeValue( new int[]{1, 2}, new String[]{"a"} );
+        CompositeValue second = new CompositeValue( new int[]{1, 2}, new String[]{"a"} );
+
+        assertEquals( first, second );
+        assertEquals( first.hashCode(), second.hashCode() );
+    }
+
+    @Test
+    public void shouldNotBeEqualToDifferentValues() throws Exception
+    {
+        assertFalse( new CompositeValue( 1, "a" ).equals( new CompositeValue( 1.5, "a" ) ) );
+        assertFalse( new CompositeValue( 1, "a" ).equals( new CompositeValue( 1, "a", "b" ) ) );
+        assertFalse( new CompositeValue( "1" ).equals( new CompositeValue( 1 ) ) );
+    }
+}
@@ -67,11 +67,21 @@ public class LockingStatementOperationsTest
         lockingOps.relationshipCreate( state, 1, 2, 3);
 
         // then
-        order.verify( locks ).acquireExclusive( ResourceTypes.NODE, 2 );
-        order.verify( locks ).acquireExclusive( ResourceTypes.NODE, 3 );
+        order.verify( locks ).acquireExclusive( ResourceTypes.NODE, 2, 3 );
         order.verify( entityWriteOps ).relationshipCreate( state, 1, 2, 3 );
     }
 
+    @Test
+    public void shouldAcquireNodeWriteLocksInIdOrderWithASingleRequestCreatingRelationship() throws Exception
+    {
+        // when
+        lockingOps.relationshipCreate( state, 1, 3, 2 );
+
+        // then
+        order.verify( locks ).acquireExclusive( ResourceTypes.NODE, 2, 3 );
+        order.verify( entityWriteOps ).relationshipCreate( state, 1, 3, 2 );
+    }
+
     @Test
     public void shouldAcquireEntityWriteLockBeforeAddingLabelToNode() throws Exception
     {
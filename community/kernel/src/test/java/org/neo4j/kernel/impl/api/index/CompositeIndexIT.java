@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.api.ReadOperations;
+import org.neo4j.kernel.api.index.IndexDescriptor;
+import org.neo4j.kernel.impl.api.integrationtest.KernelIntegrationTest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.graphdb.DynamicLabel.label;
+import static org.neo4j.helpers.collection.IteratorUtil.asSet;
+
+public class CompositeIndexIT extends KernelIntegrationTest
+{
+    private final Label label = label( "Account" );
+
+    @Test
+    public void shouldFindNodesByAllKeysAndByLeadingKeys() throws Exception
+    {
+        // GIVEN
+        long existing = createNode( "t1", "a" );
+        createCompositeIndex();
+        long added = createNode( "t1", "b" );
+        long otherTenant = createNode( "t2", "a" );
+        createNode( "t1", null );
+
+        // WHEN
+        ReadOperations statement = readOperationsInNewTransaction();
+        IndexDescriptor index = compositeIndex( statement );
+
+        // THEN
+        assertEquals( asSet( existing ), asSet( statement.nodesGetFromIndexCompositeSeek( index, "t1", "a" ) ) );
+        assertEquals( asSet( otherTenant ), asSet( statement.nodesGetFromIndexCompositeSeek( index, "t2", "a" ) ) );
+        assertEquals( asSet( existing, added ), asSet( statement.nodesGetFromIndexCompositeSeek( index, "t1" ) ) );
+        assertEquals( asSet(), asSet( statement.nodesGetFromIndexCompositeSeek( index, "t1", "c" ) ) );
+        commit();
+    }
+
+    @Test
+    public void shouldReflectChangedPropertiesAndRemovedLabels() throws Exception
+    {
+        // GIVEN
+        createCompositeIndex();
+        long changed = createNode( "t1", "a" );
+        long unlabeled = createNode( "t1", "b" );
+
+        // WHEN
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.getNodeById( changed ).setProperty( "externalId", "c" );
+            db.getNodeById( unlabeled ).removeLabel( label );
+            tx.success();
+        }
+
+        // THEN
+        ReadOperations statement = readOperationsInNewTransaction();
+        IndexDescriptor index = compositeIndex( statement );
+        assertEquals( asSet(), asSet( statement.nodesGetFromIndexCompositeSeek( index, "t1", "a" ) ) );
+        assertEquals( asSet( changed ), asSet( statement.nodesGetFromIndexCompositeSeek( index, "t1", "c" ) ) );
+        assertEquals( asSet( changed ), asSet( statement.nodesGetFromIndexCompositeSeek( index, "t1" ) ) );
+        commit();
+    }
+
+    @Test
+    public void shouldSeeChangesMadeInTheSameTransaction() throws Exception
+    {
+        // GIVEN
+        createCompositeIndex();
+        long committed = createNode( "t1", "a" );
+        long moved = createNode( "t1", "b" );
+
+        // WHEN
+        ReadOperations statement = readOperationsInNewTransaction();
+        Node node = db.createNode( label );
+        node.setProperty( "tenant", "t1" );
+        node.setProperty( "externalId", "a" );
+        db.getNodeById( moved ).setProperty( "tenant", "t2" );
+
+        // THEN
+        IndexDescriptor index = compositeIndex( statement );
+        assertEquals( asSet( committed, node.getId() ),
+                asSet( statement.nodesGetFromIndexCompositeSeek( index, "t1", "a" ) ) );
+        assertEquals( asSet( committed, node.getId() ),
+                asSet( statement.nodesGetFromIndexCompositeSeek( index, "t1" ) ) );
+        assertEquals( asSet( moved ), asSet( statement.nodesGetFromIndexCompositeSeek( index, "t2", "b" ) ) );
+        rollback();
+    }
+
+    private void createCompositeIndex()
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.schema().indexFor( label ).on( "tenant" ).on( "externalId" ).create();
+            tx.success();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.schema().awaitIndexesOnline( 10, TimeUnit.SECONDS );
+            tx.success();
+        }
+    }
+
+    private long createNode( String tenant, String externalId )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = db.createNode( label );
+            node.setProperty( "tenant", tenant );
+            if ( externalId != null )
+            {
+                node.setProperty( "externalId", externalId );
+            }
+            tx.success();
+            return node.getId();
+        }
+    }
+
+    private IndexDescriptor compositeIndex( ReadOperations statement )
+    {
+        Iterator<IndexDescriptor> indexes = statement.indexesGetForLabel( statement.labelGetForName( label.name() ) );
+        IndexDescriptor index = indexes.next();
+        assertTrue( index.isComposite() );
+        return index;
+    }
+}
@@ -28,6 +28,9 @@ import java.util.Set;
 
 import org.neo4j.collection.primitive.PrimitiveLongCollections;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.helpers.Predicate;
+import org.neo4j.kernel.api.index.CompositeValue;
+import org.neo4j.kernel.impl.api.LookupFilter;
 
 import static org.neo4j.collection.primitive.PrimitiveLongCollections.toPrimitiveIterator;
 
@@ -54,6 +57,73 @@ class HashBasedIndex extends InMemoryIndexImplementation
         return nodes == null ? PrimitiveLongCollections.emptyIterator() : toPrimitiveIterator( nodes.iterator() );
     }
 
+    @Override
+    public PrimitiveLongIterator rangeSeekByNumber( final Number lower, final boolean includeLower,
+            final Number upper, final boolean includeUpper )
+    {
+        return nodesWithKeys( new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object key )
+            {
+                return LookupFilter.numberInRange( key, lower, includeLower, upper, includeUpper );
+            }
+        } );
+    }
+
+    @Override
+    public PrimitiveLongIterator rangeSeekByString( final String lower, final boolean includeLower,
+            final String upper, final boolean includeUpper )
+    {
+        return nodesWithKeys( new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object key )
+            {
+                return LookupFilter.stringInRange( key, lower, includeLower, upper, includeUpper );
+            }
+        } );
+    }
+
+    @Override
+    public PrimitiveLongIterator rangeSeekByPrefix( final String prefix )
+    {
+        return nodesWithKeys( new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object key )
+            {
+                return LookupFilter.stringHasPrefix( key, prefix );
+            }
+        } );
+    }
+
+    @Override
+    public PrimitiveLongIterator compositePrefixSeek( final Object... leadingValues )
+    {
+        return nodesWithKeys( new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object key )
+            {
+                return key instanceof CompositeValue && ((CompositeValue) key).startsWith( leadingValues );
+            }
+        } );
+    }
+
+    private PrimitiveLongIterator nodesWithKeys( Predicate<Object> keyFilter )
+    {
+        Set<Long> nodes = new HashSet<>();
+        for ( Map.Entry<Object, Set<Long>> entry : data.entrySet() )
+        {
+            if ( keyFilter.accept( entry.getKey() ) )
+            {
+                nodes.addAll( entry.getValue() );
+            }
+        }
+        return toPrimitiveIterator( nodes.iterator() );
+    }
+
     @Override
     void doAdd( Object propertyValue, long nodeId, boolean applyIdempotently )
     {
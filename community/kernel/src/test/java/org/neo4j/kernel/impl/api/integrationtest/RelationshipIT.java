@@ -34,10 +34,14 @@ import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.kernel.api.DataWriteOperations;
 import org.neo4j.kernel.api.ReadOperations;
+import org.neo4j.kernel.api.RelationshipVisitor;
+import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.impl.core.NodeManager;
 import org.neo4j.test.OtherThreadExecutor;
 import org.neo4j.test.OtherThreadRule;
 
+import static java.util.Collections.singletonList;
+
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.core.AllOf.allOf;
@@ -179,6 +183,47 @@ public class RelationshipIT extends KernelIntegrationTest
         }
     }
 
+    @Test
+    public void shouldVisitRelationshipsInCurrentAndSubsequentTx() throws Exception
+    {
+        // given
+        long startNode, endNode, relationship;
+        int relType;
+        {
+            DataWriteOperations statement = dataWriteOperationsInNewTransaction();
+            relType = statement.relationshipTypeGetOrCreateForName( "Type" );
+            startNode = statement.nodeCreate();
+            endNode = statement.nodeCreate();
+            relationship = statement.relationshipCreate( relType, startNode, endNode );
+
+            // when & then
+            assertVisits( statement, relationship, startNode, endNode, relType );
+            commit();
+        }
+        {
+            ReadOperations statement = readOperationsInNewTransaction();
+
+            // when & then
+            assertVisits( statement, relationship, startNode, endNode, relType );
+            commit();
+        }
+        {
+            DataWriteOperations statement = dataWriteOperationsInNewTransaction();
+            statement.relationshipDelete( relationship );
+
+            // when & then
+            try
+            {
+                assertVisits( statement, relationship, startNode, endNode, relType );
+                fail( "Should not be able to visit a relationship deleted in this transaction" );
+            }
+            catch ( EntityNotFoundException e )
+            {   // Good
+            }
+            rollback();
+        }
+    }
+
     @Test
     public void shouldReturnRelsWhenAskingForRelsWhereOnlySomeTypesExistInCurrentRel() throws Exception
     {
@@ -309,6 +354,24 @@ public class RelationshipIT extends KernelIntegrationTest
         } ).get( 10, TimeUnit.SECONDS ) );
     }
 
+    private void assertVisits( ReadOperations statement, long relationship, final long expectedStartNode,
+            final long expectedEndNode, final int expectedType ) throws EntityNotFoundException
+    {
+        final List<Long> visited = new ArrayList<>();
+        statement.relationshipVisit( relationship, new RelationshipVisitor()
+        {
+            @Override
+            public void visit( long relId, long startNode, long endNode, int type )
+            {
+                visited.add( relId );
+                assertEquals( expectedStartNode, startNode );
+                assertEquals( expectedEndNode, endNode );
+                assertEquals( expectedType, type );
+            }
+        } );
+        assertEquals( singletonList( relationship ), visited );
+    }
+
     private void assertRels( PrimitiveLongIterator it, long ... rels )
     {
         List<Matcher<? super Iterable<Long>>> all = new ArrayList<>(rels.length);
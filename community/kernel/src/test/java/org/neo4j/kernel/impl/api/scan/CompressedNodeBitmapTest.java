@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompressedNodeBitmapTest
+{
+    @Test
+    public void shouldKeepIdsInOrderAcrossSparseAndDenseChunks() throws Exception
+    {
+        // GIVEN
+        CompressedNodeBitmap bitmap = new CompressedNodeBitmap( 0 );
+        TreeSet<Long> expected = new TreeSet<>();
+
+        // WHEN adding one chunk worth of ids that's too dense for an array, and a few scattered ones
+        for ( long nodeId = 0; nodeId < CompressedNodeBitmap.MAX_ARRAY_CARDINALITY + 100; nodeId++ )
+        {
+            add( bitmap, expected, nodeId * 3 );
+        }
+        add( bitmap, expected, 1L << 40 );
+        add( bitmap, expected, (1L << 16) + 1 );
+
+        // THEN
+        assertContainsExactly( expected, bitmap );
+    }
+
+    @Test
+    public void shouldStayCorrectWhenDenseChunkShrinksBackToArray() throws Exception
+    {
+        // GIVEN
+        CompressedNodeBitmap bitmap = new CompressedNodeBitmap( 0 );
+        TreeSet<Long> expected = new TreeSet<>();
+        for ( long nodeId = 0; nodeId < 10_000; nodeId++ )
+        {
+            add( bitmap, expected, nodeId );
+        }
+
+        // WHEN
+        for ( long nodeId = 0; nodeId < 10_000; nodeId += 2 )
+        {
+            bitmap.remove( nodeId );
+            expected.remove( nodeId );
+        }
+        for ( long nodeId = 1; nodeId < 9_000; nodeId += 2 )
+        {
+            bitmap.remove( nodeId );
+            expected.remove( nodeId );
+        }
+
+        // THEN
+        assertContainsExactly( expected, bitmap );
+        assertFalse( bitmap.contains( 0 ) );
+    }
+
+    @Test
+    public void shouldNotLetChangesToCopyLeakIntoOriginal() throws Exception
+    {
+        // GIVEN
+        CompressedNodeBitmap original = new CompressedNodeBitmap( 0 );
+        for ( long nodeId = 0; nodeId < 5_000; nodeId++ )
+        {
+            original.add( nodeId );
+        }
+        original.add( 100_000 );
+
+        // WHEN
+        CompressedNodeBitmap copy = original.copy( 1 );
+        copy.remove( 10 );
+        copy.remove( 100_000 );
+        copy.add( 200_000 );
+
+        // THEN
+        assertEquals( 5_001, original.cardinality() );
+        assertTrue( original.contains( 10 ) );
+        assertTrue( original.contains( 100_000 ) );
+        assertFalse( original.contains( 200_000 ) );
+        assertEquals( 5_000, copy.cardinality() );
+        assertFalse( copy.contains( 10 ) );
+    }
+
+    @Test
+    public void shouldIntersect() throws Exception
+    {
+        // GIVEN
+        Random random = new Random( 1234 );
+        CompressedNodeBitmap first = new CompressedNodeBitmap( 0 ), second = new CompressedNodeBitmap( 0 );
+        TreeSet<Long> firstIds = new TreeSet<>(), expected = new TreeSet<>();
+        for ( int i = 0; i < 50_000; i++ )
+        {
+            add( first, firstIds, random.nextInt( 300_000 ) );
+        }
+        for ( int i = 0; i < 3_000; i++ )
+        {
+            long nodeId = random.nextInt( 300_000 );
+            second.add( nodeId );
+            if ( firstIds.contains( nodeId ) )
+            {
+                expected.add( nodeId );
+            }
+        }
+
+        // WHEN
+        CompressedNodeBitmap intersection = first.and( second );
+
+        // THEN
+        assertContainsExactly( expected, intersection );
+        assertContainsExactly( expected, second.and( first ) );
+    }
+
+    @Test
+    public void shouldUnite() throws Exception
+    {
+        // GIVEN
+        Random random = new Random( 4321 );
+        CompressedNodeBitmap first = new CompressedNodeBitmap( 0 ), second = new CompressedNodeBitmap( 0 );
+        TreeSet<Long> expected = new TreeSet<>();
+        for ( int i = 0; i < 3_000; i++ )
+        {
+            add( first, expected, random.nextInt( 300_000 ) );
+            add( second, expected, random.nextInt( 300_000 ) );
+        }
+        for ( int i = 0; i < 10_000; i++ )
+        {
+            add( second, expected, 400_000 + random.nextInt( 65_536 ) );
+        }
+
+        // WHEN
+        CompressedNodeBitmap union = first.or( second );
+
+        // THEN
+        assertContainsExactly( expected, union );
+        assertContainsExactly( expected, second.or( first ) );
+    }
+
+    @Test
+    public void shouldReadWhatWasWritten() throws Exception
+    {
+        // GIVEN
+        CompressedNodeBitmap bitmap = new CompressedNodeBitmap( 0 );
+        TreeSet<Long> expected = new TreeSet<>();
+        for ( long nodeId = 0; nodeId < 70_000; nodeId += 7 )
+        {
+            add( bitmap, expected, nodeId );
+        }
+        add( bitmap, expected, 1L << 35 );
+
+        // WHEN
+        ByteBuffer buffer = ByteBuffer.allocate( bitmap.serializedSize() );
+        bitmap.writeTo( buffer );
+        assertFalse( buffer.hasRemaining() );
+        buffer.flip();
+        CompressedNodeBitmap read = CompressedNodeBitmap.readFrom( buffer, 0 );
+
+        // THEN
+        assertContainsExactly( expected, read );
+    }
+
+    private void add( CompressedNodeBitmap bitmap, TreeSet<Long> expected, long nodeId )
+    {
+        bitmap.add( nodeId );
+        expected.add( nodeId );
+    }
+
+    private void assertContainsExactly( TreeSet<Long> expected, CompressedNodeBitmap bitmap )
+    {
+        assertEquals( expected.size(), bitmap.cardinality() );
+        PrimitiveLongIterator ids = bitmap.iterator();
+        for ( long nodeId : expected )
+        {
+            assertTrue( ids.hasNext() );
+            assertEquals( nodeId, ids.next() );
+            assertTrue( bitmap.contains( nodeId ) );
+        }
+        assertFalse( ids.hasNext() );
+    }
+}
@@ -92,7 +92,40 @@ public class InMemoryLabelScanStore implements LabelScanStore
                 {
                     return PrimitiveLongCollections.emptyIterator();
                 }
+                return iterate( nodes );
+            }
+
+            @Override
+            public PrimitiveLongIterator nodesWithAllLabels( int... labelIds )
+            {
+                Set<Long> nodes = new HashSet<>();
+                for ( int i = 0; i < labelIds.length; i++ )
+                {
+                    if ( i == 0 )
+                    {
+                        nodes.addAll( nodeSetForRemoving( labelIds[i] ) );
+                    }
+                    else
+                    {
+                        nodes.retainAll( nodeSetForRemoving( labelIds[i] ) );
+                    }
+                }
+                return iterate( nodes );
+            }
 
+            @Override
+            public PrimitiveLongIterator nodesWithAnyLabel( int... labelIds )
+            {
+                Set<Long> nodes = new HashSet<>();
+                for ( int labelId : labelIds )
+                {
+                    nodes.addAll( nodeSetForRemoving( labelId ) );
+                }
+                return iterate( nodes );
+            }
+
+            private PrimitiveLongIterator iterate( Set<Long> nodes )
+            {
                 final Iterator<Long> nodesIterator = nodes.iterator();
                 return new PrimitiveLongIterator()
                 {
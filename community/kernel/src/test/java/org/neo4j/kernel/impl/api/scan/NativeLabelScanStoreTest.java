@@ -0,0 +1,425 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.neo4j.collection.primitive.PrimitiveLongCollections;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.kernel.DefaultFileSystemAbstraction;
+import org.neo4j.kernel.api.direct.NodeLabelRange;
+import org.neo4j.kernel.api.labelscan.LabelScanReader;
+import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
+import org.neo4j.kernel.impl.api.scan.LabelScanStoreProvider.FullStoreChangeStream;
+import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.kernel.lifecycle.LifecycleException;
+import org.neo4j.test.TargetDirectory;
+import org.neo4j.unsafe.batchinsert.LabelScanWriter;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import static org.neo4j.helpers.collection.IteratorUtil.asSet;
+import static org.neo4j.helpers.collection.IteratorUtil.iterator;
+import static org.neo4j.kernel.api.labelscan.NodeLabelUpdate.labelChanges;
+
+public class NativeLabelScanStoreTest
+{
+    private static final long[] NO_LABELS = new long[0];
+
+    @Test
+    public void shouldUpdateStoreOnAddedAndRemovedLabels() throws Exception
+    {
+        // GIVEN
+        int labelId1 = 1, labelId2 = 2;
+        long nodeId = 10;
+        start();
+        write( iterator( labelChanges( nodeId, NO_LABELS, new long[]{labelId1} ) ) );
+
+        // WHEN
+        write( iterator( labelChanges( nodeId, new long[]{labelId1}, new long[]{labelId2} ) ) );
+
+        // THEN
+        assertNodesForLabel( labelId1 );
+        assertNodesForLabel( labelId2, nodeId );
+        assertEquals( asSet( (long) labelId2 ), asSet( store.newReader().labelsForNode( nodeId ) ) );
+    }
+
+    @Test
+    public void shouldDeleteFromStoreWhenDeletedNode() throws Exception
+    {
+        // GIVEN
+        int labelId = 1;
+        long nodeId = 10;
+        start();
+        write( iterator( labelChanges( nodeId, NO_LABELS, new long[]{labelId} ) ) );
+
+        // WHEN
+        write( iterator( labelChanges( nodeId, new long[]{labelId}, NO_LABELS ) ) );
+
+        // THEN
+        assertNodesForLabel( labelId );
+        assertEquals( 0, store.newReader().nodeCount( labelId ) );
+    }
+
+    @Test
+    public void shouldKeepReadsRepeatableWhileWritersChangeTheStore() throws Exception
+    {
+        // GIVEN
+        int labelId = 1;
+        start( asList( labelChanges( 1, NO_LABELS, new long[]{labelId} ) ) );
+        LabelScanReader reader = store.newReader();
+
+        // WHEN
+        write( iterator( labelChanges( 1, new long[]{labelId}, NO_LABELS ),
+                labelChanges( 2, NO_LABELS, new long[]{labelId} ) ) );
+
+        // THEN
+        assertEquals( asSet( 1L ), asSet( reader.nodesWithLabel( labelId ) ) );
+        assertNodesForLabel( labelId, 2 );
+    }
+
+    @Test
+    public void shouldCountAndIntersectLabels() throws Exception
+    {
+        // GIVEN dense and sparse labels, spanning a couple of chunks
+        List<NodeLabelUpdate> data = new ArrayList<>();
+        Set<Long> expected = new HashSet<>();
+        for ( long nodeId = 0; nodeId < 200_000; nodeId++ )
+        {
+            boolean sparse = nodeId % 97 == 0;
+            data.add( labelChanges( nodeId, NO_LABELS, sparse ? new long[]{1, 2} : new long[]{1} ) );
+            if ( sparse )
+            {
+                expected.add( nodeId );
+            }
+        }
+        start( data );
+
+        // WHEN
+        NativeLabelScanReader reader = store.newReader();
+
+        // THEN
+        assertEquals( 200_000, reader.nodeCount( 1 ) );
+        assertEquals( expected.size(), reader.nodeCount( 2 ) );
+        assertEquals( 0, reader.nodeCount( 3 ) );
+        assertEquals( expected, asSet( reader.nodesWithAllLabels( 1, 2 ) ) );
+        assertFalse( reader.nodesWithAllLabels( 1, 3 ).hasNext() );
+        assertEquals( 200_000, asSet( reader.nodesWithAnyLabel( 2, 3, 1 ) ).size() );
+        assertEquals( expected, asSet( reader.nodesWithAnyLabel( 2, 3 ) ) );
+    }
+
+    @Test
+    public void shouldScanOneRangePerChunk() throws Exception
+    {
+        // GIVEN
+        int labelId1 = 1, labelId2 = 2;
+        long nodeId1 = 10, nodeId2 = 11, nodeId3 = (1 << 16) + 5;
+        start( asList(
+                labelChanges( nodeId1, NO_LABELS, new long[]{labelId1} ),
+                labelChanges( nodeId2, NO_LABELS, new long[]{labelId1, labelId2} ),
+                labelChanges( nodeId3, NO_LABELS, new long[]{labelId2} ) ) );
+
+        // WHEN
+        Iterator<NodeLabelRange> ranges = store.newAllEntriesReader().iterator();
+        NodeLabelRange range1 = ranges.next();
+        NodeLabelRange range2 = ranges.next();
+        assertFalse( ranges.hasNext() );
+
+        // THEN
+        assertArrayEquals( new long[]{nodeId1, nodeId2}, range1.nodes() );
+        assertArrayEquals( new long[]{labelId1}, range1.labels( nodeId1 ) );
+        assertArrayEquals( new long[]{labelId1, labelId2}, range1.labels( nodeId2 ) );
+        assertArrayEquals( new long[]{nodeId3}, range2.nodes() );
+        assertArrayEquals( new long[]{labelId2}, range2.labels( nodeId3 ) );
+    }
+
+    @Test
+    public void shouldRebuildFromScratchIfStoreMissing() throws Exception
+    {
+        // WHEN
+        start( asList(
+                labelChanges( 1, NO_LABELS, new long[]{1} ),
+                labelChanges( 2, NO_LABELS, new long[]{1, 2} ) ) );
+
+        // THEN
+        assertTrue( "Didn't rebuild the store on startup",
+                monitor.noIndexCalled & monitor.rebuildingCalled & monitor.rebuiltCalled );
+        assertNodesForLabel( 1, 1, 2 );
+        assertNodesForLabel( 2, 2 );
+    }
+
+    @Test
+    public void shouldRecoverUnforcedUpdatesFromLog() throws Exception
+    {
+        // GIVEN
+        start( asList( labelChanges( 1, NO_LABELS, new long[]{1} ) ) );
+        write( iterator( labelChanges( 1, new long[]{1}, new long[]{2} ),
+                labelChanges( 3, NO_LABELS, new long[]{1} ) ) );
+
+        // WHEN the store goes away without being forced
+        crashAndRestart();
+
+        // THEN
+        assertEquals( 2, monitor.recoveredUpdates );
+        assertNodesForLabel( 1, 3 );
+        assertNodesForLabel( 2, 1 );
+    }
+
+    @Test
+    public void shouldRecoverUpdatesOfWriterLoggingMoreThanFitsInItsBuffer() throws Exception
+    {
+        // GIVEN
+        start();
+        List<NodeLabelUpdate> updates = new ArrayList<>();
+        for ( long nodeId = 0; nodeId < 10_000; nodeId++ )
+        {
+            updates.add( labelChanges( nodeId, NO_LABELS, new long[]{nodeId % 2} ) );
+        }
+        write( updates.iterator() );
+
+        // WHEN the store goes away without being forced
+        crashAndRestart();
+
+        // THEN
+        assertEquals( updates.size(), monitor.recoveredUpdates );
+        assertEquals( updates.size() / 2, store.newReader().nodeCount( 1 ) );
+    }
+
+    @Test
+    public void shouldIgnoreIncompleteRecordAtEndOfLog() throws Exception
+    {
+        // GIVEN
+        start( asList( labelChanges( 1, NO_LABELS, new long[]{1} ) ) );
+        write( iterator( labelChanges( 2, NO_LABELS, new long[]{1} ) ) );
+        write( iterator( labelChanges( 3, NO_LABELS, new long[]{1} ) ) );
+
+        // WHEN the last record was only partly written
+        life.shutdown();
+        File log = new File( dir, NativeLabelScanStore.LOG_FILE_NAME );
+        try ( RandomAccessFile file = new RandomAccessFile( log, "rw" ) )
+        {
+            file.setLength( file.length() - 3 );
+        }
+        start( noData() );
+
+        // THEN
+        assertEquals( 1, monitor.recoveredUpdates );
+        assertNodesForLabel( 1, 1, 2 );
+    }
+
+    @Test
+    public void shouldStartFromSnapshotAfterForce() throws Exception
+    {
+        // GIVEN
+        start( asList( labelChanges( 1, NO_LABELS, new long[]{1} ) ) );
+        write( iterator( labelChanges( 2, NO_LABELS, new long[]{1} ) ) );
+
+        // WHEN
+        store.force();
+        crashAndRestart();
+
+        // THEN
+        assertEquals( 0, monitor.recoveredUpdates );
+        assertEquals( 0, fs.getFileSize( new File( dir, NativeLabelScanStore.LOG_FILE_NAME ) ) );
+        assertNodesForLabel( 1, 1, 2 );
+    }
+
+    @Test
+    public void shouldRefuseStartIfSnapshotCorrupted() throws Exception
+    {
+        // GIVEN
+        start( asList( labelChanges( 1, NO_LABELS, new long[]{1} ) ) );
+        life.shutdown();
+
+        // WHEN
+        try ( RandomAccessFile file = new RandomAccessFile( new File( dir, NativeLabelScanStore.SNAPSHOT_FILE_NAME ),
+                "rw" ) )
+        {
+            file.setLength( file.length() - 5 );
+        }
+        try
+        {
+            start( noData() );
+            fail( "Should not have been able to start." );
+        }
+        catch ( LifecycleException e )
+        {
+            // THEN
+            assertThat( e.getCause(), instanceOf( IOException.class ) );
+            assertThat( e.getCause().getMessage(), equalTo(
+                    "Label scan store is corrupted, and needs to be rebuilt. To trigger a rebuild, ensure the " +
+                    "database is stopped, delete the files in '" + dir.getAbsolutePath() + "', and then start the " +
+                    "database again." ) );
+            assertTrue( monitor.corruptIndexCalled );
+        }
+    }
+
+    private final File dir = TargetDirectory.forTest( getClass() ).cleanDirectory( "native" );
+    private final FileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+    private LifeSupport life;
+    private TrackingMonitor monitor;
+    private NativeLabelScanStore store;
+
+    @After
+    public void shutdown()
+    {
+        if ( life != null )
+        {
+            life.shutdown();
+        }
+    }
+
+    private void write( Iterator<NodeLabelUpdate> updates ) throws Exception
+    {
+        try ( LabelScanWriter writer = store.newWriter() )
+        {
+            while ( updates.hasNext() )
+            {
+                writer.write( updates.next() );
+            }
+        }
+    }
+
+    private void assertNodesForLabel( int labelId, long... expectedNodeIds )
+    {
+        Set<Long> expected = new HashSet<>();
+        for ( long nodeId : expectedNodeIds )
+        {
+            expected.add( nodeId );
+        }
+        NativeLabelScanReader reader = store.newReader();
+        assertEquals( expected, asSet( reader.nodesWithLabel( labelId ) ) );
+        assertEquals( expected.size(), reader.nodeCount( labelId ) );
+    }
+
+    private void crashAndRestart() throws IOException
+    {
+        // Only closes the log channel, which is what a crash would have done too
+        store.shutdown();
+        life = null;
+        start( noData() );
+    }
+
+    private List<NodeLabelUpdate> noData()
+    {
+        return emptyList();
+    }
+
+    private void start()
+    {
+        start( noData() );
+    }
+
+    private void start( List<NodeLabelUpdate> existingData )
+    {
+        life = new LifeSupport();
+        monitor = new TrackingMonitor();
+        store = life.add( new NativeLabelScanStore( dir, fs, asStream( existingData ), monitor ) );
+        life.start();
+        assertTrue( monitor.initCalled );
+    }
+
+    private FullStoreChangeStream asStream( final List<NodeLabelUpdate> existingData )
+    {
+        return new FullStoreChangeStream()
+        {
+            @Override
+            public Iterator<NodeLabelUpdate> iterator()
+            {
+                return existingData.iterator();
+            }
+
+            @Override
+            public long highestNodeId()
+            {
+                return existingData.size(); // Well... not really
+            }
+
+            @Override
+            public PrimitiveLongIterator labelIds()
+            {
+                return PrimitiveLongCollections.emptyIterator();
+            }
+        };
+    }
+
+    private static class TrackingMonitor implements NativeLabelScanStore.Monitor
+    {
+        boolean initCalled, noIndexCalled, corruptIndexCalled, rebuildingCalled, rebuiltCalled;
+        int recoveredUpdates;
+
+        @Override
+        public void init()
+        {
+            initCalled = true;
+        }
+
+        @Override
+        public void noIndex()
+        {
+            noIndexCalled = true;
+        }
+
+        @Override
+        public void corruptIndex( IOException e )
+        {
+            corruptIndexCalled = true;
+        }
+
+        @Override
+        public void recovered( int updates )
+        {
+            recoveredUpdates = updates;
+        }
+
+        @Override
+        public void rebuilding()
+        {
+            rebuildingCalled = true;
+        }
+
+        @Override
+        public void rebuilt( long roughNodeCount )
+        {
+            rebuiltCalled = true;
+        }
+    }
+}
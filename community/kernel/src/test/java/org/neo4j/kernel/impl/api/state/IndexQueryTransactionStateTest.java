@@ -55,11 +55,13 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import static org.neo4j.graphdb.Neo4jMockitoHelpers.answerAsIteratorFrom;
+import static org.neo4j.graphdb.Neo4jMockitoHelpers.answerAsPrimitiveIntIteratorFrom;
 import static org.neo4j.graphdb.Neo4jMockitoHelpers.answerAsPrimitiveLongIteratorFrom;
 import static org.neo4j.helpers.collection.IteratorUtil.asSet;
 import static org.neo4j.helpers.collection.IteratorUtil.iterator;
 import static org.neo4j.helpers.collection.IteratorUtil.resourceIterator;
 import static org.neo4j.kernel.api.StatementConstants.NO_SUCH_NODE;
+import static org.neo4j.kernel.api.properties.Property.intProperty;
 import static org.neo4j.kernel.api.properties.Property.noNodeProperty;
 import static org.neo4j.kernel.api.properties.Property.stringProperty;
 
@@ -315,6 +317,64 @@ public class IndexQueryTransactionStateTest
         assertNoSuchNode( result );
     }
 
+    @Test
+    public void shouldIncludeNodesChangedIntoRangeInRangeSeek() throws Exception
+    {
+        // Given
+        when( store.nodesGetFromIndexRangeSeekByNumber( state, indexDescriptor, 0, true, 10, false ) )
+                .thenReturn( asPrimitiveResourceIterator( 1l ) );
+        givenCommittedProperty( 1l, intProperty( propertyKeyId, 5 ) );
+        givenCommittedProperty( 2l, intProperty( propertyKeyId, 42 ) );
+        when( store.nodeGetLabels( 2l ) ).then( answerAsPrimitiveIntIteratorFrom( asList( labelId ) ) );
+
+        txContext.nodeSetProperty( state, 2l, intProperty( propertyKeyId, 7 ) );
+
+        // When
+        PrimitiveLongIterator result = txContext.nodesGetFromIndexRangeSeekByNumber(
+                state, indexDescriptor, 0, true, 10, false );
+
+        // Then
+        assertThat( asSet( result ), equalTo( asSet( 1l, 2l ) ) );
+    }
+
+    @Test
+    public void shouldExcludeNodesChangedOutOfRangeFromRangeSeek() throws Exception
+    {
+        // Given
+        when( store.nodesGetFromIndexRangeSeekByString( state, indexDescriptor, "a", true, "c", true ) )
+                .thenReturn( asPrimitiveResourceIterator( 1l, 2l ) );
+        givenCommittedProperty( 1l, stringProperty( propertyKeyId, "apple" ) );
+        givenCommittedProperty( 2l, stringProperty( propertyKeyId, "banana" ) );
+        when( store.nodeGetLabels( 2l ) ).then( answerAsPrimitiveIntIteratorFrom( asList( labelId ) ) );
+
+        txContext.nodeSetProperty( state, 2l, stringProperty( propertyKeyId, "zucchini" ) );
+
+        // When
+        PrimitiveLongIterator result = txContext.nodesGetFromIndexRangeSeekByString(
+                state, indexDescriptor, "a", true, "c", true );
+
+        // Then
+        assertThat( asSet( result ), equalTo( asSet( 1l ) ) );
+    }
+
+    @Test
+    public void shouldExcludeRemovedNodesFromPrefixSeek() throws Exception
+    {
+        // Given
+        when( store.nodesGetFromIndexRangeSeekByPrefix( state, indexDescriptor, "My" ) )
+                .thenReturn( asPrimitiveResourceIterator( 1l, 2l ) );
+        givenCommittedProperty( 1l, stringProperty( propertyKeyId, value ) );
+        when( oldTxState.hasChanges() ).thenReturn( true );
+
+        txContext.nodeDelete( state, 2l );
+
+        // When
+        PrimitiveLongIterator result = txContext.nodesGetFromIndexRangeSeekByPrefix( state, indexDescriptor, "My" );
+
+        // Then
+        assertThat( asSet( result ), equalTo( asSet( 1l ) ) );
+    }
+
     // exists
     int labelId = 2;
     int propertyKeyId = 3;
@@ -345,6 +405,8 @@ public class IndexQueryTransactionStateTest
                 .<IndexDescriptor>emptyList() ) );
         when( store.indexesGetAll() ).then( answerAsIteratorFrom( Collections.<IndexDescriptor>emptyList() ) );
         when( store.constraintsGetForLabel( labelId ) ).thenReturn( Collections.<UniquenessConstraint>emptyIterator() );
+        when( store.constraintsGetForLabelAndPropertyKey( labelId, propertyKeyId ) )
+                .thenReturn( Collections.<UniquenessConstraint>emptyIterator() );
         when( store.nodeExists( anyLong() ) ).thenReturn( true );
         when( store.indexesGetForLabelAndPropertyKey( labelId, propertyKeyId ) )
                 .thenReturn( new IndexDescriptor( labelId, propertyKeyId ) );
@@ -357,6 +419,12 @@ public class IndexQueryTransactionStateTest
                 stateHandlingOperations, stateHandlingOperations, stateHandlingOperations );
     }
 
+    private void givenCommittedProperty( long nodeId, DefinedProperty property ) throws Exception
+    {
+        when( store.nodeGetProperty( nodeId, property.propertyKeyId() ) ).thenReturn( property );
+        when( store.nodeGetAllProperties( nodeId ) ).then( answerAsIteratorFrom( asList( property ) ) );
+    }
+
     private void assertNoSuchNode( long node )
     {
         assertThat( node, equalTo( NO_SUCH_NODE ) );
@@ -24,11 +24,13 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.helpers.collection.IteratorUtil;
 import org.neo4j.kernel.api.TxState;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
@@ -41,6 +43,8 @@ import org.neo4j.kernel.impl.api.StatementOperationsTestHelper;
 import org.neo4j.kernel.impl.api.store.StoreReadLayer;
 import org.neo4j.kernel.impl.persistence.PersistenceManager;
 
+import static java.util.Arrays.asList;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -168,6 +172,46 @@ public class LabelTransactionStateTest
         assertEquals( asSet( 0L ), asSet( txContext.nodesGetForLabel( state, 2 ) ) );
     }
 
+    @Test
+    public void labelChangesShouldBeReflectedWhenGettingNodesForAllLabels() throws Exception
+    {
+        // GIVEN
+        commitLabels(
+                labels( 0, 1, 2 ),
+                labels( 1, 2, 3 ),
+                labels( 2, 1, 3 ) );
+        when( store.nodesGetForAllLabels( state, 2, 3 ) ).then( answerAsPrimitiveLongIteratorFrom( asList( 1L ) ) );
+
+        // WHEN
+        txContext.nodeAddLabel( state, 0, 3 );
+        txContext.nodeRemoveLabel( state, 1, 2 );
+
+        // THEN
+        assertEquals( asSet( 0L ), asSet( txContext.nodesGetForAllLabels( state, 2, 3 ) ) );
+    }
+
+    @Test
+    public void labelChangesShouldBeReflectedWhenGettingNodesForAnyLabel() throws Exception
+    {
+        // GIVEN
+        commitLabels(
+                labels( 0, 1, 2 ),
+                labels( 1, 2 ),
+                labels( 2, 1, 3 ),
+                labels( 3, 4 ) );
+        when( store.nodesGetForAnyLabel( state, 1, 2 ) ).then(
+                answerAsPrimitiveLongIteratorFrom( asList( 0L, 1L, 2L ) ) );
+
+        // WHEN
+        txContext.nodeRemoveLabel( state, 0, 2 );
+        txContext.nodeRemoveLabel( state, 2, 1 );
+        txContext.nodeAddLabel( state, 1, 1 );
+        txContext.nodeAddLabel( state, 3, 1 );
+
+        // THEN
+        assertEquals( asList( 0L, 1L, 3L ), sorted( txContext.nodesGetForAnyLabel( state, 1, 2 ) ) );
+    }
+
     @Test
     public void addingNewLabelToNodeShouldRespondTrue() throws Exception
     {
@@ -348,6 +392,17 @@ public class LabelTransactionStateTest
         commitLabels( labels( nodeId, labels ) );
     }
 
+    private List<Long> sorted( PrimitiveLongIterator nodeIds )
+    {
+        List<Long> result = new ArrayList<>();
+        while ( nodeIds.hasNext() )
+        {
+            result.add( nodeIds.next() );
+        }
+        Collections.sort( result );
+        return result;
+    }
+
     private void assertLabels( Integer... labels ) throws EntityNotFoundException
     {
         assertEquals( asSet( labels ), asSet( txContext.nodeGetLabels( state, nodeId ) ) );
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.statistics;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.neo4j.helpers.collection.IteratorUtil;
+import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
+import org.neo4j.kernel.api.heuristics.StatisticsData;
+import org.neo4j.kernel.api.index.IndexDescriptor;
+import org.neo4j.kernel.api.index.InternalIndexState;
+import org.neo4j.kernel.api.labelscan.LabelScanReader;
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
+import org.neo4j.kernel.api.properties.Property;
+import org.neo4j.kernel.impl.api.index.IndexingService;
+import org.neo4j.kernel.impl.api.store.StoreReadLayer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import static org.neo4j.collection.primitive.PrimitiveLongCollections.iterator;
+import static org.neo4j.helpers.collection.IteratorUtil.iterator;
+
+public class IndexSamplerTest
+{
+    private static final int LABEL = 1;
+    private static final int PROPERTY_KEY = 2;
+
+    private final StoreReadLayer store = mock( StoreReadLayer.class );
+    private final LabelScanStore labelScanStore = mock( LabelScanStore.class );
+    private final IndexingService indexingService = mock( IndexingService.class );
+    private final IndexDescriptor index = new IndexDescriptor( LABEL, PROPERTY_KEY );
+    private final StatisticsCollectedData collectedData = new StatisticsCollectedData();
+    private final IndexSampler sampler = new IndexSampler( store, labelScanStore, indexingService, 10 );
+    private int numberOfNodes;
+    private int distinctValues;
+
+    @Before
+    public void setup() throws Exception
+    {
+        when( store.indexesGetAll() ).thenAnswer( new Answer<Object>()
+        {
+            @Override
+            public Object answer( InvocationOnMock invocation ) throws Throwable
+            {
+                return iterator( index );
+            }
+        } );
+        when( store.indexGetState( index ) ).thenReturn( InternalIndexState.ONLINE );
+        mockNodes();
+        // 100 nodes with the label, 90 of which have the property, with 3 distinct values among them
+        withNodes( 100, 3 );
+    }
+
+    @Test
+    public void shouldSampleIndexSizeAndDistinctValues() throws Exception
+    {
+        // When
+        sampler.sample( collectedData );
+
+        // Then
+        IndexSample sample = collectedData.indexSample( LABEL, PROPERTY_KEY );
+        assertEquals( 90, sample.indexSize() );
+        assertEquals( 3, sample.distinctValues() );
+        assertEquals( 1.0 / 3, collectedData.indexSelectivity( LABEL, PROPERTY_KEY ), 0.0001 );
+        assertEquals( 90, collectedData.indexSize( LABEL, PROPERTY_KEY ) );
+    }
+
+    @Test
+    public void shouldNotSampleIndexAgainUntilEnoughUpdatesHaveBeenApplied() throws Exception
+    {
+        // Given
+        sampler.sample( collectedData );
+        withNodes( 200, 7 );
+
+        // When
+        when( indexingService.takeUpdateCount( index ) ).thenReturn( 5L );
+        sampler.sample( collectedData );
+
+        // Then
+        IndexSample sample = collectedData.indexSample( LABEL, PROPERTY_KEY );
+        assertEquals( 90, sample.indexSize() );
+        assertEquals( 5, sample.updatesSinceSample() );
+
+        // When
+        sampler.sample( collectedData );
+
+        // Then
+        sample = collectedData.indexSample( LABEL, PROPERTY_KEY );
+        assertEquals( 180, sample.indexSize() );
+        assertEquals( 7, sample.distinctValues() );
+        assertEquals( 0, sample.updatesSinceSample() );
+    }
+
+    @Test
+    public void shouldNotSampleIndexesThatAreNotOnline() throws Exception
+    {
+        // Given
+        when( store.indexGetState( index ) ).thenReturn( InternalIndexState.POPULATING );
+
+        // When
+        sampler.sample( collectedData );
+
+        // Then
+        assertNull( collectedData.indexSample( LABEL, PROPERTY_KEY ) );
+        assertEquals( StatisticsData.NO_INDEX_SELECTIVITY, collectedData.indexSelectivity( LABEL, PROPERTY_KEY ),
+                0.0 );
+        assertEquals( StatisticsData.NO_INDEX_SIZE, collectedData.indexSize( LABEL, PROPERTY_KEY ) );
+    }
+
+    @Test
+    public void shouldForgetSamplesOfDroppedIndexes() throws Exception
+    {
+        // Given
+        sampler.sample( collectedData );
+
+        // When
+        when( store.indexesGetAll() ).thenReturn( IteratorUtil.<IndexDescriptor>emptyIterator() );
+        sampler.sample( collectedData );
+
+        // Then
+        assertNull( collectedData.indexSample( LABEL, PROPERTY_KEY ) );
+    }
+
+    private void withNodes( int numberOfNodes, int distinctValues )
+    {
+        this.numberOfNodes = numberOfNodes;
+        this.distinctValues = distinctValues;
+    }
+
+    private void mockNodes() throws EntityNotFoundException
+    {
+        when( labelScanStore.newReader() ).thenAnswer( new Answer<Object>()
+        {
+            @Override
+            public Object answer( InvocationOnMock invocation ) throws Throwable
+            {
+                long[] nodeIds = new long[numberOfNodes];
+                for ( int i = 0; i < numberOfNodes; i++ )
+                {
+                    nodeIds[i] = i;
+                }
+                LabelScanReader reader = mock( LabelScanReader.class );
+                when( reader.nodesWithLabel( LABEL ) ).thenReturn( iterator( nodeIds ) );
+                return reader;
+            }
+        } );
+        when( store.nodeGetProperty( anyLong(), eq( PROPERTY_KEY ) ) ).thenAnswer( new Answer<Object>()
+        {
+            @Override
+            public Object answer( InvocationOnMock invocation ) throws Throwable
+            {
+                long nodeId = (Long) invocation.getArguments()[0];
+                return nodeId % 10 == 0 ? Property.noNodeProperty( nodeId, PROPERTY_KEY )
+                                        : Property.intProperty( PROPERTY_KEY, (int) (nodeId % distinctValues) );
+            }
+        } );
+    }
+}
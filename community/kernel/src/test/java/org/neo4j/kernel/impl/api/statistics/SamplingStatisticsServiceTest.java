@@ -20,6 +20,9 @@
 package org.neo4j.kernel.impl.api.statistics;
 
 import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -27,10 +30,21 @@ import org.junit.Test;
 import org.neo4j.kernel.DefaultFileSystemAbstraction;
 import org.neo4j.kernel.impl.api.store.StoreReadLayer;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.util.JobScheduler;
 import org.neo4j.test.TargetDirectory;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isA;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import static org.neo4j.kernel.impl.api.statistics.HeuristicsTestSupport.generateStore;
 
@@ -80,4 +94,44 @@ public class SamplingStatisticsServiceTest
                 new File( dir.directory(), "somefile" ), store, null ).statistics();
         assertThat( expected, equalTo( collector.collectedData() ) );
     }
+
+    @Test
+    public void shouldOnlySampleIndexesWhenNotCollectingStatistics() throws Throwable
+    {
+        // Given
+        JobScheduler scheduler = mock( JobScheduler.class );
+        SamplingStatisticsService service = new SamplingStatisticsService( new StatisticsCollectedData(),
+                generateStore(), mock( IndexSampler.class ), scheduler, false );
+
+        // When
+        service.start();
+
+        // Then
+        verify( scheduler, times( 1 ) ).scheduleRecurring( eq( JobScheduler.Group.heuristics ),
+                any( Runnable.class ), anyLong(), any( TimeUnit.class ) );
+        verify( scheduler, never() ).scheduleRecurring( any( JobScheduler.Group.class ),
+                isA( StatisticsCollector.class ), anyLong(), any( TimeUnit.class ) );
+    }
+
+    @Test
+    public void shouldLoadStatisticsSavedBeforeIndexesWereSampled() throws Exception
+    {
+        // Given statistics saved by a version without index samples, labels 1, 1, 2 and 1 recorded
+        File file = new File( dir.directory(), "neo4j.statistics" );
+        try ( InputStream in = getClass().getResourceAsStream( "neo4j-2.1.statistics" ) )
+        {
+            Files.copy( in, file.toPath() );
+        }
+
+        // When
+        StatisticsCollectedData data = (StatisticsCollectedData) SamplingStatisticsService.load( fs, file,
+                generateStore(), null ).statistics();
+
+        // Then
+        assertEquals( 0.75, data.labelDistribution( 1 ), 0.0001 );
+        assertEquals( 0.25, data.labelDistribution( 2 ), 0.0001 );
+        assertNull( data.indexSample( 1, 2 ) );
+        data.recordIndexSample( 1, 2, new IndexSample( 10, 5 ) );
+        assertEquals( 0.2, data.indexSelectivity( 1, 2 ), 0.0001 );
+    }
 }
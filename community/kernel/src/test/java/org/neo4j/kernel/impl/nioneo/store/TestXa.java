@@ -56,6 +56,7 @@ import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.Function;
 import org.neo4j.helpers.Functions;
 import org.neo4j.helpers.Pair;
+import org.neo4j.helpers.Settings;
 import org.neo4j.helpers.collection.MapUtil;
 import org.neo4j.kernel.DefaultIdGeneratorFactory;
 import org.neo4j.kernel.InternalAbstractGraphDatabase;
@@ -354,7 +355,10 @@ public class TestXa
                         InternalAbstractGraphDatabase.Configuration.store_dir.name(), path().getPath(),
                         InternalAbstractGraphDatabase.Configuration.neo_store.name(), file( "neo" ).getPath(),
                         InternalAbstractGraphDatabase.Configuration.logical_log.name(),
-                        file( LOGICAL_LOG_DEFAULT_NAME ).getPath() ), GraphDatabaseSettings.class );
+                        file( LOGICAL_LOG_DEFAULT_NAME ).getPath(),
+                        // There is no job scheduler to sample indexes with here
+                        InternalAbstractGraphDatabase.Configuration.index_sampling_enabled.name(), Settings.FALSE ),
+                GraphDatabaseSettings.class );
 
         StoreFactory sf = new StoreFactory( config, new DefaultIdGeneratorFactory(), new DefaultWindowPoolFactory(),
                 fileSystem, StringLogger.DEV_NULL, null );
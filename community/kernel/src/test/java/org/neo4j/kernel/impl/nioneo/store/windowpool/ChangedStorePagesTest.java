@@ -0,0 +1,316 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store.windowpool;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.nioneo.store.NeoStore;
+import org.neo4j.kernel.impl.nioneo.store.StoreChannel;
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.test.EphemeralFileSystemRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.helpers.collection.IteratorUtil.single;
+import static org.neo4j.kernel.impl.nioneo.store.windowpool.ChangedPages.NO_BASELINE;
+import static org.neo4j.kernel.impl.nioneo.store.windowpool.ChangedPages.PAGE_SIZE;
+
+public class ChangedStorePagesTest
+{
+    @Rule
+    public EphemeralFileSystemRule fsRule = new EphemeralFileSystemRule();
+
+    private final File storeDir = new File( "store" );
+    private final File storeFile = new File( storeDir, "neostore.nodestore.db" );
+
+    @Test
+    public void shouldMarkPagesCoveredByWrittenRecords() throws Exception
+    {
+        // given
+        ChangedStorePages changedStorePages = started();
+        ChangedPages changes = changedStorePages.track( storeFile );
+        writeStoreFile( 10 * PAGE_SIZE );
+        changedStorePages.startNewBaseline( 5 );
+
+        // when
+        changes.mark( 2L * PAGE_SIZE - 4, 9 );
+        changes.mark( 5L * PAGE_SIZE, 9 );
+        ChangedPages.Snapshot snapshot = single( changedStorePages.startNewBaseline( 8, 5 ) );
+
+        // then
+        assertEquals( 5, snapshot.baselineTx() );
+        assertFalse( snapshot.isChanged( 0 ) );
+        assertTrue( snapshot.isChanged( 1 ) );
+        assertTrue( snapshot.isChanged( 2 ) );
+        assertFalse( snapshot.isChanged( 3 ) );
+        assertTrue( snapshot.isChanged( 5 ) );
+        assertFalse( snapshot.isChanged( 9 ) );
+    }
+
+    @Test
+    public void shouldCountPagesBeyondTheLengthAtTheBaselineAsChanged() throws Exception
+    {
+        // given
+        ChangedStorePages changedStorePages = started();
+        changedStorePages.track( storeFile );
+        writeStoreFile( 2 * PAGE_SIZE + 10 );
+        changedStorePages.startNewBaseline( 5 );
+
+        // when
+        ChangedPages.Snapshot snapshot = single( changedStorePages.startNewBaseline( 8, 5 ) );
+
+        // then
+        assertFalse( snapshot.isChanged( 1 ) );
+        assertTrue( snapshot.isChanged( 2 ) );
+        assertTrue( snapshot.isChanged( 100 ) );
+    }
+
+    @Test
+    public void shouldNotHaveBaselineUntilOneIsStarted() throws Exception
+    {
+        // given
+        ChangedStorePages changedStorePages = started();
+        changedStorePages.track( storeFile ).mark( 0, 9 );
+        writeStoreFile( PAGE_SIZE );
+
+        // when
+        ChangedPages.Snapshot snapshot = single( changedStorePages.startNewBaseline( 8, 5 ) );
+
+        // then
+        assertEquals( NO_BASELINE, snapshot.baselineTx() );
+    }
+
+    @Test
+    public void shouldKeepChangesAcrossCleanRestart() throws Exception
+    {
+        // given
+        ChangedStorePages changedStorePages = started();
+        ChangedPages changes = changedStorePages.track( storeFile );
+        writeStoreFile( 4 * PAGE_SIZE );
+        changedStorePages.startNewBaseline( 5 );
+        changes.mark( 3L * PAGE_SIZE, 9 );
+        changedStorePages.stop();
+
+        // when
+        changedStorePages = started();
+        changedStorePages.track( storeFile );
+        ChangedPages.Snapshot snapshot = single( changedStorePages.startNewBaseline( 8, 5 ) );
+
+        // then
+        assertEquals( 5, snapshot.baselineTx() );
+        assertFalse( snapshot.isChanged( 2 ) );
+        assertTrue( snapshot.isChanged( 3 ) );
+    }
+
+    @Test
+    public void shouldForgetChangesIfStoreFileWasModifiedWhileStopped() throws Exception
+    {
+        // given
+        ChangedStorePages changedStorePages = started();
+        changedStorePages.track( storeFile );
+        writeStoreFile( 4 * PAGE_SIZE );
+        changedStorePages.startNewBaseline( 5 );
+        changedStorePages.stop();
+        writeStoreFile( 5 * PAGE_SIZE );
+
+        // when
+        changedStorePages = started();
+        changedStorePages.track( storeFile );
+        ChangedPages.Snapshot snapshot = single( changedStorePages.startNewBaseline( 8, 5 ) );
+
+        // then
+        assertEquals( NO_BASELINE, snapshot.baselineTx() );
+    }
+
+    @Test
+    public void shouldForgetChangesIfNotStoppedCleanly() throws Exception
+    {
+        // given
+        ChangedStorePages changedStorePages = started();
+        changedStorePages.track( storeFile );
+        writeStoreFile( 4 * PAGE_SIZE );
+        changedStorePages.startNewBaseline( 5 );
+        changedStorePages.stop();
+        started();
+
+        // when
+        changedStorePages = started();
+        changedStorePages.track( storeFile );
+        ChangedPages.Snapshot snapshot = single( changedStorePages.startNewBaseline( 8, 5 ) );
+
+        // then
+        assertEquals( NO_BASELINE, snapshot.baselineTx() );
+    }
+
+    @Test
+    public void shouldForgetChangesIfStoreFileIsOpenedAgain() throws Exception
+    {
+        // given
+        ChangedStorePages changedStorePages = started();
+        changedStorePages.track( storeFile );
+        writeStoreFile( 4 * PAGE_SIZE );
+        changedStorePages.startNewBaseline( 5 );
+        changedStorePages.stop();
+        changedStorePages = started();
+        changedStorePages.track( storeFile );
+
+        // when
+        changedStorePages.track( storeFile );
+        Collection<ChangedPages.Snapshot> snapshots = changedStorePages.startNewBaseline( 8, 5 );
+
+        // then
+        assertEquals( NO_BASELINE, single( snapshots ).baselineTx() );
+    }
+
+    @Test
+    public void shouldForgetChangesIfTransactionsWereCommittedWhileNotTracking() throws Exception
+    {
+        // given
+        writeNeoStore( 5 );
+        ChangedStorePages changedStorePages = started();
+        changedStorePages.track( storeFile );
+        writeStoreFile( 4 * PAGE_SIZE );
+        changedStorePages.startNewBaseline( 5 );
+        changedStorePages.stop();
+        writeNeoStore( 6 );
+
+        // when
+        changedStorePages = started();
+        changedStorePages.track( storeFile );
+        ChangedPages.Snapshot snapshot = single( changedStorePages.startNewBaseline( 8, 5 ) );
+
+        // then
+        assertEquals( NO_BASELINE, snapshot.baselineTx() );
+    }
+
+    @Test
+    public void shouldNotLetStoresBasedOnDifferentBaselinesResetEachOther() throws Exception
+    {
+        // given
+        ChangedStorePages changedStorePages = started();
+        ChangedPages changes = changedStorePages.track( storeFile );
+        writeStoreFile( 10 * PAGE_SIZE );
+        changedStorePages.startNewBaseline( 5 );
+        changes.mark( PAGE_SIZE, 9 );
+        changedStorePages.startNewBaseline( 8 );
+        changes.mark( 2L * PAGE_SIZE, 9 );
+
+        // when
+        ChangedPages.Snapshot first = single( changedStorePages.startNewBaseline( 10, 5 ) );
+        changes.mark( 3L * PAGE_SIZE, 9 );
+        ChangedPages.Snapshot second = single( changedStorePages.startNewBaseline( 12, 9 ) );
+
+        // then
+        assertEquals( 5, first.baselineTx() );
+        assertTrue( first.isChanged( 1 ) );
+        assertTrue( first.isChanged( 2 ) );
+        assertFalse( first.isChanged( 3 ) );
+        assertEquals( 8, second.baselineTx() );
+        assertFalse( second.isChanged( 1 ) );
+        assertTrue( second.isChanged( 2 ) );
+        assertTrue( second.isChanged( 3 ) );
+    }
+
+    @Test
+    public void shouldMergeOldestBaselinesWhenKeepingTooMany() throws Exception
+    {
+        // given
+        ChangedStorePages changedStorePages = started();
+        ChangedPages changes = changedStorePages.track( storeFile );
+        writeStoreFile( 100 * PAGE_SIZE );
+        for ( int tx = 1; tx <= ChangedPages.MAX_BASELINES + 2; tx++ )
+        {
+            changedStorePages.startNewBaseline( tx );
+            changes.mark( (long) tx * PAGE_SIZE, 9 );
+        }
+
+        // when
+        ChangedPages.Snapshot snapshot = single( changedStorePages.startNewBaseline( 20, 2 ) );
+
+        // then
+        assertEquals( 1, snapshot.baselineTx() );
+        for ( int page = 1; page <= ChangedPages.MAX_BASELINES + 2; page++ )
+        {
+            assertTrue( snapshot.isChanged( page ) );
+        }
+        assertFalse( snapshot.isChanged( ChangedPages.MAX_BASELINES + 3 ) );
+    }
+
+    @Test
+    public void shouldKeepEarlierBaselinesAcrossCleanRestart() throws Exception
+    {
+        // given
+        ChangedStorePages changedStorePages = started();
+        ChangedPages changes = changedStorePages.track( storeFile );
+        writeStoreFile( 4 * PAGE_SIZE );
+        changedStorePages.startNewBaseline( 5 );
+        changes.mark( PAGE_SIZE, 9 );
+        changedStorePages.startNewBaseline( 8 );
+        changes.mark( 3L * PAGE_SIZE, 9 );
+        changedStorePages.stop();
+
+        // when
+        changedStorePages = started();
+        changedStorePages.track( storeFile );
+        ChangedPages.Snapshot snapshot = single( changedStorePages.startNewBaseline( 10, 6 ) );
+
+        // then
+        assertEquals( 5, snapshot.baselineTx() );
+        assertTrue( snapshot.isChanged( 1 ) );
+        assertFalse( snapshot.isChanged( 2 ) );
+        assertTrue( snapshot.isChanged( 3 ) );
+    }
+
+    private ChangedStorePages started() throws Exception
+    {
+        ChangedStorePages changedStorePages = new ChangedStorePages( storeDir, fsRule.get(), StringLogger.DEV_NULL );
+        changedStorePages.start();
+        return changedStorePages;
+    }
+
+    private void writeNeoStore( long lastCommittedTx ) throws Exception
+    {
+        FileSystemAbstraction fs = fsRule.get();
+        fs.mkdirs( storeDir );
+        try ( StoreChannel channel = fs.open( new File( storeDir, NeoStore.DEFAULT_NAME ), "rw" ) )
+        {
+            ByteBuffer records = ByteBuffer.allocate( 5 * NeoStore.RECORD_SIZE );
+            records.putLong( 3 * NeoStore.RECORD_SIZE + 1, lastCommittedTx );
+            channel.write( records, 0 );
+        }
+    }
+
+    private void writeStoreFile( int length ) throws Exception
+    {
+        FileSystemAbstraction fs = fsRule.get();
+        fs.mkdirs( storeDir );
+        try ( StoreChannel channel = fs.open( storeFile, "rw" ) )
+        {
+            channel.write( ByteBuffer.allocate( length ), 0 );
+        }
+    }
+}
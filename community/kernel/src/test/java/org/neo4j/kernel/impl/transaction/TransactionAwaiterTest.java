@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
+import org.neo4j.kernel.impl.transaction.xaframework.XaDataSource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TransactionAwaiterTest
+{
+    @Test
+    public void shouldNotWaitForAppliedTransaction() throws Exception
+    {
+        // given
+        CountingAwaiter awaiter = new CountingAwaiter( dataSourceManager( new AtomicLong( 10 ) ) );
+
+        // when
+        boolean applied = awaiter.await( 10, 0 );
+
+        // then
+        assertTrue( applied );
+        assertEquals( 0, awaiter.catchUps );
+    }
+
+    @Test
+    public void shouldCatchUpOnceAndWaitForTransactionToBeApplied() throws Exception
+    {
+        // given
+        AtomicLong lastCommittedTx = new AtomicLong( 10 );
+        CountingAwaiter awaiter = new CountingAwaiter( dataSourceManager( lastCommittedTx ) );
+        applyLater( lastCommittedTx, 12 );
+
+        // when
+        boolean applied = awaiter.await( 12, 10000 );
+
+        // then
+        assertTrue( applied );
+        assertEquals( 1, awaiter.catchUps );
+    }
+
+    @Test
+    public void shouldBeAbleToApplyTransactionWhenCatchingUp() throws Exception
+    {
+        // given
+        AtomicLong lastCommittedTx = new AtomicLong( 10 );
+        CountingAwaiter awaiter = new CountingAwaiter( dataSourceManager( lastCommittedTx ) );
+        awaiter.applyOnCatchUp( lastCommittedTx, 15 );
+
+        // when
+        boolean applied = awaiter.await( 15, 0 );
+
+        // then
+        assertTrue( applied );
+    }
+
+    @Test
+    public void shouldGiveUpWaitingForTransactionThatIsNotApplied() throws Exception
+    {
+        // given
+        CountingAwaiter awaiter = new CountingAwaiter( dataSourceManager( new AtomicLong( 10 ) ) );
+
+        // when
+        long start = System.currentTimeMillis();
+        boolean applied = awaiter.await( 11, 50 );
+
+        // then
+        assertFalse( applied );
+        assertTrue( System.currentTimeMillis() - start >= 50 );
+        assertEquals( 1, awaiter.catchUps );
+    }
+
+    private static XaDataSourceManager dataSourceManager( final AtomicLong lastCommittedTx )
+    {
+        XaDataSource dataSource = mock( XaDataSource.class );
+        when( dataSource.getLastCommittedTxId() ).thenAnswer( new Answer<Long>()
+        {
+            @Override
+            public Long answer( InvocationOnMock invocation ) throws Throwable
+            {
+                return lastCommittedTx.get();
+            }
+        } );
+        XaDataSourceManager dataSourceManager = mock( XaDataSourceManager.class );
+        when( dataSourceManager.getXaDataSource( NeoStoreXaDataSource.DEFAULT_DATA_SOURCE_NAME ) )
+                .thenReturn( dataSource );
+        return dataSourceManager;
+    }
+
+    private static void applyLater( final AtomicLong lastCommittedTx, final long txId )
+    {
+        new Thread()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    Thread.sleep( 20 );
+                }
+                catch ( InterruptedException e )
+                {
+                    throw new RuntimeException( e );
+                }
+                lastCommittedTx.set( txId );
+            }
+        }.start();
+    }
+
+    private static class CountingAwaiter extends TransactionAwaiter
+    {
+        private int catchUps;
+        private AtomicLong lastCommittedTx;
+        private long applyOnCatchUp;
+
+        CountingAwaiter( XaDataSourceManager xaDataSourceManager )
+        {
+            super( xaDataSourceManager );
+        }
+
+        void applyOnCatchUp( AtomicLong lastCommittedTx, long txId )
+        {
+            this.lastCommittedTx = lastCommittedTx;
+            this.applyOnCatchUp = txId;
+        }
+
+        @Override
+        protected void catchUp( long txId )
+        {
+            catchUps++;
+            if ( lastCommittedTx != null )
+            {
+                lastCommittedTx.set( applyOnCatchUp );
+            }
+        }
+    }
+}
@@ -33,6 +33,11 @@ public class EideticTransactionMonitor implements TransactionMonitor
         commitCount++;
     }
 
+    @Override
+    public void transactionCommitTime( Xid xid, long commitTimeNanos )
+    {
+    }
+
     @Override
     public void injectOnePhaseCommit( Xid xid )
     {
@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.xaframework;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.neo4j.helpers.Pair;
+import org.neo4j.kernel.impl.nioneo.xa.command.LogReader;
+import org.neo4j.kernel.impl.util.Consumer;
+import org.neo4j.kernel.impl.util.Cursor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ReceivedTransactionDecoderTest
+{
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @After
+    public void shutDownExecutor()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldDecodeTransactionsInOrderOnTheGivenExecutor() throws Exception
+    {
+        // Given
+        ReceivedTransactionDecoder decoder = new ReceivedTransactionDecoder( transactions( 1, 5 ),
+                new EmptyLogReader( null ), 2, executor );
+
+        // When
+        List<Long> txIds = new ArrayList<>();
+        ReceivedTransactionDecoder.DecodedTransaction transaction;
+        while ( (transaction = decoder.next()) != null )
+        {
+            txIds.add( transaction.txId );
+        }
+        decoder.close();
+
+        // Then
+        assertEquals( asList( 1, 5 ), txIds );
+        assertNull( decoder.next() );
+    }
+
+    @Test
+    public void shouldLeaveTheExecutorFreeForTheNextBatchWhenClosedEarly() throws Exception
+    {
+        // Given a decoder that has filled its queue and waits for room
+        CountDownLatch decodedAhead = new CountDownLatch( 3 );
+        ReceivedTransactionDecoder decoder = new ReceivedTransactionDecoder( transactions( 1, 100 ),
+                new EmptyLogReader( decodedAhead ), 2, executor );
+        assertEquals( 1, decoder.next().txId );
+        assertTrue( decodedAhead.await( 10, TimeUnit.SECONDS ) );
+
+        // When
+        decoder.close();
+
+        // Then the next batch is decoded on the same executor
+        ReceivedTransactionDecoder next = new ReceivedTransactionDecoder( transactions( 101, 103 ),
+                new EmptyLogReader( null ), 2, executor );
+        assertEquals( 101, next.next().txId );
+        assertEquals( 102, next.next().txId );
+        assertEquals( 103, next.next().txId );
+        assertNull( next.next() );
+        next.close();
+    }
+
+    private static List<Long> asList( long from, long to )
+    {
+        List<Long> result = new ArrayList<>();
+        for ( long txId = from; txId <= to; txId++ )
+        {
+            result.add( txId );
+        }
+        return result;
+    }
+
+    private static Iterator<Pair<Long, ReadableByteChannel>> transactions( long from, long to )
+    {
+        List<Pair<Long, ReadableByteChannel>> transactions = new ArrayList<>();
+        for ( long txId : asList( from, to ) )
+        {
+            transactions.add( Pair.of( txId, mock( ReadableByteChannel.class ) ) );
+        }
+        return transactions.iterator();
+    }
+
+    private static class EmptyLogReader implements LogReader<ReadableByteChannel>
+    {
+        private final CountDownLatch decoded;
+
+        EmptyLogReader( CountDownLatch decoded )
+        {
+            this.decoded = decoded;
+        }
+
+        @Override
+        public Cursor<LogEntry, IOException> cursor( ReadableByteChannel channel )
+        {
+            return new Cursor<LogEntry, IOException>()
+            {
+                @Override
+                public boolean next( Consumer<LogEntry, IOException> consumer )
+                {
+                    return false;
+                }
+
+                @Override
+                public void close()
+                {
+                    if ( decoded != null )
+                    {
+                        decoded.countDown();
+                    }
+                }
+            };
+        }
+    }
+}
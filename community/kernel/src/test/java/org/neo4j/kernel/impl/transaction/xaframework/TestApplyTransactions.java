@@ -21,12 +21,15 @@ package org.neo4j.kernel.impl.transaction.xaframework;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Rule;
 import org.junit.Test;
 
 import org.neo4j.graphdb.Transaction;
+import org.neo4j.helpers.Pair;
 import org.neo4j.helpers.Predicate;
 import org.neo4j.helpers.collection.Iterables;
 import org.neo4j.kernel.GraphDatabaseAPI;
@@ -37,11 +40,14 @@ import org.neo4j.test.EphemeralFileSystemRule;
 import org.neo4j.test.LogTestUtils;
 import org.neo4j.test.TestGraphDatabaseFactory;
 import org.neo4j.test.impl.EphemeralFileSystemAbstraction;
+import org.neo4j.tooling.GlobalGraphOperations;
 
 import static org.hamcrest.Matchers.greaterThan;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
+import static org.neo4j.helpers.collection.IteratorUtil.count;
 import static org.neo4j.kernel.impl.transaction.xaframework.LogMatchers.logEntries;
 import static org.neo4j.test.EphemeralFileSystemRule.shutdownDbAction;
 import static org.neo4j.test.LogTestUtils.filterNeostoreLogicalLog;
@@ -89,6 +95,90 @@ public class TestApplyTransactions
         assertEquals( latestTxId, extractedTxId );
     }
 
+    @Test
+    public void committedTransactionsReceivedAsABatchAreAllAppliedAndLogged() throws Exception
+    {
+        // GIVEN
+        File baseStoreDir = new File( "base" );
+        File destStoreDir = new File( baseStoreDir, "destination" );
+        GraphDatabaseAPI origin = (GraphDatabaseAPI) new TestGraphDatabaseFactory().setFileSystem( fs.get() )
+                .newImpermanentDatabase( new File( baseStoreDir, "origin" ).getPath() );
+        final GraphDatabaseAPI dest = (GraphDatabaseAPI) new TestGraphDatabaseFactory().setFileSystem( fs.get() )
+                .newImpermanentDatabase( destStoreDir.getPath() );
+        long firstTxId = xaDs( dest ).getLastCommittedTxId() + 1;
+        List<Pair<Long, ReadableByteChannel>> transactions = createAndExtractTransactions( origin, 10 );
+        origin.shutdown();
+
+        // WHEN
+        xaDs( dest ).applyCommittedTransactions( transactions.iterator() );
+        EphemeralFileSystemAbstraction snapshot = fs.snapshot( shutdownDbAction( dest ) );
+
+        // THEN
+        GraphDatabaseAPI newDest = (GraphDatabaseAPI) new TestGraphDatabaseFactory().setFileSystem( snapshot )
+                .newImpermanentDatabase( destStoreDir.getPath() );
+        XaDataSource destNeoDataSource = xaDs( newDest );
+        assertEquals( firstTxId + 9, destNeoDataSource.getLastCommittedTxId() );
+        for ( long txId = firstTxId; txId < firstTxId + 10; txId++ )
+        {
+            assertEquals( txId, destNeoDataSource.getLogExtractor( txId, txId ).extractNext( new InMemoryLogBuffer() ) );
+        }
+        try ( Transaction tx = newDest.beginTx() )
+        {
+            assertEquals( 10, count( GlobalGraphOperations.at( newDest ).getAllNodes() ) );
+            tx.success();
+        }
+        newDest.shutdown();
+    }
+
+    @Test
+    public void transactionsBeforeAGapInABatchAreAppliedButNothingAfterIt() throws Exception
+    {
+        // GIVEN
+        File baseStoreDir = new File( "base" );
+        GraphDatabaseAPI origin = (GraphDatabaseAPI) new TestGraphDatabaseFactory().setFileSystem( fs.get() )
+                .newImpermanentDatabase( new File( baseStoreDir, "origin" ).getPath() );
+        GraphDatabaseAPI dest = (GraphDatabaseAPI) new TestGraphDatabaseFactory().setFileSystem( fs.get() )
+                .newImpermanentDatabase( new File( baseStoreDir, "destination" ).getPath() );
+        long lastCommittedTxId = xaDs( dest ).getLastCommittedTxId();
+        List<Pair<Long, ReadableByteChannel>> transactions = createAndExtractTransactions( origin, 5 );
+        transactions.remove( 2 );
+        origin.shutdown();
+
+        // WHEN
+        try
+        {
+            xaDs( dest ).applyCommittedTransactions( transactions.iterator() );
+            fail( "Should have failed to apply a transaction after the gap" );
+        }
+        catch ( IOException e )
+        {   // THEN
+            assertEquals( lastCommittedTxId + 2, xaDs( dest ).getLastCommittedTxId() );
+        }
+        finally
+        {
+            dest.shutdown();
+        }
+    }
+
+    private List<Pair<Long, ReadableByteChannel>> createAndExtractTransactions( GraphDatabaseAPI db, int count )
+            throws IOException
+    {
+        List<Pair<Long, ReadableByteChannel>> transactions = new ArrayList<>();
+        for ( int i = 0; i < count; i++ )
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                db.createNode();
+                tx.success();
+            }
+            long txId = xaDs( db ).getLastCommittedTxId();
+            InMemoryLogBuffer buffer = new InMemoryLogBuffer();
+            xaDs( db ).getLogExtractor( txId, txId ).extractNext( buffer );
+            transactions.add( Pair.<Long, ReadableByteChannel>of( txId, buffer ) );
+        }
+        return transactions;
+    }
+
     private XaDataSource xaDs( GraphDatabaseAPI origin )
     {
         return origin.getDependencyResolver().resolveDependency( XaDataSourceManager.class ).getXaDataSource(
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.traversal;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+
+public class ParallelTraversalPoolTest
+{
+    @Test
+    public void shouldHaveNoPoolWhenParallelTraversalIsDisabled() throws Throwable
+    {
+        // GIVEN
+        ParallelTraversalPool traversalPool = new ParallelTraversalPool( new Config( stringMap(
+                GraphDatabaseSettings.parallel_traversal_enabled.name(), "false" ) ) );
+
+        // WHEN
+        traversalPool.start();
+
+        // THEN
+        assertNull( traversalPool.pool() );
+        traversalPool.stop();
+    }
+
+    @Test
+    public void shouldCreatePoolWithConfiguredThreadsOnStart() throws Throwable
+    {
+        // GIVEN
+        ParallelTraversalPool traversalPool = new ParallelTraversalPool( new Config( stringMap(
+                GraphDatabaseSettings.parallel_traversal_threads.name(), "3" ) ) );
+        assertNull( traversalPool.pool() );
+
+        // WHEN
+        traversalPool.start();
+
+        // THEN
+        assertEquals( 3, traversalPool.pool().getParallelism() );
+        traversalPool.stop();
+    }
+
+    @Test
+    public void shouldShutDownPoolWithTheDatabase() throws Exception
+    {
+        // GIVEN
+        GraphDatabaseAPI db = (GraphDatabaseAPI) new TestGraphDatabaseFactory().newImpermanentDatabase();
+        ParallelTraversalPool traversalPool = db.getDependencyResolver().resolveDependency(
+                ParallelTraversalPool.class );
+        ForkJoinPool pool = traversalPool.pool();
+        assertNotNull( pool );
+
+        // WHEN
+        db.shutdown();
+
+        // THEN
+        assertTrue( pool.isShutdown() );
+        assertNull( traversalPool.pool() );
+    }
+}
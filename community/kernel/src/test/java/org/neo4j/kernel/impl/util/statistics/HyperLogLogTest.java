@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.statistics;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.junit.Assert.assertEquals;
+
+public class HyperLogLogTest
+{
+    @Test
+    public void shouldEstimateZeroForNoValues() throws Exception
+    {
+        assertEquals( 0, new HyperLogLog().estimate() );
+    }
+
+    @Test
+    public void shouldCountFewDistinctValuesAlmostExactly() throws Exception
+    {
+        // Given
+        HyperLogLog distinct = new HyperLogLog();
+
+        // When
+        for ( int i = 0; i < 10_000; i++ )
+        {
+            distinct.offer( "value" + (i % 10) );
+        }
+
+        // Then
+        assertEquals( 10, distinct.estimate() );
+    }
+
+    @Test
+    public void shouldEstimateManyDistinctValues() throws Exception
+    {
+        // Given
+        HyperLogLog distinct = new HyperLogLog();
+
+        // When
+        for ( long i = 0; i < 1_000_000; i++ )
+        {
+            distinct.offer( i );
+            distinct.offer( i );
+        }
+
+        // Then
+        assertThat( (double) distinct.estimate(), closeTo( 1_000_000, 50_000 ) );
+    }
+}
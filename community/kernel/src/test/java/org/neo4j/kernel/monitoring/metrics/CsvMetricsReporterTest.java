@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.monitoring.metrics;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.helpers.FakeClock;
+import org.neo4j.kernel.impl.util.JobScheduler;
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.test.EphemeralFileSystemRule;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import static org.neo4j.kernel.impl.util.Charsets.UTF_8;
+
+public class CsvMetricsReporterTest
+{
+    @Rule
+    public EphemeralFileSystemRule fs = new EphemeralFileSystemRule();
+
+    @Test
+    public void shouldAppendOneRowPerMetricAndReport() throws Exception
+    {
+        // given
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter( "transaction.committed" ).add( 3 );
+        registry.histogram( "transaction.commit_time" ).record( 10 );
+        FakeClock clock = new FakeClock();
+        File file = new File( "metrics.csv" );
+        CsvMetricsReporter reporter = new CsvMetricsReporter( registry, fs.get(), file, clock, StringLogger.DEV_NULL,
+                mock( JobScheduler.class ), 1000 );
+
+        // when
+        reporter.run();
+        clock.forward( 1, SECONDS );
+        reporter.run();
+
+        // then
+        assertEquals( asList(
+                CsvMetricsReporter.HEADER,
+                "0,transaction.committed,3,,,,,,,,",
+                "0,transaction.commit_time,1,,10,10,10,10,10,10,10",
+                "1000,transaction.committed,3,,,,,,,,",
+                "1000,transaction.commit_time,1,,10,10,10,10,10,10,10" ), readLines( file ) );
+    }
+
+    private List<String> readLines( File file ) throws Exception
+    {
+        List<String> lines = new ArrayList<>();
+        try ( BufferedReader reader = new BufferedReader( fs.get().openAsReader( file, UTF_8.name() ) ) )
+        {
+            for ( String line; (line = reader.readLine()) != null; )
+            {
+                lines.add( line );
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.monitoring.metrics;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+public class HistogramTest
+{
+    @Test
+    public void shouldReportZeroesWhenEmpty() throws Exception
+    {
+        Histogram.Snapshot snapshot = new Histogram().snapshot();
+
+        assertEquals( 0, snapshot.count() );
+        assertEquals( 0, snapshot.min() );
+        assertEquals( 0, snapshot.max() );
+        assertEquals( 0, snapshot.percentile( 99 ) );
+    }
+
+    @Test
+    public void shouldRecordSmallValuesExactly() throws Exception
+    {
+        Histogram histogram = new Histogram();
+        for ( int i = 1; i <= 10; i++ )
+        {
+            histogram.record( i );
+        }
+
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals( 10, snapshot.count() );
+        assertEquals( 1, snapshot.min() );
+        assertEquals( 10, snapshot.max() );
+        assertEquals( 5.5d, snapshot.mean(), 0.0001d );
+        assertEquals( 5, snapshot.percentile( 50 ) );
+        assertEquals( 10, snapshot.percentile( 100 ) );
+    }
+
+    @Test
+    public void shouldReportPercentilesOfLargeValuesWithinBucketPrecision() throws Exception
+    {
+        Histogram histogram = new Histogram();
+        for ( long i = 1; i <= 100_000; i++ )
+        {
+            histogram.record( i * 1_000 );
+        }
+
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertWithinPrecision( 50_000_000L, snapshot.percentile( 50 ) );
+        assertWithinPrecision( 99_000_000L, snapshot.percentile( 99 ) );
+        assertEquals( 100_000_000L, snapshot.max() );
+    }
+
+    @Test
+    public void shouldMapEveryValueToBucketThatContainsIt() throws Exception
+    {
+        long[] values = {0, 1, 31, 32, 33, 63, 64, 65, 1000, 123456789, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+        for ( long value : values )
+        {
+            int index = Histogram.bucketIndex( value );
+            assertThat( index, lessThanOrEqualTo( Histogram.BUCKETS - 1 ) );
+            assertThat( Histogram.highestValueInBucket( index ), greaterThanOrEqualTo( value ) );
+            if ( index > 0 )
+            {
+                assertThat( Histogram.highestValueInBucket( index - 1 ), lessThanOrEqualTo( value - 1 ) );
+            }
+        }
+    }
+
+    private void assertWithinPrecision( long expected, long actual )
+    {
+        long tolerance = expected / Histogram.SUB_BUCKETS;
+        assertThat( actual, allOf( greaterThanOrEqualTo( expected - tolerance ),
+                lessThanOrEqualTo( expected + tolerance ) ) );
+    }
+}
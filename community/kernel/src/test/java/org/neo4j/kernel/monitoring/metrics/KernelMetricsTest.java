@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.monitoring.metrics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.api.index.SchemaIndexProvider;
+import org.neo4j.kernel.impl.locking.ResourceTypes;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.kernel.monitoring.QueryExecutionMonitor;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class KernelMetricsTest
+{
+    private GraphDatabaseAPI db;
+    private MetricsRegistry registry;
+    private Monitors monitors;
+
+    @Before
+    public void startDb()
+    {
+        db = (GraphDatabaseAPI) new TestGraphDatabaseFactory().newImpermanentDatabase();
+        registry = db.getDependencyResolver().resolveDependency( MetricsRegistry.class );
+        monitors = db.getDependencyResolver().resolveDependency( Monitors.class );
+    }
+
+    @After
+    public void stopDb()
+    {
+        db.shutdown();
+    }
+
+    @Test
+    public void shouldRecordCommittedTransactionsOncePerTransaction() throws Exception
+    {
+        long committedBefore = registry.count( KernelMetrics.TRANSACTIONS_COMMITTED );
+
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.createNode();
+            tx.success();
+        }
+
+        assertEquals( committedBefore + 1, registry.count( KernelMetrics.TRANSACTIONS_COMMITTED ) );
+        assertEquals( committedBefore + 1, registry.count( KernelMetrics.TRANSACTION_COMMIT_TIME ) );
+    }
+
+    @Test
+    public void shouldRecordLockWaitsPerResourceType() throws Exception
+    {
+        monitors.newMonitor( Locks.Monitor.class ).lockWaited( ResourceTypes.NODE, 1000 );
+
+        assertEquals( 1, registry.count( KernelMetrics.LOCK_WAIT_TIME + ".node" ) );
+    }
+
+    @Test
+    public void shouldRecordWaitForEdgesPerResourceType() throws Exception
+    {
+        monitors.newMonitor( Locks.Monitor.class ).waitForEdgesSampled( ResourceTypes.RELATIONSHIP, 3 );
+
+        assertEquals( 1, registry.count( KernelMetrics.LOCK_WAIT_FOR_EDGES + ".relationship" ) );
+    }
+
+    @Test
+    public void shouldRecordLockWaitsOnUnknownResourceTypesAsOther() throws Exception
+    {
+        Locks.ResourceType unknownType = mock( Locks.ResourceType.class );
+
+        monitors.newMonitor( Locks.Monitor.class ).lockWaited( unknownType, 1000 );
+        monitors.newMonitor( Locks.Monitor.class ).lockWaited( null, 1000 );
+
+        assertEquals( 2, registry.count( KernelMetrics.LOCK_WAIT_TIME + "." + KernelMetrics.OTHER_RESOURCES ) );
+    }
+
+    @Test
+    public void shouldGroupQueriesBeyondTheTrackedLimit() throws Exception
+    {
+        QueryExecutionMonitor monitor = monitors.newMonitor( QueryExecutionMonitor.class );
+        for ( int i = 0; i < KernelMetrics.MAX_TRACKED_QUERIES + 10; i++ )
+        {
+            monitor.queryPlanned( "MATCH (n) WHERE id(n) = " + i + " RETURN n", 1000 );
+        }
+
+        assertEquals( 10, registry.count( KernelMetrics.QUERY_PLANNING_TIME + "." + KernelMetrics.OTHER_QUERIES ) );
+    }
+
+    @Test
+    public void shouldRecordIndexRefreshLag() throws Exception
+    {
+        monitors.newMonitor( SchemaIndexProvider.Monitor.class ).indexRefreshed( 12, 5000 );
+
+        assertEquals( 1, registry.count( KernelMetrics.INDEX_REFRESH_LAG ) );
+        assertEquals( 5000, registry.snapshot( KernelMetrics.INDEX_REFRESH_LAG ).max() );
+        assertEquals( 1, registry.count( KernelMetrics.INDEX_REFRESH_UPDATES ) );
+    }
+
+    @Test
+    public void shouldExposeWindowPoolMisses() throws Exception
+    {
+        assertTrue( registry.contains( KernelMetrics.WINDOW_POOL_MISSES ) );
+    }
+}
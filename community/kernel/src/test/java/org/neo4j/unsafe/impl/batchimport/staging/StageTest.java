@@ -29,6 +29,7 @@ import org.neo4j.unsafe.impl.batchimport.stats.Keys;
 import org.neo4j.unsafe.impl.batchimport.stats.StepStats;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class StageTest
 {
@@ -71,6 +72,47 @@ public class StageTest
         }
     }
 
+    @Test
+    public void shouldReportThroughputOfCompletedStage() throws Exception
+    {
+        // GIVEN
+        Configuration config = new Configuration.Default()
+        {
+            @Override
+            public int batchSize()
+            {
+                return 10;
+            }
+        };
+        Stage stage = new Stage( new DevNullLoggingService(), "Test stage", config );
+        final long items = 1000;
+        stage.add( new ProducerStep<Object>( stage.control(), "Producer", config.batchSize() )
+        {
+            private long i = 0;
+            private final Object theObject = new Object();
+
+            @Override
+            protected Object nextOrNull()
+            {
+                return ++i > items ? null : theObject;
+            }
+        } );
+        stage.add( new LastReceiveOrderAssertingStep( stage.control(), "Final step", 20, 1, 1 ) );
+
+        // WHEN
+        StageExecution execution = stage.execute();
+        new SilentExecutionMonitor().monitor( execution );
+
+        // THEN
+        assertEquals( items / config.batchSize(), execution.doneBatches() );
+        long executionTime = execution.getExecutionTime();
+        assertTrue( executionTime >= 0 );
+        Thread.sleep( 10 );
+        assertEquals( executionTime, execution.getExecutionTime() );
+        // A fast machine may run the whole stage within the same millisecond
+        assertEquals( executionTime == 0 ? 0 : items * 1000 / executionTime, execution.itemsPerSecond() );
+    }
+
     private static class ReceiveOrderAssertingStep extends ExecutorServiceStep<Object>
     {
         private final AtomicLong lastTicket = new AtomicLong();
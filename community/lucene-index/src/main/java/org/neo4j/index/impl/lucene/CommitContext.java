@@ -23,7 +23,6 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.lucene.document.Document;
-import org.apache.lucene.index.IndexWriter;
 import org.neo4j.index.impl.lucene.LuceneTransaction.CommandList;
 
 /**
@@ -40,7 +39,6 @@ class CommitContext
     final boolean recovery;
 
     IndexReference searcher;
-    IndexWriter writer;
 
     CommitContext( LuceneDataSource dataSource, IndexIdentifier identifier, IndexType indexType, CommandList commandList )
     {
@@ -56,7 +54,6 @@ class CommitContext
         if ( searcher == null )
         {
             searcher = dataSource.getIndexSearcher( identifier );
-            writer = searcher.getWriter();
         }
     }
 
@@ -69,7 +66,8 @@ class CommitContext
             return context;
         }
 
-        Document document = LuceneDataSource.findDocument( indexType, searcher.getSearcher(), id );
+        Document document = LuceneDataSource.findDocument( indexType,
+                searcher.getSearcher( searcher.shardFor( id ) ), id );
         if ( document != null )
         {
             context = new DocumentContext( document, true, id );
@@ -19,23 +19,37 @@
  */
 package org.neo4j.index.impl.lucene;
 
-import java.util.ArrayList;
+import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.Set;
+import java.util.NoSuchElementException;
 
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.collection.primitive.PrimitiveLongObjectMap;
+import org.neo4j.collection.primitive.PrimitiveLongSet;
 import org.neo4j.index.lucene.QueryContext;
 import org.neo4j.index.lucene.ValueContext;
 
+/**
+ * Transaction state for an index that only has seen exact additions and removals, keeping the ids of each
+ * key/value pair in a primitive set rather than in a set of boxed ids. Relationship ids also keep their start
+ * and end nodes around, for when this state gets converted into {@link FullTxData}.
+ *
+ * When the number of entries grows past {@link LuceneDataSource#txStateSpillThreshold()} the entries are
+ * moved over to a {@link FullTxData} kept in a temporary index on disk, to not grow the heap without bound.
+ */
 public class ExactTxData extends TxData
 {
-    private Map<String, Map<Object, Set<Object>>> data;
+    private Map<String, Map<Object, PrimitiveLongSet>> data;
+    private PrimitiveLongObjectMap<RelationshipId> relationships;
     private boolean hasOrphans;
+    private int size;
 
     ExactTxData( LuceneIndex index )
     {
@@ -45,21 +59,48 @@ public class ExactTxData extends TxData
     @Override
     void add( TxDataHolder holder, Object entityId, String key, Object value )
     {
-        idCollection( key, value, true ).add( entityId );
+        long id = id( entityId );
+        if ( idCollection( key, value, true ).add( id ) )
+        {
+            if ( entityId instanceof RelationshipId )
+            {
+                relationships().put( id, (RelationshipId) entityId );
+            }
+            if ( ++size > index.service.dataSource().txStateSpillThreshold() )
+            {
+                TxData onDisk = toFullTxData( true );
+                close();
+                holder.set( onDisk );
+            }
+        }
+    }
+
+    private static long id( Object entityId )
+    {
+        return entityId instanceof Long ? (Long) entityId : ((RelationshipId) entityId).id;
     }
 
-    private Set<Object> idCollection( String key, Object value, boolean create )
+    private PrimitiveLongObjectMap<RelationshipId> relationships()
     {
-        Map<Object, Set<Object>> keyMap = keyMap( key, create );
+        if ( relationships == null )
+        {
+            relationships = Primitive.longObjectMap();
+        }
+        return relationships;
+    }
+
+    private PrimitiveLongSet idCollection( String key, Object value, boolean create )
+    {
+        Map<Object, PrimitiveLongSet> keyMap = keyMap( key, create );
         if ( keyMap == null )
         {
             return null;
         }
 
-        Set<Object> ids = keyMap.get( value );
+        PrimitiveLongSet ids = keyMap.get( value );
         if ( ids == null && create )
         {
-            ids = new HashSet<Object>();
+            ids = Primitive.longSet();
             keyMap.put( value, ids );
             if ( value == null )
             {
@@ -69,13 +110,13 @@ public class ExactTxData extends TxData
         return ids;
     }
 
-    private Map<Object, Set<Object>> keyMap( String key, boolean create )
+    private Map<Object, PrimitiveLongSet> keyMap( String key, boolean create )
     {
         if ( data == null )
         {
             if ( create )
             {
-                data = new HashMap<String, Map<Object,Set<Object>>>();
+                data = new HashMap<String, Map<Object,PrimitiveLongSet>>();
             }
             else
             {
@@ -83,10 +124,10 @@ public class ExactTxData extends TxData
             }
         }
 
-        Map<Object, Set<Object>> inner = data.get( key );
+        Map<Object, PrimitiveLongSet> inner = data.get( key );
         if ( inner == null && create )
         {
-            inner = new HashMap<Object, Set<Object>>();
+            inner = new HashMap<Object, PrimitiveLongSet>();
             data.put( key, inner );
             if ( key == null )
             {
@@ -96,20 +137,22 @@ public class ExactTxData extends TxData
         return inner;
     }
 
-    private TxData toFullTxData()
+    private TxData toFullTxData( boolean onDisk )
     {
-        FullTxData data = new FullTxData( index );
+        FullTxData data = new FullTxData( index, onDisk );
         if ( this.data != null )
         {
-            for ( Map.Entry<String, Map<Object, Set<Object>>> entry : this.data.entrySet() )
+            for ( Map.Entry<String, Map<Object, PrimitiveLongSet>> entry : this.data.entrySet() )
             {
                 String key = entry.getKey();
-                for ( Map.Entry<Object, Set<Object>> valueEntry : entry.getValue().entrySet() )
+                for ( Map.Entry<Object, PrimitiveLongSet> valueEntry : entry.getValue().entrySet() )
                 {
                     Object value = valueEntry.getKey();
-                    for ( Object id : valueEntry.getValue() )
+                    PrimitiveLongIterator ids = valueEntry.getValue().iterator();
+                    while ( ids.hasNext() )
                     {
-                        data.add( null, id, key, value );
+                        long id = ids.next();
+                        data.add( null, relationships != null ? relationships.get( id ) : id, key, value );
                     }
                 }
             }
@@ -120,6 +163,22 @@ public class ExactTxData extends TxData
     @Override
     void close()
     {
+        if ( data != null )
+        {
+            for ( Map<Object, PrimitiveLongSet> keyMap : data.values() )
+            {
+                for ( PrimitiveLongSet ids : keyMap.values() )
+                {
+                    ids.close();
+                }
+            }
+            data = null;
+        }
+        if ( relationships != null )
+        {
+            relationships.close();
+            relationships = null;
+        }
     }
 
     @Override
@@ -130,7 +189,7 @@ public class ExactTxData extends TxData
             return Collections.<Long>emptyList();
         }
 
-        TxData fullTxData = toFullTxData();
+        TxData fullTxData = toFullTxData( false );
         holder.set( fullTxData );
         return fullTxData.query( holder, query, contextOrNull );
     }
@@ -145,16 +204,16 @@ public class ExactTxData extends TxData
         
         if ( key == null || value == null )
         {
-            TxData fullData = toFullTxData();
+            TxData fullData = toFullTxData( false );
             fullData.remove( holder, entityId, key, value );
             holder.set( fullData );
         }
         else
         {
-            Collection<Object> ids = idCollection( key, value, false );
-            if ( ids != null )
+            PrimitiveLongSet ids = idCollection( key, value, false );
+            if ( ids != null && ids.remove( id( entityId ) ) )
             {
-                ids.remove( entityId );
+                size--;
             }
         }
     }
@@ -163,7 +222,7 @@ public class ExactTxData extends TxData
     Collection<Long> get( TxDataHolder holder, String key, Object value )
     {
         value = value instanceof ValueContext ? ((ValueContext) value).getCorrectValue() : value.toString();
-        Set<Object> ids = idCollection( key, value, false );
+        PrimitiveLongSet ids = idCollection( key, value, false );
         if ( ids == null || ids.isEmpty() )
         {
             return Collections.<Long>emptySet();
@@ -179,31 +238,62 @@ public class ExactTxData extends TxData
             return null;
         }
         
-        Set<Object> orphans = idCollection( null, null, false );
-        Set<Object> keyOrphans = idCollection( key, null, false );
+        PrimitiveLongSet orphans = idCollection( null, null, false );
+        PrimitiveLongSet keyOrphans = idCollection( key, null, false );
         Collection<Long> orphanLongs = orphans != null ? toLongs( orphans ) : null;
         Collection<Long> keyOrphanLongs = keyOrphans != null ? toLongs( keyOrphans ) : null;
         return LuceneTransaction.merge( orphanLongs, keyOrphanLongs );
     }
 
-    @SuppressWarnings( { "unchecked", "rawtypes" } )
-    private Collection<Long> toLongs( Set<Object> ids )
+    /**
+     * @return a read only view of the given ids, so that looking them up doesn't require boxing all of them.
+     */
+    private static Collection<Long> toLongs( final PrimitiveLongSet ids )
     {
-        if (ids.isEmpty()) return Collections.emptySet();
-
-        if ( ids.iterator().next() instanceof Long )
-        {
-            return (Collection) ids;
-        }
-        else
+        return new AbstractSet<Long>()
         {
-            Collection<Long> longs = new ArrayList<Long>(ids.size());
-            for ( Object id : ids )
+            @Override
+            public boolean contains( Object id )
             {
-                longs.add( ((RelationshipId) id).id );
+                return id instanceof Long && ids.contains( (Long) id );
             }
-            return longs;
-        }
+
+            @Override
+            public Iterator<Long> iterator()
+            {
+                final PrimitiveLongIterator iterator = ids.iterator();
+                return new Iterator<Long>()
+                {
+                    @Override
+                    public boolean hasNext()
+                    {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Long next()
+                    {
+                        if ( !iterator.hasNext() )
+                        {
+                            throw new NoSuchElementException();
+                        }
+                        return iterator.next();
+                    }
+
+                    @Override
+                    public void remove()
+                    {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return ids.size();
+            }
+        };
     }
     
     @Override
@@ -213,7 +303,7 @@ public class ExactTxData extends TxData
         {
             return null;
         }
-        TxData fullTxData = toFullTxData();
+        TxData fullTxData = toFullTxData( false );
         holder.set( fullTxData );
         return fullTxData.asSearcher( holder, context );
     }
@@ -25,6 +25,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -49,6 +50,8 @@ import org.apache.lucene.search.WildcardQuery;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.RAMDirectory;
 
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongSet;
 import org.neo4j.index.lucene.QueryContext;
 
 import static java.util.Collections.emptyList;
@@ -80,17 +83,35 @@ class FullTxData extends TxData
     private static final String ORPHANS_KEY = "__all__";
     private static final String ORPHANS_VALUE = "1";
 
+    /*
+     * The documents are kept in a RAMDirectory, with all of them cached on the heap as well, until there are
+     * more of them than the data source's tx state spill threshold. From then on they are kept in a temporary
+     * directory on disk, caching only the recently used ones and reading the others back from the
+     * directory when they are changed again. The ids of all documents are kept in a primitive set for that.
+     */
+    private boolean onDisk;
     private Directory directory;
     private IndexWriter writer;
     private boolean modified;
     private IndexReader reader;
     private IndexSearcher searcher;
-    private final Map<Long, Document> cachedDocuments = new HashMap<Long, Document>();
+    private Map<Long, Document> cachedDocuments;
+    private PrimitiveLongSet documentIds;
     private Set<String> orphans;
 
-    FullTxData( LuceneIndex index )
+    FullTxData( LuceneIndex index, boolean onDisk )
     {
         super( index );
+        this.onDisk = onDisk;
+        if ( onDisk )
+        {
+            this.cachedDocuments = newDocumentCache();
+            this.documentIds = Primitive.longSet();
+        }
+        else
+        {
+            this.cachedDocuments = new HashMap<Long, Document>();
+        }
     }
 
     @Override
@@ -106,19 +127,23 @@ class FullTxData extends TxData
             {
                 document = index.getIdentifier().entityType.newDocument( entityId );
                 cachedDocuments.put( id, document );
+                if ( documentIds != null )
+                {
+                    documentIds.add( id );
+                }
                 add = true;
             }
 
             if ( key == null && value == null )
             {
                 // Set a special "always hit" flag
-                document.add( new Field( ORPHANS_KEY, ORPHANS_VALUE, Store.NO, Index.NOT_ANALYZED ) );
+                document.add( new Field( ORPHANS_KEY, ORPHANS_VALUE, Store.YES, Index.NOT_ANALYZED ) );
                 addOrphan( null );
             }
             else if ( value == null )
             {
                 // Set a special "always hit" flag
-                document.add( new Field( ORPHANS_KEY, key, Store.NO, Index.NOT_ANALYZED ) );
+                document.add( new Field( ORPHANS_KEY, key, Store.YES, Index.NOT_ANALYZED ) );
                 addOrphan( key );
             }
             else
@@ -135,6 +160,10 @@ class FullTxData extends TxData
                 writer.updateDocument( index.type.idTerm( id ), document );
             }
             invalidateSearcher();
+            if ( !onDisk && cachedDocuments.size() > index.service.dataSource().txStateSpillThreshold() )
+            {
+                spillToDisk();
+            }
         }
         catch ( IOException e )
         {
@@ -142,6 +171,42 @@ class FullTxData extends TxData
         }
     }
 
+    private void spillToDisk() throws IOException
+    {
+        Directory onDiskDirectory = index.service.dataSource().newTxStateDirectory();
+        IndexWriter onDiskWriter = newWriter( onDiskDirectory );
+        safeClose( this.writer );
+        safeClose( this.reader );
+        safeClose( this.searcher );
+        onDiskWriter.addIndexes( directory );
+        directory.close();
+
+        this.onDisk = true;
+        this.directory = onDiskDirectory;
+        this.writer = onDiskWriter;
+        this.reader = null;
+        this.searcher = null;
+        this.documentIds = Primitive.longSet();
+        for ( Long id : cachedDocuments.keySet() )
+        {
+            documentIds.add( id );
+        }
+        this.cachedDocuments = newDocumentCache();
+    }
+
+    private Map<Long, Document> newDocumentCache()
+    {
+        final int capacity = index.service.dataSource().txStateSpillThreshold();
+        return new LinkedHashMap<Long, Document>( 16, 0.75f, true )
+        {
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<Long, Document> eldest )
+            {
+                return size() > capacity;
+            }
+        };
+    }
+
     private void addOrphan( String key )
     {
         if ( orphans == null )
@@ -153,7 +218,16 @@ class FullTxData extends TxData
 
     private Document findDocument( long id )
     {
-        return cachedDocuments.get( id );
+        Document document = cachedDocuments.get( id );
+        if ( document == null && documentIds != null && documentIds.contains( id ) )
+        {
+            document = LuceneDataSource.findDocument( index.type, searcher( true ), id );
+            if ( document != null )
+            {
+                cachedDocuments.put( id, document );
+            }
+        }
+        return document;
     }
 
     private void ensureLuceneDataInstantiated()
@@ -162,9 +236,8 @@ class FullTxData extends TxData
         {
             try
             {
-                this.directory = new RAMDirectory();
-                IndexWriterConfig writerConfig = new IndexWriterConfig( LUCENE_VERSION, index.type.analyzer );
-                this.writer = new IndexWriter( directory, writerConfig );
+                this.directory = onDisk ? index.service.dataSource().newTxStateDirectory() : new RAMDirectory();
+                this.writer = newWriter( directory );
             }
             catch ( IOException e )
             {
@@ -173,6 +246,12 @@ class FullTxData extends TxData
         }
     }
 
+    private IndexWriter newWriter( Directory directory ) throws IOException
+    {
+        IndexWriterConfig writerConfig = new IndexWriterConfig( LUCENE_VERSION, index.type.analyzer );
+        return new IndexWriter( directory, writerConfig );
+    }
+
     @Override
     void remove( TxDataHolder holder, Object entityId, String key, Object value )
     {
@@ -359,6 +438,11 @@ class FullTxData extends TxData
         safeClose( this.writer );
         safeClose( this.reader );
         safeClose( this.searcher );
+        if ( onDisk && directory != null )
+        {
+            index.service.dataSource().deleteTxStateDirectory( directory );
+            directory = null;
+        }
     }
 
     private void invalidateSearcher()
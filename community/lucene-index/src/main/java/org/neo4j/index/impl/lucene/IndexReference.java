@@ -26,10 +26,19 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.search.IndexSearcher;
 
+/**
+ * The writers and the current searchers of a legacy index. An index configured with
+ * {@link LuceneIndexImplementation#KEY_SHARDS more than one shard} keeps one independent writer and searcher
+ * per shard, and entities are assigned to shards by id, see {@link #shardFor(long)}.
+ *
+ * The readers of the shard searchers are reference counted, so that a refreshed reference can share the readers
+ * of the shards that did not change with the reference it replaces.
+ */
 class IndexReference
 {
     private final IndexIdentifier identifier;
-    private final IndexWriter writer;
+    private final IndexWriter[] writers;
+    private final IndexSearcher[] shardSearchers;
     private final IndexSearcher searcher;
     private final AtomicInteger refCount = new AtomicInteger( 0 );
     private boolean searcherIsClosed;
@@ -43,23 +52,73 @@ class IndexReference
      */
     private volatile boolean detached;
 
-    private final AtomicBoolean stale = new AtomicBoolean();
+    private final AtomicBoolean[] stale;
 
     public IndexReference( IndexIdentifier identifier, IndexSearcher searcher, IndexWriter writer )
+    {
+        this( identifier, new IndexSearcher[] {searcher}, searcher, new IndexWriter[] {writer} );
+    }
+
+    /**
+     * @param shardSearchers one searcher per shard, each owning one reference to its reader.
+     * @param searcher a searcher over all shards, the same as the only shard searcher if there is just one shard.
+     * @param writers one writer per shard.
+     */
+    public IndexReference( IndexIdentifier identifier, IndexSearcher[] shardSearchers, IndexSearcher searcher,
+            IndexWriter[] writers )
     {
         this.identifier = identifier;
+        this.shardSearchers = shardSearchers;
         this.searcher = searcher;
-        this.writer = writer;
+        this.writers = writers;
+        this.stale = new AtomicBoolean[writers.length];
+        for ( int shard = 0; shard < stale.length; shard++ )
+        {
+            stale[shard] = new AtomicBoolean();
+        }
     }
 
+    /**
+     * @return a searcher over all the shards of this index.
+     */
     public IndexSearcher getSearcher()
     {
         return this.searcher;
     }
-    
+
+    public IndexSearcher getSearcher( int shard )
+    {
+        return shardSearchers[shard];
+    }
+
+    /**
+     * @return the writer of this index, which must not be sharded.
+     */
     public IndexWriter getWriter()
     {
-        return writer;
+        if ( writers.length != 1 )
+        {
+            throw new IllegalStateException( identifier + " is sharded, use a writer per shard" );
+        }
+        return writers[0];
+    }
+
+    public IndexWriter getWriter( int shard )
+    {
+        return writers[shard];
+    }
+
+    public int numberOfShards()
+    {
+        return writers.length;
+    }
+
+    /**
+     * @return the shard that the document of the entity with the given id lives in.
+     */
+    public int shardFor( long entityId )
+    {
+        return (int) (entityId % writers.length);
     }
 
     public IndexIdentifier getIdentifier()
@@ -76,14 +135,26 @@ class IndexReference
     {
         if ( !searcherIsClosed )
         {
-            searcher.close();
-            searcher.getIndexReader().close();
+            if ( shardSearchers.length > 1 )
+            {
+                // Releases the references the combined reader holds on the shard readers
+                searcher.close();
+                searcher.getIndexReader().close();
+            }
+            for ( IndexSearcher shardSearcher : shardSearchers )
+            {
+                shardSearcher.close();
+                shardSearcher.getIndexReader().decRef();
+            }
             searcherIsClosed = true;
         }
         
         if ( writerAlso && !writerIsClosed )
         {
-            writer.close();
+            for ( IndexWriter writer : writers )
+            {
+                writer.close();
+            }
             writerIsClosed = true;
         }
     }
@@ -128,13 +199,21 @@ class IndexReference
         return searcherIsClosed;
     }
 
-    /*synchronized externally*/ boolean checkAndClearStale()
+    /*synchronized externally*/ boolean checkAndClearStale( int shard )
     {
-        return stale.compareAndSet( true, false );
+        return stale[shard].compareAndSet( true, false );
     }
 
     public synchronized void setStale()
     {
-        stale.set( true );
+        for ( AtomicBoolean shardIsStale : stale )
+        {
+            shardIsStale.set( true );
+        }
+    }
+
+    public synchronized void setStale( int shard )
+    {
+        stale[shard].set( true );
     }
 }
@@ -122,6 +122,7 @@ public class LuceneBatchInserterIndexProviderNewImpl implements BatchInserterInd
         // TODO Doesn't look right
         if ( config != null )
         {
+            assertNotSharded( indexName, config );
             config = MapUtil.stringMap( new HashMap<String, String>( config ),
                     IndexManager.PROVIDER, LuceneIndexImplementation.SERVICE_NAME );
             indexStore.setIfNecessary( cls, indexName, config );
@@ -129,7 +130,21 @@ public class LuceneBatchInserterIndexProviderNewImpl implements BatchInserterInd
         }
         else
         {
-            return indexStore.get( cls, indexName );
+            config = indexStore.get( cls, indexName );
+            if ( config != null )
+            {
+                assertNotSharded( indexName, config );
+            }
+            return config;
+        }
+    }
+
+    private void assertNotSharded( String indexName, Map<String, String> config )
+    {
+        if ( LuceneIndexImplementation.numberOfShards( config ) != 1 )
+        {
+            throw new IllegalArgumentException( "The batch inserter can not write to sharded index '" +
+                    indexName + "'" );
         }
     }
 
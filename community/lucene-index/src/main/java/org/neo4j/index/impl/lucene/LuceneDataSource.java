@@ -35,6 +35,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import javax.transaction.TransactionManager;
 
@@ -47,10 +52,12 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.Field.Store;
 import org.apache.lucene.document.Fieldable;
+import org.apache.lucene.index.ConcurrentMergeScheduler;
 import org.apache.lucene.index.IndexCommit;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.MultiReader;
 import org.apache.lucene.index.SnapshotDeletionPolicy;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
@@ -76,6 +83,7 @@ import org.neo4j.graphdb.index.Index;
 import org.neo4j.graphdb.index.IndexManager;
 import org.neo4j.graphdb.index.RelationshipIndex;
 import org.neo4j.helpers.Function;
+import org.neo4j.helpers.NamedThreadFactory;
 import org.neo4j.helpers.UTF8;
 import org.neo4j.helpers.collection.IteratorUtil;
 import org.neo4j.helpers.collection.PrefetchingResourceIterator;
@@ -121,6 +129,8 @@ public class LuceneDataSource extends LogBackedXaDataSource
     {
         public static final Setting<Integer> lucene_searcher_cache_size = GraphDatabaseSettings
                 .lucene_searcher_cache_size;
+        public static final Setting<Integer> lucene_tx_state_spill_threshold = GraphDatabaseSettings
+                .lucene_tx_state_spill_threshold;
 
         public static final Setting<Boolean> read_only = GraphDatabaseSettings.read_only;
         public static final Setting<Boolean> allow_store_upgrade = GraphDatabaseSettings.allow_store_upgrade;
@@ -137,6 +147,8 @@ public class LuceneDataSource extends LogBackedXaDataSource
     // (both forwards and backwards) with lucene 3.5 and changing this would require an explicit
     // store upgrade which feels unnecessary.
     public static final long INDEX_VERSION = versionStringToLong( "3.5" );
+    private static final int INDEX_LOCK_STRIPES = 64;
+    private static final long SHARD_SEARCH_SHUTDOWN_SECONDS = 10;
 
     /**
      * Default {@link Analyzer} for fulltext parsing.
@@ -176,7 +188,7 @@ public class LuceneDataSource extends LogBackedXaDataSource
     private IndexClockCache indexSearchers;
     private XaContainer xaContainer;
     private File baseStorePath;
-    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantReadWriteLock[] indexLocks = new ReentrantReadWriteLock[INDEX_LOCK_STRIPES];
     final IndexStore indexStore;
     private final XaFactory xaFactory;
     private final TransactionManager txManager;
@@ -189,6 +201,9 @@ public class LuceneDataSource extends LogBackedXaDataSource
     final Map<IndexIdentifier, LuceneIndex<? extends PropertyContainer>> indexes =
             new HashMap<IndexIdentifier, LuceneIndex<? extends PropertyContainer>>();
     private LuceneFilesystemFacade filesystemFacade;
+    private ExecutorService shardSearchExecutor;
+    private int txStateSpillThreshold;
+    private final AtomicLong txStateDirectoryCounter = new AtomicLong();
 
     // Used for assertion after recovery has been completed.
     private final Set<IndexIdentifier> expectedFutureRecoveryDeletions = new HashSet<IndexIdentifier>();
@@ -202,6 +217,10 @@ public class LuceneDataSource extends LogBackedXaDataSource
                              XaFactory xaFactory, TransactionManager txManager )
     {
         super( DEFAULT_BRANCH_ID, DEFAULT_NAME );
+        for ( int stripe = 0; stripe < INDEX_LOCK_STRIPES; stripe++ )
+        {
+            indexLocks[stripe] = new ReentrantReadWriteLock();
+        }
         this.config = config;
         this.indexStore = indexStore;
         this.xaFactory = xaFactory;
@@ -221,11 +240,15 @@ public class LuceneDataSource extends LogBackedXaDataSource
         this.filesystemFacade = config.get( Configuration.ephemeral ) ? LuceneFilesystemFacade.MEMORY :
                 LuceneFilesystemFacade.FS;
         indexSearchers = new IndexClockCache( config.get( Configuration.lucene_searcher_cache_size ) );
+        shardSearchExecutor = newShardSearchExecutor();
+        txStateSpillThreshold = config.get( Configuration.lucene_tx_state_spill_threshold );
         caching = new Cache();
         File storeDir = config.get( Configuration.store_dir );
         this.baseStorePath =
                 this.filesystemFacade.ensureDirectoryExists( fileSystemAbstraction, baseDirectory( storeDir ) );
         this.filesystemFacade.cleanWriteLocks( baseStorePath );
+        // Transaction state spilled to disk never outlives the transaction, so anything left is from a crash
+        deleteFileOrDirectory( txStateDirectory() );
         boolean allowUpgrade = config.get( Configuration.allow_store_upgrade );
         this.providerStore = newIndexStore( baseStorePath, fileSystemAbstraction, allowUpgrade );
         this.typeCache = new IndexTypeCache( indexStore );
@@ -330,6 +353,12 @@ public class LuceneDataSource extends LogBackedXaDataSource
                 return;
             }
             closed = true;
+        }
+
+        // Shard searches still running use the searchers, so let them finish before closing those
+        awaitShardSearches();
+        synchronized ( this )
+        {
             for ( IndexReference searcher : indexSearchers.values() )
             {
                 searcher.dispose( true );
@@ -449,7 +478,10 @@ public class LuceneDataSource extends LogBackedXaDataSource
             {
                 try
                 {
-                    index.getWriter().commit();
+                    for ( int shard = 0; shard < index.numberOfShards(); shard++ )
+                    {
+                        index.getWriter( shard ).commit();
+                    }
                 }
                 catch ( IOException e )
                 {
@@ -502,24 +534,61 @@ public class LuceneDataSource extends LogBackedXaDataSource
         return indexReferences.toArray( new IndexReference[indexReferences.size()] );
     }
 
-    void getReadLock()
+    private static int lockStripe( IndexIdentifier identifier )
     {
-        lock.readLock().lock();
+        return identifier.hashCode() & (INDEX_LOCK_STRIPES - 1);
     }
 
-    void releaseReadLock()
+    void getReadLock( IndexIdentifier identifier )
     {
-        lock.readLock().unlock();
+        indexLocks[lockStripe( identifier )].readLock().lock();
     }
 
-    void getWriteLock()
+    void releaseReadLock( IndexIdentifier identifier )
     {
-        lock.writeLock().lock();
+        indexLocks[lockStripe( identifier )].readLock().unlock();
     }
 
-    void releaseWriteLock()
+    /**
+     * Locks the given indexes for writing, so that no searcher of any of them is handed out while a transaction
+     * is only partly applied to it. Searchers of other indexes stay available. The locks are taken in a fixed
+     * order, so that two committers can never wait for each other.
+     *
+     * @return the locks taken, to be given back to {@link #releaseWriteLocks(int[])}.
+     */
+    int[] getWriteLocks( Collection<IndexIdentifier> identifiers )
     {
-        lock.writeLock().unlock();
+        boolean[] stripes = new boolean[INDEX_LOCK_STRIPES];
+        int count = 0;
+        for ( IndexIdentifier identifier : identifiers )
+        {
+            int stripe = lockStripe( identifier );
+            if ( !stripes[stripe] )
+            {
+                stripes[stripe] = true;
+                count++;
+            }
+        }
+
+        int[] locked = new int[count];
+        int index = 0;
+        for ( int stripe = 0; stripe < INDEX_LOCK_STRIPES; stripe++ )
+        {
+            if ( stripes[stripe] )
+            {
+                indexLocks[stripe].writeLock().lock();
+                locked[index++] = stripe;
+            }
+        }
+        return locked;
+    }
+
+    void releaseWriteLocks( int[] locked )
+    {
+        for ( int i = locked.length - 1; i >= 0; i-- )
+        {
+            indexLocks[locked[i]].writeLock().unlock();
+        }
     }
 
     /**
@@ -529,23 +598,44 @@ public class LuceneDataSource extends LogBackedXaDataSource
      * {@link IndexReader#openIfChanged(IndexReader, IndexWriter, boolean)} which faster than opening an index from
      * scratch.
      *
+     * Only the shards marked as stale are reopened, the readers of the other shards are shared with
+     * the refreshed searcher.
+     *
      * @param searcher the {@link IndexSearcher} to refresh.
+     * @param staleShards which shards of the searcher that have been written to.
      * @return a refreshed version of the searcher or, if nothing has changed,
      *         {@code null}.
      * @throws IOException if there's a problem with the index.
      */
-    private IndexReference refreshSearcher( IndexReference searcher )
+    private IndexReference refreshSearcher( IndexReference searcher, boolean[] staleShards )
     {
         try
         {
-            IndexReader reader = searcher.getSearcher().getIndexReader();
-            IndexWriter writer = searcher.getWriter();
-            IndexReader reopened = IndexReader.openIfChanged( reader, writer, true );
-            if ( reopened != null )
+            int shards = searcher.numberOfShards();
+            IndexReader[] readers = new IndexReader[shards];
+            IndexWriter[] writers = new IndexWriter[shards];
+            boolean changed = false;
+            for ( int shard = 0; shard < shards; shard++ )
+            {
+                IndexReader reader = searcher.getSearcher( shard ).getIndexReader();
+                writers[shard] = searcher.getWriter( shard );
+                IndexReader reopened = staleShards[shard] ?
+                        IndexReader.openIfChanged( reader, writers[shard], true ) : null;
+                readers[shard] = reopened != null ? reopened : reader;
+                changed |= reopened != null;
+            }
+            if ( changed )
             {
-                IndexSearcher newSearcher = newIndexSearcher( searcher.getIdentifier(), reopened );
+                for ( int shard = 0; shard < shards; shard++ )
+                {
+                    if ( readers[shard] == searcher.getSearcher( shard ).getIndexReader() )
+                    {
+                        readers[shard].incRef();
+                    }
+                }
+                IndexReference refreshed = newIndexReference( searcher.getIdentifier(), readers, writers );
                 searcher.detachOrClose();
-                return new IndexReference( searcher.getIdentifier(), newSearcher, writer );
+                return refreshed;
             }
             return searcher;
         }
@@ -580,6 +670,16 @@ public class LuceneDataSource extends LogBackedXaDataSource
                 identifier.indexName );
     }
 
+    /**
+     * An index with a single shard keeps its files directly in the index directory, whereas each shard
+     * of a sharded index gets a directory of its own in there.
+     */
+    static File getFileDirectory( File storeDir, IndexIdentifier identifier, int shard, int numberOfShards )
+    {
+        File indexDirectory = getFileDirectory( storeDir, identifier );
+        return numberOfShards == 1 ? indexDirectory : new File( indexDirectory, "shard-" + shard );
+    }
+
     static Directory getDirectory( File storeDir,
                                    IndexIdentifier identifier ) throws IOException
     {
@@ -633,10 +733,15 @@ public class LuceneDataSource extends LogBackedXaDataSource
             IndexReference searcher = indexSearchers.get( identifier );
             if ( searcher == null )
             {
-                IndexWriter writer = newIndexWriter( identifier );
-                IndexReader reader = IndexReader.open( writer, true );
-                IndexSearcher indexSearcher = newIndexSearcher( identifier, reader );
-                searcher = new IndexReference( identifier, indexSearcher, writer );
+                int shards = numberOfShards( identifier );
+                IndexWriter[] writers = new IndexWriter[shards];
+                IndexReader[] readers = new IndexReader[shards];
+                for ( int shard = 0; shard < shards; shard++ )
+                {
+                    writers[shard] = newIndexWriter( identifier, shard, shards );
+                    readers[shard] = IndexReader.open( writers[shard], true );
+                }
+                searcher = newIndexReference( identifier, readers, writers );
                 indexSearchers.put( identifier, searcher );
             }
             else
@@ -655,6 +760,56 @@ public class LuceneDataSource extends LogBackedXaDataSource
         }
     }
 
+    private int numberOfShards( IndexIdentifier identifier )
+    {
+        Map<String, String> config = indexStore.get( identifier.entityType.getType(), identifier.indexName );
+        return config != null ? LuceneIndexImplementation.numberOfShards( config ) : 1;
+    }
+
+    private IndexReference newIndexReference( IndexIdentifier identifier, IndexReader[] readers,
+            IndexWriter[] writers )
+    {
+        IndexSearcher[] shardSearchers = new IndexSearcher[readers.length];
+        for ( int shard = 0; shard < readers.length; shard++ )
+        {
+            shardSearchers[shard] = newIndexSearcher( identifier, readers[shard] );
+        }
+        IndexSearcher searcher = readers.length == 1 ? shardSearchers[0] :
+                newIndexSearcher( identifier, new MultiReader( readers, false ) );
+        return new IndexReference( identifier, shardSearchers, searcher, writers );
+    }
+
+    private static ExecutorService newShardSearchExecutor()
+    {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor( threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory( "Lucene shard searcher" ) );
+        executor.allowCoreThreadTimeOut( true );
+        return executor;
+    }
+
+    private void awaitShardSearches()
+    {
+        shardSearchExecutor.shutdown();
+        try
+        {
+            if ( !shardSearchExecutor.awaitTermination( SHARD_SEARCH_SHUTDOWN_SECONDS, TimeUnit.SECONDS ) )
+            {
+                shardSearchExecutor.shutdownNow();
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            shardSearchExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    ExecutorService shardSearchExecutor()
+    {
+        return shardSearchExecutor;
+    }
+
     private IndexSearcher newIndexSearcher( IndexIdentifier identifier, IndexReader reader )
     {
         IndexSearcher searcher = new IndexSearcher( reader );
@@ -668,9 +823,16 @@ public class LuceneDataSource extends LogBackedXaDataSource
 
     private IndexReference refreshSearcherIfNeeded( IndexReference searcher )
     {
-        if ( searcher.checkAndClearStale() )
+        boolean[] staleShards = new boolean[searcher.numberOfShards()];
+        boolean stale = false;
+        for ( int shard = 0; shard < staleShards.length; shard++ )
+        {
+            staleShards[shard] = searcher.checkAndClearStale( shard );
+            stale |= staleShards[shard];
+        }
+        if ( stale )
         {
-            searcher = refreshSearcher( searcher );
+            searcher = refreshSearcher( searcher, staleShards );
             if ( searcher != null )
             {
                 indexSearchers.put( searcher.getIdentifier(), searcher );
@@ -693,6 +855,15 @@ public class LuceneDataSource extends LogBackedXaDataSource
         }
     }
 
+    void invalidateIndexSearcher( IndexIdentifier identifier, int shard )
+    {
+        IndexReference searcher = indexSearchers.get( identifier );
+        if ( searcher != null )
+        {
+            searcher.setStale( shard );
+        }
+    }
+
     void deleteIndex( IndexIdentifier identifier, boolean recovery )
     {
         closeIndex( identifier );
@@ -715,6 +886,47 @@ public class LuceneDataSource extends LogBackedXaDataSource
         }
     }
 
+    int txStateSpillThreshold()
+    {
+        return txStateSpillThreshold;
+    }
+
+    private File txStateDirectory()
+    {
+        return new File( new File( baseStorePath, "lucene" ), "tx-state" );
+    }
+
+    /**
+     * @return a new, empty, {@link Directory} for a transaction to keep its uncommitted changes
+     * to a legacy index in, once they have grown past {@link #txStateSpillThreshold()}. It must be
+     * given back to {@link #deleteTxStateDirectory(Directory)} when the transaction is done with it.
+     */
+    Directory newTxStateDirectory() throws IOException
+    {
+        File directory = new File( txStateDirectory(), String.valueOf( txStateDirectoryCounter.incrementAndGet() ) );
+        return filesystemFacade.getDirectory( directory );
+    }
+
+    void deleteTxStateDirectory( Directory directory )
+    {
+        File path = directory instanceof FSDirectory ? ((FSDirectory) directory).getDirectory() : null;
+        try
+        {
+            directory.close();
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+        finally
+        {
+            if ( path != null )
+            {
+                deleteFileOrDirectory( path );
+            }
+        }
+    }
+
     private static void deleteFileOrDirectory( File file )
     {
         if ( file.exists() )
@@ -730,13 +942,14 @@ public class LuceneDataSource extends LogBackedXaDataSource
         }
     }
 
-    private /*synchronized elsewhere*/ IndexWriter newIndexWriter( IndexIdentifier identifier )
+    private /*synchronized elsewhere*/ IndexWriter newIndexWriter( IndexIdentifier identifier, int shard,
+            int numberOfShards )
     {
         assertNotClosed();
         try
         {
-            Directory dir = filesystemFacade.getDirectory( baseStorePath, identifier ); //getDirectory(
-            // baseStorePath, identifier );
+            Directory dir = filesystemFacade.getDirectory(
+                    getFileDirectory( baseStorePath, identifier, shard, numberOfShards ) );
             directoryExists( dir );
             IndexType type = getType( identifier, false );
             IndexWriterConfig writerConfig = new IndexWriterConfig( LUCENE_VERSION, type.analyzer );
@@ -746,6 +959,14 @@ public class LuceneDataSource extends LogBackedXaDataSource
             {
                 writerConfig.setSimilarity( similarity );
             }
+            if ( numberOfShards > 1 )
+            {
+                // Merges of the shards run in the background, one at a time per shard, rather than
+                // letting every shard claim the default number of merge threads
+                ConcurrentMergeScheduler mergeScheduler = new ConcurrentMergeScheduler();
+                mergeScheduler.setMaxThreadCount( 1 );
+                writerConfig.setMergeScheduler( mergeScheduler );
+            }
             IndexWriter indexWriter = new IndexWriter( dir, writerConfig );
 
             // TODO We should tamper with this value and see how it affects the
@@ -909,27 +1130,31 @@ public class LuceneDataSource extends LogBackedXaDataSource
         makeSureAllIndexesAreInstantiated();
         for ( IndexReference writer : getAllIndexes() )
         {
-            SnapshotDeletionPolicy deletionPolicy = (SnapshotDeletionPolicy)
-                    writer.getWriter().getConfig().getIndexDeletionPolicy();
-            File indexDirectory = getFileDirectory( baseStorePath, writer.getIdentifier() );
-            try
+            int shards = writer.numberOfShards();
+            for ( int shard = 0; shard < shards; shard++ )
             {
-                // Throws IllegalStateException if no commits yet
-                IndexCommit commit = deletionPolicy.snapshot( SNAPSHOT_ID );
-                for ( String fileName : commit.getFileNames() )
+                SnapshotDeletionPolicy deletionPolicy = (SnapshotDeletionPolicy)
+                        writer.getWriter( shard ).getConfig().getIndexDeletionPolicy();
+                File indexDirectory = getFileDirectory( baseStorePath, writer.getIdentifier(), shard, shards );
+                try
                 {
-                    files.add( new File( indexDirectory, fileName ) );
+                    // Throws IllegalStateException if no commits yet
+                    IndexCommit commit = deletionPolicy.snapshot( SNAPSHOT_ID );
+                    for ( String fileName : commit.getFileNames() )
+                    {
+                        files.add( new File( indexDirectory, fileName ) );
+                    }
+                    snapshots.add( deletionPolicy );
+                }
+                catch ( IllegalStateException e )
+                {
+                    // TODO Review this
+                    /*
+                     * This is insane but happens if we try to snapshot an existing index
+                     * that has no commits. This is a bad API design - it should return null
+                     * or something. This is not exceptional.
+                     */
                 }
-                snapshots.add( deletionPolicy );
-            }
-            catch ( IllegalStateException e )
-            {
-                // TODO Review this
-                /*
-                 * This is insane but happens if we try to snapshot an existing index
-                 * that has no commits. This is a bad API design - it should return null
-                 * or something. This is not exceptional.
-                 */
             }
         }
         files.add( providerStore.getFile() );
@@ -1015,9 +1240,9 @@ public class LuceneDataSource extends LogBackedXaDataSource
         FS
                 {
                     @Override
-                    Directory getDirectory( File baseStorePath, IndexIdentifier identifier ) throws IOException
+                    Directory getDirectory( File directory ) throws IOException
                     {
-                        return FSDirectory.open( getFileDirectory( baseStorePath, identifier ) );
+                        return FSDirectory.open( directory );
                     }
 
                     @Override
@@ -1057,7 +1282,7 @@ public class LuceneDataSource extends LogBackedXaDataSource
         MEMORY
                 {
                     @Override
-                    Directory getDirectory( File baseStorePath, IndexIdentifier identifier )
+                    Directory getDirectory( File directory )
                     {
                         return new RAMDirectory();
                     }
@@ -1082,7 +1307,7 @@ public class LuceneDataSource extends LogBackedXaDataSource
                     }
                 };
 
-        abstract Directory getDirectory( File baseStorePath, IndexIdentifier identifier ) throws IOException;
+        abstract Directory getDirectory( File directory ) throws IOException;
 
         abstract File ensureDirectoryExists( FileSystemAbstraction fileSystem, File path );
 
@@ -27,7 +27,10 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import javax.transaction.SystemException;
 import javax.transaction.TransactionManager;
@@ -287,14 +290,14 @@ public abstract class LuceneIndex<T extends PropertyContainer> implements Index<
         }
         IndexHits<Long> idIterator = null;
         IndexReference searcher = null;
-        service.dataSource().getReadLock();
+        service.dataSource().getReadLock( identifier );
         try
         {
             searcher = service.dataSource().getIndexSearcher( identifier );
         }
         finally
         {
-            service.dataSource().releaseReadLock();
+            service.dataSource().releaseReadLock( identifier );
         }
 
         if ( searcher != null )
@@ -410,13 +413,11 @@ public abstract class LuceneIndex<T extends PropertyContainer> implements Index<
                 letThroughAdditions( additionsSearcher, query, removed );
             }
 
-            IndexSearcher searcher = additionsSearcher == null ? searcherRef.getSearcher() :
-                    new IndexSearcher( new MultiReader( searcherRef.getSearcher().getIndexReader(),
-                            additionsSearcher.getIndexReader() ) );
             IndexHits<Document> result = null;
             if ( additionalParametersOrNull != null && additionalParametersOrNull.getTop() > 0 )
             {
-                result = new TopDocsIterator( query, additionalParametersOrNull, searcher );
+                result = new TopDocsIterator( query, additionalParametersOrNull,
+                        searcher( searcherRef, additionsSearcher ) );
             }
             else
             {
@@ -424,8 +425,16 @@ public abstract class LuceneIndex<T extends PropertyContainer> implements Index<
                         additionalParametersOrNull.getSorting() : null;
                 boolean forceScore = additionalParametersOrNull == null ||
                         !additionalParametersOrNull.getTradeCorrectnessForSpeed();
-                Hits hits = new Hits( searcher, query, null, sorting, forceScore );
-                result = new HitsIterator( hits );
+                if ( sorting == null && searcherRef.numberOfShards() > 1 )
+                {
+                    result = searchShards( searcherRef, query, additionsSearcher, forceScore );
+                }
+                else
+                {
+                    Hits hits = new Hits( searcher( searcherRef, additionsSearcher ), query, null, sorting,
+                            forceScore );
+                    result = new HitsIterator( hits );
+                }
             }
             return result;
         }
@@ -436,6 +445,69 @@ public abstract class LuceneIndex<T extends PropertyContainer> implements Index<
         }
     }
 
+    private IndexSearcher searcher( IndexReference searcherRef, IndexSearcher additionsSearcher )
+    {
+        return additionsSearcher == null ? searcherRef.getSearcher() :
+                new IndexSearcher( new MultiReader( searcherRef.getSearcher().getIndexReader(),
+                        additionsSearcher.getIndexReader() ) );
+    }
+
+    /**
+     * Queries the shards of a sharded index, and the additions of the transaction if there are any, in parallel.
+     * Hits come shard by shard, each shard scored on its own. Sorted and top hits queries don't come here but
+     * go through a searcher over all shards, since they need one order across all of them.
+     */
+    private IndexHits<Document> searchShards( IndexReference searcherRef, Query query,
+            IndexSearcher additionsSearcher, boolean forceScore ) throws IOException
+    {
+        List<Callable<IndexHits<Document>>> searches = new ArrayList<Callable<IndexHits<Document>>>();
+        for ( int shard = 0; shard < searcherRef.numberOfShards(); shard++ )
+        {
+            searches.add( searchShard( searcherRef.getSearcher( shard ), query, forceScore ) );
+        }
+        if ( additionsSearcher != null )
+        {
+            searches.add( searchShard( additionsSearcher, query, forceScore ) );
+        }
+
+        Collection<IndexHits<Document>> hits = new ArrayList<IndexHits<Document>>();
+        try
+        {
+            for ( Future<IndexHits<Document>> search :
+                    service.dataSource().shardSearchExecutor().invokeAll( searches ) )
+            {
+                hits.add( search.get() );
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( "Interrupted while querying " + this + " with " + query, e );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof IOException )
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new RuntimeException( "Unable to query " + this + " with " + query, e.getCause() );
+        }
+        return new CombinedIndexHits<Document>( hits );
+    }
+
+    private static Callable<IndexHits<Document>> searchShard( final IndexSearcher searcher, final Query query,
+            final boolean forceScore )
+    {
+        return new Callable<IndexHits<Document>>()
+        {
+            @Override
+            public IndexHits<Document> call() throws IOException
+            {
+                return new HitsIterator( new Hits( searcher, query, null, null, forceScore ) );
+            }
+        };
+    }
+
     private void letThroughAdditions( IndexSearcher additionsSearcher, Query query, Collection<Long> removed )
             throws IOException
     {
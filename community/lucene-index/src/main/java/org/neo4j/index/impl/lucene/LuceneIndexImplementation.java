@@ -37,6 +37,12 @@ public class LuceneIndexImplementation implements IndexImplementation
     static final String KEY_ANALYZER = "analyzer";
     static final String KEY_TO_LOWER_CASE = "to_lower_case";
     static final String KEY_SIMILARITY = "similarity";
+    /**
+     * The number of Lucene directories to spread the documents of an index over, by entity id. Each shard has
+     * its own writer and searcher, so that committing to and refreshing one shard doesn't hold up the others.
+     * Must be given when the index is created, and defaults to one.
+     */
+    static final String KEY_SHARDS = "shards";
     public static final String SERVICE_NAME = "lucene";
 
     public static final Map<String, String> EXACT_CONFIG =
@@ -109,16 +115,40 @@ public class LuceneIndexImplementation implements IndexImplementation
                 result.put( KEY_TO_LOWER_CASE, "true" );
             }
         }
+        numberOfShards( result );
         return result;
     }
 
+    static int numberOfShards( Map<String, String> config )
+    {
+        String shards = config.get( KEY_SHARDS );
+        if ( shards == null )
+        {
+            return 1;
+        }
+        try
+        {
+            int result = Integer.parseInt( shards );
+            if ( result >= 1 )
+            {
+                return result;
+            }
+        }
+        catch ( NumberFormatException e )
+        {   // Reported below
+        }
+        throw new IllegalArgumentException( "'" + KEY_SHARDS + "' should be a positive number, but was '" +
+                shards + "'" );
+    }
+
     @Override
     public boolean configMatches( Map<String, String> storedConfig, Map<String, String> config )
     {
         return  match( storedConfig, config, KEY_TYPE, null ) &&
                 match( storedConfig, config, KEY_TO_LOWER_CASE, "true" ) &&
                 match( storedConfig, config, KEY_ANALYZER, null ) &&
-                match( storedConfig, config, KEY_SIMILARITY, null );
+                match( storedConfig, config, KEY_SIMILARITY, null ) &&
+                match( storedConfig, config, KEY_SHARDS, "1" );
     }
 
     private boolean match( Map<String, String> storedConfig, Map<String, String> config,
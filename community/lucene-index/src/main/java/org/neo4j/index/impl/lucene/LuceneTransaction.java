@@ -249,7 +249,9 @@ class LuceneTransaction extends XaTransaction
     @Override
     protected void doCommit()
     {
-        dataSource.getWriteLock();
+        // Commits of this data source are already applied one at a time, in tx id order, by its resource manager.
+        // These locks only keep searchers of the indexes being written from being handed out mid-commit.
+        int[] locks = dataSource.getWriteLocks( commandMap.keySet() );
         try
         {
             for ( Map.Entry<IndexIdentifier, CommandList> entry :
@@ -292,10 +294,9 @@ class LuceneTransaction extends XaTransaction
                         command.perform( context );
                     }
 
-                    applyDocuments( context.writer, type, context.documents );
-                    if ( context.writer != null )
+                    if ( context.searcher != null )
                     {
-                        dataSource.invalidateIndexSearcher( identifier );
+                        applyDocuments( context.searcher, type, context.documents );
                     }
                 }
                 finally
@@ -316,16 +317,20 @@ class LuceneTransaction extends XaTransaction
         }
         finally
         {
-            dataSource.releaseWriteLock();
+            dataSource.releaseWriteLocks( locks );
         }
     }
 
-    private void applyDocuments( IndexWriter writer, IndexType type,
+    private void applyDocuments( IndexReference index, IndexType type,
             Map<Long, DocumentContext> documents ) throws IOException
     {
+        boolean[] writtenShards = new boolean[index.numberOfShards()];
         for ( Map.Entry<Long, DocumentContext> entry : documents.entrySet() )
         {
             DocumentContext context = entry.getValue();
+            int shard = index.shardFor( context.entityId );
+            IndexWriter writer = index.getWriter( shard );
+            writtenShards[shard] = true;
             if ( context.exists )
             {
                 if ( LuceneDataSource.documentIsEmpty( context.document ) )
@@ -342,6 +347,13 @@ class LuceneTransaction extends XaTransaction
                 writer.addDocument( context.document );
             }
         }
+        for ( int shard = 0; shard < writtenShards.length; shard++ )
+        {
+            if ( writtenShards[shard] )
+            {
+                dataSource.invalidateIndexSearcher( index.getIdentifier(), shard );
+            }
+        }
     }
 
     private void closeTxData()
@@ -36,6 +36,10 @@ public interface LabelScanStorageStrategy
 {
     PrimitiveLongIterator nodesWithLabel( IndexSearcher searcher, int labelId );
 
+    PrimitiveLongIterator nodesWithAllLabels( IndexSearcher searcher, int... labelIds );
+
+    PrimitiveLongIterator nodesWithAnyLabel( IndexSearcher searcher, int... labelIds );
+
     AllEntriesLabelScanReader newNodeLabelReader( SearcherManager searcher );
 
     Iterator<Long> labelsForNode( IndexSearcher searcher, long nodeId );
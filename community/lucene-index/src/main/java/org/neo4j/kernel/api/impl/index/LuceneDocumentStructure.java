@@ -24,11 +24,15 @@ import org.apache.lucene.document.Field;
 import org.apache.lucene.document.Fieldable;
 import org.apache.lucene.index.FieldInfo.IndexOptions;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.search.NumericRangeQuery;
+import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TermRangeQuery;
 import org.apache.lucene.util.NumericUtils;
 
 import org.neo4j.kernel.api.index.ArrayEncoder;
+import org.neo4j.kernel.api.index.CompositeValue;
 
 import static java.lang.String.format;
 
@@ -39,6 +43,7 @@ import static org.apache.lucene.document.Field.Store.YES;
 public class LuceneDocumentStructure
 {
     static final String NODE_ID_KEY = "id";
+    private static final int FULL_PRECISION_STEP = 64;
 
     Document newDocument( long nodeId )
     {
@@ -49,32 +54,55 @@ public class LuceneDocumentStructure
 
     enum ValueEncoding
     {
-        Number
+        /**
+         * Each value of a composite is encoded with its own encoding and prefixed by that encoding and the length
+         * of the encoded value, so that a prefix of the encoded string selects the nodes with the same leading
+         * values.
+         */
+        Composite
         {
             @Override
             String key()
             {
-                return "number";
+                return "composite";
             }
 
             @Override
             boolean canEncode( Object value )
             {
-                return value instanceof Number;
+                return value instanceof CompositeValue;
+            }
+
+            @Override
+            String encode( Object value )
+            {
+                CompositeValue composite = (CompositeValue) value;
+                Object[] values = new Object[composite.size()];
+                for ( int i = 0; i < values.length; i++ )
+                {
+                    values[i] = composite.value( i );
+                }
+                return encodeParts( values );
+            }
+        },
+        Number
+        {
+            @Override
+            String key()
+            {
+                return "number";
             }
 
             @Override
-            Fieldable encodeField( Object value )
+            boolean canEncode( Object value )
             {
-                String encodedString = NumericUtils.doubleToPrefixCoded( ((Number)value).doubleValue() );
-                return field( key(), encodedString );
+                return value instanceof Number;
             }
 
             @Override
-            Query encodeQuery( Object value )
+            String encode( Object value )
             {
-                String encodedString = NumericUtils.doubleToPrefixCoded( ((Number)value).doubleValue() );
-                return new TermQuery( new Term( key(), encodedString ) );
+                return NumericUtils.doubleToPrefixCoded( ((Number)value).doubleValue() );
             }
         },
         Array
@@ -92,15 +120,9 @@ public class LuceneDocumentStructure
             }
 
             @Override
-            Fieldable encodeField( Object value )
+            String encode( Object value )
             {
-                return field( key(), ArrayEncoder.encode( value ) );
-            }
-
-            @Override
-            Query encodeQuery( Object value )
-            {
-                return new TermQuery( new Term( key(), ArrayEncoder.encode( value ) ) );
+                return ArrayEncoder.encode( value );
             }
         },
         Bool
@@ -118,15 +140,9 @@ public class LuceneDocumentStructure
             }
 
             @Override
-            Fieldable encodeField( Object value )
-            {
-                return field( key(), value.toString() );
-            }
-
-            @Override
-            Query encodeQuery( Object value )
+            String encode( Object value )
             {
-                return new TermQuery( new Term( key(), value.toString() ) );
+                return value.toString();
             }
         },
         String
@@ -145,23 +161,50 @@ public class LuceneDocumentStructure
             }
 
             @Override
-            Fieldable encodeField( Object value )
+            String encode( Object value )
             {
-                return field( key(), value.toString() );
-            }
-
-            @Override
-            Query encodeQuery( Object value )
-            {
-                return new TermQuery( new Term( key(), value.toString() ) );
+                return value.toString();
             }
         };
 
         abstract String key();
 
         abstract boolean canEncode( Object value );
-        abstract Fieldable encodeField( Object value );
-        abstract Query encodeQuery( Object value );
+        abstract String encode( Object value );
+
+        Fieldable encodeField( Object value )
+        {
+            return field( key(), encode( value ) );
+        }
+
+        Query encodeQuery( Object value )
+        {
+            return new TermQuery( new Term( key(), encode( value ) ) );
+        }
+
+        static String encodeParts( Object[] values )
+        {
+            StringBuilder result = new StringBuilder();
+            for ( Object value : values )
+            {
+                ValueEncoding encoding = forValue( value );
+                String encoded = encoding.encode( value );
+                result.append( encoding.key() ).append( encoded.length() ).append( ':' ).append( encoded );
+            }
+            return result.toString();
+        }
+
+        static ValueEncoding forValue( Object value )
+        {
+            for ( ValueEncoding encoding : values() )
+            {
+                if ( encoding.canEncode( value ) )
+                {
+                    return encoding;
+                }
+            }
+            throw new IllegalArgumentException( format( "Unable to encode %s", value ) );
+        }
     }
 
     public Document newDocumentRepresentingProperty( long nodeId, Object value )
@@ -205,6 +248,85 @@ public class LuceneDocumentStructure
         throw new IllegalArgumentException( format( "Unable to create newQuery for %s", value ) );
     }
 
+    /**
+     * Numbers are indexed as full precision prefix coded doubles only, so the range query is told to not look
+     * for any lower precision terms.
+     */
+    public Query newRangeSeekByNumberQuery( Number lower, boolean includeLower, Number upper, boolean includeUpper )
+    {
+        return NumericRangeQuery.newDoubleRange( ValueEncoding.Number.key(), FULL_PRECISION_STEP,
+                lower == null ? null : lower.doubleValue(), upper == null ? null : upper.doubleValue(),
+                includeLower, includeUpper );
+    }
+
+    public Query newRangeSeekByStringQuery( String lower, boolean includeLower, String upper, boolean includeUpper )
+    {
+        return new TermRangeQuery( ValueEncoding.String.key(), lower, upper, includeLower, includeUpper );
+    }
+
+    public Query newRangeSeekByPrefixQuery( String prefix )
+    {
+        return new PrefixQuery( new Term( ValueEncoding.String.key(), prefix ) );
+    }
+
+    public Query newCompositePrefixQuery( Object... leadingValues )
+    {
+        return new PrefixQuery( new Term( ValueEncoding.Composite.key(),
+                ValueEncoding.encodeParts( leadingValues ) ) );
+    }
+
+    /*
+     * The methods below tell whether an indexed value would be found by the corresponding query above, for
+     * looking at values that aren't in a searcher yet.
+     */
+
+    boolean matches( Object indexedValue, Object value )
+    {
+        ValueEncoding encoding = ValueEncoding.forValue( value );
+        return encoding == ValueEncoding.forValue( indexedValue ) &&
+               encoding.encode( value ).equals( encoding.encode( indexedValue ) );
+    }
+
+    boolean matchesRangeSeekByNumber( Object indexedValue, Number lower, boolean includeLower,
+                                      Number upper, boolean includeUpper )
+    {
+        if ( ValueEncoding.forValue( indexedValue ) != ValueEncoding.Number )
+        {
+            return false;
+        }
+        double number = ((Number) indexedValue).doubleValue();
+        int lowerComparison = lower == null ? 1 : Double.compare( number, lower.doubleValue() );
+        int upperComparison = upper == null ? -1 : Double.compare( number, upper.doubleValue() );
+        return (lowerComparison > 0 || (includeLower && lowerComparison == 0)) &&
+               (upperComparison < 0 || (includeUpper && upperComparison == 0));
+    }
+
+    boolean matchesRangeSeekByString( Object indexedValue, String lower, boolean includeLower,
+                                      String upper, boolean includeUpper )
+    {
+        if ( ValueEncoding.forValue( indexedValue ) != ValueEncoding.String )
+        {
+            return false;
+        }
+        String string = indexedValue.toString();
+        int lowerComparison = lower == null ? 1 : string.compareTo( lower );
+        int upperComparison = upper == null ? -1 : string.compareTo( upper );
+        return (lowerComparison > 0 || (includeLower && lowerComparison == 0)) &&
+               (upperComparison < 0 || (includeUpper && upperComparison == 0));
+    }
+
+    boolean matchesRangeSeekByPrefix( Object indexedValue, String prefix )
+    {
+        return ValueEncoding.forValue( indexedValue ) == ValueEncoding.String &&
+               indexedValue.toString().startsWith( prefix );
+    }
+
+    boolean matchesCompositePrefix( Object indexedValue, Object... leadingValues )
+    {
+        return ValueEncoding.forValue( indexedValue ) == ValueEncoding.Composite &&
+               ValueEncoding.Composite.encode( indexedValue ).startsWith( ValueEncoding.encodeParts( leadingValues ) );
+    }
+
     public Term newQueryForChangeOrRemove( long nodeId )
     {
         return new Term( NODE_ID_KEY, "" + nodeId );
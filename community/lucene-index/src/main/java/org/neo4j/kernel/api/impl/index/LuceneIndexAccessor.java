@@ -21,6 +21,7 @@ package org.neo4j.kernel.api.impl.index;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
 
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.SearcherManager;
@@ -52,10 +53,14 @@ abstract class LuceneIndexAccessor implements IndexAccessor
     private final IndexWriterStatus writerStatus;
     private final Directory dir;
     private final File dirFile;
+    private final RecentIndexUpdates recentUpdates = new RecentIndexUpdates();
+    private final SearcherRefresher refresher;
+    private boolean closed;
 
     LuceneIndexAccessor( LuceneDocumentStructure documentStructure,
                          IndexWriterFactory<ReservingLuceneIndexWriter> indexWriterFactory,
-                         IndexWriterStatus writerStatus, DirectoryFactory dirFactory, File dirFile )
+                         IndexWriterStatus writerStatus, DirectoryFactory dirFactory, File dirFile,
+                         SearcherRefresher refresher )
             throws IOException
     {
         this.documentStructure = documentStructure;
@@ -64,6 +69,8 @@ abstract class LuceneIndexAccessor implements IndexAccessor
         this.writer = indexWriterFactory.create( dir );
         this.writerStatus = writerStatus;
         this.searcherManager = writer.createSearcherManager();
+        this.refresher = refresher;
+        refresher.register( this );
     }
 
     @Override
@@ -93,6 +100,7 @@ abstract class LuceneIndexAccessor implements IndexAccessor
     public void force() throws IOException
     {
         writerStatus.commitAsOnline( writer );
+        refresh();
     }
 
     @Override
@@ -102,8 +110,10 @@ abstract class LuceneIndexAccessor implements IndexAccessor
         dir.close();
     }
 
-    private void closeIndexResources() throws IOException
+    private synchronized void closeIndexResources() throws IOException
     {
+        refresher.unregister( this );
+        closed = true;
         writerStatus.close( writer );
         searcherManager.close();
     }
@@ -111,12 +121,22 @@ abstract class LuceneIndexAccessor implements IndexAccessor
     @Override
     public IndexReader newReader()
     {
-        return new LuceneIndexAccessorReader( searcherManager, documentStructure );
+        // The recent updates must be looked at before the searcher is acquired, see RecentIndexUpdates
+        Map<Long, Object> recent = recentUpdates.snapshot();
+        return new LuceneIndexAccessorReader( searcherManager, documentStructure, recent );
     }
 
     @Override
     public BoundedIterable<Long> newAllEntriesReader()
     {
+        try
+        {
+            refresh();
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
         return new LuceneAllEntriesIndexAccessorReader( new LuceneAllDocumentsReader( searcherManager ), documentStructure );
     }
 
@@ -134,8 +154,7 @@ abstract class LuceneIndexAccessor implements IndexAccessor
             TopDocs hits = searcher.search( new TermQuery( documentStructure.newQueryForChangeOrRemove( nodeId ) ), 1 );
             if ( hits.totalHits > 0 )
             {
-                writer.updateDocument( documentStructure.newQueryForChangeOrRemove( nodeId ),
-                        documentStructure.newDocumentRepresentingProperty( nodeId, value ) );
+                change( nodeId, value );
             }
             else
             {
@@ -151,24 +170,42 @@ abstract class LuceneIndexAccessor implements IndexAccessor
     protected void add( long nodeId, Object value ) throws IOException, IndexCapacityExceededException
     {
         writer.addDocument( documentStructure.newDocumentRepresentingProperty( nodeId, value ) );
+        recentUpdates.added( nodeId, value, System.nanoTime() );
     }
 
     protected void change( long nodeId, Object valueAfter ) throws IOException, IndexCapacityExceededException
     {
         writer.updateDocument( documentStructure.newQueryForChangeOrRemove( nodeId ),
                 documentStructure.newDocumentRepresentingProperty( nodeId, valueAfter ) );
+        recentUpdates.added( nodeId, valueAfter, System.nanoTime() );
     }
 
     protected void remove( long nodeId ) throws IOException
     {
         writer.deleteDocuments( documentStructure.newQueryForChangeOrRemove( nodeId ) );
+        recentUpdates.removed( nodeId, System.nanoTime() );
+    }
+
+    int pendingUpdates()
+    {
+        return recentUpdates.size();
     }
 
-    // This method should be synchronized because we need every thread to perform actual refresh
-    // and not just skip it because some other refresh is in progress
-    private synchronized void refreshSearcherManager() throws IOException
+    /**
+     * Reopens the searcher so that it sees all updates applied so far, and forgets about them.
+     *
+     * This method should be synchronized because we need every thread to perform actual refresh
+     * and not just skip it because some other refresh is in progress.
+     */
+    synchronized void refresh() throws IOException
     {
+        if ( closed )
+        {
+            return;
+        }
+        long mark = recentUpdates.mark();
         searcherManager.maybeRefresh();
+        recentUpdates.prune( mark, System.nanoTime(), refresher.monitor() );
     }
 
     private class LuceneIndexUpdater implements IndexUpdater
@@ -245,7 +282,14 @@ abstract class LuceneIndexAccessor implements IndexAccessor
         @Override
         public synchronized void close() throws IOException, IndexEntryConflictException
         {
-            refreshSearcherManager();
+            if ( inRecovery )
+            {   // Recovery looks at the searcher to see if a node is already indexed
+                refresh();
+            }
+            else
+            {
+                refresher.updatesApplied( LuceneIndexAccessor.this );
+            }
         }
 
         @Override
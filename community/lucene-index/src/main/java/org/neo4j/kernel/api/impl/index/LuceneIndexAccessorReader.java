@@ -20,6 +20,9 @@
 package org.neo4j.kernel.api.impl.index;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
 
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
@@ -28,40 +31,164 @@ import org.apache.lucene.search.Query;
 import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TermQuery;
 
+import org.neo4j.collection.primitive.PrimitiveLongCollections.PrimitiveLongFilteringIterator;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.helpers.Predicate;
 import org.neo4j.index.impl.lucene.Hits;
 import org.neo4j.kernel.api.index.IndexReader;
 
+import static java.util.Arrays.asList;
+
+import static org.neo4j.collection.primitive.PrimitiveLongCollections.concat;
+import static org.neo4j.collection.primitive.PrimitiveLongCollections.iterator;
+
+/**
+ * Reads what the searcher of an index sees, combined with the {@link RecentIndexUpdates recent updates} that the
+ * searcher may not see yet. The value a node has in the recent updates always overrides what the searcher says
+ * about it.
+ */
 class LuceneIndexAccessorReader implements IndexReader
 {
     private final IndexSearcher searcher;
     private final LuceneDocumentStructure documentLogic;
     private final SearcherManager searcherManager;
+    private final Map<Long, Object> recentUpdates;
 
     LuceneIndexAccessorReader( SearcherManager searcherManager, LuceneDocumentStructure documentLogic )
+    {
+        this( searcherManager, documentLogic, Collections.<Long, Object>emptyMap() );
+    }
+
+    /**
+     * @param recentUpdates a snapshot of the recent updates, taken before the searcher is acquired here.
+     */
+    LuceneIndexAccessorReader( SearcherManager searcherManager, LuceneDocumentStructure documentLogic,
+                               Map<Long, Object> recentUpdates )
     {
         this.searcherManager = searcherManager;
         this.searcher = searcherManager.acquire();
         this.documentLogic = documentLogic;
+        this.recentUpdates = recentUpdates;
+    }
+
+    @Override
+    public PrimitiveLongIterator lookup( final Object value )
+    {
+        return query( documentLogic.newQuery( value ), new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object indexedValue )
+            {
+                return documentLogic.matches( indexedValue, value );
+            }
+        } );
+    }
+
+    @Override
+    public PrimitiveLongIterator rangeSeekByNumber( final Number lower, final boolean includeLower,
+            final Number upper, final boolean includeUpper )
+    {
+        return query( documentLogic.newRangeSeekByNumberQuery( lower, includeLower, upper, includeUpper ),
+                new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object indexedValue )
+            {
+                return documentLogic.matchesRangeSeekByNumber( indexedValue, lower, includeLower, upper,
+                        includeUpper );
+            }
+        } );
     }
 
     @Override
-    public PrimitiveLongIterator lookup( Object value )
+    public PrimitiveLongIterator rangeSeekByString( final String lower, final boolean includeLower,
+            final String upper, final boolean includeUpper )
     {
+        return query( documentLogic.newRangeSeekByStringQuery( lower, includeLower, upper, includeUpper ),
+                new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object indexedValue )
+            {
+                return documentLogic.matchesRangeSeekByString( indexedValue, lower, includeLower, upper,
+                        includeUpper );
+            }
+        } );
+    }
+
+    @Override
+    public PrimitiveLongIterator rangeSeekByPrefix( final String prefix )
+    {
+        return query( documentLogic.newRangeSeekByPrefixQuery( prefix ), new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object indexedValue )
+            {
+                return documentLogic.matchesRangeSeekByPrefix( indexedValue, prefix );
+            }
+        } );
+    }
+
+    @Override
+    public PrimitiveLongIterator compositePrefixSeek( final Object... leadingValues )
+    {
+        return query( documentLogic.newCompositePrefixQuery( leadingValues ), new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object indexedValue )
+            {
+                return documentLogic.matchesCompositePrefix( indexedValue, leadingValues );
+            }
+        } );
+    }
+
+    private PrimitiveLongIterator query( Query query, Predicate<Object> recentlyIndexedValueMatches )
+    {
+        PrimitiveLongIterator hits;
         try
         {
-            Hits hits = new Hits( searcher, documentLogic.newQuery( value ), null );
-            return new HitsPrimitiveLongIterator( hits, documentLogic );
+            hits = new HitsPrimitiveLongIterator( new Hits( searcher, query, null ), documentLogic );
         }
         catch ( IOException e )
         {
             throw new RuntimeException( e );
         }
+        if ( recentUpdates.isEmpty() )
+        {
+            return hits;
+        }
+
+        PrimitiveLongIterator notRecentlyUpdatedHits = new PrimitiveLongFilteringIterator( hits )
+        {
+            @Override
+            public boolean accept( long nodeId )
+            {
+                return !recentUpdates.containsKey( nodeId );
+            }
+        };
+        long[] recentMatches = new long[recentUpdates.size()];
+        int matchCount = 0;
+        for ( Map.Entry<Long, Object> update : recentUpdates.entrySet() )
+        {
+            Object indexedValue = update.getValue();
+            if ( indexedValue != RecentIndexUpdates.REMOVED && recentlyIndexedValueMatches.accept( indexedValue ) )
+            {
+                recentMatches[matchCount++] = update.getKey();
+            }
+        }
+        return concat( asList( notRecentlyUpdatedHits,
+                iterator( Arrays.copyOf( recentMatches, matchCount ) ) ).iterator() );
     }
 
     @Override
     public int getIndexedCount( long nodeId, Object propertyValue )
     {
+        if ( recentUpdates.containsKey( nodeId ) )
+        {
+            Object indexedValue = recentUpdates.get( nodeId );
+            return indexedValue != RecentIndexUpdates.REMOVED && documentLogic.matches( indexedValue, propertyValue )
+                    ? 1 : 0;
+        }
         Query nodeIdQuery = new TermQuery( documentLogic.newQueryForChangeOrRemove( nodeId ) );
         Query valueQuery = documentLogic.newQuery( propertyValue );
         BooleanQuery nodeIdAndValueQuery = new BooleanQuery( true );
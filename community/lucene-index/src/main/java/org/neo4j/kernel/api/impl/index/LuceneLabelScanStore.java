@@ -204,6 +204,18 @@ public class LuceneLabelScanStore
                 return strategy.nodesWithLabel( searcher, labelId );
             }
 
+            @Override
+            public PrimitiveLongIterator nodesWithAllLabels( int... labelIds )
+            {
+                return strategy.nodesWithAllLabels( searcher, labelIds );
+            }
+
+            @Override
+            public PrimitiveLongIterator nodesWithAnyLabel( int... labelIds )
+            {
+                return strategy.nodesWithAnyLabel( searcher, labelIds );
+            }
+
             @Override
             public void close()
             {
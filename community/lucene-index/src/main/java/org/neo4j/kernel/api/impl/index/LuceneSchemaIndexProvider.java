@@ -38,7 +38,11 @@ import org.neo4j.kernel.api.index.SchemaIndexProvider;
 import org.neo4j.kernel.api.index.util.FailureStorage;
 import org.neo4j.kernel.api.index.util.FolderLayout;
 import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.kernel.monitoring.Monitors;
 
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.schema_index_refresh_interval;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.schema_index_refresh_max_pending_updates;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.store_dir;
 import static org.neo4j.kernel.api.impl.index.IndexWriterFactories.reserving;
 import static org.neo4j.kernel.api.impl.index.IndexWriterFactories.tracking;
@@ -51,15 +55,42 @@ public class LuceneSchemaIndexProvider extends SchemaIndexProvider
     private final IndexWriterStatus writerStatus = new IndexWriterStatus();
     private final FailureStorage failureStorage;
     private final FolderLayout folderLayout;
+    private final SearcherRefresher searcherRefresher;
     private Map<Long, String> failures = new HashMap<>();
 
     public LuceneSchemaIndexProvider( DirectoryFactory directoryFactory, Config config )
+    {
+        this( directoryFactory, config, new Monitors() );
+    }
+
+    public LuceneSchemaIndexProvider( DirectoryFactory directoryFactory, Config config, Monitors monitors )
+    {
+        this( directoryFactory, config, monitors, StringLogger.DEV_NULL );
+    }
+
+    public LuceneSchemaIndexProvider( DirectoryFactory directoryFactory, Config config, Monitors monitors,
+                                      StringLogger logger )
     {
         super( LuceneSchemaIndexProviderFactory.PROVIDER_DESCRIPTOR, 1 );
         this.directoryFactory = directoryFactory;
         File rootDirectory = getRootDirectory( config.get( store_dir ), LuceneSchemaIndexProviderFactory.KEY );
         this.folderLayout = new FolderLayout( rootDirectory );
         this.failureStorage = new FailureStorage( folderLayout );
+        this.searcherRefresher = new SearcherRefresher( config.get( schema_index_refresh_interval ),
+                config.get( schema_index_refresh_max_pending_updates ),
+                monitors.newMonitor( SchemaIndexProvider.Monitor.class ), logger );
+    }
+
+    @Override
+    public void start()
+    {
+        searcherRefresher.start();
+    }
+
+    @Override
+    public void stop() throws InterruptedException
+    {
+        searcherRefresher.stop();
     }
 
     @Override
@@ -85,12 +116,12 @@ public class LuceneSchemaIndexProvider extends SchemaIndexProvider
         if ( config.isUnique() )
         {
             return new UniqueLuceneIndexAccessor( documentStructure, reserving(), writerStatus, directoryFactory,
-                    folderLayout.getFolder( indexId ) );
+                    folderLayout.getFolder( indexId ), searcherRefresher );
         }
         else
         {
             return new NonUniqueLuceneIndexAccessor( documentStructure, reserving(), writerStatus, directoryFactory,
-                    folderLayout.getFolder( indexId ) );
+                    folderLayout.getFolder( indexId ), searcherRefresher );
         }
     }
 
@@ -24,6 +24,8 @@ import org.neo4j.kernel.api.index.SchemaIndexProvider;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.extension.KernelExtensionFactory;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.logging.Logging;
+import org.neo4j.kernel.monitoring.Monitors;
 
 import static org.neo4j.kernel.api.impl.index.LuceneKernelExtensions.directoryFactory;
 
@@ -41,6 +43,10 @@ public class LuceneSchemaIndexProviderFactory extends
         Config getConfig();
 
         FileSystemAbstraction getFileSystem();
+
+        Monitors getMonitors();
+
+        Logging getLogging();
     }
 
     public LuceneSchemaIndexProviderFactory()
@@ -54,6 +60,7 @@ public class LuceneSchemaIndexProviderFactory extends
         Config config = dependencies.getConfig();
         FileSystemAbstraction fileSystem = dependencies.getFileSystem();
         DirectoryFactory directoryFactory = directoryFactory( config, fileSystem );
-        return new LuceneSchemaIndexProvider( directoryFactory, config );
+        return new LuceneSchemaIndexProvider( directoryFactory, config, dependencies.getMonitors(),
+                dependencies.getLogging().getMessagesLog( LuceneSchemaIndexProvider.class ) );
     }
 }
@@ -26,10 +26,14 @@ import java.util.List;
 
 import org.apache.lucene.document.Fieldable;
 import org.apache.lucene.document.NumericField;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TopDocs;
 
+import org.neo4j.collection.primitive.PrimitiveLongCollections;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.kernel.api.direct.AllEntriesLabelScanReader;
 import org.neo4j.kernel.api.impl.index.bitmaps.BitmapFormat;
@@ -88,6 +92,38 @@ public class NodeRangeDocumentLabelScanStorageStrategy implements LabelScanStora
                 new PageOfRangesIterator( format, searcher, RANGES_PER_PAGE, format.labelQuery( labelId ), labelId ) );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesWithAllLabels( IndexSearcher searcher, int... labelIds )
+    {
+        return nodesWithLabels( searcher, Occur.MUST, labelIds );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesWithAnyLabel( IndexSearcher searcher, int... labelIds )
+    {
+        return nodesWithLabels( searcher, Occur.SHOULD, labelIds );
+    }
+
+    /**
+     * Only visits the range documents having at least one (SHOULD) or all (MUST) of the labels, and combines the
+     * bitmaps of those labels within each document, so that no node without the labels is ever returned.
+     */
+    private PrimitiveLongIterator nodesWithLabels( IndexSearcher searcher, Occur occur, int... labelIds )
+    {
+        if ( labelIds.length == 0 )
+        {
+            return PrimitiveLongCollections.emptyIterator();
+        }
+        BooleanQuery query = new BooleanQuery();
+        for ( int labelId : labelIds )
+        {
+            query.add( format.labelQuery( labelId ), occur );
+        }
+        // All matching documents score the same, so they are paged through in document order
+        return concat( new PageOfRangesIterator( format, searcher, RANGES_PER_PAGE, new ConstantScoreQuery( query ),
+                occur == Occur.SHOULD, labelIds ) );
+    }
+
     @Override
     public AllEntriesLabelScanReader newNodeLabelReader( SearcherManager searcherManager )
     {
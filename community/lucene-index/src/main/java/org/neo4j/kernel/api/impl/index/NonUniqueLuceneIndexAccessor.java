@@ -29,7 +29,15 @@ class NonUniqueLuceneIndexAccessor extends LuceneIndexAccessor
                                   IndexWriterStatus writerStatus, DirectoryFactory dirFactory,
                                   File dirFile ) throws IOException
     {
-        super( documentStructure, indexWriterFactory, writerStatus, dirFactory, dirFile );
+        this( documentStructure, indexWriterFactory, writerStatus, dirFactory, dirFile, SearcherRefresher.immediate() );
+    }
+
+    NonUniqueLuceneIndexAccessor( LuceneDocumentStructure documentStructure,
+                                  IndexWriterFactory<ReservingLuceneIndexWriter> indexWriterFactory,
+                                  IndexWriterStatus writerStatus, DirectoryFactory dirFactory,
+                                  File dirFile, SearcherRefresher refresher ) throws IOException
+    {
+        super( documentStructure, indexWriterFactory, writerStatus, dirFactory, dirFile, refresher );
     }
 
 }
@@ -39,12 +39,24 @@ class PageOfRangesIterator extends PrefetchingIterator<PrimitiveLongIterator>
     private final BitmapDocumentFormat format;
     private final int rangesPerPage;
     private final int[] labels;
+    private final boolean anyLabel;
     private ScoreDoc lastDoc;
 
     PageOfRangesIterator( BitmapDocumentFormat format, IndexSearcher searcher, int rangesPerPage, Query query,
                           int... labels )
+    {
+        this( format, searcher, rangesPerPage, query, false, labels );
+    }
+
+    /**
+     * @param anyLabel whether nodes having any of the labels should be returned, rather than only the ones having
+     * all of them.
+     */
+    PageOfRangesIterator( BitmapDocumentFormat format, IndexSearcher searcher, int rangesPerPage, Query query,
+                          boolean anyLabel, int... labels )
     {
         this.searcher = searcher;
+        this.anyLabel = anyLabel;
         this.query = query;
         this.format = format;
         this.rangesPerPage = rangesPerPage;
@@ -94,10 +106,17 @@ class PageOfRangesIterator extends PrefetchingIterator<PrimitiveLongIterator>
 
     private long labeledBitmap( Document doc )
     {
-        long bitmap = -1;
+        long bitmap = anyLabel ? 0 : -1;
         for ( int label : labels )
         {
-            bitmap &= format.mapOf( doc, label );
+            if ( anyLabel )
+            {
+                bitmap |= format.mapOf( doc, label );
+            }
+            else
+            {
+                bitmap &= format.mapOf( doc, label );
+            }
         }
         return bitmap;
     }
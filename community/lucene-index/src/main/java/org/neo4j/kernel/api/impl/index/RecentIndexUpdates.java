@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.impl.index;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.kernel.api.index.SchemaIndexProvider;
+
+/**
+ * The updates applied to the writer of an online index that its searcher may not see yet, keyed by node id.
+ * Readers combine a {@link #snapshot() snapshot} of these with what the searcher sees, so that updates are
+ * visible as soon as they are applied, no matter how long it takes until the searcher is reopened.
+ *
+ * Updates must be recorded after they have been applied to the writer, and {@link #mark() marked} before the
+ * searcher is reopened. Once it has been reopened, every update up to the mark is visible in the searcher and can be
+ * {@link #prune(long, long, SchemaIndexProvider.Monitor) pruned}. Readers must take their snapshot before acquiring
+ * the searcher, so that an update is never missing from both.
+ *
+ * Snapshots are immutable and shared between readers until the next update or prune, so that readers don't
+ * each copy the updates.
+ */
+class RecentIndexUpdates
+{
+    /**
+     * The value of a node that has been removed from the index.
+     */
+    static final Object REMOVED = new Object();
+
+    private final ConcurrentMap<Long, Update> updates = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    // Bumped after every change to the updates, so that a snapshot taken at a version is known to be current
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot = new Snapshot( 0, Collections.<Long, Object>emptyMap() );
+
+    void added( long nodeId, Object value, long nowNanos )
+    {
+        updates.put( nodeId, new Update( sequence.incrementAndGet(), value, nowNanos ) );
+        version.incrementAndGet();
+    }
+
+    void removed( long nodeId, long nowNanos )
+    {
+        added( nodeId, REMOVED, nowNanos );
+    }
+
+    long mark()
+    {
+        return sequence.get();
+    }
+
+    /**
+     * Forgets the updates recorded up to the given mark, now that the searcher sees them, and tells the monitor
+     * how many they were and for how long the oldest of them had been waiting.
+     */
+    void prune( long mark, long nowNanos, SchemaIndexProvider.Monitor monitor )
+    {
+        int pruned = 0;
+        long oldest = nowNanos;
+        for ( Map.Entry<Long, Update> entry : updates.entrySet() )
+        {
+            Update update = entry.getValue();
+            if ( update.sequence <= mark && updates.remove( entry.getKey(), update ) )
+            {
+                pruned++;
+                oldest = Math.min( oldest, update.appliedNanos );
+            }
+        }
+        if ( pruned > 0 )
+        {
+            version.incrementAndGet();
+            monitor.indexRefreshed( pruned, nowNanos - oldest );
+        }
+    }
+
+    int size()
+    {
+        return updates.size();
+    }
+
+    boolean isEmpty()
+    {
+        return updates.isEmpty();
+    }
+
+    /**
+     * @return the most recent value of each recently updated node, {@link #REMOVED} for removed nodes.
+     */
+    Map<Long, Object> snapshot()
+    {
+        // Everything changed up to this version is in the updates by now, so a snapshot taken from here on or
+        // at this version has it all
+        long current = version.get();
+        Snapshot snapshot = this.snapshot;
+        if ( snapshot.version == current )
+        {
+            return snapshot.values;
+        }
+        Map<Long, Object> values = new HashMap<>();
+        for ( Map.Entry<Long, Update> entry : updates.entrySet() )
+        {
+            values.put( entry.getKey(), entry.getValue().value );
+        }
+        snapshot = new Snapshot( current, values.isEmpty()
+                ? Collections.<Long, Object>emptyMap() : Collections.unmodifiableMap( values ) );
+        this.snapshot = snapshot;
+        return snapshot.values;
+    }
+
+    private static class Snapshot
+    {
+        private final long version;
+        private final Map<Long, Object> values;
+
+        Snapshot( long version, Map<Long, Object> values )
+        {
+            this.version = version;
+            this.values = values;
+        }
+    }
+
+    private static class Update
+    {
+        private final long sequence;
+        private final Object value;
+        private final long appliedNanos;
+
+        Update( long sequence, Object value, long appliedNanos )
+        {
+            this.sequence = sequence;
+            this.value = value;
+            this.appliedNanos = appliedNanos;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.impl.index;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.helpers.DaemonThreadFactory;
+import org.neo4j.kernel.api.index.SchemaIndexProvider;
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+
+import static java.util.Collections.newSetFromMap;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+
+/**
+ * Reopens the searchers of online schema indexes in the background, so that committing transactions don't have to.
+ * Until a searcher has been reopened, readers see the updates applied to its writer through the
+ * {@link RecentIndexUpdates} of the index.
+ *
+ * Searchers with pending updates are reopened every interval, and as soon as an index holds more pending updates
+ * than allowed. Before this has been started, or if the interval is 0, searchers are instead reopened as part of
+ * every transaction that updates the index. So are they if reopening in the background doesn't keep up, or keeps
+ * failing, and the pending updates of an index reach {@link #SYNCHRONOUS_REFRESH_FACTOR} times the allowed amount.
+ */
+class SearcherRefresher extends LifecycleAdapter implements Runnable
+{
+    private static final SchemaIndexProvider.Monitor NO_MONITOR = new SchemaIndexProvider.Monitor()
+    {
+        @Override
+        public void indexRefreshed( int updates, long lagNanos )
+        {
+        }
+    };
+
+    static final int SYNCHRONOUS_REFRESH_FACTOR = 4;
+
+    private final long intervalMillis;
+    private final int maxPendingUpdates;
+    private final SchemaIndexProvider.Monitor monitor;
+    private final StringLogger logger;
+    private final Set<LuceneIndexAccessor> accessors = newSetFromMap( new ConcurrentHashMap<LuceneIndexAccessor, Boolean>() );
+    private final Set<LuceneIndexAccessor> scheduled = newSetFromMap( new ConcurrentHashMap<LuceneIndexAccessor, Boolean>() );
+    private volatile ScheduledExecutorService executor;
+
+    SearcherRefresher( long intervalMillis, int maxPendingUpdates, SchemaIndexProvider.Monitor monitor,
+                       StringLogger logger )
+    {
+        this.intervalMillis = intervalMillis;
+        this.maxPendingUpdates = maxPendingUpdates;
+        this.monitor = monitor;
+        this.logger = logger;
+    }
+
+    /**
+     * @return a refresher that reopens searchers as part of every transaction that updates the index.
+     */
+    static SearcherRefresher immediate()
+    {
+        return new SearcherRefresher( 0, 1, NO_MONITOR, StringLogger.DEV_NULL );
+    }
+
+    SchemaIndexProvider.Monitor monitor()
+    {
+        return monitor;
+    }
+
+    @Override
+    public void start()
+    {
+        if ( intervalMillis > 0 )
+        {
+            executor = newSingleThreadScheduledExecutor( new DaemonThreadFactory( "lucene-index-refresh" ) );
+            executor.scheduleWithFixedDelay( this, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS );
+        }
+    }
+
+    @Override
+    public void stop() throws InterruptedException
+    {
+        ScheduledExecutorService executor = this.executor;
+        if ( executor != null )
+        {
+            this.executor = null;
+            executor.shutdown();
+            executor.awaitTermination( 1, TimeUnit.MINUTES );
+        }
+    }
+
+    void register( LuceneIndexAccessor accessor )
+    {
+        accessors.add( accessor );
+    }
+
+    void unregister( LuceneIndexAccessor accessor )
+    {
+        accessors.remove( accessor );
+    }
+
+    /**
+     * Called after a transaction has applied its updates to the writer of the given index.
+     */
+    void updatesApplied( final LuceneIndexAccessor accessor ) throws IOException
+    {
+        ScheduledExecutorService executor = this.executor;
+        int pendingUpdates = accessor.pendingUpdates();
+        if ( executor == null || pendingUpdates >= (long) maxPendingUpdates * SYNCHRONOUS_REFRESH_FACTOR )
+        {
+            accessor.refresh();
+        }
+        else if ( pendingUpdates >= maxPendingUpdates && scheduled.add( accessor ) )
+        {
+            try
+            {
+                executor.execute( new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        scheduled.remove( accessor );
+                        refreshQuietly( accessor );
+                    }
+                } );
+            }
+            catch ( RejectedExecutionException e )
+            {   // Stopped in the meantime
+                scheduled.remove( accessor );
+                accessor.refresh();
+            }
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        for ( LuceneIndexAccessor accessor : accessors )
+        {
+            if ( accessor.pendingUpdates() > 0 )
+            {
+                refreshQuietly( accessor );
+            }
+        }
+    }
+
+    private void refreshQuietly( LuceneIndexAccessor accessor )
+    {
+        try
+        {
+            accessor.refresh();
+        }
+        catch ( IOException e )
+        {   // The updates stay visible through the recent updates of the index, and the next round tries again
+            logger.warn( "Unable to refresh the searcher of a schema index, " + accessor.pendingUpdates() +
+                    " updates are pending", e );
+        }
+    }
+}
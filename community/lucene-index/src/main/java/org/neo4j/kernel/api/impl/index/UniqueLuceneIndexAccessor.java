@@ -22,12 +22,10 @@ package org.neo4j.kernel.api.impl.index;
 import java.io.File;
 import java.io.IOException;
 
-import org.apache.lucene.document.Document;
-import org.apache.lucene.search.IndexSearcher;
-import org.apache.lucene.search.TopDocs;
-
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.kernel.api.exceptions.index.IndexCapacityExceededException;
 import org.neo4j.kernel.api.index.IndexEntryConflictException;
+import org.neo4j.kernel.api.index.IndexReader;
 import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
 import org.neo4j.kernel.api.index.Reservation;
@@ -44,7 +42,16 @@ class UniqueLuceneIndexAccessor extends LuceneIndexAccessor implements UniquePro
                                       IndexWriterStatus writerStatus, DirectoryFactory dirFactory,
                                       File dirFile ) throws IOException
     {
-        super( documentStructure, indexWriterFactory, writerStatus, dirFactory, dirFile );
+        this( documentStructure, indexWriterFactory, writerStatus, dirFactory, dirFile,
+                SearcherRefresher.immediate() );
+    }
+
+    public UniqueLuceneIndexAccessor( LuceneDocumentStructure documentStructure,
+                                      IndexWriterFactory<ReservingLuceneIndexWriter> indexWriterFactory,
+                                      IndexWriterStatus writerStatus, DirectoryFactory dirFactory,
+                                      File dirFile, SearcherRefresher refresher ) throws IOException
+    {
+        super( documentStructure, indexWriterFactory, writerStatus, dirFactory, dirFile, refresher );
     }
 
     @Override
@@ -64,21 +71,12 @@ class UniqueLuceneIndexAccessor extends LuceneIndexAccessor implements UniquePro
     @Override
     public Long currentlyIndexedNode( Object value ) throws IOException
     {
-        IndexSearcher searcher = searcherManager.acquire();
-        try
-        {
-            TopDocs docs = searcher.search( documentStructure.newQuery( value ), 1 );
-            if ( docs.scoreDocs.length > 0 )
-            {
-                Document doc = searcher.getIndexReader().document( docs.scoreDocs[0].doc );
-                return documentStructure.getNodeId( doc );
-            }
-        }
-        finally
+        // Looks through a reader, since the searcher alone may not see the most recently applied updates
+        try ( IndexReader reader = newReader() )
         {
-            searcherManager.release( searcher );
+            PrimitiveLongIterator nodes = reader.lookup( value );
+            return nodes.hasNext() ? nodes.next() : null;
         }
-        return null;
     }
 
     /* The fact that this is here is a sign of a design error, and we should revisit and
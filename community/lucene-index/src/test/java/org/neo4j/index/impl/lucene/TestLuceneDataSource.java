@@ -22,6 +22,10 @@ package org.neo4j.index.impl.lucene;
 import java.io.File;
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterAccessor;
@@ -48,6 +52,9 @@ import org.neo4j.kernel.impl.util.FileUtils;
 import org.neo4j.kernel.logging.DevNullLoggingService;
 import org.neo4j.kernel.monitoring.Monitors;
 
+import static java.util.Arrays.asList;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
@@ -226,6 +233,77 @@ public class TestLuceneDataSource
         assertFalse( IndexWriterAccessor.isClosed( newFooIndexWriter ) );
     }
 
+    @Test
+    public void shouldOnlyReopenTheShardsThatHaveBeenWrittenTo() throws Exception
+    {
+        indexStore.set( Node.class, "sharded", MapUtil.stringMap( IndexManager.PROVIDER, "lucene", "type", "exact",
+                "shards", "2" ) );
+        Config config = new Config( config(), GraphDatabaseSettings.class );
+        dataSource = new LuceneDataSource( config, indexStore, new DefaultFileSystemAbstraction(),
+                new XaFactory( config, TxIdGenerator.DEFAULT, new PlaceboTm( null, null ),
+                        new DefaultFileSystemAbstraction(), new Monitors(), new DevNullLoggingService(),
+                        RecoveryVerifier.ALWAYS_VALID, LogPruneStrategies.NO_PRUNING, mock( KernelHealth.class ) ), null );
+        dataSource.start();
+        IndexIdentifier identifier = identifier( "sharded" );
+        IndexReference oldSearcher = dataSource.getIndexSearcher( identifier );
+        oldSearcher.getWriter( 1 ).addDocument( IndexType.newBaseDocument( 1 ) );
+
+        dataSource.invalidateIndexSearcher( identifier, 1 );
+        IndexReference newSearcher = dataSource.getIndexSearcher( identifier );
+        oldSearcher.close();
+
+        assertNotSame( oldSearcher, newSearcher );
+        assertSame( oldSearcher.getSearcher( 0 ).getIndexReader(), newSearcher.getSearcher( 0 ).getIndexReader() );
+        assertNotSame( oldSearcher.getSearcher( 1 ).getIndexReader(), newSearcher.getSearcher( 1 ).getIndexReader() );
+        assertEquals( 0, newSearcher.getSearcher( 0 ).getIndexReader().numDocs() );
+        assertEquals( 1, newSearcher.getSearcher().getIndexReader().numDocs() );
+        newSearcher.close();
+    }
+
+    @Test
+    public void shouldOnlyHoldBackReadersOfIndexesBeingWritten() throws Exception
+    {
+        addIndex( "bar" );
+        Config config = new Config( config(), GraphDatabaseSettings.class );
+        dataSource = new LuceneDataSource( config, indexStore, new DefaultFileSystemAbstraction(),
+                new XaFactory( config, TxIdGenerator.DEFAULT, new PlaceboTm( null, null ),
+                        new DefaultFileSystemAbstraction(), new Monitors(), new DevNullLoggingService(),
+                        RecoveryVerifier.ALWAYS_VALID, LogPruneStrategies.NO_PRUNING, mock( KernelHealth.class ) ), null );
+        dataSource.start();
+        ExecutorService readers = Executors.newSingleThreadExecutor();
+        int[] locks = dataSource.getWriteLocks( asList( identifier( "foo" ) ) );
+        try
+        {
+            assertTrue( readLock( readers, identifier( "bar" ) ).await( 5, TimeUnit.SECONDS ) );
+            CountDownLatch fooRead = readLock( readers, identifier( "foo" ) );
+            assertFalse( fooRead.await( 100, TimeUnit.MILLISECONDS ) );
+            dataSource.releaseWriteLocks( locks );
+            locks = new int[0];
+            assertTrue( fooRead.await( 5, TimeUnit.SECONDS ) );
+        }
+        finally
+        {
+            dataSource.releaseWriteLocks( locks );
+            readers.shutdown();
+        }
+    }
+
+    private CountDownLatch readLock( ExecutorService readers, final IndexIdentifier identifier )
+    {
+        final CountDownLatch locked = new CountDownLatch( 1 );
+        readers.submit( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                dataSource.getReadLock( identifier );
+                locked.countDown();
+                dataSource.releaseReadLock( identifier );
+            }
+        } );
+        return locked;
+    }
+
     @Ignore("No longer valid since Lucene 3.5")
     @Test
     public void testInvalidatingSearcherCreatesANewOne() throws InstantiationException, IOException
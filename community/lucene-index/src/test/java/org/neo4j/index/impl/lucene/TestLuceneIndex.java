@@ -20,6 +20,7 @@
 package org.neo4j.index.impl.lucene;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
@@ -1778,4 +1779,79 @@ public class TestLuceneIndex extends AbstractLuceneIndexTest
         // THEN
         assertEquals( asSet(), nodes );
     }
+
+    @Test
+    public void shouldFindEntitiesInAllShardsOfAShardedIndex() throws Exception
+    {
+        // GIVEN
+        Index<Node> index = nodeIndex( stringMap( IndexManager.PROVIDER, "lucene", "type", "fulltext",
+                "shards", "3" ) );
+        Set<Node> nodes = new HashSet<>();
+        for ( int i = 0; i < 10; i++ )
+        {
+            Node node = graphDb.createNode();
+            index.add( node, "name", "Mattias Persson " + i );
+            nodes.add( node );
+        }
+        restartTx();
+
+        // WHEN
+        Node added = graphDb.createNode();
+        index.add( added, "name", "Tobias Persson" );
+        Node removed = nodes.iterator().next();
+        index.remove( removed );
+
+        // THEN
+        Set<Node> expected = new HashSet<>( nodes );
+        expected.remove( removed );
+        expected.add( added );
+        assertEquals( expected, asSet( (Iterable<Node>) index.query( "name", "persson" ) ) );
+        restartTx();
+        assertEquals( expected, asSet( (Iterable<Node>) index.query( "name", "persson" ) ) );
+    }
+
+    @Test
+    public void shouldSortHitsAcrossShardsOfAShardedIndex() throws Exception
+    {
+        // GIVEN
+        Index<Node> index = nodeIndex( stringMap( IndexManager.PROVIDER, "lucene", "type", "exact",
+                "shards", "2" ) );
+        Node adam = graphDb.createNode();
+        Node eva = graphDb.createNode();
+        Node jack = graphDb.createNode();
+        index.add( jack, "name", "Jack" );
+        index.add( adam, "name", "Adam" );
+        index.add( eva, "name", "Eva" );
+        restartTx();
+
+        // THEN
+        assertContainsInOrder( index.query( new QueryContext( "name:*" ).sort( "name" ) ), adam, eva, jack );
+        assertContainsInOrder( index.query( new QueryContext( "name:*" ).sort( "name" ).top( 2 ) ), adam, eva );
+        assertEquals( jack, index.get( "name", "Jack" ).getSingle() );
+    }
+
+    @Test
+    public void shouldNotAllowAnotherNumberOfShardsForAnExistingIndex() throws Exception
+    {
+        // GIVEN
+        String name = currentIndexName();
+        graphDb.index().forNodes( name, stringMap( IndexManager.PROVIDER, "lucene", "type", "exact",
+                "shards", "2" ) );
+
+        // THEN
+        try
+        {
+            graphDb.index().forNodes( name, stringMap( IndexManager.PROVIDER, "lucene", "type", "exact" ) );
+            fail( "Should not be able to get an index with another number of shards" );
+        }
+        catch ( IllegalArgumentException e )
+        {   // Good
+        }
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void shouldNotAllowANonPositiveNumberOfShards() throws Exception
+    {
+        nodeIndex( stringMap( IndexManager.PROVIDER, "lucene", "type", "exact", "shards", "0" ) );
+    }
 }
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.impl.lucene;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import org.neo4j.graphdb.DynamicRelationshipType;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.graphdb.index.Index;
+import org.neo4j.graphdb.index.RelationshipIndex;
+import org.neo4j.helpers.collection.MapUtil;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.impl.util.FileUtils;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertNull;
+
+import static org.neo4j.index.Neo4jTestCase.assertContains;
+
+public class TestLuceneTxStateSpill
+{
+    private static final int SPILL_THRESHOLD = 10;
+    private static final String PATH = "target/test-data/tx-state-spill";
+    private static GraphDatabaseService graphDb;
+    private Transaction tx;
+
+    @BeforeClass
+    public static void setUpDb() throws IOException
+    {
+        FileUtils.deleteRecursively( new File( PATH ) );
+        graphDb = new TestGraphDatabaseFactory().newEmbeddedDatabaseBuilder( PATH )
+                .setConfig( GraphDatabaseSettings.lucene_tx_state_spill_threshold, String.valueOf( SPILL_THRESHOLD ) )
+                .newGraphDatabase();
+    }
+
+    @AfterClass
+    public static void shutDownDb()
+    {
+        graphDb.shutdown();
+    }
+
+    @Before
+    public void beginTx()
+    {
+        tx = graphDb.beginTx();
+    }
+
+    @After
+    public void finishTx()
+    {
+        if ( tx != null )
+        {
+            tx.finish();
+        }
+        File txStateDirectory = new File( ((GraphDatabaseAPI) graphDb).getStoreDir(), "index/lucene/tx-state" );
+        assertTrue( "Spilled tx state should be deleted when the transaction is done",
+                !txStateDirectory.exists() || txStateDirectory.list().length == 0 );
+    }
+
+    @Test
+    public void shouldSeeSpilledChangesToAnExactIndexWithinAndAfterTheTransaction()
+    {
+        Index<Node> index = graphDb.index().forNodes( "exact", LuceneIndexImplementation.EXACT_CONFIG );
+        List<Node> nodes = createNodes( SPILL_THRESHOLD * 3 );
+        for ( int i = 0; i < nodes.size(); i++ )
+        {
+            index.add( nodes.get( i ), "key", "value" + i );
+            index.add( nodes.get( i ), "all", "same" );
+        }
+        index.remove( nodes.get( 0 ), "key", "value0" );
+        index.remove( nodes.get( 1 ) );
+
+        assertNull( index.get( "key", "value0" ).getSingle() );
+        assertNull( index.get( "key", "value1" ).getSingle() );
+        assertEquals( nodes.get( 2 ), index.get( "key", "value2" ).getSingle() );
+        assertEquals( nodes.get( nodes.size() - 1 ), index.query( "key", "value" + (nodes.size() - 1) ).getSingle() );
+        assertEquals( nodes.size() - 1, index.get( "all", "same" ).size() );
+
+        commit();
+
+        assertNull( index.get( "key", "value0" ).getSingle() );
+        assertEquals( nodes.get( 2 ), index.get( "key", "value2" ).getSingle() );
+        assertEquals( nodes.size() - 1, index.get( "all", "same" ).size() );
+    }
+
+    @Test
+    public void shouldReadBackEvictedDocumentsWhenChangingThemAgainAfterSpilling()
+    {
+        Index<Node> index = graphDb.index().forNodes( "fulltext", LuceneIndexImplementation.FULLTEXT_CONFIG );
+        List<Node> nodes = createNodes( SPILL_THRESHOLD * 3 );
+        for ( int i = 0; i < nodes.size(); i++ )
+        {
+            index.add( nodes.get( i ), "name", "first" + i );
+        }
+        // The first nodes have been evicted from the document cache by now
+        index.add( nodes.get( 0 ), "name", "second" );
+        index.add( nodes.get( 1 ), "name", "second" );
+        index.remove( nodes.get( 1 ), "name", "first1" );
+
+        assertContains( index.query( "name", "second" ), nodes.get( 0 ), nodes.get( 1 ) );
+        assertContains( index.query( "name", "first0" ), nodes.get( 0 ) );
+        assertContains( index.query( "name", "first1" ) );
+        for ( int i = 2; i < nodes.size(); i++ )
+        {
+            assertContains( index.query( "name", "first" + i ), nodes.get( i ) );
+        }
+
+        commit();
+
+        assertContains( index.query( "name", "second" ), nodes.get( 0 ), nodes.get( 1 ) );
+        assertContains( index.query( "name", "first1" ) );
+    }
+
+    @Test
+    public void shouldKeepRelationshipEndpointsWhenSpillingARelationshipIndex()
+    {
+        RelationshipIndex index = graphDb.index().forRelationships( "relationships",
+                MapUtil.stringMap( LuceneIndexImplementation.KEY_TYPE, "exact" ) );
+        Node start = graphDb.createNode();
+        List<Relationship> relationships = new ArrayList<>();
+        for ( int i = 0; i < SPILL_THRESHOLD * 2; i++ )
+        {
+            Relationship relationship =
+                    start.createRelationshipTo( graphDb.createNode(), DynamicRelationshipType.withName( "KNOWS" ) );
+            index.add( relationship, "key", "value" );
+            relationships.add( relationship );
+        }
+
+        assertEquals( relationships.size(), index.get( "key", "value", start, null ).size() );
+        assertContains( index.get( "key", "value", null, relationships.get( 0 ).getEndNode() ),
+                relationships.get( 0 ) );
+        assertEquals( relationships.size(), index.query( "key", "value" ).size() );
+    }
+
+    private List<Node> createNodes( int count )
+    {
+        List<Node> nodes = new ArrayList<>();
+        for ( int i = 0; i < count; i++ )
+        {
+            nodes.add( graphDb.createNode() );
+        }
+        return nodes;
+    }
+
+    private void commit()
+    {
+        tx.success();
+        tx.finish();
+        tx = graphDb.beginTx();
+    }
+}
@@ -28,14 +28,18 @@ import org.mockito.InOrder;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.neo4j.kernel.api.exceptions.index.IndexCapacityExceededException;
+import org.neo4j.kernel.api.index.CompositeValue;
 import org.neo4j.kernel.api.index.IndexEntryConflictException;
 import org.neo4j.kernel.api.index.IndexReader;
 import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
 import org.neo4j.kernel.api.index.Reservation;
+import org.neo4j.kernel.api.index.SchemaIndexProvider;
 import org.neo4j.kernel.impl.api.index.IndexUpdateMode;
+import org.neo4j.kernel.impl.util.StringLogger;
 
 import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.startsWith;
@@ -43,6 +47,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -136,6 +142,87 @@ public class LuceneIndexAccessorTest
         reader.close();
     }
 
+    @Test
+    public void canRangeSeekByNumber() throws Exception
+    {
+        // WHEN
+        updateAndCommit( asList(
+                add( 1, -5 ),
+                add( 2, 1.5d ),
+                add( 3, 10L ),
+                add( 4, 11 ),
+                add( 5, "10" ) ) );
+        IndexReader reader = accessor.newReader();
+
+        // THEN
+        assertEquals( asSet( 2l, 3l ), asUniqueSet( reader.rangeSeekByNumber( 1, true, 10, true ) ) );
+        assertEquals( asSet( 2l ), asUniqueSet( reader.rangeSeekByNumber( 1, true, 10, false ) ) );
+        assertEquals( asSet( 1l, 2l ), asUniqueSet( reader.rangeSeekByNumber( null, false, 10, false ) ) );
+        assertEquals( asSet( 3l, 4l ), asUniqueSet( reader.rangeSeekByNumber( 1.5d, false, null, false ) ) );
+        reader.close();
+    }
+
+    @Test
+    public void canRangeSeekByString() throws Exception
+    {
+        // WHEN
+        updateAndCommit( asList(
+                add( 1, "apple" ),
+                add( 2, "banana" ),
+                add( 3, "cherry" ),
+                add( 4, 'b' ),
+                add( 5, 2 ) ) );
+        IndexReader reader = accessor.newReader();
+
+        // THEN
+        assertEquals( asSet( 2l, 4l ), asUniqueSet( reader.rangeSeekByString( "b", true, "c", false ) ) );
+        assertEquals( asSet( 2l ), asUniqueSet( reader.rangeSeekByString( "b", false, "c", false ) ) );
+        assertEquals( asSet( 1l, 2l, 4l ), asUniqueSet( reader.rangeSeekByString( null, false, "banana", true ) ) );
+        assertEquals( asSet( 3l ), asUniqueSet( reader.rangeSeekByString( "banana", false, null, false ) ) );
+        reader.close();
+    }
+
+    @Test
+    public void canRangeSeekByPrefix() throws Exception
+    {
+        // WHEN
+        updateAndCommit( asList(
+                add( 1, "apa" ),
+                add( 2, "apalong" ),
+                add( 3, "ape" ),
+                add( 4, "a" ),
+                add( 5, "ba" ) ) );
+        IndexReader reader = accessor.newReader();
+
+        // THEN
+        assertEquals( asSet( 1l, 2l ), asUniqueSet( reader.rangeSeekByPrefix( "apa" ) ) );
+        assertEquals( asSet( 1l, 2l, 3l, 4l ), asUniqueSet( reader.rangeSeekByPrefix( "a" ) ) );
+        assertEquals( asSet(  ), asUniqueSet( reader.rangeSeekByPrefix( "c" ) ) );
+        reader.close();
+    }
+
+    @Test
+    public void canSeekCompositeValuesByAllAndByLeadingValues() throws Exception
+    {
+        // WHEN
+        updateAndCommit( asList(
+                add( 1, new CompositeValue( "ab", "c" ) ),
+                add( 2, new CompositeValue( "a", "bc" ) ),
+                add( 3, new CompositeValue( "ab", 12 ) ),
+                add( 4, new CompositeValue( "ab", "c", true ) ),
+                add( 5, "ab" ) ) );
+        IndexReader reader = accessor.newReader();
+
+        // THEN
+        assertEquals( asSet( 1l ), asUniqueSet( reader.lookup( new CompositeValue( "ab", "c" ) ) ) );
+        assertEquals( asSet( 3l ), asUniqueSet( reader.lookup( new CompositeValue( "ab", 12L ) ) ) );
+        assertEquals( asSet( 1l, 3l, 4l ), asUniqueSet( reader.compositePrefixSeek( "ab" ) ) );
+        assertEquals( asSet( 2l ), asUniqueSet( reader.compositePrefixSeek( "a" ) ) );
+        assertEquals( asSet( 1l, 4l ), asUniqueSet( reader.compositePrefixSeek( "ab", "c" ) ) );
+        assertEquals( asSet( 4l ), asUniqueSet( reader.compositePrefixSeek( "ab", "c", true ) ) );
+        reader.close();
+    }
+
     @Test
     public void reservationShouldAllowReleaseOnlyOnce() throws Exception
     {
@@ -256,6 +343,85 @@ public class LuceneIndexAccessorTest
         inOrder.verify( indexWriter ).removeReservedInsertions( 2 );
     }
 
+    @Test
+    public void shouldSeeUpdatesBeforeTheSearcherIsRefreshed() throws Exception
+    {
+        // GIVEN
+        SchemaIndexProvider.Monitor monitor = mock( SchemaIndexProvider.Monitor.class );
+        SearcherRefresher refresher = new SearcherRefresher( TimeUnit.HOURS.toMillis( 1 ), 1000, monitor,
+                StringLogger.DEV_NULL );
+        refresher.start();
+        accessor.close();
+        accessor = new NonUniqueLuceneIndexAccessor( documentLogic, reserving(), writerLogic, dirFactory,
+                new File( "refreshed" ), refresher );
+        try
+        {
+            updateAndCommit( asList( add( nodeId, value ), add( nodeId2, value2 ), add( 3, "values" ) ) );
+            updateAndCommit( asList( change( nodeId2, value2, 42 ), remove( 3, "values" ) ) );
+
+            // WHEN
+            assertEquals( 3, accessor.pendingUpdates() );
+            assertSeesUpdates();
+            accessor.refresh();
+
+            // THEN
+            assertEquals( 0, accessor.pendingUpdates() );
+            assertSeesUpdates();
+            verify( monitor ).indexRefreshed( eq( 3 ), anyLong() );
+        }
+        finally
+        {
+            refresher.stop();
+        }
+    }
+
+    private void assertSeesUpdates()
+    {
+        try ( IndexReader reader = accessor.newReader() )
+        {
+            assertEquals( asSet( nodeId ), asUniqueSet( reader.lookup( value ) ) );
+            assertEquals( emptySetOf( Long.class ), asUniqueSet( reader.lookup( value2 ) ) );
+            assertEquals( asSet( nodeId2 ), asUniqueSet( reader.lookup( 42L ) ) );
+            assertEquals( asSet( nodeId2 ), asUniqueSet( reader.rangeSeekByNumber( 41, false, 42.5, true ) ) );
+            assertEquals( asSet( nodeId ), asUniqueSet( reader.rangeSeekByPrefix( "val" ) ) );
+            assertEquals( asSet( nodeId ), asUniqueSet( reader.rangeSeekByString( "a", true, "z", true ) ) );
+            assertEquals( 1, reader.getIndexedCount( nodeId2, 42 ) );
+            assertEquals( 0, reader.getIndexedCount( nodeId2, value2 ) );
+            assertEquals( 0, reader.getIndexedCount( 3, "values" ) );
+        }
+    }
+
+    @Test
+    public void shouldRefreshInTheBackgroundWhenThereAreTooManyPendingUpdates() throws Exception
+    {
+        // GIVEN
+        SearcherRefresher refresher = new SearcherRefresher( TimeUnit.HOURS.toMillis( 1 ), 2,
+                mock( SchemaIndexProvider.Monitor.class ), StringLogger.DEV_NULL );
+        refresher.start();
+        accessor.close();
+        accessor = new NonUniqueLuceneIndexAccessor( documentLogic, reserving(), writerLogic, dirFactory,
+                new File( "refreshed" ), refresher );
+        try
+        {
+            // WHEN
+            updateAndCommit( asList( add( nodeId, value ) ) );
+            assertEquals( 1, accessor.pendingUpdates() );
+            updateAndCommit( asList( add( nodeId2, value2 ) ) );
+
+            // THEN
+            long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis( 10 );
+            while ( accessor.pendingUpdates() > 0 && System.currentTimeMillis() < end )
+            {
+                Thread.sleep( 10 );
+            }
+            assertEquals( 0, accessor.pendingUpdates() );
+        }
+        finally
+        {
+            refresher.stop();
+        }
+    }
+
     private final long nodeId = 1, nodeId2 = 2;
     private final Object value = "value", value2 = 40;
     private final LuceneDocumentStructure documentLogic = new LuceneDocumentStructure();
@@ -272,8 +438,9 @@ public class LuceneIndexAccessorTest
     }
 
     @After
-    public void after()
+    public void after() throws IOException
     {
+        accessor.close();
         dirFactory.close();
     }
 
@@ -367,6 +367,29 @@ public class LuceneLabelScanStoreTest
         reader.close();
     }
 
+    @Test
+    public void shouldFindNodesWithAllOrAnyOfSeveralLabels() throws Exception
+    {
+        // GIVEN nodes spread over more than one range
+        final int labelId1 = 1, labelId2 = 2, labelId3 = 3;
+        start( asList(
+                labelChanges( 1, NO_LABELS, new long[]{labelId1} ),
+                labelChanges( 2, NO_LABELS, new long[]{labelId1, labelId2} ),
+                labelChanges( 3, NO_LABELS, new long[]{labelId2} ),
+                labelChanges( 200, NO_LABELS, new long[]{labelId1, labelId2} ),
+                labelChanges( 300, NO_LABELS, new long[]{labelId3} ) ) );
+
+        // WHEN
+        LabelScanReader reader = store.newReader();
+
+        // THEN
+        assertEquals( asSet( 2L, 200L ), asSet( reader.nodesWithAllLabels( labelId1, labelId2 ) ) );
+        assertEquals( asSet( 1L, 2L, 3L, 200L ), asSet( reader.nodesWithAnyLabel( labelId1, labelId2 ) ) );
+        assertFalse( reader.nodesWithAllLabels( labelId1, labelId3 ).hasNext() );
+        assertEquals( asSet( 1L, 2L, 200L, 300L ), asSet( reader.nodesWithAnyLabel( labelId1, labelId3 ) ) );
+        reader.close();
+    }
+
     private Set<Long> gaps( Set<Long> ids, int expectedCount )
     {
         Set<Long> gaps = new HashSet<>();
@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.impl.index;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.neo4j.kernel.api.index.SchemaIndexProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class RecentIndexUpdatesTest
+{
+    private final RecentIndexUpdates updates = new RecentIndexUpdates();
+
+    @Test
+    public void shouldShareSnapshotBetweenReadersUntilTheUpdatesChange() throws Exception
+    {
+        // GIVEN
+        updates.added( 1, "a", 0 );
+        Map<Long, Object> first = updates.snapshot();
+
+        // WHEN/THEN
+        assertSame( first, updates.snapshot() );
+        updates.removed( 2, 0 );
+        Map<Long, Object> second = updates.snapshot();
+        assertNotSame( first, second );
+        assertEquals( 1, first.size() );
+        assertEquals( "a", second.get( 1L ) );
+        assertSame( RecentIndexUpdates.REMOVED, second.get( 2L ) );
+    }
+
+    @Test
+    public void shouldNotShowPrunedUpdatesInNewSnapshots() throws Exception
+    {
+        // GIVEN
+        updates.added( 1, "a", 0 );
+        updates.snapshot();
+
+        // WHEN
+        updates.prune( updates.mark(), 1, mock( SchemaIndexProvider.Monitor.class ) );
+
+        // THEN
+        assertTrue( updates.snapshot().isEmpty() );
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.impl.index;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.neo4j.kernel.api.index.SchemaIndexProvider;
+import org.neo4j.kernel.impl.util.StringLogger;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SearcherRefresherTest
+{
+    private final StringLogger logger = mock( StringLogger.class );
+    private final SearcherRefresher refresher = new SearcherRefresher( TimeUnit.HOURS.toMillis( 1 ), 10,
+            mock( SchemaIndexProvider.Monitor.class ), logger );
+
+    @After
+    public void stopRefresher() throws Exception
+    {
+        refresher.stop();
+    }
+
+    @Test
+    public void shouldRefreshSynchronouslyWhenTheBackgroundRefreshDoesNotKeepUp() throws Exception
+    {
+        // GIVEN a background refresh that is stuck
+        refresher.start();
+        final CountDownLatch stuck = new CountDownLatch( 1 );
+        final CountDownLatch refreshing = new CountDownLatch( 1 );
+        LuceneIndexAccessor slow = accessorWithPendingUpdates( 10 );
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                refreshing.countDown();
+                stuck.await();
+                return null;
+            }
+        } ).when( slow ).refresh();
+        refresher.updatesApplied( slow );
+        assertTrue( refreshing.await( 10, TimeUnit.SECONDS ) );
+
+        try
+        {
+            // WHEN
+            LuceneIndexAccessor behind = accessorWithPendingUpdates( 10 * SearcherRefresher.SYNCHRONOUS_REFRESH_FACTOR );
+            LuceneIndexAccessor notTooFarBehind = accessorWithPendingUpdates( 10 );
+            refresher.updatesApplied( behind );
+            refresher.updatesApplied( notTooFarBehind );
+
+            // THEN
+            verify( behind ).refresh();
+            verify( notTooFarBehind, never() ).refresh();
+        }
+        finally
+        {
+            stuck.countDown();
+        }
+    }
+
+    @Test
+    public void shouldLogFailureToRefreshInTheBackground() throws Exception
+    {
+        // GIVEN
+        refresher.start();
+        LuceneIndexAccessor accessor = accessorWithPendingUpdates( 10 );
+        IOException failure = new IOException( "Unable to reopen" );
+        doThrow( failure ).when( accessor ).refresh();
+
+        // WHEN
+        refresher.updatesApplied( accessor );
+
+        // THEN
+        verify( logger, timeout( 10000 ) ).warn( anyString(), any( IOException.class ) );
+    }
+
+    private LuceneIndexAccessor accessorWithPendingUpdates( int pendingUpdates )
+    {
+        LuceneIndexAccessor accessor = mock( LuceneIndexAccessor.class );
+        when( accessor.pendingUpdates() ).thenReturn( pendingUpdates );
+        return accessor;
+    }
+}
@@ -31,6 +31,12 @@ public class ListSerializer extends Serializer
         this.writer = writer;
     }
 
+    ListSerializer( ListWriter writer, Serializer parent )
+    {
+        super( parent );
+        this.writer = writer;
+    }
+
     public void addUri( String path )
     {
         writer.writeValue( RepresentationType.URI, relativeUri( path ) );
@@ -31,6 +31,12 @@ public class MappingSerializer extends Serializer
         this.writer = writer;
     }
 
+    MappingSerializer( MappingWriter writer, Serializer parent )
+    {
+        super( parent );
+        this.writer = writer;
+    }
+
     public void putUri( String key, String path )
     {
         writer.writeValue( RepresentationType.URI, key, relativeUri( path ) );
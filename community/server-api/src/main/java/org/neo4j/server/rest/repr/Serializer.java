@@ -26,18 +26,31 @@ import java.util.Map;
 abstract class Serializer
 {
     private final URI baseUri;
+    private final String basePrefix;
     private final ExtensionInjector extensions;
 
     Serializer( URI baseUri, ExtensionInjector extensions )
     {
         this.baseUri = baseUri;
+        this.basePrefix = basePrefix( baseUri );
         this.extensions = extensions;
     }
 
+    /**
+     * Nested serializers share the base URI prefix of their parent, so that it is only computed once for an entire
+     * representation tree rather than once for every URI written.
+     */
+    Serializer( Serializer parent )
+    {
+        this.baseUri = parent.baseUri;
+        this.basePrefix = parent.basePrefix;
+        this.extensions = parent.extensions;
+    }
+
     final void serialize( MappingWriter mapping, MappingRepresentation value )
     {
         injectExtensions( mapping, value, baseUri, extensions );
-        value.serialize( new MappingSerializer( mapping, baseUri, extensions ) );
+        value.serialize( new MappingSerializer( mapping, this ) );
         mapping.done();
     }
 
@@ -72,18 +85,35 @@ abstract class Serializer
 
     final void serialize( ListWriter list, ListRepresentation value )
     {
-        value.serialize( new ListSerializer( list, baseUri, extensions ) );
+        value.serialize( new ListSerializer( list, this ) );
         list.done();
     }
 
     final String relativeUri(String path)
     {
-        return joinBaseWithRelativePath(baseUri, path);
+        return appendToBasePrefix( path );
     }
 
     final String relativeTemplate( String path )
     {
-        return joinBaseWithRelativePath( baseUri, path );
+        return appendToBasePrefix( path );
+    }
+
+    private String appendToBasePrefix( String path )
+    {
+        int start = path.startsWith( "/" ) ? 1 : 0;
+        return new StringBuilder( basePrefix.length() + path.length() - start )
+                .append( basePrefix ).append( path, start, path.length() ).toString();
+    }
+
+    private static String basePrefix( URI baseUri )
+    {
+        if ( baseUri == null )
+        {
+            return null;
+        }
+        String base = baseUri.toString();
+        return base.endsWith( "/" ) ? base : base + "/";
     }
 
     static String joinBaseWithRelativePath( URI baseUri, String path )
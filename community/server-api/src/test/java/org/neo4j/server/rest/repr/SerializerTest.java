@@ -40,4 +40,19 @@ public class SerializerTest
         assertThat(serializer.relativeTemplate( aRelativeUrl ), is( baseUrl + aRelativeUrl.substring( 1 ) ));
     }
     
+    @Test
+    public void shouldAddSeparatorWhenBaseUriHasNoTrailingSlash() {
+        Serializer serializer = new Serializer(URI.create( "http://baseurl" ), null){};
+
+        assertThat(serializer.relativeUri( "node/1" ), is( "http://baseurl/node/1" ));
+        assertThat(serializer.relativeUri( "/node/1" ), is( "http://baseurl/node/1" ));
+    }
+
+    @Test
+    public void nestedSerializersShouldShareTheBaseUriOfTheirParent() {
+        Serializer parent = new Serializer(URI.create( "http://baseurl/db/" ), null){};
+        Serializer nested = new MappingSerializer( null, parent );
+
+        assertThat(nested.relativeUri( "node/1" ), is( "http://baseurl/db/node/1" ));
+    }
 }
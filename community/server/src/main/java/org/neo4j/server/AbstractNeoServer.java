@@ -47,6 +47,8 @@ import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.kernel.info.DiagnosticsManager;
 import org.neo4j.kernel.logging.ConsoleLogger;
 import org.neo4j.kernel.logging.Logging;
+import org.neo4j.kernel.monitoring.metrics.Gauge;
+import org.neo4j.kernel.monitoring.metrics.MetricsRegistry;
 import org.neo4j.server.configuration.ConfigurationProvider;
 import org.neo4j.server.configuration.Configurator;
 import org.neo4j.server.database.CypherExecutor;
@@ -71,6 +73,7 @@ import org.neo4j.server.rest.repr.RepresentationFormatRepository;
 import org.neo4j.server.rest.transactional.TransactionFacade;
 import org.neo4j.server.rest.transactional.TransactionFilter;
 import org.neo4j.server.rest.transactional.TransactionHandleRegistry;
+import org.neo4j.server.rest.transactional.TransactionHandleRegistry.SuspendedTransactionUsage;
 import org.neo4j.server.rest.transactional.TransactionRegistry;
 import org.neo4j.server.rest.transactional.TransitionalPeriodTransactionMessContainer;
 import org.neo4j.server.rest.web.DatabaseActions;
@@ -84,7 +87,6 @@ import org.neo4j.server.web.WebServer;
 import org.neo4j.server.web.WebServerProvider;
 import org.neo4j.shell.ShellSettings;
 
-import static java.lang.Math.round;
 import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -95,8 +97,14 @@ import static org.neo4j.kernel.impl.util.JobScheduler.Group.serverTransactionTim
 import static org.neo4j.server.configuration.Configurator.DATABASE_LOCATION_PROPERTY_KEY;
 import static org.neo4j.server.configuration.Configurator.DEFAULT_DATABASE_LOCATION_PROPERTY_KEY;
 import static org.neo4j.server.configuration.Configurator.DEFAULT_SCRIPT_SANDBOXING_ENABLED;
+import static org.neo4j.server.configuration.Configurator.DEFAULT_TRANSACTION_AWAIT_LAST_COMMITTED_TIMEOUT;
+import static org.neo4j.server.configuration.Configurator.DEFAULT_TRANSACTION_MAX_CHANGED_ENTITIES;
+import static org.neo4j.server.configuration.Configurator.DEFAULT_TRANSACTION_MAX_OPEN_PER_CLIENT;
 import static org.neo4j.server.configuration.Configurator.DEFAULT_TRANSACTION_TIMEOUT;
 import static org.neo4j.server.configuration.Configurator.SCRIPT_SANDBOXING_ENABLED_KEY;
+import static org.neo4j.server.configuration.Configurator.TRANSACTION_AWAIT_LAST_COMMITTED_TIMEOUT;
+import static org.neo4j.server.configuration.Configurator.TRANSACTION_MAX_CHANGED_ENTITIES;
+import static org.neo4j.server.configuration.Configurator.TRANSACTION_MAX_OPEN_PER_CLIENT;
 import static org.neo4j.server.configuration.Configurator.TRANSACTION_TIMEOUT;
 import static org.neo4j.server.database.InjectableProvider.providerForSingleton;
 
@@ -285,30 +293,79 @@ public abstract class AbstractNeoServer implements NeoServer
         final long timeoutMillis = getTransactionTimeoutMillis();
         final Clock clock = SYSTEM_CLOCK;
 
-        transactionRegistry =
-            new TransactionHandleRegistry( clock, timeoutMillis, logging.getMessagesLog(TransactionRegistry.class) );
-
-        // ensure that this is > 0
-        long runEvery = round( timeoutMillis / 2.0 );
+        transactionRegistry = new TransactionHandleRegistry( clock, timeoutMillis,
+                configurator.configuration().getInt( TRANSACTION_MAX_OPEN_PER_CLIENT,
+                        DEFAULT_TRANSACTION_MAX_OPEN_PER_CLIENT ),
+                configurator.configuration().getInt( TRANSACTION_MAX_CHANGED_ENTITIES,
+                        DEFAULT_TRANSACTION_MAX_CHANGED_ENTITIES ),
+                logging.getMessagesLog( TransactionRegistry.class ) );
+        registerTransactionMetrics( resolveDependency( MetricsRegistry.class ) );
 
         resolveDependency( JobScheduler.class ).scheduleRecurring( serverTransactionTimeout, new Runnable()
         {
             @Override
             public void run()
             {
-                long maxAge = clock.currentTimeMillis() - timeoutMillis;
-                transactionRegistry.rollbackSuspendedTransactionsIdleSince( maxAge );
+                transactionRegistry.rollbackExpiredTransactions();
             }
-        }, runEvery, MILLISECONDS );
+        }, TransactionHandleRegistry.TIMEOUT_RESOLUTION_MILLIS, MILLISECONDS );
 
         return new TransactionFacade(
-                new TransitionalPeriodTransactionMessContainer( database.getGraph() ),
+                new TransitionalPeriodTransactionMessContainer( database.getGraph(),
+                        configurator.configuration().getLong( TRANSACTION_AWAIT_LAST_COMMITTED_TIMEOUT,
+                                DEFAULT_TRANSACTION_AWAIT_LAST_COMMITTED_TIMEOUT ) ),
                 new ServerExecutionEngine( database.getGraph(), logging.getMessagesLog( ExecutionEngine.class ) ),
                 transactionRegistry,
                 logging.getMessagesLog(TransactionFacade.class)
         );
     }
 
+    private void registerTransactionMetrics( MetricsRegistry metrics )
+    {
+        metrics.register( "server.transaction.open", new Gauge()
+        {
+            @Override
+            public long value()
+            {
+                return transactionRegistry.openTransactionCount();
+            }
+        } );
+        metrics.register( "server.transaction.rolled_back", new Gauge()
+        {
+            @Override
+            public long value()
+            {
+                return transactionRegistry.rolledBackTransactionCount();
+            }
+        } );
+        metrics.register( "server.transaction.suspended_locks", new Gauge()
+        {
+            @Override
+            public long value()
+            {
+                long locks = 0;
+                for ( SuspendedTransactionUsage usage : transactionRegistry.suspendedTransactionUsage() )
+                {
+                    locks += usage.lockCount();
+                }
+                return locks;
+            }
+        } );
+        metrics.register( "server.transaction.suspended_changed_entities", new Gauge()
+        {
+            @Override
+            public long value()
+            {
+                long changedEntities = 0;
+                for ( SuspendedTransactionUsage usage : transactionRegistry.suspendedTransactionUsage() )
+                {
+                    changedEntities += usage.changedEntityCount();
+                }
+                return changedEntities;
+            }
+        } );
+    }
+
     /**
      * We are going to ensure the minimum timeout is 2 seconds. The timeout value is communicated to the user in
      * seconds rounded down, meaning if a user set a 1 second timeout, he would be told there was less than 1 second
@@ -41,6 +41,7 @@ import org.neo4j.server.preflight.PerformUpgradeIfNecessary;
 import org.neo4j.server.preflight.PreFlightTasks;
 import org.neo4j.server.rest.management.AdvertisableService;
 import org.neo4j.server.rest.management.JmxService;
+import org.neo4j.server.rest.management.MetricsService;
 import org.neo4j.server.rest.management.MonitorService;
 import org.neo4j.server.rest.management.console.ConsoleService;
 import org.neo4j.server.web.Jetty9WebServer;
@@ -101,10 +102,11 @@ public class CommunityNeoServer extends AbstractNeoServer
     @Override
     public Iterable<AdvertisableService> getServices()
     {
-        List<AdvertisableService> toReturn = new ArrayList<>( 3 );
+        List<AdvertisableService> toReturn = new ArrayList<>( 4 );
         toReturn.add( new ConsoleService( null, null, logging, null ) );
         toReturn.add( new JmxService( null, null ) );
         toReturn.add( new MonitorService( null, null ) );
+        toReturn.add( new MetricsService( null, null ) );
 
         return toReturn;
     }
@@ -112,6 +112,12 @@ public interface Configurator
 
     String TRANSACTION_TIMEOUT = "org.neo4j.server.transaction.timeout";
     int DEFAULT_TRANSACTION_TIMEOUT = 60/*seconds*/;
+    String TRANSACTION_MAX_OPEN_PER_CLIENT = "org.neo4j.server.transaction.max_open_per_client";
+    int DEFAULT_TRANSACTION_MAX_OPEN_PER_CLIENT = 0/*unlimited*/;
+    String TRANSACTION_MAX_CHANGED_ENTITIES = "org.neo4j.server.transaction.max_changed_entities";
+    int DEFAULT_TRANSACTION_MAX_CHANGED_ENTITIES = 0/*unlimited*/;
+    String TRANSACTION_AWAIT_LAST_COMMITTED_TIMEOUT = "org.neo4j.server.transaction.await_last_committed_timeout";
+    int DEFAULT_TRANSACTION_AWAIT_LAST_COMMITTED_TIMEOUT = 2000/*milliseconds*/;
 
     Configuration configuration();
 
@@ -29,6 +29,7 @@ import org.neo4j.kernel.logging.Logging;
 import org.neo4j.server.configuration.Configurator;
 import org.neo4j.server.web.WebServer;
 import org.neo4j.server.rest.management.JmxService;
+import org.neo4j.server.rest.management.MetricsService;
 import org.neo4j.server.rest.management.MonitorService;
 import org.neo4j.server.rest.management.RootService;
 import org.neo4j.server.rest.management.VersionAndEditionService;
@@ -62,6 +63,7 @@ public class ManagementApiModule implements ServerModule
         return listFrom(
                 JmxService.class.getName(),
                 MonitorService.class.getName(),
+                MetricsService.class.getName(),
                 RootService.class.getName(),
                 ConsoleService.class.getName(),
                 VersionAndEditionService.class.getName() );
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.rest.management;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Response;
+
+import org.neo4j.kernel.monitoring.metrics.MetricsRegistry;
+import org.neo4j.server.database.Database;
+import org.neo4j.server.rest.management.repr.MetricsRepresentation;
+import org.neo4j.server.rest.repr.OutputFormat;
+
+/**
+ * Exposes the current contents of the kernel metrics registry: transaction commit times, lock waits and
+ * Cypher planning and execution times, as counts and percentiles.
+ */
+@Path( MetricsService.ROOT_PATH )
+public class MetricsService implements AdvertisableService
+{
+    public static final String ROOT_PATH = "server/metrics";
+
+    private final Database database;
+    private final OutputFormat output;
+
+    public MetricsService( @Context Database database, @Context OutputFormat output )
+    {
+        this.database = database;
+        this.output = output;
+    }
+
+    @Override
+    public String getName()
+    {
+        return "metrics";
+    }
+
+    @Override
+    public String getServerPath()
+    {
+        return ROOT_PATH;
+    }
+
+    @GET
+    public Response getMetrics()
+    {
+        MetricsRegistry registry = database.getGraph().getDependencyResolver()
+                .resolveDependency( MetricsRegistry.class );
+        return output.ok( new MetricsRepresentation( registry ) );
+    }
+}
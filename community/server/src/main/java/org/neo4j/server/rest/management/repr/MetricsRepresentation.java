@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.rest.management.repr;
+
+import org.neo4j.kernel.monitoring.metrics.Histogram;
+import org.neo4j.kernel.monitoring.metrics.MetricsRegistry;
+import org.neo4j.server.rest.repr.MappingRepresentation;
+import org.neo4j.server.rest.repr.MappingSerializer;
+
+public class MetricsRepresentation extends MappingRepresentation
+{
+    private final MetricsRegistry registry;
+
+    public MetricsRepresentation( MetricsRegistry registry )
+    {
+        super( "metrics" );
+        this.registry = registry;
+    }
+
+    @Override
+    protected void serialize( final MappingSerializer serializer )
+    {
+        registry.accept( new MetricsRegistry.Visitor<RuntimeException>()
+        {
+            @Override
+            public void visitCounter( String name, long count )
+            {
+                serializer.putNumber( name, count );
+            }
+
+            @Override
+            public void visitGauge( String name, long value )
+            {
+                serializer.putNumber( name, value );
+            }
+
+            @Override
+            public void visitHistogram( String name, Histogram.Snapshot snapshot )
+            {
+                serializer.putMapping( name, new HistogramRepresentation( snapshot ) );
+            }
+        } );
+    }
+
+    private static class HistogramRepresentation extends MappingRepresentation
+    {
+        private final Histogram.Snapshot snapshot;
+
+        HistogramRepresentation( Histogram.Snapshot snapshot )
+        {
+            super( "histogram" );
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        protected void serialize( MappingSerializer serializer )
+        {
+            serializer.putNumber( "count", snapshot.count() );
+            serializer.putNumber( "min", snapshot.min() );
+            serializer.putNumber( "mean", snapshot.mean() );
+            serializer.putNumber( "max", snapshot.max() );
+            serializer.putNumber( "p50", snapshot.percentile( 50 ) );
+            serializer.putNumber( "p95", snapshot.percentile( 95 ) );
+            serializer.putNumber( "p99", snapshot.percentile( 99 ) );
+            serializer.putNumber( "p999", snapshot.percentile( 99.9 ) );
+        }
+    }
+}
@@ -33,11 +33,13 @@ public final class NodeRepresentation extends ObjectRepresentation implements Ex
         EntityRepresentation
 {
     private final Node node;
+    private final String selfPath;
 
     public NodeRepresentation( Node node )
     {
         super( RepresentationType.NODE );
         this.node = node;
+        this.selfPath = path( node );
     }
 
     @Override
@@ -60,7 +62,7 @@ public final class NodeRepresentation extends ObjectRepresentation implements Ex
 
     private String path( String path )
     {
-        return "node/" + node.getId() + path;
+        return selfPath.concat( path );
     }
 
     static String path( Node node )
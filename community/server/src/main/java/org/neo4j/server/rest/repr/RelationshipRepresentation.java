@@ -28,11 +28,13 @@ public final class RelationshipRepresentation extends ObjectRepresentation imple
         EntityRepresentation
 {
     private final Relationship rel;
+    private final String selfPath;
 
     public RelationshipRepresentation( Relationship rel )
     {
         super( RepresentationType.RELATIONSHIP );
         this.rel = rel;
+        this.selfPath = path( rel );
     }
 
     @Override
@@ -54,7 +56,7 @@ public final class RelationshipRepresentation extends ObjectRepresentation imple
 
     private String path( String path )
     {
-        return "relationship/" + rel.getId() + path;
+        return selfPath.concat( path );
     }
 
     static String path( Relationship rel )
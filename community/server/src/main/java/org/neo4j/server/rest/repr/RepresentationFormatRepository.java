@@ -66,16 +66,20 @@ public final class RepresentationFormatRepository
         return injectorProvider==null ? null : injectorProvider.getExtensionManager();
     }
 
+    /**
+     * JSON responses are streamed unless the client explicitly opts out with {@code X-Stream: false}, so that
+     * entities are written to the client as they are produced instead of being assembled in memory first.
+     */
     private RepresentationFormat forHeaders(List<MediaType> acceptable, MultivaluedMap<String, String> requestHeaders)
     {
         if (requestHeaders==null) return null;
         if (!containsType(acceptable,MediaType.APPLICATION_JSON_TYPE)) return null;
         String streamHeader = requestHeaders.getFirst(StreamingFormat.STREAM_HEADER);
-        if ("true".equalsIgnoreCase(streamHeader))
+        if ("false".equalsIgnoreCase(streamHeader))
         {
-            return formats.get(StreamingFormat.MEDIA_TYPE);
+            return null;
         }
-        return null;
+        return formats.get(StreamingFormat.MEDIA_TYPE);
     }
 
     private boolean containsType(List<MediaType> mediaTypes, MediaType mediaType)
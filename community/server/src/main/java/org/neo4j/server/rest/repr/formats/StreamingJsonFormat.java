@@ -240,7 +240,66 @@ public class StreamingJsonFormat extends RepresentationFormat implements Streami
         {
             try
             {
-                g.writeObjectField( key, value ); // todo individual fields
+                if ( value instanceof String )
+                {
+                    g.writeStringField( key, (String) value );
+                }
+                else
+                {
+                    g.writeObjectField( key, value );
+                }
+            }
+            catch ( IOException e )
+            {
+                throw new WebApplicationException( e );
+            }
+        }
+
+        @Override
+        protected void writeString( String key, String value )
+        {
+            try
+            {
+                g.writeStringField( key, value );
+            }
+            catch ( IOException e )
+            {
+                throw new WebApplicationException( e );
+            }
+        }
+
+        @Override
+        protected void writeInteger( String type, String key, long value )
+        {
+            try
+            {
+                g.writeNumberField( key, value );
+            }
+            catch ( IOException e )
+            {
+                throw new WebApplicationException( e );
+            }
+        }
+
+        @Override
+        protected void writeFloatingPointNumber( String type, String key, double value )
+        {
+            try
+            {
+                g.writeNumberField( key, value );
+            }
+            catch ( IOException e )
+            {
+                throw new WebApplicationException( e );
+            }
+        }
+
+        @Override
+        protected void writeBoolean( String key, boolean value )
+        {
+            try
+            {
+                g.writeBooleanField( key, value );
             }
             catch ( IOException e )
             {
@@ -309,7 +368,66 @@ public class StreamingJsonFormat extends RepresentationFormat implements Streami
         {
             try
             {
-                g.writeObject( value );
+                if ( value instanceof String )
+                {
+                    g.writeString( (String) value );
+                }
+                else
+                {
+                    g.writeObject( value );
+                }
+            }
+            catch ( IOException e )
+            {
+                throw new WebApplicationException( e );
+            }
+        }
+
+        @Override
+        protected void writeString( String value )
+        {
+            try
+            {
+                g.writeString( value );
+            }
+            catch ( IOException e )
+            {
+                throw new WebApplicationException( e );
+            }
+        }
+
+        @Override
+        protected void writeInteger( String type, long value )
+        {
+            try
+            {
+                g.writeNumber( value );
+            }
+            catch ( IOException e )
+            {
+                throw new WebApplicationException( e );
+            }
+        }
+
+        @Override
+        protected void writeFloatingPointNumber( String type, double value )
+        {
+            try
+            {
+                g.writeNumber( value );
+            }
+            catch ( IOException e )
+            {
+                throw new WebApplicationException( e );
+            }
+        }
+
+        @Override
+        protected void writeBoolean( boolean value )
+        {
+            try
+            {
+                g.writeBoolean( value );
             }
             catch ( IOException e )
             {
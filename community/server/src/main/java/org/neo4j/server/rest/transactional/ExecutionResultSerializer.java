@@ -43,6 +43,7 @@ import org.neo4j.server.rest.transactional.error.Neo4jError;
  * <ul>
  * <li>{@link #transactionCommitUri(URI) transactionId}{@code ?}</li>
  * <li>{@link #statementResult(org.neo4j.cypher.javacompat.ExecutionResult, boolean, ResultDataContent...) statementResult}{@code *}</li>
+ * <li>{@link #lastCommittedTx(long) lastCommittedTx}{@code ?}</li>
  * <li>{@link #errors(Iterable) errors}{@code ?}</li>
  * <li>{@link #transactionStatus(long expiryDate)}{@code ?}</li>
  * <li>{@link #finish() finish}</li>
@@ -142,6 +143,25 @@ public class ExecutionResultSerializer
         }
     }
 
+    /**
+     * Will get called at most once, after a transaction has been committed, with the id of the last transaction
+     * committed to the database. Clients send it back to read their own writes on other instances. This method is
+     * not allowed to throw exceptions.
+     */
+    public void lastCommittedTx( long txId )
+    {
+        try
+        {
+            ensureDocumentOpen();
+            ensureResultsFieldClosed();
+            out.writeNumberField( "last_committed_tx", txId );
+        }
+        catch ( IOException e )
+        {
+            loggedIOException( e );
+        }
+    }
+
     /**
      * Will get called once if any errors occurred, after {@link #statementResult(org.neo4j.cypher.javacompat.ExecutionResult, boolean, ResultDataContent...)}  statementResults}
      * has been called This method is not allowed to throw exceptions. If there are network errors or similar, the
@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.rest.transactional;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A hashed timing wheel, keeping items in slots by their deadline so that expiring items only needs to look at the
+ * slots that have passed since the last time, rather than at every scheduled item.
+ *
+ * Deadlines further away than one rotation of the wheel are kept in the slot they hash to and are skipped until
+ * their deadline has actually passed.
+ */
+class TimingWheel<T>
+{
+    private final long tickMillis;
+    private final List<Entry<T>>[] slots;
+    private long currentTick;
+
+    @SuppressWarnings( "unchecked" )
+    TimingWheel( long tickMillis, int wheelSize, long startTimeMillis )
+    {
+        if ( tickMillis <= 0 || wheelSize <= 0 )
+        {
+            throw new IllegalArgumentException( "Tick length and wheel size must be positive" );
+        }
+        this.tickMillis = tickMillis;
+        this.slots = new List[wheelSize];
+        for ( int i = 0; i < wheelSize; i++ )
+        {
+            slots[i] = new ArrayList<>();
+        }
+        this.currentTick = startTimeMillis / tickMillis;
+    }
+
+    public synchronized void schedule( T item, long deadlineMillis )
+    {
+        // Deadlines that have already passed go in the slot of the current tick, which is the first one to be visited
+        long tick = Math.max( deadlineMillis / tickMillis, currentTick );
+        slots[slot( tick )].add( new Entry<>( item, deadlineMillis ) );
+    }
+
+    /**
+     * Advances the wheel to the given time, removing and returning all items with a deadline at or before it.
+     */
+    public synchronized List<T> expire( long nowMillis )
+    {
+        long nowTick = nowMillis / tickMillis;
+        List<T> expired = new ArrayList<>();
+        if ( nowTick < currentTick )
+        {
+            return expired;
+        }
+
+        // The slot of the current tick is visited again, since it may hold deadlines later on in that tick
+        for ( long tick = Math.max( currentTick, nowTick - slots.length + 1 ); tick <= nowTick; tick++ )
+        {
+            Iterator<Entry<T>> entries = slots[slot( tick )].iterator();
+            while ( entries.hasNext() )
+            {
+                Entry<T> entry = entries.next();
+                if ( entry.deadlineMillis <= nowMillis )
+                {
+                    expired.add( entry.item );
+                    entries.remove();
+                }
+            }
+        }
+        currentTick = nowTick;
+        return expired;
+    }
+
+    public synchronized int size()
+    {
+        int size = 0;
+        for ( List<Entry<T>> slot : slots )
+        {
+            size += slot.size();
+        }
+        return size;
+    }
+
+    private int slot( long tick )
+    {
+        return (int) (tick % slots.length);
+    }
+
+    private static class Entry<T>
+    {
+        final T item;
+        final long deadlineMillis;
+
+        Entry( T item, long deadlineMillis )
+        {
+            this.item = item;
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+}
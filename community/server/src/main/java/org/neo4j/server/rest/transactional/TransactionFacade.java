@@ -26,6 +26,7 @@ import java.net.URI;
 import org.neo4j.cypher.javacompat.internal.ServerExecutionEngine;
 import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.server.rest.transactional.error.TransactionLifecycleException;
+import org.neo4j.server.rest.transactional.error.TransactionNotYetApplied;
 import org.neo4j.server.rest.web.TransactionUriScheme;
 
 /**
@@ -69,6 +70,38 @@ public class TransactionFacade
         return new TransactionHandle( kernel, engine, registry, uriScheme, log );
     }
 
+    public TransactionHandle newTransactionHandle( TransactionUriScheme uriScheme, String clientId )
+            throws TransactionLifecycleException
+    {
+        return new TransactionHandle( kernel, engine, registry, uriScheme, log, clientId );
+    }
+
+    /**
+     * Lets a client read its own writes on any instance: it hands back the last committed transaction id it was
+     * given on commit, and its statements are not executed until this instance has applied that transaction.
+     *
+     * @param txId the last committed transaction id the client has seen, or {@code null} if it has not sent one.
+     */
+    public void awaitLastCommittedTx( Long txId ) throws TransactionLifecycleException
+    {
+        if ( txId == null )
+        {
+            return;
+        }
+        try
+        {
+            if ( !kernel.awaitCommitted( txId ) )
+            {
+                throw new TransactionNotYetApplied( txId, kernel.lastCommittedTxId() );
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new TransactionNotYetApplied( txId, e );
+        }
+    }
+
     public TransactionHandle findTransactionHandle( long txId ) throws TransactionLifecycleException
     {
        return registry.acquire( txId );
@@ -35,6 +35,8 @@ import org.neo4j.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.server.rest.transactional.error.InternalBeginTransactionError;
 import org.neo4j.server.rest.transactional.error.Neo4jError;
+import org.neo4j.server.rest.transactional.error.TransactionLifecycleException;
+import org.neo4j.server.rest.transactional.error.TransactionStateTooLarge;
 import org.neo4j.server.rest.web.TransactionUriScheme;
 
 /**
@@ -66,13 +68,27 @@ public class TransactionHandle
 
     public TransactionHandle( TransitionalPeriodTransactionMessContainer txManagerFacade, ServerExecutionEngine engine,
                               TransactionRegistry registry, TransactionUriScheme uriScheme, StringLogger log )
+    {
+        this( txManagerFacade, engine, registry, uriScheme, log, registry.begin() );
+    }
+
+    public TransactionHandle( TransitionalPeriodTransactionMessContainer txManagerFacade, ServerExecutionEngine engine,
+                              TransactionRegistry registry, TransactionUriScheme uriScheme, StringLogger log,
+                              String clientId ) throws TransactionLifecycleException
+    {
+        this( txManagerFacade, engine, registry, uriScheme, log, registry.begin( clientId ) );
+    }
+
+    private TransactionHandle( TransitionalPeriodTransactionMessContainer txManagerFacade,
+                               ServerExecutionEngine engine, TransactionRegistry registry,
+                               TransactionUriScheme uriScheme, StringLogger log, long id )
     {
         this.txManagerFacade = txManagerFacade;
         this.engine = engine;
         this.registry = registry;
         this.uriScheme = uriScheme;
         this.log = log;
-        this.id = registry.begin();
+        this.id = id;
     }
 
     public URI uri()
@@ -80,6 +96,23 @@ public class TransactionHandle
         return uriScheme.txUri( id );
     }
 
+    /**
+     * @return the number of locks held by the underlying transaction, or 0 if it has not been started.
+     */
+    public int lockCount()
+    {
+        return context == null ? 0 : context.lockCount();
+    }
+
+    /**
+     * @return the number of nodes and relationships changed by the underlying transaction, or 0 if it has not been
+     * started.
+     */
+    public int changedEntityCount()
+    {
+        return context == null ? 0 : context.changedEntityCount();
+    }
+
     public void execute( StatementDeserializer statements, ExecutionResultSerializer output )
     {
         List<Neo4jError> errors = new LinkedList<>();
@@ -144,6 +177,11 @@ public class TransactionHandle
             {
                 registry.forget(id);
             }
+
+            if ( errors.isEmpty() )
+            {
+                output.lastCommittedTx( txManagerFacade.lastCommittedTxId() );
+            }
         }
         catch ( InternalBeginTransactionError e )
         {
@@ -206,7 +244,7 @@ public class TransactionHandle
     {
         executeStatements( statements, output, errors );
 
-        if ( Neo4jError.shouldRollBackOn( errors ) )
+        if ( Neo4jError.shouldRollBackOn( errors ) || !stateSizeWithinLimit( errors ) )
         {
             rollback( errors );
         }
@@ -218,6 +256,24 @@ public class TransactionHandle
         }
     }
 
+    /**
+     * Transactions left open hold on to their state in memory until they are resumed, so they may not grow
+     * beyond the size the registry allows.
+     */
+    private boolean stateSizeWithinLimit( List<Neo4jError> errors )
+    {
+        try
+        {
+            registry.assertStateSizeWithinLimit( context.changedEntityCount() );
+            return true;
+        }
+        catch ( TransactionStateTooLarge e )
+        {
+            errors.add( e.toNeo4jError() );
+            return false;
+        }
+    }
+
     private void closeContextAndCollectErrors( List<Neo4jError> errors )
     {
         if ( errors.isEmpty() )
@@ -19,7 +19,10 @@
  */
 package org.neo4j.server.rest.transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -31,29 +34,62 @@ import org.neo4j.helpers.Predicates;
 import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.server.rest.transactional.error.InvalidConcurrentTransactionAccess;
 import org.neo4j.server.rest.transactional.error.InvalidTransactionId;
+import org.neo4j.server.rest.transactional.error.TooManyOpenTransactions;
 import org.neo4j.server.rest.transactional.error.TransactionLifecycleException;
+import org.neo4j.server.rest.transactional.error.TransactionStateTooLarge;
 
 import static java.lang.String.format;
 
 public class TransactionHandleRegistry implements TransactionRegistry
 {
+    /**
+     * How often expired transactions should be looked for, and so how late after its timeout a transaction may be
+     * rolled back.
+     */
+    public static final long TIMEOUT_RESOLUTION_MILLIS = 1000;
+
+    /** Limit value meaning that there is no limit. */
+    public static final int UNLIMITED = 0;
+
     private final AtomicLong idGenerator = new AtomicLong( 0l );
     private final ConcurrentHashMap<Long, TransactionMarker> registry = new ConcurrentHashMap<>( 64 );
+    private final Map<String, Integer> openTransactionsPerClient = new HashMap<>();
+    private final TimingWheel<SuspendedTransaction> timeouts;
+    private final AtomicLong rolledBackTransactions = new AtomicLong();
 
     private final Clock clock;
 
     private final StringLogger log;
     private final long timeoutMillis;
+    private final int maxTransactionsPerClient;
+    private final int maxChangedEntitiesPerTransaction;
 
     public TransactionHandleRegistry( Clock clock, long timeoutMillis, StringLogger log )
+    {
+        this( clock, timeoutMillis, UNLIMITED, UNLIMITED, log );
+    }
+
+    public TransactionHandleRegistry( Clock clock, long timeoutMillis, int maxTransactionsPerClient,
+                                      int maxChangedEntitiesPerTransaction, StringLogger log )
     {
         this.clock = clock;
         this.timeoutMillis = timeoutMillis;
+        this.maxTransactionsPerClient = maxTransactionsPerClient;
+        this.maxChangedEntitiesPerTransaction = maxChangedEntitiesPerTransaction;
         this.log = log;
+        this.timeouts = new TimingWheel<>( TIMEOUT_RESOLUTION_MILLIS,
+                (int) (timeoutMillis / TIMEOUT_RESOLUTION_MILLIS) + 1, clock.currentTimeMillis() );
     }
 
     private static abstract class TransactionMarker
     {
+        final String clientId;
+
+        TransactionMarker( String clientId )
+        {
+            this.clientId = clientId;
+        }
+
         abstract SuspendedTransaction getTransaction() throws InvalidConcurrentTransactionAccess;
 
         abstract boolean isSuspended();
@@ -61,7 +97,10 @@ public class TransactionHandleRegistry implements TransactionRegistry
 
     private static class ActiveTransaction extends TransactionMarker
     {
-        public static final ActiveTransaction INSTANCE = new ActiveTransaction();
+        ActiveTransaction( String clientId )
+        {
+            super( clientId );
+        }
 
         @Override
         SuspendedTransaction getTransaction() throws InvalidConcurrentTransactionAccess
@@ -78,11 +117,14 @@ public class TransactionHandleRegistry implements TransactionRegistry
 
     private class SuspendedTransaction extends TransactionMarker
     {
+        final long id;
         final TransactionHandle transactionHandle;
         final long lastActiveTimestamp;
 
-        private SuspendedTransaction( TransactionHandle transactionHandle )
+        private SuspendedTransaction( long id, String clientId, TransactionHandle transactionHandle )
         {
+            super( clientId );
+            this.id = id;
             this.transactionHandle = transactionHandle;
             this.lastActiveTimestamp = clock.currentTimeMillis();
         }
@@ -105,11 +147,74 @@ public class TransactionHandleRegistry implements TransactionRegistry
         }
     }
 
+    /**
+     * Resource usage of a transaction that is open, but not currently being used by any request.
+     */
+    public static class SuspendedTransactionUsage
+    {
+        private final long id;
+        private final String clientId;
+        private final long idleMillis;
+        private final int lockCount;
+        private final int changedEntityCount;
+
+        SuspendedTransactionUsage( long id, String clientId, long idleMillis, int lockCount, int changedEntityCount )
+        {
+            this.id = id;
+            this.clientId = clientId;
+            this.idleMillis = idleMillis;
+            this.lockCount = lockCount;
+            this.changedEntityCount = changedEntityCount;
+        }
+
+        public long id()
+        {
+            return id;
+        }
+
+        /** The client that began the transaction, or {@code null} if it was begun on behalf of no particular client. */
+        public String clientId()
+        {
+            return clientId;
+        }
+
+        public long idleMillis()
+        {
+            return idleMillis;
+        }
+
+        public int lockCount()
+        {
+            return lockCount;
+        }
+
+        /** The number of nodes and relationships the transaction has changed, which it keeps in memory. */
+        public int changedEntityCount()
+        {
+            return changedEntityCount;
+        }
+    }
+
     @Override
     public long begin()
+    {
+        return register( null );
+    }
+
+    @Override
+    public long begin( String clientId ) throws TransactionLifecycleException
+    {
+        if ( !reserveTransactionFor( clientId ) )
+        {
+            throw new TooManyOpenTransactions( clientId, maxTransactionsPerClient );
+        }
+        return register( clientId );
+    }
+
+    private long register( String clientId )
     {
         long id = idGenerator.incrementAndGet();
-        if ( null == registry.putIfAbsent( id, ActiveTransaction.INSTANCE ) )
+        if ( null == registry.putIfAbsent( id, new ActiveTransaction( clientId ) ) )
         {
             return id;
         }
@@ -119,6 +224,15 @@ public class TransactionHandleRegistry implements TransactionRegistry
         }
     }
 
+    @Override
+    public void assertStateSizeWithinLimit( int changedEntityCount ) throws TransactionStateTooLarge
+    {
+        if ( maxChangedEntitiesPerTransaction != UNLIMITED && changedEntityCount > maxChangedEntitiesPerTransaction )
+        {
+            throw new TransactionStateTooLarge( changedEntityCount, maxChangedEntitiesPerTransaction );
+        }
+    }
+
     @Override
     public long release( long id, TransactionHandle transactionHandle )
     {
@@ -134,12 +248,14 @@ public class TransactionHandleRegistry implements TransactionRegistry
             throw new IllegalStateException( "Trying to suspend transaction that was already suspended" );
         }
 
-        SuspendedTransaction suspendedTx = new SuspendedTransaction( transactionHandle );
+        SuspendedTransaction suspendedTx = new SuspendedTransaction( id, marker.clientId, transactionHandle );
         if ( !registry.replace( id, marker, suspendedTx ) )
         {
             throw new IllegalStateException( "Trying to suspend transaction that has been concurrently suspended" );
         }
-        return computeNewExpiryTime( suspendedTx.getLastActiveTimestamp() );
+        long expiryTime = computeNewExpiryTime( suspendedTx.getLastActiveTimestamp() );
+        timeouts.schedule( suspendedTx, expiryTime );
+        return expiryTime;
     }
 
     private long computeNewExpiryTime( long lastActiveTimestamp )
@@ -157,13 +273,18 @@ public class TransactionHandleRegistry implements TransactionRegistry
             throw new InvalidTransactionId();
         }
 
+        return acquire( id, marker );
+    }
+
+    private TransactionHandle acquire( long id, TransactionMarker marker ) throws TransactionLifecycleException
+    {
         if ( !marker.isSuspended() )
         {
             throw new InvalidConcurrentTransactionAccess();
         }
 
         SuspendedTransaction transaction = marker.getTransaction();
-        if ( registry.replace( id, marker, ActiveTransaction.INSTANCE ) )
+        if ( registry.replace( id, marker, new ActiveTransaction( marker.clientId ) ) )
         {
             return transaction.transactionHandle;
         }
@@ -193,6 +314,43 @@ public class TransactionHandleRegistry implements TransactionRegistry
             throw new IllegalStateException(
                     "Trying to finish transaction that has been concurrently finished or suspended" );
         }
+        releaseTransactionFor( marker.clientId );
+    }
+
+    /**
+     * @return the number of transactions that are open, including those currently being used by a request.
+     */
+    public int openTransactionCount()
+    {
+        return registry.size();
+    }
+
+    /**
+     * @return the number of transactions that have been rolled back because they timed out or the server shut down.
+     */
+    public long rolledBackTransactionCount()
+    {
+        return rolledBackTransactions.get();
+    }
+
+    /**
+     * @return the resource usage of each open transaction that is not currently being used by a request.
+     */
+    public List<SuspendedTransactionUsage> suspendedTransactionUsage()
+    {
+        long now = clock.currentTimeMillis();
+        List<SuspendedTransactionUsage> usage = new ArrayList<>();
+        for ( TransactionMarker marker : registry.values() )
+        {
+            if ( marker.isSuspended() )
+            {
+                SuspendedTransaction transaction = (SuspendedTransaction) marker;
+                TransactionHandle handle = transaction.transactionHandle;
+                usage.add( new SuspendedTransactionUsage( transaction.id, transaction.clientId,
+                        now - transaction.lastActiveTimestamp, handle.lockCount(), handle.changedEntityCount() ) );
+            }
+        }
+        return usage;
     }
 
     @Override
@@ -201,6 +359,23 @@ public class TransactionHandleRegistry implements TransactionRegistry
         rollbackSuspended( Predicates.<TransactionMarker>TRUE() );
     }
 
+    /**
+     * Rolls back the suspended transactions that have been idle for longer than the timeout. Only transactions
+     * whose timeout has passed since the last call are looked at, rather than all open transactions.
+     */
+    public void rollbackExpiredTransactions()
+    {
+        for ( SuspendedTransaction transaction : timeouts.expire( clock.currentTimeMillis() ) )
+        {
+            // Transactions that have been used again since they were scheduled have been replaced by a new
+            // marker in the registry, and have a later timeout scheduled for that marker
+            if ( registry.get( transaction.id ) == transaction )
+            {
+                rollback( transaction.id, transaction );
+            }
+        }
+    }
+
     public void rollbackSuspendedTransactionsIdleSince( final long oldestLastActiveTime )
     {
         rollbackSuspended( new Predicate<TransactionMarker>()
@@ -236,28 +411,77 @@ public class TransactionHandleRegistry implements TransactionRegistry
 
         for ( long id : candidateTransactionIdsToRollback )
         {
-            TransactionHandle handle;
-            try
+            TransactionMarker marker = registry.get( id );
+            if ( marker != null )
             {
-                handle = acquire( id );
+                rollback( id, marker );
             }
-            catch ( TransactionLifecycleException invalidTransactionId )
-            {
-                // Allow this - someone snatched the transaction from under our feet,
-                continue;
-            }
-            try
+        }
+    }
+
+    private void rollback( long id, TransactionMarker marker )
+    {
+        TransactionHandle handle;
+        try
+        {
+            handle = acquire( id, marker );
+        }
+        catch ( TransactionLifecycleException invalidTransactionId )
+        {
+            // Allow this - someone snatched the transaction from under our feet,
+            return;
+        }
+        try
+        {
+            handle.forceRollback();
+            rolledBackTransactions.incrementAndGet();
+            log.info( format( "Transaction with id %d has been automatically rolled back.", id ) );
+        }
+        catch ( Throwable e )
+        {
+            log.error( format( "Transaction with id %d failed to roll back.", id ), e );
+        }
+        finally
+        {
+            forget( id );
+        }
+    }
+
+    private boolean reserveTransactionFor( String clientId )
+    {
+        if ( clientId == null )
+        {
+            return true;
+        }
+        synchronized ( openTransactionsPerClient )
+        {
+            Integer open = openTransactionsPerClient.get( clientId );
+            int count = open == null ? 0 : open;
+            if ( maxTransactionsPerClient != UNLIMITED && count >= maxTransactionsPerClient )
             {
-                handle.forceRollback();
-                log.info( format( "Transaction with id %d has been automatically rolled back.", id ) );
+                return false;
             }
-            catch ( Throwable e )
+            openTransactionsPerClient.put( clientId, count + 1 );
+            return true;
+        }
+    }
+
+    private void releaseTransactionFor( String clientId )
+    {
+        if ( clientId == null )
+        {
+            return;
+        }
+        synchronized ( openTransactionsPerClient )
+        {
+            Integer open = openTransactionsPerClient.get( clientId );
+            if ( open == null || open <= 1 )
             {
-                log.error( format( "Transaction with id %d failed to roll back.", id ), e );
+                openTransactionsPerClient.remove( clientId );
             }
-            finally
+            else
             {
-                forget( id );
+                openTransactionsPerClient.put( clientId, open - 1 );
             }
         }
     }
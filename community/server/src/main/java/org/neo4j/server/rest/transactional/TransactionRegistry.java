@@ -20,6 +20,7 @@
 package org.neo4j.server.rest.transactional;
 
 import org.neo4j.server.rest.transactional.error.TransactionLifecycleException;
+import org.neo4j.server.rest.transactional.error.TransactionStateTooLarge;
 
 /**
  * Stores transaction contexts for the server, including handling concurrency safe ways to acquire
@@ -30,6 +31,17 @@ public interface TransactionRegistry
 {
     public long begin();
 
+    /**
+     * Like {@link #begin()}, but counts the transaction towards the open transactions of the given client, failing
+     * if that client already has as many open transactions as it is allowed.
+     */
+    public long begin( String clientId ) throws TransactionLifecycleException;
+
+    /**
+     * Fails if a transaction that has changed the given number of entities is too large to be kept open.
+     */
+    public void assertStateSizeWithinLimit( int changedEntityCount ) throws TransactionStateTooLarge;
+
     public long release( long id, TransactionHandle transactionHandle );
 
     public TransactionHandle acquire( long id ) throws TransactionLifecycleException;
@@ -20,6 +20,7 @@
 package org.neo4j.server.rest.transactional;
 
 import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.impl.transaction.TransactionAwaiter;
 
 import javax.transaction.TransactionManager;
 
@@ -27,11 +28,15 @@ public class TransitionalPeriodTransactionMessContainer
 {
     private final GraphDatabaseAPI db;
     private final TransactionManager txManager;
+    private final TransactionAwaiter transactionAwaiter;
+    private final long awaitTimeoutMillis;
 
-    public TransitionalPeriodTransactionMessContainer( GraphDatabaseAPI db )
+    public TransitionalPeriodTransactionMessContainer( GraphDatabaseAPI db, long awaitTimeoutMillis )
     {
         this.db = db;
         this.txManager = db.getDependencyResolver().resolveDependency( TransactionManager.class );
+        this.transactionAwaiter = db.getDependencyResolver().resolveDependency( TransactionAwaiter.class );
+        this.awaitTimeoutMillis = awaitTimeoutMillis;
     }
 
     public TransitionalTxManagementKernelTransaction newTransaction()
@@ -43,4 +48,18 @@ public class TransitionalPeriodTransactionMessContainer
         return new TransitionalTxManagementKernelTransaction( txManager );
     }
 
+    public long lastCommittedTxId()
+    {
+        return transactionAwaiter.lastCommittedTxId();
+    }
+
+    /**
+     * @return {@code true} if transaction {@code txId} has been applied to this database, possibly after waiting
+     * for it for a bounded time, or {@code false} if it still has not.
+     */
+    public boolean awaitCommitted( long txId ) throws InterruptedException
+    {
+        return transactionAwaiter.await( txId, awaitTimeoutMillis );
+    }
+
 }
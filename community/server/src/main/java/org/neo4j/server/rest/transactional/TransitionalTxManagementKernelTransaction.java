@@ -27,11 +27,16 @@ import javax.transaction.SystemException;
 import javax.transaction.Transaction;
 import javax.transaction.TransactionManager;
 
+import org.neo4j.kernel.impl.core.TransactionState;
+import org.neo4j.kernel.impl.transaction.AbstractTransactionManager;
+
 class TransitionalTxManagementKernelTransaction
 {
     private final TransactionManager txManager;
 
     private Transaction suspendedTransaction;
+    private int lockCount;
+    private int changedEntityCount;
 
     public TransitionalTxManagementKernelTransaction( TransactionManager txManager )
     {
@@ -43,6 +48,7 @@ class TransitionalTxManagementKernelTransaction
         try
         {
             assert suspendedTransaction == null : "Can't suspend the transaction if it already is suspended.";
+            sampleResourceUsage();
             suspendedTransaction = txManager.suspend();
         }
         catch ( SystemException e )
@@ -88,4 +94,39 @@ class TransitionalTxManagementKernelTransaction
             throw new RuntimeException( e );
         }
     }
+
+    /**
+     * @return the number of locks held by this transaction, as of when it was last suspended if it is suspended.
+     */
+    public int lockCount()
+    {
+        if ( suspendedTransaction == null )
+        {
+            sampleResourceUsage();
+        }
+        return lockCount;
+    }
+
+    /**
+     * @return the number of nodes and relationships created or changed by this transaction, as of when it was last
+     * suspended if it is suspended.
+     */
+    public int changedEntityCount()
+    {
+        if ( suspendedTransaction == null )
+        {
+            sampleResourceUsage();
+        }
+        return changedEntityCount;
+    }
+
+    private void sampleResourceUsage()
+    {
+        if ( txManager instanceof AbstractTransactionManager )
+        {
+            TransactionState state = ((AbstractTransactionManager) txManager).getTransactionState();
+            lockCount = state.locks().activeLockCount();
+            changedEntityCount = state.changedEntityCount();
+        }
+    }
 }
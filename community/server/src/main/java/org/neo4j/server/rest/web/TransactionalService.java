@@ -23,8 +23,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.security.Principal;
+import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
@@ -41,9 +44,13 @@ import org.neo4j.server.rest.transactional.ExecutionResultSerializer;
 import org.neo4j.server.rest.transactional.TransactionFacade;
 import org.neo4j.server.rest.transactional.TransactionHandle;
 import org.neo4j.server.rest.transactional.error.Neo4jError;
+import org.neo4j.server.rest.transactional.error.TooManyOpenTransactions;
 import org.neo4j.server.rest.transactional.error.TransactionLifecycleException;
+import org.neo4j.server.rest.transactional.error.TransactionNotYetApplied;
 
 import static java.util.Arrays.asList;
+import static javax.ws.rs.core.Response.Status.NOT_FOUND;
+import static javax.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE;
 
 
 /**
@@ -53,6 +60,14 @@ import static java.util.Arrays.asList;
 @Path("/transaction")
 public class TransactionalService
 {
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    /**
+     * Carries the last committed transaction id a client was given on commit, so that its statements only execute
+     * once this instance has applied that transaction.
+     */
+    public static final String LAST_COMMITTED_TX_HEADER = "X-Last-Committed-Tx";
+
     private final TransactionFacade facade;
     private final TransactionUriScheme uriScheme;
 
@@ -65,11 +80,14 @@ public class TransactionalService
     @POST
     @Consumes({MediaType.APPLICATION_JSON})
     @Produces({MediaType.APPLICATION_JSON})
-    public Response executeStatementsInNewTransaction( final InputStream input, @Context final UriInfo uriInfo )
+    public Response executeStatementsInNewTransaction( final InputStream input, @Context final UriInfo uriInfo,
+                                                       @Context final HttpServletRequest request,
+                                                       @HeaderParam(LAST_COMMITTED_TX_HEADER) Long lastCommittedTx )
     {
         try
         {
-            TransactionHandle transactionHandle = facade.newTransactionHandle( uriScheme );
+            facade.awaitLastCommittedTx( lastCommittedTx );
+            TransactionHandle transactionHandle = facade.newTransactionHandle( uriScheme, clientId( request ) );
             return createdResponse( transactionHandle, executeStatements( input, transactionHandle, uriInfo.getBaseUri() ) );
         }
         catch ( TransactionLifecycleException e )
@@ -83,11 +101,13 @@ public class TransactionalService
     @Consumes({MediaType.APPLICATION_JSON})
     @Produces({MediaType.APPLICATION_JSON})
     public Response executeStatements( @PathParam("id") final long id, final InputStream input,
-                                       @Context final UriInfo uriInfo )
+                                       @Context final UriInfo uriInfo,
+                                       @HeaderParam(LAST_COMMITTED_TX_HEADER) Long lastCommittedTx )
     {
         final TransactionHandle transactionHandle;
         try
         {
+            facade.awaitLastCommittedTx( lastCommittedTx );
             transactionHandle = facade.findTransactionHandle( id );
         }
         catch ( TransactionLifecycleException e )
@@ -101,11 +121,14 @@ public class TransactionalService
     @Path("/{id}/commit")
     @Consumes({MediaType.APPLICATION_JSON})
     @Produces({MediaType.APPLICATION_JSON})
-    public Response commitTransaction( @PathParam("id") final long id, final InputStream input, @Context final UriInfo uriInfo )
+    public Response commitTransaction( @PathParam("id") final long id, final InputStream input,
+                                       @Context final UriInfo uriInfo,
+                                       @HeaderParam(LAST_COMMITTED_TX_HEADER) Long lastCommittedTx )
     {
         final TransactionHandle transactionHandle;
         try
         {
+            facade.awaitLastCommittedTx( lastCommittedTx );
             transactionHandle = facade.findTransactionHandle( id );
         }
         catch ( TransactionLifecycleException e )
@@ -119,12 +142,15 @@ public class TransactionalService
     @Path("/commit")
     @Consumes({MediaType.APPLICATION_JSON})
     @Produces({MediaType.APPLICATION_JSON})
-    public Response commitNewTransaction( final InputStream input, @Context final UriInfo uriInfo )
+    public Response commitNewTransaction( final InputStream input, @Context final UriInfo uriInfo,
+                                          @Context final HttpServletRequest request,
+                                          @HeaderParam(LAST_COMMITTED_TX_HEADER) Long lastCommittedTx )
     {
         final TransactionHandle transactionHandle;
         try
         {
-            transactionHandle = facade.newTransactionHandle( uriScheme );
+            facade.awaitLastCommittedTx( lastCommittedTx );
+            transactionHandle = facade.newTransactionHandle( uriScheme, clientId( request ) );
         }
         catch ( TransactionLifecycleException e )
         {
@@ -157,11 +183,38 @@ public class TransactionalService
 
     private Response invalidTransaction( final TransactionLifecycleException e, final URI baseUri )
     {
-        return Response.status( Response.Status.NOT_FOUND )
+        return Response.status( statusCode( e ) )
                 .entity( serializeError( e.toNeo4jError(), baseUri ) )
                 .build();
     }
 
+    private static int statusCode( TransactionLifecycleException e )
+    {
+        if ( e instanceof TooManyOpenTransactions )
+        {
+            return TOO_MANY_REQUESTS;
+        }
+        if ( e instanceof TransactionNotYetApplied )
+        {
+            return SERVICE_UNAVAILABLE.getStatusCode();
+        }
+        return NOT_FOUND.getStatusCode();
+    }
+
+    /**
+     * Open transactions are limited per client, where the client is the authenticated user if there is one, and
+     * otherwise the remote address of the request.
+     */
+    private static String clientId( HttpServletRequest request )
+    {
+        if ( request == null )
+        {
+            return null;
+        }
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? principal.getName() : request.getRemoteAddr();
+    }
+
     private Response createdResponse( TransactionHandle transactionHandle, StreamingOutput streamingResults )
     {
         return Response.created( transactionHandle.uri() )
@@ -103,9 +103,9 @@ public class GetOnRootDocIT extends AbstractRestFunctionalTestBase
     }
 
     /**
-     * All responses from the REST API can be transmitted as JSON streams, resulting in
-     * better performance and lower memory overhead on the server side. To use
-     * streaming, supply the header `X-Stream: true` with each request.
+     * All JSON responses from the REST API are transmitted as JSON streams, resulting in
+     * better performance and lower memory overhead on the server side. Streaming is the
+     * default; to turn it off, supply the header `X-Stream: false` with the request.
      */
     @Documented
     @Test
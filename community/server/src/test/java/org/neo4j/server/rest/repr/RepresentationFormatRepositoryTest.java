@@ -112,6 +112,27 @@ public class RepresentationFormatRepositoryTest
         assertEquals( "{\"a\":\"test\"}", baos.toString() );
     }
 
+    @Test
+    public void shouldStreamJsonByDefault() throws Exception
+    {
+        Response response = mock( Response.class );
+        final AtomicReference<StreamingOutput> ref = new AtomicReference<>();
+        final Response.ResponseBuilder responseBuilder = mockResponsBuilder( response, ref );
+        OutputFormat format = repository.outputFormat( asList( MediaType.APPLICATION_JSON_TYPE ), null,
+                headers( null ) );
+        format.response( responseBuilder, new MapRepresentation( map( "a", "test" ) ) );
+        assertEquals( StreamingFormat.MEDIA_TYPE, format.getMediaType() );
+        assertNotNull( ref.get() );
+    }
+
+    @Test
+    public void shouldNotStreamJsonWhenClientOptsOut() throws Exception
+    {
+        OutputFormat format = repository.outputFormat( asList( MediaType.APPLICATION_JSON_TYPE ), null,
+                headers( "false" ) );
+        assertEquals( MediaType.APPLICATION_JSON_TYPE, format.getMediaType() );
+    }
+
     private Response.ResponseBuilder mockResponsBuilder( Response response, final AtomicReference<StreamingOutput> ref )
     {
         final Response.ResponseBuilder responseBuilder = mock( Response.ResponseBuilder.class );
@@ -130,11 +151,16 @@ public class RepresentationFormatRepositoryTest
         return responseBuilder;
     }
 
-    @SuppressWarnings( "unchecked" )
     private MultivaluedMap<String, String> streamingHeader()
+    {
+        return headers( "true" );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private MultivaluedMap<String, String> headers( String streamHeader )
     {
         MultivaluedMap<String, String> headers = mock( MultivaluedMap.class );
-        when( headers.getFirst( StreamingFormat.STREAM_HEADER ) ).thenReturn( "true" );
+        when( headers.getFirst( StreamingFormat.STREAM_HEADER ) ).thenReturn( streamHeader );
         return headers;
     }
 }
@@ -72,6 +72,22 @@ public class ExecutionResultSerializerTest
         assertEquals( "{\"commit\":\"commit/uri/1\",\"results\":[],\"errors\":[]}", result );
     }
 
+    @Test
+    public void shouldSerializeResponseWithLastCommittedTx() throws Exception
+    {
+        // given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ExecutionResultSerializer serializer = new ExecutionResultSerializer( output, null, StringLogger.DEV_NULL );
+
+        // when
+        serializer.lastCommittedTx( 42 );
+        serializer.finish();
+
+        // then
+        String result = output.toString( "UTF-8" );
+        assertEquals( "{\"results\":[],\"last_committed_tx\":42,\"errors\":[]}", result );
+    }
+
     @Test
     public void shouldSerializeResponseWithCommitUriAndResults() throws Exception
     {
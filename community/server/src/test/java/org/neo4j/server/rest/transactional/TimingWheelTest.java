@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.rest.transactional;
+
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class TimingWheelTest
+{
+    @Test
+    public void shouldExpireItemsOnceTheirDeadlineHasPassed() throws Exception
+    {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>( 10, 4, 0 );
+        wheel.schedule( "a", 15 );
+        wheel.schedule( "b", 25 );
+
+        // Then
+        assertTrue( wheel.expire( 14 ).isEmpty() );
+        assertThat( wheel.expire( 15 ), equalTo( asList( "a" ) ) );
+        assertThat( wheel.expire( 30 ), equalTo( asList( "b" ) ) );
+        assertThat( wheel.size(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldExpireItemWithDeadlineLaterInTheCurrentTick() throws Exception
+    {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>( 10, 4, 0 );
+        wheel.schedule( "a", 18 );
+
+        // When
+        assertTrue( wheel.expire( 12 ).isEmpty() );
+
+        // Then
+        assertThat( wheel.expire( 19 ), equalTo( asList( "a" ) ) );
+    }
+
+    @Test
+    public void shouldKeepItemsMoreThanOneRotationAwayUntilTheirDeadline() throws Exception
+    {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>( 10, 4, 0 );
+        wheel.schedule( "far", 105 );
+
+        // Then
+        assertTrue( wheel.expire( 65 ).isEmpty() );
+        assertThat( wheel.size(), equalTo( 1 ) );
+        assertThat( wheel.expire( 200 ), equalTo( asList( "far" ) ) );
+    }
+
+    @Test
+    public void shouldExpireItemsScheduledInThePastOnNextExpiry() throws Exception
+    {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>( 10, 4, 0 );
+        wheel.expire( 50 );
+
+        // When
+        wheel.schedule( "late", 20 );
+
+        // Then
+        assertThat( wheel.expire( 50 ), equalTo( asList( "late" ) ) );
+    }
+}
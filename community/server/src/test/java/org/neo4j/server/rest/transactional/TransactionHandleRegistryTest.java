@@ -19,6 +19,7 @@
  */
 package org.neo4j.server.rest.transactional;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
@@ -26,6 +27,8 @@ import org.neo4j.helpers.FakeClock;
 import org.neo4j.kernel.impl.util.TestLogger;
 import org.neo4j.server.rest.transactional.error.InvalidConcurrentTransactionAccess;
 import org.neo4j.server.rest.transactional.error.InvalidTransactionId;
+import org.neo4j.server.rest.transactional.error.TooManyOpenTransactions;
+import org.neo4j.server.rest.transactional.error.TransactionStateTooLarge;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertNotEquals;
@@ -33,6 +36,9 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.neo4j.kernel.impl.util.TestLogger.LogCall.info;
 
 public class TransactionHandleRegistryTest
@@ -189,4 +195,131 @@ public class TransactionHandleRegistryTest
         // Then
         assertThat( timesOutAt, equalTo( clock.currentTimeMillis() + timeoutLength ) );
     }
+
+    @Test
+    public void expiredTransactionsShouldBeRolledBackWithoutLookingAtOthers() throws Exception
+    {
+        // Given
+        FakeClock clock = new FakeClock();
+        TestLogger log = new TestLogger();
+        TransactionHandleRegistry registry = new TransactionHandleRegistry( clock, 10_000, log );
+        TransactionHandle oldTx = mock( TransactionHandle.class );
+        TransactionHandle newTx = mock( TransactionHandle.class );
+
+        long txId1 = registry.begin();
+        long txId2 = registry.begin();
+        registry.release( txId1, oldTx );
+        clock.forward( 5, TimeUnit.SECONDS );
+        registry.release( txId2, newTx );
+
+        // When
+        clock.forward( 6, TimeUnit.SECONDS );
+        registry.rollbackExpiredTransactions();
+
+        // Then
+        verify( oldTx ).forceRollback();
+        verify( newTx, never() ).forceRollback();
+        assertThat( registry.acquire( txId2 ), equalTo( newTx ) );
+        assertThat( registry.rolledBackTransactionCount(), equalTo( 1l ) );
+        log.assertExactly( info( "Transaction with id 1 has been automatically rolled back." ) );
+    }
+
+    @Test
+    public void transactionUsedAgainBeforeItsTimeoutShouldNotBeRolledBack() throws Exception
+    {
+        // Given
+        FakeClock clock = new FakeClock();
+        TestLogger log = new TestLogger();
+        TransactionHandleRegistry registry = new TransactionHandleRegistry( clock, 10_000, log );
+        TransactionHandle handle = mock( TransactionHandle.class );
+
+        long id = registry.begin();
+        registry.release( id, handle );
+        clock.forward( 9, TimeUnit.SECONDS );
+        registry.acquire( id );
+        registry.release( id, handle );
+
+        // When
+        clock.forward( 2, TimeUnit.SECONDS );
+        registry.rollbackExpiredTransactions();
+
+        // Then
+        verify( handle, never() ).forceRollback();
+        assertThat( registry.acquire( id ), equalTo( handle ) );
+        log.assertNoLoggingOccurred();
+    }
+
+    @Test
+    public void shouldLimitOpenTransactionsPerClient() throws Exception
+    {
+        // Given
+        TransactionHandleRegistry registry = new TransactionHandleRegistry( new FakeClock(), 0, 2,
+                TransactionHandleRegistry.UNLIMITED, new TestLogger() );
+        long first = registry.begin( "client-a" );
+        registry.begin( "client-a" );
+
+        // When
+        try
+        {
+            registry.begin( "client-a" );
+            fail( "Should have thrown exception" );
+        }
+        catch ( TooManyOpenTransactions e )
+        {
+            // expected
+        }
+
+        // Then other clients are not affected, and finishing a transaction frees up room for another
+        registry.begin( "client-b" );
+        registry.forget( first );
+        registry.begin( "client-a" );
+    }
+
+    @Test
+    public void shouldLimitChangedEntitiesOfOpenTransactions() throws Exception
+    {
+        // Given
+        TransactionHandleRegistry registry = new TransactionHandleRegistry( new FakeClock(), 0,
+                TransactionHandleRegistry.UNLIMITED, 100, new TestLogger() );
+
+        // When
+        registry.assertStateSizeWithinLimit( 100 );
+        try
+        {
+            registry.assertStateSizeWithinLimit( 101 );
+            fail( "Should have thrown exception" );
+        }
+        catch ( TransactionStateTooLarge e )
+        {
+            // expected
+        }
+    }
+
+    @Test
+    public void shouldReportResourceUsageOfSuspendedTransactions() throws Exception
+    {
+        // Given
+        FakeClock clock = new FakeClock();
+        TransactionHandleRegistry registry = new TransactionHandleRegistry( clock, 0, new TestLogger() );
+        TransactionHandle handle = mock( TransactionHandle.class );
+        when( handle.lockCount() ).thenReturn( 3 );
+        when( handle.changedEntityCount() ).thenReturn( 42 );
+
+        long suspended = registry.begin( "client-a" );
+        registry.begin( "client-a" );
+        registry.release( suspended, handle );
+        clock.forward( 5, TimeUnit.SECONDS );
+
+        // When
+        List<TransactionHandleRegistry.SuspendedTransactionUsage> usage = registry.suspendedTransactionUsage();
+
+        // Then
+        assertThat( registry.openTransactionCount(), equalTo( 2 ) );
+        assertThat( usage.size(), equalTo( 1 ) );
+        assertThat( usage.get( 0 ).id(), equalTo( suspended ) );
+        assertThat( usage.get( 0 ).clientId(), equalTo( "client-a" ) );
+        assertThat( usage.get( 0 ).idleMillis(), equalTo( 5000l ) );
+        assertThat( usage.get( 0 ).lockCount(), equalTo( 3 ) );
+        assertThat( usage.get( 0 ).changedEntityCount(), equalTo( 42 ) );
+    }
 }
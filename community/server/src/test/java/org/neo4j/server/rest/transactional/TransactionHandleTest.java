@@ -176,6 +176,7 @@ public class TransactionHandleTest
 
         InOrder outputOrder = inOrder( output );
         outputOrder.verify( output ).statementResult( null, false, (ResultDataContent[]) null );
+        outputOrder.verify( output ).lastCommittedTx( 42l );
         outputOrder.verify( output ).errors( argThat( hasNoErrors() ) );
         outputOrder.verify( output ).finish();
         verifyNoMoreInteractions( output );
@@ -209,6 +210,7 @@ public class TransactionHandleTest
 
         InOrder outputOrder = inOrder( output );
         outputOrder.verify( output ).statementResult( result, false, (ResultDataContent[])null );
+        outputOrder.verify( output ).lastCommittedTx( 42l );
         outputOrder.verify( output ).errors( argThat( hasNoErrors() ) );
         outputOrder.verify( output ).finish();
         verifyNoMoreInteractions( output );
@@ -423,6 +425,7 @@ public class TransactionHandleTest
         TransitionalTxManagementKernelTransaction context = mock( TransitionalTxManagementKernelTransaction.class );
         TransitionalPeriodTransactionMessContainer kernel = mock( TransitionalPeriodTransactionMessContainer.class );
         when( kernel.newTransaction() ).thenReturn( context );
+        when( kernel.lastCommittedTxId() ).thenReturn( 42l );
         return kernel;
     }
 
@@ -29,9 +29,12 @@ import java.util.Set;
 
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.GraphDatabaseAPI;
 import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.kernel.impl.transaction.TransactionAwaiter;
 import org.neo4j.server.ServerTestUtils;
 import org.neo4j.server.rest.AbstractRestFunctionalTestBase;
+import org.neo4j.server.rest.web.TransactionalService;
 import org.neo4j.test.server.HTTP;
 import org.neo4j.test.server.HTTP.Response;
 import org.neo4j.tooling.GlobalGraphOperations;
@@ -178,6 +181,32 @@ public class TransactionIT extends AbstractRestFunctionalTestBase
         assertThat( countNodes(), equalTo( nodesInDatabaseBeforeTransaction + 1 ) );
     }
 
+    @Test
+    public void commit_returns_last_committed_tx_that_later_requests_can_wait_for() throws Exception
+    {
+        // begin and execute and commit
+        Response commit = http.POST( "/db/data/transaction/commit", quotedJson( "{ 'statements': [ { 'statement': 'CREATE n' } ] }" ) );
+        long lastCommittedTx = commit.get( "last_committed_tx" ).asLong();
+
+        assertThat( commit.status(), equalTo( 200 ) );
+        assertThat( lastCommittedTx, equalTo( ((GraphDatabaseAPI) graphdb()).getDependencyResolver()
+                .resolveDependency( TransactionAwaiter.class ).lastCommittedTxId() ) );
+
+        // read own write
+        Response read = http.withHeaders( TransactionalService.LAST_COMMITTED_TX_HEADER, String.valueOf( lastCommittedTx ) )
+                .POST( "/db/data/transaction/commit", quotedJson( "{ 'statements': [ { 'statement': 'MATCH n RETURN count(n)' } ] }" ) );
+
+        assertThat( read.status(), equalTo( 200 ) );
+        assertThat( read, containsNoErrors() );
+
+        // wait for a transaction that never comes
+        Response tooFarAhead = http.withHeaders( TransactionalService.LAST_COMMITTED_TX_HEADER, String.valueOf( lastCommittedTx + 1000 ) )
+                .POST( "/db/data/transaction/commit", quotedJson( "{ 'statements': [ { 'statement': 'MATCH n RETURN count(n)' } ] }" ) );
+
+        assertThat( tooFarAhead.status(), equalTo( 503 ) );
+        assertThat( tooFarAhead, hasErrors( Status.Transaction.NotYetApplied ) );
+    }
+
     @Test
     public void begin_and_execute_periodic_commit_and_commit() throws Exception
     {
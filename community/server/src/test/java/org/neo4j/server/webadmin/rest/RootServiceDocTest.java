@@ -64,5 +64,7 @@ public class RootServiceDocTest
                 .toString(), containsString( String.format( "%sserver/jmx", uri.toString() ) ) );
         assertThat( result.get( "monitor" )
                 .toString(), containsString( String.format( "%sserver/monitor", uri.toString() ) ) );
+        assertThat( result.get( "metrics" )
+                .toString(), containsString( String.format( "%sserver/metrics", uri.toString() ) ) );
     }
 }
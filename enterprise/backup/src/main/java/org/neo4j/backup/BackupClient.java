@@ -59,6 +59,7 @@ class BackupClient extends Client<TheBackupInterface> implements TheBackupInterf
             public void write( ChannelBuffer buffer ) throws IOException
             {
                 buffer.writeByte( forensics ? (byte) 1 : (byte) 0 );
+                Protocol.CHECKSUMMED_STORE_FILES_SERIALIZER.write( buffer );
             }
         }, new Protocol.FileStreamsDeserializer( storeWriter ) );
     }
@@ -69,6 +70,13 @@ class BackupClient extends Client<TheBackupInterface> implements TheBackupInterf
                 Protocol.VOID_DESERIALIZER );
     }
 
+    public Response<Void> changedPagesBackup( RequestContext context, StoreWriter storeWriter )
+    {
+        return sendRequest( BackupRequestType.CHANGED_PAGES_BACKUP, context,
+                Protocol.CHECKSUMMED_STORE_FILES_SERIALIZER,
+                new Protocol.FileStreamsDeserializer( storeWriter ) );
+    }
+
     @Override
     protected boolean shouldCheckStoreId( RequestType<TheBackupInterface> type )
     {
@@ -83,7 +91,8 @@ class BackupClient extends Client<TheBackupInterface> implements TheBackupInterf
                     ChannelBuffer input, ChannelBuffer target )
             {
                 boolean forensics = input.readable() ? booleanOf( input.readByte() ) : false;
-                return master.fullBackup( new ToNetworkStoreWriter( target, new Monitors() ), forensics );
+                return master.fullBackup( new ToNetworkStoreWriter( target, new Monitors(),
+                        Protocol.checksummedStoreFilesRequested( input ) ), forensics );
             }
 
             private boolean booleanOf( byte value )
@@ -103,6 +112,15 @@ class BackupClient extends Client<TheBackupInterface> implements TheBackupInterf
             {
                 return master.incrementalBackup( context );
             }
+        }, Protocol.VOID_SERIALIZER ),
+        CHANGED_PAGES_BACKUP( new TargetCaller<TheBackupInterface, Void>()
+        {
+            public Response<Void> call( TheBackupInterface master, RequestContext context,
+                    ChannelBuffer input, ChannelBuffer target )
+            {
+                return master.changedPagesBackup( context, new ToNetworkStoreWriter( target, new Monitors(),
+                        Protocol.checksummedStoreFilesRequested( input ) ) );
+            }
         }, Protocol.VOID_SERIALIZER )
 
         ;
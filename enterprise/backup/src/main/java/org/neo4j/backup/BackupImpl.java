@@ -19,15 +19,30 @@
  */
 package org.neo4j.backup;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.neo4j.com.RequestContext;
 import org.neo4j.com.Response;
+import org.neo4j.com.ServerFailureException;
 import org.neo4j.com.ServerUtil;
 import org.neo4j.com.storecopy.StoreWriter;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.Settings;
 import org.neo4j.kernel.DefaultFileSystemAbstraction;
 import org.neo4j.kernel.impl.core.KernelPanicEventGenerator;
+import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.nioneo.store.StoreChannel;
 import org.neo4j.kernel.impl.nioneo.store.StoreId;
+import org.neo4j.kernel.impl.nioneo.store.windowpool.ChangedPages;
+import org.neo4j.kernel.impl.nioneo.store.windowpool.ChangedStorePages;
+import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
 import org.neo4j.kernel.impl.transaction.XaDataSourceManager;
+import org.neo4j.kernel.impl.transaction.xaframework.XaDataSource;
 import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.kernel.monitoring.StoreCopyMonitor;
 import org.neo4j.kernel.monitoring.Monitors;
@@ -40,6 +55,11 @@ class BackupImpl implements TheBackupInterface
     {
         String getStoreDir();
         StoreId getStoreId();
+
+        /**
+         * @return the changed pages of the store files, or {@code null} if they are not tracked.
+         */
+        ChangedStorePages getChangedStorePages();
     }
 
     private final StringLogger logger;
@@ -65,6 +85,12 @@ class BackupImpl implements TheBackupInterface
                 xaDataSourceManager,
                 kpeg, logger, forensics, writer, new DefaultFileSystemAbstraction(), storeCopyMonitor );
         writer.done();
+        ChangedStorePages changedStorePages = spi.getChangedStorePages();
+        if ( changedStorePages != null )
+        {
+            // The backup will contain at least all transactions up to here, so later backups can be based on it
+            xaDataSourceManager.getNeoStoreDataSource().startNewChangedPagesBaseline( changedStorePages );
+        }
         storeCopyMonitor.finishedCopyingStoreFiles();
         return packResponse( context );
     }
@@ -75,6 +101,86 @@ class BackupImpl implements TheBackupInterface
         return packResponse( context );
     }
 
+    @Override
+    public Response<Void> changedPagesBackup( RequestContext context, StoreWriter writer )
+    {
+        ChangedStorePages changedStorePages = spi.getChangedStorePages();
+        if ( changedStorePages == null )
+        {
+            throw new IllegalStateException( "Changed pages of the store files are not tracked, see " +
+                    GraphDatabaseSettings.track_changed_store_pages.name() );
+        }
+        NeoStoreXaDataSource neoStoreDataSource = xaDataSourceManager.getNeoStoreDataSource();
+        long backupTx = lastAppliedTx( context, neoStoreDataSource.getName() );
+
+        storeCopyMonitor.startCopyingFiles();
+        RequestContext rotationContext = RequestContext.anonymous(
+                ServerUtil.rotateLogs( xaDataSourceManager, kpeg, logger ) );
+        storeCopyMonitor.finishedRotatingLogicalLogs();
+        Map<String, ChangedPages.Snapshot> changes = new HashMap<>();
+        for ( ChangedPages.Snapshot snapshot :
+                neoStoreDataSource.startNewChangedPagesBaseline( changedStorePages, backupTx ) )
+        {
+            if ( snapshot.baselineTx() == ChangedPages.NO_BASELINE || snapshot.baselineTx() > backupTx )
+            {
+                throw new IllegalStateException( "Changed pages of " + snapshot.storeFile().getName() +
+                        " are not known since transaction " + backupTx + " of the backup" );
+            }
+            changes.put( snapshot.storeFile().getName(), snapshot );
+        }
+
+        try
+        {
+            streamChangedStoreFiles( writer, changes );
+        }
+        catch ( IOException e )
+        {
+            throw new ServerFailureException( e );
+        }
+        writer.done();
+        storeCopyMonitor.finishedCopyingStoreFiles();
+        return packResponse( rotationContext );
+    }
+
+    private void streamChangedStoreFiles( StoreWriter writer, Map<String, ChangedPages.Snapshot> changes )
+            throws IOException
+    {
+        FileSystemAbstraction fileSystem = new DefaultFileSystemAbstraction();
+        File baseDir = ServerUtil.getBaseDir( spi.getStoreDir() );
+        ByteBuffer temporaryBuffer = ByteBuffer.allocateDirect( 1024 * 1024 );
+        for ( XaDataSource ds : xaDataSourceManager.getAllRegisteredDataSources() )
+        {
+            try ( ResourceIterator<File> files = ds.listStoreFiles() )
+            {
+                while ( files.hasNext() )
+                {
+                    File storeFile = files.next();
+                    storeCopyMonitor.streamingFile( storeFile );
+                    ChangedPages.Snapshot snapshot = changes.get( storeFile.getName() );
+                    try ( StoreChannel channel = fileSystem.open( storeFile, "r" ) )
+                    {
+                        writer.write( ServerUtil.relativePath( baseDir, storeFile ), snapshot != null ?
+                                ChangedPagesStream.changedPages( channel, snapshot ) :
+                                ChangedPagesStream.wholeFile( channel ), temporaryBuffer, true );
+                    }
+                    storeCopyMonitor.streamedFile( storeFile );
+                }
+            }
+        }
+    }
+
+    private static long lastAppliedTx( RequestContext context, String dataSourceName )
+    {
+        for ( RequestContext.Tx tx : context.lastAppliedTransactions() )
+        {
+            if ( tx.getDataSourceName().equals( dataSourceName ) )
+            {
+                return tx.getTxId();
+            }
+        }
+        throw new IllegalArgumentException( "No transaction of data source " + dataSourceName + " in " + context );
+    }
+
     private Response<Void> packResponse( RequestContext context )
     {
         // On Windows there's a problem extracting logs from the current log version
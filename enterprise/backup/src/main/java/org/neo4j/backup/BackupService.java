@@ -57,6 +57,7 @@ import org.neo4j.kernel.extension.KernelExtensionFactory;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 import org.neo4j.kernel.impl.nioneo.store.MismatchingStoreIdException;
 import org.neo4j.kernel.impl.nioneo.store.NeoStore;
+import org.neo4j.kernel.impl.nioneo.store.StoreId;
 import org.neo4j.kernel.impl.transaction.XaDataSourceManager;
 import org.neo4j.kernel.impl.transaction.xaframework.NoSuchLogVersionException;
 import org.neo4j.kernel.impl.transaction.xaframework.XaDataSource;
@@ -98,6 +99,10 @@ class BackupService
 
     static final String DIFFERENT_STORE = "Target directory contains full backup of a logically different store.";
 
+    static final String CHANGED_PAGES_COPY = "changed-pages-copy";
+
+    static final String PREVIOUS_BACKUP = "previous-backup";
+
     private final FileSystemAbstraction fileSystem;
     private final StringLogger logger;
 
@@ -125,13 +130,151 @@ class BackupService
             throw new RuntimeException( targetDirectory + " already contains a database" );
         }
 
-        Map<String, String> params = tuningConfiguration.getParams();
-        params.put( GraphDatabaseSettings.store_dir.name(), targetDirectory );
-        tuningConfiguration.applyChanges( params );
+        long timestamp = System.currentTimeMillis();
+        copyStore( sourceHostNameOrIp, sourcePort, null, targetDirectory, tuningConfiguration, new StoreRequest()
+        {
+            @Override
+            public Response<?> request( BackupClient client, StoreWriter writer )
+            {
+                return client.fullBackup( writer, forensics );
+            }
+        } );
+        bumpLogFile( targetDirectory, timestamp );
+        return new BackupOutcome( new TreeMap<String, Long>(),
+                checkConsistency( targetDirectory, checkConsistency, tuningConfiguration ) );
+    }
+
+    /**
+     * Brings an existing backup up to date by fetching only the pages of the store files which have changed
+     * since it was taken, which works regardless of how many logical logs the database keeps, provided that it
+     * {@link GraphDatabaseSettings#track_changed_store_pages tracks changed pages}. The new backup is assembled
+     * in a directory next to the existing one. The existing backup is then renamed aside, the new one renamed into
+     * its place and only after that is the existing one deleted. A backup interrupted between the two renames is
+     * put back by the next backup to the same directory, see {@link #restoreInterruptedBackup(File)}.
+     */
+    BackupOutcome doChangedPagesBackup( String sourceHostNameOrIp, int sourcePort, String targetDirectory,
+                                        boolean checkConsistency, Config tuningConfiguration )
+    {
+        final File target = new File( targetDirectory ).getAbsoluteFile();
+        restoreInterruptedBackup( target );
+        if ( !directoryContainsDb( targetDirectory ) )
+        {
+            throw new RuntimeException( targetDirectory + " doesn't contain a database" );
+        }
+
+        final RequestContext context;
+        StoreId storeId;
+        GraphDatabaseAPI existingDb = startTemporaryDb( targetDirectory );
+        try
+        {
+            context = slaveContextOf( existingDb );
+            storeId = existingDb.storeId();
+        }
+        finally
+        {
+            existingDb.shutdown();
+        }
 
         long timestamp = System.currentTimeMillis();
-        Map<String, Long> lastCommittedTxs = new TreeMap<>();
-        boolean consistent = !checkConsistency; // default to true if we're not checking consistency
+        File copy = siblingOf( target, CHANGED_PAGES_COPY );
+        File previous = siblingOf( target, PREVIOUS_BACKUP );
+        try
+        {
+            fileSystem.deleteRecursively( copy );
+            copyStore( sourceHostNameOrIp, sourcePort, storeId, copy.getPath(), tuningConfiguration,
+                    new StoreRequest()
+            {
+                @Override
+                public Response<?> request( BackupClient client, StoreWriter writer )
+                {
+                    return client.changedPagesBackup( context,
+                            ChangedPagesStream.applyingTo( writer, target, fileSystem ) );
+                }
+            } );
+
+            bumpLogFile( targetDirectory, timestamp );
+            fileSystem.deleteRecursively( previous );
+            rename( target, previous );
+            try
+            {
+                rename( copy, target );
+            }
+            catch ( IOException e )
+            {
+                rename( previous, target );
+                throw e;
+            }
+            for ( File file : fileSystem.listFiles( previous ) )
+            {
+                if ( file.getName().startsWith( StringLogger.DEFAULT_NAME ) )
+                {
+                    fileSystem.moveToDirectory( file, target );
+                }
+            }
+            fileSystem.deleteRecursively( previous );
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+        return new BackupOutcome( new TreeMap<String, Long>(),
+                checkConsistency( targetDirectory, checkConsistency, tuningConfiguration ) );
+    }
+
+    /**
+     * A changed pages backup that was interrupted after the existing backup was renamed aside, but before the new
+     * one was renamed into its place, leaves the existing backup next to the target. This puts it back. If the new
+     * backup did make it into place, what is left of the existing one is deleted.
+     */
+    private void restoreInterruptedBackup( File target )
+    {
+        File previous = siblingOf( target, PREVIOUS_BACKUP );
+        if ( !fileSystem.fileExists( previous ) )
+        {
+            return;
+        }
+        try
+        {
+            if ( !directoryContainsDb( target.getPath() ) )
+            {
+                fileSystem.deleteRecursively( target );
+                rename( previous, target );
+            }
+            else
+            {
+                fileSystem.deleteRecursively( previous );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( "Unable to restore the backup in " + previous + " to " + target, e );
+        }
+    }
+
+    private static File siblingOf( File directory, String suffix )
+    {
+        return new File( directory.getParentFile(), directory.getName() + "-" + suffix );
+    }
+
+    private void rename( File from, File to ) throws IOException
+    {
+        if ( !fileSystem.renameFile( from, to ) )
+        {
+            throw new IOException( "Unable to rename " + from + " to " + to );
+        }
+    }
+
+    private interface StoreRequest
+    {
+        Response<?> request( BackupClient client, StoreWriter writer );
+    }
+
+    private void copyStore( final String sourceHostNameOrIp, final int sourcePort, final StoreId storeId,
+                            String storeDirectory, Config tuningConfiguration, final StoreRequest storeRequest )
+    {
+        Map<String, String> params = tuningConfiguration.getParams();
+        params.put( GraphDatabaseSettings.store_dir.name(), storeDirectory );
+        tuningConfiguration.applyChanges( params );
 
         GraphDatabaseAPI targetDb = null;
         try
@@ -146,9 +289,9 @@ class BackupService
                 public Response<?> copyStore( StoreWriter writer )
                 {
                     client = new BackupClient( sourceHostNameOrIp, sourcePort, new DevNullLoggingService(),
-                            new Monitors(), null );
+                            new Monitors(), storeId );
                     client.start();
-                    return client.fullBackup( writer, forensics );
+                    return storeRequest.request( client, writer );
                 }
 
                 @Override
@@ -158,7 +301,7 @@ class BackupService
                 }
             }, CancellationRequest.NONE );
 
-            targetDb = startTemporaryDb( targetDirectory, VerificationLevel.NONE /* run full check instead */ );
+            targetDb = startTemporaryDb( storeDirectory, VerificationLevel.NONE /* run full check instead */ );
             new LogicalLogSeeder(logger).ensureAtLeastOneLogicalLogPresent( sourceHostNameOrIp, sourcePort, targetDb );
         }
         catch ( IOException e )
@@ -172,7 +315,11 @@ class BackupService
                 targetDb.shutdown();
             }
         }
-        bumpLogFile( targetDirectory, timestamp );
+    }
+
+    private boolean checkConsistency( String targetDirectory, boolean checkConsistency, Config tuningConfiguration )
+    {
+        boolean consistent = !checkConsistency; // default to true if we're not checking consistency
         if ( checkConsistency )
         {
             try
@@ -192,7 +339,7 @@ class BackupService
                 logger.flush();
             }
         }
-        return new BackupOutcome( lastCommittedTxs, consistent );
+        return consistent;
     }
 
     BackupOutcome doIncrementalBackup( String sourceHostNameOrIp, int sourcePort, String targetDirectory,
@@ -234,6 +381,7 @@ class BackupService
     BackupOutcome doIncrementalBackupOrFallbackToFull( String sourceHostNameOrIp, int sourcePort, String targetDirectory,
                                                        boolean verification, Config config, boolean forensics )
     {
+        restoreInterruptedBackup( new File( targetDirectory ).getAbsoluteFile() );
         if(!directoryContainsDb( targetDirectory ))
         {
             return doFullBackup( sourceHostNameOrIp, sourcePort, targetDirectory, verification, config, forensics );
@@ -245,6 +393,16 @@ class BackupService
         }
         catch(IncrementalBackupNotPossibleException e)
         {
+            try
+            {
+                return doChangedPagesBackup( sourceHostNameOrIp, sourcePort, targetDirectory, verification, config );
+            }
+            catch ( RuntimeException changedPagesFailure )
+            {
+                logger.info( "Unable to update existing backup with the changed pages of the store files: " +
+                        changedPagesFailure.getMessage() );
+            }
+
             try
             {
                 // Our existing backup is out of date.
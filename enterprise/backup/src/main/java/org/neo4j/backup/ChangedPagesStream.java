@@ -0,0 +1,335 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.backup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+import org.neo4j.com.storecopy.StoreWriter;
+import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.nioneo.store.StoreChannel;
+import org.neo4j.kernel.impl.nioneo.store.windowpool.ChangedPages;
+
+import static org.neo4j.kernel.impl.nioneo.store.windowpool.ChangedPages.PAGE_SIZE;
+
+/**
+ * The format of the store files streamed by a changed pages backup. Each file is either sent whole, or as the
+ * length of the file followed by the pages that have changed since the baseline of the backup, in runs of
+ * consecutive pages, each prefixed with its offset and length. An offset of -1 ends the runs.
+ */
+class ChangedPagesStream
+{
+    private static final byte WHOLE_FILE = 0;
+    private static final byte CHANGED_PAGES = 1;
+    private static final int MAX_RUN_LENGTH = 128 * PAGE_SIZE;
+    private static final long END_OF_RUNS = -1;
+
+    private ChangedPagesStream()
+    {
+    }
+
+    static ReadableByteChannel wholeFile( final ReadableByteChannel file )
+    {
+        return new ReadableByteChannel()
+        {
+            private boolean headerWritten;
+
+            @Override
+            public int read( ByteBuffer dst ) throws IOException
+            {
+                if ( !headerWritten )
+                {
+                    dst.put( WHOLE_FILE );
+                    headerWritten = true;
+                    return 1;
+                }
+                return file.read( dst );
+            }
+
+            @Override
+            public boolean isOpen()
+            {
+                return file.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException
+            {
+                file.close();
+            }
+        };
+    }
+
+    static ReadableByteChannel changedPages( StoreChannel file, ChangedPages.Snapshot changes ) throws IOException
+    {
+        return new ChangedPagesChannel( file, changes );
+    }
+
+    /**
+     * Wraps the {@link StoreWriter} that writes the files of the new backup, turning the changed pages of a
+     * file into the whole file by filling in the unchanged pages from the file in the existing backup.
+     */
+    static StoreWriter applyingTo( final StoreWriter writer, final File existingBackup,
+            final FileSystemAbstraction fileSystem )
+    {
+        return new StoreWriter()
+        {
+            private final ByteBuffer kind = ByteBuffer.allocate( 1 );
+
+            @Override
+            public int write( String path, ReadableByteChannel data, ByteBuffer temporaryBuffer, boolean hasData )
+                    throws IOException
+            {
+                kind.clear();
+                readFully( data, kind );
+                if ( kind.get( 0 ) == WHOLE_FILE )
+                {
+                    return writer.write( path, data, temporaryBuffer, hasData );
+                }
+
+                File existing = new File( existingBackup, path );
+                if ( !fileSystem.fileExists( existing ) )
+                {
+                    throw new IOException( "Changed pages were sent for " + path +
+                            ", but the existing backup does not have that file" );
+                }
+                try ( StoreChannel existingChannel = fileSystem.open( existing, "r" ) )
+                {
+                    return writer.write( path, new MergingChannel( existingChannel, data ), temporaryBuffer, true );
+                }
+            }
+
+            @Override
+            public void done()
+            {
+                writer.done();
+            }
+        };
+    }
+
+    private static void readFully( ReadableByteChannel channel, ByteBuffer buffer ) throws IOException
+    {
+        while ( buffer.hasRemaining() )
+        {
+            if ( channel.read( buffer ) < 0 )
+            {
+                throw new IOException( "Unexpected end of changed pages stream" );
+            }
+        }
+        buffer.flip();
+    }
+
+    private static class ChangedPagesChannel implements ReadableByteChannel
+    {
+        private final StoreChannel file;
+        private final ChangedPages.Snapshot changes;
+        private final long length;
+        private final ByteBuffer header = ByteBuffer.allocate( 1 + 8 + 4 );
+        private long nextPage;
+        private long position;
+        private int remainingInRun;
+        private boolean ended;
+
+        ChangedPagesChannel( StoreChannel file, ChangedPages.Snapshot changes ) throws IOException
+        {
+            this.file = file;
+            this.changes = changes;
+            this.length = file.size();
+            header.put( CHANGED_PAGES ).putLong( length ).flip();
+        }
+
+        @Override
+        public int read( ByteBuffer dst ) throws IOException
+        {
+            if ( !header.hasRemaining() )
+            {
+                if ( remainingInRun == 0 )
+                {
+                    if ( ended )
+                    {
+                        return -1;
+                    }
+                    nextRun();
+                }
+                else
+                {
+                    int limit = dst.limit();
+                    dst.limit( dst.position() + Math.min( dst.remaining(), remainingInRun ) );
+                    int read = file.read( dst, position );
+                    dst.limit( limit );
+                    if ( read < 0 )
+                    {
+                        throw new IOException( "Store file shrunk while its changed pages were being read" );
+                    }
+                    position += read;
+                    remainingInRun -= read;
+                    return read;
+                }
+            }
+            int count = Math.min( dst.remaining(), header.remaining() );
+            for ( int i = 0; i < count; i++ )
+            {
+                dst.put( header.get() );
+            }
+            return count;
+        }
+
+        private void nextRun()
+        {
+            while ( nextPage * PAGE_SIZE < length && !changes.isChanged( nextPage ) )
+            {
+                nextPage++;
+            }
+            header.clear();
+            if ( nextPage * PAGE_SIZE >= length )
+            {
+                header.putLong( END_OF_RUNS );
+                ended = true;
+            }
+            else
+            {
+                long start = nextPage * PAGE_SIZE;
+                long end = start;
+                while ( nextPage * PAGE_SIZE < length && changes.isChanged( nextPage ) && end - start < MAX_RUN_LENGTH )
+                {
+                    nextPage++;
+                    end = Math.min( nextPage * PAGE_SIZE, length );
+                }
+                position = start;
+                remainingInRun = (int) (end - start);
+                header.putLong( start ).putInt( remainingInRun );
+            }
+            header.flip();
+        }
+
+        @Override
+        public boolean isOpen()
+        {
+            return file.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            file.close();
+        }
+    }
+
+    private static class MergingChannel implements ReadableByteChannel
+    {
+        private final StoreChannel existing;
+        private final ReadableByteChannel changes;
+        private final ByteBuffer header = ByteBuffer.allocate( 8 + 4 );
+        private final long length;
+        private long position;
+        private long runStart;
+        private int remainingInRun;
+
+        MergingChannel( StoreChannel existing, ReadableByteChannel changes ) throws IOException
+        {
+            this.existing = existing;
+            this.changes = changes;
+            header.limit( 8 );
+            readFully( changes, header );
+            this.length = header.getLong();
+            nextRun();
+        }
+
+        @Override
+        public int read( ByteBuffer dst ) throws IOException
+        {
+            if ( position >= length )
+            {
+                return -1;
+            }
+            int read;
+            if ( remainingInRun > 0 && position == runStart )
+            {
+                ByteBuffer run = dst.slice();
+                run.limit( Math.min( run.remaining(), remainingInRun ) );
+                read = changes.read( run );
+                if ( read < 0 )
+                {
+                    throw new IOException( "Unexpected end of changed pages stream" );
+                }
+                dst.position( dst.position() + read );
+                runStart += read;
+                remainingInRun -= read;
+            }
+            else
+            {
+                long unchangedEnd = remainingInRun > 0 ? runStart : length;
+                int limit = dst.limit();
+                dst.limit( dst.position() + (int) Math.min( dst.remaining(), unchangedEnd - position ) );
+                read = existing.read( dst, position );
+                if ( read < 0 )
+                {
+                    // The file has grown past the existing backup, and what was not sent of that is unused
+                    read = dst.remaining();
+                    while ( dst.hasRemaining() )
+                    {
+                        dst.put( (byte) 0 );
+                    }
+                }
+                dst.limit( limit );
+            }
+            position += read;
+            if ( remainingInRun == 0 && runStart != END_OF_RUNS )
+            {
+                nextRun();
+            }
+            return read;
+        }
+
+        private void nextRun() throws IOException
+        {
+            header.clear().limit( 8 );
+            readFully( changes, header );
+            runStart = header.getLong();
+            if ( runStart == END_OF_RUNS )
+            {
+                remainingInRun = 0;
+                return;
+            }
+            header.clear().limit( 4 );
+            readFully( changes, header );
+            remainingInRun = header.getInt();
+            if ( runStart < position || runStart + remainingInRun > length )
+            {
+                throw new IOException( "Changed pages out of order, run at " + runStart + " of length " +
+                        remainingInRun + " while at " + position + " of " + length );
+            }
+        }
+
+        @Override
+        public boolean isOpen()
+        {
+            return existing.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            existing.close();
+        }
+    }
+}
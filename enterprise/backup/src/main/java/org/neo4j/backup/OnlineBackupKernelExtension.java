@@ -35,6 +35,7 @@ import org.neo4j.kernel.GraphDatabaseAPI;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.core.KernelPanicEventGenerator;
 import org.neo4j.kernel.impl.nioneo.store.StoreId;
+import org.neo4j.kernel.impl.nioneo.store.windowpool.ChangedStorePages;
 import org.neo4j.kernel.impl.transaction.XaDataSourceManager;
 import org.neo4j.kernel.lifecycle.Lifecycle;
 import org.neo4j.kernel.logging.Logging;
@@ -81,6 +82,21 @@ public class OnlineBackupKernelExtension implements Lifecycle
                     {
                         return graphDatabaseAPI.storeId();
                     }
+
+                    @Override
+                    public ChangedStorePages getChangedStorePages()
+                    {
+                        try
+                        {
+                            return graphDatabaseAPI.getDependencyResolver().resolveDependency(
+                                    ChangedStorePages.class );
+                        }
+                        catch ( IllegalArgumentException e )
+                        {
+                            // Changed pages are not tracked
+                            return null;
+                        }
+                    }
                 }, xaDataSourceManager, kpeg, monitors );
             }
         }, monitors, logging);
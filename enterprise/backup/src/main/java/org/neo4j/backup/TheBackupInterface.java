@@ -28,4 +28,11 @@ public interface TheBackupInterface
     Response<Void> fullBackup( StoreWriter writer, boolean forensics );
     
     Response<Void> incrementalBackup( RequestContext context );
+
+    /**
+     * Brings a backup, which is at the transactions of the given context, up to date by sending the pages of
+     * the store files that have changed since then, followed by the transactions committed while sending them.
+     * Files whose changes are not tracked are sent whole.
+     */
+    Response<Void> changedPagesBackup( RequestContext context, StoreWriter writer );
 }
@@ -115,5 +115,11 @@ public class BackupProtocolTest
         {
             throw new UnsupportedOperationException( "Should be required" );
         }
+
+        @Override
+        public Response<Void> changedPagesBackup( RequestContext context, StoreWriter writer )
+        {
+            throw new UnsupportedOperationException( "Should be required" );
+        }
     }
 }
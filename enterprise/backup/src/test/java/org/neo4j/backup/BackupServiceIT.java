@@ -298,6 +298,153 @@ public class BackupServiceIT
         assertEquals( DbRepresentation.of( storeDir ), DbRepresentation.of( backupDir ) );
     }
 
+    @Test
+    public void shouldUpdateBackupWithChangedPagesIfLogsPrunedPastThePointOfNoReturn() throws Exception
+    {
+        // Given
+        Map<String, String> config = defaultBackupPortHostParams();
+        config.put( GraphDatabaseSettings.keep_logical_logs.name(), "false" );
+        config.put( GraphDatabaseSettings.track_changed_store_pages.name(), "true" );
+        GraphDatabaseAPI db = createDb( storeDir, config );
+        BackupService backupService = new BackupService( fileSystem );
+
+        for ( int i = 0; i < 1000; i++ )
+        {
+            createAndIndexNode( db, i );
+        }
+
+        // A full backup
+        backupService.doFullBackup( BACKUP_HOST, backupPort, backupDir.getAbsolutePath(), false, defaultConfig(), false );
+
+        // And the log the backup uses is rotated out, also across a restart
+        updateNodes( db, 0, 10 );
+        rotateLog( db );
+        db.shutdown();
+        db = createDb( storeDir, config );
+        updateNodes( db, 500, 510 );
+        createAndIndexNode( db, 1000 );
+        rotateLog( db );
+        createAndIndexNode( db, 1001 );
+        rotateLog( db );
+
+        // when
+        backupService.doChangedPagesBackup( BACKUP_HOST, backupPort, backupDir.getAbsolutePath(), false,
+                defaultConfig() );
+
+        // Then
+        assertEquals( DbRepresentation.of( db ), DbRepresentation.of( backupDir ) );
+
+        // and again, from the baseline of the last backup
+        updateNodes( db, 990, 1000 );
+        rotateLog( db );
+        createAndIndexNode( db, 1002 );
+        rotateLog( db );
+        backupService.doChangedPagesBackup( BACKUP_HOST, backupPort, backupDir.getAbsolutePath(), false,
+                defaultConfig() );
+        db.shutdown();
+        assertEquals( DbRepresentation.of( storeDir ), DbRepresentation.of( backupDir ) );
+    }
+
+    @Test
+    public void shouldKeepExistingBackupIfChangedPagesBackupFailsWhileMovingItIntoPlace() throws Exception
+    {
+        // Given
+        Map<String, String> config = defaultBackupPortHostParams();
+        config.put( GraphDatabaseSettings.track_changed_store_pages.name(), "true" );
+        GraphDatabaseAPI db = createDb( storeDir, config );
+        createAndIndexNode( db, 1 );
+        new BackupService( fileSystem ).doFullBackup( BACKUP_HOST, backupPort, backupDir.getAbsolutePath(), false,
+                defaultConfig(), false );
+        DbRepresentation backup = DbRepresentation.of( backupDir );
+        createAndIndexNode( db, 2 );
+
+        // When the new backup fails to be renamed into the place of the existing one
+        final File newBackup = new File( testDirectory.directory(),
+                backupDir.getName() + "-" + BackupService.CHANGED_PAGES_COPY );
+        FileSystemAbstraction failingFileSystem = new DefaultFileSystemAbstraction()
+        {
+            @Override
+            public boolean renameFile( File from, File to ) throws IOException
+            {
+                if ( from.getAbsoluteFile().equals( newBackup.getAbsoluteFile() ) )
+                {
+                    throw new IOException( "Simulated failure to rename " + from );
+                }
+                return super.renameFile( from, to );
+            }
+        };
+        try
+        {
+            new BackupService( failingFileSystem ).doChangedPagesBackup( BACKUP_HOST, backupPort,
+                    backupDir.getAbsolutePath(), false, defaultConfig() );
+            fail( "Should have thrown exception." );
+        }
+
+        // Then
+        catch ( RuntimeException e )
+        {
+            assertThat( e.getCause().getMessage(), containsString( "Simulated failure" ) );
+        }
+        assertEquals( backup, DbRepresentation.of( backupDir ) );
+
+        // And the existing backup can still be brought up to date
+        new BackupService( fileSystem ).doChangedPagesBackup( BACKUP_HOST, backupPort, backupDir.getAbsolutePath(),
+                false, defaultConfig() );
+        assertEquals( DbRepresentation.of( db ), DbRepresentation.of( backupDir ) );
+        db.shutdown();
+    }
+
+    @Test
+    public void shouldRestoreExistingBackupLeftAsideByAnInterruptedChangedPagesBackup() throws Exception
+    {
+        // Given a backup that was renamed aside, as by a changed pages backup that crashed before the new backup
+        // was renamed into its place
+        Map<String, String> config = defaultBackupPortHostParams();
+        config.put( GraphDatabaseSettings.track_changed_store_pages.name(), "true" );
+        GraphDatabaseAPI db = createDb( storeDir, config );
+        createAndIndexNode( db, 1 );
+        new BackupService( fileSystem ).doFullBackup( BACKUP_HOST, backupPort, backupDir.getAbsolutePath(), false,
+                defaultConfig(), false );
+        assertTrue( fileSystem.renameFile( backupDir, new File( testDirectory.directory(),
+                backupDir.getName() + "-" + BackupService.PREVIOUS_BACKUP ) ) );
+        createAndIndexNode( db, 2 );
+
+        // When
+        new BackupService( fileSystem ).doChangedPagesBackup( BACKUP_HOST, backupPort, backupDir.getAbsolutePath(),
+                false, defaultConfig() );
+
+        // Then
+        assertEquals( DbRepresentation.of( db ), DbRepresentation.of( backupDir ) );
+        db.shutdown();
+    }
+
+    @Test
+    public void shouldNotUpdateBackupWithChangedPagesIfTheyAreNotTracked() throws Exception
+    {
+        // Given
+        GraphDatabaseAPI db = createDb( storeDir, defaultBackupPortHostParams() );
+        BackupService backupService = new BackupService( fileSystem );
+        createAndIndexNode( db, 1 );
+        backupService.doFullBackup( BACKUP_HOST, backupPort, backupDir.getAbsolutePath(), false, defaultConfig(), false );
+        DbRepresentation backup = DbRepresentation.of( backupDir );
+        createAndIndexNode( db, 2 );
+
+        // when
+        try
+        {
+            backupService.doChangedPagesBackup( BACKUP_HOST, backupPort, backupDir.getAbsolutePath(), false,
+                    defaultConfig() );
+            fail( "Should have thrown exception." );
+        }
+
+        // Then
+        catch ( RuntimeException e )
+        {
+            assertEquals( backup, DbRepresentation.of( backupDir ) );
+        }
+        db.shutdown();
+    }
+
     @Test
     public void shouldHandleBackupWhenLogFilesHaveBeenDeleted() throws Exception
     {
@@ -586,6 +733,18 @@ public class BackupServiceIT
         }
     }
 
+    private void updateNodes( GraphDatabaseService db, long fromId, long toId )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( long id = fromId; id < toId; id++ )
+            {
+                db.getNodeById( id ).setProperty( "updated", true );
+            }
+            tx.success();
+        }
+    }
+
     private BaseMatcher<File[]> hasFile( final String fileName )
     {
         return new BaseMatcher<File[]>()
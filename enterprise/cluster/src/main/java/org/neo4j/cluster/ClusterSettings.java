@@ -28,6 +28,7 @@ import org.neo4j.helpers.HostnamePort;
 import static org.neo4j.helpers.Settings.ANY;
 import static org.neo4j.helpers.Settings.BOOLEAN;
 import static org.neo4j.helpers.Settings.DURATION;
+import static org.neo4j.helpers.Settings.FALSE;
 import static org.neo4j.helpers.Settings.HOSTNAME_PORT;
 import static org.neo4j.helpers.Settings.MANDATORY;
 import static org.neo4j.helpers.Settings.STRING;
@@ -84,6 +85,12 @@ public class ClusterSettings
     @Description( "Whether to allow this instance to create a cluster if unable to join." )
     public static final Setting<Boolean> allow_init_cluster = setting( "ha.allow_init_cluster", BOOLEAN, TRUE );
 
+    @Description( "Whether to send cluster messages in the compact binary format rather than as serialized java " +
+            "objects. Messages in either format are always accepted. Only enable this once every instance in the " +
+            "cluster runs a version that can read the compact format, that is after any rolling upgrade." )
+    public static final Setting<Boolean> compact_cluster_messages = setting( "ha.compact_cluster_messages", BOOLEAN,
+            FALSE );
+
     // Timeout settings
 
     /*
@@ -110,6 +110,12 @@ public class NetworkedServerFactory
             {
                 return config.get( ClusterSettings.cluster_server ).getPort();
             }
+
+            @Override
+            public boolean compactMessages()
+            {
+                return config.get( ClusterSettings.compact_cluster_messages );
+            }
         }, receiver, logging );
 
         ExecutorLifecycleAdapter stateMachineExecutor = new ExecutorLifecycleAdapter( new Factory<ExecutorService>()
@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cluster.com;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.oneone.OneToOneEncoder;
+
+import org.neo4j.cluster.com.message.CompactMessageCodec;
+import org.neo4j.cluster.com.message.Message;
+
+/**
+ * Writes {@link Message messages} as frames of the {@link CompactMessageCodec compact format}: the frame length,
+ * {@link #FORMAT_MARKER}, the format version and the encoded message. See {@link MessageFrameDecoder}.
+ */
+public class CompactMessageEncoder extends OneToOneEncoder
+{
+    /**
+     * Follows the length of compact frames. The {@link org.jboss.netty.handler.codec.serialization.ObjectEncoder}
+     * frames of older instances start with the serialization stream version instead, which is never this value.
+     */
+    public static final byte FORMAT_MARKER = (byte) 0xCE;
+
+    private final CompactMessageCodec codec;
+    private final int estimatedLength;
+
+    public CompactMessageEncoder( ClassLoader classLoader, int estimatedLength )
+    {
+        this.codec = new CompactMessageCodec( classLoader );
+        this.estimatedLength = estimatedLength;
+    }
+
+    @Override
+    protected Object encode( ChannelHandlerContext ctx, Channel channel, Object msg ) throws Exception
+    {
+        if ( !(msg instanceof Message) )
+        {
+            return msg;
+        }
+
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer( estimatedLength );
+        buffer.writeInt( 0 );
+        buffer.writeByte( FORMAT_MARKER );
+        buffer.writeByte( CompactMessageCodec.VERSION );
+        codec.write( (Message<?>) msg, buffer );
+        buffer.setInt( 0, buffer.writerIndex() - 4 );
+        return buffer;
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cluster.com;
+
+import java.io.IOException;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.frame.TooLongFrameException;
+import org.jboss.netty.handler.codec.serialization.ObjectDecoder;
+
+import org.neo4j.cluster.com.message.CompactMessageCodec;
+
+/**
+ * Reads {@link org.neo4j.cluster.com.message.Message messages} written either by a {@link CompactMessageEncoder},
+ * or by the {@link org.jboss.netty.handler.codec.serialization.ObjectEncoder} of instances that do not use the
+ * compact format, so that both kinds of instances can be members of the same cluster.
+ */
+public class MessageFrameDecoder extends ObjectDecoder
+{
+    private final int maxFrameLength;
+    private final CompactMessageCodec codec;
+
+    public MessageFrameDecoder( int maxFrameLength, ClassLoader classLoader )
+    {
+        super( maxFrameLength, classLoader );
+        this.maxFrameLength = maxFrameLength;
+        this.codec = new CompactMessageCodec( classLoader );
+    }
+
+    @Override
+    protected Object decode( ChannelHandlerContext ctx, Channel channel, ChannelBuffer buffer ) throws Exception
+    {
+        // The length field and the first byte of the frame tell which format it is in
+        if ( buffer.readableBytes() < 5 )
+        {
+            return null;
+        }
+        int start = buffer.readerIndex();
+        if ( buffer.getByte( start + 4 ) != CompactMessageEncoder.FORMAT_MARKER )
+        {
+            return super.decode( ctx, channel, buffer );
+        }
+
+        int length = buffer.getInt( start );
+        if ( length > maxFrameLength )
+        {
+            throw new TooLongFrameException( "Adjusted frame length exceeds " + maxFrameLength + ": " + length );
+        }
+        if ( buffer.readableBytes() < length + 4 )
+        {
+            return null;
+        }
+
+        ChannelBuffer frame = buffer.slice( start + 5, length - 1 );
+        buffer.skipBytes( length + 4 );
+
+        byte version = frame.readByte();
+        if ( version != CompactMessageCodec.VERSION )
+        {
+            throw new IOException( "Unsupported cluster message format version " + version + ", expected " +
+                    CompactMessageCodec.VERSION );
+        }
+        return codec.read( frame );
+    }
+}
@@ -86,6 +86,8 @@ public class NetworkSender
         int defaultPort(); // This is the default port to try to connect to
 
         int port(); // This is the port we are listening on
+
+        boolean compactMessages(); // Whether to send messages in the compact format, see MessageFrameDecoder
     }
 
     public interface NetworkChannelsListener
@@ -409,7 +411,14 @@ public class NetworkSender
         public ChannelPipeline getPipeline() throws Exception
         {
             ChannelPipeline pipeline = Channels.pipeline();
-            pipeline.addLast( "frameEncoder", new ObjectEncoder( 2048 ) );
+            if ( config.compactMessages() )
+            {
+                pipeline.addLast( "frameEncoder", new CompactMessageEncoder( getClass().getClassLoader(), 256 ) );
+            }
+            else
+            {
+                pipeline.addLast( "frameEncoder", new ObjectEncoder( 2048 ) );
+            }
             pipeline.addLast( "sender", new NetworkMessageSender() );
             return pipeline;
         }
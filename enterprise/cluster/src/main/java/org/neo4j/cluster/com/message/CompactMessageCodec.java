@@ -0,0 +1,472 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cluster.com.message;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBufferInputStream;
+
+import org.neo4j.cluster.InstanceId;
+import org.neo4j.cluster.protocol.atomicbroadcast.Payload;
+import org.neo4j.cluster.protocol.atomicbroadcast.multipaxos.AcceptorMessage;
+import org.neo4j.cluster.protocol.atomicbroadcast.multipaxos.AtomicBroadcastMessage;
+import org.neo4j.cluster.protocol.atomicbroadcast.multipaxos.LearnerMessage;
+import org.neo4j.cluster.protocol.atomicbroadcast.multipaxos.ProposerMessage;
+import org.neo4j.cluster.protocol.cluster.ClusterMessage;
+import org.neo4j.cluster.protocol.election.ElectionMessage;
+import org.neo4j.cluster.protocol.heartbeat.HeartbeatMessage;
+import org.neo4j.cluster.protocol.snapshot.SnapshotMessage;
+
+/**
+ * Compact binary encoding of {@link Message messages} sent between cluster instances.
+ * <p/>
+ * Message types of the cluster protocols are written as a one byte protocol id followed by the constant name,
+ * well known headers as a single byte and the payloads exchanged by the heartbeat and paxos protocols as a tag
+ * followed by their fields. Message types, header names and payloads not known here are still supported, by
+ * writing class names, header names and java serialized payloads respectively.
+ * <p/>
+ * The layout is identified by {@link #VERSION}, which must be incremented whenever it changes.
+ */
+public class CompactMessageCodec
+{
+    public static final byte VERSION = 1;
+
+    private static final Charset UTF8 = Charset.forName( "UTF-8" );
+
+    private static final Class<?>[] MESSAGE_TYPES = {
+            AtomicBroadcastMessage.class, AcceptorMessage.class, ProposerMessage.class, LearnerMessage.class,
+            HeartbeatMessage.class, ElectionMessage.class, ClusterMessage.class, SnapshotMessage.class};
+    private static final byte OTHER_MESSAGE_TYPE = -1;
+
+    private static final String[] HEADERS = {
+            Message.CONVERSATION_ID, Message.CREATED_BY, Message.FROM, Message.TO, Message.INSTANCE_ID,
+            org.neo4j.cluster.protocol.atomicbroadcast.multipaxos.InstanceId.INSTANCE};
+    private static final byte OTHER_HEADER = -1;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte LONG = 2;
+    private static final byte INTEGER = 3;
+    private static final byte URI_VALUE = 4;
+    private static final byte CLUSTER_INSTANCE_ID = 5;
+    private static final byte PAXOS_INSTANCE_ID = 6;
+    private static final byte PAYLOAD = 7;
+    private static final byte I_AM_ALIVE = 8;
+    private static final byte SUSPICIONS = 9;
+    private static final byte PREPARE = 10;
+    private static final byte ACCEPT = 11;
+    private static final byte PROMISE = 12;
+    private static final byte REJECT_PREPARE = 13;
+    private static final byte REJECT_ACCEPT = 14;
+    private static final byte ACCEPTED = 15;
+    private static final byte LEARN = 16;
+    private static final byte LEARN_REQUEST = 17;
+    private static final byte LEARN_FAILED = 18;
+    private static final byte SERIALIZED = 127;
+
+    private final ClassLoader classLoader;
+
+    public CompactMessageCodec( ClassLoader classLoader )
+    {
+        this.classLoader = classLoader;
+    }
+
+    public void write( Message<?> message, ChannelBuffer buffer ) throws IOException
+    {
+        writeMessageType( message.getMessageType(), buffer );
+
+        writeVarInt( message.headers.size(), buffer );
+        for ( Map.Entry<String, String> header : message.headers.entrySet() )
+        {
+            writeHeaderName( header.getKey(), buffer );
+            writeString( header.getValue(), buffer );
+        }
+
+        writeValue( message.getPayload(), buffer );
+    }
+
+    public Message<?> read( ChannelBuffer buffer ) throws IOException, ClassNotFoundException
+    {
+        MessageType messageType = readMessageType( buffer );
+
+        int headerCount = readVarInt( buffer );
+        Map<String, String> headers = new HashMap<String, String>( headerCount * 2 );
+        for ( int i = 0; i < headerCount; i++ )
+        {
+            String name = readHeaderName( buffer );
+            headers.put( name, readString( buffer ) );
+        }
+
+        Message<?> message = Message.internal( messageType, readValue( buffer ) );
+        message.headers.putAll( headers );
+        return message;
+    }
+
+    private void writeMessageType( MessageType messageType, ChannelBuffer buffer )
+    {
+        Class<?> type = ((Enum<?>) messageType).getDeclaringClass();
+        byte id = OTHER_MESSAGE_TYPE;
+        for ( byte i = 0; i < MESSAGE_TYPES.length; i++ )
+        {
+            if ( MESSAGE_TYPES[i] == type )
+            {
+                id = i;
+                break;
+            }
+        }
+        buffer.writeByte( id );
+        if ( id == OTHER_MESSAGE_TYPE )
+        {
+            writeString( type.getName(), buffer );
+        }
+        writeString( messageType.name(), buffer );
+    }
+
+    @SuppressWarnings( {"unchecked", "rawtypes"} )
+    private MessageType readMessageType( ChannelBuffer buffer ) throws IOException, ClassNotFoundException
+    {
+        byte id = buffer.readByte();
+        Class type;
+        if ( id == OTHER_MESSAGE_TYPE )
+        {
+            type = Class.forName( readString( buffer ), false, classLoader );
+            if ( !type.isEnum() || !MessageType.class.isAssignableFrom( type ) )
+            {
+                throw new IOException( "Message type " + type.getName() + " is not an enum of message types" );
+            }
+        }
+        else if ( id >= 0 && id < MESSAGE_TYPES.length )
+        {
+            type = MESSAGE_TYPES[id];
+        }
+        else
+        {
+            throw new IOException( "Unknown message type id " + id );
+        }
+        String name = readString( buffer );
+        try
+        {
+            return (MessageType) Enum.valueOf( type, name );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            throw new IOException( "Unknown message type " + type.getName() + "." + name, e );
+        }
+    }
+
+    private void writeHeaderName( String name, ChannelBuffer buffer )
+    {
+        for ( byte i = 0; i < HEADERS.length; i++ )
+        {
+            if ( HEADERS[i].equals( name ) )
+            {
+                buffer.writeByte( i );
+                return;
+            }
+        }
+        buffer.writeByte( OTHER_HEADER );
+        writeString( name, buffer );
+    }
+
+    private String readHeaderName( ChannelBuffer buffer ) throws IOException
+    {
+        byte id = buffer.readByte();
+        if ( id == OTHER_HEADER )
+        {
+            return readString( buffer );
+        }
+        if ( id < 0 || id >= HEADERS.length )
+        {
+            throw new IOException( "Unknown header id " + id );
+        }
+        return HEADERS[id];
+    }
+
+    private void writeValue( Object value, ChannelBuffer buffer ) throws IOException
+    {
+        Class<?> type = value == null ? null : value.getClass();
+        if ( type == null )
+        {
+            buffer.writeByte( NULL );
+        }
+        else if ( type == String.class )
+        {
+            buffer.writeByte( STRING );
+            writeString( (String) value, buffer );
+        }
+        else if ( type == Long.class )
+        {
+            buffer.writeByte( LONG );
+            buffer.writeLong( (Long) value );
+        }
+        else if ( type == Integer.class )
+        {
+            buffer.writeByte( INTEGER );
+            buffer.writeInt( (Integer) value );
+        }
+        else if ( type == URI.class )
+        {
+            buffer.writeByte( URI_VALUE );
+            writeString( value.toString(), buffer );
+        }
+        else if ( type == InstanceId.class )
+        {
+            buffer.writeByte( CLUSTER_INSTANCE_ID );
+            writeVarInt( ((InstanceId) value).toIntegerIndex(), buffer );
+        }
+        else if ( type == org.neo4j.cluster.protocol.atomicbroadcast.multipaxos.InstanceId.class )
+        {
+            buffer.writeByte( PAXOS_INSTANCE_ID );
+            buffer.writeLong( ((org.neo4j.cluster.protocol.atomicbroadcast.multipaxos.InstanceId) value).getId() );
+        }
+        else if ( type == Payload.class )
+        {
+            Payload payload = (Payload) value;
+            buffer.writeByte( PAYLOAD );
+            writeVarInt( payload.getLen(), buffer );
+            buffer.writeBytes( payload.getBuf(), 0, payload.getLen() );
+        }
+        else if ( type == HeartbeatMessage.IAmAliveState.class )
+        {
+            buffer.writeByte( I_AM_ALIVE );
+            writeVarInt( ((HeartbeatMessage.IAmAliveState) value).getServer().toIntegerIndex(), buffer );
+        }
+        else if ( type == HeartbeatMessage.SuspicionsState.class )
+        {
+            Set<InstanceId> suspicions = ((HeartbeatMessage.SuspicionsState) value).getSuspicions();
+            buffer.writeByte( SUSPICIONS );
+            writeVarInt( suspicions.size(), buffer );
+            for ( InstanceId suspicion : suspicions )
+            {
+                writeVarInt( suspicion.toIntegerIndex(), buffer );
+            }
+        }
+        else if ( type == AcceptorMessage.PrepareState.class )
+        {
+            buffer.writeByte( PREPARE );
+            buffer.writeLong( ((AcceptorMessage.PrepareState) value).getBallot() );
+        }
+        else if ( type == AcceptorMessage.AcceptState.class )
+        {
+            AcceptorMessage.AcceptState accept = (AcceptorMessage.AcceptState) value;
+            buffer.writeByte( ACCEPT );
+            buffer.writeLong( accept.getBallot() );
+            writeValue( accept.getValue(), buffer );
+        }
+        else if ( type == ProposerMessage.PromiseState.class )
+        {
+            ProposerMessage.PromiseState promise = (ProposerMessage.PromiseState) value;
+            buffer.writeByte( PROMISE );
+            buffer.writeLong( promise.getBallot() );
+            writeValue( promise.getValue(), buffer );
+        }
+        else if ( type == ProposerMessage.RejectPrepare.class )
+        {
+            buffer.writeByte( REJECT_PREPARE );
+            buffer.writeLong( ((ProposerMessage.RejectPrepare) value).getBallot() );
+        }
+        else if ( type == ProposerMessage.RejectAcceptState.class )
+        {
+            buffer.writeByte( REJECT_ACCEPT );
+        }
+        else if ( type == ProposerMessage.AcceptedState.class )
+        {
+            buffer.writeByte( ACCEPTED );
+        }
+        else if ( type == LearnerMessage.LearnState.class )
+        {
+            buffer.writeByte( LEARN );
+            writeValue( ((LearnerMessage.LearnState) value).getValue(), buffer );
+        }
+        else if ( type == LearnerMessage.LearnRequestState.class )
+        {
+            buffer.writeByte( LEARN_REQUEST );
+        }
+        else if ( type == LearnerMessage.LearnFailedState.class )
+        {
+            buffer.writeByte( LEARN_FAILED );
+        }
+        else
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream( bytes );
+            out.writeObject( value );
+            out.close();
+
+            buffer.writeByte( SERIALIZED );
+            writeVarInt( bytes.size(), buffer );
+            buffer.writeBytes( bytes.toByteArray() );
+        }
+    }
+
+    private Object readValue( ChannelBuffer buffer ) throws IOException, ClassNotFoundException
+    {
+        byte tag = buffer.readByte();
+        switch ( tag )
+        {
+            case NULL:
+                return null;
+            case STRING:
+                return readString( buffer );
+            case LONG:
+                return buffer.readLong();
+            case INTEGER:
+                return buffer.readInt();
+            case URI_VALUE:
+                return URI.create( readString( buffer ) );
+            case CLUSTER_INSTANCE_ID:
+                return new InstanceId( readVarInt( buffer ) );
+            case PAXOS_INSTANCE_ID:
+                return new org.neo4j.cluster.protocol.atomicbroadcast.multipaxos.InstanceId( buffer.readLong() );
+            case PAYLOAD:
+            {
+                byte[] bytes = new byte[readVarInt( buffer )];
+                buffer.readBytes( bytes );
+                return new Payload( bytes, bytes.length );
+            }
+            case I_AM_ALIVE:
+                return new HeartbeatMessage.IAmAliveState( new InstanceId( readVarInt( buffer ) ) );
+            case SUSPICIONS:
+            {
+                int count = readVarInt( buffer );
+                Set<InstanceId> suspicions = new HashSet<InstanceId>( count * 2 );
+                for ( int i = 0; i < count; i++ )
+                {
+                    suspicions.add( new InstanceId( readVarInt( buffer ) ) );
+                }
+                return new HeartbeatMessage.SuspicionsState( suspicions );
+            }
+            case PREPARE:
+                return new AcceptorMessage.PrepareState( buffer.readLong() );
+            case ACCEPT:
+            {
+                long ballot = buffer.readLong();
+                return new AcceptorMessage.AcceptState( ballot, readValue( buffer ) );
+            }
+            case PROMISE:
+            {
+                long ballot = buffer.readLong();
+                return new ProposerMessage.PromiseState( ballot, readValue( buffer ) );
+            }
+            case REJECT_PREPARE:
+                return new ProposerMessage.RejectPrepare( buffer.readLong() );
+            case REJECT_ACCEPT:
+                return new ProposerMessage.RejectAcceptState();
+            case ACCEPTED:
+                return new ProposerMessage.AcceptedState();
+            case LEARN:
+                return new LearnerMessage.LearnState( readValue( buffer ) );
+            case LEARN_REQUEST:
+                return new LearnerMessage.LearnRequestState();
+            case LEARN_FAILED:
+                return new LearnerMessage.LearnFailedState();
+            case SERIALIZED:
+            {
+                int length = readVarInt( buffer );
+                ObjectInputStream in = new ClassLoaderObjectInputStream(
+                        new ChannelBufferInputStream( buffer.readSlice( length ) ), classLoader );
+                try
+                {
+                    return in.readObject();
+                }
+                finally
+                {
+                    in.close();
+                }
+            }
+            default:
+                throw new IOException( "Unknown payload tag " + tag );
+        }
+    }
+
+    private static void writeString( String value, ChannelBuffer buffer )
+    {
+        byte[] bytes = value.getBytes( UTF8 );
+        writeVarInt( bytes.length, buffer );
+        buffer.writeBytes( bytes );
+    }
+
+    private static String readString( ChannelBuffer buffer )
+    {
+        byte[] bytes = new byte[readVarInt( buffer )];
+        buffer.readBytes( bytes );
+        return new String( bytes, UTF8 );
+    }
+
+    private static void writeVarInt( int value, ChannelBuffer buffer )
+    {
+        while ( (value & ~0x7F) != 0 )
+        {
+            buffer.writeByte( (value & 0x7F) | 0x80 );
+            value >>>= 7;
+        }
+        buffer.writeByte( value );
+    }
+
+    private static int readVarInt( ChannelBuffer buffer )
+    {
+        int value = 0;
+        for ( int shift = 0; ; shift += 7 )
+        {
+            byte b = buffer.readByte();
+            value |= (b & 0x7F) << shift;
+            if ( (b & 0x80) == 0 )
+            {
+                return value;
+            }
+        }
+    }
+
+    private static class ClassLoaderObjectInputStream extends ObjectInputStream
+    {
+        private final ClassLoader classLoader;
+
+        ClassLoaderObjectInputStream( InputStream in, ClassLoader classLoader ) throws IOException
+        {
+            super( in );
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        protected Class<?> resolveClass( ObjectStreamClass desc ) throws IOException, ClassNotFoundException
+        {
+            try
+            {
+                return Class.forName( desc.getName(), false, classLoader );
+            }
+            catch ( ClassNotFoundException e )
+            {
+                return super.resolveClass( desc );
+            }
+        }
+    }
+}
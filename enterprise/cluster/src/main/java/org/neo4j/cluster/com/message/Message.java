@@ -84,7 +84,7 @@ public class Message<MESSAGETYPE extends MessageType>
 
     final private MESSAGETYPE messageType;
     final private Object payload;
-    final private Map<String, String> headers = new HashMap<String, String>();
+    final Map<String, String> headers = new HashMap<String, String>();
 
     protected Message( MESSAGETYPE messageType, Object payload )
     {
@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cluster.com.message;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.junit.Test;
+
+import org.neo4j.cluster.InstanceId;
+import org.neo4j.cluster.protocol.atomicbroadcast.Payload;
+import org.neo4j.cluster.protocol.atomicbroadcast.multipaxos.AcceptorMessage;
+import org.neo4j.cluster.protocol.cluster.ClusterMessage;
+import org.neo4j.cluster.protocol.heartbeat.HeartbeatMessage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CompactMessageCodecTest
+{
+    private final CompactMessageCodec codec = new CompactMessageCodec( getClass().getClassLoader() );
+
+    @Test
+    public void shouldRoundTripHeartbeatMessage() throws Exception
+    {
+        // Given
+        Message<HeartbeatMessage> message = Message.to( HeartbeatMessage.suspicions,
+                URI.create( "cluster://127.0.0.1:5002" ), new HeartbeatMessage.SuspicionsState(
+                        new HashSet<InstanceId>( Arrays.asList( new InstanceId( 2 ), new InstanceId( 3 ) ) ) ) )
+                .setHeader( Message.FROM, "cluster://127.0.0.1:5001" )
+                .setHeader( Message.INSTANCE_ID, "1" );
+
+        // When
+        Message<?> read = roundTrip( message );
+
+        // Then
+        assertEquals( message, read );
+    }
+
+    @Test
+    public void shouldRoundTripPaxosMessageWithPayload() throws Exception
+    {
+        // Given
+        byte[] bytes = {1, 2, 3, 4, 5};
+        Message<AcceptorMessage> message = Message.internal( AcceptorMessage.accept,
+                new AcceptorMessage.AcceptState( 1002, new Payload( bytes, bytes.length ) ) )
+                .setHeader( org.neo4j.cluster.protocol.atomicbroadcast.multipaxos.InstanceId.INSTANCE, "42" );
+
+        // When
+        Message<?> read = roundTrip( message );
+
+        // Then
+        assertEquals( AcceptorMessage.accept, read.getMessageType() );
+        assertEquals( "42", read.getHeader( org.neo4j.cluster.protocol.atomicbroadcast.multipaxos.InstanceId.INSTANCE ) );
+        AcceptorMessage.AcceptState state = read.getPayload();
+        assertEquals( 1002, state.getBallot() );
+        Payload payload = (Payload) state.getValue();
+        assertArrayEquals( bytes, Arrays.copyOf( payload.getBuf(), payload.getLen() ) );
+    }
+
+    @Test
+    public void shouldRoundTripUnknownHeadersAndPayloadsThroughSerialization() throws Exception
+    {
+        // Given
+        Message<ClusterMessage> message = Message.internal( ClusterMessage.configurationRequest,
+                new ClusterMessage.ConfigurationRequestState( new InstanceId( 4 ),
+                        URI.create( "cluster://127.0.0.1:5004" ) ) )
+                .setHeader( "some-header", "some value" );
+
+        // When
+        Message<?> read = roundTrip( message );
+
+        // Then
+        assertEquals( message, read );
+    }
+
+    @Test
+    public void shouldBeMuchSmallerThanSerializedMessage() throws Exception
+    {
+        // Given
+        Message<HeartbeatMessage> message = Message.to( HeartbeatMessage.i_am_alive,
+                URI.create( "cluster://127.0.0.1:5002" ), new HeartbeatMessage.IAmAliveState( new InstanceId( 1 ) ) )
+                .setHeader( Message.FROM, "cluster://127.0.0.1:5001" );
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream( serialized );
+        out.writeObject( message );
+        out.close();
+
+        // When
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+        codec.write( message, buffer );
+
+        // Then
+        assertTrue( "compact " + buffer.readableBytes() + " bytes, serialized " + serialized.size() + " bytes",
+                buffer.readableBytes() * 5 < serialized.size() );
+    }
+
+    @Test
+    public void shouldFailOnUnknownMessageTypeId() throws Exception
+    {
+        // Given
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+        buffer.writeByte( 42 );
+
+        // When
+        try
+        {
+            codec.read( buffer );
+            fail( "Should have failed on the unknown message type" );
+        }
+        catch ( IOException e )
+        {
+            // Then
+            assertEquals( "Unknown message type id 42", e.getMessage() );
+        }
+    }
+
+    @Test
+    public void shouldFailOnUnknownHeaderId() throws Exception
+    {
+        // Given
+        Message<HeartbeatMessage> message = Message.internal( HeartbeatMessage.i_am_alive,
+                new HeartbeatMessage.IAmAliveState( new InstanceId( 1 ) ) )
+                .setHeader( Message.INSTANCE_ID, "1" );
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+        codec.write( message, buffer );
+        // Message type id, length and name of the constant, header count, header id
+        int headerId = 1 + 1 + HeartbeatMessage.i_am_alive.name().length() + 1;
+        buffer.setByte( headerId, 100 );
+
+        // When
+        try
+        {
+            codec.read( buffer );
+            fail( "Should have failed on the unknown header" );
+        }
+        catch ( IOException e )
+        {
+            // Then
+            assertEquals( "Unknown header id 100", e.getMessage() );
+        }
+    }
+
+    private Message<?> roundTrip( Message<?> message ) throws Exception
+    {
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+        codec.write( message, buffer );
+        Message<?> read = codec.read( buffer );
+        assertEquals( 0, buffer.readableBytes() );
+        return read;
+    }
+}
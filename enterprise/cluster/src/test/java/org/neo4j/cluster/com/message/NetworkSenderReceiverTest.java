@@ -96,6 +96,39 @@ public class NetworkSenderReceiverTest
         life.shutdown();
     }
 
+    @Test
+    public void shouldReceiveMessagesFromAClientSendingSerializedObjects() throws Exception
+    {
+        // given
+        CountDownLatch latch = new CountDownLatch( 1 );
+        LifeSupport life = new LifeSupport();
+
+        Server server1 = new Server( latch, MapUtil.stringMap( ClusterSettings.cluster_server.name(),
+                "localhost:1234", ClusterSettings.server_id.name(), "1",
+                ClusterSettings.initial_hosts.name(), "localhost:1234,localhost:1235",
+                ClusterSettings.compact_cluster_messages.name(), "false" ) );
+        life.add( server1 );
+
+        Server server2 = new Server( latch, MapUtil.stringMap( ClusterSettings.cluster_server.name(), "localhost:1235",
+                ClusterSettings.server_id.name(), "2",
+                ClusterSettings.initial_hosts.name(), "localhost:1234,localhost:1235",
+                ClusterSettings.compact_cluster_messages.name(), "true" ) );
+        life.add( server2 );
+
+        life.start();
+
+        // when
+        server1.process( Message.to( TestMessage.helloWorld, URI.create( "cluster://127.0.0.1:1235" ),
+                "Hello World" ) );
+
+        // then
+        latch.await( 5, TimeUnit.SECONDS );
+
+        assertTrue( "server2 should have processed the message", server2.processedMessage() );
+
+        life.shutdown();
+    }
+
     @Test
     public void senderThatStartsAfterReceiverShouldEventuallyConnectSuccessfully() throws Throwable
     {
@@ -165,6 +198,12 @@ public class NetworkSenderReceiverTest
                 {
                     return 5001;
                 }
+
+                @Override
+                public boolean compactMessages()
+                {
+                    return true;
+                }
             }, receiver, loggingMock );
 
             sender.init();
@@ -299,6 +338,12 @@ public class NetworkSenderReceiverTest
                 {
                     return conf.get( ClusterSettings.cluster_server ).getPort();
                 }
+
+                @Override
+                public boolean compactMessages()
+                {
+                    return conf.get( ClusterSettings.compact_cluster_messages );
+                }
             }, networkReceiver, new DevNullLoggingService() ) );
 
             life.add( new LifecycleAdapter()
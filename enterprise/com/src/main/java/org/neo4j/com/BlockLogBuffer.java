@@ -206,4 +206,32 @@ public class BlockLogBuffer implements LogBuffer
         }
         return result;
     }
+
+    /**
+     * Writes all of {@code data} like {@link #write(ReadableByteChannel)} does, but reads it through
+     * {@code readBuffer} rather than straight into the block. Reading large files one block at a time means one
+     * read call per {@value #DATA_SIZE} bytes, so pass a buffer much larger than a block for those.
+     *
+     * @return the number of bytes read from {@code data}.
+     */
+    public int write( ReadableByteChannel data, ByteBuffer readBuffer ) throws IOException
+    {
+        int result = 0;
+        readBuffer.clear();
+        while ( data.read( readBuffer ) >= 0 )
+        {
+            readBuffer.flip();
+            result += readBuffer.remaining();
+            int limit = readBuffer.limit();
+            while ( readBuffer.hasRemaining() )
+            {
+                readBuffer.limit( readBuffer.position() + Math.min( byteBuffer.remaining(), readBuffer.remaining() ) );
+                byteBuffer.put( readBuffer );
+                readBuffer.limit( limit );
+                checkFlush();
+            }
+            readBuffer.clear();
+        }
+        return result;
+    }
 }
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.com;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.zip.CRC32;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+
+/**
+ * Reads the content of a store file streamed as {@link Protocol#STORE_FILE_IN_CHECKSUMMED_SEGMENTS checksummed
+ * segments} by {@link org.neo4j.com.storecopy.ToNetworkStoreWriter}. Every segment is an int length followed by
+ * the CRC32 of its content and then the content itself, and a zero length ends the file. The checksum of a segment
+ * is verified as soon as the last byte of it has been read, so a corrupted file is never read through to its end.
+ */
+public class ChecksummedSegmentReader implements ReadableByteChannel
+{
+    private final ChannelBuffer source;
+    private final String path;
+    private final CRC32 checksum = new CRC32();
+    private final byte[] scratch = new byte[BlockLogBuffer.MAX_SIZE * 16];
+    private int segmentRemaining;
+    private long expectedChecksum;
+    private boolean moreSegments = true;
+
+    public ChecksummedSegmentReader( ChannelBuffer source, String path )
+    {
+        this.source = source;
+        this.path = path;
+    }
+
+    @Override
+    public int read( ByteBuffer dst ) throws IOException
+    {
+        int bytesRead = 0;
+        while ( dst.hasRemaining() && nextSegmentIfNeeded() )
+        {
+            if ( !source.readable() )
+            {
+                throw new IOException( "Stream ended in the middle of " + path );
+            }
+            // Never ask for more than is readable, since that may span more than the next chunk
+            int bytesToRead = Math.min( Math.min( dst.remaining(), segmentRemaining ),
+                    Math.min( scratch.length, source.readableBytes() ) );
+            source.readBytes( scratch, 0, bytesToRead );
+            checksum.update( scratch, 0, bytesToRead );
+            dst.put( scratch, 0, bytesToRead );
+            bytesRead += bytesToRead;
+            segmentRemaining -= bytesToRead;
+            if ( segmentRemaining == 0 )
+            {
+                verifySegment();
+            }
+        }
+        return bytesRead == 0 && !moreSegments ? -1 : bytesRead;
+    }
+
+    private boolean nextSegmentIfNeeded()
+    {
+        if ( segmentRemaining == 0 && moreSegments )
+        {
+            segmentRemaining = source.readInt();
+            if ( segmentRemaining == 0 )
+            {
+                moreSegments = false;
+            }
+            else
+            {
+                expectedChecksum = source.readLong();
+                checksum.reset();
+            }
+        }
+        return moreSegments;
+    }
+
+    private void verifySegment() throws IOException
+    {
+        if ( checksum.getValue() != expectedChecksum )
+        {
+            throw new IOException( "Checksum mismatch in " + path + ", expected " + expectedChecksum + " but content " +
+                    "received has " + checksum.getValue() + ". The store file has been corrupted on its way here" );
+        }
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        // Leave the source right after this file even if it wasn't read through
+        ByteBuffer rest = ByteBuffer.wrap( new byte[scratch.length] );
+        while ( read( rest ) >= 0 )
+        {
+            rest.clear();
+        }
+    }
+}
@@ -535,8 +535,9 @@ public class ChunkingChannelBuffer implements ChannelBuffer, ChannelFutureListen
         {
             setContinuation( CONTINUATION_MORE );
             writeCurrentChunk();
-            // TODO Reuse buffers?
-            buffer = ChannelBuffers.dynamicBuffer();
+            // The chunk just written is still being sent, so it can't be reused. Sizing the next one for a full
+            // chunk up front saves copying its contents over every time a dynamic buffer would have grown.
+            buffer = ChannelBuffers.dynamicBuffer( capacity );
             addRoomForContinuationHeader();
         }
     }
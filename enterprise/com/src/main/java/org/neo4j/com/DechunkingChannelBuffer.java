@@ -111,9 +111,7 @@ public class DechunkingChannelBuffer implements ChannelBuffer
         }
         else
         {
-            buffer = buffer == null ? ChannelBuffers.dynamicBuffer() : buffer;
-            discardReadBytes();
-            buffer.writeBytes( readBuffer );
+            buffer = buffer == null ? readBuffer : append( readBuffer );
         }
 
         if ( failure )
@@ -122,6 +120,23 @@ public class DechunkingChannelBuffer implements ChannelBuffer
         }
     }
 
+    /**
+     * Puts the new chunk behind what is left to read of the current buffer, without copying either of them. Only
+     * the readable part of the current buffer, or from the marked reader index if there is one, is kept.
+     */
+    private ChannelBuffer append( ChannelBuffer chunk )
+    {
+        int readerIndex = buffer.readerIndex();
+        if ( hasMarkedReaderIndex )
+        {
+            buffer.resetReaderIndex();
+        }
+        int bytesToDiscard = buffer.readerIndex();
+        ChannelBuffer result = ChannelBuffers.wrappedBuffer( buffer, chunk );
+        result.readerIndex( readerIndex - bytesToDiscard );
+        return result;
+    }
+
     static void assertSameProtocolVersion( byte[] header, byte internalProtocolVersion, byte applicationProtocolVersion )
     {
         /* [aaaa,aaaa][pppp,ppoc]
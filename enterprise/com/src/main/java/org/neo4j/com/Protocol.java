@@ -43,6 +43,16 @@ public abstract class Protocol
     public static final int MEGA = 1024 * 1024;
     public static final int DEFAULT_FRAME_LENGTH = 16*MEGA;
 
+    /*
+     * How the content of a streamed store file follows its path: not at all for an empty file, in the blocks of
+     * BlockLogBuffer, or in CRC32 checksummed segments read by ChecksummedSegmentReader. Requesters that can read
+     * segments ask for them by sending STORE_FILE_IN_CHECKSUMMED_SEGMENTS last in their request, which servers
+     * that predate segments never read and so keep sending blocks.
+     */
+    public static final byte STORE_FILE_EMPTY = 0;
+    public static final byte STORE_FILE_IN_BLOCKS = 1;
+    public static final byte STORE_FILE_IN_CHECKSUMMED_SEGMENTS = 2;
+
     private final int chunkSize;
     private final byte applicationProtocolVersion;
     private final byte internalProtocolVersion;
@@ -204,6 +214,29 @@ public abstract class Protocol
             return null;
         }
     };
+    /**
+     * Asks for store files to be streamed in {@link #STORE_FILE_IN_CHECKSUMMED_SEGMENTS checksummed segments}.
+     * It has to be the last thing written to a request.
+     */
+    public static final Serializer CHECKSUMMED_STORE_FILES_SERIALIZER = new Serializer()
+    {
+        @Override
+        public void write( ChannelBuffer buffer ) throws IOException
+        {
+            buffer.writeByte( STORE_FILE_IN_CHECKSUMMED_SEGMENTS );
+        }
+    };
+
+    /**
+     * @return whether a request asked for store files in {@link #STORE_FILE_IN_CHECKSUMMED_SEGMENTS checksummed
+     * segments}, where {@code input} is positioned where {@link #CHECKSUMMED_STORE_FILES_SERIALIZER} would have
+     * written to it.
+     */
+    public static boolean checksummedStoreFilesRequested( ChannelBuffer input )
+    {
+        return input.readable() && input.readByte() == STORE_FILE_IN_CHECKSUMMED_SEGMENTS;
+    }
+
     public static final Serializer EMPTY_SERIALIZER = new Serializer()
     {
         public void write( ChannelBuffer buffer ) throws IOException
@@ -226,8 +259,24 @@ public abstract class Protocol
             while ( 0 != ( pathLength = buffer.readUnsignedShort() ) )
             {
                 String path = readString( buffer, pathLength );
-                boolean hasData = buffer.readByte() == 1;
-                writer.write( path, hasData ? new BlockLogReader( buffer ) : null, temporaryBuffer, hasData );
+                byte format = buffer.readByte();
+                switch ( format )
+                {
+                case STORE_FILE_EMPTY:
+                    writer.write( path, null, temporaryBuffer, false );
+                    break;
+                case STORE_FILE_IN_BLOCKS:
+                    writer.write( path, new BlockLogReader( buffer ), temporaryBuffer, true );
+                    break;
+                case STORE_FILE_IN_CHECKSUMMED_SEGMENTS:
+                    try ( ChecksummedSegmentReader data = new ChecksummedSegmentReader( buffer, path ) )
+                    {
+                        writer.write( path, data, temporaryBuffer, true );
+                    }
+                    break;
+                default:
+                    throw new IOException( "Unknown format " + format + " of store file " + path );
+                }
             }
             writer.done();
             return null;
@@ -60,7 +60,7 @@ import static org.neo4j.helpers.collection.Iterables.first;
 
 public class ServerUtil
 {
-    private static File getBaseDir( String storeDir )
+    public static File getBaseDir( String storeDir )
     {
         File file = new File( storeDir );
         try
@@ -84,7 +84,7 @@ public class ServerUtil
      *         <code>baseDir</code>
      * @throws IOException As per {@link File#getCanonicalPath()}
      */
-    private static String relativePath( File baseDir, File storeFile )
+    public static String relativePath( File baseDir, File storeFile )
             throws IOException
     {
         String prefix = baseDir.getCanonicalPath();
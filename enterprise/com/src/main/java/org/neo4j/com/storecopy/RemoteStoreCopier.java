@@ -98,7 +98,9 @@ public class RemoteStoreCopier
         Config tempConfig = configForTempStore( tempStore );
         clearTempDirectory( tempStore );
 
-        // Request store files and transactions that will need recovery
+        // Request store files and transactions that will need recovery. Store files streamed in checksummed
+        // segments are verified as they are received, see ChecksummedSegmentReader, and a copy that fails that or
+        // anything else is not left around to be mistaken for a store
         StoreWriter storeWriter = decorateWithProgressIndicator( new ToFileStoreWriter( tempStore ) );
         try ( Response<?> response = requester.copyStore( storeWriter ) )
         {
@@ -112,6 +114,11 @@ public class RemoteStoreCopier
             // Write pending transactions down to the currently active logical log
             writeTransactionsToActiveLogFile( tempConfig, response.transactions() );
         }
+        catch ( IOException | RuntimeException e )
+        {
+            FileUtils.deleteRecursively( tempStore );
+            throw e;
+        }
         finally
         {
             requester.done();
@@ -22,6 +22,7 @@ package org.neo4j.com.storecopy;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
+import java.util.zip.CRC32;
 
 import org.jboss.netty.buffer.ChannelBuffer;
 
@@ -30,14 +31,33 @@ import org.neo4j.com.Protocol;
 import org.neo4j.kernel.monitoring.ByteCounterMonitor;
 import org.neo4j.kernel.monitoring.Monitors;
 
+import static org.neo4j.com.Protocol.STORE_FILE_EMPTY;
+import static org.neo4j.com.Protocol.STORE_FILE_IN_BLOCKS;
+import static org.neo4j.com.Protocol.STORE_FILE_IN_CHECKSUMMED_SEGMENTS;
+
+/**
+ * Streams store files over the network, either in the blocks of {@link BlockLogBuffer} or, for requesters that
+ * asked for it, in {@link Protocol#STORE_FILE_IN_CHECKSUMMED_SEGMENTS checksummed segments}. A segment is read
+ * once and the very bytes that were checksummed are sent. Store files are copied from a running database, so
+ * reading the file again for sending could send bytes written after the checksum was calculated.
+ */
 public class ToNetworkStoreWriter implements StoreWriter
 {
     private final ChannelBuffer targetBuffer;
     private final ByteCounterMonitor bufferMonitor;
+    private final boolean checksummedSegments;
+    private final CRC32 checksum = new CRC32();
+    private byte[] segment;
 
     public ToNetworkStoreWriter( ChannelBuffer targetBuffer, Monitors monitors )
+    {
+        this( targetBuffer, monitors, false );
+    }
+
+    public ToNetworkStoreWriter( ChannelBuffer targetBuffer, Monitors monitors, boolean checksummedSegments )
     {
         this.targetBuffer = targetBuffer;
+        this.checksummedSegments = checksummedSegments;
         bufferMonitor = monitors.newMonitor( ByteCounterMonitor.class, getClass(), "storeCopier" );
     }
 
@@ -48,18 +68,64 @@ public class ToNetworkStoreWriter implements StoreWriter
         char[] chars = path.toCharArray();
         targetBuffer.writeShort( chars.length );
         Protocol.writeChars( targetBuffer, chars );
-        targetBuffer.writeByte( hasData ? 1 : 0 );
-        // TODO Make use of temporaryBuffer?
-        BlockLogBuffer buffer = new BlockLogBuffer( targetBuffer, bufferMonitor );
         int totalWritten = 2 + chars.length*2 + 1;
-        if ( hasData )
+        if ( !hasData )
         {
-            totalWritten += buffer.write( data );
+            targetBuffer.writeByte( STORE_FILE_EMPTY );
+        }
+        else if ( checksummedSegments )
+        {
+            targetBuffer.writeByte( STORE_FILE_IN_CHECKSUMMED_SEGMENTS );
+            totalWritten += writeSegments( data, temporaryBuffer.capacity() );
+        }
+        else
+        {
+            targetBuffer.writeByte( STORE_FILE_IN_BLOCKS );
+            BlockLogBuffer buffer = new BlockLogBuffer( targetBuffer, bufferMonitor );
+            totalWritten += buffer.write( data, temporaryBuffer );
             buffer.done();
         }
         return totalWritten;
     }
 
+    private int writeSegments( ReadableByteChannel data, int segmentSize ) throws IOException
+    {
+        if ( segment == null || segment.length != segmentSize )
+        {
+            segment = new byte[segmentSize];
+        }
+
+        int totalWritten = 0;
+        while ( true )
+        {
+            int length = readSegment( data );
+            if ( length == 0 )
+            {
+                break;
+            }
+            checksum.reset();
+            checksum.update( segment, 0, length );
+            targetBuffer.writeInt( length );
+            targetBuffer.writeLong( checksum.getValue() );
+            targetBuffer.writeBytes( segment, 0, length );
+            bufferMonitor.bytesWritten( 4 + 8 + length );
+            totalWritten += 4 + 8 + length;
+        }
+        targetBuffer.writeInt( 0 );
+        totalWritten += 4;
+        return totalWritten;
+    }
+
+    private int readSegment( ReadableByteChannel data ) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.wrap( segment );
+        while ( buffer.hasRemaining() && data.read( buffer ) >= 0 )
+        {
+            // Keep reading until the segment is full or the file ends
+        }
+        return buffer.position();
+    }
+
     @Override
     public void done()
     {
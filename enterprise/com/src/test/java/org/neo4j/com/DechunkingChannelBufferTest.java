@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.com;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.handler.queue.BlockingReadHandler;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DechunkingChannelBufferTest
+{
+    private static final byte INTERNAL_VERSION = 2;
+    private static final byte APPLICATION_VERSION = 3;
+
+    @Test
+    public void shouldReadValuesSpanningChunks() throws Exception
+    {
+        // Given a long split over two chunks
+        ChannelBuffer first = chunk( ChunkingChannelBuffer.CONTINUATION_MORE, (byte) 1, 0, 0, 0, 0 );
+        ChannelBuffer second = chunk( ChunkingChannelBuffer.CONTINUATION_LAST, 0, 0, 0, 42, 7 );
+
+        // When
+        DechunkingChannelBuffer buffer = dechunking( first, second );
+
+        // Then
+        assertEquals( 1, buffer.readByte() );
+        assertEquals( 42, buffer.readLong() );
+        assertEquals( 7, buffer.readByte() );
+        assertEquals( 0, buffer.readableBytes() );
+    }
+
+    @Test
+    public void shouldKeepMarkedBytesWhenReadingNextChunk() throws Exception
+    {
+        // Given
+        ChannelBuffer first = chunk( ChunkingChannelBuffer.CONTINUATION_MORE, 1, 2 );
+        ChannelBuffer second = chunk( ChunkingChannelBuffer.CONTINUATION_LAST, 0, 0, 0, 3 );
+        DechunkingChannelBuffer buffer = dechunking( first, second );
+
+        // When
+        assertEquals( 1, buffer.readByte() );
+        buffer.markReaderIndex();
+        assertEquals( 2, buffer.readByte() );
+        assertEquals( 3, buffer.readInt() );
+        buffer.resetReaderIndex();
+
+        // Then
+        assertEquals( 2, buffer.readByte() );
+        assertEquals( 3, buffer.readInt() );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private DechunkingChannelBuffer dechunking( ChannelBuffer first, ChannelBuffer... rest ) throws Exception
+    {
+        BlockingReadHandler<ChannelBuffer> reader = mock( BlockingReadHandler.class );
+        when( reader.read( anyLong(), any( TimeUnit.class ) ) ).thenReturn( first, rest );
+        return new DechunkingChannelBuffer( reader, 1000, INTERNAL_VERSION, APPLICATION_VERSION );
+    }
+
+    private ChannelBuffer chunk( byte continuation, int... payload )
+    {
+        ChannelBuffer chunk = ChannelBuffers.dynamicBuffer();
+        chunk.writeByte( (INTERNAL_VERSION << 2) | continuation );
+        chunk.writeByte( APPLICATION_VERSION );
+        for ( int value : payload )
+        {
+            chunk.writeByte( value );
+        }
+        return chunk;
+    }
+}
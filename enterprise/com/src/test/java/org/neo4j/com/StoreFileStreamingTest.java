@@ -0,0 +1,278 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.com;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.handler.queue.BlockingReadHandler;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.neo4j.com.storecopy.StoreWriter;
+import org.neo4j.com.storecopy.ToNetworkStoreWriter;
+import org.neo4j.kernel.DefaultFileSystemAbstraction;
+import org.neo4j.kernel.impl.nioneo.store.StoreChannel;
+import org.neo4j.kernel.impl.nioneo.store.StoreFileChannel;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.test.TargetDirectory;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.jboss.netty.channel.Channels.succeededFuture;
+
+public class StoreFileStreamingTest
+{
+    private static final byte INTERNAL_VERSION = 2;
+    private static final byte APPLICATION_VERSION = 3;
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    @Rule
+    public TargetDirectory.TestDirectory testDir = TargetDirectory.testDirForTest( getClass() );
+    private final DefaultFileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+    private final List<ChannelBuffer> frames = new ArrayList<>();
+
+    @Test
+    public void shouldSendChecksummedSegmentsOfStoreFilesInChunks() throws Exception
+    {
+        // GIVEN
+        byte[] large = randomBytes( 3 * Protocol.MEGA + 17 );
+        byte[] small = randomBytes( 100 );
+        ChunkingChannelBuffer target = new ChunkingChannelBuffer( ChannelBuffers.dynamicBuffer(), recordingChannel(),
+                CHUNK_SIZE, INTERNAL_VERSION, APPLICATION_VERSION );
+        ToNetworkStoreWriter writer = new ToNetworkStoreWriter( target, new Monitors(), true );
+
+        // WHEN
+        ByteBuffer temporaryBuffer = ByteBuffer.allocateDirect( Protocol.MEGA );
+        writeFile( writer, "large", large, temporaryBuffer );
+        writeFile( writer, "empty", new byte[0], temporaryBuffer );
+        writeFile( writer, "small", small, temporaryBuffer );
+        writer.done();
+        target.done();
+
+        // THEN
+        assertTrue( "Expected the files to have been sent in several chunks", frames.size() > 4 );
+        Map<String, byte[]> received = receive( dechunking() );
+        assertArrayEquals( large, received.get( "large" ) );
+        assertArrayEquals( new byte[0], received.get( "empty" ) );
+        assertArrayEquals( small, received.get( "small" ) );
+    }
+
+    @Test
+    public void shouldSendTheBytesThatWereChecksummedEvenIfTheFileChangesMeanwhile() throws Exception
+    {
+        // GIVEN a store file that is written to right after every read from it, like the files of a running database
+        byte[] data = randomBytes( 3 * Protocol.MEGA + 17 );
+        File file = new File( testDir.directory(), "changing" );
+        try ( StoreChannel channel = fs.open( file, "rw" ) )
+        {
+            channel.writeAll( ByteBuffer.wrap( data ) );
+        }
+        ChunkingChannelBuffer target = new ChunkingChannelBuffer( ChannelBuffers.dynamicBuffer(), recordingChannel(),
+                CHUNK_SIZE, INTERNAL_VERSION, APPLICATION_VERSION );
+        ToNetworkStoreWriter writer = new ToNetworkStoreWriter( target, new Monitors(), true );
+
+        // WHEN
+        try ( RandomAccessFile raf = new RandomAccessFile( file, "rw" );
+              StoreChannel channel = new ChangedAfterReadStoreChannel( raf.getChannel() ) )
+        {
+            writer.write( "changing", channel, ByteBuffer.allocate( Protocol.MEGA ), true );
+        }
+        writer.done();
+        target.done();
+
+        // THEN every segment passes its checksum and holds what was read when it was checksummed
+        assertArrayEquals( data, receive( dechunking() ).get( "changing" ) );
+    }
+
+    @Test
+    public void shouldSendBlocksUnlessChecksummedSegmentsAreAsked() throws Exception
+    {
+        // GIVEN
+        byte[] data = randomBytes( 1000 );
+        ChannelBuffer target = ChannelBuffers.dynamicBuffer();
+
+        // WHEN
+        ToNetworkStoreWriter writer = new ToNetworkStoreWriter( target, new Monitors() );
+        writer.write( "file", channel( data ), ByteBuffer.allocate( 300 ), true );
+        writer.done();
+
+        // THEN
+        assertEquals( Protocol.STORE_FILE_IN_BLOCKS, target.getByte( 2 + "file".length() * 2 ) );
+        assertArrayEquals( data, receive( target ).get( "file" ) );
+    }
+
+    @Test
+    public void shouldFailOnCorruptedSegment() throws Exception
+    {
+        // GIVEN
+        byte[] data = randomBytes( 1000 );
+        ChannelBuffer target = ChannelBuffers.dynamicBuffer();
+        ToNetworkStoreWriter writer = new ToNetworkStoreWriter( target, new Monitors(), true );
+        writer.write( "file", channel( data ), ByteBuffer.allocate( 300 ), true );
+        writer.done();
+
+        // WHEN the last byte of content, before the end of segments and the end of files, is flipped
+        int corrupted = target.writerIndex() - 4 - 2 - 1;
+        target.setByte( corrupted, ~target.getByte( corrupted ) );
+
+        // THEN
+        try
+        {
+            receive( target );
+            fail( "Should have failed on the corrupted segment" );
+        }
+        catch ( IOException e )
+        {
+            assertThat( e.getMessage(), containsString( "Checksum mismatch in file" ) );
+        }
+    }
+
+    private void writeFile( StoreWriter writer, String name, byte[] data, ByteBuffer temporaryBuffer )
+            throws IOException
+    {
+        File file = new File( testDir.directory(), name );
+        try ( StoreChannel channel = fs.open( file, "rw" ) )
+        {
+            channel.writeAll( ByteBuffer.wrap( data ) );
+            channel.position( 0 );
+            writer.write( name, channel, temporaryBuffer, data.length > 0 );
+        }
+    }
+
+    private Map<String, byte[]> receive( ChannelBuffer source ) throws IOException
+    {
+        final Map<String, byte[]> received = new HashMap<>();
+        new Protocol.FileStreamsDeserializer( new StoreWriter()
+        {
+            @Override
+            public int write( String path, ReadableByteChannel data, ByteBuffer temporaryBuffer, boolean hasData )
+                    throws IOException
+            {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                if ( hasData )
+                {
+                    temporaryBuffer.clear();
+                    while ( data.read( temporaryBuffer ) >= 0 )
+                    {
+                        content.write( temporaryBuffer.array(), 0, temporaryBuffer.position() );
+                        temporaryBuffer.clear();
+                    }
+                }
+                received.put( path, content.toByteArray() );
+                return content.size();
+            }
+
+            @Override
+            public void done()
+            {
+            }
+        } ).read( source, ByteBuffer.allocate( 4096 ) );
+        return received;
+    }
+
+    private Channel recordingChannel()
+    {
+        final Channel channel = mock( Channel.class );
+        when( channel.isOpen() ).thenReturn( true );
+        when( channel.isConnected() ).thenReturn( true );
+        when( channel.isBound() ).thenReturn( true );
+        when( channel.write( any() ) ).thenAnswer( new Answer<Object>()
+        {
+            @Override
+            public Object answer( InvocationOnMock invocation ) throws Throwable
+            {
+                frames.add( ((ChannelBuffer) invocation.getArguments()[0]).copy() );
+                return succeededFuture( channel );
+            }
+        } );
+        return channel;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private DechunkingChannelBuffer dechunking() throws Exception
+    {
+        BlockingReadHandler<ChannelBuffer> reader = mock( BlockingReadHandler.class );
+        when( reader.read( anyLong(), any( TimeUnit.class ) ) ).thenReturn( frames.get( 0 ),
+                frames.subList( 1, frames.size() ).toArray( new ChannelBuffer[frames.size() - 1] ) );
+        return new DechunkingChannelBuffer( reader, 1000, INTERNAL_VERSION, APPLICATION_VERSION );
+    }
+
+    /**
+     * Overwrites every range of the file right after it has been read, as if a transaction wrote to it.
+     */
+    private static class ChangedAfterReadStoreChannel extends StoreFileChannel
+    {
+        ChangedAfterReadStoreChannel( FileChannel channel )
+        {
+            super( channel );
+        }
+
+        @Override
+        public int read( ByteBuffer dst ) throws IOException
+        {
+            long position = position();
+            int read = super.read( dst );
+            if ( read > 0 )
+            {
+                write( ByteBuffer.wrap( new byte[read] ), position );
+            }
+            return read;
+        }
+    }
+
+    private static ReadableByteChannel channel( byte[] data )
+    {
+        return Channels.newChannel( new ByteArrayInputStream( data ) );
+    }
+
+    private static byte[] randomBytes( int size )
+    {
+        byte[] bytes = new byte[size];
+        new Random( size ).nextBytes( bytes );
+        return bytes;
+    }
+}
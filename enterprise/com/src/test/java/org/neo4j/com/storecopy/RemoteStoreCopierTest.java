@@ -22,15 +22,22 @@ package org.neo4j.com.storecopy;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.Appender;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.neo4j.com.ComException;
+import org.neo4j.com.Protocol;
 import org.neo4j.com.RequestContext;
 import org.neo4j.com.Response;
 import org.neo4j.com.ServerUtil;
@@ -59,11 +66,14 @@ import org.neo4j.test.ReflectionUtil;
 import org.neo4j.test.TargetDirectory;
 import org.neo4j.tooling.GlobalGraphOperations;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
@@ -421,4 +431,61 @@ public class RemoteStoreCopierTest
         verify( requester, times( 1 ) ).done();
     }
 
+    @Test
+    public void shouldRemoveTheTempStoreIfAStoreFileArrivesCorrupted() throws Exception
+    {
+        // Given
+        File copyDir = new File( testDir.directory(), "copy" );
+        Config config = new Config( stringMap( store_dir.name(), copyDir.getAbsolutePath() ) );
+        Monitors monitors = new Monitors();
+        monitors.addMonitorListener( StoreCopyMonitor.NONE );
+        RemoteStoreCopier copier = new RemoteStoreCopier( config, loadKernelExtensions(),
+                new ConsoleLogger( StringLogger.SYSTEM ), new DevNullLoggingService(), fs, monitors );
+
+        RemoteStoreCopier.StoreCopyRequester requester = new RemoteStoreCopier.StoreCopyRequester()
+        {
+            @Override
+            public Response<?> copyStore( StoreWriter writer )
+            {
+                ChannelBuffer stream = ChannelBuffers.dynamicBuffer();
+                ToNetworkStoreWriter sender = new ToNetworkStoreWriter( stream, new Monitors(), true );
+                try
+                {
+                    byte[] data = new byte[1000];
+                    sender.write( "neostore.nodestore.db", Channels.newChannel( new ByteArrayInputStream( data ) ),
+                            ByteBuffer.allocate( 300 ), true );
+                    sender.done();
+                    // Flip a content byte, past the end of segments and end of files markers
+                    int corrupted = stream.writerIndex() - 4 - 2 - 1;
+                    stream.setByte( corrupted, ~stream.getByte( corrupted ) );
+
+                    new Protocol.FileStreamsDeserializer( writer ).read( stream, ByteBuffer.allocate( 4096 ) );
+                }
+                catch ( IOException e )
+                {
+                    throw new ComException( e );
+                }
+                throw new AssertionError( "Corrupted store file should not have been accepted" );
+            }
+
+            @Override
+            public void done()
+            {
+            }
+        };
+
+        // When
+        try
+        {
+            copier.copyStore( requester, CancellationRequest.NONE );
+            fail( "Should have failed on the corrupted store file" );
+        }
+        catch ( ComException e )
+        {
+            assertThat( e.getCause().getMessage(), containsString( "Checksum mismatch" ) );
+        }
+
+        // Then
+        assertFalse( new File( copyDir, "temp-copy" ).exists() );
+    }
 }
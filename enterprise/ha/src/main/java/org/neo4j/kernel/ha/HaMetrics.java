@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.ha;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.neo4j.kernel.IdType;
+import org.neo4j.kernel.ha.id.HaIdGeneratorFactory;
+import org.neo4j.kernel.ha.lock.SlaveLockManager;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.kernel.monitoring.metrics.Counter;
+import org.neo4j.kernel.monitoring.metrics.Histogram;
+import org.neo4j.kernel.monitoring.metrics.MetricsRegistry;
+
+/**
+ * Listens to HA {@link Monitors monitors} and records what they publish in a {@link MetricsRegistry}, next to what
+ * {@link org.neo4j.kernel.monitoring.metrics.KernelMetrics} records for the kernel.
+ */
+public class HaMetrics
+{
+    public static final String SLAVE_LOCK_ROUND_TRIPS = "ha.slave.lock_round_trips";
+    public static final String SLAVE_LOCKED_RESOURCES = "ha.slave.locked_resources";
+    public static final String SLAVE_ID_RANGE_REFILLS = "ha.slave.id_range_refills";
+    public static final String SLAVE_ID_RANGE_STALL_TIME = "ha.slave.id_range_stall_time";
+
+    private final MetricsRegistry registry;
+
+    public HaMetrics( MetricsRegistry registry )
+    {
+        this.registry = registry;
+    }
+
+    public void listenTo( Monitors monitors )
+    {
+        monitors.addMonitorListener( new SlaveLockMetrics() );
+        monitors.addMonitorListener( new SlaveIdRangeMetrics() );
+    }
+
+    private class SlaveLockMetrics implements SlaveLockManager.Monitor
+    {
+        private final Histogram roundTrips = registry.histogram( SLAVE_LOCK_ROUND_TRIPS );
+        private final Histogram lockedResources = registry.histogram( SLAVE_LOCKED_RESOURCES );
+
+        @Override
+        public void masterLocksRequested( int roundTrips, int lockedResources )
+        {
+            this.roundTrips.record( roundTrips );
+            this.lockedResources.record( lockedResources );
+        }
+    }
+
+    private class SlaveIdRangeMetrics implements HaIdGeneratorFactory.Monitor
+    {
+        private final Map<IdType, Counter> refills = new EnumMap<>( IdType.class );
+        private final Map<IdType, Histogram> stallTimes = new EnumMap<>( IdType.class );
+
+        SlaveIdRangeMetrics()
+        {
+            for ( IdType idType : IdType.values() )
+            {
+                String typeName = idType.name().toLowerCase();
+                refills.put( idType, registry.counter( SLAVE_ID_RANGE_REFILLS + "." + typeName ) );
+                stallTimes.put( idType, registry.histogram( SLAVE_ID_RANGE_STALL_TIME + "." + typeName ) );
+            }
+        }
+
+        @Override
+        public void idRangeReceived( IdType idType, int size, long stallNanos )
+        {
+            refills.get( idType ).increment();
+            stallTimes.get( idType ).record( stallNanos );
+        }
+    }
+}
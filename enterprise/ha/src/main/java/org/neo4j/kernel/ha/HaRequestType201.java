@@ -57,7 +57,7 @@ public enum HaRequestType201 implements RequestType<Master>
                 ChannelBuffer target )
         {
             IdType idType = IdType.values()[input.readByte()];
-            return master.allocateIds( context, idType );
+            return master.allocateIds( context, idType, 0 );
         }
     }, new ObjectSerializer<IdAllocation>()
     {
@@ -25,6 +25,7 @@ import java.nio.channels.ReadableByteChannel;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.neo4j.com.BlockLogReader;
 import org.neo4j.com.ObjectSerializer;
+import org.neo4j.com.Protocol;
 import org.neo4j.com.RequestContext;
 import org.neo4j.com.RequestType;
 import org.neo4j.com.Response;
@@ -58,7 +59,9 @@ public enum HaRequestType210 implements RequestType<Master>
                 ChannelBuffer target )
         {
             IdType idType = IdType.values()[input.readByte()];
-            return master.allocateIds( context, idType );
+            // Slaves of earlier 2.1 versions don't send a size
+            int size = input.readable() ? input.readInt() : 0;
+            return master.allocateIds( context, idType, size );
         }
     }, new ObjectSerializer<IdAllocation>()
     {
@@ -191,7 +194,8 @@ public enum HaRequestType210 implements RequestType<Master>
         public Response<Void> call( Master master, RequestContext context, ChannelBuffer input,
                 final ChannelBuffer target )
         {
-            return master.copyStore( context, new ToNetworkStoreWriter( target, new Monitors() ) );
+            return master.copyStore( context, new ToNetworkStoreWriter( target, new Monitors(),
+                    Protocol.checksummedStoreFilesRequested( input ) ) );
         }
 
     }, VOID_SERIALIZER ),
@@ -23,9 +23,11 @@ import java.nio.channels.ReadableByteChannel;
 
 import org.neo4j.com.Response;
 import org.neo4j.com.ServerUtil;
+import org.neo4j.com.TransactionStream;
 import org.neo4j.com.TxExtractor;
+import org.neo4j.helpers.Pair;
 import org.neo4j.helpers.Triplet;
-import org.neo4j.helpers.collection.IteratorUtil;
+import org.neo4j.helpers.collection.PrefetchingIterator;
 import org.neo4j.kernel.impl.transaction.XaDataSourceManager;
 import org.neo4j.kernel.impl.transaction.xaframework.XaDataSource;
 import org.neo4j.kernel.impl.util.StringLogger;
@@ -42,24 +44,21 @@ public class HaXaDataSourceManager extends XaDataSourceManager
         return applyTransactions( response, ServerUtil.NO_ACTION );
     }
 
+    /**
+     * Applies the transactions of the response. Consecutive transactions for the same data source are
+     * applied as a batch, see {@link XaDataSource#applyCommittedTransactions(java.util.Iterator)}.
+     */
     public <T> T applyTransactions( Response<T> response, ServerUtil.TxHandler txHandler )
     {
         try
         {
-            for ( Triplet<String, Long, TxExtractor> tx : IteratorUtil.asIterable( response.transactions() ) )
+            TransactionStream transactions = response.transactions();
+            while ( transactions.hasNext() )
             {
-                String resourceName = tx.first();
+                String resourceName = transactions.peek().first();
                 XaDataSource dataSource = getXaDataSource( resourceName );
-                txHandler.accept( tx, dataSource );
-                ReadableByteChannel txStream = tx.third().extract();
-                try
-                {
-                    dataSource.applyCommittedTransaction( tx.second(), txStream );
-                }
-                finally
-                {
-                    txStream.close();
-                }
+                dataSource.applyCommittedTransactions(
+                        new SameDataSourceTransactions( transactions, resourceName, dataSource, txHandler ) );
             }
             txHandler.done();
         }
@@ -73,4 +72,36 @@ public class HaXaDataSourceManager extends XaDataSourceManager
         }
         return response.response();
     }
+
+    /**
+     * The consecutive transactions at the head of a transaction stream that are for the same data source.
+     */
+    private static class SameDataSourceTransactions extends PrefetchingIterator<Pair<Long, ReadableByteChannel>>
+    {
+        private final TransactionStream transactions;
+        private final String resourceName;
+        private final XaDataSource dataSource;
+        private final ServerUtil.TxHandler txHandler;
+
+        SameDataSourceTransactions( TransactionStream transactions, String resourceName, XaDataSource dataSource,
+                                    ServerUtil.TxHandler txHandler )
+        {
+            this.transactions = transactions;
+            this.resourceName = resourceName;
+            this.dataSource = dataSource;
+            this.txHandler = txHandler;
+        }
+
+        @Override
+        protected Pair<Long, ReadableByteChannel> fetchNextOrNull()
+        {
+            if ( !transactions.hasNext() || !transactions.peek().first().equals( resourceName ) )
+            {
+                return null;
+            }
+            Triplet<String, Long, TxExtractor> tx = transactions.next();
+            txHandler.accept( tx, dataSource );
+            return Pair.of( tx.second(), tx.third().extract() );
+        }
+    }
 }
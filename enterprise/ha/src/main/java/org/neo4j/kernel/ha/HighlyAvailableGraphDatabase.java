@@ -79,11 +79,14 @@ import org.neo4j.kernel.ha.com.slave.InvalidEpochExceptionHandler;
 import org.neo4j.kernel.ha.com.slave.MasterClientResolver;
 import org.neo4j.kernel.ha.id.HaIdGeneratorFactory;
 import org.neo4j.kernel.ha.lock.LockManagerModeSwitcher;
+import org.neo4j.kernel.ha.lock.SlaveLockManager;
 import org.neo4j.kernel.ha.management.ClusterDatabaseInfoProvider;
 import org.neo4j.kernel.ha.management.HighlyAvailableKernelData;
 import org.neo4j.kernel.ha.transaction.DenseNodeTransactionTranslator;
 import org.neo4j.kernel.ha.transaction.OnDiskLastTxIdGetter;
+import org.neo4j.kernel.ha.transaction.SlaveTransactionAwaiter;
 import org.neo4j.kernel.ha.transaction.TxHookModeSwitcher;
+import org.neo4j.kernel.ha.transaction.TransactionAcknowledgements;
 import org.neo4j.kernel.ha.transaction.TxIdGeneratorModeSwitcher;
 import org.neo4j.kernel.impl.cache.CacheProvider;
 import org.neo4j.kernel.impl.core.Caches;
@@ -120,6 +123,7 @@ public class HighlyAvailableGraphDatabase extends InternalAbstractGraphDatabase
 {
     private RequestContextFactory requestContextFactory;
     private Slaves slaves;
+    private TransactionAcknowledgements transactionAcknowledgements;
     private ClusterMembers members;
     private DelegateInvocationHandler<Master> masterDelegateInvocationHandler;
     private HighAvailabilityMemberStateMachine memberStateMachine;
@@ -158,11 +162,14 @@ public class HighlyAvailableGraphDatabase extends InternalAbstractGraphDatabase
                 masterDelegateInvocationHandler );
 
         super.create();
+        new HaMetrics( metricsRegistry ).listenTo( monitors );
 
         kernelEventHandlers.registerKernelEventHandler( new HaKernelPanicHandler( xaDataSourceManager,
                 (TxManager) txManager, availabilityGuard, logging, masterDelegateInvocationHandler ) );
         life.add( updatePuller = new UpdatePuller( memberStateMachine, (HaXaDataSourceManager) xaDataSourceManager, master,
                 requestContextFactory, txManager, availabilityGuard, lastUpdateTime, config, jobScheduler, msgLog ) );
+        transactionAwaiter = new SlaveTransactionAwaiter( xaDataSourceManager, memberStateMachine, updatePuller,
+                jobScheduler, logging.getMessagesLog( SlaveTransactionAwaiter.class ) );
 
         stateSwitchTimeoutMillis = config.get( HaSettings.state_switch_timeout );
 
@@ -441,9 +448,12 @@ public class HighlyAvailableGraphDatabase extends InternalAbstractGraphDatabase
         slaves = life.add( new HighAvailabilitySlaves( members, clusterClient, new DefaultSlaveFactory(
                 xaDataSourceManager, logging, monitors, config.get( HaSettings.com_chunk_size ).intValue() ) ) );
 
+        transactionAcknowledgements = new TransactionAcknowledgements();
+        clusterClient.addClusterListener( transactionAcknowledgements );
+
         new TxIdGeneratorModeSwitcher( memberStateMachine, txIdGeneratorDelegate,
                 (HaXaDataSourceManager) xaDataSourceManager, masterDelegateInvocationHandler, requestContextFactory,
-                msgLog, config, slaves, txManager, jobScheduler );
+                msgLog, config, slaves, txManager, jobScheduler, transactionAcknowledgements );
         return txIdGenerator;
     }
 
@@ -451,7 +461,7 @@ public class HighlyAvailableGraphDatabase extends InternalAbstractGraphDatabase
     protected IdGeneratorFactory createIdGeneratorFactory()
     {
         idGeneratorFactory = new HaIdGeneratorFactory( masterDelegateInvocationHandler, logging,
-                requestContextFactory );
+                requestContextFactory, jobScheduler, monitors.newMonitor( HaIdGeneratorFactory.Monitor.class ) );
 
         InvalidEpochExceptionHandler invalidEpochHandler = new InvalidEpochExceptionHandler()
         {
@@ -514,7 +524,7 @@ public class HighlyAvailableGraphDatabase extends InternalAbstractGraphDatabase
             {
                 return HighlyAvailableGraphDatabase.super.createLockManager();
             }
-        } );
+        }, monitors.newMonitor( SlaveLockManager.Monitor.class ) );
         return lockManager;
     }
 
@@ -710,6 +720,10 @@ public class HighlyAvailableGraphDatabase extends InternalAbstractGraphDatabase
                     {
                         result = type.cast( slaves );
                     }
+                    else if ( TransactionAcknowledgements.class.isAssignableFrom( type ) )
+                    {
+                        result = type.cast( transactionAcknowledgements );
+                    }
                     else if ( ClusterClient.class.isAssignableFrom( type ) )
                     {
                         result = type.cast( clusterClient );
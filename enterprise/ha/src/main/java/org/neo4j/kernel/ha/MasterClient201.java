@@ -117,7 +117,7 @@ public class MasterClient201 extends Client<Master> implements MasterClient
     }
 
     @Override
-    public Response<IdAllocation> allocateIds( RequestContext context, final IdType idType )
+    public Response<IdAllocation> allocateIds( RequestContext context, final IdType idType, int size )
     {
         return sendRequest( HaRequestType201.ALLOCATE_IDS, context, new Serializer()
                 {
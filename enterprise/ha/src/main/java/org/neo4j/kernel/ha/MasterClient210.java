@@ -123,7 +123,7 @@ public class MasterClient210 extends Client<Master> implements MasterClient
     }
 
     @Override
-    public Response<IdAllocation> allocateIds( RequestContext context, final IdType idType )
+    public Response<IdAllocation> allocateIds( RequestContext context, final IdType idType, final int size )
     {
         return sendRequest( HaRequestType210.ALLOCATE_IDS, context, new Serializer()
                 {
@@ -131,6 +131,7 @@ public class MasterClient210 extends Client<Master> implements MasterClient
                     public void write( ChannelBuffer buffer ) throws IOException
                     {
                         buffer.writeByte( idType.ordinal() );
+                        buffer.writeInt( size );
                     }
                 }, new Deserializer<IdAllocation>()
                 {
@@ -326,7 +327,7 @@ public class MasterClient210 extends Client<Master> implements MasterClient
     public Response<Void> copyStore( RequestContext context, final StoreWriter writer )
     {
         context = stripFromTransactions( context );
-        return sendRequest( HaRequestType210.COPY_STORE, context, EMPTY_SERIALIZER,
+        return sendRequest( HaRequestType210.COPY_STORE, context, Protocol.CHECKSUMMED_STORE_FILES_SERIALIZER,
                 new Protocol.FileStreamsDeserializer( writer ) );
     }
 
@@ -21,6 +21,7 @@ package org.neo4j.kernel.ha.cluster;
 
 import java.io.IOException;
 import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
 
 import javax.transaction.NotSupportedException;
 import javax.transaction.SystemException;
@@ -42,7 +43,9 @@ import org.neo4j.kernel.IdType;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.api.Statement;
 import org.neo4j.kernel.ha.com.master.MasterImpl;
+import org.neo4j.kernel.ha.id.HaIdGeneratorFactory;
 import org.neo4j.kernel.ha.id.IdAllocation;
+import org.neo4j.kernel.ha.transaction.TransactionAcknowledgements;
 import org.neo4j.kernel.impl.core.KernelPanicEventGenerator;
 import org.neo4j.kernel.impl.core.LabelTokenHolder;
 import org.neo4j.kernel.impl.core.PropertyKeyTokenHolder;
@@ -60,11 +63,13 @@ import org.neo4j.kernel.monitoring.Monitors;
 class DefaultMasterImplSPI implements MasterImpl.SPI
 {
     private static final int ID_GRAB_SIZE = 1000;
+    private static final int MAX_ID_GRAB_SIZE = HaIdGeneratorFactory.MAX_ID_RANGE_SIZE;
     private final DependencyResolver dependencyResolver;
     private final GraphDatabaseAPI graphDb;
     private final Logging logging;
     private final TransactionManager txManager;
     private final Monitors monitors;
+    private final TransactionAcknowledgements acknowledgements;
 
     public DefaultMasterImplSPI( GraphDatabaseAPI graphDb, Logging logging,
                                  TransactionManager txManager, Monitors monitors )
@@ -74,6 +79,7 @@ class DefaultMasterImplSPI implements MasterImpl.SPI
         this.txManager = txManager;
         this.dependencyResolver = graphDb.getDependencyResolver();
         this.monitors = monitors;
+        this.acknowledgements = resolve( TransactionAcknowledgements.class );
     }
 
     @Override
@@ -86,11 +92,28 @@ class DefaultMasterImplSPI implements MasterImpl.SPI
     @Override
     public void acquireLock( MasterImpl.LockGrabber grabber, Locks.ResourceType type, long[] resourceIds )
     {
+        // Slaves send all the resources of a kind they need in one request. Grabbing them in id order means two
+        // such requests can't deadlock each other, and giving back what was grabbed if one of them fails means
+        // the slave either gets the whole request or nothing.
+        long[] orderedIds = resourceIds.clone();
+        Arrays.sort( orderedIds );
         try( Statement stmt = resolve( ThreadToStatementContextBridge.class ).instance())
         {
-            for ( long resourceId : resourceIds )
+            int grabbed = 0;
+            try
             {
-                grabber.grab( stmt, type, resourceId );
+                for ( ; grabbed < orderedIds.length; grabbed++ )
+                {
+                    grabber.grab( stmt, type, orderedIds[grabbed] );
+                }
+            }
+            catch ( RuntimeException e )
+            {
+                while ( grabbed-- > 0 )
+                {
+                    grabber.release( stmt, type, orderedIds[grabbed] );
+                }
+                throw e;
             }
         }
     }
@@ -156,10 +179,11 @@ class DefaultMasterImplSPI implements MasterImpl.SPI
     }
 
     @Override
-    public IdAllocation allocateIds( IdType idType )
+    public IdAllocation allocateIds( IdType idType, int size )
     {
         IdGenerator generator = resolve( IdGeneratorFactory.class ).get(idType);
-        return new IdAllocation( generator.nextIdBatch( ID_GRAB_SIZE ), generator.getHighId(),
+        int grabSize = size <= 0 ? ID_GRAB_SIZE : Math.min( size, MAX_ID_GRAB_SIZE );
+        return new IdAllocation( generator.nextIdBatch( grabSize ), generator.getHighId(),
                 generator.getDefragCount() );
     }
 
@@ -214,6 +238,7 @@ class DefaultMasterImplSPI implements MasterImpl.SPI
     @Override
     public <T> Response<T> packResponse( RequestContext context, T response, Predicate<Long> filter )
     {
+        acknowledgements.applied( context );
         XaDataSourceManager xaDataSourceManager = resolve( XaDataSourceManager.class );
         return ServerUtil.packResponse( storeId(), xaDataSourceManager, context, response, filter );
     }
@@ -35,7 +35,10 @@ import org.neo4j.kernel.impl.nioneo.store.StoreId;
  */
 public interface Master
 {
-    Response<IdAllocation> allocateIds( RequestContext context, IdType idType );
+    /**
+     * @param size the number of ids the slave would like to get, or {@code 0} to let the master decide.
+     */
+    Response<IdAllocation> allocateIds( RequestContext context, IdType idType, int size );
 
     Response<Integer> createRelationshipType( RequestContext context, String name );
 
@@ -100,7 +100,7 @@ public class MasterImpl extends LifecycleAdapter implements Master
 
         void resumeTransaction( Transaction transaction );
 
-        IdAllocation allocateIds( IdType idType );
+        IdAllocation allocateIds( IdType idType, int size );
 
         StoreId storeId();
 
@@ -321,10 +321,10 @@ public class MasterImpl extends LifecycleAdapter implements Master
     }
 
     @Override
-    public Response<IdAllocation> allocateIds( RequestContext context, IdType idType )
+    public Response<IdAllocation> allocateIds( RequestContext context, IdType idType, int size )
     {
         assertCorrectEpoch( context );
-        IdAllocation result = spi.allocateIds( idType );
+        IdAllocation result = spi.allocateIds( idType, size );
         return ServerUtil.packResponseWithoutTransactionStream( spi.storeId(), result );
     }
 
@@ -445,6 +445,9 @@ public class MasterImpl extends LifecycleAdapter implements Master
     public static interface LockGrabber
     {
         void grab( Statement statement, Locks.ResourceType type, long resourceId );
+
+        /** Gives back a lock taken by {@link #grab(Statement, Locks.ResourceType, long)}. */
+        void release( Statement statement, Locks.ResourceType type, long resourceId );
     }
 
     private static LockGrabber SHARED_LOCK_GRABBER = new LockGrabber()
@@ -454,6 +457,12 @@ public class MasterImpl extends LifecycleAdapter implements Master
         {
             statement.readOperations().acquireShared( type, resourceId );
         }
+
+        @Override
+        public void release( Statement statement, Locks.ResourceType type, long resourceId )
+        {
+            statement.readOperations().releaseShared( type, resourceId );
+        }
     };
 
     private static LockGrabber EXCLUSIVE_LOCK_GRABBER = new LockGrabber()
@@ -463,6 +472,12 @@ public class MasterImpl extends LifecycleAdapter implements Master
         {
             statement.readOperations().acquireExclusive( type, resourceId );
         }
+
+        @Override
+        public void release( Statement statement, Locks.ResourceType type, long resourceId )
+        {
+            statement.readOperations().releaseExclusive( type, resourceId );
+        }
     };
 
     @Override
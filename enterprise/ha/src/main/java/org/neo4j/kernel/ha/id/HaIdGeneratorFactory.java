@@ -23,6 +23,9 @@ import java.io.File;
 import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import org.neo4j.com.Response;
 import org.neo4j.kernel.DefaultIdGeneratorFactory;
@@ -34,25 +37,75 @@ import org.neo4j.kernel.ha.com.master.Master;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 import org.neo4j.kernel.impl.nioneo.store.IdGenerator;
 import org.neo4j.kernel.impl.nioneo.store.IdRange;
+import org.neo4j.kernel.impl.util.JobScheduler;
 import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.kernel.logging.Logging;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import static org.neo4j.kernel.impl.util.JobScheduler.Group.idRangePrefetching;
+
+/**
+ * Id generators which allocate ids locally on the master and get them from the master in ranges on slaves.
+ * <p/>
+ * Slaves size the ranges they ask for after how fast they have been using up ids of that type, aiming for one
+ * range to last about {@link #TARGET_RANGE_DURATION_NANOS}, and, if given a {@link JobScheduler}, request the next
+ * range in the background when the current one is running low, so that transactions rarely wait for the master.
+ */
 public class HaIdGeneratorFactory implements IdGeneratorFactory
 {
+    /** The number of ids slaves ask for until they know how fast they use them, also what the master defaults to. */
+    public static final int MIN_ID_RANGE_SIZE = 1000;
+    public static final int MAX_ID_RANGE_SIZE = 64 * MIN_ID_RANGE_SIZE;
+    static final long TARGET_RANGE_DURATION_NANOS = SECONDS.toNanos( 1 );
+
+    /** Notified about the id ranges slaves get from the master. */
+    public interface Monitor
+    {
+        /**
+         * @param size the number of ids in the range.
+         * @param stallNanos how long an id allocation had to wait for the range, {@code 0} if it was prefetched.
+         */
+        void idRangeReceived( IdType idType, int size, long stallNanos );
+
+        Monitor NONE = new Adapter();
+
+        public class Adapter implements Monitor
+        {
+            @Override
+            public void idRangeReceived( IdType idType, int size, long stallNanos )
+            {
+            }
+        }
+    }
+
     private final Map<IdType, HaIdGenerator> generators =
             new EnumMap<IdType, HaIdGenerator>( IdType.class );
     private final IdGeneratorFactory localFactory = new DefaultIdGeneratorFactory();
     private final DelegateInvocationHandler<Master> master;
     private final StringLogger logger;
     private final RequestContextFactory requestContextFactory;
+    private final JobScheduler scheduler;
+    private final Monitor monitor;
     private IdGeneratorState globalState = IdGeneratorState.PENDING;
 
     public HaIdGeneratorFactory( DelegateInvocationHandler<Master> master, Logging logging,
             RequestContextFactory requestContextFactory )
+    {
+        this( master, logging, requestContextFactory, null, Monitor.NONE );
+    }
+
+    /**
+     * @param scheduler used for prefetching id ranges on slaves, or {@code null} to only request them when needed.
+     */
+    public HaIdGeneratorFactory( DelegateInvocationHandler<Master> master, Logging logging,
+            RequestContextFactory requestContextFactory, JobScheduler scheduler, Monitor monitor )
     {
         this.master = master;
         this.logger = logging.getMessagesLog( getClass() );
         this.requestContextFactory = requestContextFactory;
+        this.scheduler = scheduler;
+        this.monitor = monitor;
     }
 
     @Override
@@ -71,7 +124,7 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
             initialIdGenerator = localFactory.open( fs, fileName, grabSize, idType, highId );
             break;
         case SLAVE:
-            initialIdGenerator = new SlaveIdGenerator( idType, highId, master.cement(), logger, requestContextFactory );
+            initialIdGenerator = newSlaveIdGenerator( idType, highId, master.cement() );
             break;
         default:
             throw new IllegalStateException( globalState.name() );
@@ -124,6 +177,11 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
         }
     }
 
+    private SlaveIdGenerator newSlaveIdGenerator( IdType idType, long highId, Master master )
+    {
+        return new SlaveIdGenerator( idType, highId, master, logger, requestContextFactory, scheduler, monitor );
+    }
+
     private static final long VALUE_REPRESENTING_NULL = -1;
 
     private enum IdGeneratorState
@@ -156,7 +214,7 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
         {
             long highId = delegate.getHighId();
             delegate.close();
-            delegate = new SlaveIdGenerator( idType, highId, master, logger, requestContextFactory );
+            delegate = newSlaveIdGenerator( idType, highId, master );
             logger.debug( "Instantiated slave delegate " + delegate + " of type " + idType + " with highid " + highId );
             state = IdGeneratorState.SLAVE;
         }
@@ -165,6 +223,8 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
         {
             if ( state == IdGeneratorState.SLAVE )
             {
+                IdRangeIterator[] unusedIds = delegate instanceof SlaveIdGenerator ?
+                        ((SlaveIdGenerator) delegate).takeUnusedIds() : new IdRangeIterator[0];
                 long highId = delegate.getHighId();
                 delegate.close();
                 if ( fs.fileExists( fileName ) )
@@ -175,6 +235,21 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
                 localFactory.create( fs, fileName, highId );
                 delegate = localFactory.open( fs, fileName, grabSize, idType, highId );
                 logger.debug( "Instantiated master delegate " + delegate + " of type " + idType + " with highid " + highId );
+
+                // Ids this instance got from the previous master but didn't use would otherwise never be used
+                int freed = 0;
+                for ( IdRangeIterator ids : unusedIds )
+                {
+                    for ( long id = ids.next(); id != VALUE_REPRESENTING_NULL; id = ids.next() )
+                    {
+                        delegate.freeId( id );
+                        freed++;
+                    }
+                }
+                if ( freed > 0 )
+                {
+                    logger.info( "Freed " + freed + " unused ids of type " + idType + " allocated by previous master" );
+                }
             }
             else
             {
@@ -277,15 +352,25 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
         private final IdType idType;
         private final StringLogger logger;
         private final RequestContextFactory requestContextFactory;
+        private final JobScheduler scheduler;
+        private final Monitor monitor;
+
+        // Guarded by this
+        private int rangeSize = MIN_ID_RANGE_SIZE;
+        private int receivedRangeSize;
+        private long receivedRangeAt;
+        private FutureTask<IdAllocation> prefetch;
 
         SlaveIdGenerator( IdType idType, long highId, Master master, StringLogger logger,
-                RequestContextFactory requestContextFactory )
+                RequestContextFactory requestContextFactory, JobScheduler scheduler, Monitor monitor )
         {
             this.idType = idType;
             this.highestIdInUse = highId;
             this.master = master;
             this.logger = logger;
             this.requestContextFactory = requestContextFactory;
+            this.scheduler = scheduler;
+            this.monitor = monitor;
         }
 
         @Override
@@ -316,18 +401,110 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
             long nextId = nextLocalId();
             if ( nextId == VALUE_REPRESENTING_NULL )
             {
-                // If we don't have anymore grabbed ids from master, grab a bunch
-                try ( Response<IdAllocation> response =
-                        master.allocateIds( requestContextFactory.newRequestContext(), idType ) )
+                // If we don't have anymore grabbed ids from master, grab a bunch, unless they are already on their way
+                long stallStart = System.nanoTime();
+                IdAllocation allocation = takePrefetched();
+                if ( allocation == null )
                 {
-                    IdAllocation allocation = response.response();
-                    logger.info( "Received id allocation " + allocation + " from master " + master + " for " + idType );
-                    nextId = storeLocally( allocation );
+                    allocation = allocate( nextRangeSize( stallStart ) );
                 }
+                nextId = storeLocally( allocation );
+                monitor.idRangeReceived( idType, receivedRangeSize, System.nanoTime() - stallStart );
+            }
+            else if ( scheduler != null && prefetch == null && idQueue.remaining() <= rangeSize / 4 )
+            {
+                prefetch( nextRangeSize( System.nanoTime() ) );
             }
             return nextId;
         }
 
+        /**
+         * Sizes the next range after the rate at which ids of the current one have been used, smoothed by the
+         * size of the previous request.
+         */
+        private int nextRangeSize( long now )
+        {
+            long used = receivedRangeSize - idQueue.remaining();
+            long wanted = used * TARGET_RANGE_DURATION_NANOS / Math.max( 1, now - receivedRangeAt );
+            rangeSize = (int) Math.max( MIN_ID_RANGE_SIZE, Math.min( MAX_ID_RANGE_SIZE, (rangeSize + wanted) / 2 ) );
+            return rangeSize;
+        }
+
+        private IdAllocation allocate( int size )
+        {
+            try ( Response<IdAllocation> response =
+                    master.allocateIds( requestContextFactory.newRequestContext(), idType, size ) )
+            {
+                IdAllocation allocation = response.response();
+                logger.info( "Received id allocation " + allocation + " from master " + master + " for " + idType );
+                return allocation;
+            }
+        }
+
+        private void prefetch( final int size )
+        {
+            prefetch = new FutureTask<>( new Callable<IdAllocation>()
+            {
+                @Override
+                public IdAllocation call()
+                {
+                    return allocate( size );
+                }
+            } );
+            scheduler.schedule( idRangePrefetching, prefetch );
+        }
+
+        /**
+         * @return the prefetched range, waiting for it if it is still being requested, or {@code null} if there is
+         * no prefetched range or requesting it failed.
+         */
+        private IdAllocation takePrefetched()
+        {
+            FutureTask<IdAllocation> task = prefetch;
+            prefetch = null;
+            if ( task == null )
+            {
+                return null;
+            }
+            try
+            {
+                return task.get();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            catch ( ExecutionException e )
+            {
+                logger.warn( "Failed to prefetch ids of type " + idType + " from master " + master, e.getCause() );
+                return null;
+            }
+        }
+
+        /**
+         * Hands over the ids this generator got from the master but did not use, including a prefetched range if
+         * it has arrived. The generator must not be used afterwards.
+         */
+        synchronized IdRangeIterator[] takeUnusedIds()
+        {
+            IdRangeIterator current = idQueue;
+            idQueue = EMPTY_ID_RANGE_ITERATOR;
+            FutureTask<IdAllocation> task = prefetch;
+            if ( task == null || !task.isDone() )
+            {
+                return new IdRangeIterator[] {current};
+            }
+
+            IdAllocation prefetched = takePrefetched();
+            if ( prefetched == null )
+            {
+                return new IdRangeIterator[] {current};
+            }
+            setHighId( prefetched.getHighestIdInUse() );
+            return new IdRangeIterator[] {current, new IdRangeIterator( prefetched.getIdRange() )};
+        }
+
         @Override
         public IdRange nextIdBatch( int size )
         {
@@ -339,6 +516,8 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
             setHighId( allocation.getHighestIdInUse() );
             this.defragCount = allocation.getDefragCount();
             this.idQueue = new IdRangeIterator( allocation.getIdRange() );
+            this.receivedRangeSize = idQueue.remaining();
+            this.receivedRangeAt = System.nanoTime();
             return idQueue.next();
         }
 
@@ -385,6 +564,11 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
             this.length = idRange.getRangeLength();
         }
 
+        int remaining()
+        {
+            return Math.max( 0, defrag.length + length - position );
+        }
+
         long next()
         {
             try
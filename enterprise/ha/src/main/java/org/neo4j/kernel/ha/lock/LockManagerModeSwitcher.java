@@ -45,13 +45,14 @@ public class LockManagerModeSwitcher extends AbstractModeSwitcher<Locks>
     private final AvailabilityGuard availabilityGuard;
     private final Config config;
     private final Factory<Locks> locksFactory;
+    private final SlaveLockManager.Monitor slaveLockMonitor;
 
     public LockManagerModeSwitcher( HighAvailabilityMemberStateMachine stateMachine,
                                     DelegateInvocationHandler<Locks> delegate,
                                     HaXaDataSourceManager xaDsm, DelegateInvocationHandler<Master> master,
                                     RequestContextFactory requestContextFactory, AbstractTransactionManager txManager,
                                     RemoteTxHook remoteTxHook, AvailabilityGuard availabilityGuard, Config config,
-                                    Factory<Locks> locksFactory)
+                                    Factory<Locks> locksFactory, SlaveLockManager.Monitor slaveLockMonitor )
     {
         super( stateMachine, delegate );
         this.xaDsm = xaDsm;
@@ -62,6 +63,7 @@ public class LockManagerModeSwitcher extends AbstractModeSwitcher<Locks>
         this.availabilityGuard = availabilityGuard;
         this.config = config;
         this.locksFactory = locksFactory;
+        this.slaveLockMonitor = slaveLockMonitor;
     }
 
     @Override
@@ -81,6 +83,6 @@ public class LockManagerModeSwitcher extends AbstractModeSwitcher<Locks>
             {
                 return config.get( HaSettings.lock_read_timeout );
             }
-        });
+        }, slaveLockMonitor );
     }
 }
@@ -38,15 +38,38 @@ public class SlaveLockManager extends LifecycleAdapter implements Locks
     private final RemoteTxHook txHook;
     private final AvailabilityGuard availabilityGuard;
     private final Configuration config;
+    private final Monitor monitor;
 
     public static interface Configuration
     {
         long getAvailabilityTimeout();
     }
 
+    /** Notified about the lock requests slave transactions send to the master. */
+    public interface Monitor
+    {
+        /**
+         * Called when a transaction that had to lock resources on the master ends.
+         *
+         * @param roundTrips the number of lock requests the transaction sent to the master.
+         * @param lockedResources the number of resources those requests locked.
+         */
+        void masterLocksRequested( int roundTrips, int lockedResources );
+
+        Monitor NONE = new Adapter();
+
+        public class Adapter implements Monitor
+        {
+            @Override
+            public void masterLocksRequested( int roundTrips, int lockedResources )
+            {
+            }
+        }
+    }
+
     public SlaveLockManager( Locks localLocks, RequestContextFactory requestContextFactory, Master master,
             HaXaDataSourceManager xaDsm, AbstractTransactionManager txManager, RemoteTxHook txHook,
-            AvailabilityGuard availabilityGuard, Configuration config )
+            AvailabilityGuard availabilityGuard, Configuration config, Monitor monitor )
     {
         this.requestContextFactory = requestContextFactory;
         this.xaDsm = xaDsm;
@@ -56,13 +79,14 @@ public class SlaveLockManager extends LifecycleAdapter implements Locks
         this.config = config;
         this.local = localLocks;
         this.master = master;
+        this.monitor = monitor;
     }
 
     @Override
     public Client newClient()
     {
         return new SlaveLocksClient(master, local.newClient(), local, requestContextFactory, xaDsm, txManager, txHook,
-                availabilityGuard, config );
+                availabilityGuard, config, monitor );
     }
 
     @Override
@@ -53,11 +53,14 @@ class SlaveLocksClient implements Locks.Client
     private final RemoteTxHook txHook;
     private final AvailabilityGuard availabilityGuard;
     private final SlaveLockManager.Configuration config;
+    private final SlaveLockManager.Monitor monitor;
 
     // Using atomic ints to avoid creating garbage through boxing.
     private final Map<Locks.ResourceType, Map<Long, AtomicInteger>> sharedLocks;
     private final Map<Locks.ResourceType, Map<Long, AtomicInteger>> exclusiveLocks;
     private Transaction tx;
+    private int masterRoundTrips;
+    private int resourcesLockedOnMaster;
 
     public SlaveLocksClient(
             Master master,
@@ -68,7 +71,8 @@ class SlaveLocksClient implements Locks.Client
             AbstractTransactionManager txManager,
             RemoteTxHook txHook,
             AvailabilityGuard availabilityGuard,
-            SlaveLockManager.Configuration config )
+            SlaveLockManager.Configuration config,
+            SlaveLockManager.Monitor monitor )
     {
         this.master = master;
         this.client = local;
@@ -79,6 +83,7 @@ class SlaveLocksClient implements Locks.Client
         this.txHook = txHook;
         this.availabilityGuard = availabilityGuard;
         this.config = config;
+        this.monitor = monitor;
         sharedLocks = new HashMap<>();
         exclusiveLocks = new HashMap<>();
     }
@@ -247,9 +252,21 @@ class SlaveLocksClient implements Locks.Client
         this.tx = tx;
     }
 
+    @Override
+    public int activeLockCount()
+    {
+        return client.activeLockCount();
+    }
+
     @Override
     public void close()
     {
+        if ( masterRoundTrips > 0 )
+        {
+            monitor.masterLocksRequested( masterRoundTrips, resourcesLockedOnMaster );
+            masterRoundTrips = 0;
+            resourcesLockedOnMaster = 0;
+        }
         sharedLocks.clear();
         exclusiveLocks.clear();
         client.close();
@@ -270,6 +287,7 @@ class SlaveLocksClient implements Locks.Client
             || resourceType == ResourceTypes.LEGACY_INDEX )
         {
             makeSureTxHasBeenInitialized();
+            countMasterRoundTrip( resourceId );
             return receiveLockResponse(
                 master.acquireSharedLock( requestContextFactory.newRequestContext(), resourceType, resourceId ));
         }
@@ -282,10 +300,21 @@ class SlaveLocksClient implements Locks.Client
     private boolean acquireExclusiveOnMaster( Locks.ResourceType resourceType, long ... resourceId )
     {
         makeSureTxHasBeenInitialized();
+        countMasterRoundTrip( resourceId );
         return receiveLockResponse(
                 master.acquireExclusiveLock( requestContextFactory.newRequestContext(), resourceType, resourceId ));
     }
 
+    /**
+     * All resources passed to a single acquire call, less the ones this client already holds, go to the master in
+     * one request, which the master grants as a whole.
+     */
+    private void countMasterRoundTrip( long[] resourceIds )
+    {
+        masterRoundTrips++;
+        resourcesLockedOnMaster += resourceIds.length;
+    }
+
     private boolean receiveLockResponse( Response<LockResult> response )
     {
         LockResult result = xaDsm.applyTransactions( response );
@@ -32,10 +32,17 @@ import org.neo4j.kernel.impl.locking.AcquireLockTimeoutException;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.util.FlyweightPool;
 import org.neo4j.kernel.impl.util.collection.SimpleBitSet;
+import org.neo4j.kernel.impl.util.concurrent.LockWaitStrategies;
 import org.neo4j.kernel.impl.util.concurrent.WaitStrategy;
 
 public class ForsetiClient implements Locks.Client
 {
+    /**
+     * Waiting clients check for deadlocks on every this many wait iterations while they spin or yield, and on every
+     * iteration once they park, so that sampling the wait graph stays off the spinning hot path.
+     */
+    static final int DEADLOCK_DETECTION_INTERVAL = 64;
+
     /** Id for this client */
     private final int myId;
 
@@ -48,6 +55,9 @@ public class ForsetiClient implements Locks.Client
     /** Handle to return client to pool when closed. */
     private final FlyweightPool<ForsetiClient> clientPool;
 
+    /** Told about lock waits and wait graph samples. */
+    private final Locks.Monitor monitor;
+
     /**
      * The client uses this to track which locks it holds. It is solely an optimization to ensure we don't need to
      * coordinate if we grab the same lock multiple times.
@@ -71,12 +81,14 @@ public class ForsetiClient implements Locks.Client
     public ForsetiClient( int id,
                           ConcurrentMap[] lockMaps,
                           WaitStrategy[] waitStrategies,
-                          FlyweightPool<ForsetiClient> clientPool )
+                          FlyweightPool<ForsetiClient> clientPool,
+                          Locks.Monitor monitor )
     {
         this.myId                = id;
         this.lockMaps            = lockMaps;
         this.waitStrategies      = waitStrategies;
         this.clientPool          = clientPool;
+        this.monitor             = monitor;
         this.sharedLockCounts    = new PrimitiveLongIntMap[lockMaps.length];
         this.exclusiveLockCounts = new PrimitiveLongIntMap[lockMaps.length];
 
@@ -113,6 +125,7 @@ public class ForsetiClient implements Locks.Client
             }
 
             int tries = 0;
+            long waitStartNanos = 0;
             SharedLock mySharedLock = null;
             while(true)
             {
@@ -136,6 +149,8 @@ public class ForsetiClient implements Locks.Client
                 }
                 else if(existingLock instanceof SharedLock)
                 {
+                    // The fast path: joining a lock that is already shared leaves the lock map untouched, and
+                    // takes one CAS on its reference count plus one on a holder slot that is usually free.
                     if(((SharedLock)existingLock).acquire(this))
                     {
                         // Success!
@@ -151,11 +166,15 @@ public class ForsetiClient implements Locks.Client
                     throw new UnsupportedOperationException( "Unknown lock type: " + existingLock );
                 }
 
-                waitStrategies[resourceType.typeId()].apply( tries++ );
-                markAsWaitingFor( existingLock, resourceType, resourceId );
+                if ( tries == 0 )
+                {
+                    waitStartNanos = System.nanoTime();
+                }
+                waitFor( existingLock, resourceType, resourceId, tries++ );
             }
 
             clearWaitList();
+            lockWaited( resourceType, tries, waitStartNanos );
             heldShareLocks.put( resourceId, 1 );
         }
     }
@@ -179,6 +198,7 @@ public class ForsetiClient implements Locks.Client
             // Grab the global lock
             ForsetiLockManager.Lock existingLock;
             int tries = 0;
+            long waitStartNanos = 0;
             while( (existingLock = lockMap.putIfAbsent( resourceId, myExclusiveLock )) != null)
             {
                 // If this is a shared lock:
@@ -194,11 +214,15 @@ public class ForsetiClient implements Locks.Client
                     }
                 }
 
-                waitStrategies[resourceType.typeId()].apply( tries++ );
-                markAsWaitingFor( existingLock, resourceType, resourceId );
+                if ( tries == 0 )
+                {
+                    waitStartNanos = System.nanoTime();
+                }
+                waitFor( existingLock, resourceType, resourceId, tries++ );
             }
 
             clearWaitList();
+            lockWaited( resourceType, tries, waitStartNanos );
             heldLocks.put( resourceId, 1 );
         }
     }
@@ -474,6 +498,17 @@ public class ForsetiClient implements Locks.Client
         clientPool.release( this );
     }
 
+    @Override
+    public int activeLockCount()
+    {
+        int count = 0;
+        for ( int i = 0; i < exclusiveLockCounts.length; i++ )
+        {
+            count += exclusiveLockCounts[i].size() + sharedLockCounts[i].size();
+        }
+        return count;
+    }
+
     public int waitListSize()
     {
         return waitList.size();
@@ -608,8 +643,7 @@ public class ForsetiClient implements Locks.Client
                 // Now we just wait for all clients to release the the share lock
                 while(sharedLock.numberOfHolders() > 1)
                 {
-                    waitStrategies[resourceType.typeId()].apply( tries++ );
-                    markAsWaitingFor( sharedLock, resourceType, resourceId );
+                    waitFor( sharedLock, resourceType, resourceId, tries++ );
                 }
 
                 // No more people other than us holding this lock. Swap it to exclusive
@@ -635,6 +669,29 @@ public class ForsetiClient implements Locks.Client
         return false;
     }
 
+    /**
+     * Waits once according to the wait strategy of the resource type. Only some iterations sample the wait graph
+     * for deadlocks, see {@link #DEADLOCK_DETECTION_INTERVAL}.
+     */
+    private void waitFor( ForsetiLockManager.Lock lock, Locks.ResourceType type, long resourceId, int tries )
+            throws AcquireLockTimeoutException
+    {
+        waitStrategies[type.typeId()].apply( tries );
+        if ( tries % DEADLOCK_DETECTION_INTERVAL == 0 || tries >= LockWaitStrategies.PARK_AFTER_ITERATIONS )
+        {
+            markAsWaitingFor( lock, type, resourceId );
+            monitor.waitForEdgesSampled( type, waitList.size() - 1 );
+        }
+    }
+
+    private void lockWaited( Locks.ResourceType type, int tries, long waitStartNanos )
+    {
+        if ( tries > 0 )
+        {
+            monitor.lockWaited( type, System.nanoTime() - waitStartNanos );
+        }
+    }
+
     private void clearWaitList()
     {
         waitList.clear();
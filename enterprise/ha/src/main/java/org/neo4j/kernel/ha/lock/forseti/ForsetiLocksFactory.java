@@ -36,4 +36,10 @@ public class ForsetiLocksFactory extends Locks.Factory
     {
         return new ForsetiLockManager( ResourceTypes.values() );
     }
+
+    @Override
+    public Locks newInstance( Locks.ResourceType[] resourceTypes, Locks.Monitor monitor )
+    {
+        return new ForsetiLockManager( monitor, ResourceTypes.values() );
+    }
 }
@@ -275,15 +275,16 @@ class SharedLock implements ForsetiLockManager.Lock
                     holders = addHolderArray( i );
                 }
 
-                for ( int j = 0; j < holders.length(); j++ )
+                // Each client starts looking at its own slot, and the array lengths are powers of two, so that
+                // concurrent holders mostly CAS on different, free slots rather than all racing for the first one.
+                int length = holders.length();
+                int start = client.id() & (length - 1);
+                for ( int k = 0; k < length; k++ )
                 {
+                    int j = (start + k) & (length - 1);
                     ForsetiClient c = holders.get( j );
                     if(c == null)
                     {
-                        // TODO This means we do CAS on each entry, very likely hitting a lot of failures until we
-                        // TODO find a slot. We should look into better strategies here.
-                        // TODO One such strategy could be binary searching for a free slot, and then linear scan
-                        // TODO after that if the CAS fails on the slot we found with binary search.
                         if( holders.compareAndSet( j, null, client ) )
                         {
                             return true;
@@ -87,14 +87,35 @@ public class CommitPusher extends LifecycleAdapter
 
     private final Map<Integer, BlockingQueue<PullUpdateFuture>> pullUpdateQueues = new HashMap<>();
     private final JobScheduler scheduler;
+    private final TransactionAcknowledgements acknowledgements;
 
     public CommitPusher( JobScheduler scheduler )
+    {
+        this( scheduler, new TransactionAcknowledgements() );
+    }
+
+    public CommitPusher( JobScheduler scheduler, TransactionAcknowledgements acknowledgements )
     {
         this.scheduler = scheduler;
+        this.acknowledgements = acknowledgements;
+    }
+
+    /**
+     * @return whether a push of the given transaction, or a later one, to the slave has already succeeded, in which
+     * case there's no need to push it again.
+     */
+    public boolean hasAcknowledged( XaDataSource dataSource, Slave slave, long txId )
+    {
+        return acknowledgements.hasAcknowledged( slave.getServerId(), dataSource.getName(), txId );
     }
 
     public void queuePush( XaDataSource dataSource, Slave slave, long txId )
     {
+        if ( hasAcknowledged( dataSource, slave, txId ) )
+        {
+            return;
+        }
+
         PullUpdateFuture pullRequest = new PullUpdateFuture( slave, txId );
 
         BlockingQueue<PullUpdateFuture> queue = getOrCreateQueue( dataSource, slave );
@@ -157,10 +178,17 @@ public class CommitPusher extends LifecycleAdapter
 
                             try
                             {
-                                PullUpdateFuture pullUpdateFuture = currentPulls.get( 0 );
-                                Response<Void> response = pullUpdateFuture.getSlave().pullUpdates(
-                                        dataSource.getName(), pullUpdateFuture.getTxId() );
-                                response.close();
+                                // One pull brings the slave up to date with everything committed so far, so it
+                                // covers all the queued commits, and none at all is needed if an earlier push has
+                                // already covered the latest of them.
+                                Slave slave = currentPulls.get( 0 ).getSlave();
+                                long txId = highestTxId( currentPulls );
+                                if ( !acknowledgements.hasAcknowledged( slave.getServerId(), dataSource.getName(), txId ) )
+                                {
+                                    Response<Void> response = slave.pullUpdates( dataSource.getName(), txId );
+                                    response.close();
+                                    acknowledgements.acknowledged( slave.getServerId(), dataSource.getName(), txId );
+                                }
 
                                 // Notify the futures
                                 for ( PullUpdateFuture currentPull : currentPulls )
@@ -187,4 +215,14 @@ public class CommitPusher extends LifecycleAdapter
         }
         return queue;
     }
+
+    private static long highestTxId( List<PullUpdateFuture> pulls )
+    {
+        long txId = 0;
+        for ( PullUpdateFuture pull : pulls )
+        {
+            txId = Math.max( txId, pull.getTxId() );
+        }
+        return txId;
+    }
 }
@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.ha.transaction;
+
+import org.neo4j.com.ComException;
+import org.neo4j.kernel.ha.UpdatePuller;
+import org.neo4j.kernel.ha.cluster.HighAvailabilityMemberState;
+import org.neo4j.kernel.ha.cluster.HighAvailabilityMemberStateMachine;
+import org.neo4j.kernel.impl.transaction.TransactionAwaiter;
+import org.neo4j.kernel.impl.transaction.XaDataSourceManager;
+import org.neo4j.kernel.impl.util.JobScheduler;
+import org.neo4j.kernel.impl.util.StringLogger;
+
+/**
+ * Waits for a transaction committed elsewhere in the cluster by pulling updates from the master instead of waiting
+ * for the next scheduled pull. A pull only ships the transactions this slave is missing. The pull runs as a job in
+ * the {@link JobScheduler} so that a slow master never holds a waiter past its timeout, and waiters arriving while
+ * a pull is running get one more pull after it instead of one each.
+ */
+public class SlaveTransactionAwaiter extends TransactionAwaiter
+{
+    private final HighAvailabilityMemberStateMachine memberStateMachine;
+    private final UpdatePuller updatePuller;
+    private final JobScheduler scheduler;
+    private final StringLogger logger;
+    private final Runnable pullJob = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            do
+            {
+                pull();
+            }
+            while ( pullAgain() );
+        }
+    };
+
+    private boolean pulling;
+    private boolean pullRequested;
+
+    public SlaveTransactionAwaiter( XaDataSourceManager xaDataSourceManager,
+                                    HighAvailabilityMemberStateMachine memberStateMachine,
+                                    UpdatePuller updatePuller, JobScheduler scheduler, StringLogger logger )
+    {
+        super( xaDataSourceManager );
+        this.memberStateMachine = memberStateMachine;
+        this.updatePuller = updatePuller;
+        this.scheduler = scheduler;
+        this.logger = logger;
+    }
+
+    @Override
+    protected void catchUp( long txId )
+    {
+        if ( lastCommittedTxId() >= txId || memberStateMachine.getCurrentState() != HighAvailabilityMemberState.SLAVE )
+        {
+            return;
+        }
+
+        synchronized ( this )
+        {
+            if ( pulling )
+            {
+                // The running pull may have asked the master before txId was committed there
+                pullRequested = true;
+                return;
+            }
+            pulling = true;
+            pullRequested = false;
+        }
+
+        try
+        {
+            scheduler.schedule( JobScheduler.Group.pullUpdates, pullJob );
+        }
+        catch ( RuntimeException e )
+        {
+            synchronized ( this )
+            {
+                pulling = false;
+            }
+            logger.debug( "Unable to schedule a pull of updates up to transaction " + txId, e );
+        }
+    }
+
+    private synchronized boolean pullAgain()
+    {
+        if ( pullRequested )
+        {
+            pullRequested = false;
+            return true;
+        }
+        pulling = false;
+        return false;
+    }
+
+    private void pull()
+    {
+        try
+        {
+            updatePuller.pullUpdates();
+        }
+        catch ( ComException e )
+        {
+            // Waiters will still see their transactions if a scheduled pull or a push brings them in time
+            logger.debug( "Unable to pull updates from the master", e );
+        }
+        catch ( Exception e )
+        {
+            logger.warn( "Pulling updates for waiting requests failed", e );
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.ha.transaction;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.cluster.InstanceId;
+import org.neo4j.cluster.protocol.cluster.ClusterListener;
+import org.neo4j.com.RequestContext;
+
+/**
+ * Keeps track of which transactions each slave has acknowledged, i.e. which pushes to it have succeeded, so that
+ * a transaction already covered by an earlier push isn't pushed to that slave again.
+ * <p>
+ * What a slave reports in its requests, i.e. the last transactions it has applied, never counts as an
+ * acknowledgement. It can only take acknowledgements back, for instance after the slave has copied a new store.
+ * Everything known about a slave is forgotten when it leaves or joins the cluster, and everything known about all
+ * slaves when this instance leaves the cluster or switches role.
+ */
+public class TransactionAcknowledgements extends ClusterListener.Adapter
+{
+    public static final long NONE = -1;
+
+    private final ConcurrentMap<Integer, ConcurrentMap<String, AtomicLong>> acknowledged = new ConcurrentHashMap<>();
+
+    /**
+     * Takes back acknowledgements beyond the positions a slave reported in a request it sent. These are what the
+     * slave actually has, which may be less than was acknowledged, for instance because the slave has since copied
+     * a new store.
+     */
+    public void applied( RequestContext context )
+    {
+        for ( RequestContext.Tx tx : context.lastAppliedTransactions() )
+        {
+            moveBack( position( context.machineId(), tx.getDataSourceName() ), tx.getTxId() );
+        }
+    }
+
+    /**
+     * Records that a push of everything up to and including {@code txId} to a slave has succeeded.
+     */
+    public void acknowledged( int serverId, String dataSourceName, long txId )
+    {
+        moveForward( position( serverId, dataSourceName ), txId );
+    }
+
+    /**
+     * @return whether a push of the given transaction, or a later one, to the slave has succeeded.
+     */
+    public boolean hasAcknowledged( int serverId, String dataSourceName, long txId )
+    {
+        return get( serverId, dataSourceName ) >= txId;
+    }
+
+    /**
+     * Forgets everything known about the given slave.
+     */
+    public void forget( int serverId )
+    {
+        acknowledged.remove( serverId );
+    }
+
+    /**
+     * Forgets everything known about all slaves.
+     */
+    public void clear()
+    {
+        acknowledged.clear();
+    }
+
+    @Override
+    public void joinedCluster( InstanceId instanceId, URI member )
+    {
+        forget( instanceId.toIntegerIndex() );
+    }
+
+    @Override
+    public void leftCluster( InstanceId instanceId, URI member )
+    {
+        forget( instanceId.toIntegerIndex() );
+    }
+
+    @Override
+    public void leftCluster()
+    {
+        clear();
+    }
+
+    private static void moveForward( AtomicLong position, long txId )
+    {
+        long current;
+        do
+        {
+            current = position.get();
+            if ( current >= txId )
+            {
+                return;
+            }
+        }
+        while ( !position.compareAndSet( current, txId ) );
+    }
+
+    private static void moveBack( AtomicLong position, long txId )
+    {
+        long current;
+        do
+        {
+            current = position.get();
+            if ( current <= txId )
+            {
+                return;
+            }
+        }
+        while ( !position.compareAndSet( current, txId ) );
+    }
+
+    private long get( int serverId, String dataSourceName )
+    {
+        ConcurrentMap<String, AtomicLong> positions = acknowledged.get( serverId );
+        if ( positions == null )
+        {
+            return NONE;
+        }
+        AtomicLong position = positions.get( dataSourceName );
+        return position == null ? NONE : position.get();
+    }
+
+    private AtomicLong position( int serverId, String dataSourceName )
+    {
+        ConcurrentMap<String, AtomicLong> positions = acknowledged.get( serverId );
+        if ( positions == null )
+        {
+            ConcurrentMap<String, AtomicLong> newPositions = new ConcurrentHashMap<>();
+            positions = acknowledged.putIfAbsent( serverId, newPositions );
+            if ( positions == null )
+            {
+                positions = newPositions;
+            }
+        }
+        AtomicLong position = positions.get( dataSourceName );
+        if ( position == null )
+        {
+            AtomicLong newPosition = new AtomicLong( NONE );
+            position = positions.putIfAbsent( dataSourceName, newPosition );
+            if ( position == null )
+            {
+                position = newPosition;
+            }
+        }
+        return position;
+    }
+}
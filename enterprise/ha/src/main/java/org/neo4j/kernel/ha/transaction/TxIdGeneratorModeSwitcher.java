@@ -46,13 +46,14 @@ public class TxIdGeneratorModeSwitcher extends AbstractModeSwitcher<TxIdGenerato
     private final Slaves slaves;
     private final AbstractTransactionManager tm;
     private final JobScheduler scheduler;
+    private final TransactionAcknowledgements acknowledgements;
 
     public TxIdGeneratorModeSwitcher( HighAvailabilityMemberStateMachine stateMachine,
                                       DelegateInvocationHandler<TxIdGenerator> delegate, HaXaDataSourceManager xaDsm,
                                       DelegateInvocationHandler<Master> master,
                                       RequestContextFactory requestContextFactory,
                                       StringLogger msgLog, Config config, Slaves slaves, AbstractTransactionManager tm,
-                                      JobScheduler scheduler
+                                      JobScheduler scheduler, TransactionAcknowledgements acknowledgements
     )
     {
         super( stateMachine, delegate );
@@ -64,17 +65,22 @@ public class TxIdGeneratorModeSwitcher extends AbstractModeSwitcher<TxIdGenerato
         this.slaves = slaves;
         this.tm = tm;
         this.scheduler = scheduler;
+        this.acknowledgements = acknowledgements;
     }
 
     @Override
     protected TxIdGenerator getMasterImpl()
     {
-        return new MasterTxIdGenerator( MasterTxIdGenerator.from( config ), msgLog, slaves, new CommitPusher( scheduler ) );
+        // Whatever was known about the slaves before this switch may no longer hold
+        acknowledgements.clear();
+        return new MasterTxIdGenerator( MasterTxIdGenerator.from( config ), msgLog, slaves, new CommitPusher( scheduler,
+                acknowledgements ) );
     }
 
     @Override
     protected TxIdGenerator getSlaveImpl( URI serverHaUri )
     {
+        acknowledgements.clear();
         return new SlaveTxIdGenerator( config.get( ClusterSettings.server_id ).toIntegerIndex(), master.cement(),
                 HighAvailabilityModeSwitcher.getServerId( serverHaUri ).toIntegerIndex(), requestContextFactory, xaDsm,
                 tm );
@@ -22,8 +22,10 @@ package org.neo4j.ha;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.util.Arrays;
 
@@ -289,6 +291,35 @@ public class TestBlockLogBuffer
         assertThat( actual, new ArrayMatches<byte[]>( Arrays.copyOfRange( bytesValue, 510, 600 ) ) );
     }
     
+    @Test
+    public void writingChannelThroughReadBufferShouldProduceTheSameBlocks() throws Exception
+    {
+        byte[] bytesValue = new byte[1000];
+        for ( int i = 0; i < bytesValue.length; i++ )
+        {
+            bytesValue[i] = (byte) i;
+        }
+
+        byte[] expected = new byte[1100];
+        ChannelBuffer expectedBuffer = ChannelBuffers.wrappedBuffer( expected );
+        expectedBuffer.resetWriterIndex();
+        BlockLogBuffer buffer = new BlockLogBuffer( expectedBuffer, new Monitors().newMonitor( ByteCounterMonitor.class ) );
+        assertEquals( 1000, buffer.write( Channels.newChannel( new ByteArrayInputStream( bytesValue ) ) ) );
+        buffer.done();
+
+        byte[] actual = new byte[1100];
+        ChannelBuffer actualBuffer = ChannelBuffers.wrappedBuffer( actual );
+        actualBuffer.resetWriterIndex();
+        buffer = new BlockLogBuffer( actualBuffer, new Monitors().newMonitor( ByteCounterMonitor.class ) );
+        // A read buffer size that is not a multiple of the block size
+        assertEquals( 1000, buffer.write( Channels.newChannel( new ByteArrayInputStream( bytesValue ) ),
+                ByteBuffer.allocateDirect( 300 ) ) );
+        buffer.done();
+
+        assertEquals( expectedBuffer.writerIndex(), actualBuffer.writerIndex() );
+        assertThat( actual, new ArrayMatches<byte[]>( expected ) );
+    }
+
     private class ArrayMatches<T> extends BaseMatcher<T>
     {
         private final T expected;
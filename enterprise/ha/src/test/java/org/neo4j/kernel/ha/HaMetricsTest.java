@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.ha;
+
+import org.junit.Test;
+
+import org.neo4j.kernel.IdType;
+import org.neo4j.kernel.ha.id.HaIdGeneratorFactory;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.kernel.monitoring.metrics.MetricsRegistry;
+
+import static org.junit.Assert.assertEquals;
+
+public class HaMetricsTest
+{
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private final Monitors monitors = new Monitors();
+
+    @Test
+    public void shouldRecordIdRangeRefillsPerIdType() throws Exception
+    {
+        // Given
+        new HaMetrics( registry ).listenTo( monitors );
+        HaIdGeneratorFactory.Monitor monitor = monitors.newMonitor( HaIdGeneratorFactory.Monitor.class );
+
+        // When
+        monitor.idRangeReceived( IdType.NODE, 1000, 0 );
+        monitor.idRangeReceived( IdType.NODE, 1000, 500 );
+        monitor.idRangeReceived( IdType.RELATIONSHIP, 1000, 0 );
+
+        // Then
+        assertEquals( 2, registry.count( HaMetrics.SLAVE_ID_RANGE_REFILLS + ".node" ) );
+        assertEquals( 2, registry.count( HaMetrics.SLAVE_ID_RANGE_STALL_TIME + ".node" ) );
+        assertEquals( 1, registry.count( HaMetrics.SLAVE_ID_RANGE_REFILLS + ".relationship" ) );
+        assertEquals( 0, registry.count( HaMetrics.SLAVE_ID_RANGE_REFILLS + ".property" ) );
+    }
+}
@@ -39,6 +39,7 @@ import org.neo4j.kernel.impl.util.TestLogging;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -53,7 +54,7 @@ public class MasterEpochTest
         // GIVEN
         SPI spi = mock( SPI.class );
         IdAllocation servedIdAllocation = idAllocation( 0, 999 );
-        when( spi.allocateIds( any( IdType.class ) ) ).thenReturn( servedIdAllocation );
+        when( spi.allocateIds( any( IdType.class ), anyInt() ) ).thenReturn( servedIdAllocation );
         when( spi.getMasterIdForCommittedTx( anyLong() ) ).thenReturn( Pair.of( 1, 10L ) );
         StoreId storeId = new StoreId();
         MasterImpl master = new MasterImpl( spi,
@@ -63,11 +64,11 @@ public class MasterEpochTest
         master.start();
         
         // WHEN/THEN
-        IdAllocation idAllocation = master.allocateIds( context( handshake.epoch() ), IdType.NODE ).response();
+        IdAllocation idAllocation = master.allocateIds( context( handshake.epoch() ), IdType.NODE, 0 ).response();
         assertEquals( servedIdAllocation.getHighestIdInUse(), idAllocation.getHighestIdInUse() );
         try
         {
-            master.allocateIds( context( handshake.epoch()+1 ), IdType.NODE );
+            master.allocateIds( context( handshake.epoch()+1 ), IdType.NODE, 0 );
             fail( "Should fail with invalid epoch" );
         }
         catch ( InvalidEpochException e )
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.ha.cluster;
+
+import javax.transaction.TransactionManager;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import org.neo4j.graphdb.DependencyResolver;
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.ha.com.master.MasterImpl;
+import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
+import org.neo4j.kernel.logging.Logging;
+import org.neo4j.kernel.monitoring.Monitors;
+
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.kernel.impl.locking.ResourceTypes.NODE;
+
+public class DefaultMasterImplSPITest
+{
+    private final Statement statement = mock( Statement.class );
+    private final MasterImpl.LockGrabber grabber = mock( MasterImpl.LockGrabber.class );
+    private DefaultMasterImplSPI spi;
+
+    @Before
+    public void setUp()
+    {
+        ThreadToStatementContextBridge bridge = mock( ThreadToStatementContextBridge.class );
+        when( bridge.instance() ).thenReturn( statement );
+        DependencyResolver resolver = mock( DependencyResolver.class );
+        when( resolver.resolveDependency( ThreadToStatementContextBridge.class ) ).thenReturn( bridge );
+        GraphDatabaseAPI graphDb = mock( GraphDatabaseAPI.class );
+        when( graphDb.getDependencyResolver() ).thenReturn( resolver );
+
+        spi = new DefaultMasterImplSPI( graphDb, mock( Logging.class ), mock( TransactionManager.class ),
+                new Monitors() );
+    }
+
+    @Test
+    public void shouldGrabLocksInIdOrder() throws Exception
+    {
+        // When
+        spi.acquireLock( grabber, NODE, new long[]{3, 1, 2} );
+
+        // Then
+        InOrder order = inOrder( grabber );
+        order.verify( grabber ).grab( statement, NODE, 1 );
+        order.verify( grabber ).grab( statement, NODE, 2 );
+        order.verify( grabber ).grab( statement, NODE, 3 );
+    }
+
+    @Test
+    public void shouldReleaseLocksGrabbedByTheSameRequestIfOneOfThemFails() throws Exception
+    {
+        // Given
+        doThrow( new DeadlockDetectedException( "deadlock" ) ).when( grabber ).grab( statement, NODE, 3 );
+
+        // When
+        try
+        {
+            spi.acquireLock( grabber, NODE, new long[]{4, 3, 1, 2} );
+            fail( "Should have failed" );
+        }
+        catch ( DeadlockDetectedException e )
+        {
+            // Then
+            InOrder order = inOrder( grabber );
+            order.verify( grabber ).release( statement, NODE, 2 );
+            order.verify( grabber ).release( statement, NODE, 1 );
+            verify( grabber, never() ).grab( statement, NODE, 4 );
+            verify( grabber, never() ).release( statement, NODE, 3 );
+        }
+    }
+}
@@ -23,6 +23,9 @@ import java.io.File;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import org.neo4j.com.RequestContext;
 import org.neo4j.com.Response;
@@ -32,12 +35,17 @@ import org.neo4j.kernel.ha.com.RequestContextFactory;
 import org.neo4j.kernel.ha.com.master.Master;
 import org.neo4j.kernel.impl.nioneo.store.IdGenerator;
 import org.neo4j.kernel.impl.nioneo.store.IdRange;
+import org.neo4j.kernel.impl.util.JobScheduler;
 import org.neo4j.kernel.logging.DevNullLoggingService;
 import org.neo4j.test.impl.EphemeralFileSystemAbstraction;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -51,7 +59,7 @@ public class HaIdGeneratorFactoryTest
         // GIVEN
         IdAllocation firstResult = new IdAllocation( new IdRange( new long[]{}, 42, 123 ), 123, 0 );
         Response<IdAllocation> response = response( firstResult );
-        when( master.allocateIds( any( RequestContext.class ), any( IdType.class ) ) ).thenReturn( response );
+        when( master.allocateIds( any( RequestContext.class ), any( IdType.class ), anyInt() ) ).thenReturn( response );
         
         // WHEN
         IdGenerator gen = switchToSlave();
@@ -61,7 +69,7 @@ public class HaIdGeneratorFactoryTest
         {
             assertEquals(i, gen.nextId());
         }
-        verify( master, times( 1 ) ).allocateIds( any( RequestContext.class ), eq( IdType.NODE ) );
+        verify( master, times( 1 ) ).allocateIds( any( RequestContext.class ), eq( IdType.NODE ), anyInt() );
     }
 
     @Test
@@ -71,7 +79,7 @@ public class HaIdGeneratorFactoryTest
         IdAllocation firstResult = new IdAllocation( new IdRange( new long[]{}, 42, 123 ), 42 + 123, 0 );
         IdAllocation secondResult = new IdAllocation( new IdRange( new long[]{}, 1042, 223 ), 1042 + 223, 0 );
         Response<IdAllocation> response = response( firstResult, secondResult );
-        when( master.allocateIds( any( RequestContext.class ), any( IdType.class ) ) ).thenReturn( response );
+        when( master.allocateIds( any( RequestContext.class ), any( IdType.class ), anyInt() ) ).thenReturn( response );
         
         // WHEN
         IdGenerator gen = switchToSlave();
@@ -83,7 +91,7 @@ public class HaIdGeneratorFactoryTest
         {
             assertEquals(i, gen.nextId());
         }
-        verify( master, times( 1 ) ).allocateIds( any( RequestContext.class ), eq( IdType.NODE ) );
+        verify( master, times( 1 ) ).allocateIds( any( RequestContext.class ), eq( IdType.NODE ), anyInt() );
 
         startAt = secondResult.getIdRange().getRangeStart();
         forThatMany = secondResult.getIdRange().getRangeLength();
@@ -92,7 +100,7 @@ public class HaIdGeneratorFactoryTest
             assertEquals(i, gen.nextId());
         }
 
-        verify( master, times( 2 ) ).allocateIds( any( RequestContext.class ), eq( IdType.NODE ) );
+        verify( master, times( 2 ) ).allocateIds( any( RequestContext.class ), eq( IdType.NODE ), anyInt() );
     }
 
     @Test
@@ -102,7 +110,7 @@ public class HaIdGeneratorFactoryTest
         long[] defragIds = {42, 27172828, 314159};
         IdAllocation firstResult = new IdAllocation( new IdRange( defragIds, 0, 0 ), 0, defragIds.length );
         Response<IdAllocation> response = response( firstResult );
-        when( master.allocateIds( any( RequestContext.class ), any( IdType.class ) ) ).thenReturn( response );
+        when( master.allocateIds( any( RequestContext.class ), any( IdType.class ), anyInt() ) ).thenReturn( response );
 
         // WHEN
         IdGenerator gen = switchToSlave();
@@ -121,7 +129,7 @@ public class HaIdGeneratorFactoryTest
         long[] defragIds = {42, 27172828, 314159};
         IdAllocation firstResult = new IdAllocation( new IdRange( defragIds, 0, 10 ), 100, defragIds.length );
         Response<IdAllocation> response = response( firstResult );
-        when( master.allocateIds( any( RequestContext.class ), any( IdType.class ) ) ).thenReturn( response );
+        when( master.allocateIds( any( RequestContext.class ), any( IdType.class ), anyInt() ) ).thenReturn( response );
 
         // WHEN
         IdGenerator gen = switchToSlave();
@@ -141,7 +149,7 @@ public class HaIdGeneratorFactoryTest
         IdAllocation firstResult = new IdAllocation( new IdRange( new long[] {}, 42, highIdFromAllocation ),
                 highIdFromAllocation, 0 );
         Response<IdAllocation> response = response( firstResult );
-        when( master.allocateIds( any( RequestContext.class ), any( IdType.class ) ) ).thenReturn( response );
+        when( master.allocateIds( any( RequestContext.class ), any( IdType.class ), anyInt() ) ).thenReturn( response );
 
         // WHEN
         IdGenerator gen = switchToSlave();
@@ -153,6 +161,87 @@ public class HaIdGeneratorFactoryTest
         assertEquals ( highIdFromUpdatedRecord, gen.getHighId() );
     }
     
+    @Test
+    public void slaveIdGeneratorShouldPrefetchNextRangeBeforeCurrentRunsOut() throws Exception
+    {
+        // GIVEN
+        IdAllocation firstResult = new IdAllocation( new IdRange( new long[]{}, 42, 100 ), 42 + 100, 0 );
+        IdAllocation secondResult = new IdAllocation( new IdRange( new long[]{}, 1042, 100 ), 1042 + 100, 0 );
+        Response<IdAllocation> response = response( firstResult, secondResult );
+        when( master.allocateIds( any( RequestContext.class ), any( IdType.class ), anyInt() ) ).thenReturn( response );
+        HaIdGeneratorFactory.Monitor monitor = mock( HaIdGeneratorFactory.Monitor.class );
+        fac = new HaIdGeneratorFactory( masterDelegate, new DevNullLoggingService(),
+                mock( RequestContextFactory.class ), synchronousScheduler(), monitor );
+
+        // WHEN
+        IdGenerator gen = switchToSlave();
+        for ( long i = 42; i < 42 + 100; i++ )
+        {
+            assertEquals( i, gen.nextId() );
+        }
+
+        // THEN
+        verify( master, times( 2 ) ).allocateIds( any( RequestContext.class ), eq( IdType.NODE ), anyInt() );
+        assertEquals( 1042, gen.nextId() );
+        verify( monitor, times( 2 ) ).idRangeReceived( eq( IdType.NODE ), eq( 100 ), anyLong() );
+    }
+
+    @Test
+    public void slaveIdGeneratorShouldAskForLargerRangesWhenUsingIdsQuickly() throws Exception
+    {
+        // GIVEN
+        when( master.allocateIds( any( RequestContext.class ), any( IdType.class ), anyInt() ) ).thenAnswer(
+                new Answer<Response<IdAllocation>>()
+                {
+                    private long next;
+
+                    @Override
+                    public Response<IdAllocation> answer( InvocationOnMock invocation ) throws Throwable
+                    {
+                        int size = (Integer) invocation.getArguments()[2];
+                        IdAllocation allocation = new IdAllocation( new IdRange( new long[]{}, next, size ),
+                                next + size, 0 );
+                        next += size;
+                        return response( allocation );
+                    }
+                } );
+
+        // WHEN
+        IdGenerator gen = switchToSlave();
+        for ( int i = 0; i <= HaIdGeneratorFactory.MIN_ID_RANGE_SIZE; i++ )
+        {
+            gen.nextId();
+        }
+
+        // THEN
+        ArgumentCaptor<Integer> sizes = ArgumentCaptor.forClass( Integer.class );
+        verify( master, times( 2 ) ).allocateIds( any( RequestContext.class ), eq( IdType.NODE ), sizes.capture() );
+        assertEquals( HaIdGeneratorFactory.MIN_ID_RANGE_SIZE, sizes.getAllValues().get( 0 ).intValue() );
+        int secondSize = sizes.getAllValues().get( 1 );
+        assertTrue( "Unexpected range size " + secondSize, secondSize > HaIdGeneratorFactory.MIN_ID_RANGE_SIZE &&
+                secondSize <= HaIdGeneratorFactory.MAX_ID_RANGE_SIZE );
+    }
+
+    @Test
+    public void shouldFreeIdsUnusedAsSlaveWhenSwitchingToMaster() throws Exception
+    {
+        // GIVEN
+        IdAllocation allocation = new IdAllocation( new IdRange( new long[]{}, 42, 10 ), 42 + 10, 0 );
+        Response<IdAllocation> response = response( allocation );
+        when( master.allocateIds( any( RequestContext.class ), any( IdType.class ), anyInt() ) ).thenReturn( response );
+        IdGenerator gen = switchToSlave();
+        gen.nextId();
+        gen.nextId();
+        gen.nextId();
+
+        // WHEN
+        fac.switchToMaster();
+
+        // THEN
+        assertEquals( 7, gen.getDefragCount() );
+        assertEquals( 42 + 10, gen.getHighId() );
+    }
+
     private Master master;
     private DelegateInvocationHandler<Master> masterDelegate;
     private EphemeralFileSystemAbstraction fs;
@@ -176,6 +265,21 @@ public class HaIdGeneratorFactoryTest
         return response;
     }
 
+    private JobScheduler synchronousScheduler()
+    {
+        JobScheduler scheduler = mock( JobScheduler.class );
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                ((Runnable) invocation.getArguments()[1]).run();
+                return null;
+            }
+        } ).when( scheduler ).schedule( any( JobScheduler.Group.class ), any( Runnable.class ) );
+        return scheduler;
+    }
+
     private IdGenerator switchToSlave()
     {
         fac.switchToSlave();
@@ -42,6 +42,7 @@ public class SlaveLocksClientTest
     private AvailabilityGuard availabilityGuard;
     private HaXaDataSourceManager xaDsm;
     private Locks.Client local;
+    private SlaveLockManager.Monitor monitor;
 
     @Before
     public void setUp() throws Exception
@@ -66,10 +67,11 @@ public class SlaveLocksClientTest
         AvailabilityGuard availabilityGuard = mock( AvailabilityGuard.class );
         when( availabilityGuard.isAvailable( anyLong() )).thenReturn( true );
         SlaveLockManager.Configuration config = mock( SlaveLockManager.Configuration.class );
+        monitor = mock( SlaveLockManager.Monitor.class );
 
         client = new SlaveLocksClient(
                 master, local, localLockManager, requestContextFactory, xaDsm,
-                txManager, txHook, availabilityGuard, config );
+                txManager, txHook, availabilityGuard, config, monitor );
     }
 
     @Test
@@ -187,4 +189,30 @@ public class SlaveLocksClientTest
         verify( local, times(1) ).trySharedLock( NODE, 1l);
         verify( local, times(0) ).releaseShared( NODE, 1l);
     }
+
+    @Test
+    public void shouldReportMasterRoundTripsOfTransactionWhenClosed() throws Exception
+    {
+        // Given the local locks do what they are supposed to do
+        when(local.tryExclusiveLock( NODE, 1, 2 )).thenReturn( true );
+
+        // When a transaction takes locks in two requests, one of which is satisfied locally
+        client.acquireExclusive( NODE, 1, 2 );
+        client.acquireShared( NODE, 3 );
+        client.acquireExclusive( NODE, 2 );
+        client.close();
+
+        // Then the round trips and the resources locked on the master are reported once
+        verify( monitor, times( 1 ) ).masterLocksRequested( 2, 3 );
+    }
+
+    @Test
+    public void shouldNotReportTransactionsThatDidNotTalkToMaster() throws Exception
+    {
+        // When
+        client.close();
+
+        // Then
+        verifyZeroInteractions( monitor );
+    }
 }
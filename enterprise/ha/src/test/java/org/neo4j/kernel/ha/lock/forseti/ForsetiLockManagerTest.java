@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.ha.lock.forseti;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.locking.ResourceTypes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ForsetiLockManagerTest
+{
+    @Test
+    public void shouldTellMonitorAboutLockWaitsAndWaitForEdges() throws Exception
+    {
+        // Given
+        final AtomicLong waitTimeNanos = new AtomicLong( -1 );
+        final AtomicInteger maxWaitForEdges = new AtomicInteger( -1 );
+        Locks locks = new ForsetiLockManager( new Locks.Monitor.Adapter()
+        {
+            @Override
+            public void lockWaited( Locks.ResourceType resourceType, long waitTime )
+            {
+                waitTimeNanos.set( waitTime );
+            }
+
+            @Override
+            public void waitForEdgesSampled( Locks.ResourceType resourceType, int waitForEdges )
+            {
+                maxWaitForEdges.set( Math.max( maxWaitForEdges.get(), waitForEdges ) );
+            }
+        }, ResourceTypes.values() );
+        Locks.Client holder = locks.newClient();
+        final Locks.Client waiter = locks.newClient();
+        holder.acquireExclusive( ResourceTypes.NODE, 1l );
+
+        // When
+        final CountDownLatch acquired = new CountDownLatch( 1 );
+        Thread thread = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                waiter.acquireShared( ResourceTypes.NODE, 1l );
+                acquired.countDown();
+            }
+        };
+        thread.start();
+        Thread.sleep( 50 );
+        holder.releaseExclusive( ResourceTypes.NODE, 1l );
+        acquired.await();
+
+        // Then
+        assertTrue( waitTimeNanos.get() > 0 );
+        assertEquals( 1, maxWaitForEdges.get() );
+        waiter.close();
+        holder.close();
+    }
+
+    @Test
+    public void shouldNotTellMonitorAboutUncontendedLocks() throws Exception
+    {
+        // Given
+        final AtomicInteger events = new AtomicInteger();
+        Locks locks = new ForsetiLockManager( new Locks.Monitor.Adapter()
+        {
+            @Override
+            public void lockWaited( Locks.ResourceType resourceType, long waitTime )
+            {
+                events.incrementAndGet();
+            }
+
+            @Override
+            public void waitForEdgesSampled( Locks.ResourceType resourceType, int waitForEdges )
+            {
+                events.incrementAndGet();
+            }
+        }, ResourceTypes.values() );
+        Locks.Client first = locks.newClient();
+        Locks.Client second = locks.newClient();
+
+        // When
+        first.acquireShared( ResourceTypes.NODE, 1l );
+        second.acquireShared( ResourceTypes.NODE, 1l );
+        first.acquireExclusive( ResourceTypes.RELATIONSHIP, 1l );
+
+        // Then
+        assertEquals( 0, events.get() );
+        first.close();
+        second.close();
+    }
+}
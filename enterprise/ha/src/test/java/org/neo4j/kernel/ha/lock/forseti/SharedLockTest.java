@@ -25,6 +25,7 @@ import static junit.framework.Assert.assertTrue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class SharedLockTest
 {
@@ -61,4 +62,30 @@ public class SharedLockTest
         assertThat( lock.isUpdateLock(), equalTo(false));
     }
 
+    @Test
+    public void shouldTrackHoldersBeyondTheFirstHolderArray() throws Exception
+    {
+        // Given
+        ForsetiClient[] clients = new ForsetiClient[20];
+        for ( int i = 0; i < clients.length; i++ )
+        {
+            clients[i] = mock( ForsetiClient.class );
+            when( clients[i].id() ).thenReturn( i * 3 );
+        }
+        SharedLock lock = new SharedLock( clients[0] );
+
+        // When
+        for ( int i = 1; i < clients.length; i++ )
+        {
+            assertTrue( lock.acquire( clients[i] ) );
+        }
+
+        // Then
+        assertThat( lock.numberOfHolders(), equalTo( clients.length ) );
+        for ( int i = 0; i < clients.length - 1; i++ )
+        {
+            assertThat( lock.release( clients[i] ), equalTo( false ) );
+        }
+        assertThat( lock.release( clients[clients.length - 1] ), equalTo( true ) );
+    }
 }
@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.ha.transaction;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.neo4j.com.ComException;
+import org.neo4j.kernel.ha.UpdatePuller;
+import org.neo4j.kernel.ha.cluster.HighAvailabilityMemberState;
+import org.neo4j.kernel.ha.cluster.HighAvailabilityMemberStateMachine;
+import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
+import org.neo4j.kernel.impl.transaction.XaDataSourceManager;
+import org.neo4j.kernel.impl.transaction.xaframework.XaDataSource;
+import org.neo4j.kernel.impl.util.Neo4jJobScheduler;
+import org.neo4j.kernel.impl.util.StringLogger;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SlaveTransactionAwaiterTest
+{
+    private final AtomicLong lastCommittedTx = new AtomicLong( 10 );
+    private final HighAvailabilityMemberStateMachine memberStateMachine = mock( HighAvailabilityMemberStateMachine.class );
+    private final UpdatePuller updatePuller = mock( UpdatePuller.class );
+    private final Neo4jJobScheduler scheduler = new Neo4jJobScheduler( StringLogger.DEV_NULL );
+    private final SlaveTransactionAwaiter awaiter = new SlaveTransactionAwaiter( dataSourceManager(),
+            memberStateMachine, updatePuller, scheduler, StringLogger.DEV_NULL );
+
+    @Before
+    public void startScheduler()
+    {
+        scheduler.init();
+    }
+
+    @After
+    public void stopScheduler() throws Throwable
+    {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void shouldPullUpdatesWhenSlaveIsBehind() throws Exception
+    {
+        // given
+        when( memberStateMachine.getCurrentState() ).thenReturn( HighAvailabilityMemberState.SLAVE );
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                lastCommittedTx.set( 12 );
+                return null;
+            }
+        } ).when( updatePuller ).pullUpdates();
+
+        // when
+        boolean applied = awaiter.await( 12, 5000 );
+
+        // then
+        assertTrue( applied );
+        verify( updatePuller ).pullUpdates();
+    }
+
+    @Test
+    public void shouldNotPullUpdatesWhenNotSlave() throws Exception
+    {
+        // given
+        when( memberStateMachine.getCurrentState() ).thenReturn( HighAvailabilityMemberState.MASTER );
+
+        // when
+        boolean applied = awaiter.await( 12, 0 );
+
+        // then
+        assertFalse( applied );
+        verify( updatePuller, never() ).pullUpdates();
+    }
+
+    @Test
+    public void shouldKeepWaitingIfPullingUpdatesFails() throws Exception
+    {
+        // given
+        when( memberStateMachine.getCurrentState() ).thenReturn( HighAvailabilityMemberState.SLAVE );
+        doThrow( new ComException( "master went away" ) ).when( updatePuller ).pullUpdates();
+
+        // when
+        boolean applied = awaiter.await( 12, 20 );
+
+        // then
+        assertFalse( applied );
+        verify( updatePuller, timeout( 5000 ) ).pullUpdates();
+    }
+
+    @Test
+    public void shouldNotWaitLongerThanTimeoutWhenPullingUpdatesBlocks() throws Exception
+    {
+        // given
+        when( memberStateMachine.getCurrentState() ).thenReturn( HighAvailabilityMemberState.SLAVE );
+        CountDownLatch masterResponds = blockPullingUntil( new CountDownLatch( 1 ) );
+        try
+        {
+            // when
+            long startTime = System.currentTimeMillis();
+            boolean applied = awaiter.await( 12, 50 );
+            long waited = System.currentTimeMillis() - startTime;
+
+            // then
+            assertFalse( applied );
+            assertTrue( "Waited " + waited + "ms for a 50ms timeout", waited < 2000 );
+        }
+        finally
+        {
+            masterResponds.countDown();
+        }
+    }
+
+    @Test
+    public void shouldPullOnceMoreForAllWaitersArrivingDuringPull() throws Exception
+    {
+        // given
+        when( memberStateMachine.getCurrentState() ).thenReturn( HighAvailabilityMemberState.SLAVE );
+        CountDownLatch masterResponds = blockPullingUntil( new CountDownLatch( 1 ) );
+        awaiter.await( 11, 0 );
+        verify( updatePuller, timeout( 5000 ) ).pullUpdates();
+
+        // when
+        awaiter.await( 12, 0 );
+        awaiter.await( 13, 0 );
+        masterResponds.countDown();
+
+        // then
+        verify( updatePuller, timeout( 5000 ).times( 2 ) ).pullUpdates();
+        Thread.sleep( 100 );
+        verify( updatePuller, times( 2 ) ).pullUpdates();
+    }
+
+    private CountDownLatch blockPullingUntil( final CountDownLatch latch )
+    {
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                latch.await( 10, TimeUnit.SECONDS );
+                return null;
+            }
+        } ).when( updatePuller ).pullUpdates();
+        return latch;
+    }
+
+    private XaDataSourceManager dataSourceManager()
+    {
+        XaDataSource dataSource = mock( XaDataSource.class );
+        when( dataSource.getLastCommittedTxId() ).thenAnswer( new Answer<Long>()
+        {
+            @Override
+            public Long answer( InvocationOnMock invocation ) throws Throwable
+            {
+                return lastCommittedTx.get();
+            }
+        } );
+        XaDataSourceManager dataSourceManager = mock( XaDataSourceManager.class );
+        when( dataSourceManager.getXaDataSource( NeoStoreXaDataSource.DEFAULT_DATA_SOURCE_NAME ) )
+                .thenReturn( dataSource );
+        return dataSourceManager;
+    }
+}
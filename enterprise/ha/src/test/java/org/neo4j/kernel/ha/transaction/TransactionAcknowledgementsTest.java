@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.ha.transaction;
+
+import java.net.URI;
+
+import org.junit.Test;
+
+import org.neo4j.cluster.InstanceId;
+import org.neo4j.com.RequestContext;
+import org.neo4j.kernel.ha.com.master.Slave;
+import org.neo4j.kernel.impl.transaction.xaframework.XaDataSource;
+import org.neo4j.kernel.impl.util.JobScheduler;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static org.neo4j.com.RequestContext.lastAppliedTx;
+
+public class TransactionAcknowledgementsTest
+{
+    private final TransactionAcknowledgements acknowledgements = new TransactionAcknowledgements();
+
+    @Test
+    public void shouldKnowNothingAboutSlavesThatHaveNotReported() throws Exception
+    {
+        assertFalse( acknowledgements.hasAcknowledged( 1, "nioneodb", TransactionAcknowledgements.NONE + 1 ) );
+    }
+
+    @Test
+    public void shouldOnlyMoveForwardOnAcknowledgements() throws Exception
+    {
+        // When
+        acknowledgements.acknowledged( 1, "nioneodb", 10 );
+        acknowledgements.acknowledged( 1, "nioneodb", 5 );
+
+        // Then
+        assertTrue( acknowledgements.hasAcknowledged( 1, "nioneodb", 10 ) );
+        assertFalse( acknowledgements.hasAcknowledged( 1, "nioneodb", 11 ) );
+        assertFalse( acknowledgements.hasAcknowledged( 2, "nioneodb", 10 ) );
+    }
+
+    @Test
+    public void shouldNotTakePositionsReportedBySlaveAsAcknowledgements() throws Exception
+    {
+        // When
+        acknowledgements.applied( new RequestContext( 0, 1, 0, new RequestContext.Tx[]{
+                lastAppliedTx( "nioneodb", 10 )}, 0, 0 ) );
+
+        // Then
+        assertFalse( acknowledgements.hasAcknowledged( 1, "nioneodb", 10 ) );
+    }
+
+    @Test
+    public void shouldTakeBackAcknowledgementsWhenSlaveReportsLess() throws Exception
+    {
+        // Given
+        acknowledgements.acknowledged( 1, "nioneodb", 10 );
+
+        // When
+        acknowledgements.applied( new RequestContext( 0, 1, 0, new RequestContext.Tx[]{
+                lastAppliedTx( "nioneodb", 7 ), lastAppliedTx( "lucene", 3 )}, 0, 0 ) );
+
+        // Then
+        assertTrue( acknowledgements.hasAcknowledged( 1, "nioneodb", 7 ) );
+        assertFalse( acknowledgements.hasAcknowledged( 1, "nioneodb", 8 ) );
+        assertFalse( acknowledgements.hasAcknowledged( 1, "lucene", 3 ) );
+    }
+
+    @Test
+    public void shouldForgetSlaveThatLeavesOrJoinsTheCluster() throws Exception
+    {
+        // Given
+        acknowledgements.acknowledged( 1, "nioneodb", 10 );
+        acknowledgements.acknowledged( 2, "nioneodb", 10 );
+        acknowledgements.acknowledged( 3, "nioneodb", 10 );
+
+        // When
+        acknowledgements.leftCluster( new InstanceId( 1 ), URI.create( "cluster://server1" ) );
+        acknowledgements.joinedCluster( new InstanceId( 2 ), URI.create( "cluster://server2" ) );
+
+        // Then
+        assertFalse( acknowledgements.hasAcknowledged( 1, "nioneodb", 10 ) );
+        assertFalse( acknowledgements.hasAcknowledged( 2, "nioneodb", 10 ) );
+        assertTrue( acknowledgements.hasAcknowledged( 3, "nioneodb", 10 ) );
+    }
+
+    @Test
+    public void shouldForgetAllSlavesWhenLeavingTheCluster() throws Exception
+    {
+        // Given
+        acknowledgements.acknowledged( 1, "nioneodb", 10 );
+        acknowledgements.acknowledged( 2, "nioneodb", 10 );
+
+        // When
+        acknowledgements.leftCluster();
+
+        // Then
+        assertFalse( acknowledgements.hasAcknowledged( 1, "nioneodb", 10 ) );
+        assertFalse( acknowledgements.hasAcknowledged( 2, "nioneodb", 10 ) );
+    }
+
+    @Test
+    public void shouldNotPushToSlaveThatHasAlreadyAcknowledgedTheTransaction() throws Exception
+    {
+        // Given
+        JobScheduler scheduler = mock( JobScheduler.class );
+        Slave slave = mock( Slave.class );
+        when( slave.getServerId() ).thenReturn( 1 );
+        XaDataSource dataSource = mock( XaDataSource.class );
+        when( dataSource.getName() ).thenReturn( "nioneodb" );
+        CommitPusher pusher = new CommitPusher( scheduler, acknowledgements );
+        acknowledgements.acknowledged( 1, "nioneodb", 10 );
+
+        // When
+        pusher.queuePush( dataSource, slave, 9 );
+
+        // Then
+        assertTrue( pusher.hasAcknowledged( dataSource, slave, 10 ) );
+        verifyZeroInteractions( scheduler );
+    }
+}